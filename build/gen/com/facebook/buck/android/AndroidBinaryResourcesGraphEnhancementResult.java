@@ -0,0 +1,804 @@
+package com.facebook.buck.android;
+
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.SourcePath;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code AndroidBinaryResourcesGraphEnhancementResult.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult"})
+@Immutable
+public final class AndroidBinaryResourcesGraphEnhancementResult
+    implements AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult {
+  private final SourcePath pathToRDotTxt;
+  private final @Nullable SourcePath rDotJavaDir;
+  private final SourcePath primaryResourcesApkPath;
+  private final SourcePath androidManifestXml;
+  private final SourcePath aaptGeneratedProguardConfigFile;
+  private final @Nullable PackageStringAssets packageStringAssets;
+  private final ImmutableList<BuildRule> enhancedDeps;
+  private final ImmutableList<SourcePath> primaryApkAssetZips;
+  private final ImmutableList<SourcePath> exoResources;
+
+  private AndroidBinaryResourcesGraphEnhancementResult(
+      SourcePath pathToRDotTxt,
+      @Nullable SourcePath rDotJavaDir,
+      SourcePath primaryResourcesApkPath,
+      SourcePath androidManifestXml,
+      SourcePath aaptGeneratedProguardConfigFile,
+      @Nullable PackageStringAssets packageStringAssets,
+      ImmutableList<BuildRule> enhancedDeps,
+      ImmutableList<SourcePath> primaryApkAssetZips,
+      ImmutableList<SourcePath> exoResources) {
+    this.pathToRDotTxt = pathToRDotTxt;
+    this.rDotJavaDir = rDotJavaDir;
+    this.primaryResourcesApkPath = primaryResourcesApkPath;
+    this.androidManifestXml = androidManifestXml;
+    this.aaptGeneratedProguardConfigFile = aaptGeneratedProguardConfigFile;
+    this.packageStringAssets = packageStringAssets;
+    this.enhancedDeps = enhancedDeps;
+    this.primaryApkAssetZips = primaryApkAssetZips;
+    this.exoResources = exoResources;
+  }
+
+  /**
+   * @return The value of the {@code pathToRDotTxt} attribute
+   */
+  @Override
+  public SourcePath getPathToRDotTxt() {
+    return pathToRDotTxt;
+  }
+
+  /**
+   * @return The value of the {@code rDotJavaDir} attribute
+   */
+  @Override
+  public Optional<SourcePath> getRDotJavaDir() {
+    return Optional.ofNullable(rDotJavaDir);
+  }
+
+  /**
+   * @return The value of the {@code primaryResourcesApkPath} attribute
+   */
+  @Override
+  public SourcePath getPrimaryResourcesApkPath() {
+    return primaryResourcesApkPath;
+  }
+
+  /**
+   * @return The value of the {@code androidManifestXml} attribute
+   */
+  @Override
+  public SourcePath getAndroidManifestXml() {
+    return androidManifestXml;
+  }
+
+  /**
+   * @return The value of the {@code aaptGeneratedProguardConfigFile} attribute
+   */
+  @Override
+  public SourcePath getAaptGeneratedProguardConfigFile() {
+    return aaptGeneratedProguardConfigFile;
+  }
+
+  /**
+   * @return The value of the {@code packageStringAssets} attribute
+   */
+  @Override
+  public Optional<PackageStringAssets> getPackageStringAssets() {
+    return Optional.ofNullable(packageStringAssets);
+  }
+
+  /**
+   * @return The value of the {@code enhancedDeps} attribute
+   */
+  @Override
+  public ImmutableList<BuildRule> getEnhancedDeps() {
+    return enhancedDeps;
+  }
+
+  /**
+   * @return The value of the {@code primaryApkAssetZips} attribute
+   */
+  @Override
+  public ImmutableList<SourcePath> getPrimaryApkAssetZips() {
+    return primaryApkAssetZips;
+  }
+
+  /**
+   * @return The value of the {@code exoResources} attribute
+   */
+  @Override
+  public ImmutableList<SourcePath> getExoResources() {
+    return exoResources;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPathToRDotTxt() pathToRDotTxt} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for pathToRDotTxt
+   * @return A modified copy of the {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withPathToRDotTxt(SourcePath value) {
+    if (this.pathToRDotTxt == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "pathToRDotTxt");
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        newValue,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getRDotJavaDir() rDotJavaDir} attribute.
+   * @param value The value for rDotJavaDir
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withRDotJavaDir(SourcePath value) {
+    @Nullable SourcePath newValue = Preconditions.checkNotNull(value, "rDotJavaDir");
+    if (this.rDotJavaDir == newValue) return this;
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        newValue,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getRDotJavaDir() rDotJavaDir} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for rDotJavaDir
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withRDotJavaDir(Optional<SourcePath> optional) {
+    @Nullable SourcePath value = optional.orElse(null);
+    if (this.rDotJavaDir == value) return this;
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        value,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryResourcesApkPath() primaryResourcesApkPath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for primaryResourcesApkPath
+   * @return A modified copy of the {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withPrimaryResourcesApkPath(SourcePath value) {
+    if (this.primaryResourcesApkPath == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "primaryResourcesApkPath");
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        newValue,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getAndroidManifestXml() androidManifestXml} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for androidManifestXml
+   * @return A modified copy of the {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withAndroidManifestXml(SourcePath value) {
+    if (this.androidManifestXml == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "androidManifestXml");
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        newValue,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getAaptGeneratedProguardConfigFile() aaptGeneratedProguardConfigFile} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for aaptGeneratedProguardConfigFile
+   * @return A modified copy of the {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withAaptGeneratedProguardConfigFile(SourcePath value) {
+    if (this.aaptGeneratedProguardConfigFile == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "aaptGeneratedProguardConfigFile");
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        newValue,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPackageStringAssets() packageStringAssets} attribute.
+   * @param value The value for packageStringAssets
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withPackageStringAssets(PackageStringAssets value) {
+    @Nullable PackageStringAssets newValue = Preconditions.checkNotNull(value, "packageStringAssets");
+    if (this.packageStringAssets == newValue) return this;
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        newValue,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPackageStringAssets() packageStringAssets} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for packageStringAssets
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withPackageStringAssets(Optional<PackageStringAssets> optional) {
+    @Nullable PackageStringAssets value = optional.orElse(null);
+    if (this.packageStringAssets == value) return this;
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        value,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getEnhancedDeps() enhancedDeps}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withEnhancedDeps(BuildRule... elements) {
+    ImmutableList<BuildRule> newValue = ImmutableList.copyOf(elements);
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        newValue,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getEnhancedDeps() enhancedDeps}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of enhancedDeps elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withEnhancedDeps(Iterable<? extends BuildRule> elements) {
+    if (this.enhancedDeps == elements) return this;
+    ImmutableList<BuildRule> newValue = ImmutableList.copyOf(elements);
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        newValue,
+        this.primaryApkAssetZips,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryApkAssetZips() primaryApkAssetZips}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withPrimaryApkAssetZips(SourcePath... elements) {
+    ImmutableList<SourcePath> newValue = ImmutableList.copyOf(elements);
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        newValue,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryApkAssetZips() primaryApkAssetZips}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of primaryApkAssetZips elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withPrimaryApkAssetZips(Iterable<? extends SourcePath> elements) {
+    if (this.primaryApkAssetZips == elements) return this;
+    ImmutableList<SourcePath> newValue = ImmutableList.copyOf(elements);
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        newValue,
+        this.exoResources);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getExoResources() exoResources}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withExoResources(SourcePath... elements) {
+    ImmutableList<SourcePath> newValue = ImmutableList.copyOf(elements);
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getExoResources() exoResources}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of exoResources elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final AndroidBinaryResourcesGraphEnhancementResult withExoResources(Iterable<? extends SourcePath> elements) {
+    if (this.exoResources == elements) return this;
+    ImmutableList<SourcePath> newValue = ImmutableList.copyOf(elements);
+    return new AndroidBinaryResourcesGraphEnhancementResult(
+        this.pathToRDotTxt,
+        this.rDotJavaDir,
+        this.primaryResourcesApkPath,
+        this.androidManifestXml,
+        this.aaptGeneratedProguardConfigFile,
+        this.packageStringAssets,
+        this.enhancedDeps,
+        this.primaryApkAssetZips,
+        newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code AndroidBinaryResourcesGraphEnhancementResult} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof AndroidBinaryResourcesGraphEnhancementResult
+        && equalTo((AndroidBinaryResourcesGraphEnhancementResult) another);
+  }
+
+  private boolean equalTo(AndroidBinaryResourcesGraphEnhancementResult another) {
+    return pathToRDotTxt.equals(another.pathToRDotTxt)
+        && Objects.equal(rDotJavaDir, another.rDotJavaDir)
+        && primaryResourcesApkPath.equals(another.primaryResourcesApkPath)
+        && androidManifestXml.equals(another.androidManifestXml)
+        && aaptGeneratedProguardConfigFile.equals(another.aaptGeneratedProguardConfigFile)
+        && Objects.equal(packageStringAssets, another.packageStringAssets)
+        && enhancedDeps.equals(another.enhancedDeps)
+        && primaryApkAssetZips.equals(another.primaryApkAssetZips)
+        && exoResources.equals(another.exoResources);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code pathToRDotTxt}, {@code rDotJavaDir}, {@code primaryResourcesApkPath}, {@code androidManifestXml}, {@code aaptGeneratedProguardConfigFile}, {@code packageStringAssets}, {@code enhancedDeps}, {@code primaryApkAssetZips}, {@code exoResources}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + pathToRDotTxt.hashCode();
+    h = h * 17 + Objects.hashCode(rDotJavaDir);
+    h = h * 17 + primaryResourcesApkPath.hashCode();
+    h = h * 17 + androidManifestXml.hashCode();
+    h = h * 17 + aaptGeneratedProguardConfigFile.hashCode();
+    h = h * 17 + Objects.hashCode(packageStringAssets);
+    h = h * 17 + enhancedDeps.hashCode();
+    h = h * 17 + primaryApkAssetZips.hashCode();
+    h = h * 17 + exoResources.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code AndroidBinaryResourcesGraphEnhancementResult} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("AndroidBinaryResourcesGraphEnhancementResult")
+        .omitNullValues()
+        .add("pathToRDotTxt", pathToRDotTxt)
+        .add("rDotJavaDir", rDotJavaDir)
+        .add("primaryResourcesApkPath", primaryResourcesApkPath)
+        .add("androidManifestXml", androidManifestXml)
+        .add("aaptGeneratedProguardConfigFile", aaptGeneratedProguardConfigFile)
+        .add("packageStringAssets", packageStringAssets)
+        .add("enhancedDeps", enhancedDeps)
+        .add("primaryApkAssetZips", primaryApkAssetZips)
+        .add("exoResources", exoResources)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable AndroidBinaryResourcesGraphEnhancementResult instance
+   */
+  static AndroidBinaryResourcesGraphEnhancementResult copyOf(AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult instance) {
+    if (instance instanceof AndroidBinaryResourcesGraphEnhancementResult) {
+      return (AndroidBinaryResourcesGraphEnhancementResult) instance;
+    }
+    return AndroidBinaryResourcesGraphEnhancementResult.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link AndroidBinaryResourcesGraphEnhancementResult AndroidBinaryResourcesGraphEnhancementResult}.
+   * @return A new AndroidBinaryResourcesGraphEnhancementResult builder
+   */
+  public static AndroidBinaryResourcesGraphEnhancementResult.Builder builder() {
+    return new AndroidBinaryResourcesGraphEnhancementResult.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link AndroidBinaryResourcesGraphEnhancementResult AndroidBinaryResourcesGraphEnhancementResult}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_PATH_TO_R_DOT_TXT = 0x1L;
+    private static final long INIT_BIT_PRIMARY_RESOURCES_APK_PATH = 0x2L;
+    private static final long INIT_BIT_ANDROID_MANIFEST_XML = 0x4L;
+    private static final long INIT_BIT_AAPT_GENERATED_PROGUARD_CONFIG_FILE = 0x8L;
+    private long initBits = 0xfL;
+
+    private @Nullable SourcePath pathToRDotTxt;
+    private @Nullable SourcePath rDotJavaDir;
+    private @Nullable SourcePath primaryResourcesApkPath;
+    private @Nullable SourcePath androidManifestXml;
+    private @Nullable SourcePath aaptGeneratedProguardConfigFile;
+    private @Nullable PackageStringAssets packageStringAssets;
+    private ImmutableList.Builder<BuildRule> enhancedDeps = ImmutableList.builder();
+    private ImmutableList.Builder<SourcePath> primaryApkAssetZips = ImmutableList.builder();
+    private ImmutableList.Builder<SourcePath> exoResources = ImmutableList.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code AndroidBinaryResourcesGraphEnhancementResult} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(AndroidBinaryResourcesGraphEnhancementResult instance) {
+      return from((AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractAndroidBinaryResourcesGraphEnhancementResult} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setPathToRDotTxt(instance.getPathToRDotTxt());
+      Optional<SourcePath> rDotJavaDirOptional = instance.getRDotJavaDir();
+      if (rDotJavaDirOptional.isPresent()) {
+        setRDotJavaDir(rDotJavaDirOptional);
+      }
+      setPrimaryResourcesApkPath(instance.getPrimaryResourcesApkPath());
+      setAndroidManifestXml(instance.getAndroidManifestXml());
+      setAaptGeneratedProguardConfigFile(instance.getAaptGeneratedProguardConfigFile());
+      Optional<PackageStringAssets> packageStringAssetsOptional = instance.getPackageStringAssets();
+      if (packageStringAssetsOptional.isPresent()) {
+        setPackageStringAssets(packageStringAssetsOptional);
+      }
+      addAllEnhancedDeps(instance.getEnhancedDeps());
+      addAllPrimaryApkAssetZips(instance.getPrimaryApkAssetZips());
+      addAllExoResources(instance.getExoResources());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPathToRDotTxt() pathToRDotTxt} attribute.
+     * @param pathToRDotTxt The value for pathToRDotTxt 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPathToRDotTxt(SourcePath pathToRDotTxt) {
+      this.pathToRDotTxt = Preconditions.checkNotNull(pathToRDotTxt, "pathToRDotTxt");
+      initBits &= ~INIT_BIT_PATH_TO_R_DOT_TXT;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getRDotJavaDir() rDotJavaDir} to rDotJavaDir.
+     * @param rDotJavaDir The value for rDotJavaDir
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setRDotJavaDir(SourcePath rDotJavaDir) {
+      this.rDotJavaDir = Preconditions.checkNotNull(rDotJavaDir, "rDotJavaDir");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getRDotJavaDir() rDotJavaDir} to rDotJavaDir.
+     * @param rDotJavaDir The value for rDotJavaDir
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRDotJavaDir(Optional<SourcePath> rDotJavaDir) {
+      this.rDotJavaDir = rDotJavaDir.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryResourcesApkPath() primaryResourcesApkPath} attribute.
+     * @param primaryResourcesApkPath The value for primaryResourcesApkPath 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPrimaryResourcesApkPath(SourcePath primaryResourcesApkPath) {
+      this.primaryResourcesApkPath = Preconditions.checkNotNull(primaryResourcesApkPath, "primaryResourcesApkPath");
+      initBits &= ~INIT_BIT_PRIMARY_RESOURCES_APK_PATH;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getAndroidManifestXml() androidManifestXml} attribute.
+     * @param androidManifestXml The value for androidManifestXml 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setAndroidManifestXml(SourcePath androidManifestXml) {
+      this.androidManifestXml = Preconditions.checkNotNull(androidManifestXml, "androidManifestXml");
+      initBits &= ~INIT_BIT_ANDROID_MANIFEST_XML;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getAaptGeneratedProguardConfigFile() aaptGeneratedProguardConfigFile} attribute.
+     * @param aaptGeneratedProguardConfigFile The value for aaptGeneratedProguardConfigFile 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setAaptGeneratedProguardConfigFile(SourcePath aaptGeneratedProguardConfigFile) {
+      this.aaptGeneratedProguardConfigFile = Preconditions.checkNotNull(aaptGeneratedProguardConfigFile, "aaptGeneratedProguardConfigFile");
+      initBits &= ~INIT_BIT_AAPT_GENERATED_PROGUARD_CONFIG_FILE;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPackageStringAssets() packageStringAssets} to packageStringAssets.
+     * @param packageStringAssets The value for packageStringAssets
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setPackageStringAssets(PackageStringAssets packageStringAssets) {
+      this.packageStringAssets = Preconditions.checkNotNull(packageStringAssets, "packageStringAssets");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPackageStringAssets() packageStringAssets} to packageStringAssets.
+     * @param packageStringAssets The value for packageStringAssets
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPackageStringAssets(Optional<PackageStringAssets> packageStringAssets) {
+      this.packageStringAssets = packageStringAssets.orElse(null);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getEnhancedDeps() enhancedDeps} list.
+     * @param element A enhancedDeps element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addEnhancedDeps(BuildRule element) {
+      this.enhancedDeps.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getEnhancedDeps() enhancedDeps} list.
+     * @param elements An array of enhancedDeps elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addEnhancedDeps(BuildRule... elements) {
+      this.enhancedDeps.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getEnhancedDeps() enhancedDeps} list.
+     * @param elements An iterable of enhancedDeps elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setEnhancedDeps(Iterable<? extends BuildRule> elements) {
+      this.enhancedDeps = ImmutableList.builder();
+      return addAllEnhancedDeps(elements);
+    }
+
+    /**
+     * Adds elements to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getEnhancedDeps() enhancedDeps} list.
+     * @param elements An iterable of enhancedDeps elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllEnhancedDeps(Iterable<? extends BuildRule> elements) {
+      this.enhancedDeps.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryApkAssetZips() primaryApkAssetZips} list.
+     * @param element A primaryApkAssetZips element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addPrimaryApkAssetZips(SourcePath element) {
+      this.primaryApkAssetZips.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryApkAssetZips() primaryApkAssetZips} list.
+     * @param elements An array of primaryApkAssetZips elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addPrimaryApkAssetZips(SourcePath... elements) {
+      this.primaryApkAssetZips.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryApkAssetZips() primaryApkAssetZips} list.
+     * @param elements An iterable of primaryApkAssetZips elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPrimaryApkAssetZips(Iterable<? extends SourcePath> elements) {
+      this.primaryApkAssetZips = ImmutableList.builder();
+      return addAllPrimaryApkAssetZips(elements);
+    }
+
+    /**
+     * Adds elements to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getPrimaryApkAssetZips() primaryApkAssetZips} list.
+     * @param elements An iterable of primaryApkAssetZips elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllPrimaryApkAssetZips(Iterable<? extends SourcePath> elements) {
+      this.primaryApkAssetZips.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getExoResources() exoResources} list.
+     * @param element A exoResources element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addExoResources(SourcePath element) {
+      this.exoResources.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getExoResources() exoResources} list.
+     * @param elements An array of exoResources elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addExoResources(SourcePath... elements) {
+      this.exoResources.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getExoResources() exoResources} list.
+     * @param elements An iterable of exoResources elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setExoResources(Iterable<? extends SourcePath> elements) {
+      this.exoResources = ImmutableList.builder();
+      return addAllExoResources(elements);
+    }
+
+    /**
+     * Adds elements to {@link AndroidBinaryResourcesGraphEnhancer.AbstractAndroidBinaryResourcesGraphEnhancementResult#getExoResources() exoResources} list.
+     * @param elements An iterable of exoResources elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllExoResources(Iterable<? extends SourcePath> elements) {
+      this.exoResources.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link AndroidBinaryResourcesGraphEnhancementResult AndroidBinaryResourcesGraphEnhancementResult}.
+     * @return An immutable instance of AndroidBinaryResourcesGraphEnhancementResult
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public AndroidBinaryResourcesGraphEnhancementResult build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new AndroidBinaryResourcesGraphEnhancementResult(
+          pathToRDotTxt,
+          rDotJavaDir,
+          primaryResourcesApkPath,
+          androidManifestXml,
+          aaptGeneratedProguardConfigFile,
+          packageStringAssets,
+          enhancedDeps.build(),
+          primaryApkAssetZips.build(),
+          exoResources.build());
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_PATH_TO_R_DOT_TXT) != 0) attributes.add("pathToRDotTxt");
+      if ((initBits & INIT_BIT_PRIMARY_RESOURCES_APK_PATH) != 0) attributes.add("primaryResourcesApkPath");
+      if ((initBits & INIT_BIT_ANDROID_MANIFEST_XML) != 0) attributes.add("androidManifestXml");
+      if ((initBits & INIT_BIT_AAPT_GENERATED_PROGUARD_CONFIG_FILE) != 0) attributes.add("aaptGeneratedProguardConfigFile");
+      return "Cannot build AndroidBinaryResourcesGraphEnhancementResult, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package com.facebook.buck.android;
+
+import com.facebook.buck.rules.ExopackageInfo;
+import com.facebook.buck.rules.SourcePath;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link HasInstallableApk.AbstractApkInfo}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code ApkInfo.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "HasInstallableApk.AbstractApkInfo"})
+@Immutable
+public final class ApkInfo extends HasInstallableApk.AbstractApkInfo {
+  private final SourcePath manifestPath;
+  private final SourcePath apkPath;
+  private final @Nullable ExopackageInfo exopackageInfo;
+
+  private ApkInfo(
+      SourcePath manifestPath,
+      SourcePath apkPath,
+      @Nullable ExopackageInfo exopackageInfo) {
+    this.manifestPath = manifestPath;
+    this.apkPath = apkPath;
+    this.exopackageInfo = exopackageInfo;
+  }
+
+  /**
+   * @return the path to the AndroidManifest.xml. Note that this file might be a symlink,
+   * and might not exist at all before this rule has been built.
+   */
+  @Override
+  public SourcePath getManifestPath() {
+    return manifestPath;
+  }
+
+  /**
+   * @return The APK at this path is the final one that points to an APK that a user should
+   * install.
+   */
+  @Override
+  public SourcePath getApkPath() {
+    return apkPath;
+  }
+
+  /**
+   * @return The value of the {@code exopackageInfo} attribute
+   */
+  @Override
+  public Optional<ExopackageInfo> getExopackageInfo() {
+    return Optional.ofNullable(exopackageInfo);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link HasInstallableApk.AbstractApkInfo#getManifestPath() manifestPath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for manifestPath
+   * @return A modified copy of the {@code this} object
+   */
+  public final ApkInfo withManifestPath(SourcePath value) {
+    if (this.manifestPath == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "manifestPath");
+    return new ApkInfo(newValue, this.apkPath, this.exopackageInfo);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link HasInstallableApk.AbstractApkInfo#getApkPath() apkPath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for apkPath
+   * @return A modified copy of the {@code this} object
+   */
+  public final ApkInfo withApkPath(SourcePath value) {
+    if (this.apkPath == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "apkPath");
+    return new ApkInfo(this.manifestPath, newValue, this.exopackageInfo);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HasInstallableApk.AbstractApkInfo#getExopackageInfo() exopackageInfo} attribute.
+   * @param value The value for exopackageInfo
+   * @return A modified copy of {@code this} object
+   */
+  public final ApkInfo withExopackageInfo(ExopackageInfo value) {
+    @Nullable ExopackageInfo newValue = Preconditions.checkNotNull(value, "exopackageInfo");
+    if (this.exopackageInfo == newValue) return this;
+    return new ApkInfo(this.manifestPath, this.apkPath, newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HasInstallableApk.AbstractApkInfo#getExopackageInfo() exopackageInfo} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for exopackageInfo
+   * @return A modified copy of {@code this} object
+   */
+  public final ApkInfo withExopackageInfo(Optional<ExopackageInfo> optional) {
+    @Nullable ExopackageInfo value = optional.orElse(null);
+    if (this.exopackageInfo == value) return this;
+    return new ApkInfo(this.manifestPath, this.apkPath, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ApkInfo} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ApkInfo
+        && equalTo((ApkInfo) another);
+  }
+
+  private boolean equalTo(ApkInfo another) {
+    return manifestPath.equals(another.manifestPath)
+        && apkPath.equals(another.apkPath)
+        && Objects.equal(exopackageInfo, another.exopackageInfo);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code manifestPath}, {@code apkPath}, {@code exopackageInfo}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + manifestPath.hashCode();
+    h = h * 17 + apkPath.hashCode();
+    h = h * 17 + Objects.hashCode(exopackageInfo);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ApkInfo} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ApkInfo")
+        .omitNullValues()
+        .add("manifestPath", manifestPath)
+        .add("apkPath", apkPath)
+        .add("exopackageInfo", exopackageInfo)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link HasInstallableApk.AbstractApkInfo} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ApkInfo instance
+   */
+  public static ApkInfo copyOf(HasInstallableApk.AbstractApkInfo instance) {
+    if (instance instanceof ApkInfo) {
+      return (ApkInfo) instance;
+    }
+    return ApkInfo.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link ApkInfo ApkInfo}.
+   * @return A new ApkInfo builder
+   */
+  public static ApkInfo.Builder builder() {
+    return new ApkInfo.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link ApkInfo ApkInfo}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_MANIFEST_PATH = 0x1L;
+    private static final long INIT_BIT_APK_PATH = 0x2L;
+    private long initBits = 0x3L;
+
+    private @Nullable SourcePath manifestPath;
+    private @Nullable SourcePath apkPath;
+    private @Nullable ExopackageInfo exopackageInfo;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code AbstractApkInfo} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(HasInstallableApk.AbstractApkInfo instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setManifestPath(instance.getManifestPath());
+      setApkPath(instance.getApkPath());
+      Optional<ExopackageInfo> exopackageInfoOptional = instance.getExopackageInfo();
+      if (exopackageInfoOptional.isPresent()) {
+        setExopackageInfo(exopackageInfoOptional);
+      }
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link HasInstallableApk.AbstractApkInfo#getManifestPath() manifestPath} attribute.
+     * @param manifestPath The value for manifestPath 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setManifestPath(SourcePath manifestPath) {
+      this.manifestPath = Preconditions.checkNotNull(manifestPath, "manifestPath");
+      initBits &= ~INIT_BIT_MANIFEST_PATH;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link HasInstallableApk.AbstractApkInfo#getApkPath() apkPath} attribute.
+     * @param apkPath The value for apkPath 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setApkPath(SourcePath apkPath) {
+      this.apkPath = Preconditions.checkNotNull(apkPath, "apkPath");
+      initBits &= ~INIT_BIT_APK_PATH;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HasInstallableApk.AbstractApkInfo#getExopackageInfo() exopackageInfo} to exopackageInfo.
+     * @param exopackageInfo The value for exopackageInfo
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setExopackageInfo(ExopackageInfo exopackageInfo) {
+      this.exopackageInfo = Preconditions.checkNotNull(exopackageInfo, "exopackageInfo");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HasInstallableApk.AbstractApkInfo#getExopackageInfo() exopackageInfo} to exopackageInfo.
+     * @param exopackageInfo The value for exopackageInfo
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setExopackageInfo(Optional<ExopackageInfo> exopackageInfo) {
+      this.exopackageInfo = exopackageInfo.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link ApkInfo ApkInfo}.
+     * @return An immutable instance of ApkInfo
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public ApkInfo build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new ApkInfo(manifestPath, apkPath, exopackageInfo);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_MANIFEST_PATH) != 0) attributes.add("manifestPath");
+      if ((initBits & INIT_BIT_APK_PATH) != 0) attributes.add("apkPath");
+      return "Cannot build ApkInfo, some of required attributes are not set " + attributes;
+    }
+  }
+}
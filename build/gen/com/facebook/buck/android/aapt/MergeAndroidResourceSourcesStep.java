@@ -0,0 +1,338 @@
+package com.facebook.buck.android.aapt;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Merges multiple directories containing Android resource sources into one directory.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractMergeAndroidResourceSourcesStep"})
+@Immutable
+public final class MergeAndroidResourceSourcesStep
+    extends AbstractMergeAndroidResourceSourcesStep {
+  private final ImmutableList<Path> resPaths;
+  private final Path outFolderPath;
+  private final Path tmpFolderPath;
+
+  private MergeAndroidResourceSourcesStep(
+      Iterable<? extends Path> resPaths,
+      Path outFolderPath,
+      Path tmpFolderPath) {
+    this.resPaths = ImmutableList.copyOf(resPaths);
+    this.outFolderPath = Preconditions.checkNotNull(outFolderPath, "outFolderPath");
+    this.tmpFolderPath = Preconditions.checkNotNull(tmpFolderPath, "tmpFolderPath");
+  }
+
+  private MergeAndroidResourceSourcesStep(
+      MergeAndroidResourceSourcesStep original,
+      ImmutableList<Path> resPaths,
+      Path outFolderPath,
+      Path tmpFolderPath) {
+    this.resPaths = resPaths;
+    this.outFolderPath = outFolderPath;
+    this.tmpFolderPath = tmpFolderPath;
+  }
+
+  /**
+   * @return The value of the {@code resPaths} attribute
+   */
+  @Override
+  public ImmutableList<Path> getResPaths() {
+    return resPaths;
+  }
+
+  /**
+   * @return The value of the {@code outFolderPath} attribute
+   */
+  @Override
+  public Path getOutFolderPath() {
+    return outFolderPath;
+  }
+
+  /**
+   * @return The value of the {@code tmpFolderPath} attribute
+   */
+  @Override
+  public Path getTmpFolderPath() {
+    return tmpFolderPath;
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractMergeAndroidResourceSourcesStep#getResPaths() resPaths}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final MergeAndroidResourceSourcesStep withResPaths(Path... elements) {
+    ImmutableList<Path> newValue = ImmutableList.copyOf(elements);
+    return validate(new MergeAndroidResourceSourcesStep(this, newValue, this.outFolderPath, this.tmpFolderPath));
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractMergeAndroidResourceSourcesStep#getResPaths() resPaths}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of resPaths elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final MergeAndroidResourceSourcesStep withResPaths(Iterable<? extends Path> elements) {
+    if (this.resPaths == elements) return this;
+    ImmutableList<Path> newValue = ImmutableList.copyOf(elements);
+    return validate(new MergeAndroidResourceSourcesStep(this, newValue, this.outFolderPath, this.tmpFolderPath));
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractMergeAndroidResourceSourcesStep#getOutFolderPath() outFolderPath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for outFolderPath
+   * @return A modified copy of the {@code this} object
+   */
+  public final MergeAndroidResourceSourcesStep withOutFolderPath(Path value) {
+    if (this.outFolderPath == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "outFolderPath");
+    return validate(new MergeAndroidResourceSourcesStep(this, this.resPaths, newValue, this.tmpFolderPath));
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractMergeAndroidResourceSourcesStep#getTmpFolderPath() tmpFolderPath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for tmpFolderPath
+   * @return A modified copy of the {@code this} object
+   */
+  public final MergeAndroidResourceSourcesStep withTmpFolderPath(Path value) {
+    if (this.tmpFolderPath == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "tmpFolderPath");
+    return validate(new MergeAndroidResourceSourcesStep(this, this.resPaths, this.outFolderPath, newValue));
+  }
+
+  /**
+   * This instance is equal to all instances of {@code MergeAndroidResourceSourcesStep} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof MergeAndroidResourceSourcesStep
+        && equalTo((MergeAndroidResourceSourcesStep) another);
+  }
+
+  private boolean equalTo(MergeAndroidResourceSourcesStep another) {
+    return resPaths.equals(another.resPaths)
+        && outFolderPath.equals(another.outFolderPath)
+        && tmpFolderPath.equals(another.tmpFolderPath);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code resPaths}, {@code outFolderPath}, {@code tmpFolderPath}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + resPaths.hashCode();
+    h = h * 17 + outFolderPath.hashCode();
+    h = h * 17 + tmpFolderPath.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code MergeAndroidResourceSourcesStep} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("MergeAndroidResourceSourcesStep")
+        .omitNullValues()
+        .add("resPaths", resPaths)
+        .add("outFolderPath", outFolderPath)
+        .add("tmpFolderPath", tmpFolderPath)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code MergeAndroidResourceSourcesStep} instance.
+   * @param resPaths The value for the {@code resPaths} attribute
+   * @param outFolderPath The value for the {@code outFolderPath} attribute
+   * @param tmpFolderPath The value for the {@code tmpFolderPath} attribute
+   * @return An immutable MergeAndroidResourceSourcesStep instance
+   */
+  public static MergeAndroidResourceSourcesStep of(ImmutableList<Path> resPaths, Path outFolderPath, Path tmpFolderPath) {
+    return of((Iterable<? extends Path>) resPaths, outFolderPath, tmpFolderPath);
+  }
+
+  /**
+   * Construct a new immutable {@code MergeAndroidResourceSourcesStep} instance.
+   * @param resPaths The value for the {@code resPaths} attribute
+   * @param outFolderPath The value for the {@code outFolderPath} attribute
+   * @param tmpFolderPath The value for the {@code tmpFolderPath} attribute
+   * @return An immutable MergeAndroidResourceSourcesStep instance
+   */
+  public static MergeAndroidResourceSourcesStep of(Iterable<? extends Path> resPaths, Path outFolderPath, Path tmpFolderPath) {
+    return validate(new MergeAndroidResourceSourcesStep(resPaths, outFolderPath, tmpFolderPath));
+  }
+
+  private static MergeAndroidResourceSourcesStep validate(MergeAndroidResourceSourcesStep instance) {
+    instance.check();
+    return instance;
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractMergeAndroidResourceSourcesStep} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable MergeAndroidResourceSourcesStep instance
+   */
+  static MergeAndroidResourceSourcesStep copyOf(AbstractMergeAndroidResourceSourcesStep instance) {
+    if (instance instanceof MergeAndroidResourceSourcesStep) {
+      return (MergeAndroidResourceSourcesStep) instance;
+    }
+    return MergeAndroidResourceSourcesStep.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link MergeAndroidResourceSourcesStep MergeAndroidResourceSourcesStep}.
+   * @return A new MergeAndroidResourceSourcesStep builder
+   */
+  public static MergeAndroidResourceSourcesStep.Builder builder() {
+    return new MergeAndroidResourceSourcesStep.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link MergeAndroidResourceSourcesStep MergeAndroidResourceSourcesStep}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_OUT_FOLDER_PATH = 0x1L;
+    private static final long INIT_BIT_TMP_FOLDER_PATH = 0x2L;
+    private long initBits = 0x3L;
+
+    private ImmutableList.Builder<Path> resPaths = ImmutableList.builder();
+    private @Nullable Path outFolderPath;
+    private @Nullable Path tmpFolderPath;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code MergeAndroidResourceSourcesStep} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(MergeAndroidResourceSourcesStep instance) {
+      return from((AbstractMergeAndroidResourceSourcesStep) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractMergeAndroidResourceSourcesStep} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractMergeAndroidResourceSourcesStep instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      addAllResPaths(instance.getResPaths());
+      setOutFolderPath(instance.getOutFolderPath());
+      setTmpFolderPath(instance.getTmpFolderPath());
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractMergeAndroidResourceSourcesStep#getResPaths() resPaths} list.
+     * @param element A resPaths element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addResPaths(Path element) {
+      this.resPaths.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractMergeAndroidResourceSourcesStep#getResPaths() resPaths} list.
+     * @param elements An array of resPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addResPaths(Path... elements) {
+      this.resPaths.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractMergeAndroidResourceSourcesStep#getResPaths() resPaths} list.
+     * @param elements An iterable of resPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setResPaths(Iterable<? extends Path> elements) {
+      this.resPaths = ImmutableList.builder();
+      return addAllResPaths(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractMergeAndroidResourceSourcesStep#getResPaths() resPaths} list.
+     * @param elements An iterable of resPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllResPaths(Iterable<? extends Path> elements) {
+      this.resPaths.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractMergeAndroidResourceSourcesStep#getOutFolderPath() outFolderPath} attribute.
+     * @param outFolderPath The value for outFolderPath 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setOutFolderPath(Path outFolderPath) {
+      this.outFolderPath = Preconditions.checkNotNull(outFolderPath, "outFolderPath");
+      initBits &= ~INIT_BIT_OUT_FOLDER_PATH;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractMergeAndroidResourceSourcesStep#getTmpFolderPath() tmpFolderPath} attribute.
+     * @param tmpFolderPath The value for tmpFolderPath 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTmpFolderPath(Path tmpFolderPath) {
+      this.tmpFolderPath = Preconditions.checkNotNull(tmpFolderPath, "tmpFolderPath");
+      initBits &= ~INIT_BIT_TMP_FOLDER_PATH;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link MergeAndroidResourceSourcesStep MergeAndroidResourceSourcesStep}.
+     * @return An immutable instance of MergeAndroidResourceSourcesStep
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public MergeAndroidResourceSourcesStep build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return MergeAndroidResourceSourcesStep.validate(new MergeAndroidResourceSourcesStep(null, resPaths.build(), outFolderPath, tmpFolderPath));
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_OUT_FOLDER_PATH) != 0) attributes.add("outFolderPath");
+      if ((initBits & INIT_BIT_TMP_FOLDER_PATH) != 0) attributes.add("tmpFolderPath");
+      return "Cannot build MergeAndroidResourceSourcesStep, some of required attributes are not set " + attributes;
+    }
+  }
+}
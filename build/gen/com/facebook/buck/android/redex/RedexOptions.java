@@ -0,0 +1,328 @@
+package com.facebook.buck.android.redex;
+
+import com.facebook.buck.rules.SourcePath;
+import com.facebook.buck.rules.Tool;
+import com.facebook.buck.rules.args.Arg;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractRedexOptions}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code RedexOptions.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractRedexOptions"})
+@Immutable
+public final class RedexOptions extends AbstractRedexOptions {
+  private final Tool redex;
+  private final @Nullable SourcePath redexConfig;
+  private final ImmutableList<Arg> redexExtraArgs;
+
+  private RedexOptions(
+      Tool redex,
+      @Nullable SourcePath redexConfig,
+      ImmutableList<Arg> redexExtraArgs) {
+    this.redex = redex;
+    this.redexConfig = redexConfig;
+    this.redexExtraArgs = redexExtraArgs;
+  }
+
+  /**
+   * @return The value of the {@code redex} attribute
+   */
+  @Override
+  public Tool getRedex() {
+    return redex;
+  }
+
+  /**
+   * @return The value of the {@code redexConfig} attribute
+   */
+  @Override
+  public Optional<SourcePath> getRedexConfig() {
+    return Optional.ofNullable(redexConfig);
+  }
+
+  /**
+   * @return The value of the {@code redexExtraArgs} attribute
+   */
+  @Override
+  public ImmutableList<Arg> getRedexExtraArgs() {
+    return redexExtraArgs;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractRedexOptions#getRedex() redex} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for redex
+   * @return A modified copy of the {@code this} object
+   */
+  public final RedexOptions withRedex(Tool value) {
+    if (this.redex == value) return this;
+    Tool newValue = Preconditions.checkNotNull(value, "redex");
+    return new RedexOptions(newValue, this.redexConfig, this.redexExtraArgs);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractRedexOptions#getRedexConfig() redexConfig} attribute.
+   * @param value The value for redexConfig
+   * @return A modified copy of {@code this} object
+   */
+  public final RedexOptions withRedexConfig(SourcePath value) {
+    @Nullable SourcePath newValue = Preconditions.checkNotNull(value, "redexConfig");
+    if (this.redexConfig == newValue) return this;
+    return new RedexOptions(this.redex, newValue, this.redexExtraArgs);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractRedexOptions#getRedexConfig() redexConfig} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for redexConfig
+   * @return A modified copy of {@code this} object
+   */
+  public final RedexOptions withRedexConfig(Optional<SourcePath> optional) {
+    @Nullable SourcePath value = optional.orElse(null);
+    if (this.redexConfig == value) return this;
+    return new RedexOptions(this.redex, value, this.redexExtraArgs);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractRedexOptions#getRedexExtraArgs() redexExtraArgs}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final RedexOptions withRedexExtraArgs(Arg... elements) {
+    ImmutableList<Arg> newValue = ImmutableList.copyOf(elements);
+    return new RedexOptions(this.redex, this.redexConfig, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractRedexOptions#getRedexExtraArgs() redexExtraArgs}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of redexExtraArgs elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final RedexOptions withRedexExtraArgs(Iterable<? extends Arg> elements) {
+    if (this.redexExtraArgs == elements) return this;
+    ImmutableList<Arg> newValue = ImmutableList.copyOf(elements);
+    return new RedexOptions(this.redex, this.redexConfig, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code RedexOptions} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof RedexOptions
+        && equalTo((RedexOptions) another);
+  }
+
+  private boolean equalTo(RedexOptions another) {
+    return redex.equals(another.redex)
+        && Objects.equal(redexConfig, another.redexConfig)
+        && redexExtraArgs.equals(another.redexExtraArgs);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code redex}, {@code redexConfig}, {@code redexExtraArgs}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + redex.hashCode();
+    h = h * 17 + Objects.hashCode(redexConfig);
+    h = h * 17 + redexExtraArgs.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code RedexOptions} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("RedexOptions")
+        .omitNullValues()
+        .add("redex", redex)
+        .add("redexConfig", redexConfig)
+        .add("redexExtraArgs", redexExtraArgs)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractRedexOptions} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable RedexOptions instance
+   */
+  static RedexOptions copyOf(AbstractRedexOptions instance) {
+    if (instance instanceof RedexOptions) {
+      return (RedexOptions) instance;
+    }
+    return RedexOptions.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link RedexOptions RedexOptions}.
+   * @return A new RedexOptions builder
+   */
+  public static RedexOptions.Builder builder() {
+    return new RedexOptions.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link RedexOptions RedexOptions}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_REDEX = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable Tool redex;
+    private @Nullable SourcePath redexConfig;
+    private ImmutableList.Builder<Arg> redexExtraArgs = ImmutableList.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code RedexOptions} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(RedexOptions instance) {
+      return from((AbstractRedexOptions) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractRedexOptions} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractRedexOptions instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setRedex(instance.getRedex());
+      Optional<SourcePath> redexConfigOptional = instance.getRedexConfig();
+      if (redexConfigOptional.isPresent()) {
+        setRedexConfig(redexConfigOptional);
+      }
+      addAllRedexExtraArgs(instance.getRedexExtraArgs());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractRedexOptions#getRedex() redex} attribute.
+     * @param redex The value for redex 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRedex(Tool redex) {
+      this.redex = Preconditions.checkNotNull(redex, "redex");
+      initBits &= ~INIT_BIT_REDEX;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractRedexOptions#getRedexConfig() redexConfig} to redexConfig.
+     * @param redexConfig The value for redexConfig
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setRedexConfig(SourcePath redexConfig) {
+      this.redexConfig = Preconditions.checkNotNull(redexConfig, "redexConfig");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractRedexOptions#getRedexConfig() redexConfig} to redexConfig.
+     * @param redexConfig The value for redexConfig
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRedexConfig(Optional<SourcePath> redexConfig) {
+      this.redexConfig = redexConfig.orElse(null);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractRedexOptions#getRedexExtraArgs() redexExtraArgs} list.
+     * @param element A redexExtraArgs element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addRedexExtraArgs(Arg element) {
+      this.redexExtraArgs.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractRedexOptions#getRedexExtraArgs() redexExtraArgs} list.
+     * @param elements An array of redexExtraArgs elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addRedexExtraArgs(Arg... elements) {
+      this.redexExtraArgs.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractRedexOptions#getRedexExtraArgs() redexExtraArgs} list.
+     * @param elements An iterable of redexExtraArgs elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRedexExtraArgs(Iterable<? extends Arg> elements) {
+      this.redexExtraArgs = ImmutableList.builder();
+      return addAllRedexExtraArgs(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractRedexOptions#getRedexExtraArgs() redexExtraArgs} list.
+     * @param elements An iterable of redexExtraArgs elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllRedexExtraArgs(Iterable<? extends Arg> elements) {
+      this.redexExtraArgs.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link RedexOptions RedexOptions}.
+     * @return An immutable instance of RedexOptions
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public RedexOptions build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new RedexOptions(redex, redexConfig, redexExtraArgs.build());
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_REDEX) != 0) attributes.add("redex");
+      return "Cannot build RedexOptions, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,307 @@
+package com.facebook.buck.apple;
+
+import com.facebook.buck.rules.args.Arg;
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Value type for tracking a package config and information about the platform.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "ExternallyBuiltApplePackage.AbstractApplePackageConfigAndPlatformInfo"})
+@Immutable
+public final class ApplePackageConfigAndPlatformInfo
+    extends ExternallyBuiltApplePackage.AbstractApplePackageConfigAndPlatformInfo {
+  private final ApplePackageConfig config;
+  private final Function<String, Arg> macroExpander;
+  private final AppleCxxPlatform platform;
+  private final String sdkVersion;
+  private final Optional<String> platformBuildVersion;
+  private final Path sdkPath;
+  private final Arg expandedArg;
+
+  private ApplePackageConfigAndPlatformInfo(
+      ApplePackageConfig config,
+      Function<String, Arg> macroExpander,
+      AppleCxxPlatform platform) {
+    this.config = Preconditions.checkNotNull(config, "config");
+    this.macroExpander = Preconditions.checkNotNull(macroExpander, "macroExpander");
+    this.platform = Preconditions.checkNotNull(platform, "platform");
+    this.sdkVersion = initShim.getSdkVersion();
+    this.platformBuildVersion = initShim.getPlatformBuildVersion();
+    this.sdkPath = initShim.getSdkPath();
+    this.expandedArg = initShim.getExpandedArg();
+    this.initShim = null;
+  }
+
+  private ApplePackageConfigAndPlatformInfo(
+      ApplePackageConfigAndPlatformInfo original,
+      ApplePackageConfig config,
+      Function<String, Arg> macroExpander,
+      AppleCxxPlatform platform) {
+    this.config = config;
+    this.macroExpander = macroExpander;
+    this.platform = platform;
+    this.sdkVersion = initShim.getSdkVersion();
+    this.platformBuildVersion = initShim.getPlatformBuildVersion();
+    this.sdkPath = initShim.getSdkPath();
+    this.expandedArg = initShim.getExpandedArg();
+    this.initShim = null;
+  }
+
+  private static final int STAGE_INITIALIZING = -1;
+  private static final int STAGE_UNINITIALIZED = 0;
+  private static final int STAGE_INITIALIZED = 1;
+  private transient volatile InitShim initShim = new InitShim();
+
+  private final class InitShim {
+    private String sdkVersion;
+    private int sdkVersionBuildStage;
+
+    String getSdkVersion() {
+      if (sdkVersionBuildStage == STAGE_INITIALIZING) throw new IllegalStateException(formatInitCycleMessage());
+      if (sdkVersionBuildStage == STAGE_UNINITIALIZED) {
+        sdkVersionBuildStage = STAGE_INITIALIZING;
+        this.sdkVersion = Preconditions.checkNotNull(ApplePackageConfigAndPlatformInfo.super.getSdkVersion(), "sdkVersion");
+        sdkVersionBuildStage = STAGE_INITIALIZED;
+      }
+      return this.sdkVersion;
+    }
+    private Optional<String> platformBuildVersion;
+    private int platformBuildVersionBuildStage;
+
+    Optional<String> getPlatformBuildVersion() {
+      if (platformBuildVersionBuildStage == STAGE_INITIALIZING) throw new IllegalStateException(formatInitCycleMessage());
+      if (platformBuildVersionBuildStage == STAGE_UNINITIALIZED) {
+        platformBuildVersionBuildStage = STAGE_INITIALIZING;
+        this.platformBuildVersion = Preconditions.checkNotNull(ApplePackageConfigAndPlatformInfo.super.getPlatformBuildVersion(), "platformBuildVersion");
+        platformBuildVersionBuildStage = STAGE_INITIALIZED;
+      }
+      return this.platformBuildVersion;
+    }
+    private Path sdkPath;
+    private int sdkPathBuildStage;
+
+    Path getSdkPath() {
+      if (sdkPathBuildStage == STAGE_INITIALIZING) throw new IllegalStateException(formatInitCycleMessage());
+      if (sdkPathBuildStage == STAGE_UNINITIALIZED) {
+        sdkPathBuildStage = STAGE_INITIALIZING;
+        this.sdkPath = Preconditions.checkNotNull(ApplePackageConfigAndPlatformInfo.super.getSdkPath(), "sdkPath");
+        sdkPathBuildStage = STAGE_INITIALIZED;
+      }
+      return this.sdkPath;
+    }
+    private Arg expandedArg;
+    private int expandedArgBuildStage;
+
+    Arg getExpandedArg() {
+      if (expandedArgBuildStage == STAGE_INITIALIZING) throw new IllegalStateException(formatInitCycleMessage());
+      if (expandedArgBuildStage == STAGE_UNINITIALIZED) {
+        expandedArgBuildStage = STAGE_INITIALIZING;
+        this.expandedArg = Preconditions.checkNotNull(ApplePackageConfigAndPlatformInfo.super.getExpandedArg(), "expandedArg");
+        expandedArgBuildStage = STAGE_INITIALIZED;
+      }
+      return this.expandedArg;
+    }
+
+    private String formatInitCycleMessage() {
+      ArrayList<String> attributes = Lists.newArrayList();
+      if (sdkVersionBuildStage == STAGE_INITIALIZING) attributes.add("sdkVersion");
+      if (platformBuildVersionBuildStage == STAGE_INITIALIZING) attributes.add("platformBuildVersion");
+      if (sdkPathBuildStage == STAGE_INITIALIZING) attributes.add("sdkPath");
+      if (expandedArgBuildStage == STAGE_INITIALIZING) attributes.add("expandedArg");
+      return "Cannot build ApplePackageConfigAndPlatformInfo, attribute initializers form cycle" + attributes;
+    }
+  }
+
+  /**
+   * @return The value of the {@code config} attribute
+   */
+  @Override
+  public ApplePackageConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * @return The value of the {@code macroExpander} attribute
+   */
+  @Override
+  public Function<String, Arg> getMacroExpander() {
+    return macroExpander;
+  }
+
+  /**
+   * The apple cxx platform in question.
+   * As this value is architecture specific, it is omitted from equality computation, via
+   * {@code Value.Auxiliary}. Since the actual apple "Platform" is architecture agnostic, proxy
+   * values for the actual platform are used for equality comparison instead.
+   */
+  @Override
+  public AppleCxxPlatform getPlatform() {
+    return platform;
+  }
+
+  /**
+   * The sdk version of the platform.
+   * This is used as a proxy for the version of the external packager.
+   */
+  @Override
+  public String getSdkVersion() {
+    InitShim shim = this.initShim;
+    return shim != null
+        ? shim.getSdkVersion()
+        : this.sdkVersion;
+  }
+
+  /**
+   * The build version of the platform.
+   * This is used as a proxy for the version of the external packager.
+   */
+  @Override
+  public Optional<String> getPlatformBuildVersion() {
+    InitShim shim = this.initShim;
+    return shim != null
+        ? shim.getPlatformBuildVersion()
+        : this.platformBuildVersion;
+  }
+
+  /**
+   * Returns the Apple SDK path.
+   */
+  @Override
+  public Path getSdkPath() {
+    InitShim shim = this.initShim;
+    return shim != null
+        ? shim.getSdkPath()
+        : this.sdkPath;
+  }
+
+  /**
+   * Command after passing through argument expansion.
+   */
+  @Override
+  public Arg getExpandedArg() {
+    InitShim shim = this.initShim;
+    return shim != null
+        ? shim.getExpandedArg()
+        : this.expandedArg;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link ExternallyBuiltApplePackage.AbstractApplePackageConfigAndPlatformInfo#getConfig() config} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for config
+   * @return A modified copy of the {@code this} object
+   */
+  public final ApplePackageConfigAndPlatformInfo withConfig(ApplePackageConfig value) {
+    if (this.config == value) return this;
+    ApplePackageConfig newValue = Preconditions.checkNotNull(value, "config");
+    return new ApplePackageConfigAndPlatformInfo(this, newValue, this.macroExpander, this.platform);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link ExternallyBuiltApplePackage.AbstractApplePackageConfigAndPlatformInfo#getMacroExpander() macroExpander} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for macroExpander
+   * @return A modified copy of the {@code this} object
+   */
+  public final ApplePackageConfigAndPlatformInfo withMacroExpander(Function<String, Arg> value) {
+    if (this.macroExpander == value) return this;
+    Function<String, Arg> newValue = Preconditions.checkNotNull(value, "macroExpander");
+    return new ApplePackageConfigAndPlatformInfo(this, this.config, newValue, this.platform);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link ExternallyBuiltApplePackage.AbstractApplePackageConfigAndPlatformInfo#getPlatform() platform} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for platform
+   * @return A modified copy of the {@code this} object
+   */
+  public final ApplePackageConfigAndPlatformInfo withPlatform(AppleCxxPlatform value) {
+    if (this.platform == value) return this;
+    AppleCxxPlatform newValue = Preconditions.checkNotNull(value, "platform");
+    return new ApplePackageConfigAndPlatformInfo(this, this.config, this.macroExpander, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ApplePackageConfigAndPlatformInfo} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ApplePackageConfigAndPlatformInfo
+        && equalTo((ApplePackageConfigAndPlatformInfo) another);
+  }
+
+  private boolean equalTo(ApplePackageConfigAndPlatformInfo another) {
+    return config.equals(another.config)
+        && sdkVersion.equals(another.sdkVersion)
+        && platformBuildVersion.equals(another.platformBuildVersion)
+        && sdkPath.equals(another.sdkPath);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code config}, {@code sdkVersion}, {@code platformBuildVersion}, {@code sdkPath}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + config.hashCode();
+    h = h * 17 + sdkVersion.hashCode();
+    h = h * 17 + platformBuildVersion.hashCode();
+    h = h * 17 + sdkPath.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ApplePackageConfigAndPlatformInfo} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ApplePackageConfigAndPlatformInfo")
+        .omitNullValues()
+        .add("config", config)
+        .add("sdkVersion", sdkVersion)
+        .add("platformBuildVersion", platformBuildVersion)
+        .add("sdkPath", sdkPath)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ApplePackageConfigAndPlatformInfo} instance.
+   * @param config The value for the {@code config} attribute
+   * @param macroExpander The value for the {@code macroExpander} attribute
+   * @param platform The value for the {@code platform} attribute
+   * @return An immutable ApplePackageConfigAndPlatformInfo instance
+   */
+  public static ApplePackageConfigAndPlatformInfo of(ApplePackageConfig config, Function<String, Arg> macroExpander, AppleCxxPlatform platform) {
+    return new ApplePackageConfigAndPlatformInfo(config, macroExpander, platform);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link ExternallyBuiltApplePackage.AbstractApplePackageConfigAndPlatformInfo} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ApplePackageConfigAndPlatformInfo instance
+   */
+  static ApplePackageConfigAndPlatformInfo copyOf(ExternallyBuiltApplePackage.AbstractApplePackageConfigAndPlatformInfo instance) {
+    if (instance instanceof ApplePackageConfigAndPlatformInfo) {
+      return (ApplePackageConfigAndPlatformInfo) instance;
+    }
+    return ApplePackageConfigAndPlatformInfo.of(instance.getConfig(), instance.getMacroExpander(), instance.getPlatform());
+  }
+}
@@ -0,0 +1,262 @@
+package com.facebook.buck.apple.xcode.xcodeproj;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractCopyFilePhaseDestinationSpec}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code CopyFilePhaseDestinationSpec.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code CopyFilePhaseDestinationSpec.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractCopyFilePhaseDestinationSpec"})
+@Immutable
+public final class CopyFilePhaseDestinationSpec
+    implements AbstractCopyFilePhaseDestinationSpec {
+  private final PBXCopyFilesBuildPhase.Destination destination;
+  private final @Nullable String path;
+
+  private CopyFilePhaseDestinationSpec(PBXCopyFilesBuildPhase.Destination destination) {
+    this.destination = Preconditions.checkNotNull(destination, "destination");
+    this.path = null;
+  }
+
+  private CopyFilePhaseDestinationSpec(
+      PBXCopyFilesBuildPhase.Destination destination,
+      @Nullable String path) {
+    this.destination = destination;
+    this.path = path;
+  }
+
+  /**
+   * @return The value of the {@code destination} attribute
+   */
+  @Override
+  public PBXCopyFilesBuildPhase.Destination getDestination() {
+    return destination;
+  }
+
+  /**
+   * @return The value of the {@code path} attribute
+   */
+  @Override
+  public Optional<String> getPath() {
+    return Optional.ofNullable(path);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractCopyFilePhaseDestinationSpec#getDestination() destination} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for destination
+   * @return A modified copy of the {@code this} object
+   */
+  public final CopyFilePhaseDestinationSpec withDestination(PBXCopyFilesBuildPhase.Destination value) {
+    if (this.destination == value) return this;
+    PBXCopyFilesBuildPhase.Destination newValue = Preconditions.checkNotNull(value, "destination");
+    return new CopyFilePhaseDestinationSpec(newValue, this.path);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractCopyFilePhaseDestinationSpec#getPath() path} attribute.
+   * @param value The value for path
+   * @return A modified copy of {@code this} object
+   */
+  public final CopyFilePhaseDestinationSpec withPath(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "path");
+    if (Objects.equal(this.path, newValue)) return this;
+    return new CopyFilePhaseDestinationSpec(this.destination, newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractCopyFilePhaseDestinationSpec#getPath() path} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for path
+   * @return A modified copy of {@code this} object
+   */
+  public final CopyFilePhaseDestinationSpec withPath(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.path, value)) return this;
+    return new CopyFilePhaseDestinationSpec(this.destination, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code CopyFilePhaseDestinationSpec} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof CopyFilePhaseDestinationSpec
+        && equalTo((CopyFilePhaseDestinationSpec) another);
+  }
+
+  private boolean equalTo(CopyFilePhaseDestinationSpec another) {
+    return destination.equals(another.destination)
+        && Objects.equal(path, another.path);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code destination}, {@code path}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + destination.hashCode();
+    h = h * 17 + Objects.hashCode(path);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code CopyFilePhaseDestinationSpec} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("CopyFilePhaseDestinationSpec")
+        .omitNullValues()
+        .add("destination", destination)
+        .add("path", path)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code CopyFilePhaseDestinationSpec} instance.
+   * @param destination The value for the {@code destination} attribute
+   * @return An immutable CopyFilePhaseDestinationSpec instance
+   */
+  public static CopyFilePhaseDestinationSpec of(PBXCopyFilesBuildPhase.Destination destination) {
+    return new CopyFilePhaseDestinationSpec(destination);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractCopyFilePhaseDestinationSpec} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable CopyFilePhaseDestinationSpec instance
+   */
+  static CopyFilePhaseDestinationSpec copyOf(AbstractCopyFilePhaseDestinationSpec instance) {
+    if (instance instanceof CopyFilePhaseDestinationSpec) {
+      return (CopyFilePhaseDestinationSpec) instance;
+    }
+    return CopyFilePhaseDestinationSpec.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link CopyFilePhaseDestinationSpec CopyFilePhaseDestinationSpec}.
+   * @return A new CopyFilePhaseDestinationSpec builder
+   */
+  public static CopyFilePhaseDestinationSpec.Builder builder() {
+    return new CopyFilePhaseDestinationSpec.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link CopyFilePhaseDestinationSpec CopyFilePhaseDestinationSpec}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_DESTINATION = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable PBXCopyFilesBuildPhase.Destination destination;
+    private @Nullable String path;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code CopyFilePhaseDestinationSpec} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(CopyFilePhaseDestinationSpec instance) {
+      return from((AbstractCopyFilePhaseDestinationSpec) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractCopyFilePhaseDestinationSpec} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractCopyFilePhaseDestinationSpec instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setDestination(instance.getDestination());
+      Optional<String> pathOptional = instance.getPath();
+      if (pathOptional.isPresent()) {
+        setPath(pathOptional);
+      }
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractCopyFilePhaseDestinationSpec#getDestination() destination} attribute.
+     * @param destination The value for destination 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setDestination(PBXCopyFilesBuildPhase.Destination destination) {
+      this.destination = Preconditions.checkNotNull(destination, "destination");
+      initBits &= ~INIT_BIT_DESTINATION;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractCopyFilePhaseDestinationSpec#getPath() path} to path.
+     * @param path The value for path
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setPath(String path) {
+      this.path = Preconditions.checkNotNull(path, "path");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractCopyFilePhaseDestinationSpec#getPath() path} to path.
+     * @param path The value for path
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPath(Optional<String> path) {
+      this.path = path.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link CopyFilePhaseDestinationSpec CopyFilePhaseDestinationSpec}.
+     * @return An immutable instance of CopyFilePhaseDestinationSpec
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public CopyFilePhaseDestinationSpec build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new CopyFilePhaseDestinationSpec(destination, path);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_DESTINATION) != 0) attributes.add("destination");
+      return "Cannot build CopyFilePhaseDestinationSpec, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,673 @@
+package com.facebook.buck.artifact_cache;
+
+import com.facebook.buck.rules.RuleKey;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code HttpArtifactCacheEventFetchData.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData"})
+@Immutable
+public final class HttpArtifactCacheEventFetchData
+    implements HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData {
+  private final @Nullable Long responseSizeBytes;
+  private final @Nullable CacheResult fetchResult;
+  private final RuleKey requestedRuleKey;
+  private final @Nullable String artifactContentHash;
+  private final @Nullable Long artifactSizeBytes;
+  private final @Nullable String errorMessage;
+  private final ImmutableSet<RuleKey> associatedRuleKeys;
+
+  private HttpArtifactCacheEventFetchData(
+      @Nullable Long responseSizeBytes,
+      @Nullable CacheResult fetchResult,
+      RuleKey requestedRuleKey,
+      @Nullable String artifactContentHash,
+      @Nullable Long artifactSizeBytes,
+      @Nullable String errorMessage,
+      ImmutableSet<RuleKey> associatedRuleKeys) {
+    this.responseSizeBytes = responseSizeBytes;
+    this.fetchResult = fetchResult;
+    this.requestedRuleKey = requestedRuleKey;
+    this.artifactContentHash = artifactContentHash;
+    this.artifactSizeBytes = artifactSizeBytes;
+    this.errorMessage = errorMessage;
+    this.associatedRuleKeys = associatedRuleKeys;
+  }
+
+  /**
+   * @return The value of the {@code responseSizeBytes} attribute
+   */
+  @Override
+  public Optional<Long> getResponseSizeBytes() {
+    return Optional.ofNullable(responseSizeBytes);
+  }
+
+  /**
+   * @return The value of the {@code fetchResult} attribute
+   */
+  @Override
+  public Optional<CacheResult> getFetchResult() {
+    return Optional.ofNullable(fetchResult);
+  }
+
+  /**
+   * @return The value of the {@code requestedRuleKey} attribute
+   */
+  @Override
+  public RuleKey getRequestedRuleKey() {
+    return requestedRuleKey;
+  }
+
+  /**
+   * @return The value of the {@code artifactContentHash} attribute
+   */
+  @Override
+  public Optional<String> getArtifactContentHash() {
+    return Optional.ofNullable(artifactContentHash);
+  }
+
+  /**
+   * @return The value of the {@code artifactSizeBytes} attribute
+   */
+  @Override
+  public Optional<Long> getArtifactSizeBytes() {
+    return Optional.ofNullable(artifactSizeBytes);
+  }
+
+  /**
+   * @return The value of the {@code errorMessage} attribute
+   */
+  @Override
+  public Optional<String> getErrorMessage() {
+    return Optional.ofNullable(errorMessage);
+  }
+
+  /**
+   * @return The value of the {@code associatedRuleKeys} attribute
+   */
+  @Override
+  public ImmutableSet<RuleKey> getAssociatedRuleKeys() {
+    return associatedRuleKeys;
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getResponseSizeBytes() responseSizeBytes} attribute.
+   * @param value The value for responseSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withResponseSizeBytes(long value) {
+    @Nullable Long newValue = value;
+    if (Objects.equal(this.responseSizeBytes, newValue)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        newValue,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getResponseSizeBytes() responseSizeBytes} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for responseSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withResponseSizeBytes(Optional<Long> optional) {
+    @Nullable Long value = optional.orElse(null);
+    if (Objects.equal(this.responseSizeBytes, value)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        value,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getFetchResult() fetchResult} attribute.
+   * @param value The value for fetchResult
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withFetchResult(CacheResult value) {
+    @Nullable CacheResult newValue = Preconditions.checkNotNull(value, "fetchResult");
+    if (this.fetchResult == newValue) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        newValue,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getFetchResult() fetchResult} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for fetchResult
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withFetchResult(Optional<CacheResult> optional) {
+    @Nullable CacheResult value = optional.orElse(null);
+    if (this.fetchResult == value) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        value,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getRequestedRuleKey() requestedRuleKey} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for requestedRuleKey
+   * @return A modified copy of the {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withRequestedRuleKey(RuleKey value) {
+    if (this.requestedRuleKey == value) return this;
+    RuleKey newValue = Preconditions.checkNotNull(value, "requestedRuleKey");
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        newValue,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactContentHash() artifactContentHash} attribute.
+   * @param value The value for artifactContentHash
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withArtifactContentHash(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "artifactContentHash");
+    if (Objects.equal(this.artifactContentHash, newValue)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        newValue,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactContentHash() artifactContentHash} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for artifactContentHash
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withArtifactContentHash(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.artifactContentHash, value)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        value,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactSizeBytes() artifactSizeBytes} attribute.
+   * @param value The value for artifactSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withArtifactSizeBytes(long value) {
+    @Nullable Long newValue = value;
+    if (Objects.equal(this.artifactSizeBytes, newValue)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        newValue,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactSizeBytes() artifactSizeBytes} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for artifactSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withArtifactSizeBytes(Optional<Long> optional) {
+    @Nullable Long value = optional.orElse(null);
+    if (Objects.equal(this.artifactSizeBytes, value)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        value,
+        this.errorMessage,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getErrorMessage() errorMessage} attribute.
+   * @param value The value for errorMessage
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withErrorMessage(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "errorMessage");
+    if (Objects.equal(this.errorMessage, newValue)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        newValue,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getErrorMessage() errorMessage} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for errorMessage
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withErrorMessage(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.errorMessage, value)) return this;
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        value,
+        this.associatedRuleKeys);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getAssociatedRuleKeys() associatedRuleKeys}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withAssociatedRuleKeys(RuleKey... elements) {
+    ImmutableSet<RuleKey> newValue = ImmutableSet.copyOf(elements);
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getAssociatedRuleKeys() associatedRuleKeys}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of associatedRuleKeys elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventFetchData withAssociatedRuleKeys(Iterable<? extends RuleKey> elements) {
+    if (this.associatedRuleKeys == elements) return this;
+    ImmutableSet<RuleKey> newValue = ImmutableSet.copyOf(elements);
+    return new HttpArtifactCacheEventFetchData(
+        this.responseSizeBytes,
+        this.fetchResult,
+        this.requestedRuleKey,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage,
+        newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code HttpArtifactCacheEventFetchData} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof HttpArtifactCacheEventFetchData
+        && equalTo((HttpArtifactCacheEventFetchData) another);
+  }
+
+  private boolean equalTo(HttpArtifactCacheEventFetchData another) {
+    return Objects.equal(responseSizeBytes, another.responseSizeBytes)
+        && Objects.equal(fetchResult, another.fetchResult)
+        && requestedRuleKey.equals(another.requestedRuleKey)
+        && Objects.equal(artifactContentHash, another.artifactContentHash)
+        && Objects.equal(artifactSizeBytes, another.artifactSizeBytes)
+        && Objects.equal(errorMessage, another.errorMessage)
+        && associatedRuleKeys.equals(another.associatedRuleKeys);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code responseSizeBytes}, {@code fetchResult}, {@code requestedRuleKey}, {@code artifactContentHash}, {@code artifactSizeBytes}, {@code errorMessage}, {@code associatedRuleKeys}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + Objects.hashCode(responseSizeBytes);
+    h = h * 17 + Objects.hashCode(fetchResult);
+    h = h * 17 + requestedRuleKey.hashCode();
+    h = h * 17 + Objects.hashCode(artifactContentHash);
+    h = h * 17 + Objects.hashCode(artifactSizeBytes);
+    h = h * 17 + Objects.hashCode(errorMessage);
+    h = h * 17 + associatedRuleKeys.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code HttpArtifactCacheEventFetchData} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("HttpArtifactCacheEventFetchData")
+        .omitNullValues()
+        .add("responseSizeBytes", responseSizeBytes)
+        .add("fetchResult", fetchResult)
+        .add("requestedRuleKey", requestedRuleKey)
+        .add("artifactContentHash", artifactContentHash)
+        .add("artifactSizeBytes", artifactSizeBytes)
+        .add("errorMessage", errorMessage)
+        .add("associatedRuleKeys", associatedRuleKeys)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable HttpArtifactCacheEventFetchData instance
+   */
+  static HttpArtifactCacheEventFetchData copyOf(HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData instance) {
+    if (instance instanceof HttpArtifactCacheEventFetchData) {
+      return (HttpArtifactCacheEventFetchData) instance;
+    }
+    return HttpArtifactCacheEventFetchData.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link HttpArtifactCacheEventFetchData HttpArtifactCacheEventFetchData}.
+   * @return A new HttpArtifactCacheEventFetchData builder
+   */
+  public static HttpArtifactCacheEventFetchData.Builder builder() {
+    return new HttpArtifactCacheEventFetchData.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link HttpArtifactCacheEventFetchData HttpArtifactCacheEventFetchData}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_REQUESTED_RULE_KEY = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable Long responseSizeBytes;
+    private @Nullable CacheResult fetchResult;
+    private @Nullable RuleKey requestedRuleKey;
+    private @Nullable String artifactContentHash;
+    private @Nullable Long artifactSizeBytes;
+    private @Nullable String errorMessage;
+    private ImmutableSet.Builder<RuleKey> associatedRuleKeys = ImmutableSet.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code HttpArtifactCacheEventFetchData} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(HttpArtifactCacheEventFetchData instance) {
+      return from((HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractHttpArtifactCacheEventFetchData} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      Optional<Long> responseSizeBytesOptional = instance.getResponseSizeBytes();
+      if (responseSizeBytesOptional.isPresent()) {
+        setResponseSizeBytes(responseSizeBytesOptional);
+      }
+      Optional<CacheResult> fetchResultOptional = instance.getFetchResult();
+      if (fetchResultOptional.isPresent()) {
+        setFetchResult(fetchResultOptional);
+      }
+      setRequestedRuleKey(instance.getRequestedRuleKey());
+      Optional<String> artifactContentHashOptional = instance.getArtifactContentHash();
+      if (artifactContentHashOptional.isPresent()) {
+        setArtifactContentHash(artifactContentHashOptional);
+      }
+      Optional<Long> artifactSizeBytesOptional = instance.getArtifactSizeBytes();
+      if (artifactSizeBytesOptional.isPresent()) {
+        setArtifactSizeBytes(artifactSizeBytesOptional);
+      }
+      Optional<String> errorMessageOptional = instance.getErrorMessage();
+      if (errorMessageOptional.isPresent()) {
+        setErrorMessage(errorMessageOptional);
+      }
+      addAllAssociatedRuleKeys(instance.getAssociatedRuleKeys());
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getResponseSizeBytes() responseSizeBytes} to responseSizeBytes.
+     * @param responseSizeBytes The value for responseSizeBytes
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setResponseSizeBytes(long responseSizeBytes) {
+      this.responseSizeBytes = responseSizeBytes;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getResponseSizeBytes() responseSizeBytes} to responseSizeBytes.
+     * @param responseSizeBytes The value for responseSizeBytes
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setResponseSizeBytes(Optional<Long> responseSizeBytes) {
+      this.responseSizeBytes = responseSizeBytes.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getFetchResult() fetchResult} to fetchResult.
+     * @param fetchResult The value for fetchResult
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setFetchResult(CacheResult fetchResult) {
+      this.fetchResult = Preconditions.checkNotNull(fetchResult, "fetchResult");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getFetchResult() fetchResult} to fetchResult.
+     * @param fetchResult The value for fetchResult
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setFetchResult(Optional<CacheResult> fetchResult) {
+      this.fetchResult = fetchResult.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getRequestedRuleKey() requestedRuleKey} attribute.
+     * @param requestedRuleKey The value for requestedRuleKey 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRequestedRuleKey(RuleKey requestedRuleKey) {
+      this.requestedRuleKey = Preconditions.checkNotNull(requestedRuleKey, "requestedRuleKey");
+      initBits &= ~INIT_BIT_REQUESTED_RULE_KEY;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactContentHash() artifactContentHash} to artifactContentHash.
+     * @param artifactContentHash The value for artifactContentHash
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setArtifactContentHash(String artifactContentHash) {
+      this.artifactContentHash = Preconditions.checkNotNull(artifactContentHash, "artifactContentHash");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactContentHash() artifactContentHash} to artifactContentHash.
+     * @param artifactContentHash The value for artifactContentHash
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setArtifactContentHash(Optional<String> artifactContentHash) {
+      this.artifactContentHash = artifactContentHash.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactSizeBytes() artifactSizeBytes} to artifactSizeBytes.
+     * @param artifactSizeBytes The value for artifactSizeBytes
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setArtifactSizeBytes(long artifactSizeBytes) {
+      this.artifactSizeBytes = artifactSizeBytes;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getArtifactSizeBytes() artifactSizeBytes} to artifactSizeBytes.
+     * @param artifactSizeBytes The value for artifactSizeBytes
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setArtifactSizeBytes(Optional<Long> artifactSizeBytes) {
+      this.artifactSizeBytes = artifactSizeBytes.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getErrorMessage() errorMessage} to errorMessage.
+     * @param errorMessage The value for errorMessage
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setErrorMessage(String errorMessage) {
+      this.errorMessage = Preconditions.checkNotNull(errorMessage, "errorMessage");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getErrorMessage() errorMessage} to errorMessage.
+     * @param errorMessage The value for errorMessage
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setErrorMessage(Optional<String> errorMessage) {
+      this.errorMessage = errorMessage.orElse(null);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getAssociatedRuleKeys() associatedRuleKeys} set.
+     * @param element A associatedRuleKeys element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAssociatedRuleKeys(RuleKey element) {
+      this.associatedRuleKeys.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getAssociatedRuleKeys() associatedRuleKeys} set.
+     * @param elements An array of associatedRuleKeys elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAssociatedRuleKeys(RuleKey... elements) {
+      this.associatedRuleKeys.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getAssociatedRuleKeys() associatedRuleKeys} set.
+     * @param elements An iterable of associatedRuleKeys elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setAssociatedRuleKeys(Iterable<? extends RuleKey> elements) {
+      this.associatedRuleKeys = ImmutableSet.builder();
+      return addAllAssociatedRuleKeys(elements);
+    }
+
+    /**
+     * Adds elements to {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventFetchData#getAssociatedRuleKeys() associatedRuleKeys} set.
+     * @param elements An iterable of associatedRuleKeys elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllAssociatedRuleKeys(Iterable<? extends RuleKey> elements) {
+      this.associatedRuleKeys.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link HttpArtifactCacheEventFetchData HttpArtifactCacheEventFetchData}.
+     * @return An immutable instance of HttpArtifactCacheEventFetchData
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public HttpArtifactCacheEventFetchData build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new HttpArtifactCacheEventFetchData(
+          responseSizeBytes,
+          fetchResult,
+          requestedRuleKey,
+          artifactContentHash,
+          artifactSizeBytes,
+          errorMessage,
+          associatedRuleKeys.build());
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_REQUESTED_RULE_KEY) != 0) attributes.add("requestedRuleKey");
+      return "Cannot build HttpArtifactCacheEventFetchData, some of required attributes are not set " + attributes;
+    }
+  }
+}
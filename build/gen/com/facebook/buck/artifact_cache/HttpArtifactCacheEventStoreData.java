@@ -0,0 +1,600 @@
+package com.facebook.buck.artifact_cache;
+
+import com.facebook.buck.rules.RuleKey;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code HttpArtifactCacheEventStoreData.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData"})
+@Immutable
+public final class HttpArtifactCacheEventStoreData
+    implements HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData {
+  private final @Nullable Long requestSizeBytes;
+  private final @Nullable Boolean wasStoreSuccessful;
+  private final ImmutableSet<RuleKey> ruleKeys;
+  private final @Nullable String artifactContentHash;
+  private final @Nullable Long artifactSizeBytes;
+  private final @Nullable String errorMessage;
+
+  private HttpArtifactCacheEventStoreData(
+      @Nullable Long requestSizeBytes,
+      @Nullable Boolean wasStoreSuccessful,
+      ImmutableSet<RuleKey> ruleKeys,
+      @Nullable String artifactContentHash,
+      @Nullable Long artifactSizeBytes,
+      @Nullable String errorMessage) {
+    this.requestSizeBytes = requestSizeBytes;
+    this.wasStoreSuccessful = wasStoreSuccessful;
+    this.ruleKeys = ruleKeys;
+    this.artifactContentHash = artifactContentHash;
+    this.artifactSizeBytes = artifactSizeBytes;
+    this.errorMessage = errorMessage;
+  }
+
+  /**
+   * @return The value of the {@code requestSizeBytes} attribute
+   */
+  @Override
+  public Optional<Long> getRequestSizeBytes() {
+    return Optional.ofNullable(requestSizeBytes);
+  }
+
+  /**
+   * @return The value of the {@code wasStoreSuccessful} attribute
+   */
+  @Override
+  public Optional<Boolean> wasStoreSuccessful() {
+    return Optional.ofNullable(wasStoreSuccessful);
+  }
+
+  /**
+   * @return The value of the {@code ruleKeys} attribute
+   */
+  @Override
+  public ImmutableSet<RuleKey> getRuleKeys() {
+    return ruleKeys;
+  }
+
+  /**
+   * @return The value of the {@code artifactContentHash} attribute
+   */
+  @Override
+  public Optional<String> getArtifactContentHash() {
+    return Optional.ofNullable(artifactContentHash);
+  }
+
+  /**
+   * @return The value of the {@code artifactSizeBytes} attribute
+   */
+  @Override
+  public Optional<Long> getArtifactSizeBytes() {
+    return Optional.ofNullable(artifactSizeBytes);
+  }
+
+  /**
+   * @return The value of the {@code errorMessage} attribute
+   */
+  @Override
+  public Optional<String> getErrorMessage() {
+    return Optional.ofNullable(errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRequestSizeBytes() requestSizeBytes} attribute.
+   * @param value The value for requestSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withRequestSizeBytes(long value) {
+    @Nullable Long newValue = value;
+    if (Objects.equal(this.requestSizeBytes, newValue)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        newValue,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRequestSizeBytes() requestSizeBytes} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for requestSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withRequestSizeBytes(Optional<Long> optional) {
+    @Nullable Long value = optional.orElse(null);
+    if (Objects.equal(this.requestSizeBytes, value)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        value,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#wasStoreSuccessful() wasStoreSuccessful} attribute.
+   * @param value The value for wasStoreSuccessful
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withWasStoreSuccessful(boolean value) {
+    @Nullable Boolean newValue = value;
+    if (Objects.equal(this.wasStoreSuccessful, newValue)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        newValue,
+        this.ruleKeys,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#wasStoreSuccessful() wasStoreSuccessful} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for wasStoreSuccessful
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withWasStoreSuccessful(Optional<Boolean> optional) {
+    @Nullable Boolean value = optional.orElse(null);
+    if (Objects.equal(this.wasStoreSuccessful, value)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        value,
+        this.ruleKeys,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRuleKeys() ruleKeys}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withRuleKeys(RuleKey... elements) {
+    ImmutableSet<RuleKey> newValue = ImmutableSet.copyOf(elements);
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        newValue,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRuleKeys() ruleKeys}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of ruleKeys elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withRuleKeys(Iterable<? extends RuleKey> elements) {
+    if (this.ruleKeys == elements) return this;
+    ImmutableSet<RuleKey> newValue = ImmutableSet.copyOf(elements);
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        newValue,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactContentHash() artifactContentHash} attribute.
+   * @param value The value for artifactContentHash
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withArtifactContentHash(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "artifactContentHash");
+    if (Objects.equal(this.artifactContentHash, newValue)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        newValue,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactContentHash() artifactContentHash} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for artifactContentHash
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withArtifactContentHash(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.artifactContentHash, value)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        value,
+        this.artifactSizeBytes,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactSizeBytes() artifactSizeBytes} attribute.
+   * @param value The value for artifactSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withArtifactSizeBytes(long value) {
+    @Nullable Long newValue = value;
+    if (Objects.equal(this.artifactSizeBytes, newValue)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        this.artifactContentHash,
+        newValue,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactSizeBytes() artifactSizeBytes} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for artifactSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withArtifactSizeBytes(Optional<Long> optional) {
+    @Nullable Long value = optional.orElse(null);
+    if (Objects.equal(this.artifactSizeBytes, value)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        this.artifactContentHash,
+        value,
+        this.errorMessage);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getErrorMessage() errorMessage} attribute.
+   * @param value The value for errorMessage
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withErrorMessage(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "errorMessage");
+    if (Objects.equal(this.errorMessage, newValue)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getErrorMessage() errorMessage} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for errorMessage
+   * @return A modified copy of {@code this} object
+   */
+  public final HttpArtifactCacheEventStoreData withErrorMessage(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.errorMessage, value)) return this;
+    return new HttpArtifactCacheEventStoreData(
+        this.requestSizeBytes,
+        this.wasStoreSuccessful,
+        this.ruleKeys,
+        this.artifactContentHash,
+        this.artifactSizeBytes,
+        value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code HttpArtifactCacheEventStoreData} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof HttpArtifactCacheEventStoreData
+        && equalTo((HttpArtifactCacheEventStoreData) another);
+  }
+
+  private boolean equalTo(HttpArtifactCacheEventStoreData another) {
+    return Objects.equal(requestSizeBytes, another.requestSizeBytes)
+        && Objects.equal(wasStoreSuccessful, another.wasStoreSuccessful)
+        && ruleKeys.equals(another.ruleKeys)
+        && Objects.equal(artifactContentHash, another.artifactContentHash)
+        && Objects.equal(artifactSizeBytes, another.artifactSizeBytes)
+        && Objects.equal(errorMessage, another.errorMessage);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code requestSizeBytes}, {@code wasStoreSuccessful}, {@code ruleKeys}, {@code artifactContentHash}, {@code artifactSizeBytes}, {@code errorMessage}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + Objects.hashCode(requestSizeBytes);
+    h = h * 17 + Objects.hashCode(wasStoreSuccessful);
+    h = h * 17 + ruleKeys.hashCode();
+    h = h * 17 + Objects.hashCode(artifactContentHash);
+    h = h * 17 + Objects.hashCode(artifactSizeBytes);
+    h = h * 17 + Objects.hashCode(errorMessage);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code HttpArtifactCacheEventStoreData} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("HttpArtifactCacheEventStoreData")
+        .omitNullValues()
+        .add("requestSizeBytes", requestSizeBytes)
+        .add("wasStoreSuccessful", wasStoreSuccessful)
+        .add("ruleKeys", ruleKeys)
+        .add("artifactContentHash", artifactContentHash)
+        .add("artifactSizeBytes", artifactSizeBytes)
+        .add("errorMessage", errorMessage)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable HttpArtifactCacheEventStoreData instance
+   */
+  static HttpArtifactCacheEventStoreData copyOf(HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData instance) {
+    if (instance instanceof HttpArtifactCacheEventStoreData) {
+      return (HttpArtifactCacheEventStoreData) instance;
+    }
+    return HttpArtifactCacheEventStoreData.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link HttpArtifactCacheEventStoreData HttpArtifactCacheEventStoreData}.
+   * @return A new HttpArtifactCacheEventStoreData builder
+   */
+  public static HttpArtifactCacheEventStoreData.Builder builder() {
+    return new HttpArtifactCacheEventStoreData.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link HttpArtifactCacheEventStoreData HttpArtifactCacheEventStoreData}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private @Nullable Long requestSizeBytes;
+    private @Nullable Boolean wasStoreSuccessful;
+    private ImmutableSet.Builder<RuleKey> ruleKeys = ImmutableSet.builder();
+    private @Nullable String artifactContentHash;
+    private @Nullable Long artifactSizeBytes;
+    private @Nullable String errorMessage;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code HttpArtifactCacheEventStoreData} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(HttpArtifactCacheEventStoreData instance) {
+      return from((HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractHttpArtifactCacheEventStoreData} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      Optional<Long> requestSizeBytesOptional = instance.getRequestSizeBytes();
+      if (requestSizeBytesOptional.isPresent()) {
+        setRequestSizeBytes(requestSizeBytesOptional);
+      }
+      Optional<Boolean> wasStoreSuccessfulOptional = instance.wasStoreSuccessful();
+      if (wasStoreSuccessfulOptional.isPresent()) {
+        setWasStoreSuccessful(wasStoreSuccessfulOptional);
+      }
+      addAllRuleKeys(instance.getRuleKeys());
+      Optional<String> artifactContentHashOptional = instance.getArtifactContentHash();
+      if (artifactContentHashOptional.isPresent()) {
+        setArtifactContentHash(artifactContentHashOptional);
+      }
+      Optional<Long> artifactSizeBytesOptional = instance.getArtifactSizeBytes();
+      if (artifactSizeBytesOptional.isPresent()) {
+        setArtifactSizeBytes(artifactSizeBytesOptional);
+      }
+      Optional<String> errorMessageOptional = instance.getErrorMessage();
+      if (errorMessageOptional.isPresent()) {
+        setErrorMessage(errorMessageOptional);
+      }
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRequestSizeBytes() requestSizeBytes} to requestSizeBytes.
+     * @param requestSizeBytes The value for requestSizeBytes
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setRequestSizeBytes(long requestSizeBytes) {
+      this.requestSizeBytes = requestSizeBytes;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRequestSizeBytes() requestSizeBytes} to requestSizeBytes.
+     * @param requestSizeBytes The value for requestSizeBytes
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRequestSizeBytes(Optional<Long> requestSizeBytes) {
+      this.requestSizeBytes = requestSizeBytes.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#wasStoreSuccessful() wasStoreSuccessful} to wasStoreSuccessful.
+     * @param wasStoreSuccessful The value for wasStoreSuccessful
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setWasStoreSuccessful(boolean wasStoreSuccessful) {
+      this.wasStoreSuccessful = wasStoreSuccessful;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#wasStoreSuccessful() wasStoreSuccessful} to wasStoreSuccessful.
+     * @param wasStoreSuccessful The value for wasStoreSuccessful
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setWasStoreSuccessful(Optional<Boolean> wasStoreSuccessful) {
+      this.wasStoreSuccessful = wasStoreSuccessful.orElse(null);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRuleKeys() ruleKeys} set.
+     * @param element A ruleKeys element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addRuleKeys(RuleKey element) {
+      this.ruleKeys.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRuleKeys() ruleKeys} set.
+     * @param elements An array of ruleKeys elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addRuleKeys(RuleKey... elements) {
+      this.ruleKeys.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRuleKeys() ruleKeys} set.
+     * @param elements An iterable of ruleKeys elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRuleKeys(Iterable<? extends RuleKey> elements) {
+      this.ruleKeys = ImmutableSet.builder();
+      return addAllRuleKeys(elements);
+    }
+
+    /**
+     * Adds elements to {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getRuleKeys() ruleKeys} set.
+     * @param elements An iterable of ruleKeys elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllRuleKeys(Iterable<? extends RuleKey> elements) {
+      this.ruleKeys.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactContentHash() artifactContentHash} to artifactContentHash.
+     * @param artifactContentHash The value for artifactContentHash
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setArtifactContentHash(String artifactContentHash) {
+      this.artifactContentHash = Preconditions.checkNotNull(artifactContentHash, "artifactContentHash");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactContentHash() artifactContentHash} to artifactContentHash.
+     * @param artifactContentHash The value for artifactContentHash
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setArtifactContentHash(Optional<String> artifactContentHash) {
+      this.artifactContentHash = artifactContentHash.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactSizeBytes() artifactSizeBytes} to artifactSizeBytes.
+     * @param artifactSizeBytes The value for artifactSizeBytes
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setArtifactSizeBytes(long artifactSizeBytes) {
+      this.artifactSizeBytes = artifactSizeBytes;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getArtifactSizeBytes() artifactSizeBytes} to artifactSizeBytes.
+     * @param artifactSizeBytes The value for artifactSizeBytes
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setArtifactSizeBytes(Optional<Long> artifactSizeBytes) {
+      this.artifactSizeBytes = artifactSizeBytes.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getErrorMessage() errorMessage} to errorMessage.
+     * @param errorMessage The value for errorMessage
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setErrorMessage(String errorMessage) {
+      this.errorMessage = Preconditions.checkNotNull(errorMessage, "errorMessage");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link HttpArtifactCacheEvent.AbstractHttpArtifactCacheEventStoreData#getErrorMessage() errorMessage} to errorMessage.
+     * @param errorMessage The value for errorMessage
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setErrorMessage(Optional<String> errorMessage) {
+      this.errorMessage = errorMessage.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link HttpArtifactCacheEventStoreData HttpArtifactCacheEventStoreData}.
+     * @return An immutable instance of HttpArtifactCacheEventStoreData
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public HttpArtifactCacheEventStoreData build() {
+      return new HttpArtifactCacheEventStoreData(
+          requestSizeBytes,
+          wasStoreSuccessful,
+          ruleKeys.build(),
+          artifactContentHash,
+          artifactSizeBytes,
+          errorMessage);
+    }
+  }
+}
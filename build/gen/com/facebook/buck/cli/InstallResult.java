@@ -0,0 +1,242 @@
+package com.facebook.buck.cli;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractInstallResult}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code InstallResult.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractInstallResult"})
+@Immutable
+public final class InstallResult implements AbstractInstallResult {
+  private final int exitCode;
+  private final @Nullable Long launchedPid;
+
+  private InstallResult(int exitCode, @Nullable Long launchedPid) {
+    this.exitCode = exitCode;
+    this.launchedPid = launchedPid;
+  }
+
+  /**
+   * @return The value of the {@code exitCode} attribute
+   */
+  @Override
+  public int getExitCode() {
+    return exitCode;
+  }
+
+  /**
+   * @return The value of the {@code launchedPid} attribute
+   */
+  @Override
+  public Optional<Long> getLaunchedPid() {
+    return Optional.ofNullable(launchedPid);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractInstallResult#getExitCode() exitCode} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for exitCode
+   * @return A modified copy of the {@code this} object
+   */
+  public final InstallResult withExitCode(int value) {
+    if (this.exitCode == value) return this;
+    return new InstallResult(value, this.launchedPid);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractInstallResult#getLaunchedPid() launchedPid} attribute.
+   * @param value The value for launchedPid
+   * @return A modified copy of {@code this} object
+   */
+  public final InstallResult withLaunchedPid(long value) {
+    @Nullable Long newValue = value;
+    if (Objects.equal(this.launchedPid, newValue)) return this;
+    return new InstallResult(this.exitCode, newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractInstallResult#getLaunchedPid() launchedPid} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for launchedPid
+   * @return A modified copy of {@code this} object
+   */
+  public final InstallResult withLaunchedPid(Optional<Long> optional) {
+    @Nullable Long value = optional.orElse(null);
+    if (Objects.equal(this.launchedPid, value)) return this;
+    return new InstallResult(this.exitCode, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code InstallResult} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof InstallResult
+        && equalTo((InstallResult) another);
+  }
+
+  private boolean equalTo(InstallResult another) {
+    return exitCode == another.exitCode
+        && Objects.equal(launchedPid, another.launchedPid);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code exitCode}, {@code launchedPid}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + exitCode;
+    h = h * 17 + Objects.hashCode(launchedPid);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code InstallResult} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("InstallResult")
+        .omitNullValues()
+        .add("exitCode", exitCode)
+        .add("launchedPid", launchedPid)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractInstallResult} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable InstallResult instance
+   */
+  static InstallResult copyOf(AbstractInstallResult instance) {
+    if (instance instanceof InstallResult) {
+      return (InstallResult) instance;
+    }
+    return InstallResult.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link InstallResult InstallResult}.
+   * @return A new InstallResult builder
+   */
+  public static InstallResult.Builder builder() {
+    return new InstallResult.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link InstallResult InstallResult}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_EXIT_CODE = 0x1L;
+    private long initBits = 0x1L;
+
+    private int exitCode;
+    private @Nullable Long launchedPid;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code InstallResult} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(InstallResult instance) {
+      return from((AbstractInstallResult) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractInstallResult} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractInstallResult instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setExitCode(instance.getExitCode());
+      Optional<Long> launchedPidOptional = instance.getLaunchedPid();
+      if (launchedPidOptional.isPresent()) {
+        setLaunchedPid(launchedPidOptional);
+      }
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractInstallResult#getExitCode() exitCode} attribute.
+     * @param exitCode The value for exitCode 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setExitCode(int exitCode) {
+      this.exitCode = exitCode;
+      initBits &= ~INIT_BIT_EXIT_CODE;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractInstallResult#getLaunchedPid() launchedPid} to launchedPid.
+     * @param launchedPid The value for launchedPid
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setLaunchedPid(long launchedPid) {
+      this.launchedPid = launchedPid;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractInstallResult#getLaunchedPid() launchedPid} to launchedPid.
+     * @param launchedPid The value for launchedPid
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setLaunchedPid(Optional<Long> launchedPid) {
+      this.launchedPid = launchedPid.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link InstallResult InstallResult}.
+     * @return An immutable instance of InstallResult
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public InstallResult build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new InstallResult(exitCode, launchedPid);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_EXIT_CODE) != 0) attributes.add("exitCode");
+      return "Cannot build InstallResult, some of required attributes are not set " + attributes;
+    }
+  }
+}
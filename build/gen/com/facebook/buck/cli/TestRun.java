@@ -0,0 +1,380 @@
+package com.facebook.buck.cli;
+
+import com.facebook.buck.rules.TestRule;
+import com.facebook.buck.step.Step;
+import com.facebook.buck.test.TestResults;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.concurrent.Callable;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable value type holding data about the test(s) invoked by a {@link TestRule}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractTestRun"})
+@Immutable
+public final class TestRun implements AbstractTestRun {
+  private final TestRule test;
+  private final ImmutableList<Step> steps;
+  private final Callable<TestResults> testResultsCallable;
+  private final TestRule.TestReportingCallback testReportingCallback;
+
+  private TestRun(
+      TestRule test,
+      Iterable<? extends Step> steps,
+      Callable<TestResults> testResultsCallable,
+      TestRule.TestReportingCallback testReportingCallback) {
+    this.test = Preconditions.checkNotNull(test, "test");
+    this.steps = ImmutableList.copyOf(steps);
+    this.testResultsCallable = Preconditions.checkNotNull(testResultsCallable, "testResultsCallable");
+    this.testReportingCallback = Preconditions.checkNotNull(testReportingCallback, "testReportingCallback");
+  }
+
+  private TestRun(
+      TestRun original,
+      TestRule test,
+      ImmutableList<Step> steps,
+      Callable<TestResults> testResultsCallable,
+      TestRule.TestReportingCallback testReportingCallback) {
+    this.test = test;
+    this.steps = steps;
+    this.testResultsCallable = testResultsCallable;
+    this.testReportingCallback = testReportingCallback;
+  }
+
+  /**
+   * @return The value of the {@code test} attribute
+   */
+  @Override
+  public TestRule getTest() {
+    return test;
+  }
+
+  /**
+   * @return The value of the {@code steps} attribute
+   */
+  @Override
+  public ImmutableList<Step> getSteps() {
+    return steps;
+  }
+
+  /**
+   * @return The value of the {@code testResultsCallable} attribute
+   */
+  @Override
+  public Callable<TestResults> getTestResultsCallable() {
+    return testResultsCallable;
+  }
+
+  /**
+   * @return The value of the {@code testReportingCallback} attribute
+   */
+  @Override
+  public TestRule.TestReportingCallback getTestReportingCallback() {
+    return testReportingCallback;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractTestRun#getTest() test} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for test
+   * @return A modified copy of the {@code this} object
+   */
+  public final TestRun withTest(TestRule value) {
+    if (this.test == value) return this;
+    TestRule newValue = Preconditions.checkNotNull(value, "test");
+    return new TestRun(this, newValue, this.steps, this.testResultsCallable, this.testReportingCallback);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractTestRun#getSteps() steps}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final TestRun withSteps(Step... elements) {
+    ImmutableList<Step> newValue = ImmutableList.copyOf(elements);
+    return new TestRun(this, this.test, newValue, this.testResultsCallable, this.testReportingCallback);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractTestRun#getSteps() steps}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of steps elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final TestRun withSteps(Iterable<? extends Step> elements) {
+    if (this.steps == elements) return this;
+    ImmutableList<Step> newValue = ImmutableList.copyOf(elements);
+    return new TestRun(this, this.test, newValue, this.testResultsCallable, this.testReportingCallback);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractTestRun#getTestResultsCallable() testResultsCallable} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for testResultsCallable
+   * @return A modified copy of the {@code this} object
+   */
+  public final TestRun withTestResultsCallable(Callable<TestResults> value) {
+    if (this.testResultsCallable == value) return this;
+    Callable<TestResults> newValue = Preconditions.checkNotNull(value, "testResultsCallable");
+    return new TestRun(this, this.test, this.steps, newValue, this.testReportingCallback);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractTestRun#getTestReportingCallback() testReportingCallback} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for testReportingCallback
+   * @return A modified copy of the {@code this} object
+   */
+  public final TestRun withTestReportingCallback(TestRule.TestReportingCallback value) {
+    if (this.testReportingCallback == value) return this;
+    TestRule.TestReportingCallback newValue = Preconditions.checkNotNull(value, "testReportingCallback");
+    return new TestRun(this, this.test, this.steps, this.testResultsCallable, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code TestRun} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof TestRun
+        && equalTo((TestRun) another);
+  }
+
+  private boolean equalTo(TestRun another) {
+    return test.equals(another.test)
+        && steps.equals(another.steps)
+        && testResultsCallable.equals(another.testResultsCallable)
+        && testReportingCallback.equals(another.testReportingCallback);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code test}, {@code steps}, {@code testResultsCallable}, {@code testReportingCallback}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + test.hashCode();
+    h = h * 17 + steps.hashCode();
+    h = h * 17 + testResultsCallable.hashCode();
+    h = h * 17 + testReportingCallback.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code TestRun} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("TestRun")
+        .omitNullValues()
+        .add("test", test)
+        .add("steps", steps)
+        .add("testResultsCallable", testResultsCallable)
+        .add("testReportingCallback", testReportingCallback)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code TestRun} instance.
+   * @param test The value for the {@code test} attribute
+   * @param steps The value for the {@code steps} attribute
+   * @param testResultsCallable The value for the {@code testResultsCallable} attribute
+   * @param testReportingCallback The value for the {@code testReportingCallback} attribute
+   * @return An immutable TestRun instance
+   */
+  public static TestRun of(TestRule test, List<Step> steps, Callable<TestResults> testResultsCallable, TestRule.TestReportingCallback testReportingCallback) {
+    return of(test, (Iterable<? extends Step>) steps, testResultsCallable, testReportingCallback);
+  }
+
+  /**
+   * Construct a new immutable {@code TestRun} instance.
+   * @param test The value for the {@code test} attribute
+   * @param steps The value for the {@code steps} attribute
+   * @param testResultsCallable The value for the {@code testResultsCallable} attribute
+   * @param testReportingCallback The value for the {@code testReportingCallback} attribute
+   * @return An immutable TestRun instance
+   */
+  public static TestRun of(TestRule test, Iterable<? extends Step> steps, Callable<TestResults> testResultsCallable, TestRule.TestReportingCallback testReportingCallback) {
+    return new TestRun(test, steps, testResultsCallable, testReportingCallback);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractTestRun} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable TestRun instance
+   */
+  static TestRun copyOf(AbstractTestRun instance) {
+    if (instance instanceof TestRun) {
+      return (TestRun) instance;
+    }
+    return TestRun.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link TestRun TestRun}.
+   * @return A new TestRun builder
+   */
+  public static TestRun.Builder builder() {
+    return new TestRun.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link TestRun TestRun}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_TEST = 0x1L;
+    private static final long INIT_BIT_TEST_RESULTS_CALLABLE = 0x2L;
+    private static final long INIT_BIT_TEST_REPORTING_CALLBACK = 0x4L;
+    private long initBits = 0x7L;
+
+    private @Nullable TestRule test;
+    private ImmutableList.Builder<Step> steps = ImmutableList.builder();
+    private @Nullable Callable<TestResults> testResultsCallable;
+    private @Nullable TestRule.TestReportingCallback testReportingCallback;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code TestRun} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(TestRun instance) {
+      return from((AbstractTestRun) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractTestRun} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractTestRun instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setTest(instance.getTest());
+      addAllSteps(instance.getSteps());
+      setTestResultsCallable(instance.getTestResultsCallable());
+      setTestReportingCallback(instance.getTestReportingCallback());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractTestRun#getTest() test} attribute.
+     * @param test The value for test 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTest(TestRule test) {
+      this.test = Preconditions.checkNotNull(test, "test");
+      initBits &= ~INIT_BIT_TEST;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractTestRun#getSteps() steps} list.
+     * @param element A steps element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSteps(Step element) {
+      this.steps.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractTestRun#getSteps() steps} list.
+     * @param elements An array of steps elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSteps(Step... elements) {
+      this.steps.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractTestRun#getSteps() steps} list.
+     * @param elements An iterable of steps elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSteps(Iterable<? extends Step> elements) {
+      this.steps = ImmutableList.builder();
+      return addAllSteps(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractTestRun#getSteps() steps} list.
+     * @param elements An iterable of steps elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllSteps(Iterable<? extends Step> elements) {
+      this.steps.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractTestRun#getTestResultsCallable() testResultsCallable} attribute.
+     * @param testResultsCallable The value for testResultsCallable 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTestResultsCallable(Callable<TestResults> testResultsCallable) {
+      this.testResultsCallable = Preconditions.checkNotNull(testResultsCallable, "testResultsCallable");
+      initBits &= ~INIT_BIT_TEST_RESULTS_CALLABLE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractTestRun#getTestReportingCallback() testReportingCallback} attribute.
+     * @param testReportingCallback The value for testReportingCallback 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTestReportingCallback(TestRule.TestReportingCallback testReportingCallback) {
+      this.testReportingCallback = Preconditions.checkNotNull(testReportingCallback, "testReportingCallback");
+      initBits &= ~INIT_BIT_TEST_REPORTING_CALLBACK;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link TestRun TestRun}.
+     * @return An immutable instance of TestRun
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public TestRun build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new TestRun(null, test, steps.build(), testResultsCallable, testReportingCallback);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_TEST) != 0) attributes.add("test");
+      if ((initBits & INIT_BIT_TEST_RESULTS_CALLABLE) != 0) attributes.add("testResultsCallable");
+      if ((initBits & INIT_BIT_TEST_REPORTING_CALLBACK) != 0) attributes.add("testReportingCallback");
+      return "Cannot build TestRun, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,348 @@
+package com.facebook.buck.cxx;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractCxxCompilationDatabaseEntry}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code CxxCompilationDatabaseEntry.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code CxxCompilationDatabaseEntry.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractCxxCompilationDatabaseEntry"})
+@Immutable
+public final class CxxCompilationDatabaseEntry
+    extends AbstractCxxCompilationDatabaseEntry {
+  private final String directory;
+  private final String file;
+  private final ImmutableList<String> arguments;
+  private final String command;
+
+  private CxxCompilationDatabaseEntry(String directory, String file, Iterable<String> arguments) {
+    this.directory = Preconditions.checkNotNull(directory, "directory");
+    this.file = Preconditions.checkNotNull(file, "file");
+    this.arguments = ImmutableList.copyOf(arguments);
+    this.command = Preconditions.checkNotNull(super.getCommand(), "command");
+  }
+
+  private CxxCompilationDatabaseEntry(
+      CxxCompilationDatabaseEntry original,
+      String directory,
+      String file,
+      ImmutableList<String> arguments) {
+    this.directory = directory;
+    this.file = file;
+    this.arguments = arguments;
+    this.command = Preconditions.checkNotNull(super.getCommand(), "command");
+  }
+
+  /**
+   * @return The value of the {@code directory} attribute
+   */
+  @Override
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @return The value of the {@code file} attribute
+   */
+  @Override
+  public String getFile() {
+    return file;
+  }
+
+  /**
+   * @return The value of the {@code arguments} attribute
+   */
+  @Override
+  public ImmutableList<String> getArguments() {
+    return arguments;
+  }
+
+  /**
+   * @return The computed-at-construction value of the {@code command} attribute
+   */
+  @Override
+  public String getCommand() {
+    return command;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractCxxCompilationDatabaseEntry#getDirectory() directory} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for directory
+   * @return A modified copy of the {@code this} object
+   */
+  public final CxxCompilationDatabaseEntry withDirectory(String value) {
+    if (this.directory.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "directory");
+    return new CxxCompilationDatabaseEntry(this, newValue, this.file, this.arguments);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractCxxCompilationDatabaseEntry#getFile() file} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for file
+   * @return A modified copy of the {@code this} object
+   */
+  public final CxxCompilationDatabaseEntry withFile(String value) {
+    if (this.file.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "file");
+    return new CxxCompilationDatabaseEntry(this, this.directory, newValue, this.arguments);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractCxxCompilationDatabaseEntry#getArguments() arguments}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final CxxCompilationDatabaseEntry withArguments(String... elements) {
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new CxxCompilationDatabaseEntry(this, this.directory, this.file, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractCxxCompilationDatabaseEntry#getArguments() arguments}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of arguments elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final CxxCompilationDatabaseEntry withArguments(Iterable<String> elements) {
+    if (this.arguments == elements) return this;
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new CxxCompilationDatabaseEntry(this, this.directory, this.file, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code CxxCompilationDatabaseEntry} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof CxxCompilationDatabaseEntry
+        && equalTo((CxxCompilationDatabaseEntry) another);
+  }
+
+  private boolean equalTo(CxxCompilationDatabaseEntry another) {
+    return directory.equals(another.directory)
+        && file.equals(another.file)
+        && arguments.equals(another.arguments)
+        && command.equals(another.command);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code directory}, {@code file}, {@code arguments}, {@code command}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + directory.hashCode();
+    h = h * 17 + file.hashCode();
+    h = h * 17 + arguments.hashCode();
+    h = h * 17 + command.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code CxxCompilationDatabaseEntry} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("CxxCompilationDatabaseEntry")
+        .omitNullValues()
+        .add("directory", directory)
+        .add("file", file)
+        .add("arguments", arguments)
+        .add("command", command)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code CxxCompilationDatabaseEntry} instance.
+   * @param directory The value for the {@code directory} attribute
+   * @param file The value for the {@code file} attribute
+   * @param arguments The value for the {@code arguments} attribute
+   * @return An immutable CxxCompilationDatabaseEntry instance
+   */
+  public static CxxCompilationDatabaseEntry of(String directory, String file, ImmutableList<String> arguments) {
+    return of(directory, file, (Iterable<String>) arguments);
+  }
+
+  /**
+   * Construct a new immutable {@code CxxCompilationDatabaseEntry} instance.
+   * @param directory The value for the {@code directory} attribute
+   * @param file The value for the {@code file} attribute
+   * @param arguments The value for the {@code arguments} attribute
+   * @return An immutable CxxCompilationDatabaseEntry instance
+   */
+  public static CxxCompilationDatabaseEntry of(String directory, String file, Iterable<String> arguments) {
+    return new CxxCompilationDatabaseEntry(directory, file, arguments);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractCxxCompilationDatabaseEntry} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable CxxCompilationDatabaseEntry instance
+   */
+  static CxxCompilationDatabaseEntry copyOf(AbstractCxxCompilationDatabaseEntry instance) {
+    if (instance instanceof CxxCompilationDatabaseEntry) {
+      return (CxxCompilationDatabaseEntry) instance;
+    }
+    return CxxCompilationDatabaseEntry.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link CxxCompilationDatabaseEntry CxxCompilationDatabaseEntry}.
+   * @return A new CxxCompilationDatabaseEntry builder
+   */
+  public static CxxCompilationDatabaseEntry.Builder builder() {
+    return new CxxCompilationDatabaseEntry.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link CxxCompilationDatabaseEntry CxxCompilationDatabaseEntry}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_DIRECTORY = 0x1L;
+    private static final long INIT_BIT_FILE = 0x2L;
+    private long initBits = 0x3L;
+
+    private @Nullable String directory;
+    private @Nullable String file;
+    private ImmutableList.Builder<String> arguments = ImmutableList.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code CxxCompilationDatabaseEntry} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(CxxCompilationDatabaseEntry instance) {
+      return from((AbstractCxxCompilationDatabaseEntry) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractCxxCompilationDatabaseEntry} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractCxxCompilationDatabaseEntry instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setDirectory(instance.getDirectory());
+      setFile(instance.getFile());
+      addAllArguments(instance.getArguments());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractCxxCompilationDatabaseEntry#getDirectory() directory} attribute.
+     * @param directory The value for directory 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setDirectory(String directory) {
+      this.directory = Preconditions.checkNotNull(directory, "directory");
+      initBits &= ~INIT_BIT_DIRECTORY;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractCxxCompilationDatabaseEntry#getFile() file} attribute.
+     * @param file The value for file 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setFile(String file) {
+      this.file = Preconditions.checkNotNull(file, "file");
+      initBits &= ~INIT_BIT_FILE;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractCxxCompilationDatabaseEntry#getArguments() arguments} list.
+     * @param element A arguments element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addArguments(String element) {
+      this.arguments.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractCxxCompilationDatabaseEntry#getArguments() arguments} list.
+     * @param elements An array of arguments elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addArguments(String... elements) {
+      this.arguments.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractCxxCompilationDatabaseEntry#getArguments() arguments} list.
+     * @param elements An iterable of arguments elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setArguments(Iterable<String> elements) {
+      this.arguments = ImmutableList.builder();
+      return addAllArguments(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractCxxCompilationDatabaseEntry#getArguments() arguments} list.
+     * @param elements An iterable of arguments elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllArguments(Iterable<String> elements) {
+      this.arguments.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link CxxCompilationDatabaseEntry CxxCompilationDatabaseEntry}.
+     * @return An immutable instance of CxxCompilationDatabaseEntry
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public CxxCompilationDatabaseEntry build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new CxxCompilationDatabaseEntry(null, directory, file, arguments.build());
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_DIRECTORY) != 0) attributes.add("directory");
+      if ((initBits & INIT_BIT_FILE) != 0) attributes.add("file");
+      return "Cannot build CxxCompilationDatabaseEntry, some of required attributes are not set " + attributes;
+    }
+  }
+}
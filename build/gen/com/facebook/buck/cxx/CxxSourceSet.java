@@ -0,0 +1,263 @@
+package com.facebook.buck.cxx;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractCxxSourceSet}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code CxxSourceSet.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code CxxSourceSet.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractCxxSourceSet"})
+@Immutable
+public final class CxxSourceSet extends AbstractCxxSourceSet {
+  private final ImmutableSet<Map.Entry<String, CxxSource>> sourcesSet;
+
+  private CxxSourceSet(Iterable<? extends Map.Entry<String, CxxSource>> sourcesSet) {
+    this.sourcesSet = ImmutableSet.copyOf(sourcesSet);
+  }
+
+  private CxxSourceSet(
+      CxxSourceSet original,
+      ImmutableSet<Map.Entry<String, CxxSource>> sourcesSet) {
+    this.sourcesSet = sourcesSet;
+  }
+
+  /**
+   * @return The value of the {@code sourcesSet} attribute
+   */
+  @Override
+  public ImmutableSet<Map.Entry<String, CxxSource>> getSourcesSet() {
+    return sourcesSet;
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractCxxSourceSet#getSourcesSet() sourcesSet}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  @SafeVarargs
+  public final CxxSourceSet withSourcesSet(Map.Entry<String, CxxSource>... elements) {
+    ImmutableSet<Map.Entry<String, CxxSource>> newValue = ImmutableSet.copyOf(elements);
+    return new CxxSourceSet(this, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractCxxSourceSet#getSourcesSet() sourcesSet}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of sourcesSet elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final CxxSourceSet withSourcesSet(Iterable<? extends Map.Entry<String, CxxSource>> elements) {
+    if (this.sourcesSet == elements) return this;
+    ImmutableSet<Map.Entry<String, CxxSource>> newValue = ImmutableSet.copyOf(elements);
+    return new CxxSourceSet(this, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code CxxSourceSet} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof CxxSourceSet
+        && equalTo((CxxSourceSet) another);
+  }
+
+  private boolean equalTo(CxxSourceSet another) {
+    return sourcesSet.equals(another.sourcesSet);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code sourcesSet}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + sourcesSet.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code CxxSourceSet} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("CxxSourceSet")
+        .omitNullValues()
+        .add("sourcesSet", sourcesSet)
+        .toString();
+  }
+
+  private volatile long lazyInitBitmap;
+
+  private static final long TO_SOURCES_MAP_LAZY_INIT_BIT = 0x1L;
+
+  private ImmutableMap<String, CxxSource> toSourcesMap;
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Returns a lazily initialized value of the {@link AbstractCxxSourceSet#toSourcesMap() toSourcesMap} attribute.
+   * Initialized once and only once and stored for subsequent access with proper synchronization.
+   * @return A lazily initialized value of the {@code l.name} attribute
+   */
+  @Override
+  public ImmutableMap<String, CxxSource> toSourcesMap() {
+    if ((lazyInitBitmap & TO_SOURCES_MAP_LAZY_INIT_BIT) == 0) {
+      synchronized (this) {
+        if ((lazyInitBitmap & TO_SOURCES_MAP_LAZY_INIT_BIT) == 0) {
+          this.toSourcesMap = Preconditions.checkNotNull(super.toSourcesMap(), "toSourcesMap");
+          lazyInitBitmap |= TO_SOURCES_MAP_LAZY_INIT_BIT;
+        }
+      }
+    }
+    return toSourcesMap;
+  }
+
+  /**
+   * Construct a new immutable {@code CxxSourceSet} instance.
+   * @param sourcesSet The value for the {@code sourcesSet} attribute
+   * @return An immutable CxxSourceSet instance
+   */
+  public static CxxSourceSet of(ImmutableSet<Map.Entry<String, CxxSource>> sourcesSet) {
+    return of((Iterable<? extends Map.Entry<String, CxxSource>>) sourcesSet);
+  }
+
+  /**
+   * Construct a new immutable {@code CxxSourceSet} instance.
+   * @param sourcesSet The value for the {@code sourcesSet} attribute
+   * @return An immutable CxxSourceSet instance
+   */
+  public static CxxSourceSet of(Iterable<? extends Map.Entry<String, CxxSource>> sourcesSet) {
+    return new CxxSourceSet(sourcesSet);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractCxxSourceSet} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable CxxSourceSet instance
+   */
+  static CxxSourceSet copyOf(AbstractCxxSourceSet instance) {
+    if (instance instanceof CxxSourceSet) {
+      return (CxxSourceSet) instance;
+    }
+    return CxxSourceSet.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link CxxSourceSet CxxSourceSet}.
+   * @return A new CxxSourceSet builder
+   */
+  public static CxxSourceSet.Builder builder() {
+    return new CxxSourceSet.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link CxxSourceSet CxxSourceSet}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private ImmutableSet.Builder<Map.Entry<String, CxxSource>> sourcesSet = ImmutableSet.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code CxxSourceSet} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(CxxSourceSet instance) {
+      return from((AbstractCxxSourceSet) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractCxxSourceSet} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractCxxSourceSet instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      addAllSourcesSet(instance.getSourcesSet());
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractCxxSourceSet#getSourcesSet() sourcesSet} set.
+     * @param element A sourcesSet element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSourcesSet(Map.Entry<String, CxxSource> element) {
+      this.sourcesSet.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractCxxSourceSet#getSourcesSet() sourcesSet} set.
+     * @param elements An array of sourcesSet elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    @SafeVarargs
+    public final Builder addSourcesSet(Map.Entry<String, CxxSource>... elements) {
+      this.sourcesSet.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractCxxSourceSet#getSourcesSet() sourcesSet} set.
+     * @param elements An iterable of sourcesSet elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSourcesSet(Iterable<? extends Map.Entry<String, CxxSource>> elements) {
+      this.sourcesSet = ImmutableSet.builder();
+      return addAllSourcesSet(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractCxxSourceSet#getSourcesSet() sourcesSet} set.
+     * @param elements An iterable of sourcesSet elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllSourcesSet(Iterable<? extends Map.Entry<String, CxxSource>> elements) {
+      this.sourcesSet.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link CxxSourceSet CxxSourceSet}.
+     * @return An immutable instance of CxxSourceSet
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public CxxSourceSet build() {
+      return new CxxSourceSet(null, sourcesSet.build());
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.facebook.buck.cxx;
+
+import com.facebook.buck.io.ProjectFilesystem;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.nio.file.Path;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A step which scrubs all information from the ".dynamic" section of an ELF file which is relevant
+ * at link time.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractElfDynamicSectionScrubberStep"})
+@Immutable
+public final class ElfDynamicSectionScrubberStep
+    extends AbstractElfDynamicSectionScrubberStep {
+  private final ProjectFilesystem filesystem;
+  private final Path path;
+
+  private ElfDynamicSectionScrubberStep(ProjectFilesystem filesystem, Path path) {
+    this.filesystem = Preconditions.checkNotNull(filesystem, "filesystem");
+    this.path = Preconditions.checkNotNull(path, "path");
+  }
+
+  private ElfDynamicSectionScrubberStep(
+      ElfDynamicSectionScrubberStep original,
+      ProjectFilesystem filesystem,
+      Path path) {
+    this.filesystem = filesystem;
+    this.path = path;
+  }
+
+  /**
+   * @return The value of the {@code filesystem} attribute
+   */
+  @Override
+  public ProjectFilesystem getFilesystem() {
+    return filesystem;
+  }
+
+  /**
+   * @return The value of the {@code path} attribute
+   */
+  @Override
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractElfDynamicSectionScrubberStep#getFilesystem() filesystem} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for filesystem
+   * @return A modified copy of the {@code this} object
+   */
+  public final ElfDynamicSectionScrubberStep withFilesystem(ProjectFilesystem value) {
+    if (this.filesystem == value) return this;
+    ProjectFilesystem newValue = Preconditions.checkNotNull(value, "filesystem");
+    return new ElfDynamicSectionScrubberStep(this, newValue, this.path);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractElfDynamicSectionScrubberStep#getPath() path} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for path
+   * @return A modified copy of the {@code this} object
+   */
+  public final ElfDynamicSectionScrubberStep withPath(Path value) {
+    if (this.path == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "path");
+    return new ElfDynamicSectionScrubberStep(this, this.filesystem, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ElfDynamicSectionScrubberStep} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ElfDynamicSectionScrubberStep
+        && equalTo((ElfDynamicSectionScrubberStep) another);
+  }
+
+  private boolean equalTo(ElfDynamicSectionScrubberStep another) {
+    return filesystem.equals(another.filesystem)
+        && path.equals(another.path);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code filesystem}, {@code path}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + filesystem.hashCode();
+    h = h * 17 + path.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ElfDynamicSectionScrubberStep} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ElfDynamicSectionScrubberStep")
+        .omitNullValues()
+        .add("filesystem", filesystem)
+        .add("path", path)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ElfDynamicSectionScrubberStep} instance.
+   * @param filesystem The value for the {@code filesystem} attribute
+   * @param path The value for the {@code path} attribute
+   * @return An immutable ElfDynamicSectionScrubberStep instance
+   */
+  public static ElfDynamicSectionScrubberStep of(ProjectFilesystem filesystem, Path path) {
+    return new ElfDynamicSectionScrubberStep(filesystem, path);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractElfDynamicSectionScrubberStep} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ElfDynamicSectionScrubberStep instance
+   */
+  static ElfDynamicSectionScrubberStep copyOf(AbstractElfDynamicSectionScrubberStep instance) {
+    if (instance instanceof ElfDynamicSectionScrubberStep) {
+      return (ElfDynamicSectionScrubberStep) instance;
+    }
+    return ElfDynamicSectionScrubberStep.of(instance.getFilesystem(), instance.getPath());
+  }
+}
@@ -0,0 +1,113 @@
+package com.facebook.buck.cxx;
+
+import com.facebook.buck.rules.ToolProvider;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractElfSharedLibraryInterfaceFactory}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code ElfSharedLibraryInterfaceFactory.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractElfSharedLibraryInterfaceFactory"})
+@Immutable
+public final class ElfSharedLibraryInterfaceFactory
+    extends AbstractElfSharedLibraryInterfaceFactory {
+  private final ToolProvider objcopy;
+
+  private ElfSharedLibraryInterfaceFactory(ToolProvider objcopy) {
+    this.objcopy = Preconditions.checkNotNull(objcopy, "objcopy");
+  }
+
+  private ElfSharedLibraryInterfaceFactory(ElfSharedLibraryInterfaceFactory original, ToolProvider objcopy) {
+    this.objcopy = objcopy;
+  }
+
+  /**
+   * @return The value of the {@code objcopy} attribute
+   */
+  @Override
+  public ToolProvider getObjcopy() {
+    return objcopy;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractElfSharedLibraryInterfaceFactory#getObjcopy() objcopy} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for objcopy
+   * @return A modified copy of the {@code this} object
+   */
+  public final ElfSharedLibraryInterfaceFactory withObjcopy(ToolProvider value) {
+    if (this.objcopy == value) return this;
+    ToolProvider newValue = Preconditions.checkNotNull(value, "objcopy");
+    return new ElfSharedLibraryInterfaceFactory(this, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ElfSharedLibraryInterfaceFactory} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ElfSharedLibraryInterfaceFactory
+        && equalTo((ElfSharedLibraryInterfaceFactory) another);
+  }
+
+  private boolean equalTo(ElfSharedLibraryInterfaceFactory another) {
+    return objcopy.equals(another.objcopy);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code objcopy}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + objcopy.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ElfSharedLibraryInterfaceFactory} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ElfSharedLibraryInterfaceFactory")
+        .omitNullValues()
+        .add("objcopy", objcopy)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ElfSharedLibraryInterfaceFactory} instance.
+   * @param objcopy The value for the {@code objcopy} attribute
+   * @return An immutable ElfSharedLibraryInterfaceFactory instance
+   */
+  public static ElfSharedLibraryInterfaceFactory of(ToolProvider objcopy) {
+    return new ElfSharedLibraryInterfaceFactory(objcopy);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractElfSharedLibraryInterfaceFactory} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ElfSharedLibraryInterfaceFactory instance
+   */
+  static ElfSharedLibraryInterfaceFactory copyOf(AbstractElfSharedLibraryInterfaceFactory instance) {
+    if (instance instanceof ElfSharedLibraryInterfaceFactory) {
+      return (ElfSharedLibraryInterfaceFactory) instance;
+    }
+    return ElfSharedLibraryInterfaceFactory.of(instance.getObjcopy());
+  }
+}
@@ -0,0 +1,200 @@
+package com.facebook.buck.cxx;
+
+import com.facebook.buck.io.ProjectFilesystem;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Booleans;
+import java.nio.file.Path;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A step which scrubs an ELF symbol table of information relevant to dynamic linking.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractElfSymbolTableScrubberStep"})
+@Immutable
+public final class ElfSymbolTableScrubberStep extends AbstractElfSymbolTableScrubberStep {
+  private final ProjectFilesystem filesystem;
+  private final Path path;
+  private final String section;
+  private final boolean allowMissing;
+
+  private ElfSymbolTableScrubberStep(
+      ProjectFilesystem filesystem,
+      Path path,
+      String section,
+      boolean allowMissing) {
+    this.filesystem = Preconditions.checkNotNull(filesystem, "filesystem");
+    this.path = Preconditions.checkNotNull(path, "path");
+    this.section = Preconditions.checkNotNull(section, "section");
+    this.allowMissing = allowMissing;
+  }
+
+  private ElfSymbolTableScrubberStep(
+      ElfSymbolTableScrubberStep original,
+      ProjectFilesystem filesystem,
+      Path path,
+      String section,
+      boolean allowMissing) {
+    this.filesystem = filesystem;
+    this.path = path;
+    this.section = section;
+    this.allowMissing = allowMissing;
+  }
+
+  /**
+   * @return The value of the {@code filesystem} attribute
+   */
+  @Override
+  public ProjectFilesystem getFilesystem() {
+    return filesystem;
+  }
+
+  /**
+   * @return The value of the {@code path} attribute
+   */
+  @Override
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * @return The value of the {@code section} attribute
+   */
+  @Override
+  public String getSection() {
+    return section;
+  }
+
+  /**
+   * @return The value of the {@code allowMissing} attribute
+   */
+  @Override
+  public boolean isAllowMissing() {
+    return allowMissing;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractElfSymbolTableScrubberStep#getFilesystem() filesystem} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for filesystem
+   * @return A modified copy of the {@code this} object
+   */
+  public final ElfSymbolTableScrubberStep withFilesystem(ProjectFilesystem value) {
+    if (this.filesystem == value) return this;
+    ProjectFilesystem newValue = Preconditions.checkNotNull(value, "filesystem");
+    return new ElfSymbolTableScrubberStep(this, newValue, this.path, this.section, this.allowMissing);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractElfSymbolTableScrubberStep#getPath() path} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for path
+   * @return A modified copy of the {@code this} object
+   */
+  public final ElfSymbolTableScrubberStep withPath(Path value) {
+    if (this.path == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "path");
+    return new ElfSymbolTableScrubberStep(this, this.filesystem, newValue, this.section, this.allowMissing);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractElfSymbolTableScrubberStep#getSection() section} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for section
+   * @return A modified copy of the {@code this} object
+   */
+  public final ElfSymbolTableScrubberStep withSection(String value) {
+    if (this.section.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "section");
+    return new ElfSymbolTableScrubberStep(this, this.filesystem, this.path, newValue, this.allowMissing);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractElfSymbolTableScrubberStep#isAllowMissing() allowMissing} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for allowMissing
+   * @return A modified copy of the {@code this} object
+   */
+  public final ElfSymbolTableScrubberStep withAllowMissing(boolean value) {
+    if (this.allowMissing == value) return this;
+    return new ElfSymbolTableScrubberStep(this, this.filesystem, this.path, this.section, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ElfSymbolTableScrubberStep} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ElfSymbolTableScrubberStep
+        && equalTo((ElfSymbolTableScrubberStep) another);
+  }
+
+  private boolean equalTo(ElfSymbolTableScrubberStep another) {
+    return filesystem.equals(another.filesystem)
+        && path.equals(another.path)
+        && section.equals(another.section)
+        && allowMissing == another.allowMissing;
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code filesystem}, {@code path}, {@code section}, {@code allowMissing}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + filesystem.hashCode();
+    h = h * 17 + path.hashCode();
+    h = h * 17 + section.hashCode();
+    h = h * 17 + Booleans.hashCode(allowMissing);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ElfSymbolTableScrubberStep} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ElfSymbolTableScrubberStep")
+        .omitNullValues()
+        .add("filesystem", filesystem)
+        .add("path", path)
+        .add("section", section)
+        .add("allowMissing", allowMissing)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ElfSymbolTableScrubberStep} instance.
+   * @param filesystem The value for the {@code filesystem} attribute
+   * @param path The value for the {@code path} attribute
+   * @param section The value for the {@code section} attribute
+   * @param allowMissing The value for the {@code allowMissing} attribute
+   * @return An immutable ElfSymbolTableScrubberStep instance
+   */
+  public static ElfSymbolTableScrubberStep of(ProjectFilesystem filesystem, Path path, String section, boolean allowMissing) {
+    return new ElfSymbolTableScrubberStep(filesystem, path, section, allowMissing);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractElfSymbolTableScrubberStep} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ElfSymbolTableScrubberStep instance
+   */
+  static ElfSymbolTableScrubberStep copyOf(AbstractElfSymbolTableScrubberStep instance) {
+    if (instance instanceof ElfSymbolTableScrubberStep) {
+      return (ElfSymbolTableScrubberStep) instance;
+    }
+    return ElfSymbolTableScrubberStep.of(instance.getFilesystem(), instance.getPath(), instance.getSection(), instance.isAllowMissing());
+  }
+}
@@ -0,0 +1,232 @@
+package com.facebook.buck.cxx;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link CxxPreprocessables.CxxPreprocessorInputCacheKey}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code ImmutableCxxPreprocessorInputCacheKey.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code ImmutableCxxPreprocessorInputCacheKey.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "CxxPreprocessables.CxxPreprocessorInputCacheKey"})
+@Immutable
+public final class ImmutableCxxPreprocessorInputCacheKey
+    extends CxxPreprocessables.CxxPreprocessorInputCacheKey {
+  private final CxxPlatform platform;
+  private final HeaderVisibility visibility;
+
+  private ImmutableCxxPreprocessorInputCacheKey(CxxPlatform platform, HeaderVisibility visibility) {
+    this.platform = Preconditions.checkNotNull(platform, "platform");
+    this.visibility = Preconditions.checkNotNull(visibility, "visibility");
+  }
+
+  private ImmutableCxxPreprocessorInputCacheKey(
+      ImmutableCxxPreprocessorInputCacheKey original,
+      CxxPlatform platform,
+      HeaderVisibility visibility) {
+    this.platform = platform;
+    this.visibility = visibility;
+  }
+
+  /**
+   * @return The value of the {@code platform} attribute
+   */
+  @Override
+  public CxxPlatform getPlatform() {
+    return platform;
+  }
+
+  /**
+   * @return The value of the {@code visibility} attribute
+   */
+  @Override
+  public HeaderVisibility getVisibility() {
+    return visibility;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link CxxPreprocessables.CxxPreprocessorInputCacheKey#getPlatform() platform} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for platform
+   * @return A modified copy of the {@code this} object
+   */
+  public final ImmutableCxxPreprocessorInputCacheKey withPlatform(CxxPlatform value) {
+    if (this.platform == value) return this;
+    CxxPlatform newValue = Preconditions.checkNotNull(value, "platform");
+    return new ImmutableCxxPreprocessorInputCacheKey(this, newValue, this.visibility);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link CxxPreprocessables.CxxPreprocessorInputCacheKey#getVisibility() visibility} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for visibility
+   * @return A modified copy of the {@code this} object
+   */
+  public final ImmutableCxxPreprocessorInputCacheKey withVisibility(HeaderVisibility value) {
+    if (this.visibility == value) return this;
+    HeaderVisibility newValue = Preconditions.checkNotNull(value, "visibility");
+    return new ImmutableCxxPreprocessorInputCacheKey(this, this.platform, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ImmutableCxxPreprocessorInputCacheKey} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ImmutableCxxPreprocessorInputCacheKey
+        && equalTo((ImmutableCxxPreprocessorInputCacheKey) another);
+  }
+
+  private boolean equalTo(ImmutableCxxPreprocessorInputCacheKey another) {
+    return platform.equals(another.platform)
+        && visibility.equals(another.visibility);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code platform}, {@code visibility}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + platform.hashCode();
+    h = h * 17 + visibility.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code CxxPreprocessorInputCacheKey} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("CxxPreprocessorInputCacheKey")
+        .omitNullValues()
+        .add("platform", platform)
+        .add("visibility", visibility)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code CxxPreprocessorInputCacheKey} instance.
+   * @param platform The value for the {@code platform} attribute
+   * @param visibility The value for the {@code visibility} attribute
+   * @return An immutable CxxPreprocessorInputCacheKey instance
+   */
+  public static ImmutableCxxPreprocessorInputCacheKey of(CxxPlatform platform, HeaderVisibility visibility) {
+    return new ImmutableCxxPreprocessorInputCacheKey(platform, visibility);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link CxxPreprocessables.CxxPreprocessorInputCacheKey} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable CxxPreprocessorInputCacheKey instance
+   */
+  public static ImmutableCxxPreprocessorInputCacheKey copyOf(CxxPreprocessables.CxxPreprocessorInputCacheKey instance) {
+    if (instance instanceof ImmutableCxxPreprocessorInputCacheKey) {
+      return (ImmutableCxxPreprocessorInputCacheKey) instance;
+    }
+    return ImmutableCxxPreprocessorInputCacheKey.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link ImmutableCxxPreprocessorInputCacheKey ImmutableCxxPreprocessorInputCacheKey}.
+   * @return A new ImmutableCxxPreprocessorInputCacheKey builder
+   */
+  public static ImmutableCxxPreprocessorInputCacheKey.Builder builder() {
+    return new ImmutableCxxPreprocessorInputCacheKey.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link ImmutableCxxPreprocessorInputCacheKey ImmutableCxxPreprocessorInputCacheKey}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_PLATFORM = 0x1L;
+    private static final long INIT_BIT_VISIBILITY = 0x2L;
+    private long initBits = 0x3L;
+
+    private @Nullable CxxPlatform platform;
+    private @Nullable HeaderVisibility visibility;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code CxxPreprocessorInputCacheKey} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(CxxPreprocessables.CxxPreprocessorInputCacheKey instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      platform(instance.getPlatform());
+      visibility(instance.getVisibility());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link CxxPreprocessables.CxxPreprocessorInputCacheKey#getPlatform() platform} attribute.
+     * @param platform The value for platform 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder platform(CxxPlatform platform) {
+      this.platform = Preconditions.checkNotNull(platform, "platform");
+      initBits &= ~INIT_BIT_PLATFORM;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link CxxPreprocessables.CxxPreprocessorInputCacheKey#getVisibility() visibility} attribute.
+     * @param visibility The value for visibility 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder visibility(HeaderVisibility visibility) {
+      this.visibility = Preconditions.checkNotNull(visibility, "visibility");
+      initBits &= ~INIT_BIT_VISIBILITY;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link ImmutableCxxPreprocessorInputCacheKey ImmutableCxxPreprocessorInputCacheKey}.
+     * @return An immutable instance of CxxPreprocessorInputCacheKey
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public ImmutableCxxPreprocessorInputCacheKey build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new ImmutableCxxPreprocessorInputCacheKey(null, platform, visibility);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_PLATFORM) != 0) attributes.add("platform");
+      if ((initBits & INIT_BIT_VISIBILITY) != 0) attributes.add("visibility");
+      return "Cannot build CxxPreprocessorInputCacheKey, some of required attributes are not set " + attributes;
+    }
+  }
+}
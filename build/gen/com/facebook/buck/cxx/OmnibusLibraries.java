@@ -0,0 +1,311 @@
+package com.facebook.buck.cxx;
+
+import com.facebook.buck.model.BuildTarget;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link Omnibus.AbstractOmnibusLibraries}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code OmnibusLibraries.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code OmnibusLibraries.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "Omnibus.AbstractOmnibusLibraries"})
+@Immutable
+public final class OmnibusLibraries extends Omnibus.AbstractOmnibusLibraries {
+  private final ImmutableMap<BuildTarget, OmnibusRoot> roots;
+  private final ImmutableList<OmnibusLibrary> libraries;
+
+  private OmnibusLibraries(
+      Map<? extends BuildTarget, ? extends OmnibusRoot> roots,
+      Iterable<? extends OmnibusLibrary> libraries) {
+    this.roots = ImmutableMap.copyOf(roots);
+    this.libraries = ImmutableList.copyOf(libraries);
+  }
+
+  private OmnibusLibraries(
+      OmnibusLibraries original,
+      ImmutableMap<BuildTarget, OmnibusRoot> roots,
+      ImmutableList<OmnibusLibrary> libraries) {
+    this.roots = roots;
+    this.libraries = libraries;
+  }
+
+  /**
+   * @return The value of the {@code roots} attribute
+   */
+  @Override
+  public ImmutableMap<BuildTarget, OmnibusRoot> getRoots() {
+    return roots;
+  }
+
+  /**
+   * @return The value of the {@code libraries} attribute
+   */
+  @Override
+  public ImmutableList<OmnibusLibrary> getLibraries() {
+    return libraries;
+  }
+
+  /**
+   * Copy the current immutable object by replacing the {@link Omnibus.AbstractOmnibusLibraries#getRoots() roots} map with the specified map.
+   * Nulls are not permitted as keys or values.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param entries The entries to be added to the roots map
+   * @return A modified copy of {@code this} object
+   */
+  public final OmnibusLibraries withRoots(Map<? extends BuildTarget, ? extends OmnibusRoot> entries) {
+    if (this.roots == entries) return this;
+    ImmutableMap<BuildTarget, OmnibusRoot> newValue = ImmutableMap.copyOf(entries);
+    return new OmnibusLibraries(this, newValue, this.libraries);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link Omnibus.AbstractOmnibusLibraries#getLibraries() libraries}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final OmnibusLibraries withLibraries(OmnibusLibrary... elements) {
+    ImmutableList<OmnibusLibrary> newValue = ImmutableList.copyOf(elements);
+    return new OmnibusLibraries(this, this.roots, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link Omnibus.AbstractOmnibusLibraries#getLibraries() libraries}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of libraries elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final OmnibusLibraries withLibraries(Iterable<? extends OmnibusLibrary> elements) {
+    if (this.libraries == elements) return this;
+    ImmutableList<OmnibusLibrary> newValue = ImmutableList.copyOf(elements);
+    return new OmnibusLibraries(this, this.roots, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code OmnibusLibraries} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof OmnibusLibraries
+        && equalTo((OmnibusLibraries) another);
+  }
+
+  private boolean equalTo(OmnibusLibraries another) {
+    return roots.equals(another.roots)
+        && libraries.equals(another.libraries);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code roots}, {@code libraries}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + roots.hashCode();
+    h = h * 17 + libraries.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code OmnibusLibraries} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("OmnibusLibraries")
+        .omitNullValues()
+        .add("roots", roots)
+        .add("libraries", libraries)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code OmnibusLibraries} instance.
+   * @param roots The value for the {@code roots} attribute
+   * @param libraries The value for the {@code libraries} attribute
+   * @return An immutable OmnibusLibraries instance
+   */
+  public static OmnibusLibraries of(ImmutableMap<BuildTarget, OmnibusRoot> roots, ImmutableList<OmnibusLibrary> libraries) {
+    return of(roots, (Iterable<? extends OmnibusLibrary>) libraries);
+  }
+
+  /**
+   * Construct a new immutable {@code OmnibusLibraries} instance.
+   * @param roots The value for the {@code roots} attribute
+   * @param libraries The value for the {@code libraries} attribute
+   * @return An immutable OmnibusLibraries instance
+   */
+  public static OmnibusLibraries of(Map<? extends BuildTarget, ? extends OmnibusRoot> roots, Iterable<? extends OmnibusLibrary> libraries) {
+    return new OmnibusLibraries(roots, libraries);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link Omnibus.AbstractOmnibusLibraries} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable OmnibusLibraries instance
+   */
+  static OmnibusLibraries copyOf(Omnibus.AbstractOmnibusLibraries instance) {
+    if (instance instanceof OmnibusLibraries) {
+      return (OmnibusLibraries) instance;
+    }
+    return OmnibusLibraries.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link OmnibusLibraries OmnibusLibraries}.
+   * @return A new OmnibusLibraries builder
+   */
+  public static OmnibusLibraries.Builder builder() {
+    return new OmnibusLibraries.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link OmnibusLibraries OmnibusLibraries}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private ImmutableMap.Builder<BuildTarget, OmnibusRoot> roots = ImmutableMap.builder();
+    private ImmutableList.Builder<OmnibusLibrary> libraries = ImmutableList.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code OmnibusLibraries} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(OmnibusLibraries instance) {
+      return from((Omnibus.AbstractOmnibusLibraries) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractOmnibusLibraries} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(Omnibus.AbstractOmnibusLibraries instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      putAllRoots(instance.getRoots());
+      addAllLibraries(instance.getLibraries());
+      return this;
+    }
+
+    /**
+     * Put one entry to the {@link Omnibus.AbstractOmnibusLibraries#getRoots() roots} map.
+     * @param key The key in the roots map
+     * @param value The associated value in the roots map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putRoots(BuildTarget key, OmnibusRoot value) {
+      this.roots.put(key, value);
+      return this;
+    }
+
+    /**
+     * Put one entry to the {@link Omnibus.AbstractOmnibusLibraries#getRoots() roots} map. Nulls are not permitted
+     * @param entry The key and value entry
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putRoots(Map.Entry<? extends BuildTarget, ? extends OmnibusRoot> entry) {
+      this.roots.put(entry);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all mappings from the specified map as entries for the {@link Omnibus.AbstractOmnibusLibraries#getRoots() roots} map. Nulls are not permitted
+     * @param roots The entries that will be added to the roots map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRoots(Map<? extends BuildTarget, ? extends OmnibusRoot> roots) {
+      this.roots = ImmutableMap.builder();
+      return putAllRoots(roots);
+    }
+
+    /**
+     * Put all mappings from the specified map as entries to {@link Omnibus.AbstractOmnibusLibraries#getRoots() roots} map. Nulls are not permitted
+     * @param roots The entries that will be added to the roots map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putAllRoots(Map<? extends BuildTarget, ? extends OmnibusRoot> roots) {
+      this.roots.putAll(roots);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link Omnibus.AbstractOmnibusLibraries#getLibraries() libraries} list.
+     * @param element A libraries element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addLibraries(OmnibusLibrary element) {
+      this.libraries.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link Omnibus.AbstractOmnibusLibraries#getLibraries() libraries} list.
+     * @param elements An array of libraries elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addLibraries(OmnibusLibrary... elements) {
+      this.libraries.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link Omnibus.AbstractOmnibusLibraries#getLibraries() libraries} list.
+     * @param elements An iterable of libraries elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setLibraries(Iterable<? extends OmnibusLibrary> elements) {
+      this.libraries = ImmutableList.builder();
+      return addAllLibraries(elements);
+    }
+
+    /**
+     * Adds elements to {@link Omnibus.AbstractOmnibusLibraries#getLibraries() libraries} list.
+     * @param elements An iterable of libraries elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllLibraries(Iterable<? extends OmnibusLibrary> elements) {
+      this.libraries.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link OmnibusLibraries OmnibusLibraries}.
+     * @return An immutable instance of OmnibusLibraries
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public OmnibusLibraries build() {
+      return new OmnibusLibraries(null, roots.build(), libraries.build());
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.facebook.buck.cxx;
+
+import com.facebook.buck.rules.SourcePath;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An {@link Arg} implementation that represents a thin archive.  As opposed to normal archives,
+ * thin archives also need to propagate their inputs as build time deps to consumers, since they
+ * only embed relative paths to the inputs, which need to exist at build time.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractThinArchiveArg"})
+@Immutable
+public final class ThinArchiveArg extends AbstractThinArchiveArg {
+  private final SourcePath path;
+  private final ImmutableList<SourcePath> contents;
+
+  private ThinArchiveArg(
+      SourcePath path,
+      Iterable<? extends SourcePath> contents) {
+    this.path = Preconditions.checkNotNull(path, "path");
+    this.contents = ImmutableList.copyOf(contents);
+  }
+
+  private ThinArchiveArg(
+      ThinArchiveArg original,
+      SourcePath path,
+      ImmutableList<SourcePath> contents) {
+    this.path = path;
+    this.contents = contents;
+  }
+
+  /**
+   * @return The value of the {@code path} attribute
+   */
+  @Override
+  public SourcePath getPath() {
+    return path;
+  }
+
+  /**
+   * @return The value of the {@code contents} attribute
+   */
+  @Override
+  public ImmutableList<SourcePath> getContents() {
+    return contents;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractThinArchiveArg#getPath() path} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for path
+   * @return A modified copy of the {@code this} object
+   */
+  public final ThinArchiveArg withPath(SourcePath value) {
+    if (this.path == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "path");
+    return new ThinArchiveArg(this, newValue, this.contents);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractThinArchiveArg#getContents() contents}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ThinArchiveArg withContents(SourcePath... elements) {
+    ImmutableList<SourcePath> newValue = ImmutableList.copyOf(elements);
+    return new ThinArchiveArg(this, this.path, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractThinArchiveArg#getContents() contents}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of contents elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ThinArchiveArg withContents(Iterable<? extends SourcePath> elements) {
+    if (this.contents == elements) return this;
+    ImmutableList<SourcePath> newValue = ImmutableList.copyOf(elements);
+    return new ThinArchiveArg(this, this.path, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ThinArchiveArg} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ThinArchiveArg
+        && equalTo((ThinArchiveArg) another);
+  }
+
+  private boolean equalTo(ThinArchiveArg another) {
+    return path.equals(another.path)
+        && contents.equals(another.contents);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code path}, {@code contents}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + path.hashCode();
+    h = h * 17 + contents.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ThinArchiveArg} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ThinArchiveArg")
+        .omitNullValues()
+        .add("path", path)
+        .add("contents", contents)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ThinArchiveArg} instance.
+   * @param path The value for the {@code path} attribute
+   * @param contents The value for the {@code contents} attribute
+   * @return An immutable ThinArchiveArg instance
+   */
+  public static ThinArchiveArg of(SourcePath path, ImmutableList<SourcePath> contents) {
+    return of(path, (Iterable<? extends SourcePath>) contents);
+  }
+
+  /**
+   * Construct a new immutable {@code ThinArchiveArg} instance.
+   * @param path The value for the {@code path} attribute
+   * @param contents The value for the {@code contents} attribute
+   * @return An immutable ThinArchiveArg instance
+   */
+  public static ThinArchiveArg of(SourcePath path, Iterable<? extends SourcePath> contents) {
+    return new ThinArchiveArg(path, contents);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractThinArchiveArg} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ThinArchiveArg instance
+   */
+  static ThinArchiveArg copyOf(AbstractThinArchiveArg instance) {
+    if (instance instanceof ThinArchiveArg) {
+      return (ThinArchiveArg) instance;
+    }
+    return ThinArchiveArg.of(instance.getPath(), instance.getContents());
+  }
+}
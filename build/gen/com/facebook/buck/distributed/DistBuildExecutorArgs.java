@@ -0,0 +1,1188 @@
+package com.facebook.buck.distributed;
+
+import com.facebook.buck.artifact_cache.ArtifactCache;
+import com.facebook.buck.distributed.thrift.StampedeId;
+import com.facebook.buck.event.BuckEventBus;
+import com.facebook.buck.parser.Parser;
+import com.facebook.buck.rules.ActionGraphCache;
+import com.facebook.buck.rules.Cell;
+import com.facebook.buck.step.ExecutorPool;
+import com.facebook.buck.timing.Clock;
+import com.facebook.buck.util.Console;
+import com.facebook.buck.util.concurrent.WeightedListeningExecutorService;
+import com.facebook.buck.util.environment.Platform;
+import com.facebook.buck.versions.VersionedTargetGraphCache;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractDistBuildExecutorArgs}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code DistBuildExecutorArgs.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractDistBuildExecutorArgs"})
+@Immutable
+public final class DistBuildExecutorArgs extends AbstractDistBuildExecutorArgs {
+  private final DistBuildState state;
+  private final Cell rootCell;
+  private final Parser parser;
+  private final BuckEventBus buckEventBus;
+  private final WeightedListeningExecutorService executorService;
+  private final ActionGraphCache actionGraphCache;
+  private final int cacheKeySeed;
+  private final Console console;
+  private final ArtifactCache artifactCache;
+  private final Platform platform;
+  private final Clock clock;
+  private final ImmutableMap<ExecutorPool, ListeningExecutorService> executors;
+  private final FileContentsProvider provider;
+  private final DistBuildMode distBuildMode;
+  private final Integer coordinatorPort;
+  private final StampedeId stampedeId;
+  private final VersionedTargetGraphCache versionedTargetGraphCache;
+
+  private DistBuildExecutorArgs(
+      DistBuildState state,
+      Cell rootCell,
+      Parser parser,
+      BuckEventBus buckEventBus,
+      WeightedListeningExecutorService executorService,
+      ActionGraphCache actionGraphCache,
+      int cacheKeySeed,
+      Console console,
+      ArtifactCache artifactCache,
+      Platform platform,
+      Clock clock,
+      ImmutableMap<ExecutorPool, ListeningExecutorService> executors,
+      FileContentsProvider provider,
+      DistBuildMode distBuildMode,
+      Integer coordinatorPort,
+      StampedeId stampedeId,
+      VersionedTargetGraphCache versionedTargetGraphCache) {
+    this.state = state;
+    this.rootCell = rootCell;
+    this.parser = parser;
+    this.buckEventBus = buckEventBus;
+    this.executorService = executorService;
+    this.actionGraphCache = actionGraphCache;
+    this.cacheKeySeed = cacheKeySeed;
+    this.console = console;
+    this.artifactCache = artifactCache;
+    this.platform = platform;
+    this.clock = clock;
+    this.executors = executors;
+    this.provider = provider;
+    this.distBuildMode = distBuildMode;
+    this.coordinatorPort = coordinatorPort;
+    this.stampedeId = stampedeId;
+    this.versionedTargetGraphCache = versionedTargetGraphCache;
+  }
+
+  /**
+   * @return The value of the {@code state} attribute
+   */
+  @Override
+  public DistBuildState getState() {
+    return state;
+  }
+
+  /**
+   * @return The value of the {@code rootCell} attribute
+   */
+  @Override
+  public Cell getRootCell() {
+    return rootCell;
+  }
+
+  /**
+   * @return The value of the {@code parser} attribute
+   */
+  @Override
+  public Parser getParser() {
+    return parser;
+  }
+
+  /**
+   * @return The value of the {@code buckEventBus} attribute
+   */
+  @Override
+  public BuckEventBus getBuckEventBus() {
+    return buckEventBus;
+  }
+
+  /**
+   * @return The value of the {@code executorService} attribute
+   */
+  @Override
+  public WeightedListeningExecutorService getExecutorService() {
+    return executorService;
+  }
+
+  /**
+   * @return The value of the {@code actionGraphCache} attribute
+   */
+  @Override
+  public ActionGraphCache getActionGraphCache() {
+    return actionGraphCache;
+  }
+
+  /**
+   * @return The value of the {@code cacheKeySeed} attribute
+   */
+  @Override
+  public int getCacheKeySeed() {
+    return cacheKeySeed;
+  }
+
+  /**
+   * @return The value of the {@code console} attribute
+   */
+  @Override
+  public Console getConsole() {
+    return console;
+  }
+
+  /**
+   * @return The value of the {@code artifactCache} attribute
+   */
+  @Override
+  public ArtifactCache getArtifactCache() {
+    return artifactCache;
+  }
+
+  /**
+   * @return The value of the {@code platform} attribute
+   */
+  @Override
+  public Platform getPlatform() {
+    return platform;
+  }
+
+  /**
+   * @return The value of the {@code clock} attribute
+   */
+  @Override
+  public Clock getClock() {
+    return clock;
+  }
+
+  /**
+   * @return The value of the {@code executors} attribute
+   */
+  @Override
+  public ImmutableMap<ExecutorPool, ListeningExecutorService> getExecutors() {
+    return executors;
+  }
+
+  /**
+   * @return The value of the {@code provider} attribute
+   */
+  @Override
+  public FileContentsProvider getProvider() {
+    return provider;
+  }
+
+  /**
+   * @return The value of the {@code distBuildMode} attribute
+   */
+  @Override
+  public DistBuildMode getDistBuildMode() {
+    return distBuildMode;
+  }
+
+  /**
+   * @return The value of the {@code coordinatorPort} attribute
+   */
+  @Override
+  public Integer getCoordinatorPort() {
+    return coordinatorPort;
+  }
+
+  /**
+   * @return The value of the {@code stampedeId} attribute
+   */
+  @Override
+  public StampedeId getStampedeId() {
+    return stampedeId;
+  }
+
+  /**
+   * @return The value of the {@code versionedTargetGraphCache} attribute
+   */
+  @Override
+  public VersionedTargetGraphCache getVersionedTargetGraphCache() {
+    return versionedTargetGraphCache;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getState() state} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for state
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withState(DistBuildState value) {
+    if (this.state == value) return this;
+    DistBuildState newValue = Preconditions.checkNotNull(value, "state");
+    return new DistBuildExecutorArgs(
+        newValue,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getRootCell() rootCell} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for rootCell
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withRootCell(Cell value) {
+    if (this.rootCell == value) return this;
+    Cell newValue = Preconditions.checkNotNull(value, "rootCell");
+    return new DistBuildExecutorArgs(
+        this.state,
+        newValue,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getParser() parser} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for parser
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withParser(Parser value) {
+    if (this.parser == value) return this;
+    Parser newValue = Preconditions.checkNotNull(value, "parser");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        newValue,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getBuckEventBus() buckEventBus} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for buckEventBus
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withBuckEventBus(BuckEventBus value) {
+    if (this.buckEventBus == value) return this;
+    BuckEventBus newValue = Preconditions.checkNotNull(value, "buckEventBus");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        newValue,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getExecutorService() executorService} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for executorService
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withExecutorService(WeightedListeningExecutorService value) {
+    if (this.executorService == value) return this;
+    WeightedListeningExecutorService newValue = Preconditions.checkNotNull(value, "executorService");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        newValue,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getActionGraphCache() actionGraphCache} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for actionGraphCache
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withActionGraphCache(ActionGraphCache value) {
+    if (this.actionGraphCache == value) return this;
+    ActionGraphCache newValue = Preconditions.checkNotNull(value, "actionGraphCache");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        newValue,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getCacheKeySeed() cacheKeySeed} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for cacheKeySeed
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withCacheKeySeed(int value) {
+    if (this.cacheKeySeed == value) return this;
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        value,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getConsole() console} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for console
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withConsole(Console value) {
+    if (this.console == value) return this;
+    Console newValue = Preconditions.checkNotNull(value, "console");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        newValue,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getArtifactCache() artifactCache} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for artifactCache
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withArtifactCache(ArtifactCache value) {
+    if (this.artifactCache == value) return this;
+    ArtifactCache newValue = Preconditions.checkNotNull(value, "artifactCache");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        newValue,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getPlatform() platform} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for platform
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withPlatform(Platform value) {
+    if (this.platform == value) return this;
+    Platform newValue = Preconditions.checkNotNull(value, "platform");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        newValue,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getClock() clock} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for clock
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withClock(Clock value) {
+    if (this.clock == value) return this;
+    Clock newValue = Preconditions.checkNotNull(value, "clock");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        newValue,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by replacing the {@link AbstractDistBuildExecutorArgs#getExecutors() executors} map with the specified map.
+   * Nulls are not permitted as keys or values.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param entries The entries to be added to the executors map
+   * @return A modified copy of {@code this} object
+   */
+  public final DistBuildExecutorArgs withExecutors(Map<ExecutorPool, ? extends ListeningExecutorService> entries) {
+    if (this.executors == entries) return this;
+    ImmutableMap<ExecutorPool, ListeningExecutorService> newValue = Maps.immutableEnumMap(entries);
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        newValue,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getProvider() provider} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for provider
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withProvider(FileContentsProvider value) {
+    if (this.provider == value) return this;
+    FileContentsProvider newValue = Preconditions.checkNotNull(value, "provider");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        newValue,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getDistBuildMode() distBuildMode} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for distBuildMode
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withDistBuildMode(DistBuildMode value) {
+    if (this.distBuildMode == value) return this;
+    DistBuildMode newValue = Preconditions.checkNotNull(value, "distBuildMode");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        newValue,
+        this.coordinatorPort,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getCoordinatorPort() coordinatorPort} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for coordinatorPort
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withCoordinatorPort(Integer value) {
+    if (this.coordinatorPort.equals(value)) return this;
+    Integer newValue = Preconditions.checkNotNull(value, "coordinatorPort");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        newValue,
+        this.stampedeId,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getStampedeId() stampedeId} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for stampedeId
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withStampedeId(StampedeId value) {
+    if (this.stampedeId == value) return this;
+    StampedeId newValue = Preconditions.checkNotNull(value, "stampedeId");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        newValue,
+        this.versionedTargetGraphCache);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDistBuildExecutorArgs#getVersionedTargetGraphCache() versionedTargetGraphCache} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for versionedTargetGraphCache
+   * @return A modified copy of the {@code this} object
+   */
+  public final DistBuildExecutorArgs withVersionedTargetGraphCache(VersionedTargetGraphCache value) {
+    if (this.versionedTargetGraphCache == value) return this;
+    VersionedTargetGraphCache newValue = Preconditions.checkNotNull(value, "versionedTargetGraphCache");
+    return new DistBuildExecutorArgs(
+        this.state,
+        this.rootCell,
+        this.parser,
+        this.buckEventBus,
+        this.executorService,
+        this.actionGraphCache,
+        this.cacheKeySeed,
+        this.console,
+        this.artifactCache,
+        this.platform,
+        this.clock,
+        this.executors,
+        this.provider,
+        this.distBuildMode,
+        this.coordinatorPort,
+        this.stampedeId,
+        newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code DistBuildExecutorArgs} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof DistBuildExecutorArgs
+        && equalTo((DistBuildExecutorArgs) another);
+  }
+
+  private boolean equalTo(DistBuildExecutorArgs another) {
+    return state.equals(another.state)
+        && rootCell.equals(another.rootCell)
+        && parser.equals(another.parser)
+        && buckEventBus.equals(another.buckEventBus)
+        && executorService.equals(another.executorService)
+        && actionGraphCache.equals(another.actionGraphCache)
+        && cacheKeySeed == another.cacheKeySeed
+        && console.equals(another.console)
+        && artifactCache.equals(another.artifactCache)
+        && platform.equals(another.platform)
+        && clock.equals(another.clock)
+        && executors.equals(another.executors)
+        && provider.equals(another.provider)
+        && distBuildMode.equals(another.distBuildMode)
+        && coordinatorPort.equals(another.coordinatorPort)
+        && stampedeId.equals(another.stampedeId)
+        && versionedTargetGraphCache.equals(another.versionedTargetGraphCache);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code state}, {@code rootCell}, {@code parser}, {@code buckEventBus}, {@code executorService}, {@code actionGraphCache}, {@code cacheKeySeed}, {@code console}, {@code artifactCache}, {@code platform}, {@code clock}, {@code executors}, {@code provider}, {@code distBuildMode}, {@code coordinatorPort}, {@code stampedeId}, {@code versionedTargetGraphCache}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + state.hashCode();
+    h = h * 17 + rootCell.hashCode();
+    h = h * 17 + parser.hashCode();
+    h = h * 17 + buckEventBus.hashCode();
+    h = h * 17 + executorService.hashCode();
+    h = h * 17 + actionGraphCache.hashCode();
+    h = h * 17 + cacheKeySeed;
+    h = h * 17 + console.hashCode();
+    h = h * 17 + artifactCache.hashCode();
+    h = h * 17 + platform.hashCode();
+    h = h * 17 + clock.hashCode();
+    h = h * 17 + executors.hashCode();
+    h = h * 17 + provider.hashCode();
+    h = h * 17 + distBuildMode.hashCode();
+    h = h * 17 + coordinatorPort.hashCode();
+    h = h * 17 + stampedeId.hashCode();
+    h = h * 17 + versionedTargetGraphCache.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code DistBuildExecutorArgs} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("DistBuildExecutorArgs")
+        .omitNullValues()
+        .add("state", state)
+        .add("rootCell", rootCell)
+        .add("parser", parser)
+        .add("buckEventBus", buckEventBus)
+        .add("executorService", executorService)
+        .add("actionGraphCache", actionGraphCache)
+        .add("cacheKeySeed", cacheKeySeed)
+        .add("console", console)
+        .add("artifactCache", artifactCache)
+        .add("platform", platform)
+        .add("clock", clock)
+        .add("executors", executors)
+        .add("provider", provider)
+        .add("distBuildMode", distBuildMode)
+        .add("coordinatorPort", coordinatorPort)
+        .add("stampedeId", stampedeId)
+        .add("versionedTargetGraphCache", versionedTargetGraphCache)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractDistBuildExecutorArgs} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable DistBuildExecutorArgs instance
+   */
+  static DistBuildExecutorArgs copyOf(AbstractDistBuildExecutorArgs instance) {
+    if (instance instanceof DistBuildExecutorArgs) {
+      return (DistBuildExecutorArgs) instance;
+    }
+    return DistBuildExecutorArgs.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link DistBuildExecutorArgs DistBuildExecutorArgs}.
+   * @return A new DistBuildExecutorArgs builder
+   */
+  public static DistBuildExecutorArgs.Builder builder() {
+    return new DistBuildExecutorArgs.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link DistBuildExecutorArgs DistBuildExecutorArgs}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_STATE = 0x1L;
+    private static final long INIT_BIT_ROOT_CELL = 0x2L;
+    private static final long INIT_BIT_PARSER = 0x4L;
+    private static final long INIT_BIT_BUCK_EVENT_BUS = 0x8L;
+    private static final long INIT_BIT_EXECUTOR_SERVICE = 0x10L;
+    private static final long INIT_BIT_ACTION_GRAPH_CACHE = 0x20L;
+    private static final long INIT_BIT_CACHE_KEY_SEED = 0x40L;
+    private static final long INIT_BIT_CONSOLE = 0x80L;
+    private static final long INIT_BIT_ARTIFACT_CACHE = 0x100L;
+    private static final long INIT_BIT_PLATFORM = 0x200L;
+    private static final long INIT_BIT_CLOCK = 0x400L;
+    private static final long INIT_BIT_PROVIDER = 0x800L;
+    private static final long INIT_BIT_DIST_BUILD_MODE = 0x1000L;
+    private static final long INIT_BIT_COORDINATOR_PORT = 0x2000L;
+    private static final long INIT_BIT_STAMPEDE_ID = 0x4000L;
+    private static final long INIT_BIT_VERSIONED_TARGET_GRAPH_CACHE = 0x8000L;
+    private long initBits = 0xffffL;
+
+    private @Nullable DistBuildState state;
+    private @Nullable Cell rootCell;
+    private @Nullable Parser parser;
+    private @Nullable BuckEventBus buckEventBus;
+    private @Nullable WeightedListeningExecutorService executorService;
+    private @Nullable ActionGraphCache actionGraphCache;
+    private int cacheKeySeed;
+    private @Nullable Console console;
+    private @Nullable ArtifactCache artifactCache;
+    private @Nullable Platform platform;
+    private @Nullable Clock clock;
+    private ImmutableMap.Builder<ExecutorPool, ListeningExecutorService> executors = ImmutableMap.builder();
+    private @Nullable FileContentsProvider provider;
+    private @Nullable DistBuildMode distBuildMode;
+    private @Nullable Integer coordinatorPort;
+    private @Nullable StampedeId stampedeId;
+    private @Nullable VersionedTargetGraphCache versionedTargetGraphCache;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code DistBuildExecutorArgs} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(DistBuildExecutorArgs instance) {
+      return from((AbstractDistBuildExecutorArgs) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractDistBuildExecutorArgs} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractDistBuildExecutorArgs instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setState(instance.getState());
+      setRootCell(instance.getRootCell());
+      setParser(instance.getParser());
+      setBuckEventBus(instance.getBuckEventBus());
+      setExecutorService(instance.getExecutorService());
+      setActionGraphCache(instance.getActionGraphCache());
+      setCacheKeySeed(instance.getCacheKeySeed());
+      setConsole(instance.getConsole());
+      setArtifactCache(instance.getArtifactCache());
+      setPlatform(instance.getPlatform());
+      setClock(instance.getClock());
+      putAllExecutors(instance.getExecutors());
+      setProvider(instance.getProvider());
+      setDistBuildMode(instance.getDistBuildMode());
+      setCoordinatorPort(instance.getCoordinatorPort());
+      setStampedeId(instance.getStampedeId());
+      setVersionedTargetGraphCache(instance.getVersionedTargetGraphCache());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getState() state} attribute.
+     * @param state The value for state 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setState(DistBuildState state) {
+      this.state = Preconditions.checkNotNull(state, "state");
+      initBits &= ~INIT_BIT_STATE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getRootCell() rootCell} attribute.
+     * @param rootCell The value for rootCell 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRootCell(Cell rootCell) {
+      this.rootCell = Preconditions.checkNotNull(rootCell, "rootCell");
+      initBits &= ~INIT_BIT_ROOT_CELL;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getParser() parser} attribute.
+     * @param parser The value for parser 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setParser(Parser parser) {
+      this.parser = Preconditions.checkNotNull(parser, "parser");
+      initBits &= ~INIT_BIT_PARSER;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getBuckEventBus() buckEventBus} attribute.
+     * @param buckEventBus The value for buckEventBus 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setBuckEventBus(BuckEventBus buckEventBus) {
+      this.buckEventBus = Preconditions.checkNotNull(buckEventBus, "buckEventBus");
+      initBits &= ~INIT_BIT_BUCK_EVENT_BUS;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getExecutorService() executorService} attribute.
+     * @param executorService The value for executorService 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setExecutorService(WeightedListeningExecutorService executorService) {
+      this.executorService = Preconditions.checkNotNull(executorService, "executorService");
+      initBits &= ~INIT_BIT_EXECUTOR_SERVICE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getActionGraphCache() actionGraphCache} attribute.
+     * @param actionGraphCache The value for actionGraphCache 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setActionGraphCache(ActionGraphCache actionGraphCache) {
+      this.actionGraphCache = Preconditions.checkNotNull(actionGraphCache, "actionGraphCache");
+      initBits &= ~INIT_BIT_ACTION_GRAPH_CACHE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getCacheKeySeed() cacheKeySeed} attribute.
+     * @param cacheKeySeed The value for cacheKeySeed 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setCacheKeySeed(int cacheKeySeed) {
+      this.cacheKeySeed = cacheKeySeed;
+      initBits &= ~INIT_BIT_CACHE_KEY_SEED;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getConsole() console} attribute.
+     * @param console The value for console 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setConsole(Console console) {
+      this.console = Preconditions.checkNotNull(console, "console");
+      initBits &= ~INIT_BIT_CONSOLE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getArtifactCache() artifactCache} attribute.
+     * @param artifactCache The value for artifactCache 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setArtifactCache(ArtifactCache artifactCache) {
+      this.artifactCache = Preconditions.checkNotNull(artifactCache, "artifactCache");
+      initBits &= ~INIT_BIT_ARTIFACT_CACHE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getPlatform() platform} attribute.
+     * @param platform The value for platform 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPlatform(Platform platform) {
+      this.platform = Preconditions.checkNotNull(platform, "platform");
+      initBits &= ~INIT_BIT_PLATFORM;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getClock() clock} attribute.
+     * @param clock The value for clock 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setClock(Clock clock) {
+      this.clock = Preconditions.checkNotNull(clock, "clock");
+      initBits &= ~INIT_BIT_CLOCK;
+      return this;
+    }
+
+    /**
+     * Put one entry to the {@link AbstractDistBuildExecutorArgs#getExecutors() executors} map.
+     * @param key The key in the executors map
+     * @param value The associated value in the executors map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putExecutors(ExecutorPool key, ListeningExecutorService value) {
+      this.executors.put(key, value);
+      return this;
+    }
+
+    /**
+     * Put one entry to the {@link AbstractDistBuildExecutorArgs#getExecutors() executors} map. Nulls are not permitted
+     * @param entry The key and value entry
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putExecutors(Map.Entry<ExecutorPool, ? extends ListeningExecutorService> entry) {
+      this.executors.put(entry);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all mappings from the specified map as entries for the {@link AbstractDistBuildExecutorArgs#getExecutors() executors} map. Nulls are not permitted
+     * @param executors The entries that will be added to the executors map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setExecutors(Map<ExecutorPool, ? extends ListeningExecutorService> executors) {
+      this.executors = ImmutableMap.builder();
+      return putAllExecutors(executors);
+    }
+
+    /**
+     * Put all mappings from the specified map as entries to {@link AbstractDistBuildExecutorArgs#getExecutors() executors} map. Nulls are not permitted
+     * @param executors The entries that will be added to the executors map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putAllExecutors(Map<ExecutorPool, ? extends ListeningExecutorService> executors) {
+      this.executors.putAll(executors);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getProvider() provider} attribute.
+     * @param provider The value for provider 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setProvider(FileContentsProvider provider) {
+      this.provider = Preconditions.checkNotNull(provider, "provider");
+      initBits &= ~INIT_BIT_PROVIDER;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getDistBuildMode() distBuildMode} attribute.
+     * @param distBuildMode The value for distBuildMode 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setDistBuildMode(DistBuildMode distBuildMode) {
+      this.distBuildMode = Preconditions.checkNotNull(distBuildMode, "distBuildMode");
+      initBits &= ~INIT_BIT_DIST_BUILD_MODE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getCoordinatorPort() coordinatorPort} attribute.
+     * @param coordinatorPort The value for coordinatorPort 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setCoordinatorPort(Integer coordinatorPort) {
+      this.coordinatorPort = Preconditions.checkNotNull(coordinatorPort, "coordinatorPort");
+      initBits &= ~INIT_BIT_COORDINATOR_PORT;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getStampedeId() stampedeId} attribute.
+     * @param stampedeId The value for stampedeId 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setStampedeId(StampedeId stampedeId) {
+      this.stampedeId = Preconditions.checkNotNull(stampedeId, "stampedeId");
+      initBits &= ~INIT_BIT_STAMPEDE_ID;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDistBuildExecutorArgs#getVersionedTargetGraphCache() versionedTargetGraphCache} attribute.
+     * @param versionedTargetGraphCache The value for versionedTargetGraphCache 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setVersionedTargetGraphCache(VersionedTargetGraphCache versionedTargetGraphCache) {
+      this.versionedTargetGraphCache = Preconditions.checkNotNull(versionedTargetGraphCache, "versionedTargetGraphCache");
+      initBits &= ~INIT_BIT_VERSIONED_TARGET_GRAPH_CACHE;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link DistBuildExecutorArgs DistBuildExecutorArgs}.
+     * @return An immutable instance of DistBuildExecutorArgs
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public DistBuildExecutorArgs build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new DistBuildExecutorArgs(
+          state,
+          rootCell,
+          parser,
+          buckEventBus,
+          executorService,
+          actionGraphCache,
+          cacheKeySeed,
+          console,
+          artifactCache,
+          platform,
+          clock,
+          Maps.immutableEnumMap(executors.build()),
+          provider,
+          distBuildMode,
+          coordinatorPort,
+          stampedeId,
+          versionedTargetGraphCache);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_STATE) != 0) attributes.add("state");
+      if ((initBits & INIT_BIT_ROOT_CELL) != 0) attributes.add("rootCell");
+      if ((initBits & INIT_BIT_PARSER) != 0) attributes.add("parser");
+      if ((initBits & INIT_BIT_BUCK_EVENT_BUS) != 0) attributes.add("buckEventBus");
+      if ((initBits & INIT_BIT_EXECUTOR_SERVICE) != 0) attributes.add("executorService");
+      if ((initBits & INIT_BIT_ACTION_GRAPH_CACHE) != 0) attributes.add("actionGraphCache");
+      if ((initBits & INIT_BIT_CACHE_KEY_SEED) != 0) attributes.add("cacheKeySeed");
+      if ((initBits & INIT_BIT_CONSOLE) != 0) attributes.add("console");
+      if ((initBits & INIT_BIT_ARTIFACT_CACHE) != 0) attributes.add("artifactCache");
+      if ((initBits & INIT_BIT_PLATFORM) != 0) attributes.add("platform");
+      if ((initBits & INIT_BIT_CLOCK) != 0) attributes.add("clock");
+      if ((initBits & INIT_BIT_PROVIDER) != 0) attributes.add("provider");
+      if ((initBits & INIT_BIT_DIST_BUILD_MODE) != 0) attributes.add("distBuildMode");
+      if ((initBits & INIT_BIT_COORDINATOR_PORT) != 0) attributes.add("coordinatorPort");
+      if ((initBits & INIT_BIT_STAMPEDE_ID) != 0) attributes.add("stampedeId");
+      if ((initBits & INIT_BIT_VERSIONED_TARGET_GRAPH_CACHE) != 0) attributes.add("versionedTargetGraphCache");
+      return "Cannot build DistBuildExecutorArgs, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,351 @@
+package com.facebook.buck.doctor.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractDoctorEndpointResponse}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code DoctorEndpointResponse.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code DoctorEndpointResponse.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractDoctorEndpointResponse"})
+@Immutable
+public final class DoctorEndpointResponse
+    extends AbstractDoctorEndpointResponse {
+  private final @Nullable String errorMessage;
+  private final ImmutableList<DoctorSuggestion> suggestions;
+
+  private DoctorEndpointResponse(Optional<String> errorMessage, Iterable<? extends DoctorSuggestion> suggestions) {
+    this.errorMessage = errorMessage.orElse(null);
+    this.suggestions = ImmutableList.copyOf(suggestions);
+  }
+
+  private DoctorEndpointResponse(
+      DoctorEndpointResponse original,
+      @Nullable String errorMessage,
+      ImmutableList<DoctorSuggestion> suggestions) {
+    this.errorMessage = errorMessage;
+    this.suggestions = suggestions;
+  }
+
+  /**
+   * @return The value of the {@code errorMessage} attribute
+   */
+  @JsonProperty
+  @Override
+  public Optional<String> getErrorMessage() {
+    return Optional.ofNullable(errorMessage);
+  }
+
+  /**
+   * @return The value of the {@code suggestions} attribute
+   */
+  @JsonProperty
+  @Override
+  public ImmutableList<DoctorSuggestion> getSuggestions() {
+    return suggestions;
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractDoctorEndpointResponse#getErrorMessage() errorMessage} attribute.
+   * @param value The value for errorMessage
+   * @return A modified copy of {@code this} object
+   */
+  public final DoctorEndpointResponse withErrorMessage(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "errorMessage");
+    if (Objects.equal(this.errorMessage, newValue)) return this;
+    return new DoctorEndpointResponse(this, newValue, this.suggestions);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractDoctorEndpointResponse#getErrorMessage() errorMessage} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for errorMessage
+   * @return A modified copy of {@code this} object
+   */
+  public final DoctorEndpointResponse withErrorMessage(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.errorMessage, value)) return this;
+    return new DoctorEndpointResponse(this, value, this.suggestions);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractDoctorEndpointResponse#getSuggestions() suggestions}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final DoctorEndpointResponse withSuggestions(DoctorSuggestion... elements) {
+    ImmutableList<DoctorSuggestion> newValue = ImmutableList.copyOf(elements);
+    return new DoctorEndpointResponse(this, this.errorMessage, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractDoctorEndpointResponse#getSuggestions() suggestions}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of suggestions elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final DoctorEndpointResponse withSuggestions(Iterable<? extends DoctorSuggestion> elements) {
+    if (this.suggestions == elements) return this;
+    ImmutableList<DoctorSuggestion> newValue = ImmutableList.copyOf(elements);
+    return new DoctorEndpointResponse(this, this.errorMessage, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code DoctorEndpointResponse} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof DoctorEndpointResponse
+        && equalTo((DoctorEndpointResponse) another);
+  }
+
+  private boolean equalTo(DoctorEndpointResponse another) {
+    return Objects.equal(errorMessage, another.errorMessage)
+        && suggestions.equals(another.suggestions);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code errorMessage}, {@code suggestions}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + Objects.hashCode(errorMessage);
+    h = h * 17 + suggestions.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code DoctorEndpointResponse} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("DoctorEndpointResponse")
+        .omitNullValues()
+        .add("errorMessage", errorMessage)
+        .add("suggestions", suggestions)
+        .toString();
+  }
+
+  /**
+   * Utility type used to correctly read immutable object from JSON representation.
+   * @deprecated Do not use this type directly, it exists only for the <em>Jackson</em>-binding infrastructure
+   */
+  @Deprecated
+  @JsonDeserialize
+  @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.NONE)
+  static final class Json extends AbstractDoctorEndpointResponse {
+    Optional<String> errorMessage = Optional.empty();
+    ImmutableList<DoctorSuggestion> suggestions = ImmutableList.of();
+    @JsonProperty
+    public void setErrorMessage(Optional<String> errorMessage) {
+      this.errorMessage = errorMessage;
+    }
+    @JsonProperty
+    public void setSuggestions(ImmutableList<DoctorSuggestion> suggestions) {
+      this.suggestions = suggestions;
+    }
+    @Override
+    public Optional<String> getErrorMessage() { throw new UnsupportedOperationException(); }
+    @Override
+    public ImmutableList<DoctorSuggestion> getSuggestions() { throw new UnsupportedOperationException(); }
+  }
+
+  /**
+   * @param json A JSON-bindable data structure
+   * @return An immutable value type
+   * @deprecated Do not use this method directly, it exists only for the <em>Jackson</em>-binding infrastructure
+   */
+  @Deprecated
+  @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+  static DoctorEndpointResponse fromJson(Json json) {
+    DoctorEndpointResponse.Builder builder = DoctorEndpointResponse.builder();
+    if (json.errorMessage != null) {
+      builder.setErrorMessage(json.errorMessage);
+    }
+    if (json.suggestions != null) {
+      builder.addAllSuggestions(json.suggestions);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Construct a new immutable {@code DoctorEndpointResponse} instance.
+   * @param errorMessage The value for the {@code errorMessage} attribute
+   * @param suggestions The value for the {@code suggestions} attribute
+   * @return An immutable DoctorEndpointResponse instance
+   */
+  public static DoctorEndpointResponse of(Optional<String> errorMessage, ImmutableList<DoctorSuggestion> suggestions) {
+    return of(errorMessage, (Iterable<? extends DoctorSuggestion>) suggestions);
+  }
+
+  /**
+   * Construct a new immutable {@code DoctorEndpointResponse} instance.
+   * @param errorMessage The value for the {@code errorMessage} attribute
+   * @param suggestions The value for the {@code suggestions} attribute
+   * @return An immutable DoctorEndpointResponse instance
+   */
+  public static DoctorEndpointResponse of(Optional<String> errorMessage, Iterable<? extends DoctorSuggestion> suggestions) {
+    return new DoctorEndpointResponse(errorMessage, suggestions);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractDoctorEndpointResponse} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable DoctorEndpointResponse instance
+   */
+  static DoctorEndpointResponse copyOf(AbstractDoctorEndpointResponse instance) {
+    if (instance instanceof DoctorEndpointResponse) {
+      return (DoctorEndpointResponse) instance;
+    }
+    return DoctorEndpointResponse.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link DoctorEndpointResponse DoctorEndpointResponse}.
+   * @return A new DoctorEndpointResponse builder
+   */
+  public static DoctorEndpointResponse.Builder builder() {
+    return new DoctorEndpointResponse.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link DoctorEndpointResponse DoctorEndpointResponse}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private @Nullable String errorMessage;
+    private ImmutableList.Builder<DoctorSuggestion> suggestions = ImmutableList.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code DoctorEndpointResponse} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(DoctorEndpointResponse instance) {
+      return from((AbstractDoctorEndpointResponse) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractDoctorEndpointResponse} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractDoctorEndpointResponse instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      Optional<String> errorMessageOptional = instance.getErrorMessage();
+      if (errorMessageOptional.isPresent()) {
+        setErrorMessage(errorMessageOptional);
+      }
+      addAllSuggestions(instance.getSuggestions());
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractDoctorEndpointResponse#getErrorMessage() errorMessage} to errorMessage.
+     * @param errorMessage The value for errorMessage
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setErrorMessage(String errorMessage) {
+      this.errorMessage = Preconditions.checkNotNull(errorMessage, "errorMessage");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractDoctorEndpointResponse#getErrorMessage() errorMessage} to errorMessage.
+     * @param errorMessage The value for errorMessage
+     * @return {@code this} builder for use in a chained invocation
+     */
+    @JsonProperty
+    public final Builder setErrorMessage(Optional<String> errorMessage) {
+      this.errorMessage = errorMessage.orElse(null);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractDoctorEndpointResponse#getSuggestions() suggestions} list.
+     * @param element A suggestions element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSuggestions(DoctorSuggestion element) {
+      this.suggestions.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractDoctorEndpointResponse#getSuggestions() suggestions} list.
+     * @param elements An array of suggestions elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSuggestions(DoctorSuggestion... elements) {
+      this.suggestions.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractDoctorEndpointResponse#getSuggestions() suggestions} list.
+     * @param elements An iterable of suggestions elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    @JsonProperty
+    public final Builder setSuggestions(Iterable<? extends DoctorSuggestion> elements) {
+      this.suggestions = ImmutableList.builder();
+      return addAllSuggestions(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractDoctorEndpointResponse#getSuggestions() suggestions} list.
+     * @param elements An iterable of suggestions elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllSuggestions(Iterable<? extends DoctorSuggestion> elements) {
+      this.suggestions.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link DoctorEndpointResponse DoctorEndpointResponse}.
+     * @return An immutable instance of DoctorEndpointResponse
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public DoctorEndpointResponse build() {
+      return new DoctorEndpointResponse(null, errorMessage, suggestions.build());
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package com.facebook.buck.haskell;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Identifying information for a {@link HaskellPackage}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractHaskellPackageInfo"})
+@Immutable
+public final class HaskellPackageInfo extends AbstractHaskellPackageInfo {
+  private final String name;
+  private final String version;
+  private final String identifier;
+
+  private HaskellPackageInfo(String name, String version, String identifier) {
+    this.name = Preconditions.checkNotNull(name, "name");
+    this.version = Preconditions.checkNotNull(version, "version");
+    this.identifier = Preconditions.checkNotNull(identifier, "identifier");
+  }
+
+  private HaskellPackageInfo(
+      HaskellPackageInfo original,
+      String name,
+      String version,
+      String identifier) {
+    this.name = name;
+    this.version = version;
+    this.identifier = identifier;
+  }
+
+  /**
+   * @return The value of the {@code name} attribute
+   */
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The value of the {@code version} attribute
+   */
+  @Override
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * @return The value of the {@code identifier} attribute
+   */
+  @Override
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractHaskellPackageInfo#getName() name} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for name
+   * @return A modified copy of the {@code this} object
+   */
+  public final HaskellPackageInfo withName(String value) {
+    if (this.name.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "name");
+    return new HaskellPackageInfo(this, newValue, this.version, this.identifier);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractHaskellPackageInfo#getVersion() version} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for version
+   * @return A modified copy of the {@code this} object
+   */
+  public final HaskellPackageInfo withVersion(String value) {
+    if (this.version.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "version");
+    return new HaskellPackageInfo(this, this.name, newValue, this.identifier);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractHaskellPackageInfo#getIdentifier() identifier} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for identifier
+   * @return A modified copy of the {@code this} object
+   */
+  public final HaskellPackageInfo withIdentifier(String value) {
+    if (this.identifier.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "identifier");
+    return new HaskellPackageInfo(this, this.name, this.version, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code HaskellPackageInfo} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof HaskellPackageInfo
+        && equalTo((HaskellPackageInfo) another);
+  }
+
+  private boolean equalTo(HaskellPackageInfo another) {
+    return name.equals(another.name)
+        && version.equals(another.version)
+        && identifier.equals(another.identifier);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code name}, {@code version}, {@code identifier}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + name.hashCode();
+    h = h * 17 + version.hashCode();
+    h = h * 17 + identifier.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code HaskellPackageInfo} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("HaskellPackageInfo")
+        .omitNullValues()
+        .add("name", name)
+        .add("version", version)
+        .add("identifier", identifier)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code HaskellPackageInfo} instance.
+   * @param name The value for the {@code name} attribute
+   * @param version The value for the {@code version} attribute
+   * @param identifier The value for the {@code identifier} attribute
+   * @return An immutable HaskellPackageInfo instance
+   */
+  public static HaskellPackageInfo of(String name, String version, String identifier) {
+    return new HaskellPackageInfo(name, version, identifier);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractHaskellPackageInfo} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable HaskellPackageInfo instance
+   */
+  static HaskellPackageInfo copyOf(AbstractHaskellPackageInfo instance) {
+    if (instance instanceof HaskellPackageInfo) {
+      return (HaskellPackageInfo) instance;
+    }
+    return HaskellPackageInfo.of(instance.getName(), instance.getVersion(), instance.getIdentifier());
+  }
+}
@@ -0,0 +1,264 @@
+package com.facebook.buck.ide.intellij;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Booleans;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link IjDependencyListBuilder.AbstractDependencyEntryData}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code DependencyEntryData.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "IjDependencyListBuilder.AbstractDependencyEntryData"})
+@Immutable
+public final class DependencyEntryData
+    extends IjDependencyListBuilder.AbstractDependencyEntryData {
+  private final String name;
+  private final IjDependencyListBuilder.Scope scope;
+  private final boolean exported;
+
+  private DependencyEntryData(
+      String name,
+      IjDependencyListBuilder.Scope scope,
+      boolean exported) {
+    this.name = name;
+    this.scope = scope;
+    this.exported = exported;
+  }
+
+  /**
+   * @return The value of the {@code name} attribute
+   */
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The value of the {@code scope} attribute
+   */
+  @Override
+  public IjDependencyListBuilder.Scope getScope() {
+    return scope;
+  }
+
+  /**
+   * @return The value of the {@code exported} attribute
+   */
+  @Override
+  public boolean getExported() {
+    return exported;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link IjDependencyListBuilder.AbstractDependencyEntryData#getName() name} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for name
+   * @return A modified copy of the {@code this} object
+   */
+  public final DependencyEntryData withName(String value) {
+    if (this.name.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "name");
+    return new DependencyEntryData(newValue, this.scope, this.exported);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link IjDependencyListBuilder.AbstractDependencyEntryData#getScope() scope} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for scope
+   * @return A modified copy of the {@code this} object
+   */
+  public final DependencyEntryData withScope(IjDependencyListBuilder.Scope value) {
+    if (this.scope == value) return this;
+    IjDependencyListBuilder.Scope newValue = Preconditions.checkNotNull(value, "scope");
+    return new DependencyEntryData(this.name, newValue, this.exported);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link IjDependencyListBuilder.AbstractDependencyEntryData#getExported() exported} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for exported
+   * @return A modified copy of the {@code this} object
+   */
+  public final DependencyEntryData withExported(boolean value) {
+    if (this.exported == value) return this;
+    return new DependencyEntryData(this.name, this.scope, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code DependencyEntryData} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof DependencyEntryData
+        && equalTo((DependencyEntryData) another);
+  }
+
+  private boolean equalTo(DependencyEntryData another) {
+    return name.equals(another.name)
+        && scope.equals(another.scope)
+        && exported == another.exported;
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code name}, {@code scope}, {@code exported}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + name.hashCode();
+    h = h * 17 + scope.hashCode();
+    h = h * 17 + Booleans.hashCode(exported);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code DependencyEntryData} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("DependencyEntryData")
+        .omitNullValues()
+        .add("name", name)
+        .add("scope", scope)
+        .add("exported", exported)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link IjDependencyListBuilder.AbstractDependencyEntryData} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable DependencyEntryData instance
+   */
+  static DependencyEntryData copyOf(IjDependencyListBuilder.AbstractDependencyEntryData instance) {
+    if (instance instanceof DependencyEntryData) {
+      return (DependencyEntryData) instance;
+    }
+    return DependencyEntryData.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link DependencyEntryData DependencyEntryData}.
+   * @return A new DependencyEntryData builder
+   */
+  public static DependencyEntryData.Builder builder() {
+    return new DependencyEntryData.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link DependencyEntryData DependencyEntryData}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_NAME = 0x1L;
+    private static final long INIT_BIT_SCOPE = 0x2L;
+    private static final long INIT_BIT_EXPORTED = 0x4L;
+    private long initBits = 0x7L;
+
+    private @Nullable String name;
+    private @Nullable IjDependencyListBuilder.Scope scope;
+    private boolean exported;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code DependencyEntryData} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(DependencyEntryData instance) {
+      return from((IjDependencyListBuilder.AbstractDependencyEntryData) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractDependencyEntryData} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(IjDependencyListBuilder.AbstractDependencyEntryData instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setName(instance.getName());
+      setScope(instance.getScope());
+      setExported(instance.getExported());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link IjDependencyListBuilder.AbstractDependencyEntryData#getName() name} attribute.
+     * @param name The value for name 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setName(String name) {
+      this.name = Preconditions.checkNotNull(name, "name");
+      initBits &= ~INIT_BIT_NAME;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link IjDependencyListBuilder.AbstractDependencyEntryData#getScope() scope} attribute.
+     * @param scope The value for scope 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setScope(IjDependencyListBuilder.Scope scope) {
+      this.scope = Preconditions.checkNotNull(scope, "scope");
+      initBits &= ~INIT_BIT_SCOPE;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link IjDependencyListBuilder.AbstractDependencyEntryData#getExported() exported} attribute.
+     * @param exported The value for exported 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setExported(boolean exported) {
+      this.exported = exported;
+      initBits &= ~INIT_BIT_EXPORTED;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link DependencyEntryData DependencyEntryData}.
+     * @return An immutable instance of DependencyEntryData
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public DependencyEntryData build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new DependencyEntryData(name, scope, exported);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_NAME) != 0) attributes.add("name");
+      if ((initBits & INIT_BIT_SCOPE) != 0) attributes.add("scope");
+      if ((initBits & INIT_BIT_EXPORTED) != 0) attributes.add("exported");
+      return "Cannot build DependencyEntryData, some of required attributes are not set " + attributes;
+    }
+  }
+}
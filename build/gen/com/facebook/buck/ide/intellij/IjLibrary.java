@@ -0,0 +1,568 @@
+package com.facebook.buck.ide.intellij;
+
+import com.facebook.buck.rules.TargetNode;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Represents a prebuilt library (.jar or .aar) as seen by IntelliJ.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractIjLibrary"})
+@Immutable
+public final class IjLibrary extends AbstractIjLibrary {
+  private final String name;
+  private final ImmutableSet<TargetNode<?, ?>> targets;
+  private final @Nullable Path binaryJar;
+  private final ImmutableSet<Path> classPaths;
+  private final @Nullable Path sourceJar;
+  private final @Nullable String javadocUrl;
+
+  private IjLibrary(
+      String name,
+      ImmutableSet<TargetNode<?, ?>> targets,
+      @Nullable Path binaryJar,
+      ImmutableSet<Path> classPaths,
+      @Nullable Path sourceJar,
+      @Nullable String javadocUrl) {
+    this.name = name;
+    this.targets = targets;
+    this.binaryJar = binaryJar;
+    this.classPaths = classPaths;
+    this.sourceJar = sourceJar;
+    this.javadocUrl = javadocUrl;
+  }
+
+  /**
+   * @return The value of the {@code name} attribute
+   */
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The value of the {@code targets} attribute
+   */
+  @Override
+  public ImmutableSet<TargetNode<?, ?>> getTargets() {
+    return targets;
+  }
+
+  /**
+   * @return path to the binary (.jar or .aar) the library represents.
+   */
+  @Override
+  public Optional<Path> getBinaryJar() {
+    return Optional.ofNullable(binaryJar);
+  }
+
+  /**
+   * @return classPath paths
+   */
+  @Override
+  public ImmutableSet<Path> getClassPaths() {
+    return classPaths;
+  }
+
+  /**
+   * @return path to the jar containing sources for the library.
+   */
+  @Override
+  public Optional<Path> getSourceJar() {
+    return Optional.ofNullable(sourceJar);
+  }
+
+  /**
+   * @return url to the javadoc.
+   */
+  @Override
+  public Optional<String> getJavadocUrl() {
+    return Optional.ofNullable(javadocUrl);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractIjLibrary#getName() name} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for name
+   * @return A modified copy of the {@code this} object
+   */
+  public final IjLibrary withName(String value) {
+    if (this.name.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "name");
+    return validate(new IjLibrary(newValue, this.targets, this.binaryJar, this.classPaths, this.sourceJar, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjLibrary#getTargets() targets}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  @SafeVarargs
+  public final IjLibrary withTargets(TargetNode<?, ?>... elements) {
+    ImmutableSet<TargetNode<?, ?>> newValue = ImmutableSet.copyOf(elements);
+    return validate(new IjLibrary(this.name, newValue, this.binaryJar, this.classPaths, this.sourceJar, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjLibrary#getTargets() targets}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of targets elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withTargets(Iterable<? extends TargetNode<?, ?>> elements) {
+    if (this.targets == elements) return this;
+    ImmutableSet<TargetNode<?, ?>> newValue = ImmutableSet.copyOf(elements);
+    return validate(new IjLibrary(this.name, newValue, this.binaryJar, this.classPaths, this.sourceJar, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractIjLibrary#getBinaryJar() binaryJar} attribute.
+   * @param value The value for binaryJar
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withBinaryJar(Path value) {
+    @Nullable Path newValue = Preconditions.checkNotNull(value, "binaryJar");
+    if (this.binaryJar == newValue) return this;
+    return validate(new IjLibrary(this.name, this.targets, newValue, this.classPaths, this.sourceJar, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractIjLibrary#getBinaryJar() binaryJar} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for binaryJar
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withBinaryJar(Optional<Path> optional) {
+    @Nullable Path value = optional.orElse(null);
+    if (this.binaryJar == value) return this;
+    return validate(new IjLibrary(this.name, this.targets, value, this.classPaths, this.sourceJar, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjLibrary#getClassPaths() classPaths}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withClassPaths(Path... elements) {
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return validate(new IjLibrary(this.name, this.targets, this.binaryJar, newValue, this.sourceJar, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjLibrary#getClassPaths() classPaths}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of classPaths elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withClassPaths(Iterable<? extends Path> elements) {
+    if (this.classPaths == elements) return this;
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return validate(new IjLibrary(this.name, this.targets, this.binaryJar, newValue, this.sourceJar, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractIjLibrary#getSourceJar() sourceJar} attribute.
+   * @param value The value for sourceJar
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withSourceJar(Path value) {
+    @Nullable Path newValue = Preconditions.checkNotNull(value, "sourceJar");
+    if (this.sourceJar == newValue) return this;
+    return validate(new IjLibrary(this.name, this.targets, this.binaryJar, this.classPaths, newValue, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractIjLibrary#getSourceJar() sourceJar} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for sourceJar
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withSourceJar(Optional<Path> optional) {
+    @Nullable Path value = optional.orElse(null);
+    if (this.sourceJar == value) return this;
+    return validate(new IjLibrary(this.name, this.targets, this.binaryJar, this.classPaths, value, this.javadocUrl));
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractIjLibrary#getJavadocUrl() javadocUrl} attribute.
+   * @param value The value for javadocUrl
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withJavadocUrl(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "javadocUrl");
+    if (Objects.equal(this.javadocUrl, newValue)) return this;
+    return validate(new IjLibrary(this.name, this.targets, this.binaryJar, this.classPaths, this.sourceJar, newValue));
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractIjLibrary#getJavadocUrl() javadocUrl} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for javadocUrl
+   * @return A modified copy of {@code this} object
+   */
+  public final IjLibrary withJavadocUrl(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.javadocUrl, value)) return this;
+    return validate(new IjLibrary(this.name, this.targets, this.binaryJar, this.classPaths, this.sourceJar, value));
+  }
+
+  /**
+   * This instance is equal to all instances of {@code IjLibrary} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof IjLibrary
+        && equalTo((IjLibrary) another);
+  }
+
+  private boolean equalTo(IjLibrary another) {
+    return name.equals(another.name)
+        && targets.equals(another.targets)
+        && Objects.equal(binaryJar, another.binaryJar)
+        && classPaths.equals(another.classPaths)
+        && Objects.equal(sourceJar, another.sourceJar)
+        && Objects.equal(javadocUrl, another.javadocUrl);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code name}, {@code targets}, {@code binaryJar}, {@code classPaths}, {@code sourceJar}, {@code javadocUrl}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + name.hashCode();
+    h = h * 17 + targets.hashCode();
+    h = h * 17 + Objects.hashCode(binaryJar);
+    h = h * 17 + classPaths.hashCode();
+    h = h * 17 + Objects.hashCode(sourceJar);
+    h = h * 17 + Objects.hashCode(javadocUrl);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code IjLibrary} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("IjLibrary")
+        .omitNullValues()
+        .add("name", name)
+        .add("targets", targets)
+        .add("binaryJar", binaryJar)
+        .add("classPaths", classPaths)
+        .add("sourceJar", sourceJar)
+        .add("javadocUrl", javadocUrl)
+        .toString();
+  }
+
+  private static IjLibrary validate(IjLibrary instance) {
+    instance.eitherBinaryJarOrClassPathPresent();
+    return instance;
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractIjLibrary} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable IjLibrary instance
+   */
+  static IjLibrary copyOf(AbstractIjLibrary instance) {
+    if (instance instanceof IjLibrary) {
+      return (IjLibrary) instance;
+    }
+    return IjLibrary.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link IjLibrary IjLibrary}.
+   * @return A new IjLibrary builder
+   */
+  public static IjLibrary.Builder builder() {
+    return new IjLibrary.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link IjLibrary IjLibrary}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_NAME = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable String name;
+    private ImmutableSet.Builder<TargetNode<?, ?>> targets = ImmutableSet.builder();
+    private @Nullable Path binaryJar;
+    private ImmutableSet.Builder<Path> classPaths = ImmutableSet.builder();
+    private @Nullable Path sourceJar;
+    private @Nullable String javadocUrl;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code com.facebook.buck.ide.intellij.IjProjectElement} instance.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(IjProjectElement instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      from((Object) instance);
+      return this;
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code IjLibrary} instance.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(IjLibrary instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      from((Object) instance);
+      return this;
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractIjLibrary} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractIjLibrary instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      from((Object) instance);
+      return this;
+    }
+
+    private void from(Object object) {
+      long bits = 0;
+      if (object instanceof IjProjectElement) {
+        IjProjectElement instance = (IjProjectElement) object;
+        if ((bits & 0x1L) == 0) {
+          setName(instance.getName());
+          bits |= 0x1L;
+        }
+        if ((bits & 0x2L) == 0) {
+          addAllTargets(instance.getTargets());
+          bits |= 0x2L;
+        }
+      }
+      if (object instanceof AbstractIjLibrary) {
+        AbstractIjLibrary instance = (AbstractIjLibrary) object;
+        addAllClassPaths(instance.getClassPaths());
+        if ((bits & 0x1L) == 0) {
+          setName(instance.getName());
+          bits |= 0x1L;
+        }
+        Optional<Path> binaryJarOptional = instance.getBinaryJar();
+        if (binaryJarOptional.isPresent()) {
+          setBinaryJar(binaryJarOptional);
+        }
+        Optional<Path> sourceJarOptional = instance.getSourceJar();
+        if (sourceJarOptional.isPresent()) {
+          setSourceJar(sourceJarOptional);
+        }
+        Optional<String> javadocUrlOptional = instance.getJavadocUrl();
+        if (javadocUrlOptional.isPresent()) {
+          setJavadocUrl(javadocUrlOptional);
+        }
+        if ((bits & 0x2L) == 0) {
+          addAllTargets(instance.getTargets());
+          bits |= 0x2L;
+        }
+      }
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractIjLibrary#getName() name} attribute.
+     * @param name The value for name 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setName(String name) {
+      this.name = Preconditions.checkNotNull(name, "name");
+      initBits &= ~INIT_BIT_NAME;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractIjLibrary#getTargets() targets} set.
+     * @param element A targets element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addTargets(TargetNode<?, ?> element) {
+      this.targets.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjLibrary#getTargets() targets} set.
+     * @param elements An array of targets elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    @SafeVarargs
+    public final Builder addTargets(TargetNode<?, ?>... elements) {
+      this.targets.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractIjLibrary#getTargets() targets} set.
+     * @param elements An iterable of targets elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTargets(Iterable<? extends TargetNode<?, ?>> elements) {
+      this.targets = ImmutableSet.builder();
+      return addAllTargets(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjLibrary#getTargets() targets} set.
+     * @param elements An iterable of targets elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllTargets(Iterable<? extends TargetNode<?, ?>> elements) {
+      this.targets.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjLibrary#getBinaryJar() binaryJar} to binaryJar.
+     * @param binaryJar The value for binaryJar
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setBinaryJar(Path binaryJar) {
+      this.binaryJar = Preconditions.checkNotNull(binaryJar, "binaryJar");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjLibrary#getBinaryJar() binaryJar} to binaryJar.
+     * @param binaryJar The value for binaryJar
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setBinaryJar(Optional<Path> binaryJar) {
+      this.binaryJar = binaryJar.orElse(null);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractIjLibrary#getClassPaths() classPaths} set.
+     * @param element A classPaths element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addClassPaths(Path element) {
+      this.classPaths.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjLibrary#getClassPaths() classPaths} set.
+     * @param elements An array of classPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addClassPaths(Path... elements) {
+      this.classPaths.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractIjLibrary#getClassPaths() classPaths} set.
+     * @param elements An iterable of classPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setClassPaths(Iterable<? extends Path> elements) {
+      this.classPaths = ImmutableSet.builder();
+      return addAllClassPaths(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjLibrary#getClassPaths() classPaths} set.
+     * @param elements An iterable of classPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllClassPaths(Iterable<? extends Path> elements) {
+      this.classPaths.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjLibrary#getSourceJar() sourceJar} to sourceJar.
+     * @param sourceJar The value for sourceJar
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setSourceJar(Path sourceJar) {
+      this.sourceJar = Preconditions.checkNotNull(sourceJar, "sourceJar");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjLibrary#getSourceJar() sourceJar} to sourceJar.
+     * @param sourceJar The value for sourceJar
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSourceJar(Optional<Path> sourceJar) {
+      this.sourceJar = sourceJar.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjLibrary#getJavadocUrl() javadocUrl} to javadocUrl.
+     * @param javadocUrl The value for javadocUrl
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setJavadocUrl(String javadocUrl) {
+      this.javadocUrl = Preconditions.checkNotNull(javadocUrl, "javadocUrl");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjLibrary#getJavadocUrl() javadocUrl} to javadocUrl.
+     * @param javadocUrl The value for javadocUrl
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setJavadocUrl(Optional<String> javadocUrl) {
+      this.javadocUrl = javadocUrl.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link IjLibrary IjLibrary}.
+     * @return An immutable instance of IjLibrary
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public IjLibrary build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return IjLibrary.validate(new IjLibrary(name, targets.build(), binaryJar, classPaths.build(), sourceJar, javadocUrl));
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_NAME) != 0) attributes.add("name");
+      return "Cannot build IjLibrary, some of required attributes are not set " + attributes;
+    }
+  }
+}
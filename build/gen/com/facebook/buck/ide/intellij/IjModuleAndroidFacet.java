@@ -0,0 +1,722 @@
+package com.facebook.buck.ide.intellij;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Booleans;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * The information necessary to add the Android facet to the module. This essentially means the
+ * Java code in the given module is written against the Android SDK.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractIjModuleAndroidFacet"})
+@Immutable
+public final class IjModuleAndroidFacet extends AbstractIjModuleAndroidFacet {
+  private final @Nullable Path manifestPath;
+  private final ImmutableSet<Path> resourcePaths;
+  private final ImmutableSet<Path> assetPaths;
+  private final @Nullable Path proguardConfigPath;
+  private final boolean androidLibrary;
+  private final @Nullable String packageName;
+  private final boolean autogenerateSources;
+  private final Path generatedSourcePath;
+
+  private IjModuleAndroidFacet(
+      @Nullable Path manifestPath,
+      ImmutableSet<Path> resourcePaths,
+      ImmutableSet<Path> assetPaths,
+      @Nullable Path proguardConfigPath,
+      boolean androidLibrary,
+      @Nullable String packageName,
+      boolean autogenerateSources,
+      Path generatedSourcePath) {
+    this.manifestPath = manifestPath;
+    this.resourcePaths = resourcePaths;
+    this.assetPaths = assetPaths;
+    this.proguardConfigPath = proguardConfigPath;
+    this.androidLibrary = androidLibrary;
+    this.packageName = packageName;
+    this.autogenerateSources = autogenerateSources;
+    this.generatedSourcePath = generatedSourcePath;
+  }
+
+  /**
+   * @return path to the AndroidManifest.xml file.
+   */
+  @Override
+  public Optional<Path> getManifestPath() {
+    return Optional.ofNullable(manifestPath);
+  }
+
+  /**
+   * @return paths to resources (usually stuff under the res/ folder).
+   */
+  @Override
+  public ImmutableSet<Path> getResourcePaths() {
+    return resourcePaths;
+  }
+
+  /**
+   * @return paths to assets (usually stuff under the assets/ folder).
+   */
+  @Override
+  public ImmutableSet<Path> getAssetPaths() {
+    return assetPaths;
+  }
+
+  /**
+   * @return paths to the proguard configuration.
+   */
+  @Override
+  public Optional<Path> getProguardConfigPath() {
+    return Optional.ofNullable(proguardConfigPath);
+  }
+
+  /**
+   * @return whether or not this is an Android Library. IntelliJ identifies libraries using
+   * a is_android_library_project setting in the module iml to allow other modules which
+   * depend on it to inherit assets, resources, etc.
+   */
+  @Override
+  public boolean isAndroidLibrary() {
+    return androidLibrary;
+  }
+
+  /**
+   * @return The package that the R file should be located in. This is used by android_resources
+   * targets to specify the package their resources should referenced via.
+   */
+  @Override
+  public Optional<String> getPackageName() {
+    return Optional.ofNullable(packageName);
+  }
+
+  /**
+   * @return The value of the {@code autogenerateSources} attribute
+   */
+  @Override
+  public boolean autogenerateSources() {
+    return autogenerateSources;
+  }
+
+  /**
+   * @return The value of the {@code generatedSourcePath} attribute
+   */
+  @Override
+  public Path getGeneratedSourcePath() {
+    return generatedSourcePath;
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractIjModuleAndroidFacet#getManifestPath() manifestPath} attribute.
+   * @param value The value for manifestPath
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withManifestPath(Path value) {
+    @Nullable Path newValue = Preconditions.checkNotNull(value, "manifestPath");
+    if (this.manifestPath == newValue) return this;
+    return new IjModuleAndroidFacet(
+        newValue,
+        this.resourcePaths,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractIjModuleAndroidFacet#getManifestPath() manifestPath} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for manifestPath
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withManifestPath(Optional<Path> optional) {
+    @Nullable Path value = optional.orElse(null);
+    if (this.manifestPath == value) return this;
+    return new IjModuleAndroidFacet(
+        value,
+        this.resourcePaths,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjModuleAndroidFacet#getResourcePaths() resourcePaths}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withResourcePaths(Path... elements) {
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        newValue,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjModuleAndroidFacet#getResourcePaths() resourcePaths}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of resourcePaths elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withResourcePaths(Iterable<? extends Path> elements) {
+    if (this.resourcePaths == elements) return this;
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        newValue,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjModuleAndroidFacet#getAssetPaths() assetPaths}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withAssetPaths(Path... elements) {
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        newValue,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractIjModuleAndroidFacet#getAssetPaths() assetPaths}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of assetPaths elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withAssetPaths(Iterable<? extends Path> elements) {
+    if (this.assetPaths == elements) return this;
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        newValue,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractIjModuleAndroidFacet#getProguardConfigPath() proguardConfigPath} attribute.
+   * @param value The value for proguardConfigPath
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withProguardConfigPath(Path value) {
+    @Nullable Path newValue = Preconditions.checkNotNull(value, "proguardConfigPath");
+    if (this.proguardConfigPath == newValue) return this;
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        this.assetPaths,
+        newValue,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractIjModuleAndroidFacet#getProguardConfigPath() proguardConfigPath} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for proguardConfigPath
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withProguardConfigPath(Optional<Path> optional) {
+    @Nullable Path value = optional.orElse(null);
+    if (this.proguardConfigPath == value) return this;
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        this.assetPaths,
+        value,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractIjModuleAndroidFacet#isAndroidLibrary() androidLibrary} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for androidLibrary
+   * @return A modified copy of the {@code this} object
+   */
+  public final IjModuleAndroidFacet withAndroidLibrary(boolean value) {
+    if (this.androidLibrary == value) return this;
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        this.assetPaths,
+        this.proguardConfigPath,
+        value,
+        this.packageName,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractIjModuleAndroidFacet#getPackageName() packageName} attribute.
+   * @param value The value for packageName
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withPackageName(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "packageName");
+    if (Objects.equal(this.packageName, newValue)) return this;
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        newValue,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractIjModuleAndroidFacet#getPackageName() packageName} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for packageName
+   * @return A modified copy of {@code this} object
+   */
+  public final IjModuleAndroidFacet withPackageName(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.packageName, value)) return this;
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        value,
+        this.autogenerateSources,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractIjModuleAndroidFacet#autogenerateSources() autogenerateSources} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for autogenerateSources
+   * @return A modified copy of the {@code this} object
+   */
+  public final IjModuleAndroidFacet withAutogenerateSources(boolean value) {
+    if (this.autogenerateSources == value) return this;
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        value,
+        this.generatedSourcePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractIjModuleAndroidFacet#getGeneratedSourcePath() generatedSourcePath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for generatedSourcePath
+   * @return A modified copy of the {@code this} object
+   */
+  public final IjModuleAndroidFacet withGeneratedSourcePath(Path value) {
+    if (this.generatedSourcePath == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "generatedSourcePath");
+    return new IjModuleAndroidFacet(
+        this.manifestPath,
+        this.resourcePaths,
+        this.assetPaths,
+        this.proguardConfigPath,
+        this.androidLibrary,
+        this.packageName,
+        this.autogenerateSources,
+        newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code IjModuleAndroidFacet} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof IjModuleAndroidFacet
+        && equalTo((IjModuleAndroidFacet) another);
+  }
+
+  private boolean equalTo(IjModuleAndroidFacet another) {
+    return Objects.equal(manifestPath, another.manifestPath)
+        && resourcePaths.equals(another.resourcePaths)
+        && assetPaths.equals(another.assetPaths)
+        && Objects.equal(proguardConfigPath, another.proguardConfigPath)
+        && androidLibrary == another.androidLibrary
+        && Objects.equal(packageName, another.packageName)
+        && autogenerateSources == another.autogenerateSources
+        && generatedSourcePath.equals(another.generatedSourcePath);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code manifestPath}, {@code resourcePaths}, {@code assetPaths}, {@code proguardConfigPath}, {@code androidLibrary}, {@code packageName}, {@code autogenerateSources}, {@code generatedSourcePath}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + Objects.hashCode(manifestPath);
+    h = h * 17 + resourcePaths.hashCode();
+    h = h * 17 + assetPaths.hashCode();
+    h = h * 17 + Objects.hashCode(proguardConfigPath);
+    h = h * 17 + Booleans.hashCode(androidLibrary);
+    h = h * 17 + Objects.hashCode(packageName);
+    h = h * 17 + Booleans.hashCode(autogenerateSources);
+    h = h * 17 + generatedSourcePath.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code IjModuleAndroidFacet} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("IjModuleAndroidFacet")
+        .omitNullValues()
+        .add("manifestPath", manifestPath)
+        .add("resourcePaths", resourcePaths)
+        .add("assetPaths", assetPaths)
+        .add("proguardConfigPath", proguardConfigPath)
+        .add("androidLibrary", androidLibrary)
+        .add("packageName", packageName)
+        .add("autogenerateSources", autogenerateSources)
+        .add("generatedSourcePath", generatedSourcePath)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractIjModuleAndroidFacet} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable IjModuleAndroidFacet instance
+   */
+  static IjModuleAndroidFacet copyOf(AbstractIjModuleAndroidFacet instance) {
+    if (instance instanceof IjModuleAndroidFacet) {
+      return (IjModuleAndroidFacet) instance;
+    }
+    return IjModuleAndroidFacet.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link IjModuleAndroidFacet IjModuleAndroidFacet}.
+   * @return A new IjModuleAndroidFacet builder
+   */
+  public static IjModuleAndroidFacet.Builder builder() {
+    return new IjModuleAndroidFacet.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link IjModuleAndroidFacet IjModuleAndroidFacet}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_ANDROID_LIBRARY = 0x1L;
+    private static final long INIT_BIT_AUTOGENERATE_SOURCES = 0x2L;
+    private static final long INIT_BIT_GENERATED_SOURCE_PATH = 0x4L;
+    private long initBits = 0x7L;
+
+    private @Nullable Path manifestPath;
+    private ImmutableSet.Builder<Path> resourcePaths = ImmutableSet.builder();
+    private ImmutableSet.Builder<Path> assetPaths = ImmutableSet.builder();
+    private @Nullable Path proguardConfigPath;
+    private boolean androidLibrary;
+    private @Nullable String packageName;
+    private boolean autogenerateSources;
+    private @Nullable Path generatedSourcePath;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code IjModuleAndroidFacet} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(IjModuleAndroidFacet instance) {
+      return from((AbstractIjModuleAndroidFacet) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractIjModuleAndroidFacet} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractIjModuleAndroidFacet instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      Optional<Path> manifestPathOptional = instance.getManifestPath();
+      if (manifestPathOptional.isPresent()) {
+        setManifestPath(manifestPathOptional);
+      }
+      addAllResourcePaths(instance.getResourcePaths());
+      addAllAssetPaths(instance.getAssetPaths());
+      Optional<Path> proguardConfigPathOptional = instance.getProguardConfigPath();
+      if (proguardConfigPathOptional.isPresent()) {
+        setProguardConfigPath(proguardConfigPathOptional);
+      }
+      setAndroidLibrary(instance.isAndroidLibrary());
+      Optional<String> packageNameOptional = instance.getPackageName();
+      if (packageNameOptional.isPresent()) {
+        setPackageName(packageNameOptional);
+      }
+      setAutogenerateSources(instance.autogenerateSources());
+      setGeneratedSourcePath(instance.getGeneratedSourcePath());
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjModuleAndroidFacet#getManifestPath() manifestPath} to manifestPath.
+     * @param manifestPath The value for manifestPath
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setManifestPath(Path manifestPath) {
+      this.manifestPath = Preconditions.checkNotNull(manifestPath, "manifestPath");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjModuleAndroidFacet#getManifestPath() manifestPath} to manifestPath.
+     * @param manifestPath The value for manifestPath
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setManifestPath(Optional<Path> manifestPath) {
+      this.manifestPath = manifestPath.orElse(null);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractIjModuleAndroidFacet#getResourcePaths() resourcePaths} set.
+     * @param element A resourcePaths element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addResourcePaths(Path element) {
+      this.resourcePaths.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjModuleAndroidFacet#getResourcePaths() resourcePaths} set.
+     * @param elements An array of resourcePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addResourcePaths(Path... elements) {
+      this.resourcePaths.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractIjModuleAndroidFacet#getResourcePaths() resourcePaths} set.
+     * @param elements An iterable of resourcePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setResourcePaths(Iterable<? extends Path> elements) {
+      this.resourcePaths = ImmutableSet.builder();
+      return addAllResourcePaths(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjModuleAndroidFacet#getResourcePaths() resourcePaths} set.
+     * @param elements An iterable of resourcePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllResourcePaths(Iterable<? extends Path> elements) {
+      this.resourcePaths.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractIjModuleAndroidFacet#getAssetPaths() assetPaths} set.
+     * @param element A assetPaths element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAssetPaths(Path element) {
+      this.assetPaths.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjModuleAndroidFacet#getAssetPaths() assetPaths} set.
+     * @param elements An array of assetPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAssetPaths(Path... elements) {
+      this.assetPaths.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractIjModuleAndroidFacet#getAssetPaths() assetPaths} set.
+     * @param elements An iterable of assetPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setAssetPaths(Iterable<? extends Path> elements) {
+      this.assetPaths = ImmutableSet.builder();
+      return addAllAssetPaths(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractIjModuleAndroidFacet#getAssetPaths() assetPaths} set.
+     * @param elements An iterable of assetPaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllAssetPaths(Iterable<? extends Path> elements) {
+      this.assetPaths.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjModuleAndroidFacet#getProguardConfigPath() proguardConfigPath} to proguardConfigPath.
+     * @param proguardConfigPath The value for proguardConfigPath
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setProguardConfigPath(Path proguardConfigPath) {
+      this.proguardConfigPath = Preconditions.checkNotNull(proguardConfigPath, "proguardConfigPath");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjModuleAndroidFacet#getProguardConfigPath() proguardConfigPath} to proguardConfigPath.
+     * @param proguardConfigPath The value for proguardConfigPath
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setProguardConfigPath(Optional<Path> proguardConfigPath) {
+      this.proguardConfigPath = proguardConfigPath.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractIjModuleAndroidFacet#isAndroidLibrary() androidLibrary} attribute.
+     * @param androidLibrary The value for androidLibrary 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setAndroidLibrary(boolean androidLibrary) {
+      this.androidLibrary = androidLibrary;
+      initBits &= ~INIT_BIT_ANDROID_LIBRARY;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjModuleAndroidFacet#getPackageName() packageName} to packageName.
+     * @param packageName The value for packageName
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setPackageName(String packageName) {
+      this.packageName = Preconditions.checkNotNull(packageName, "packageName");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractIjModuleAndroidFacet#getPackageName() packageName} to packageName.
+     * @param packageName The value for packageName
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPackageName(Optional<String> packageName) {
+      this.packageName = packageName.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractIjModuleAndroidFacet#autogenerateSources() autogenerateSources} attribute.
+     * @param autogenerateSources The value for autogenerateSources 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setAutogenerateSources(boolean autogenerateSources) {
+      this.autogenerateSources = autogenerateSources;
+      initBits &= ~INIT_BIT_AUTOGENERATE_SOURCES;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractIjModuleAndroidFacet#getGeneratedSourcePath() generatedSourcePath} attribute.
+     * @param generatedSourcePath The value for generatedSourcePath 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setGeneratedSourcePath(Path generatedSourcePath) {
+      this.generatedSourcePath = Preconditions.checkNotNull(generatedSourcePath, "generatedSourcePath");
+      initBits &= ~INIT_BIT_GENERATED_SOURCE_PATH;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link IjModuleAndroidFacet IjModuleAndroidFacet}.
+     * @return An immutable instance of IjModuleAndroidFacet
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public IjModuleAndroidFacet build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new IjModuleAndroidFacet(
+          manifestPath,
+          resourcePaths.build(),
+          assetPaths.build(),
+          proguardConfigPath,
+          androidLibrary,
+          packageName,
+          autogenerateSources,
+          generatedSourcePath);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_ANDROID_LIBRARY) != 0) attributes.add("androidLibrary");
+      if ((initBits & INIT_BIT_AUTOGENERATE_SOURCES) != 0) attributes.add("autogenerateSources");
+      if ((initBits & INIT_BIT_GENERATED_SOURCE_PATH) != 0) attributes.add("generatedSourcePath");
+      return "Cannot build IjModuleAndroidFacet, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package com.facebook.buck.io;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractProjectWatch}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code ProjectWatch.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractProjectWatch"})
+@Immutable
+public final class ProjectWatch implements AbstractProjectWatch {
+  private final String watchRoot;
+  private final @Nullable String projectPrefix;
+
+  private ProjectWatch(String watchRoot, Optional<String> projectPrefix) {
+    this.watchRoot = Preconditions.checkNotNull(watchRoot, "watchRoot");
+    this.projectPrefix = projectPrefix.orElse(null);
+  }
+
+  private ProjectWatch(
+      ProjectWatch original,
+      String watchRoot,
+      @Nullable String projectPrefix) {
+    this.watchRoot = watchRoot;
+    this.projectPrefix = projectPrefix;
+  }
+
+  /**
+   * @return The value of the {@code watchRoot} attribute
+   */
+  @Override
+  public String getWatchRoot() {
+    return watchRoot;
+  }
+
+  /**
+   * @return The value of the {@code projectPrefix} attribute
+   */
+  @Override
+  public Optional<String> getProjectPrefix() {
+    return Optional.ofNullable(projectPrefix);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractProjectWatch#getWatchRoot() watchRoot} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for watchRoot
+   * @return A modified copy of the {@code this} object
+   */
+  public final ProjectWatch withWatchRoot(String value) {
+    if (this.watchRoot.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "watchRoot");
+    return new ProjectWatch(this, newValue, this.projectPrefix);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractProjectWatch#getProjectPrefix() projectPrefix} attribute.
+   * @param value The value for projectPrefix
+   * @return A modified copy of {@code this} object
+   */
+  public final ProjectWatch withProjectPrefix(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "projectPrefix");
+    if (Objects.equal(this.projectPrefix, newValue)) return this;
+    return new ProjectWatch(this, this.watchRoot, newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractProjectWatch#getProjectPrefix() projectPrefix} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for projectPrefix
+   * @return A modified copy of {@code this} object
+   */
+  public final ProjectWatch withProjectPrefix(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.projectPrefix, value)) return this;
+    return new ProjectWatch(this, this.watchRoot, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ProjectWatch} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ProjectWatch
+        && equalTo((ProjectWatch) another);
+  }
+
+  private boolean equalTo(ProjectWatch another) {
+    return watchRoot.equals(another.watchRoot)
+        && Objects.equal(projectPrefix, another.projectPrefix);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code watchRoot}, {@code projectPrefix}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + watchRoot.hashCode();
+    h = h * 17 + Objects.hashCode(projectPrefix);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ProjectWatch} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ProjectWatch")
+        .omitNullValues()
+        .add("watchRoot", watchRoot)
+        .add("projectPrefix", projectPrefix)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ProjectWatch} instance.
+   * @param watchRoot The value for the {@code watchRoot} attribute
+   * @param projectPrefix The value for the {@code projectPrefix} attribute
+   * @return An immutable ProjectWatch instance
+   */
+  public static ProjectWatch of(String watchRoot, Optional<String> projectPrefix) {
+    return new ProjectWatch(watchRoot, projectPrefix);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractProjectWatch} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ProjectWatch instance
+   */
+  static ProjectWatch copyOf(AbstractProjectWatch instance) {
+    if (instance instanceof ProjectWatch) {
+      return (ProjectWatch) instance;
+    }
+    return ProjectWatch.of(instance.getWatchRoot(), instance.getProjectPrefix());
+  }
+}
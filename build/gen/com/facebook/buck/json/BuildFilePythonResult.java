@@ -0,0 +1,209 @@
+package com.facebook.buck.json;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link ProjectBuildFileParser.AbstractBuildFilePythonResult}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code BuildFilePythonResult.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "ProjectBuildFileParser.AbstractBuildFilePythonResult"})
+@Immutable
+public final class BuildFilePythonResult
+    implements ProjectBuildFileParser.AbstractBuildFilePythonResult {
+  private final ImmutableList<Map<String, Object>> values;
+  private final ImmutableList<Map<String, String>> diagnostics;
+  private final String profile;
+
+  private BuildFilePythonResult(
+      Iterable<? extends Map<String, Object>> values,
+      Iterable<? extends Map<String, String>> diagnostics,
+      String profile) {
+    this.values = ImmutableList.copyOf(values);
+    this.diagnostics = ImmutableList.copyOf(diagnostics);
+    this.profile = Preconditions.checkNotNull(profile, "profile");
+  }
+
+  private BuildFilePythonResult(
+      BuildFilePythonResult original,
+      ImmutableList<Map<String, Object>> values,
+      ImmutableList<Map<String, String>> diagnostics,
+      String profile) {
+    this.values = values;
+    this.diagnostics = diagnostics;
+    this.profile = profile;
+  }
+
+  /**
+   * @return The value of the {@code values} attribute
+   */
+  @Override
+  public ImmutableList<Map<String, Object>> getValues() {
+    return values;
+  }
+
+  /**
+   * @return The value of the {@code diagnostics} attribute
+   */
+  @Override
+  public ImmutableList<Map<String, String>> getDiagnostics() {
+    return diagnostics;
+  }
+
+  /**
+   * @return The value of the {@code profile} attribute
+   */
+  @Override
+  public String getProfile() {
+    return profile;
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link ProjectBuildFileParser.AbstractBuildFilePythonResult#getValues() values}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  @SafeVarargs
+  public final BuildFilePythonResult withValues(Map<String, Object>... elements) {
+    ImmutableList<Map<String, Object>> newValue = ImmutableList.copyOf(elements);
+    return new BuildFilePythonResult(this, newValue, this.diagnostics, this.profile);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link ProjectBuildFileParser.AbstractBuildFilePythonResult#getValues() values}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of values elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final BuildFilePythonResult withValues(Iterable<? extends Map<String, Object>> elements) {
+    if (this.values == elements) return this;
+    ImmutableList<Map<String, Object>> newValue = ImmutableList.copyOf(elements);
+    return new BuildFilePythonResult(this, newValue, this.diagnostics, this.profile);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link ProjectBuildFileParser.AbstractBuildFilePythonResult#getDiagnostics() diagnostics}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  @SafeVarargs
+  public final BuildFilePythonResult withDiagnostics(Map<String, String>... elements) {
+    ImmutableList<Map<String, String>> newValue = ImmutableList.copyOf(elements);
+    return new BuildFilePythonResult(this, this.values, newValue, this.profile);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link ProjectBuildFileParser.AbstractBuildFilePythonResult#getDiagnostics() diagnostics}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of diagnostics elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final BuildFilePythonResult withDiagnostics(Iterable<? extends Map<String, String>> elements) {
+    if (this.diagnostics == elements) return this;
+    ImmutableList<Map<String, String>> newValue = ImmutableList.copyOf(elements);
+    return new BuildFilePythonResult(this, this.values, newValue, this.profile);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link ProjectBuildFileParser.AbstractBuildFilePythonResult#getProfile() profile} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for profile
+   * @return A modified copy of the {@code this} object
+   */
+  public final BuildFilePythonResult withProfile(String value) {
+    if (this.profile.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "profile");
+    return new BuildFilePythonResult(this, this.values, this.diagnostics, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code BuildFilePythonResult} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof BuildFilePythonResult
+        && equalTo((BuildFilePythonResult) another);
+  }
+
+  private boolean equalTo(BuildFilePythonResult another) {
+    return values.equals(another.values)
+        && diagnostics.equals(another.diagnostics)
+        && profile.equals(another.profile);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code values}, {@code diagnostics}, {@code profile}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + values.hashCode();
+    h = h * 17 + diagnostics.hashCode();
+    h = h * 17 + profile.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code BuildFilePythonResult} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("BuildFilePythonResult")
+        .omitNullValues()
+        .add("values", values)
+        .add("diagnostics", diagnostics)
+        .add("profile", profile)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code BuildFilePythonResult} instance.
+   * @param values The value for the {@code values} attribute
+   * @param diagnostics The value for the {@code diagnostics} attribute
+   * @param profile The value for the {@code profile} attribute
+   * @return An immutable BuildFilePythonResult instance
+   */
+  public static BuildFilePythonResult of(List<Map<String, Object>> values, List<Map<String, String>> diagnostics, String profile) {
+    return of((Iterable<? extends Map<String, Object>>) values, (Iterable<? extends Map<String, String>>) diagnostics, profile);
+  }
+
+  /**
+   * Construct a new immutable {@code BuildFilePythonResult} instance.
+   * @param values The value for the {@code values} attribute
+   * @param diagnostics The value for the {@code diagnostics} attribute
+   * @param profile The value for the {@code profile} attribute
+   * @return An immutable BuildFilePythonResult instance
+   */
+  public static BuildFilePythonResult of(Iterable<? extends Map<String, Object>> values, Iterable<? extends Map<String, String>> diagnostics, String profile) {
+    return new BuildFilePythonResult(values, diagnostics, profile);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link ProjectBuildFileParser.AbstractBuildFilePythonResult} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable BuildFilePythonResult instance
+   */
+  static BuildFilePythonResult copyOf(ProjectBuildFileParser.AbstractBuildFilePythonResult instance) {
+    if (instance instanceof BuildFilePythonResult) {
+      return (BuildFilePythonResult) instance;
+    }
+    return BuildFilePythonResult.of(instance.getValues(), instance.getDiagnostics(), instance.getProfile());
+  }
+}
@@ -0,0 +1,192 @@
+package com.facebook.buck.jvm.java;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import java.nio.file.Path;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractJavaOptions}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code JavaOptions.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractJavaOptions"})
+@Immutable
+public final class JavaOptions extends AbstractJavaOptions {
+  private final @Nullable Path javaPath;
+
+  private JavaOptions(@Nullable Path javaPath) {
+    this.javaPath = javaPath;
+  }
+
+  /**
+   * @return The value of the {@code javaPath} attribute
+   */
+  @Override
+  public Optional<Path> getJavaPath() {
+    return Optional.ofNullable(javaPath);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractJavaOptions#getJavaPath() javaPath} attribute.
+   * @param value The value for javaPath
+   * @return A modified copy of {@code this} object
+   */
+  public final JavaOptions withJavaPath(Path value) {
+    @Nullable Path newValue = Preconditions.checkNotNull(value, "javaPath");
+    if (this.javaPath == newValue) return this;
+    return new JavaOptions(newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractJavaOptions#getJavaPath() javaPath} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for javaPath
+   * @return A modified copy of {@code this} object
+   */
+  public final JavaOptions withJavaPath(Optional<Path> optional) {
+    @Nullable Path value = optional.orElse(null);
+    if (this.javaPath == value) return this;
+    return new JavaOptions(value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code JavaOptions} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof JavaOptions
+        && equalTo((JavaOptions) another);
+  }
+
+  private boolean equalTo(JavaOptions another) {
+    return Objects.equal(javaPath, another.javaPath);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code javaPath}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + Objects.hashCode(javaPath);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code JavaOptions} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("JavaOptions")
+        .omitNullValues()
+        .add("javaPath", javaPath)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractJavaOptions} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable JavaOptions instance
+   */
+  static JavaOptions copyOf(AbstractJavaOptions instance) {
+    if (instance instanceof JavaOptions) {
+      return (JavaOptions) instance;
+    }
+    return JavaOptions.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link JavaOptions JavaOptions}.
+   * @return A new JavaOptions builder
+   */
+  public static JavaOptions.Builder builder() {
+    return new JavaOptions.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link JavaOptions JavaOptions}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private @Nullable Path javaPath;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code JavaOptions} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(JavaOptions instance) {
+      return from((AbstractJavaOptions) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractJavaOptions} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractJavaOptions instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      Optional<Path> javaPathOptional = instance.getJavaPath();
+      if (javaPathOptional.isPresent()) {
+        setJavaPath(javaPathOptional);
+      }
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavaOptions#getJavaPath() javaPath} to javaPath.
+     * @param javaPath The value for javaPath
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setJavaPath(Path javaPath) {
+      this.javaPath = Preconditions.checkNotNull(javaPath, "javaPath");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavaOptions#getJavaPath() javaPath} to javaPath.
+     * @param javaPath The value for javaPath
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setJavaPath(Optional<Path> javaPath) {
+      this.javaPath = javaPath.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link JavaOptions JavaOptions}.
+     * @return An immutable instance of JavaOptions
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public JavaOptions build() {
+      return new JavaOptions(javaPath);
+    }
+  }
+}
@@ -0,0 +1,456 @@
+package com.facebook.buck.jvm.java;
+
+import com.facebook.buck.model.Either;
+import com.facebook.buck.rules.SourcePath;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import java.nio.file.Path;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractJavacSpec}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code JavacSpec.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractJavacSpec"})
+@Immutable
+public final class JavacSpec extends AbstractJavacSpec {
+  private final @Nullable Either<BuiltInJavac, SourcePath> compiler;
+  private final @Nullable Either<Path, SourcePath> javacPath;
+  private final @Nullable SourcePath javacJarPath;
+  private final @Nullable String compilerClassName;
+  private final Javac.Location javacLocation;
+
+  private JavacSpec(JavacSpec.Builder builder) {
+    this.compiler = builder.compiler;
+    this.javacPath = builder.javacPath;
+    this.javacJarPath = builder.javacJarPath;
+    this.compilerClassName = builder.compilerClassName;
+    this.javacLocation = builder.javacLocation != null
+        ? builder.javacLocation
+        : Preconditions.checkNotNull(super.getJavacLocation(), "javacLocation");
+  }
+
+  private JavacSpec(
+      @Nullable Either<BuiltInJavac, SourcePath> compiler,
+      @Nullable Either<Path, SourcePath> javacPath,
+      @Nullable SourcePath javacJarPath,
+      @Nullable String compilerClassName,
+      Javac.Location javacLocation) {
+    this.compiler = compiler;
+    this.javacPath = javacPath;
+    this.javacJarPath = javacJarPath;
+    this.compilerClassName = compilerClassName;
+    this.javacLocation = javacLocation;
+  }
+
+  /**
+   * @return The value of the {@code compiler} attribute
+   */
+  @Override
+  public Optional<Either<BuiltInJavac, SourcePath>> getCompiler() {
+    return Optional.ofNullable(compiler);
+  }
+
+  /**
+   * @return The value of the {@code javacPath} attribute
+   */
+  @Override
+  public Optional<Either<Path, SourcePath>> getJavacPath() {
+    return Optional.ofNullable(javacPath);
+  }
+
+  /**
+   * @return The value of the {@code javacJarPath} attribute
+   */
+  @Override
+  public Optional<SourcePath> getJavacJarPath() {
+    return Optional.ofNullable(javacJarPath);
+  }
+
+  /**
+   * @return The value of the {@code compilerClassName} attribute
+   */
+  @Override
+  public Optional<String> getCompilerClassName() {
+    return Optional.ofNullable(compilerClassName);
+  }
+
+  /**
+   * @return The value of the {@code javacLocation} attribute
+   */
+  @Override
+  public Javac.Location getJavacLocation() {
+    return javacLocation;
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractJavacSpec#getCompiler() compiler} attribute.
+   * @param value The value for compiler
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withCompiler(Either<BuiltInJavac, SourcePath> value) {
+    @Nullable Either<BuiltInJavac, SourcePath> newValue = Preconditions.checkNotNull(value, "compiler");
+    if (this.compiler == newValue) return this;
+    return new JavacSpec(newValue, this.javacPath, this.javacJarPath, this.compilerClassName, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractJavacSpec#getCompiler() compiler} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for compiler
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withCompiler(Optional<Either<BuiltInJavac, SourcePath>> optional) {
+    @Nullable Either<BuiltInJavac, SourcePath> value = optional.orElse(null);
+    if (this.compiler == value) return this;
+    return new JavacSpec(value, this.javacPath, this.javacJarPath, this.compilerClassName, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractJavacSpec#getJavacPath() javacPath} attribute.
+   * @param value The value for javacPath
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withJavacPath(Either<Path, SourcePath> value) {
+    @Nullable Either<Path, SourcePath> newValue = Preconditions.checkNotNull(value, "javacPath");
+    if (this.javacPath == newValue) return this;
+    return new JavacSpec(this.compiler, newValue, this.javacJarPath, this.compilerClassName, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractJavacSpec#getJavacPath() javacPath} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for javacPath
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withJavacPath(Optional<Either<Path, SourcePath>> optional) {
+    @Nullable Either<Path, SourcePath> value = optional.orElse(null);
+    if (this.javacPath == value) return this;
+    return new JavacSpec(this.compiler, value, this.javacJarPath, this.compilerClassName, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractJavacSpec#getJavacJarPath() javacJarPath} attribute.
+   * @param value The value for javacJarPath
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withJavacJarPath(SourcePath value) {
+    @Nullable SourcePath newValue = Preconditions.checkNotNull(value, "javacJarPath");
+    if (this.javacJarPath == newValue) return this;
+    return new JavacSpec(this.compiler, this.javacPath, newValue, this.compilerClassName, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractJavacSpec#getJavacJarPath() javacJarPath} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for javacJarPath
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withJavacJarPath(Optional<SourcePath> optional) {
+    @Nullable SourcePath value = optional.orElse(null);
+    if (this.javacJarPath == value) return this;
+    return new JavacSpec(this.compiler, this.javacPath, value, this.compilerClassName, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractJavacSpec#getCompilerClassName() compilerClassName} attribute.
+   * @param value The value for compilerClassName
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withCompilerClassName(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "compilerClassName");
+    if (Objects.equal(this.compilerClassName, newValue)) return this;
+    return new JavacSpec(this.compiler, this.javacPath, this.javacJarPath, newValue, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractJavacSpec#getCompilerClassName() compilerClassName} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for compilerClassName
+   * @return A modified copy of {@code this} object
+   */
+  public final JavacSpec withCompilerClassName(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.compilerClassName, value)) return this;
+    return new JavacSpec(this.compiler, this.javacPath, this.javacJarPath, value, this.javacLocation);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractJavacSpec#getJavacLocation() javacLocation} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for javacLocation
+   * @return A modified copy of the {@code this} object
+   */
+  public final JavacSpec withJavacLocation(Javac.Location value) {
+    if (this.javacLocation == value) return this;
+    Javac.Location newValue = Preconditions.checkNotNull(value, "javacLocation");
+    return new JavacSpec(this.compiler, this.javacPath, this.javacJarPath, this.compilerClassName, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code JavacSpec} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof JavacSpec
+        && equalTo((JavacSpec) another);
+  }
+
+  private boolean equalTo(JavacSpec another) {
+    return Objects.equal(compiler, another.compiler)
+        && Objects.equal(javacPath, another.javacPath)
+        && Objects.equal(javacJarPath, another.javacJarPath)
+        && Objects.equal(compilerClassName, another.compilerClassName)
+        && javacLocation.equals(another.javacLocation);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code compiler}, {@code javacPath}, {@code javacJarPath}, {@code compilerClassName}, {@code javacLocation}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + Objects.hashCode(compiler);
+    h = h * 17 + Objects.hashCode(javacPath);
+    h = h * 17 + Objects.hashCode(javacJarPath);
+    h = h * 17 + Objects.hashCode(compilerClassName);
+    h = h * 17 + javacLocation.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code JavacSpec} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("JavacSpec")
+        .omitNullValues()
+        .add("compiler", compiler)
+        .add("javacPath", javacPath)
+        .add("javacJarPath", javacJarPath)
+        .add("compilerClassName", compilerClassName)
+        .add("javacLocation", javacLocation)
+        .toString();
+  }
+
+  private volatile long lazyInitBitmap;
+
+  private static final long JAVAC_PROVIDER_LAZY_INIT_BIT = 0x1L;
+
+  private JavacProvider javacProvider;
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Returns a lazily initialized value of the {@link AbstractJavacSpec#getJavacProvider() javacProvider} attribute.
+   * Initialized once and only once and stored for subsequent access with proper synchronization.
+   * @return A lazily initialized value of the {@code l.name} attribute
+   */
+  @Override
+  public JavacProvider getJavacProvider() {
+    if ((lazyInitBitmap & JAVAC_PROVIDER_LAZY_INIT_BIT) == 0) {
+      synchronized (this) {
+        if ((lazyInitBitmap & JAVAC_PROVIDER_LAZY_INIT_BIT) == 0) {
+          this.javacProvider = Preconditions.checkNotNull(super.getJavacProvider(), "javacProvider");
+          lazyInitBitmap |= JAVAC_PROVIDER_LAZY_INIT_BIT;
+        }
+      }
+    }
+    return javacProvider;
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractJavacSpec} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable JavacSpec instance
+   */
+  static JavacSpec copyOf(AbstractJavacSpec instance) {
+    if (instance instanceof JavacSpec) {
+      return (JavacSpec) instance;
+    }
+    return JavacSpec.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link JavacSpec JavacSpec}.
+   * @return A new JavacSpec builder
+   */
+  public static JavacSpec.Builder builder() {
+    return new JavacSpec.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link JavacSpec JavacSpec}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private @Nullable Either<BuiltInJavac, SourcePath> compiler;
+    private @Nullable Either<Path, SourcePath> javacPath;
+    private @Nullable SourcePath javacJarPath;
+    private @Nullable String compilerClassName;
+    private @Nullable Javac.Location javacLocation;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code JavacSpec} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(JavacSpec instance) {
+      return from((AbstractJavacSpec) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractJavacSpec} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractJavacSpec instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      Optional<Either<BuiltInJavac, SourcePath>> compilerOptional = instance.getCompiler();
+      if (compilerOptional.isPresent()) {
+        setCompiler(compilerOptional);
+      }
+      Optional<Either<Path, SourcePath>> javacPathOptional = instance.getJavacPath();
+      if (javacPathOptional.isPresent()) {
+        setJavacPath(javacPathOptional);
+      }
+      Optional<SourcePath> javacJarPathOptional = instance.getJavacJarPath();
+      if (javacJarPathOptional.isPresent()) {
+        setJavacJarPath(javacJarPathOptional);
+      }
+      Optional<String> compilerClassNameOptional = instance.getCompilerClassName();
+      if (compilerClassNameOptional.isPresent()) {
+        setCompilerClassName(compilerClassNameOptional);
+      }
+      setJavacLocation(instance.getJavacLocation());
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getCompiler() compiler} to compiler.
+     * @param compiler The value for compiler
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setCompiler(Either<BuiltInJavac, SourcePath> compiler) {
+      this.compiler = Preconditions.checkNotNull(compiler, "compiler");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getCompiler() compiler} to compiler.
+     * @param compiler The value for compiler
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setCompiler(Optional<Either<BuiltInJavac, SourcePath>> compiler) {
+      this.compiler = compiler.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getJavacPath() javacPath} to javacPath.
+     * @param javacPath The value for javacPath
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setJavacPath(Either<Path, SourcePath> javacPath) {
+      this.javacPath = Preconditions.checkNotNull(javacPath, "javacPath");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getJavacPath() javacPath} to javacPath.
+     * @param javacPath The value for javacPath
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setJavacPath(Optional<Either<Path, SourcePath>> javacPath) {
+      this.javacPath = javacPath.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getJavacJarPath() javacJarPath} to javacJarPath.
+     * @param javacJarPath The value for javacJarPath
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setJavacJarPath(SourcePath javacJarPath) {
+      this.javacJarPath = Preconditions.checkNotNull(javacJarPath, "javacJarPath");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getJavacJarPath() javacJarPath} to javacJarPath.
+     * @param javacJarPath The value for javacJarPath
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setJavacJarPath(Optional<SourcePath> javacJarPath) {
+      this.javacJarPath = javacJarPath.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getCompilerClassName() compilerClassName} to compilerClassName.
+     * @param compilerClassName The value for compilerClassName
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setCompilerClassName(String compilerClassName) {
+      this.compilerClassName = Preconditions.checkNotNull(compilerClassName, "compilerClassName");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractJavacSpec#getCompilerClassName() compilerClassName} to compilerClassName.
+     * @param compilerClassName The value for compilerClassName
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setCompilerClassName(Optional<String> compilerClassName) {
+      this.compilerClassName = compilerClassName.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractJavacSpec#getJavacLocation() javacLocation} attribute.
+     * <p><em>If not set, this attribute will have a default value as returned by the initializer of {@link AbstractJavacSpec#getJavacLocation() javacLocation}.</em>
+     * @param javacLocation The value for javacLocation 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setJavacLocation(Javac.Location javacLocation) {
+      this.javacLocation = Preconditions.checkNotNull(javacLocation, "javacLocation");
+      return this;
+    }
+
+    /**
+     * Builds a new {@link JavacSpec JavacSpec}.
+     * @return An immutable instance of JavacSpec
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public JavacSpec build() {
+      return new JavacSpec(this);
+    }
+  }
+}
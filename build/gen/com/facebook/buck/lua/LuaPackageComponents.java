@@ -0,0 +1,198 @@
+package com.facebook.buck.lua;
+
+import com.facebook.buck.rules.SourcePath;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Ordering;
+import java.util.Map;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Components that contribute to a Lua package.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractLuaPackageComponents"})
+@Immutable
+public final class LuaPackageComponents extends AbstractLuaPackageComponents {
+  private final ImmutableSortedMap<String, SourcePath> modules;
+  private final ImmutableSortedMap<String, SourcePath> pythonModules;
+  private final ImmutableSortedMap<String, SourcePath> nativeLibraries;
+
+  private LuaPackageComponents(
+      Map<String, ? extends SourcePath> modules,
+      Map<String, ? extends SourcePath> pythonModules,
+      Map<String, ? extends SourcePath> nativeLibraries) {
+    this.modules = ImmutableSortedMap.copyOf(modules,
+        Ordering.<String>natural()
+    );
+    this.pythonModules = ImmutableSortedMap.copyOf(pythonModules,
+        Ordering.<String>natural()
+    );
+    this.nativeLibraries = ImmutableSortedMap.copyOf(nativeLibraries,
+        Ordering.<String>natural()
+    );
+  }
+
+  private LuaPackageComponents(
+      LuaPackageComponents original,
+      ImmutableSortedMap<String, SourcePath> modules,
+      ImmutableSortedMap<String, SourcePath> pythonModules,
+      ImmutableSortedMap<String, SourcePath> nativeLibraries) {
+    this.modules = modules;
+    this.pythonModules = pythonModules;
+    this.nativeLibraries = nativeLibraries;
+  }
+
+  /**
+   * @return mapping of module names to their respective {@link SourcePath}s.
+   */
+  @Override
+  public ImmutableSortedMap<String, SourcePath> getModules() {
+    return modules;
+  }
+
+  /**
+   * @return mapping of python module names to their respective {@link SourcePath}s.
+   */
+  @Override
+  public ImmutableSortedMap<String, SourcePath> getPythonModules() {
+    return pythonModules;
+  }
+
+  /**
+   * @return a mapping of shared native library names to their respective {@link SourcePath}s.
+   */
+  @Override
+  public ImmutableSortedMap<String, SourcePath> getNativeLibraries() {
+    return nativeLibraries;
+  }
+
+  /**
+   * Copy the current immutable object by replacing the {@link AbstractLuaPackageComponents#getModules() modules} map with the specified map.
+   * Nulls are not permitted as keys or values.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param entries The entries to be added to the modules map
+   * @return A modified copy of {@code this} object
+   */
+  public final LuaPackageComponents withModules(Map<String, ? extends SourcePath> entries) {
+    if (this.modules == entries) return this;
+    ImmutableSortedMap<String, SourcePath> newValue = ImmutableSortedMap.copyOf(entries,
+        Ordering.<String>natural()
+    );
+    return new LuaPackageComponents(this, newValue, this.pythonModules, this.nativeLibraries);
+  }
+
+  /**
+   * Copy the current immutable object by replacing the {@link AbstractLuaPackageComponents#getPythonModules() pythonModules} map with the specified map.
+   * Nulls are not permitted as keys or values.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param entries The entries to be added to the pythonModules map
+   * @return A modified copy of {@code this} object
+   */
+  public final LuaPackageComponents withPythonModules(Map<String, ? extends SourcePath> entries) {
+    if (this.pythonModules == entries) return this;
+    ImmutableSortedMap<String, SourcePath> newValue = ImmutableSortedMap.copyOf(entries,
+        Ordering.<String>natural()
+    );
+    return new LuaPackageComponents(this, this.modules, newValue, this.nativeLibraries);
+  }
+
+  /**
+   * Copy the current immutable object by replacing the {@link AbstractLuaPackageComponents#getNativeLibraries() nativeLibraries} map with the specified map.
+   * Nulls are not permitted as keys or values.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param entries The entries to be added to the nativeLibraries map
+   * @return A modified copy of {@code this} object
+   */
+  public final LuaPackageComponents withNativeLibraries(Map<String, ? extends SourcePath> entries) {
+    if (this.nativeLibraries == entries) return this;
+    ImmutableSortedMap<String, SourcePath> newValue = ImmutableSortedMap.copyOf(entries,
+        Ordering.<String>natural()
+    );
+    return new LuaPackageComponents(this, this.modules, this.pythonModules, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code LuaPackageComponents} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof LuaPackageComponents
+        && equalTo((LuaPackageComponents) another);
+  }
+
+  private boolean equalTo(LuaPackageComponents another) {
+    return modules.equals(another.modules)
+        && pythonModules.equals(another.pythonModules)
+        && nativeLibraries.equals(another.nativeLibraries);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code modules}, {@code pythonModules}, {@code nativeLibraries}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + modules.hashCode();
+    h = h * 17 + pythonModules.hashCode();
+    h = h * 17 + nativeLibraries.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code LuaPackageComponents} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("LuaPackageComponents")
+        .omitNullValues()
+        .add("modules", modules)
+        .add("pythonModules", pythonModules)
+        .add("nativeLibraries", nativeLibraries)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code LuaPackageComponents} instance.
+   * @param modules The value for the {@code modules} attribute
+   * @param pythonModules The value for the {@code pythonModules} attribute
+   * @param nativeLibraries The value for the {@code nativeLibraries} attribute
+   * @return An immutable LuaPackageComponents instance
+   */
+  public static LuaPackageComponents of(ImmutableSortedMap<String, SourcePath> modules, ImmutableSortedMap<String, SourcePath> pythonModules, ImmutableSortedMap<String, SourcePath> nativeLibraries) {
+    return of((Map<String, ? extends SourcePath>) modules, (Map<String, ? extends SourcePath>) pythonModules, (Map<String, ? extends SourcePath>) nativeLibraries);
+  }
+
+  /**
+   * Construct a new immutable {@code LuaPackageComponents} instance.
+   * @param modules The value for the {@code modules} attribute
+   * @param pythonModules The value for the {@code pythonModules} attribute
+   * @param nativeLibraries The value for the {@code nativeLibraries} attribute
+   * @return An immutable LuaPackageComponents instance
+   */
+  public static LuaPackageComponents of(Map<String, ? extends SourcePath> modules, Map<String, ? extends SourcePath> pythonModules, Map<String, ? extends SourcePath> nativeLibraries) {
+    return new LuaPackageComponents(modules, pythonModules, nativeLibraries);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractLuaPackageComponents} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable LuaPackageComponents instance
+   */
+  static LuaPackageComponents copyOf(AbstractLuaPackageComponents instance) {
+    if (instance instanceof LuaPackageComponents) {
+      return (LuaPackageComponents) instance;
+    }
+    return LuaPackageComponents.of(instance.getModules(), instance.getPythonModules(), instance.getNativeLibraries());
+  }
+}
@@ -0,0 +1,149 @@
+package com.facebook.buck.macho;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.UnsignedInteger;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractFatHeader}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code FatHeader.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractFatHeader"})
+@Immutable
+public final class FatHeader extends AbstractFatHeader {
+  private final UnsignedInteger magic;
+  private final UnsignedInteger nfat_arch;
+
+  private FatHeader(
+      UnsignedInteger magic,
+      UnsignedInteger nfat_arch) {
+    this.magic = Preconditions.checkNotNull(magic, "magic");
+    this.nfat_arch = Preconditions.checkNotNull(nfat_arch, "nfat_arch");
+  }
+
+  private FatHeader(
+      FatHeader original,
+      UnsignedInteger magic,
+      UnsignedInteger nfat_arch) {
+    this.magic = magic;
+    this.nfat_arch = nfat_arch;
+  }
+
+  /**
+   * @return The value of the {@code magic} attribute
+   */
+  @Override
+  public UnsignedInteger getMagic() {
+    return magic;
+  }
+
+  /**
+   * @return The value of the {@code nfat_arch} attribute
+   */
+  @Override
+  public UnsignedInteger getNfat_arch() {
+    return nfat_arch;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractFatHeader#getMagic() magic} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for magic
+   * @return A modified copy of the {@code this} object
+   */
+  public final FatHeader withMagic(UnsignedInteger value) {
+    if (this.magic == value) return this;
+    UnsignedInteger newValue = Preconditions.checkNotNull(value, "magic");
+    return validate(new FatHeader(this, newValue, this.nfat_arch));
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractFatHeader#getNfat_arch() nfat_arch} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for nfat_arch
+   * @return A modified copy of the {@code this} object
+   */
+  public final FatHeader withNfat_arch(UnsignedInteger value) {
+    if (this.nfat_arch == value) return this;
+    UnsignedInteger newValue = Preconditions.checkNotNull(value, "nfat_arch");
+    return validate(new FatHeader(this, this.magic, newValue));
+  }
+
+  /**
+   * This instance is equal to all instances of {@code FatHeader} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof FatHeader
+        && equalTo((FatHeader) another);
+  }
+
+  private boolean equalTo(FatHeader another) {
+    return magic.equals(another.magic)
+        && nfat_arch.equals(another.nfat_arch);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code magic}, {@code nfat_arch}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + magic.hashCode();
+    h = h * 17 + nfat_arch.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code FatHeader} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("FatHeader")
+        .omitNullValues()
+        .add("magic", magic)
+        .add("nfat_arch", nfat_arch)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code FatHeader} instance.
+   * @param magic The value for the {@code magic} attribute
+   * @param nfat_arch The value for the {@code nfat_arch} attribute
+   * @return An immutable FatHeader instance
+   */
+  public static FatHeader of(UnsignedInteger magic, UnsignedInteger nfat_arch) {
+    return validate(new FatHeader(magic, nfat_arch));
+  }
+
+  private static FatHeader validate(FatHeader instance) {
+    instance.check();
+    return instance;
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractFatHeader} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable FatHeader instance
+   */
+  static FatHeader copyOf(AbstractFatHeader instance) {
+    if (instance instanceof FatHeader) {
+      return (FatHeader) instance;
+    }
+    return FatHeader.of(instance.getMagic(), instance.getNfat_arch());
+  }
+}
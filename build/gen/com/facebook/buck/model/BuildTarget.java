@@ -0,0 +1,310 @@
+package com.facebook.buck.model;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractBuildTarget}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code BuildTarget.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code BuildTarget.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractBuildTarget"})
+@Immutable
+public final class BuildTarget extends AbstractBuildTarget {
+  private final UnflavoredBuildTarget unflavoredBuildTarget;
+  private final ImmutableSortedSet<Flavor> flavors;
+  private final String fullyQualifiedName;
+  private final int hashCode;
+
+  private BuildTarget(
+      UnflavoredBuildTarget unflavoredBuildTarget,
+      Iterable<? extends Flavor> flavors) {
+    this.unflavoredBuildTarget = Preconditions.checkNotNull(unflavoredBuildTarget, "unflavoredBuildTarget");
+    this.flavors = ImmutableSortedSet.copyOf(
+        Ordering.<Flavor>natural(),
+        flavors);
+    this.fullyQualifiedName = Preconditions.checkNotNull(super.getFullyQualifiedName(), "fullyQualifiedName");
+    this.hashCode = computeHashCode();
+  }
+
+  private BuildTarget(
+      BuildTarget original,
+      UnflavoredBuildTarget unflavoredBuildTarget,
+      ImmutableSortedSet<Flavor> flavors) {
+    this.unflavoredBuildTarget = unflavoredBuildTarget;
+    this.flavors = flavors;
+    this.fullyQualifiedName = Preconditions.checkNotNull(super.getFullyQualifiedName(), "fullyQualifiedName");
+    this.hashCode = computeHashCode();
+  }
+
+  /**
+   * @return The value of the {@code unflavoredBuildTarget} attribute
+   */
+  @Override
+  public UnflavoredBuildTarget getUnflavoredBuildTarget() {
+    return unflavoredBuildTarget;
+  }
+
+  /**
+   * @return The value of the {@code flavors} attribute
+   */
+  @Override
+  public ImmutableSortedSet<Flavor> getFlavors() {
+    return flavors;
+  }
+
+  /**
+   * If this build target is //third_party/java/guava:guava-latest, then this would return
+   * "//third_party/java/guava:guava-latest".
+   */
+  @Override
+  public String getFullyQualifiedName() {
+    return fullyQualifiedName;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractBuildTarget#getUnflavoredBuildTarget() unflavoredBuildTarget} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for unflavoredBuildTarget
+   * @return A modified copy of the {@code this} object
+   */
+  public final BuildTarget withUnflavoredBuildTarget(UnflavoredBuildTarget value) {
+    if (this.unflavoredBuildTarget == value) return this;
+    UnflavoredBuildTarget newValue = Preconditions.checkNotNull(value, "unflavoredBuildTarget");
+    return validate(new BuildTarget(this, newValue, this.flavors));
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractBuildTarget#getFlavors() flavors}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final BuildTarget withFlavors(Flavor... elements) {
+    ImmutableSortedSet<Flavor> newValue = ImmutableSortedSet.copyOf(
+        Ordering.<Flavor>natural(),
+        Arrays.asList(elements));
+    return validate(new BuildTarget(this, this.unflavoredBuildTarget, newValue));
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractBuildTarget#getFlavors() flavors}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of flavors elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final BuildTarget withFlavors(Iterable<? extends Flavor> elements) {
+    if (this.flavors == elements) return this;
+    ImmutableSortedSet<Flavor> newValue = ImmutableSortedSet.copyOf(
+        Ordering.<Flavor>natural(),
+        elements);
+    return validate(new BuildTarget(this, this.unflavoredBuildTarget, newValue));
+  }
+
+  /**
+   * This instance is equal to all instances of {@code BuildTarget} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof BuildTarget
+        && equalTo((BuildTarget) another);
+  }
+
+  private boolean equalTo(BuildTarget another) {
+    return unflavoredBuildTarget.equals(another.unflavoredBuildTarget)
+        && flavors.equals(another.flavors);
+  }
+
+  /**
+   * Returns a precomputed-on-construction hash code from attributes: {@code unflavoredBuildTarget}, {@code flavors}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  private int computeHashCode() {
+    int h = 31;
+    h = h * 17 + unflavoredBuildTarget.hashCode();
+    h = h * 17 + flavors.hashCode();
+    return h;
+  }
+
+  /**
+   * Construct a new immutable {@code BuildTarget} instance.
+   * @param unflavoredBuildTarget The value for the {@code unflavoredBuildTarget} attribute
+   * @param flavors The value for the {@code flavors} attribute
+   * @return An immutable BuildTarget instance
+   */
+  public static BuildTarget of(UnflavoredBuildTarget unflavoredBuildTarget, SortedSet<Flavor> flavors) {
+    return of(unflavoredBuildTarget, (Iterable<? extends Flavor>) flavors);
+  }
+
+  /**
+   * Construct a new immutable {@code BuildTarget} instance.
+   * @param unflavoredBuildTarget The value for the {@code unflavoredBuildTarget} attribute
+   * @param flavors The value for the {@code flavors} attribute
+   * @return An immutable BuildTarget instance
+   */
+  public static BuildTarget of(UnflavoredBuildTarget unflavoredBuildTarget, Iterable<? extends Flavor> flavors) {
+    return validate(new BuildTarget(unflavoredBuildTarget, flavors));
+  }
+
+  private static BuildTarget validate(BuildTarget instance) {
+    instance.check();
+    return instance;
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractBuildTarget} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable BuildTarget instance
+   */
+  static BuildTarget copyOf(AbstractBuildTarget instance) {
+    if (instance instanceof BuildTarget) {
+      return (BuildTarget) instance;
+    }
+    return BuildTarget.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link BuildTarget BuildTarget}.
+   * @return A new BuildTarget builder
+   */
+  public static BuildTarget.Builder builder() {
+    return new BuildTarget.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link BuildTarget BuildTarget}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_UNFLAVORED_BUILD_TARGET = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable UnflavoredBuildTarget unflavoredBuildTarget;
+    private ImmutableSortedSet.Builder<Flavor> flavors = ImmutableSortedSet.naturalOrder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code BuildTarget} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(BuildTarget instance) {
+      return from((AbstractBuildTarget) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractBuildTarget} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractBuildTarget instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setUnflavoredBuildTarget(instance.getUnflavoredBuildTarget());
+      addAllFlavors(instance.getFlavors());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractBuildTarget#getUnflavoredBuildTarget() unflavoredBuildTarget} attribute.
+     * @param unflavoredBuildTarget The value for unflavoredBuildTarget 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setUnflavoredBuildTarget(UnflavoredBuildTarget unflavoredBuildTarget) {
+      this.unflavoredBuildTarget = Preconditions.checkNotNull(unflavoredBuildTarget, "unflavoredBuildTarget");
+      initBits &= ~INIT_BIT_UNFLAVORED_BUILD_TARGET;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractBuildTarget#getFlavors() flavors} sortedSet.
+     * @param element A flavors element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addFlavors(Flavor element) {
+      this.flavors.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractBuildTarget#getFlavors() flavors} sortedSet.
+     * @param elements An array of flavors elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addFlavors(Flavor... elements) {
+      this.flavors.addAll(Arrays.asList(elements));
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractBuildTarget#getFlavors() flavors} sortedSet.
+     * @param elements An iterable of flavors elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setFlavors(Iterable<? extends Flavor> elements) {
+      this.flavors = ImmutableSortedSet.naturalOrder();
+      return addAllFlavors(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractBuildTarget#getFlavors() flavors} sortedSet.
+     * @param elements An iterable of flavors elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllFlavors(Iterable<? extends Flavor> elements) {
+      this.flavors.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link BuildTarget BuildTarget}.
+     * @return An immutable instance of BuildTarget
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public BuildTarget build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return BuildTarget.validate(new BuildTarget(null, unflavoredBuildTarget, flavors.build()));
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_UNFLAVORED_BUILD_TARGET) != 0) attributes.add("unflavoredBuildTarget");
+      return "Cannot build BuildTarget, some of required attributes are not set " + attributes;
+    }
+  }
+}
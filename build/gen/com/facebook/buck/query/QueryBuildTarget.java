@@ -0,0 +1,183 @@
+package com.facebook.buck.query;
+
+import com.facebook.buck.model.BuildTarget;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractQueryBuildTarget}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code QueryBuildTarget.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code QueryBuildTarget.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractQueryBuildTarget"})
+@Immutable
+public final class QueryBuildTarget extends AbstractQueryBuildTarget {
+  private final BuildTarget buildTarget;
+
+  private QueryBuildTarget(BuildTarget buildTarget) {
+    this.buildTarget = Preconditions.checkNotNull(buildTarget, "buildTarget");
+  }
+
+  private QueryBuildTarget(QueryBuildTarget original, BuildTarget buildTarget) {
+    this.buildTarget = buildTarget;
+  }
+
+  /**
+   * @return The value of the {@code buildTarget} attribute
+   */
+  @Override
+  public BuildTarget getBuildTarget() {
+    return buildTarget;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractQueryBuildTarget#getBuildTarget() buildTarget} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for buildTarget
+   * @return A modified copy of the {@code this} object
+   */
+  public final QueryBuildTarget withBuildTarget(BuildTarget value) {
+    if (this.buildTarget == value) return this;
+    BuildTarget newValue = Preconditions.checkNotNull(value, "buildTarget");
+    return new QueryBuildTarget(this, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code QueryBuildTarget} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof QueryBuildTarget
+        && equalTo((QueryBuildTarget) another);
+  }
+
+  private boolean equalTo(QueryBuildTarget another) {
+    return buildTarget.equals(another.buildTarget);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code buildTarget}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + buildTarget.hashCode();
+    return h;
+  }
+
+  /**
+   * Construct a new immutable {@code QueryBuildTarget} instance.
+   * @param buildTarget The value for the {@code buildTarget} attribute
+   * @return An immutable QueryBuildTarget instance
+   */
+  public static QueryBuildTarget of(BuildTarget buildTarget) {
+    return new QueryBuildTarget(buildTarget);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractQueryBuildTarget} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable QueryBuildTarget instance
+   */
+  static QueryBuildTarget copyOf(AbstractQueryBuildTarget instance) {
+    if (instance instanceof QueryBuildTarget) {
+      return (QueryBuildTarget) instance;
+    }
+    return QueryBuildTarget.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link QueryBuildTarget QueryBuildTarget}.
+   * @return A new QueryBuildTarget builder
+   */
+  public static QueryBuildTarget.Builder builder() {
+    return new QueryBuildTarget.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link QueryBuildTarget QueryBuildTarget}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_BUILD_TARGET = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable BuildTarget buildTarget;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code QueryBuildTarget} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(QueryBuildTarget instance) {
+      return from((AbstractQueryBuildTarget) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractQueryBuildTarget} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractQueryBuildTarget instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setBuildTarget(instance.getBuildTarget());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractQueryBuildTarget#getBuildTarget() buildTarget} attribute.
+     * @param buildTarget The value for buildTarget 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setBuildTarget(BuildTarget buildTarget) {
+      this.buildTarget = Preconditions.checkNotNull(buildTarget, "buildTarget");
+      initBits &= ~INIT_BIT_BUILD_TARGET;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link QueryBuildTarget QueryBuildTarget}.
+     * @return An immutable instance of QueryBuildTarget
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public QueryBuildTarget build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new QueryBuildTarget(null, buildTarget);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_BUILD_TARGET) != 0) attributes.add("buildTarget");
+      return "Cannot build QueryBuildTarget, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.facebook.buck.query;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractQueryFileTarget}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code QueryFileTarget.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code QueryFileTarget.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractQueryFileTarget"})
+@Immutable
+public final class QueryFileTarget extends AbstractQueryFileTarget {
+  private final Path path;
+
+  private QueryFileTarget(Path path) {
+    this.path = Preconditions.checkNotNull(path, "path");
+  }
+
+  private QueryFileTarget(QueryFileTarget original, Path path) {
+    this.path = path;
+  }
+
+  /**
+   * @return The value of the {@code path} attribute
+   */
+  @Override
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractQueryFileTarget#getPath() path} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for path
+   * @return A modified copy of the {@code this} object
+   */
+  public final QueryFileTarget withPath(Path value) {
+    if (this.path == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "path");
+    return new QueryFileTarget(this, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code QueryFileTarget} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof QueryFileTarget
+        && equalTo((QueryFileTarget) another);
+  }
+
+  private boolean equalTo(QueryFileTarget another) {
+    return path.equals(another.path);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code path}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + path.hashCode();
+    return h;
+  }
+
+  /**
+   * Construct a new immutable {@code QueryFileTarget} instance.
+   * @param path The value for the {@code path} attribute
+   * @return An immutable QueryFileTarget instance
+   */
+  public static QueryFileTarget of(Path path) {
+    return new QueryFileTarget(path);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractQueryFileTarget} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable QueryFileTarget instance
+   */
+  static QueryFileTarget copyOf(AbstractQueryFileTarget instance) {
+    if (instance instanceof QueryFileTarget) {
+      return (QueryFileTarget) instance;
+    }
+    return QueryFileTarget.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link QueryFileTarget QueryFileTarget}.
+   * @return A new QueryFileTarget builder
+   */
+  public static QueryFileTarget.Builder builder() {
+    return new QueryFileTarget.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link QueryFileTarget QueryFileTarget}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_PATH = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable Path path;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code QueryFileTarget} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(QueryFileTarget instance) {
+      return from((AbstractQueryFileTarget) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractQueryFileTarget} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractQueryFileTarget instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setPath(instance.getPath());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractQueryFileTarget#getPath() path} attribute.
+     * @param path The value for path 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPath(Path path) {
+      this.path = Preconditions.checkNotNull(path, "path");
+      initBits &= ~INIT_BIT_PATH;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link QueryFileTarget QueryFileTarget}.
+     * @return An immutable instance of QueryFileTarget
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public QueryFileTarget build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new QueryFileTarget(null, path);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_PATH) != 0) attributes.add("path");
+      return "Cannot build QueryFileTarget, some of required attributes are not set " + attributes;
+    }
+  }
+}
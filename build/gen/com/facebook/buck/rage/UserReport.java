@@ -0,0 +1,180 @@
+package com.facebook.buck.rage;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractReport.AbstractUserReport}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code UserReport.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractReport.AbstractUserReport"})
+@Immutable
+public final class UserReport implements AbstractReport.AbstractUserReport {
+  private final String userIssueDescription;
+
+  private UserReport(String userIssueDescription) {
+    this.userIssueDescription = userIssueDescription;
+  }
+
+  /**
+   * @return The value of the {@code userIssueDescription} attribute
+   */
+  @Override
+  public String getUserIssueDescription() {
+    return userIssueDescription;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractReport.AbstractUserReport#getUserIssueDescription() userIssueDescription} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for userIssueDescription
+   * @return A modified copy of the {@code this} object
+   */
+  public final UserReport withUserIssueDescription(String value) {
+    if (this.userIssueDescription.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "userIssueDescription");
+    return new UserReport(newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code UserReport} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof UserReport
+        && equalTo((UserReport) another);
+  }
+
+  private boolean equalTo(UserReport another) {
+    return userIssueDescription.equals(another.userIssueDescription);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code userIssueDescription}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + userIssueDescription.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code UserReport} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("UserReport")
+        .omitNullValues()
+        .add("userIssueDescription", userIssueDescription)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractReport.AbstractUserReport} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable UserReport instance
+   */
+  static UserReport copyOf(AbstractReport.AbstractUserReport instance) {
+    if (instance instanceof UserReport) {
+      return (UserReport) instance;
+    }
+    return UserReport.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link UserReport UserReport}.
+   * @return A new UserReport builder
+   */
+  public static UserReport.Builder builder() {
+    return new UserReport.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link UserReport UserReport}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_USER_ISSUE_DESCRIPTION = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable String userIssueDescription;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code UserReport} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(UserReport instance) {
+      return from((AbstractReport.AbstractUserReport) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractUserReport} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractReport.AbstractUserReport instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setUserIssueDescription(instance.getUserIssueDescription());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractReport.AbstractUserReport#getUserIssueDescription() userIssueDescription} attribute.
+     * @param userIssueDescription The value for userIssueDescription 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setUserIssueDescription(String userIssueDescription) {
+      this.userIssueDescription = Preconditions.checkNotNull(userIssueDescription, "userIssueDescription");
+      initBits &= ~INIT_BIT_USER_ISSUE_DESCRIPTION;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link UserReport UserReport}.
+     * @return An immutable instance of UserReport
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public UserReport build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new UserReport(userIssueDescription);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_USER_ISSUE_DESCRIPTION) != 0) attributes.add("userIssueDescription");
+      return "Cannot build UserReport, some of required attributes are not set " + attributes;
+    }
+  }
+}
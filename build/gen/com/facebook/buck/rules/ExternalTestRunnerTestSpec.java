@@ -0,0 +1,624 @@
+package com.facebook.buck.rules;
+
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.model.Pair;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A JSON-serializable structure that gets passed to external test runners.
+ * NOTE: We're relying on the fact we're using POJOs here and that all the sub-types are
+ * JSON-serializable already.  Be careful that we don't break serialization when adding item
+ * here.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractExternalTestRunnerTestSpec"})
+@Immutable
+public final class ExternalTestRunnerTestSpec
+    extends AbstractExternalTestRunnerTestSpec {
+  private final BuildTarget target;
+  private final String type;
+  private final ImmutableList<String> command;
+  private final ImmutableList<Pair<Float, ImmutableSet<Path>>> neededCoverage;
+  private final ImmutableMap<String, String> env;
+  private final ImmutableList<Label> labels;
+  private final ImmutableList<String> contacts;
+
+  private ExternalTestRunnerTestSpec(
+      BuildTarget target,
+      String type,
+      ImmutableList<String> command,
+      ImmutableList<Pair<Float, ImmutableSet<Path>>> neededCoverage,
+      ImmutableMap<String, String> env,
+      ImmutableList<Label> labels,
+      ImmutableList<String> contacts) {
+    this.target = target;
+    this.type = type;
+    this.command = command;
+    this.neededCoverage = neededCoverage;
+    this.env = env;
+    this.labels = labels;
+    this.contacts = contacts;
+  }
+
+  /**
+   * @return the build target of this rule.
+   */
+  @Override
+  public BuildTarget getTarget() {
+    return target;
+  }
+
+  /**
+   * @return a test-specific type string which classifies the test class, so the external runner
+   *     knows how to parse the output.
+   */
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * @return the command the external test runner must invoke to run the test.
+   */
+  @Override
+  public ImmutableList<String> getCommand() {
+    return command;
+  }
+
+  /**
+   * @return coverage threshold and list of source path to be passed the test
+   * command for test coverage.
+   */
+  @Override
+  public ImmutableList<Pair<Float, ImmutableSet<Path>>> getNeededCoverage() {
+    return neededCoverage;
+  }
+
+  /**
+   * @return environment variables the external test runner should provide for the test command.
+   */
+  @Override
+  public ImmutableMap<String, String> getEnv() {
+    return env;
+  }
+
+  /**
+   * @return test labels.
+   */
+  @Override
+  public ImmutableList<Label> getLabels() {
+    return labels;
+  }
+
+  /**
+   * @return test contacts.
+   */
+  @Override
+  public ImmutableList<String> getContacts() {
+    return contacts;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractExternalTestRunnerTestSpec#getTarget() target} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for target
+   * @return A modified copy of the {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withTarget(BuildTarget value) {
+    if (this.target == value) return this;
+    BuildTarget newValue = Preconditions.checkNotNull(value, "target");
+    return new ExternalTestRunnerTestSpec(newValue, this.type, this.command, this.neededCoverage, this.env, this.labels, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractExternalTestRunnerTestSpec#getType() type} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for type
+   * @return A modified copy of the {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withType(String value) {
+    if (this.type.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "type");
+    return new ExternalTestRunnerTestSpec(this.target, newValue, this.command, this.neededCoverage, this.env, this.labels, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getCommand() command}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withCommand(String... elements) {
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, newValue, this.neededCoverage, this.env, this.labels, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getCommand() command}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of command elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withCommand(Iterable<String> elements) {
+    if (this.command == elements) return this;
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, newValue, this.neededCoverage, this.env, this.labels, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getNeededCoverage() neededCoverage}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  @SafeVarargs
+  public final ExternalTestRunnerTestSpec withNeededCoverage(Pair<Float, ImmutableSet<Path>>... elements) {
+    ImmutableList<Pair<Float, ImmutableSet<Path>>> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, this.command, newValue, this.env, this.labels, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getNeededCoverage() neededCoverage}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of neededCoverage elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withNeededCoverage(Iterable<? extends Pair<Float, ImmutableSet<Path>>> elements) {
+    if (this.neededCoverage == elements) return this;
+    ImmutableList<Pair<Float, ImmutableSet<Path>>> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, this.command, newValue, this.env, this.labels, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object by replacing the {@link AbstractExternalTestRunnerTestSpec#getEnv() env} map with the specified map.
+   * Nulls are not permitted as keys or values.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param entries The entries to be added to the env map
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withEnv(Map<String, ? extends String> entries) {
+    if (this.env == entries) return this;
+    ImmutableMap<String, String> newValue = ImmutableMap.copyOf(entries);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, this.command, this.neededCoverage, newValue, this.labels, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getLabels() labels}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withLabels(Label... elements) {
+    ImmutableList<Label> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, this.command, this.neededCoverage, this.env, newValue, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getLabels() labels}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of labels elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withLabels(Iterable<? extends Label> elements) {
+    if (this.labels == elements) return this;
+    ImmutableList<Label> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, this.command, this.neededCoverage, this.env, newValue, this.contacts);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getContacts() contacts}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withContacts(String... elements) {
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, this.command, this.neededCoverage, this.env, this.labels, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractExternalTestRunnerTestSpec#getContacts() contacts}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of contacts elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final ExternalTestRunnerTestSpec withContacts(Iterable<String> elements) {
+    if (this.contacts == elements) return this;
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new ExternalTestRunnerTestSpec(this.target, this.type, this.command, this.neededCoverage, this.env, this.labels, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ExternalTestRunnerTestSpec} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ExternalTestRunnerTestSpec
+        && equalTo((ExternalTestRunnerTestSpec) another);
+  }
+
+  private boolean equalTo(ExternalTestRunnerTestSpec another) {
+    return target.equals(another.target)
+        && type.equals(another.type)
+        && command.equals(another.command)
+        && neededCoverage.equals(another.neededCoverage)
+        && env.equals(another.env)
+        && labels.equals(another.labels)
+        && contacts.equals(another.contacts);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code target}, {@code type}, {@code command}, {@code neededCoverage}, {@code env}, {@code labels}, {@code contacts}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + target.hashCode();
+    h = h * 17 + type.hashCode();
+    h = h * 17 + command.hashCode();
+    h = h * 17 + neededCoverage.hashCode();
+    h = h * 17 + env.hashCode();
+    h = h * 17 + labels.hashCode();
+    h = h * 17 + contacts.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ExternalTestRunnerTestSpec} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ExternalTestRunnerTestSpec")
+        .omitNullValues()
+        .add("target", target)
+        .add("type", type)
+        .add("command", command)
+        .add("neededCoverage", neededCoverage)
+        .add("env", env)
+        .add("labels", labels)
+        .add("contacts", contacts)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractExternalTestRunnerTestSpec} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ExternalTestRunnerTestSpec instance
+   */
+  static ExternalTestRunnerTestSpec copyOf(AbstractExternalTestRunnerTestSpec instance) {
+    if (instance instanceof ExternalTestRunnerTestSpec) {
+      return (ExternalTestRunnerTestSpec) instance;
+    }
+    return ExternalTestRunnerTestSpec.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link ExternalTestRunnerTestSpec ExternalTestRunnerTestSpec}.
+   * @return A new ExternalTestRunnerTestSpec builder
+   */
+  public static ExternalTestRunnerTestSpec.Builder builder() {
+    return new ExternalTestRunnerTestSpec.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link ExternalTestRunnerTestSpec ExternalTestRunnerTestSpec}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_TARGET = 0x1L;
+    private static final long INIT_BIT_TYPE = 0x2L;
+    private long initBits = 0x3L;
+
+    private @Nullable BuildTarget target;
+    private @Nullable String type;
+    private ImmutableList.Builder<String> command = ImmutableList.builder();
+    private ImmutableList.Builder<Pair<Float, ImmutableSet<Path>>> neededCoverage = ImmutableList.builder();
+    private ImmutableMap.Builder<String, String> env = ImmutableMap.builder();
+    private ImmutableList.Builder<Label> labels = ImmutableList.builder();
+    private ImmutableList.Builder<String> contacts = ImmutableList.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code ExternalTestRunnerTestSpec} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(ExternalTestRunnerTestSpec instance) {
+      return from((AbstractExternalTestRunnerTestSpec) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractExternalTestRunnerTestSpec} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractExternalTestRunnerTestSpec instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setTarget(instance.getTarget());
+      setType(instance.getType());
+      addAllCommand(instance.getCommand());
+      addAllNeededCoverage(instance.getNeededCoverage());
+      putAllEnv(instance.getEnv());
+      addAllLabels(instance.getLabels());
+      addAllContacts(instance.getContacts());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractExternalTestRunnerTestSpec#getTarget() target} attribute.
+     * @param target The value for target 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTarget(BuildTarget target) {
+      this.target = Preconditions.checkNotNull(target, "target");
+      initBits &= ~INIT_BIT_TARGET;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractExternalTestRunnerTestSpec#getType() type} attribute.
+     * @param type The value for type 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setType(String type) {
+      this.type = Preconditions.checkNotNull(type, "type");
+      initBits &= ~INIT_BIT_TYPE;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractExternalTestRunnerTestSpec#getCommand() command} list.
+     * @param element A command element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addCommand(String element) {
+      this.command.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getCommand() command} list.
+     * @param elements An array of command elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addCommand(String... elements) {
+      this.command.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractExternalTestRunnerTestSpec#getCommand() command} list.
+     * @param elements An iterable of command elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setCommand(Iterable<String> elements) {
+      this.command = ImmutableList.builder();
+      return addAllCommand(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getCommand() command} list.
+     * @param elements An iterable of command elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllCommand(Iterable<String> elements) {
+      this.command.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractExternalTestRunnerTestSpec#getNeededCoverage() neededCoverage} list.
+     * @param element A neededCoverage element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addNeededCoverage(Pair<Float, ImmutableSet<Path>> element) {
+      this.neededCoverage.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getNeededCoverage() neededCoverage} list.
+     * @param elements An array of neededCoverage elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    @SafeVarargs
+    public final Builder addNeededCoverage(Pair<Float, ImmutableSet<Path>>... elements) {
+      this.neededCoverage.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractExternalTestRunnerTestSpec#getNeededCoverage() neededCoverage} list.
+     * @param elements An iterable of neededCoverage elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setNeededCoverage(Iterable<? extends Pair<Float, ImmutableSet<Path>>> elements) {
+      this.neededCoverage = ImmutableList.builder();
+      return addAllNeededCoverage(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getNeededCoverage() neededCoverage} list.
+     * @param elements An iterable of neededCoverage elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllNeededCoverage(Iterable<? extends Pair<Float, ImmutableSet<Path>>> elements) {
+      this.neededCoverage.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Put one entry to the {@link AbstractExternalTestRunnerTestSpec#getEnv() env} map.
+     * @param key The key in the env map
+     * @param value The associated value in the env map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putEnv(String key, String value) {
+      this.env.put(key, value);
+      return this;
+    }
+
+    /**
+     * Put one entry to the {@link AbstractExternalTestRunnerTestSpec#getEnv() env} map. Nulls are not permitted
+     * @param entry The key and value entry
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putEnv(Map.Entry<String, ? extends String> entry) {
+      this.env.put(entry);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all mappings from the specified map as entries for the {@link AbstractExternalTestRunnerTestSpec#getEnv() env} map. Nulls are not permitted
+     * @param env The entries that will be added to the env map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setEnv(Map<String, ? extends String> env) {
+      this.env = ImmutableMap.builder();
+      return putAllEnv(env);
+    }
+
+    /**
+     * Put all mappings from the specified map as entries to {@link AbstractExternalTestRunnerTestSpec#getEnv() env} map. Nulls are not permitted
+     * @param env The entries that will be added to the env map
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder putAllEnv(Map<String, ? extends String> env) {
+      this.env.putAll(env);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractExternalTestRunnerTestSpec#getLabels() labels} list.
+     * @param element A labels element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addLabels(Label element) {
+      this.labels.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getLabels() labels} list.
+     * @param elements An array of labels elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addLabels(Label... elements) {
+      this.labels.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractExternalTestRunnerTestSpec#getLabels() labels} list.
+     * @param elements An iterable of labels elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setLabels(Iterable<? extends Label> elements) {
+      this.labels = ImmutableList.builder();
+      return addAllLabels(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getLabels() labels} list.
+     * @param elements An iterable of labels elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllLabels(Iterable<? extends Label> elements) {
+      this.labels.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractExternalTestRunnerTestSpec#getContacts() contacts} list.
+     * @param element A contacts element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addContacts(String element) {
+      this.contacts.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getContacts() contacts} list.
+     * @param elements An array of contacts elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addContacts(String... elements) {
+      this.contacts.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractExternalTestRunnerTestSpec#getContacts() contacts} list.
+     * @param elements An iterable of contacts elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setContacts(Iterable<String> elements) {
+      this.contacts = ImmutableList.builder();
+      return addAllContacts(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractExternalTestRunnerTestSpec#getContacts() contacts} list.
+     * @param elements An iterable of contacts elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllContacts(Iterable<String> elements) {
+      this.contacts.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link ExternalTestRunnerTestSpec ExternalTestRunnerTestSpec}.
+     * @return An immutable instance of ExternalTestRunnerTestSpec
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public ExternalTestRunnerTestSpec build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new ExternalTestRunnerTestSpec(
+          target,
+          type,
+          command.build(),
+          neededCoverage.build(),
+          env.build(),
+          labels.build(),
+          contacts.build());
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_TARGET) != 0) attributes.add("target");
+      if ((initBits & INIT_BIT_TYPE) != 0) attributes.add("type");
+      return "Cannot build ExternalTestRunnerTestSpec, some of required attributes are not set " + attributes;
+    }
+  }
+}
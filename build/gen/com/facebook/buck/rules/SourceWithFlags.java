@@ -0,0 +1,284 @@
+package com.facebook.buck.rules;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Simple type representing a {@link SourcePath} and a list of file-specific flags.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractSourceWithFlags"})
+@Immutable
+public final class SourceWithFlags extends AbstractSourceWithFlags {
+  private final SourcePath sourcePath;
+  private final ImmutableList<String> flags;
+
+  private SourceWithFlags(SourcePath sourcePath, Iterable<String> flags) {
+    this.sourcePath = Preconditions.checkNotNull(sourcePath, "sourcePath");
+    this.flags = ImmutableList.copyOf(flags);
+  }
+
+  private SourceWithFlags(
+      SourceWithFlags original,
+      SourcePath sourcePath,
+      ImmutableList<String> flags) {
+    this.sourcePath = sourcePath;
+    this.flags = flags;
+  }
+
+  /**
+   * @return The value of the {@code sourcePath} attribute
+   */
+  @Override
+  public SourcePath getSourcePath() {
+    return sourcePath;
+  }
+
+  /**
+   * @return The value of the {@code flags} attribute
+   */
+  @Override
+  public ImmutableList<String> getFlags() {
+    return flags;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractSourceWithFlags#getSourcePath() sourcePath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for sourcePath
+   * @return A modified copy of the {@code this} object
+   */
+  public final SourceWithFlags withSourcePath(SourcePath value) {
+    if (this.sourcePath == value) return this;
+    SourcePath newValue = Preconditions.checkNotNull(value, "sourcePath");
+    return new SourceWithFlags(this, newValue, this.flags);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractSourceWithFlags#getFlags() flags}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final SourceWithFlags withFlags(String... elements) {
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new SourceWithFlags(this, this.sourcePath, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractSourceWithFlags#getFlags() flags}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of flags elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final SourceWithFlags withFlags(Iterable<String> elements) {
+    if (this.flags == elements) return this;
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new SourceWithFlags(this, this.sourcePath, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code SourceWithFlags} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof SourceWithFlags
+        && equalTo((SourceWithFlags) another);
+  }
+
+  private boolean equalTo(SourceWithFlags another) {
+    return sourcePath.equals(another.sourcePath)
+        && flags.equals(another.flags);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code sourcePath}, {@code flags}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + sourcePath.hashCode();
+    h = h * 17 + flags.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code SourceWithFlags} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("SourceWithFlags")
+        .omitNullValues()
+        .add("sourcePath", sourcePath)
+        .add("flags", flags)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code SourceWithFlags} instance.
+   * @param sourcePath The value for the {@code sourcePath} attribute
+   * @param flags The value for the {@code flags} attribute
+   * @return An immutable SourceWithFlags instance
+   */
+  public static SourceWithFlags of(SourcePath sourcePath, List<String> flags) {
+    return of(sourcePath, (Iterable<String>) flags);
+  }
+
+  /**
+   * Construct a new immutable {@code SourceWithFlags} instance.
+   * @param sourcePath The value for the {@code sourcePath} attribute
+   * @param flags The value for the {@code flags} attribute
+   * @return An immutable SourceWithFlags instance
+   */
+  public static SourceWithFlags of(SourcePath sourcePath, Iterable<String> flags) {
+    return new SourceWithFlags(sourcePath, flags);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractSourceWithFlags} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable SourceWithFlags instance
+   */
+  static SourceWithFlags copyOf(AbstractSourceWithFlags instance) {
+    if (instance instanceof SourceWithFlags) {
+      return (SourceWithFlags) instance;
+    }
+    return SourceWithFlags.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link SourceWithFlags SourceWithFlags}.
+   * @return A new SourceWithFlags builder
+   */
+  public static SourceWithFlags.Builder builder() {
+    return new SourceWithFlags.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link SourceWithFlags SourceWithFlags}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_SOURCE_PATH = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable SourcePath sourcePath;
+    private ImmutableList.Builder<String> flags = ImmutableList.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code SourceWithFlags} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(SourceWithFlags instance) {
+      return from((AbstractSourceWithFlags) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractSourceWithFlags} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractSourceWithFlags instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setSourcePath(instance.getSourcePath());
+      addAllFlags(instance.getFlags());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractSourceWithFlags#getSourcePath() sourcePath} attribute.
+     * @param sourcePath The value for sourcePath 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSourcePath(SourcePath sourcePath) {
+      this.sourcePath = Preconditions.checkNotNull(sourcePath, "sourcePath");
+      initBits &= ~INIT_BIT_SOURCE_PATH;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractSourceWithFlags#getFlags() flags} list.
+     * @param element A flags element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addFlags(String element) {
+      this.flags.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractSourceWithFlags#getFlags() flags} list.
+     * @param elements An array of flags elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addFlags(String... elements) {
+      this.flags.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractSourceWithFlags#getFlags() flags} list.
+     * @param elements An iterable of flags elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setFlags(Iterable<String> elements) {
+      this.flags = ImmutableList.builder();
+      return addAllFlags(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractSourceWithFlags#getFlags() flags} list.
+     * @param elements An iterable of flags elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllFlags(Iterable<String> elements) {
+      this.flags.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link SourceWithFlags SourceWithFlags}.
+     * @return An immutable instance of SourceWithFlags
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public SourceWithFlags build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new SourceWithFlags(null, sourcePath, flags.build());
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_SOURCE_PATH) != 0) attributes.add("sourcePath");
+      return "Cannot build SourceWithFlags, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package com.facebook.buck.rules;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Holds a TargetGraph and a set of BuildTargets.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractTargetGraphAndTargetNodes"})
+@Immutable
+public final class TargetGraphAndTargetNodes extends AbstractTargetGraphAndTargetNodes {
+  private final TargetGraph targetGraph;
+  private final Iterable<TargetNode<?, ?>> targetNodes;
+
+  private TargetGraphAndTargetNodes(
+      TargetGraph targetGraph,
+      Iterable<TargetNode<?, ?>> targetNodes) {
+    this.targetGraph = targetGraph;
+    this.targetNodes = targetNodes;
+  }
+
+  /**
+   * @return The value of the {@code targetGraph} attribute
+   */
+  @Override
+  public TargetGraph getTargetGraph() {
+    return targetGraph;
+  }
+
+  /**
+   * @return The value of the {@code targetNodes} attribute
+   */
+  @Override
+  public Iterable<TargetNode<?, ?>> getTargetNodes() {
+    return targetNodes;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractTargetGraphAndTargetNodes#getTargetGraph() targetGraph} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for targetGraph
+   * @return A modified copy of the {@code this} object
+   */
+  public final TargetGraphAndTargetNodes withTargetGraph(TargetGraph value) {
+    if (this.targetGraph == value) return this;
+    TargetGraph newValue = Preconditions.checkNotNull(value, "targetGraph");
+    return new TargetGraphAndTargetNodes(newValue, this.targetNodes);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractTargetGraphAndTargetNodes#getTargetNodes() targetNodes} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for targetNodes
+   * @return A modified copy of the {@code this} object
+   */
+  public final TargetGraphAndTargetNodes withTargetNodes(Iterable<TargetNode<?, ?>> value) {
+    if (this.targetNodes == value) return this;
+    Iterable<TargetNode<?, ?>> newValue = Preconditions.checkNotNull(value, "targetNodes");
+    return new TargetGraphAndTargetNodes(this.targetGraph, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code TargetGraphAndTargetNodes} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof TargetGraphAndTargetNodes
+        && equalTo((TargetGraphAndTargetNodes) another);
+  }
+
+  private boolean equalTo(TargetGraphAndTargetNodes another) {
+    return targetGraph.equals(another.targetGraph)
+        && targetNodes.equals(another.targetNodes);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code targetGraph}, {@code targetNodes}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + targetGraph.hashCode();
+    h = h * 17 + targetNodes.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code TargetGraphAndTargetNodes} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("TargetGraphAndTargetNodes")
+        .omitNullValues()
+        .add("targetGraph", targetGraph)
+        .add("targetNodes", targetNodes)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractTargetGraphAndTargetNodes} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable TargetGraphAndTargetNodes instance
+   */
+  static TargetGraphAndTargetNodes copyOf(AbstractTargetGraphAndTargetNodes instance) {
+    if (instance instanceof TargetGraphAndTargetNodes) {
+      return (TargetGraphAndTargetNodes) instance;
+    }
+    return TargetGraphAndTargetNodes.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link TargetGraphAndTargetNodes TargetGraphAndTargetNodes}.
+   * @return A new TargetGraphAndTargetNodes builder
+   */
+  public static TargetGraphAndTargetNodes.Builder builder() {
+    return new TargetGraphAndTargetNodes.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link TargetGraphAndTargetNodes TargetGraphAndTargetNodes}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_TARGET_GRAPH = 0x1L;
+    private static final long INIT_BIT_TARGET_NODES = 0x2L;
+    private long initBits = 0x3L;
+
+    private @Nullable TargetGraph targetGraph;
+    private @Nullable Iterable<TargetNode<?, ?>> targetNodes;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code TargetGraphAndTargetNodes} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(TargetGraphAndTargetNodes instance) {
+      return from((AbstractTargetGraphAndTargetNodes) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractTargetGraphAndTargetNodes} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractTargetGraphAndTargetNodes instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setTargetGraph(instance.getTargetGraph());
+      setTargetNodes(instance.getTargetNodes());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractTargetGraphAndTargetNodes#getTargetGraph() targetGraph} attribute.
+     * @param targetGraph The value for targetGraph 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTargetGraph(TargetGraph targetGraph) {
+      this.targetGraph = Preconditions.checkNotNull(targetGraph, "targetGraph");
+      initBits &= ~INIT_BIT_TARGET_GRAPH;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractTargetGraphAndTargetNodes#getTargetNodes() targetNodes} attribute.
+     * @param targetNodes The value for targetNodes 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setTargetNodes(Iterable<TargetNode<?, ?>> targetNodes) {
+      this.targetNodes = Preconditions.checkNotNull(targetNodes, "targetNodes");
+      initBits &= ~INIT_BIT_TARGET_NODES;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link TargetGraphAndTargetNodes TargetGraphAndTargetNodes}.
+     * @return An immutable instance of TargetGraphAndTargetNodes
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public TargetGraphAndTargetNodes build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new TargetGraphAndTargetNodes(targetGraph, targetNodes);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_TARGET_GRAPH) != 0) attributes.add("targetGraph");
+      if ((initBits & INIT_BIT_TARGET_NODES) != 0) attributes.add("targetNodes");
+      return "Cannot build TargetGraphAndTargetNodes, some of required attributes are not set " + attributes;
+    }
+  }
+}
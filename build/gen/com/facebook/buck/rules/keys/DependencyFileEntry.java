@@ -0,0 +1,317 @@
+package com.facebook.buck.rules.keys;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractDependencyFileEntry}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code DependencyFileEntry.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code DependencyFileEntry.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractDependencyFileEntry"})
+@Immutable
+public final class DependencyFileEntry extends AbstractDependencyFileEntry {
+  private final Path pathToFile;
+  private final @Nullable Path pathWithinArchive;
+
+  private DependencyFileEntry(Path pathToFile, Optional<Path> pathWithinArchive) {
+    this.pathToFile = Preconditions.checkNotNull(pathToFile, "pathToFile");
+    this.pathWithinArchive = pathWithinArchive.orElse(null);
+  }
+
+  private DependencyFileEntry(
+      DependencyFileEntry original,
+      Path pathToFile,
+      @Nullable Path pathWithinArchive) {
+    this.pathToFile = pathToFile;
+    this.pathWithinArchive = pathWithinArchive;
+  }
+
+  /**
+   * @return The value of the {@code pathToFile} attribute
+   */
+  @JsonProperty
+  @Override
+  public Path pathToFile() {
+    return pathToFile;
+  }
+
+  /**
+   * @return The value of the {@code pathWithinArchive} attribute
+   */
+  @JsonProperty
+  @Override
+  public Optional<Path> pathWithinArchive() {
+    return Optional.ofNullable(pathWithinArchive);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractDependencyFileEntry#pathToFile() pathToFile} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for pathToFile
+   * @return A modified copy of the {@code this} object
+   */
+  public final DependencyFileEntry withPathToFile(Path value) {
+    if (this.pathToFile == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "pathToFile");
+    return validate(new DependencyFileEntry(this, newValue, this.pathWithinArchive));
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractDependencyFileEntry#pathWithinArchive() pathWithinArchive} attribute.
+   * @param value The value for pathWithinArchive
+   * @return A modified copy of {@code this} object
+   */
+  public final DependencyFileEntry withPathWithinArchive(Path value) {
+    @Nullable Path newValue = Preconditions.checkNotNull(value, "pathWithinArchive");
+    if (this.pathWithinArchive == newValue) return this;
+    return validate(new DependencyFileEntry(this, this.pathToFile, newValue));
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractDependencyFileEntry#pathWithinArchive() pathWithinArchive} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for pathWithinArchive
+   * @return A modified copy of {@code this} object
+   */
+  public final DependencyFileEntry withPathWithinArchive(Optional<Path> optional) {
+    @Nullable Path value = optional.orElse(null);
+    if (this.pathWithinArchive == value) return this;
+    return validate(new DependencyFileEntry(this, this.pathToFile, value));
+  }
+
+  /**
+   * This instance is equal to all instances of {@code DependencyFileEntry} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof DependencyFileEntry
+        && equalTo((DependencyFileEntry) another);
+  }
+
+  private boolean equalTo(DependencyFileEntry another) {
+    return pathToFile.equals(another.pathToFile)
+        && Objects.equal(pathWithinArchive, another.pathWithinArchive);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code pathToFile}, {@code pathWithinArchive}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + pathToFile.hashCode();
+    h = h * 17 + Objects.hashCode(pathWithinArchive);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code DependencyFileEntry} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("DependencyFileEntry")
+        .omitNullValues()
+        .add("pathToFile", pathToFile)
+        .add("pathWithinArchive", pathWithinArchive)
+        .toString();
+  }
+
+  /**
+   * Utility type used to correctly read immutable object from JSON representation.
+   * @deprecated Do not use this type directly, it exists only for the <em>Jackson</em>-binding infrastructure
+   */
+  @Deprecated
+  @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.NONE)
+  static final class Json extends AbstractDependencyFileEntry {
+    @Nullable Path pathToFile;
+    Optional<Path> pathWithinArchive = Optional.empty();
+    @JsonProperty
+    public void setPathToFile(Path pathToFile) {
+      this.pathToFile = pathToFile;
+    }
+    @JsonProperty
+    public void setPathWithinArchive(Optional<Path> pathWithinArchive) {
+      this.pathWithinArchive = pathWithinArchive;
+    }
+    @Override
+    public Path pathToFile() { throw new UnsupportedOperationException(); }
+    @Override
+    public Optional<Path> pathWithinArchive() { throw new UnsupportedOperationException(); }
+  }
+
+  /**
+   * @param json A JSON-bindable data structure
+   * @return An immutable value type
+   * @deprecated Do not use this method directly, it exists only for the <em>Jackson</em>-binding infrastructure
+   */
+  @Deprecated
+  @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+  static DependencyFileEntry fromJson(Json json) {
+    DependencyFileEntry.Builder builder = DependencyFileEntry.builder();
+    if (json.pathToFile != null) {
+      builder.setPathToFile(json.pathToFile);
+    }
+    if (json.pathWithinArchive != null) {
+      builder.setPathWithinArchive(json.pathWithinArchive);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Construct a new immutable {@code DependencyFileEntry} instance.
+   * @param pathToFile The value for the {@code pathToFile} attribute
+   * @param pathWithinArchive The value for the {@code pathWithinArchive} attribute
+   * @return An immutable DependencyFileEntry instance
+   */
+  public static DependencyFileEntry of(Path pathToFile, Optional<Path> pathWithinArchive) {
+    return validate(new DependencyFileEntry(pathToFile, pathWithinArchive));
+  }
+
+  private static DependencyFileEntry validate(DependencyFileEntry instance) {
+    instance.check();
+    return instance;
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractDependencyFileEntry} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable DependencyFileEntry instance
+   */
+  static DependencyFileEntry copyOf(AbstractDependencyFileEntry instance) {
+    if (instance instanceof DependencyFileEntry) {
+      return (DependencyFileEntry) instance;
+    }
+    return DependencyFileEntry.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link DependencyFileEntry DependencyFileEntry}.
+   * @return A new DependencyFileEntry builder
+   */
+  public static DependencyFileEntry.Builder builder() {
+    return new DependencyFileEntry.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link DependencyFileEntry DependencyFileEntry}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_PATH_TO_FILE = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable Path pathToFile;
+    private @Nullable Path pathWithinArchive;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code DependencyFileEntry} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(DependencyFileEntry instance) {
+      return from((AbstractDependencyFileEntry) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractDependencyFileEntry} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractDependencyFileEntry instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setPathToFile(instance.pathToFile());
+      Optional<Path> pathWithinArchiveOptional = instance.pathWithinArchive();
+      if (pathWithinArchiveOptional.isPresent()) {
+        setPathWithinArchive(pathWithinArchiveOptional);
+      }
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractDependencyFileEntry#pathToFile() pathToFile} attribute.
+     * @param pathToFile The value for pathToFile 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    @JsonProperty
+    public final Builder setPathToFile(Path pathToFile) {
+      this.pathToFile = Preconditions.checkNotNull(pathToFile, "pathToFile");
+      initBits &= ~INIT_BIT_PATH_TO_FILE;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractDependencyFileEntry#pathWithinArchive() pathWithinArchive} to pathWithinArchive.
+     * @param pathWithinArchive The value for pathWithinArchive
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setPathWithinArchive(Path pathWithinArchive) {
+      this.pathWithinArchive = Preconditions.checkNotNull(pathWithinArchive, "pathWithinArchive");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link AbstractDependencyFileEntry#pathWithinArchive() pathWithinArchive} to pathWithinArchive.
+     * @param pathWithinArchive The value for pathWithinArchive
+     * @return {@code this} builder for use in a chained invocation
+     */
+    @JsonProperty
+    public final Builder setPathWithinArchive(Optional<Path> pathWithinArchive) {
+      this.pathWithinArchive = pathWithinArchive.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link DependencyFileEntry DependencyFileEntry}.
+     * @return An immutable instance of DependencyFileEntry
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public DependencyFileEntry build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return DependencyFileEntry.validate(new DependencyFileEntry(null, pathToFile, pathWithinArchive));
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_PATH_TO_FILE) != 0) attributes.add("pathToFile");
+      return "Cannot build DependencyFileEntry, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.facebook.buck.rules.macros;
+
+import com.facebook.buck.model.BuildTarget;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractMavenCoordinatesMacro}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code MavenCoordinatesMacro.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractMavenCoordinatesMacro"})
+@Immutable
+public final class MavenCoordinatesMacro extends AbstractMavenCoordinatesMacro {
+  private final BuildTarget target;
+
+  private MavenCoordinatesMacro(BuildTarget target) {
+    this.target = Preconditions.checkNotNull(target, "target");
+  }
+
+  private MavenCoordinatesMacro(MavenCoordinatesMacro original, BuildTarget target) {
+    this.target = target;
+  }
+
+  /**
+   * @return The value of the {@code target} attribute
+   */
+  @Override
+  public BuildTarget getTarget() {
+    return target;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractMavenCoordinatesMacro#getTarget() target} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for target
+   * @return A modified copy of the {@code this} object
+   */
+  public final MavenCoordinatesMacro withTarget(BuildTarget value) {
+    if (this.target == value) return this;
+    BuildTarget newValue = Preconditions.checkNotNull(value, "target");
+    return new MavenCoordinatesMacro(this, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code MavenCoordinatesMacro} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof MavenCoordinatesMacro
+        && equalTo((MavenCoordinatesMacro) another);
+  }
+
+  private boolean equalTo(MavenCoordinatesMacro another) {
+    return target.equals(another.target);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code target}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + target.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code MavenCoordinatesMacro} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("MavenCoordinatesMacro")
+        .omitNullValues()
+        .add("target", target)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code MavenCoordinatesMacro} instance.
+   * @param target The value for the {@code target} attribute
+   * @return An immutable MavenCoordinatesMacro instance
+   */
+  public static MavenCoordinatesMacro of(BuildTarget target) {
+    return new MavenCoordinatesMacro(target);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractMavenCoordinatesMacro} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable MavenCoordinatesMacro instance
+   */
+  static MavenCoordinatesMacro copyOf(AbstractMavenCoordinatesMacro instance) {
+    if (instance instanceof MavenCoordinatesMacro) {
+      return (MavenCoordinatesMacro) instance;
+    }
+    return MavenCoordinatesMacro.of(instance.getTarget());
+  }
+}
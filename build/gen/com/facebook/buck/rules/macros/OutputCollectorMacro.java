@@ -0,0 +1,195 @@
+package com.facebook.buck.rules.macros;
+
+import com.facebook.buck.model.BuildTarget;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractOutputCollectorMacro}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code OutputCollectorMacro.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractOutputCollectorMacro"})
+@Immutable
+public final class OutputCollectorMacro extends AbstractOutputCollectorMacro {
+  private final String type;
+  private final String filename;
+  private final ImmutableList<BuildTarget> targets;
+
+  private OutputCollectorMacro(
+      String type,
+      String filename,
+      Iterable<? extends BuildTarget> targets) {
+    this.type = Preconditions.checkNotNull(type, "type");
+    this.filename = Preconditions.checkNotNull(filename, "filename");
+    this.targets = ImmutableList.copyOf(targets);
+  }
+
+  private OutputCollectorMacro(
+      OutputCollectorMacro original,
+      String type,
+      String filename,
+      ImmutableList<BuildTarget> targets) {
+    this.type = type;
+    this.filename = filename;
+    this.targets = targets;
+  }
+
+  /**
+   * @return The value of the {@code type} attribute
+   */
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * @return The value of the {@code filename} attribute
+   */
+  @Override
+  public String getFilename() {
+    return filename;
+  }
+
+  /**
+   * @return The value of the {@code targets} attribute
+   */
+  @Override
+  public ImmutableList<BuildTarget> getTargets() {
+    return targets;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractOutputCollectorMacro#getType() type} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for type
+   * @return A modified copy of the {@code this} object
+   */
+  public final OutputCollectorMacro withType(String value) {
+    if (this.type.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "type");
+    return new OutputCollectorMacro(this, newValue, this.filename, this.targets);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractOutputCollectorMacro#getFilename() filename} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for filename
+   * @return A modified copy of the {@code this} object
+   */
+  public final OutputCollectorMacro withFilename(String value) {
+    if (this.filename.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "filename");
+    return new OutputCollectorMacro(this, this.type, newValue, this.targets);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractOutputCollectorMacro#getTargets() targets}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final OutputCollectorMacro withTargets(BuildTarget... elements) {
+    ImmutableList<BuildTarget> newValue = ImmutableList.copyOf(elements);
+    return new OutputCollectorMacro(this, this.type, this.filename, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractOutputCollectorMacro#getTargets() targets}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of targets elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final OutputCollectorMacro withTargets(Iterable<? extends BuildTarget> elements) {
+    if (this.targets == elements) return this;
+    ImmutableList<BuildTarget> newValue = ImmutableList.copyOf(elements);
+    return new OutputCollectorMacro(this, this.type, this.filename, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code OutputCollectorMacro} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof OutputCollectorMacro
+        && equalTo((OutputCollectorMacro) another);
+  }
+
+  private boolean equalTo(OutputCollectorMacro another) {
+    return type.equals(another.type)
+        && filename.equals(another.filename)
+        && targets.equals(another.targets);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code type}, {@code filename}, {@code targets}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + type.hashCode();
+    h = h * 17 + filename.hashCode();
+    h = h * 17 + targets.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code OutputCollectorMacro} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("OutputCollectorMacro")
+        .omitNullValues()
+        .add("type", type)
+        .add("filename", filename)
+        .add("targets", targets)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code OutputCollectorMacro} instance.
+   * @param type The value for the {@code type} attribute
+   * @param filename The value for the {@code filename} attribute
+   * @param targets The value for the {@code targets} attribute
+   * @return An immutable OutputCollectorMacro instance
+   */
+  public static OutputCollectorMacro of(String type, String filename, ImmutableList<BuildTarget> targets) {
+    return of(type, filename, (Iterable<? extends BuildTarget>) targets);
+  }
+
+  /**
+   * Construct a new immutable {@code OutputCollectorMacro} instance.
+   * @param type The value for the {@code type} attribute
+   * @param filename The value for the {@code filename} attribute
+   * @param targets The value for the {@code targets} attribute
+   * @return An immutable OutputCollectorMacro instance
+   */
+  public static OutputCollectorMacro of(String type, String filename, Iterable<? extends BuildTarget> targets) {
+    return new OutputCollectorMacro(type, filename, targets);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractOutputCollectorMacro} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable OutputCollectorMacro instance
+   */
+  static OutputCollectorMacro copyOf(AbstractOutputCollectorMacro instance) {
+    if (instance instanceof OutputCollectorMacro) {
+      return (OutputCollectorMacro) instance;
+    }
+    return OutputCollectorMacro.of(instance.getType(), instance.getFilename(), instance.getTargets());
+  }
+}
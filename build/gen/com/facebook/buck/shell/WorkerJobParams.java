@@ -0,0 +1,484 @@
+package com.facebook.buck.shell;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractWorkerJobParams}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code WorkerJobParams.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractWorkerJobParams"})
+@Immutable
+public final class WorkerJobParams implements AbstractWorkerJobParams {
+  private final Path tempDir;
+  private final ImmutableList<String> startupCommand;
+  private final String startupArgs;
+  private final ImmutableMap<String, String> startupEnvironment;
+  private final String jobArgs;
+  private final int maxWorkers;
+  private final @Nullable String persistentWorkerKey;
+  private final @Nullable HashCode workerHash;
+
+  private WorkerJobParams(
+      Path tempDir,
+      Iterable<String> startupCommand,
+      String startupArgs,
+      Map<String, ? extends String> startupEnvironment,
+      String jobArgs,
+      int maxWorkers,
+      Optional<String> persistentWorkerKey,
+      Optional<HashCode> workerHash) {
+    this.tempDir = Preconditions.checkNotNull(tempDir, "tempDir");
+    this.startupCommand = ImmutableList.copyOf(startupCommand);
+    this.startupArgs = Preconditions.checkNotNull(startupArgs, "startupArgs");
+    this.startupEnvironment = ImmutableMap.copyOf(startupEnvironment);
+    this.jobArgs = Preconditions.checkNotNull(jobArgs, "jobArgs");
+    this.maxWorkers = maxWorkers;
+    this.persistentWorkerKey = persistentWorkerKey.orElse(null);
+    this.workerHash = workerHash.orElse(null);
+  }
+
+  private WorkerJobParams(
+      WorkerJobParams original,
+      Path tempDir,
+      ImmutableList<String> startupCommand,
+      String startupArgs,
+      ImmutableMap<String, String> startupEnvironment,
+      String jobArgs,
+      int maxWorkers,
+      @Nullable String persistentWorkerKey,
+      @Nullable HashCode workerHash) {
+    this.tempDir = tempDir;
+    this.startupCommand = startupCommand;
+    this.startupArgs = startupArgs;
+    this.startupEnvironment = startupEnvironment;
+    this.jobArgs = jobArgs;
+    this.maxWorkers = maxWorkers;
+    this.persistentWorkerKey = persistentWorkerKey;
+    this.workerHash = workerHash;
+  }
+
+  /**
+   * Temp folder location.
+   */
+  @Override
+  public Path getTempDir() {
+    return tempDir;
+  }
+
+  /**
+   * Command that is used to start the worker job, e.g. "my_hashing_tool". It is expected that this
+   * tool will be able to act as a worker process (communicate using specific protocol, accept jobs,
+   * etc.)
+   */
+  @Override
+  public ImmutableList<String> getStartupCommand() {
+    return startupCommand;
+  }
+
+  /**
+   * All args combined into single string and separated with a white space, e.g. if tool is expected
+   * to compute hashes on the fly you may pass something like "--compute-hashes".
+   * This string will be escaped for you using Escaper#SHELL_ESCAPER.
+   */
+  @Override
+  public String getStartupArgs() {
+    return startupArgs;
+  }
+
+  /**
+   * Environment that will be used to start the worker tool.
+   */
+  @Override
+  public ImmutableMap<String, String> getStartupEnvironment() {
+    return startupEnvironment;
+  }
+
+  /**
+   * The arguments of the actual job once tool has started and ready to accept jobs. For example,
+   * "--hash-file /path/to/file".
+   */
+  @Override
+  public String getJobArgs() {
+    return jobArgs;
+  }
+
+  /**
+   * Maximum number of tools that pool can have.
+   */
+  @Override
+  public int getMaxWorkers() {
+    return maxWorkers;
+  }
+
+  /**
+   * If this value is set and if the current invocation allows to have persisted worker pools
+   * (buck is running as daemon), it will be used to obtain the instance of the persisted worker
+   * process pool.
+   * If this value is absent, then key will be automatically computed based on the startup command
+   * and startup arguments.
+   * Note: If you set this value then you must set worker hash value below as well.
+   */
+  @Override
+  public Optional<String> getPersistentWorkerKey() {
+    return Optional.ofNullable(persistentWorkerKey);
+  }
+
+  /**
+   * Hash to identify the specific worker pool and kind of a mechanism for invalidating existing
+   * pools.
+   * If this value for the given persistent worker key changes, old pool will be destroyed and
+   * the new pool will be recreated.
+   */
+  @Override
+  public Optional<HashCode> getWorkerHash() {
+    return Optional.ofNullable(workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractWorkerJobParams#getTempDir() tempDir} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for tempDir
+   * @return A modified copy of the {@code this} object
+   */
+  public final WorkerJobParams withTempDir(Path value) {
+    if (this.tempDir == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "tempDir");
+    return new WorkerJobParams(
+        this,
+        newValue,
+        this.startupCommand,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractWorkerJobParams#getStartupCommand() startupCommand}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final WorkerJobParams withStartupCommand(String... elements) {
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        newValue,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractWorkerJobParams#getStartupCommand() startupCommand}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of startupCommand elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final WorkerJobParams withStartupCommand(Iterable<String> elements) {
+    if (this.startupCommand == elements) return this;
+    ImmutableList<String> newValue = ImmutableList.copyOf(elements);
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        newValue,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractWorkerJobParams#getStartupArgs() startupArgs} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for startupArgs
+   * @return A modified copy of the {@code this} object
+   */
+  public final WorkerJobParams withStartupArgs(String value) {
+    if (this.startupArgs.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "startupArgs");
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        newValue,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by replacing the {@link AbstractWorkerJobParams#getStartupEnvironment() startupEnvironment} map with the specified map.
+   * Nulls are not permitted as keys or values.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param entries The entries to be added to the startupEnvironment map
+   * @return A modified copy of {@code this} object
+   */
+  public final WorkerJobParams withStartupEnvironment(Map<String, ? extends String> entries) {
+    if (this.startupEnvironment == entries) return this;
+    ImmutableMap<String, String> newValue = ImmutableMap.copyOf(entries);
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        this.startupArgs,
+        newValue,
+        this.jobArgs,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractWorkerJobParams#getJobArgs() jobArgs} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for jobArgs
+   * @return A modified copy of the {@code this} object
+   */
+  public final WorkerJobParams withJobArgs(String value) {
+    if (this.jobArgs.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "jobArgs");
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        this.startupArgs,
+        this.startupEnvironment,
+        newValue,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractWorkerJobParams#getMaxWorkers() maxWorkers} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for maxWorkers
+   * @return A modified copy of the {@code this} object
+   */
+  public final WorkerJobParams withMaxWorkers(int value) {
+    if (this.maxWorkers == value) return this;
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        value,
+        this.persistentWorkerKey,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractWorkerJobParams#getPersistentWorkerKey() persistentWorkerKey} attribute.
+   * @param value The value for persistentWorkerKey
+   * @return A modified copy of {@code this} object
+   */
+  public final WorkerJobParams withPersistentWorkerKey(String value) {
+    @Nullable String newValue = Preconditions.checkNotNull(value, "persistentWorkerKey");
+    if (Objects.equal(this.persistentWorkerKey, newValue)) return this;
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        newValue,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractWorkerJobParams#getPersistentWorkerKey() persistentWorkerKey} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for persistentWorkerKey
+   * @return A modified copy of {@code this} object
+   */
+  public final WorkerJobParams withPersistentWorkerKey(Optional<String> optional) {
+    @Nullable String value = optional.orElse(null);
+    if (Objects.equal(this.persistentWorkerKey, value)) return this;
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        value,
+        this.workerHash);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link AbstractWorkerJobParams#getWorkerHash() workerHash} attribute.
+   * @param value The value for workerHash
+   * @return A modified copy of {@code this} object
+   */
+  public final WorkerJobParams withWorkerHash(HashCode value) {
+    @Nullable HashCode newValue = Preconditions.checkNotNull(value, "workerHash");
+    if (this.workerHash == newValue) return this;
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link AbstractWorkerJobParams#getWorkerHash() workerHash} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for workerHash
+   * @return A modified copy of {@code this} object
+   */
+  public final WorkerJobParams withWorkerHash(Optional<HashCode> optional) {
+    @Nullable HashCode value = optional.orElse(null);
+    if (this.workerHash == value) return this;
+    return new WorkerJobParams(
+        this,
+        this.tempDir,
+        this.startupCommand,
+        this.startupArgs,
+        this.startupEnvironment,
+        this.jobArgs,
+        this.maxWorkers,
+        this.persistentWorkerKey,
+        value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code WorkerJobParams} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof WorkerJobParams
+        && equalTo((WorkerJobParams) another);
+  }
+
+  private boolean equalTo(WorkerJobParams another) {
+    return tempDir.equals(another.tempDir)
+        && startupCommand.equals(another.startupCommand)
+        && startupArgs.equals(another.startupArgs)
+        && startupEnvironment.equals(another.startupEnvironment)
+        && jobArgs.equals(another.jobArgs)
+        && maxWorkers == another.maxWorkers
+        && Objects.equal(persistentWorkerKey, another.persistentWorkerKey)
+        && Objects.equal(workerHash, another.workerHash);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code tempDir}, {@code startupCommand}, {@code startupArgs}, {@code startupEnvironment}, {@code jobArgs}, {@code maxWorkers}, {@code persistentWorkerKey}, {@code workerHash}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + tempDir.hashCode();
+    h = h * 17 + startupCommand.hashCode();
+    h = h * 17 + startupArgs.hashCode();
+    h = h * 17 + startupEnvironment.hashCode();
+    h = h * 17 + jobArgs.hashCode();
+    h = h * 17 + maxWorkers;
+    h = h * 17 + Objects.hashCode(persistentWorkerKey);
+    h = h * 17 + Objects.hashCode(workerHash);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code WorkerJobParams} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("WorkerJobParams")
+        .omitNullValues()
+        .add("tempDir", tempDir)
+        .add("startupCommand", startupCommand)
+        .add("startupArgs", startupArgs)
+        .add("startupEnvironment", startupEnvironment)
+        .add("jobArgs", jobArgs)
+        .add("maxWorkers", maxWorkers)
+        .add("persistentWorkerKey", persistentWorkerKey)
+        .add("workerHash", workerHash)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code WorkerJobParams} instance.
+   * @param tempDir The value for the {@code tempDir} attribute
+   * @param startupCommand The value for the {@code startupCommand} attribute
+   * @param startupArgs The value for the {@code startupArgs} attribute
+   * @param startupEnvironment The value for the {@code startupEnvironment} attribute
+   * @param jobArgs The value for the {@code jobArgs} attribute
+   * @param maxWorkers The value for the {@code maxWorkers} attribute
+   * @param persistentWorkerKey The value for the {@code persistentWorkerKey} attribute
+   * @param workerHash The value for the {@code workerHash} attribute
+   * @return An immutable WorkerJobParams instance
+   */
+  public static WorkerJobParams of(Path tempDir, ImmutableList<String> startupCommand, String startupArgs, ImmutableMap<String, String> startupEnvironment, String jobArgs, int maxWorkers, Optional<String> persistentWorkerKey, Optional<HashCode> workerHash) {
+    return of(tempDir, (Iterable<String>) startupCommand, startupArgs, startupEnvironment, jobArgs, maxWorkers, persistentWorkerKey, workerHash);
+  }
+
+  /**
+   * Construct a new immutable {@code WorkerJobParams} instance.
+   * @param tempDir The value for the {@code tempDir} attribute
+   * @param startupCommand The value for the {@code startupCommand} attribute
+   * @param startupArgs The value for the {@code startupArgs} attribute
+   * @param startupEnvironment The value for the {@code startupEnvironment} attribute
+   * @param jobArgs The value for the {@code jobArgs} attribute
+   * @param maxWorkers The value for the {@code maxWorkers} attribute
+   * @param persistentWorkerKey The value for the {@code persistentWorkerKey} attribute
+   * @param workerHash The value for the {@code workerHash} attribute
+   * @return An immutable WorkerJobParams instance
+   */
+  public static WorkerJobParams of(Path tempDir, Iterable<String> startupCommand, String startupArgs, Map<String, ? extends String> startupEnvironment, String jobArgs, int maxWorkers, Optional<String> persistentWorkerKey, Optional<HashCode> workerHash) {
+    return new WorkerJobParams(tempDir, startupCommand, startupArgs, startupEnvironment, jobArgs, maxWorkers, persistentWorkerKey, workerHash);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractWorkerJobParams} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable WorkerJobParams instance
+   */
+  static WorkerJobParams copyOf(AbstractWorkerJobParams instance) {
+    if (instance instanceof WorkerJobParams) {
+      return (WorkerJobParams) instance;
+    }
+    return WorkerJobParams.of(instance.getTempDir(), instance.getStartupCommand(), instance.getStartupArgs(), instance.getStartupEnvironment(), instance.getJobArgs(), instance.getMaxWorkers(), instance.getPersistentWorkerKey(), instance.getWorkerHash());
+  }
+}
@@ -0,0 +1,371 @@
+package com.facebook.buck.slb;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code LoadBalancedServiceEventData.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData"})
+@Immutable
+public final class LoadBalancedServiceEventData
+    implements LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData {
+  private final URI server;
+  private final @Nullable Exception exception;
+  private final @Nullable Long requestSizeBytes;
+  private final @Nullable Long responseSizeBytes;
+
+  private LoadBalancedServiceEventData(
+      URI server,
+      @Nullable Exception exception,
+      @Nullable Long requestSizeBytes,
+      @Nullable Long responseSizeBytes) {
+    this.server = server;
+    this.exception = exception;
+    this.requestSizeBytes = requestSizeBytes;
+    this.responseSizeBytes = responseSizeBytes;
+  }
+
+  /**
+   * @return The value of the {@code server} attribute
+   */
+  @Override
+  public URI getServer() {
+    return server;
+  }
+
+  /**
+   * @return The value of the {@code exception} attribute
+   */
+  @Override
+  public Optional<Exception> getException() {
+    return Optional.ofNullable(exception);
+  }
+
+  /**
+   * @return The value of the {@code requestSizeBytes} attribute
+   */
+  @Override
+  public Optional<Long> getRequestSizeBytes() {
+    return Optional.ofNullable(requestSizeBytes);
+  }
+
+  /**
+   * @return The value of the {@code responseSizeBytes} attribute
+   */
+  @Override
+  public Optional<Long> getResponseSizeBytes() {
+    return Optional.ofNullable(responseSizeBytes);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getServer() server} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for server
+   * @return A modified copy of the {@code this} object
+   */
+  public final LoadBalancedServiceEventData withServer(URI value) {
+    if (this.server == value) return this;
+    URI newValue = Preconditions.checkNotNull(value, "server");
+    return new LoadBalancedServiceEventData(newValue, this.exception, this.requestSizeBytes, this.responseSizeBytes);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getException() exception} attribute.
+   * @param value The value for exception
+   * @return A modified copy of {@code this} object
+   */
+  public final LoadBalancedServiceEventData withException(Exception value) {
+    @Nullable Exception newValue = Preconditions.checkNotNull(value, "exception");
+    if (this.exception == newValue) return this;
+    return new LoadBalancedServiceEventData(this.server, newValue, this.requestSizeBytes, this.responseSizeBytes);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getException() exception} attribute.
+   * A shallow reference equality check is used on unboxed optional value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for exception
+   * @return A modified copy of {@code this} object
+   */
+  public final LoadBalancedServiceEventData withException(Optional<Exception> optional) {
+    @Nullable Exception value = optional.orElse(null);
+    if (this.exception == value) return this;
+    return new LoadBalancedServiceEventData(this.server, value, this.requestSizeBytes, this.responseSizeBytes);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getRequestSizeBytes() requestSizeBytes} attribute.
+   * @param value The value for requestSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final LoadBalancedServiceEventData withRequestSizeBytes(long value) {
+    @Nullable Long newValue = value;
+    if (Objects.equal(this.requestSizeBytes, newValue)) return this;
+    return new LoadBalancedServiceEventData(this.server, this.exception, newValue, this.responseSizeBytes);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getRequestSizeBytes() requestSizeBytes} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for requestSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final LoadBalancedServiceEventData withRequestSizeBytes(Optional<Long> optional) {
+    @Nullable Long value = optional.orElse(null);
+    if (Objects.equal(this.requestSizeBytes, value)) return this;
+    return new LoadBalancedServiceEventData(this.server, this.exception, value, this.responseSizeBytes);
+  }
+
+  /**
+   * Copy the current immutable object by setting a <i>present</i> value for the optional {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getResponseSizeBytes() responseSizeBytes} attribute.
+   * @param value The value for responseSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final LoadBalancedServiceEventData withResponseSizeBytes(long value) {
+    @Nullable Long newValue = value;
+    if (Objects.equal(this.responseSizeBytes, newValue)) return this;
+    return new LoadBalancedServiceEventData(this.server, this.exception, this.requestSizeBytes, newValue);
+  }
+
+  /**
+   * Copy the current immutable object by setting an optional value for the {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getResponseSizeBytes() responseSizeBytes} attribute.
+   * An equality check is used on inner nullable value to prevent copying of the same value by returning {@code this}.
+   * @param optional A value for responseSizeBytes
+   * @return A modified copy of {@code this} object
+   */
+  public final LoadBalancedServiceEventData withResponseSizeBytes(Optional<Long> optional) {
+    @Nullable Long value = optional.orElse(null);
+    if (Objects.equal(this.responseSizeBytes, value)) return this;
+    return new LoadBalancedServiceEventData(this.server, this.exception, this.requestSizeBytes, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code LoadBalancedServiceEventData} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof LoadBalancedServiceEventData
+        && equalTo((LoadBalancedServiceEventData) another);
+  }
+
+  private boolean equalTo(LoadBalancedServiceEventData another) {
+    return server.equals(another.server)
+        && Objects.equal(exception, another.exception)
+        && Objects.equal(requestSizeBytes, another.requestSizeBytes)
+        && Objects.equal(responseSizeBytes, another.responseSizeBytes);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code server}, {@code exception}, {@code requestSizeBytes}, {@code responseSizeBytes}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + server.hashCode();
+    h = h * 17 + Objects.hashCode(exception);
+    h = h * 17 + Objects.hashCode(requestSizeBytes);
+    h = h * 17 + Objects.hashCode(responseSizeBytes);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code LoadBalancedServiceEventData} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("LoadBalancedServiceEventData")
+        .omitNullValues()
+        .add("server", server)
+        .add("exception", exception)
+        .add("requestSizeBytes", requestSizeBytes)
+        .add("responseSizeBytes", responseSizeBytes)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable LoadBalancedServiceEventData instance
+   */
+  static LoadBalancedServiceEventData copyOf(LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData instance) {
+    if (instance instanceof LoadBalancedServiceEventData) {
+      return (LoadBalancedServiceEventData) instance;
+    }
+    return LoadBalancedServiceEventData.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link LoadBalancedServiceEventData LoadBalancedServiceEventData}.
+   * @return A new LoadBalancedServiceEventData builder
+   */
+  public static LoadBalancedServiceEventData.Builder builder() {
+    return new LoadBalancedServiceEventData.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link LoadBalancedServiceEventData LoadBalancedServiceEventData}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_SERVER = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable URI server;
+    private @Nullable Exception exception;
+    private @Nullable Long requestSizeBytes;
+    private @Nullable Long responseSizeBytes;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code LoadBalancedServiceEventData} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(LoadBalancedServiceEventData instance) {
+      return from((LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractLoadBalancedServiceEventData} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setServer(instance.getServer());
+      Optional<Exception> exceptionOptional = instance.getException();
+      if (exceptionOptional.isPresent()) {
+        setException(exceptionOptional);
+      }
+      Optional<Long> requestSizeBytesOptional = instance.getRequestSizeBytes();
+      if (requestSizeBytesOptional.isPresent()) {
+        setRequestSizeBytes(requestSizeBytesOptional);
+      }
+      Optional<Long> responseSizeBytesOptional = instance.getResponseSizeBytes();
+      if (responseSizeBytesOptional.isPresent()) {
+        setResponseSizeBytes(responseSizeBytesOptional);
+      }
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getServer() server} attribute.
+     * @param server The value for server 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setServer(URI server) {
+      this.server = Preconditions.checkNotNull(server, "server");
+      initBits &= ~INIT_BIT_SERVER;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getException() exception} to exception.
+     * @param exception The value for exception
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setException(Exception exception) {
+      this.exception = Preconditions.checkNotNull(exception, "exception");
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getException() exception} to exception.
+     * @param exception The value for exception
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setException(Optional<Exception> exception) {
+      this.exception = exception.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getRequestSizeBytes() requestSizeBytes} to requestSizeBytes.
+     * @param requestSizeBytes The value for requestSizeBytes
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setRequestSizeBytes(long requestSizeBytes) {
+      this.requestSizeBytes = requestSizeBytes;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getRequestSizeBytes() requestSizeBytes} to requestSizeBytes.
+     * @param requestSizeBytes The value for requestSizeBytes
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setRequestSizeBytes(Optional<Long> requestSizeBytes) {
+      this.requestSizeBytes = requestSizeBytes.orElse(null);
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getResponseSizeBytes() responseSizeBytes} to responseSizeBytes.
+     * @param responseSizeBytes The value for responseSizeBytes
+     * @return {@code this} builder for chained invocation
+     */
+    public final Builder setResponseSizeBytes(long responseSizeBytes) {
+      this.responseSizeBytes = responseSizeBytes;
+      return this;
+    }
+
+    /**
+     * Initializes the optional value {@link LoadBalancedServiceEvent.AbstractLoadBalancedServiceEventData#getResponseSizeBytes() responseSizeBytes} to responseSizeBytes.
+     * @param responseSizeBytes The value for responseSizeBytes
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setResponseSizeBytes(Optional<Long> responseSizeBytes) {
+      this.responseSizeBytes = responseSizeBytes.orElse(null);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link LoadBalancedServiceEventData LoadBalancedServiceEventData}.
+     * @return An immutable instance of LoadBalancedServiceEventData
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public LoadBalancedServiceEventData build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new LoadBalancedServiceEventData(server, exception, requestSizeBytes, responseSizeBytes);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_SERVER) != 0) attributes.add("server");
+      return "Cannot build LoadBalancedServiceEventData, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.facebook.buck.slb;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractThriftOverHttpServiceConfig}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code ThriftOverHttpServiceConfig.builder()}.
+ * Use the static factory method to create immutable instances:
+ * {@code ThriftOverHttpServiceConfig.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractThriftOverHttpServiceConfig"})
+@Immutable
+public final class ThriftOverHttpServiceConfig
+    extends AbstractThriftOverHttpServiceConfig {
+  private final HttpService service;
+
+  private ThriftOverHttpServiceConfig(HttpService service) {
+    this.service = Preconditions.checkNotNull(service, "service");
+  }
+
+  private ThriftOverHttpServiceConfig(ThriftOverHttpServiceConfig original, HttpService service) {
+    this.service = service;
+  }
+
+  /**
+   * @return The value of the {@code service} attribute
+   */
+  @Override
+  public HttpService getService() {
+    return service;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractThriftOverHttpServiceConfig#getService() service} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for service
+   * @return A modified copy of the {@code this} object
+   */
+  public final ThriftOverHttpServiceConfig withService(HttpService value) {
+    if (this.service == value) return this;
+    HttpService newValue = Preconditions.checkNotNull(value, "service");
+    return new ThriftOverHttpServiceConfig(this, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ThriftOverHttpServiceConfig} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ThriftOverHttpServiceConfig
+        && equalTo((ThriftOverHttpServiceConfig) another);
+  }
+
+  private boolean equalTo(ThriftOverHttpServiceConfig another) {
+    return service.equals(another.service);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code service}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + service.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ThriftOverHttpServiceConfig} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ThriftOverHttpServiceConfig")
+        .omitNullValues()
+        .add("service", service)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ThriftOverHttpServiceConfig} instance.
+   * @param service The value for the {@code service} attribute
+   * @return An immutable ThriftOverHttpServiceConfig instance
+   */
+  public static ThriftOverHttpServiceConfig of(HttpService service) {
+    return new ThriftOverHttpServiceConfig(service);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractThriftOverHttpServiceConfig} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ThriftOverHttpServiceConfig instance
+   */
+  static ThriftOverHttpServiceConfig copyOf(AbstractThriftOverHttpServiceConfig instance) {
+    if (instance instanceof ThriftOverHttpServiceConfig) {
+      return (ThriftOverHttpServiceConfig) instance;
+    }
+    return ThriftOverHttpServiceConfig.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link ThriftOverHttpServiceConfig ThriftOverHttpServiceConfig}.
+   * @return A new ThriftOverHttpServiceConfig builder
+   */
+  public static ThriftOverHttpServiceConfig.Builder builder() {
+    return new ThriftOverHttpServiceConfig.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link ThriftOverHttpServiceConfig ThriftOverHttpServiceConfig}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_SERVICE = 0x1L;
+    private long initBits = 0x1L;
+
+    private @Nullable HttpService service;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code ThriftOverHttpServiceConfig} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(ThriftOverHttpServiceConfig instance) {
+      return from((AbstractThriftOverHttpServiceConfig) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractThriftOverHttpServiceConfig} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractThriftOverHttpServiceConfig instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setService(instance.getService());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractThriftOverHttpServiceConfig#getService() service} attribute.
+     * @param service The value for service 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setService(HttpService service) {
+      this.service = Preconditions.checkNotNull(service, "service");
+      initBits &= ~INIT_BIT_SERVICE;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link ThriftOverHttpServiceConfig ThriftOverHttpServiceConfig}.
+     * @return An immutable instance of ThriftOverHttpServiceConfig
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public ThriftOverHttpServiceConfig build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new ThriftOverHttpServiceConfig(null, service);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_SERVICE) != 0) attributes.add("service");
+      return "Cannot build ThriftOverHttpServiceConfig, some of required attributes are not set " + attributes;
+    }
+  }
+}
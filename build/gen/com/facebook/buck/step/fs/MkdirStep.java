@@ -0,0 +1,140 @@
+package com.facebook.buck.step.fs;
+
+import com.facebook.buck.io.ProjectFilesystem;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.nio.file.Path;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Command that runs equivalent command of {@code mkdir -p} on the specified directory.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractMkdirStep"})
+@Immutable
+public final class MkdirStep extends AbstractMkdirStep {
+  private final ProjectFilesystem filesystem;
+  private final Path absoluteOrRelativePath;
+
+  private MkdirStep(ProjectFilesystem filesystem, Path absoluteOrRelativePath) {
+    this.filesystem = Preconditions.checkNotNull(filesystem, "filesystem");
+    this.absoluteOrRelativePath = Preconditions.checkNotNull(absoluteOrRelativePath, "absoluteOrRelativePath");
+  }
+
+  private MkdirStep(
+      MkdirStep original,
+      ProjectFilesystem filesystem,
+      Path absoluteOrRelativePath) {
+    this.filesystem = filesystem;
+    this.absoluteOrRelativePath = absoluteOrRelativePath;
+  }
+
+  /**
+   * @return The value of the {@code filesystem} attribute
+   */
+  @Override
+  public ProjectFilesystem getFilesystem() {
+    return filesystem;
+  }
+
+  /**
+   * @return The value of the {@code absoluteOrRelativePath} attribute
+   */
+  @Override
+  public Path getAbsoluteOrRelativePath() {
+    return absoluteOrRelativePath;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractMkdirStep#getFilesystem() filesystem} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for filesystem
+   * @return A modified copy of the {@code this} object
+   */
+  public final MkdirStep withFilesystem(ProjectFilesystem value) {
+    if (this.filesystem == value) return this;
+    ProjectFilesystem newValue = Preconditions.checkNotNull(value, "filesystem");
+    return new MkdirStep(this, newValue, this.absoluteOrRelativePath);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractMkdirStep#getAbsoluteOrRelativePath() absoluteOrRelativePath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for absoluteOrRelativePath
+   * @return A modified copy of the {@code this} object
+   */
+  public final MkdirStep withAbsoluteOrRelativePath(Path value) {
+    if (this.absoluteOrRelativePath == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "absoluteOrRelativePath");
+    return new MkdirStep(this, this.filesystem, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code MkdirStep} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof MkdirStep
+        && equalTo((MkdirStep) another);
+  }
+
+  private boolean equalTo(MkdirStep another) {
+    return filesystem.equals(another.filesystem)
+        && absoluteOrRelativePath.equals(another.absoluteOrRelativePath);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code filesystem}, {@code absoluteOrRelativePath}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + filesystem.hashCode();
+    h = h * 17 + absoluteOrRelativePath.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code MkdirStep} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("MkdirStep")
+        .omitNullValues()
+        .add("filesystem", filesystem)
+        .add("absoluteOrRelativePath", absoluteOrRelativePath)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code MkdirStep} instance.
+   * @param filesystem The value for the {@code filesystem} attribute
+   * @param absoluteOrRelativePath The value for the {@code absoluteOrRelativePath} attribute
+   * @return An immutable MkdirStep instance
+   */
+  public static MkdirStep of(ProjectFilesystem filesystem, Path absoluteOrRelativePath) {
+    return new MkdirStep(filesystem, absoluteOrRelativePath);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractMkdirStep} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable MkdirStep instance
+   */
+  static MkdirStep copyOf(AbstractMkdirStep instance) {
+    if (instance instanceof MkdirStep) {
+      return (MkdirStep) instance;
+    }
+    return MkdirStep.of(instance.getFilesystem(), instance.getAbsoluteOrRelativePath());
+  }
+}
@@ -0,0 +1,170 @@
+package com.facebook.buck.step.fs;
+
+import com.facebook.buck.io.ProjectFilesystem;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Booleans;
+import java.nio.file.Path;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractRmStep}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code RmStep.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractRmStep"})
+@Immutable
+public final class RmStep extends AbstractRmStep {
+  private final ProjectFilesystem filesystem;
+  private final Path absoluteOrRelativePath;
+  private final boolean recursive;
+
+  private RmStep(ProjectFilesystem filesystem, Path absoluteOrRelativePath) {
+    this.filesystem = Preconditions.checkNotNull(filesystem, "filesystem");
+    this.absoluteOrRelativePath = Preconditions.checkNotNull(absoluteOrRelativePath, "absoluteOrRelativePath");
+    this.recursive = super.isRecursive();
+  }
+
+  private RmStep(
+      ProjectFilesystem filesystem,
+      Path absoluteOrRelativePath,
+      boolean recursive) {
+    this.filesystem = filesystem;
+    this.absoluteOrRelativePath = absoluteOrRelativePath;
+    this.recursive = recursive;
+  }
+
+  /**
+   * @return The value of the {@code filesystem} attribute
+   */
+  @Override
+  public ProjectFilesystem getFilesystem() {
+    return filesystem;
+  }
+
+  /**
+   * @return The value of the {@code absoluteOrRelativePath} attribute
+   */
+  @Override
+  public Path getAbsoluteOrRelativePath() {
+    return absoluteOrRelativePath;
+  }
+
+  /**
+   * @return The value of the {@code recursive} attribute
+   */
+  @Override
+  public boolean isRecursive() {
+    return recursive;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractRmStep#getFilesystem() filesystem} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for filesystem
+   * @return A modified copy of the {@code this} object
+   */
+  public final RmStep withFilesystem(ProjectFilesystem value) {
+    if (this.filesystem == value) return this;
+    ProjectFilesystem newValue = Preconditions.checkNotNull(value, "filesystem");
+    return new RmStep(newValue, this.absoluteOrRelativePath, this.recursive);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractRmStep#getAbsoluteOrRelativePath() absoluteOrRelativePath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for absoluteOrRelativePath
+   * @return A modified copy of the {@code this} object
+   */
+  public final RmStep withAbsoluteOrRelativePath(Path value) {
+    if (this.absoluteOrRelativePath == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "absoluteOrRelativePath");
+    return new RmStep(this.filesystem, newValue, this.recursive);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractRmStep#isRecursive() recursive} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for recursive
+   * @return A modified copy of the {@code this} object
+   */
+  public final RmStep withRecursive(boolean value) {
+    if (this.recursive == value) return this;
+    return new RmStep(this.filesystem, this.absoluteOrRelativePath, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code RmStep} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof RmStep
+        && equalTo((RmStep) another);
+  }
+
+  private boolean equalTo(RmStep another) {
+    return filesystem.equals(another.filesystem)
+        && absoluteOrRelativePath.equals(another.absoluteOrRelativePath)
+        && recursive == another.recursive;
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code filesystem}, {@code absoluteOrRelativePath}, {@code recursive}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + filesystem.hashCode();
+    h = h * 17 + absoluteOrRelativePath.hashCode();
+    h = h * 17 + Booleans.hashCode(recursive);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code RmStep} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("RmStep")
+        .omitNullValues()
+        .add("filesystem", filesystem)
+        .add("absoluteOrRelativePath", absoluteOrRelativePath)
+        .add("recursive", recursive)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code RmStep} instance.
+   * @param filesystem The value for the {@code filesystem} attribute
+   * @param absoluteOrRelativePath The value for the {@code absoluteOrRelativePath} attribute
+   * @return An immutable RmStep instance
+   */
+  public static RmStep of(ProjectFilesystem filesystem, Path absoluteOrRelativePath) {
+    return new RmStep(filesystem, absoluteOrRelativePath);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractRmStep} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable RmStep instance
+   */
+  static RmStep copyOf(AbstractRmStep instance) {
+    if (instance instanceof RmStep) {
+      return (RmStep) instance;
+    }
+    return RmStep.of(instance.getFilesystem(), instance.getAbsoluteOrRelativePath())
+        .withRecursive(instance.isRecursive());
+  }
+}
@@ -0,0 +1,379 @@
+package com.facebook.buck.swift;
+
+import com.facebook.buck.rules.Tool;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Interface describing a Swift toolchain and platform to build for.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractSwiftPlatform"})
+@Immutable
+public final class SwiftPlatform implements AbstractSwiftPlatform {
+  private final Tool swiftc;
+  private final Tool swiftStdlibTool;
+  private final ImmutableSet<Path> swiftRuntimePaths;
+  private final ImmutableSet<Path> swiftStaticRuntimePaths;
+
+  private SwiftPlatform(
+      Tool swiftc,
+      Tool swiftStdlibTool,
+      ImmutableSet<Path> swiftRuntimePaths,
+      ImmutableSet<Path> swiftStaticRuntimePaths) {
+    this.swiftc = swiftc;
+    this.swiftStdlibTool = swiftStdlibTool;
+    this.swiftRuntimePaths = swiftRuntimePaths;
+    this.swiftStaticRuntimePaths = swiftStaticRuntimePaths;
+  }
+
+  /**
+   * @return The value of the {@code swiftc} attribute
+   */
+  @Override
+  public Tool getSwiftc() {
+    return swiftc;
+  }
+
+  /**
+   * @return The value of the {@code swiftStdlibTool} attribute
+   */
+  @Override
+  public Tool getSwiftStdlibTool() {
+    return swiftStdlibTool;
+  }
+
+  /**
+   * @return The value of the {@code swiftRuntimePaths} attribute
+   */
+  @Override
+  public ImmutableSet<Path> getSwiftRuntimePaths() {
+    return swiftRuntimePaths;
+  }
+
+  /**
+   * @return The value of the {@code swiftStaticRuntimePaths} attribute
+   */
+  @Override
+  public ImmutableSet<Path> getSwiftStaticRuntimePaths() {
+    return swiftStaticRuntimePaths;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractSwiftPlatform#getSwiftc() swiftc} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for swiftc
+   * @return A modified copy of the {@code this} object
+   */
+  public final SwiftPlatform withSwiftc(Tool value) {
+    if (this.swiftc == value) return this;
+    Tool newValue = Preconditions.checkNotNull(value, "swiftc");
+    return new SwiftPlatform(newValue, this.swiftStdlibTool, this.swiftRuntimePaths, this.swiftStaticRuntimePaths);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractSwiftPlatform#getSwiftStdlibTool() swiftStdlibTool} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for swiftStdlibTool
+   * @return A modified copy of the {@code this} object
+   */
+  public final SwiftPlatform withSwiftStdlibTool(Tool value) {
+    if (this.swiftStdlibTool == value) return this;
+    Tool newValue = Preconditions.checkNotNull(value, "swiftStdlibTool");
+    return new SwiftPlatform(this.swiftc, newValue, this.swiftRuntimePaths, this.swiftStaticRuntimePaths);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractSwiftPlatform#getSwiftRuntimePaths() swiftRuntimePaths}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final SwiftPlatform withSwiftRuntimePaths(Path... elements) {
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new SwiftPlatform(this.swiftc, this.swiftStdlibTool, newValue, this.swiftStaticRuntimePaths);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractSwiftPlatform#getSwiftRuntimePaths() swiftRuntimePaths}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of swiftRuntimePaths elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final SwiftPlatform withSwiftRuntimePaths(Iterable<? extends Path> elements) {
+    if (this.swiftRuntimePaths == elements) return this;
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new SwiftPlatform(this.swiftc, this.swiftStdlibTool, newValue, this.swiftStaticRuntimePaths);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractSwiftPlatform#getSwiftStaticRuntimePaths() swiftStaticRuntimePaths}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final SwiftPlatform withSwiftStaticRuntimePaths(Path... elements) {
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new SwiftPlatform(this.swiftc, this.swiftStdlibTool, this.swiftRuntimePaths, newValue);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractSwiftPlatform#getSwiftStaticRuntimePaths() swiftStaticRuntimePaths}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of swiftStaticRuntimePaths elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final SwiftPlatform withSwiftStaticRuntimePaths(Iterable<? extends Path> elements) {
+    if (this.swiftStaticRuntimePaths == elements) return this;
+    ImmutableSet<Path> newValue = ImmutableSet.copyOf(elements);
+    return new SwiftPlatform(this.swiftc, this.swiftStdlibTool, this.swiftRuntimePaths, newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code SwiftPlatform} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof SwiftPlatform
+        && equalTo((SwiftPlatform) another);
+  }
+
+  private boolean equalTo(SwiftPlatform another) {
+    return swiftc.equals(another.swiftc)
+        && swiftStdlibTool.equals(another.swiftStdlibTool)
+        && swiftRuntimePaths.equals(another.swiftRuntimePaths)
+        && swiftStaticRuntimePaths.equals(another.swiftStaticRuntimePaths);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code swiftc}, {@code swiftStdlibTool}, {@code swiftRuntimePaths}, {@code swiftStaticRuntimePaths}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + swiftc.hashCode();
+    h = h * 17 + swiftStdlibTool.hashCode();
+    h = h * 17 + swiftRuntimePaths.hashCode();
+    h = h * 17 + swiftStaticRuntimePaths.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code SwiftPlatform} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("SwiftPlatform")
+        .omitNullValues()
+        .add("swiftc", swiftc)
+        .add("swiftStdlibTool", swiftStdlibTool)
+        .add("swiftRuntimePaths", swiftRuntimePaths)
+        .add("swiftStaticRuntimePaths", swiftStaticRuntimePaths)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractSwiftPlatform} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable SwiftPlatform instance
+   */
+  static SwiftPlatform copyOf(AbstractSwiftPlatform instance) {
+    if (instance instanceof SwiftPlatform) {
+      return (SwiftPlatform) instance;
+    }
+    return SwiftPlatform.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link SwiftPlatform SwiftPlatform}.
+   * @return A new SwiftPlatform builder
+   */
+  public static SwiftPlatform.Builder builder() {
+    return new SwiftPlatform.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link SwiftPlatform SwiftPlatform}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_SWIFTC = 0x1L;
+    private static final long INIT_BIT_SWIFT_STDLIB_TOOL = 0x2L;
+    private long initBits = 0x3L;
+
+    private @Nullable Tool swiftc;
+    private @Nullable Tool swiftStdlibTool;
+    private ImmutableSet.Builder<Path> swiftRuntimePaths = ImmutableSet.builder();
+    private ImmutableSet.Builder<Path> swiftStaticRuntimePaths = ImmutableSet.builder();
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code SwiftPlatform} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(SwiftPlatform instance) {
+      return from((AbstractSwiftPlatform) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractSwiftPlatform} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractSwiftPlatform instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setSwiftc(instance.getSwiftc());
+      setSwiftStdlibTool(instance.getSwiftStdlibTool());
+      addAllSwiftRuntimePaths(instance.getSwiftRuntimePaths());
+      addAllSwiftStaticRuntimePaths(instance.getSwiftStaticRuntimePaths());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractSwiftPlatform#getSwiftc() swiftc} attribute.
+     * @param swiftc The value for swiftc 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSwiftc(Tool swiftc) {
+      this.swiftc = Preconditions.checkNotNull(swiftc, "swiftc");
+      initBits &= ~INIT_BIT_SWIFTC;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractSwiftPlatform#getSwiftStdlibTool() swiftStdlibTool} attribute.
+     * @param swiftStdlibTool The value for swiftStdlibTool 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSwiftStdlibTool(Tool swiftStdlibTool) {
+      this.swiftStdlibTool = Preconditions.checkNotNull(swiftStdlibTool, "swiftStdlibTool");
+      initBits &= ~INIT_BIT_SWIFT_STDLIB_TOOL;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractSwiftPlatform#getSwiftRuntimePaths() swiftRuntimePaths} set.
+     * @param element A swiftRuntimePaths element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSwiftRuntimePaths(Path element) {
+      this.swiftRuntimePaths.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractSwiftPlatform#getSwiftRuntimePaths() swiftRuntimePaths} set.
+     * @param elements An array of swiftRuntimePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSwiftRuntimePaths(Path... elements) {
+      this.swiftRuntimePaths.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractSwiftPlatform#getSwiftRuntimePaths() swiftRuntimePaths} set.
+     * @param elements An iterable of swiftRuntimePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSwiftRuntimePaths(Iterable<? extends Path> elements) {
+      this.swiftRuntimePaths = ImmutableSet.builder();
+      return addAllSwiftRuntimePaths(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractSwiftPlatform#getSwiftRuntimePaths() swiftRuntimePaths} set.
+     * @param elements An iterable of swiftRuntimePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllSwiftRuntimePaths(Iterable<? extends Path> elements) {
+      this.swiftRuntimePaths.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractSwiftPlatform#getSwiftStaticRuntimePaths() swiftStaticRuntimePaths} set.
+     * @param element A swiftStaticRuntimePaths element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSwiftStaticRuntimePaths(Path element) {
+      this.swiftStaticRuntimePaths.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractSwiftPlatform#getSwiftStaticRuntimePaths() swiftStaticRuntimePaths} set.
+     * @param elements An array of swiftStaticRuntimePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addSwiftStaticRuntimePaths(Path... elements) {
+      this.swiftStaticRuntimePaths.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractSwiftPlatform#getSwiftStaticRuntimePaths() swiftStaticRuntimePaths} set.
+     * @param elements An iterable of swiftStaticRuntimePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setSwiftStaticRuntimePaths(Iterable<? extends Path> elements) {
+      this.swiftStaticRuntimePaths = ImmutableSet.builder();
+      return addAllSwiftStaticRuntimePaths(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractSwiftPlatform#getSwiftStaticRuntimePaths() swiftStaticRuntimePaths} set.
+     * @param elements An iterable of swiftStaticRuntimePaths elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllSwiftStaticRuntimePaths(Iterable<? extends Path> elements) {
+      this.swiftStaticRuntimePaths.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Builds a new {@link SwiftPlatform SwiftPlatform}.
+     * @return An immutable instance of SwiftPlatform
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public SwiftPlatform build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new SwiftPlatform(swiftc, swiftStdlibTool, swiftRuntimePaths.build(), swiftStaticRuntimePaths.build());
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_SWIFTC) != 0) attributes.add("swiftc");
+      if ((initBits & INIT_BIT_SWIFT_STDLIB_TOOL) != 0) attributes.add("swiftStdlibTool");
+      return "Cannot build SwiftPlatform, some of required attributes are not set " + attributes;
+    }
+  }
+}
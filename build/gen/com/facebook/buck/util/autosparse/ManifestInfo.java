@@ -0,0 +1,262 @@
+package com.facebook.buck.util.autosparse;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.EnumSet;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Track information on a file entry in a version control manifest.
+ * Currently only the hash value (opaque hex value, unique per revision of a file) and file flags
+ * (is it a link, executable flag set) are tracked.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractManifestInfo"})
+@Immutable
+public final class ManifestInfo extends AbstractManifestInfo {
+  private final String hash;
+  private final EnumSet<AbstractManifestInfo.FileFlags> flags;
+
+  private ManifestInfo(
+      String hash,
+      EnumSet<AbstractManifestInfo.FileFlags> flags) {
+    this.hash = Preconditions.checkNotNull(hash, "hash");
+    this.flags = Preconditions.checkNotNull(flags, "flags");
+  }
+
+  private ManifestInfo(ManifestInfo.Builder builder) {
+    this.hash = builder.hash;
+    this.flags = builder.flags;
+  }
+
+  /**
+   * @return The value of the {@code hash} attribute
+   */
+  @Override
+  public String getHash() {
+    return hash;
+  }
+
+  /**
+   * @return The value of the {@code flags} attribute
+   */
+  @Override
+  public EnumSet<AbstractManifestInfo.FileFlags> getFlags() {
+    return flags;
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ManifestInfo} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ManifestInfo
+        && equalTo((ManifestInfo) another);
+  }
+
+  private boolean equalTo(ManifestInfo another) {
+    return hash.equals(another.hash)
+        && flags.equals(another.flags);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code hash}, {@code flags}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + hash.hashCode();
+    h = h * 17 + flags.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ManifestInfo} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ManifestInfo")
+        .omitNullValues()
+        .add("hash", hash)
+        .add("flags", flags)
+        .toString();
+  }
+
+  private volatile long lazyInitBitmap;
+
+  private static final long EXECUTABLE_LAZY_INIT_BIT = 0x1L;
+
+  private boolean executable;
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Returns a lazily initialized value of the {@link AbstractManifestInfo#isExecutable() executable} attribute.
+   * Initialized once and only once and stored for subsequent access with proper synchronization.
+   * @return A lazily initialized value of the {@code l.name} attribute
+   */
+  @Override
+  public boolean isExecutable() {
+    if ((lazyInitBitmap & EXECUTABLE_LAZY_INIT_BIT) == 0) {
+      synchronized (this) {
+        if ((lazyInitBitmap & EXECUTABLE_LAZY_INIT_BIT) == 0) {
+          this.executable = super.isExecutable();
+          lazyInitBitmap |= EXECUTABLE_LAZY_INIT_BIT;
+        }
+      }
+    }
+    return executable;
+  }
+
+  private static final long LINK_LAZY_INIT_BIT = 0x2L;
+
+  private boolean link;
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Returns a lazily initialized value of the {@link AbstractManifestInfo#isLink() link} attribute.
+   * Initialized once and only once and stored for subsequent access with proper synchronization.
+   * @return A lazily initialized value of the {@code l.name} attribute
+   */
+  @Override
+  public boolean isLink() {
+    if ((lazyInitBitmap & LINK_LAZY_INIT_BIT) == 0) {
+      synchronized (this) {
+        if ((lazyInitBitmap & LINK_LAZY_INIT_BIT) == 0) {
+          this.link = super.isLink();
+          lazyInitBitmap |= LINK_LAZY_INIT_BIT;
+        }
+      }
+    }
+    return link;
+  }
+
+  private static final long MODE_LAZY_INIT_BIT = 0x4L;
+
+  private String mode;
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Returns a lazily initialized value of the {@link AbstractManifestInfo#getMode() mode} attribute.
+   * Initialized once and only once and stored for subsequent access with proper synchronization.
+   * @return A lazily initialized value of the {@code l.name} attribute
+   */
+  @Override
+  public String getMode() {
+    if ((lazyInitBitmap & MODE_LAZY_INIT_BIT) == 0) {
+      synchronized (this) {
+        if ((lazyInitBitmap & MODE_LAZY_INIT_BIT) == 0) {
+          this.mode = Preconditions.checkNotNull(super.getMode(), "mode");
+          lazyInitBitmap |= MODE_LAZY_INIT_BIT;
+        }
+      }
+    }
+    return mode;
+  }
+
+  /**
+   * Construct a new immutable {@code ManifestInfo} instance.
+   * @param hash The value for the {@code hash} attribute
+   * @param flags The value for the {@code flags} attribute
+   * @return An immutable ManifestInfo instance
+   */
+  public static ManifestInfo of(String hash, EnumSet<AbstractManifestInfo.FileFlags> flags) {
+    return new ManifestInfo(hash, flags);
+  }
+
+  /**
+   * Creates a builder for {@link ManifestInfo ManifestInfo}.
+   * @return A new ManifestInfo builder
+   */
+  public static ManifestInfo.Builder builder() {
+    return new ManifestInfo.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link ManifestInfo ManifestInfo}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_HASH = 0x1L;
+    private static final long INIT_BIT_FLAGS = 0x2L;
+    private long initBits = 0x3L;
+
+    private @Nullable String hash;
+    private @Nullable EnumSet<AbstractManifestInfo.FileFlags> flags;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code AbstractManifestInfo} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(AbstractManifestInfo instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      setHash(instance.getHash());
+      setFlags(instance.getFlags());
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractManifestInfo#getHash() hash} attribute.
+     * @param hash The value for hash 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setHash(String hash) {
+      this.hash = Preconditions.checkNotNull(hash, "hash");
+      initBits &= ~INIT_BIT_HASH;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractManifestInfo#getFlags() flags} attribute.
+     * @param flags The value for flags 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setFlags(EnumSet<AbstractManifestInfo.FileFlags> flags) {
+      this.flags = Preconditions.checkNotNull(flags, "flags");
+      initBits &= ~INIT_BIT_FLAGS;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link ManifestInfo ManifestInfo}.
+     * @return An immutable instance of ManifestInfo
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public ManifestInfo build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new ManifestInfo(this);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_HASH) != 0) attributes.add("hash");
+      if ((initBits & INIT_BIT_FLAGS) != 0) attributes.add("flags");
+      return "Cannot build ManifestInfo, some of required attributes are not set " + attributes;
+    }
+  }
+}
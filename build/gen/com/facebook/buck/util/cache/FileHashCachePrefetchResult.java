@@ -0,0 +1,132 @@
+package com.facebook.buck.util.cache;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.primitives.Longs;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link FileHashCache.AbstractFileHashCachePrefetchResult}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code FileHashCachePrefetchResult.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "FileHashCache.AbstractFileHashCachePrefetchResult"})
+@Immutable
+public final class FileHashCachePrefetchResult
+    implements FileHashCache.AbstractFileHashCachePrefetchResult {
+  private final int filesHashed;
+  private final long bytesHashed;
+
+  private FileHashCachePrefetchResult(int filesHashed, long bytesHashed) {
+    this.filesHashed = filesHashed;
+    this.bytesHashed = bytesHashed;
+  }
+
+  /**
+   * @return The value of the {@code filesHashed} attribute
+   */
+  @Override
+  public int getFilesHashed() {
+    return filesHashed;
+  }
+
+  /**
+   * @return The value of the {@code bytesHashed} attribute
+   */
+  @Override
+  public long getBytesHashed() {
+    return bytesHashed;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link FileHashCache.AbstractFileHashCachePrefetchResult#getFilesHashed() filesHashed} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for filesHashed
+   * @return A modified copy of the {@code this} object
+   */
+  public final FileHashCachePrefetchResult withFilesHashed(int value) {
+    if (this.filesHashed == value) return this;
+    return new FileHashCachePrefetchResult(value, this.bytesHashed);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link FileHashCache.AbstractFileHashCachePrefetchResult#getBytesHashed() bytesHashed} attribute.
+   * A value equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for bytesHashed
+   * @return A modified copy of the {@code this} object
+   */
+  public final FileHashCachePrefetchResult withBytesHashed(long value) {
+    if (this.bytesHashed == value) return this;
+    return new FileHashCachePrefetchResult(this.filesHashed, value);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code FileHashCachePrefetchResult} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof FileHashCachePrefetchResult
+        && equalTo((FileHashCachePrefetchResult) another);
+  }
+
+  private boolean equalTo(FileHashCachePrefetchResult another) {
+    return filesHashed == another.filesHashed
+        && bytesHashed == another.bytesHashed;
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code filesHashed}, {@code bytesHashed}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + filesHashed;
+    h = h * 17 + Longs.hashCode(bytesHashed);
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code FileHashCachePrefetchResult} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("FileHashCachePrefetchResult")
+        .omitNullValues()
+        .add("filesHashed", filesHashed)
+        .add("bytesHashed", bytesHashed)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code FileHashCachePrefetchResult} instance.
+   * @param filesHashed The value for the {@code filesHashed} attribute
+   * @param bytesHashed The value for the {@code bytesHashed} attribute
+   * @return An immutable FileHashCachePrefetchResult instance
+   */
+  public static FileHashCachePrefetchResult of(int filesHashed, long bytesHashed) {
+    return new FileHashCachePrefetchResult(filesHashed, bytesHashed);
+  }
+
+  /**
+   * Creates an immutable copy of a {@link FileHashCache.AbstractFileHashCachePrefetchResult} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable FileHashCachePrefetchResult instance
+   */
+  public static FileHashCachePrefetchResult copyOf(FileHashCache.AbstractFileHashCachePrefetchResult instance) {
+    if (instance instanceof FileHashCachePrefetchResult) {
+      return (FileHashCachePrefetchResult) instance;
+    }
+    return FileHashCachePrefetchResult.of(instance.getFilesHashed(), instance.getBytesHashed());
+  }
+}
@@ -0,0 +1,462 @@
+package com.facebook.buck.util.versioncontrol;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable implementation of {@link AbstractVersionControlStats}.
+ * <p>
+ * Use the builder to create immutable instances:
+ * {@code VersionControlStats.builder()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractVersionControlStats"})
+@Immutable
+public final class VersionControlStats
+    implements AbstractVersionControlStats {
+  private final ImmutableSet<String> pathsChangedInWorkingDirectory;
+  private final String currentRevisionId;
+  private final ImmutableSet<String> baseBookmarks;
+  private final String branchedFromMasterRevisionId;
+  private final Long branchedFromMasterTS;
+
+  private VersionControlStats(
+      ImmutableSet<String> pathsChangedInWorkingDirectory,
+      String currentRevisionId,
+      ImmutableSet<String> baseBookmarks,
+      String branchedFromMasterRevisionId,
+      Long branchedFromMasterTS) {
+    this.pathsChangedInWorkingDirectory = pathsChangedInWorkingDirectory;
+    this.currentRevisionId = currentRevisionId;
+    this.baseBookmarks = baseBookmarks;
+    this.branchedFromMasterRevisionId = branchedFromMasterRevisionId;
+    this.branchedFromMasterTS = branchedFromMasterTS;
+  }
+
+  /**
+   * @return The value of the {@code pathsChangedInWorkingDirectory} attribute
+   */
+  @Override
+  public ImmutableSet<String> getPathsChangedInWorkingDirectory() {
+    return pathsChangedInWorkingDirectory;
+  }
+
+  /**
+   * @return The value of the {@code currentRevisionId} attribute
+   */
+  @Override
+  public String getCurrentRevisionId() {
+    return currentRevisionId;
+  }
+
+  /**
+   * @return The value of the {@code baseBookmarks} attribute
+   */
+  @Override
+  public ImmutableSet<String> getBaseBookmarks() {
+    return baseBookmarks;
+  }
+
+  /**
+   * @return The value of the {@code branchedFromMasterRevisionId} attribute
+   */
+  @Override
+  public String getBranchedFromMasterRevisionId() {
+    return branchedFromMasterRevisionId;
+  }
+
+  /**
+   * @return The value of the {@code branchedFromMasterTS} attribute
+   */
+  @Override
+  public Long getBranchedFromMasterTS() {
+    return branchedFromMasterTS;
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractVersionControlStats#getPathsChangedInWorkingDirectory() pathsChangedInWorkingDirectory}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final VersionControlStats withPathsChangedInWorkingDirectory(String... elements) {
+    ImmutableSet<String> newValue = ImmutableSet.copyOf(elements);
+    return new VersionControlStats(
+        newValue,
+        this.currentRevisionId,
+        this.baseBookmarks,
+        this.branchedFromMasterRevisionId,
+        this.branchedFromMasterTS);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractVersionControlStats#getPathsChangedInWorkingDirectory() pathsChangedInWorkingDirectory}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of pathsChangedInWorkingDirectory elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final VersionControlStats withPathsChangedInWorkingDirectory(Iterable<String> elements) {
+    if (this.pathsChangedInWorkingDirectory == elements) return this;
+    ImmutableSet<String> newValue = ImmutableSet.copyOf(elements);
+    return new VersionControlStats(
+        newValue,
+        this.currentRevisionId,
+        this.baseBookmarks,
+        this.branchedFromMasterRevisionId,
+        this.branchedFromMasterTS);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractVersionControlStats#getCurrentRevisionId() currentRevisionId} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for currentRevisionId
+   * @return A modified copy of the {@code this} object
+   */
+  public final VersionControlStats withCurrentRevisionId(String value) {
+    if (this.currentRevisionId.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "currentRevisionId");
+    return new VersionControlStats(
+        this.pathsChangedInWorkingDirectory,
+        newValue,
+        this.baseBookmarks,
+        this.branchedFromMasterRevisionId,
+        this.branchedFromMasterTS);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractVersionControlStats#getBaseBookmarks() baseBookmarks}.
+   * @param elements The elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final VersionControlStats withBaseBookmarks(String... elements) {
+    ImmutableSet<String> newValue = ImmutableSet.copyOf(elements);
+    return new VersionControlStats(
+        this.pathsChangedInWorkingDirectory,
+        this.currentRevisionId,
+        newValue,
+        this.branchedFromMasterRevisionId,
+        this.branchedFromMasterTS);
+  }
+
+  /**
+   * Copy the current immutable object with elements that replace the content of {@link AbstractVersionControlStats#getBaseBookmarks() baseBookmarks}.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param elements An iterable of baseBookmarks elements to set
+   * @return A modified copy of {@code this} object
+   */
+  public final VersionControlStats withBaseBookmarks(Iterable<String> elements) {
+    if (this.baseBookmarks == elements) return this;
+    ImmutableSet<String> newValue = ImmutableSet.copyOf(elements);
+    return new VersionControlStats(
+        this.pathsChangedInWorkingDirectory,
+        this.currentRevisionId,
+        newValue,
+        this.branchedFromMasterRevisionId,
+        this.branchedFromMasterTS);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractVersionControlStats#getBranchedFromMasterRevisionId() branchedFromMasterRevisionId} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for branchedFromMasterRevisionId
+   * @return A modified copy of the {@code this} object
+   */
+  public final VersionControlStats withBranchedFromMasterRevisionId(String value) {
+    if (this.branchedFromMasterRevisionId.equals(value)) return this;
+    String newValue = Preconditions.checkNotNull(value, "branchedFromMasterRevisionId");
+    return new VersionControlStats(
+        this.pathsChangedInWorkingDirectory,
+        this.currentRevisionId,
+        this.baseBookmarks,
+        newValue,
+        this.branchedFromMasterTS);
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractVersionControlStats#getBranchedFromMasterTS() branchedFromMasterTS} attribute.
+   * An equals check used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for branchedFromMasterTS
+   * @return A modified copy of the {@code this} object
+   */
+  public final VersionControlStats withBranchedFromMasterTS(Long value) {
+    if (this.branchedFromMasterTS.equals(value)) return this;
+    Long newValue = Preconditions.checkNotNull(value, "branchedFromMasterTS");
+    return new VersionControlStats(
+        this.pathsChangedInWorkingDirectory,
+        this.currentRevisionId,
+        this.baseBookmarks,
+        this.branchedFromMasterRevisionId,
+        newValue);
+  }
+
+  /**
+   * This instance is equal to all instances of {@code VersionControlStats} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof VersionControlStats
+        && equalTo((VersionControlStats) another);
+  }
+
+  private boolean equalTo(VersionControlStats another) {
+    return pathsChangedInWorkingDirectory.equals(another.pathsChangedInWorkingDirectory)
+        && currentRevisionId.equals(another.currentRevisionId)
+        && baseBookmarks.equals(another.baseBookmarks)
+        && branchedFromMasterRevisionId.equals(another.branchedFromMasterRevisionId)
+        && branchedFromMasterTS.equals(another.branchedFromMasterTS);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code pathsChangedInWorkingDirectory}, {@code currentRevisionId}, {@code baseBookmarks}, {@code branchedFromMasterRevisionId}, {@code branchedFromMasterTS}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + pathsChangedInWorkingDirectory.hashCode();
+    h = h * 17 + currentRevisionId.hashCode();
+    h = h * 17 + baseBookmarks.hashCode();
+    h = h * 17 + branchedFromMasterRevisionId.hashCode();
+    h = h * 17 + branchedFromMasterTS.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code VersionControlStats} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("VersionControlStats")
+        .omitNullValues()
+        .add("pathsChangedInWorkingDirectory", pathsChangedInWorkingDirectory)
+        .add("currentRevisionId", currentRevisionId)
+        .add("baseBookmarks", baseBookmarks)
+        .add("branchedFromMasterRevisionId", branchedFromMasterRevisionId)
+        .add("branchedFromMasterTS", branchedFromMasterTS)
+        .toString();
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractVersionControlStats} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable VersionControlStats instance
+   */
+  static VersionControlStats copyOf(AbstractVersionControlStats instance) {
+    if (instance instanceof VersionControlStats) {
+      return (VersionControlStats) instance;
+    }
+    return VersionControlStats.builder()
+        .from(instance)
+        .build();
+  }
+
+  /**
+   * Creates a builder for {@link VersionControlStats VersionControlStats}.
+   * @return A new VersionControlStats builder
+   */
+  public static VersionControlStats.Builder builder() {
+    return new VersionControlStats.Builder();
+  }
+
+  /**
+   * Builds instances of type {@link VersionControlStats VersionControlStats}.
+   * Initialize attributes and then invoke the {@link #build()} method to create an
+   * immutable instance.
+   * <p><em>{@code Builder} is not thread-safe and generally should not be stored in a field or collection,
+   * but instead used immediately to create instances.</em>
+   */
+  @NotThreadSafe
+  public static final class Builder {
+    private static final long INIT_BIT_CURRENT_REVISION_ID = 0x1L;
+    private static final long INIT_BIT_BRANCHED_FROM_MASTER_REVISION_ID = 0x2L;
+    private static final long INIT_BIT_BRANCHED_FROM_MASTER_T_S = 0x4L;
+    private long initBits = 0x7L;
+
+    private ImmutableSet.Builder<String> pathsChangedInWorkingDirectory = ImmutableSet.builder();
+    private @Nullable String currentRevisionId;
+    private ImmutableSet.Builder<String> baseBookmarks = ImmutableSet.builder();
+    private @Nullable String branchedFromMasterRevisionId;
+    private @Nullable Long branchedFromMasterTS;
+
+    private Builder() {
+    }
+
+    /**
+     * Fill a builder with attribute values from the provided {@code VersionControlStats} instance.
+     * Regular attribute values will be replaced with those from the given instance.
+     * Absent optional values will not replace present values.
+     * Collection elements and entries will be added, not replaced.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder from(VersionControlStats instance) {
+      return from((AbstractVersionControlStats) instance);
+    }
+
+    /**
+     * Copy abstract value type {@code AbstractVersionControlStats} instance into builder.
+     * @param instance The instance from which to copy values
+     * @return {@code this} builder for use in a chained invocation
+     */
+    final Builder from(AbstractVersionControlStats instance) {
+      Preconditions.checkNotNull(instance, "instance");
+      addAllPathsChangedInWorkingDirectory(instance.getPathsChangedInWorkingDirectory());
+      setCurrentRevisionId(instance.getCurrentRevisionId());
+      addAllBaseBookmarks(instance.getBaseBookmarks());
+      setBranchedFromMasterRevisionId(instance.getBranchedFromMasterRevisionId());
+      setBranchedFromMasterTS(instance.getBranchedFromMasterTS());
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractVersionControlStats#getPathsChangedInWorkingDirectory() pathsChangedInWorkingDirectory} set.
+     * @param element A pathsChangedInWorkingDirectory element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addPathsChangedInWorkingDirectory(String element) {
+      this.pathsChangedInWorkingDirectory.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractVersionControlStats#getPathsChangedInWorkingDirectory() pathsChangedInWorkingDirectory} set.
+     * @param elements An array of pathsChangedInWorkingDirectory elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addPathsChangedInWorkingDirectory(String... elements) {
+      this.pathsChangedInWorkingDirectory.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractVersionControlStats#getPathsChangedInWorkingDirectory() pathsChangedInWorkingDirectory} set.
+     * @param elements An iterable of pathsChangedInWorkingDirectory elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setPathsChangedInWorkingDirectory(Iterable<String> elements) {
+      this.pathsChangedInWorkingDirectory = ImmutableSet.builder();
+      return addAllPathsChangedInWorkingDirectory(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractVersionControlStats#getPathsChangedInWorkingDirectory() pathsChangedInWorkingDirectory} set.
+     * @param elements An iterable of pathsChangedInWorkingDirectory elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllPathsChangedInWorkingDirectory(Iterable<String> elements) {
+      this.pathsChangedInWorkingDirectory.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractVersionControlStats#getCurrentRevisionId() currentRevisionId} attribute.
+     * @param currentRevisionId The value for currentRevisionId 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setCurrentRevisionId(String currentRevisionId) {
+      this.currentRevisionId = Preconditions.checkNotNull(currentRevisionId, "currentRevisionId");
+      initBits &= ~INIT_BIT_CURRENT_REVISION_ID;
+      return this;
+    }
+
+    /**
+     * Adds one element to {@link AbstractVersionControlStats#getBaseBookmarks() baseBookmarks} set.
+     * @param element A baseBookmarks element
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addBaseBookmarks(String element) {
+      this.baseBookmarks.add(element);
+      return this;
+    }
+
+    /**
+     * Adds elements to {@link AbstractVersionControlStats#getBaseBookmarks() baseBookmarks} set.
+     * @param elements An array of baseBookmarks elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addBaseBookmarks(String... elements) {
+      this.baseBookmarks.add(elements);
+      return this;
+    }
+
+    /**
+     * Sets or replaces all elements for {@link AbstractVersionControlStats#getBaseBookmarks() baseBookmarks} set.
+     * @param elements An iterable of baseBookmarks elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setBaseBookmarks(Iterable<String> elements) {
+      this.baseBookmarks = ImmutableSet.builder();
+      return addAllBaseBookmarks(elements);
+    }
+
+    /**
+     * Adds elements to {@link AbstractVersionControlStats#getBaseBookmarks() baseBookmarks} set.
+     * @param elements An iterable of baseBookmarks elements
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder addAllBaseBookmarks(Iterable<String> elements) {
+      this.baseBookmarks.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractVersionControlStats#getBranchedFromMasterRevisionId() branchedFromMasterRevisionId} attribute.
+     * @param branchedFromMasterRevisionId The value for branchedFromMasterRevisionId 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setBranchedFromMasterRevisionId(String branchedFromMasterRevisionId) {
+      this.branchedFromMasterRevisionId = Preconditions.checkNotNull(branchedFromMasterRevisionId, "branchedFromMasterRevisionId");
+      initBits &= ~INIT_BIT_BRANCHED_FROM_MASTER_REVISION_ID;
+      return this;
+    }
+
+    /**
+     * Initializes the value for the {@link AbstractVersionControlStats#getBranchedFromMasterTS() branchedFromMasterTS} attribute.
+     * @param branchedFromMasterTS The value for branchedFromMasterTS 
+     * @return {@code this} builder for use in a chained invocation
+     */
+    public final Builder setBranchedFromMasterTS(Long branchedFromMasterTS) {
+      this.branchedFromMasterTS = Preconditions.checkNotNull(branchedFromMasterTS, "branchedFromMasterTS");
+      initBits &= ~INIT_BIT_BRANCHED_FROM_MASTER_T_S;
+      return this;
+    }
+
+    /**
+     * Builds a new {@link VersionControlStats VersionControlStats}.
+     * @return An immutable instance of VersionControlStats
+     * @throws java.lang.IllegalStateException if any required attributes are missing
+     */
+    public VersionControlStats build() {
+      if (initBits != 0) {
+        throw new IllegalStateException(formatRequiredAttributesMessage());
+      }
+      return new VersionControlStats(
+          pathsChangedInWorkingDirectory.build(),
+          currentRevisionId,
+          baseBookmarks.build(),
+          branchedFromMasterRevisionId,
+          branchedFromMasterTS);
+    }
+
+    private String formatRequiredAttributesMessage() {
+      List<String> attributes = Lists.newArrayList();
+      if ((initBits & INIT_BIT_CURRENT_REVISION_ID) != 0) attributes.add("currentRevisionId");
+      if ((initBits & INIT_BIT_BRANCHED_FROM_MASTER_REVISION_ID) != 0) attributes.add("branchedFromMasterRevisionId");
+      if ((initBits & INIT_BIT_BRANCHED_FROM_MASTER_T_S) != 0) attributes.add("branchedFromMasterTS");
+      return "Cannot build VersionControlStats, some of required attributes are not set " + attributes;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.facebook.buck.zip;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.nio.file.Path;
+import javax.annotation.Generated;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable implementation of {@link AbstractZipScrubberStep}.
+ * <p>
+ * Use the static factory method to create immutable instances:
+ * {@code ZipScrubberStep.of()}.
+ */
+@SuppressWarnings({"all"})
+@ParametersAreNonnullByDefault
+@Generated({"Immutables.generator", "AbstractZipScrubberStep"})
+@Immutable
+public final class ZipScrubberStep extends AbstractZipScrubberStep {
+  private final Path zipAbsolutePath;
+
+  private ZipScrubberStep(Path zipAbsolutePath) {
+    this.zipAbsolutePath = Preconditions.checkNotNull(zipAbsolutePath, "zipAbsolutePath");
+  }
+
+  private ZipScrubberStep(ZipScrubberStep original, Path zipAbsolutePath) {
+    this.zipAbsolutePath = zipAbsolutePath;
+  }
+
+  /**
+   * @return The value of the {@code zipAbsolutePath} attribute
+   */
+  @Override
+  public Path getZipAbsolutePath() {
+    return zipAbsolutePath;
+  }
+
+  /**
+   * Copy the current immutable object by setting a value for the {@link AbstractZipScrubberStep#getZipAbsolutePath() zipAbsolutePath} attribute.
+   * A shallow reference equality check is used to prevent copying of the same value by returning {@code this}.
+   * @param value A new value for zipAbsolutePath
+   * @return A modified copy of the {@code this} object
+   */
+  public final ZipScrubberStep withZipAbsolutePath(Path value) {
+    if (this.zipAbsolutePath == value) return this;
+    Path newValue = Preconditions.checkNotNull(value, "zipAbsolutePath");
+    return validate(new ZipScrubberStep(this, newValue));
+  }
+
+  /**
+   * This instance is equal to all instances of {@code ZipScrubberStep} that have equal attribute values.
+   * @return {@code true} if {@code this} is equal to {@code another} instance
+   */
+  @Override
+  public boolean equals(@Nullable Object another) {
+    if (this == another) return true;
+    return another instanceof ZipScrubberStep
+        && equalTo((ZipScrubberStep) another);
+  }
+
+  private boolean equalTo(ZipScrubberStep another) {
+    return zipAbsolutePath.equals(another.zipAbsolutePath);
+  }
+
+  /**
+   * Computes a hash code from attributes: {@code zipAbsolutePath}.
+   * @return hashCode value
+   */
+  @Override
+  public int hashCode() {
+    int h = 31;
+    h = h * 17 + zipAbsolutePath.hashCode();
+    return h;
+  }
+
+  /**
+   * Prints the immutable value {@code ZipScrubberStep} with attribute values.
+   * @return A string representation of the value
+   */
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper("ZipScrubberStep")
+        .omitNullValues()
+        .add("zipAbsolutePath", zipAbsolutePath)
+        .toString();
+  }
+
+  /**
+   * Construct a new immutable {@code ZipScrubberStep} instance.
+   * @param zipAbsolutePath The value for the {@code zipAbsolutePath} attribute
+   * @return An immutable ZipScrubberStep instance
+   */
+  public static ZipScrubberStep of(Path zipAbsolutePath) {
+    return validate(new ZipScrubberStep(zipAbsolutePath));
+  }
+
+  private static ZipScrubberStep validate(ZipScrubberStep instance) {
+    instance.check();
+    return instance;
+  }
+
+  /**
+   * Creates an immutable copy of a {@link AbstractZipScrubberStep} value.
+   * Uses accessors to get values to initialize the new immutable instance.
+   * If an instance is already immutable, it is returned as is.
+   * @param instance The instance to copy
+   * @return A copied immutable ZipScrubberStep instance
+   */
+  static ZipScrubberStep copyOf(AbstractZipScrubberStep instance) {
+    if (instance instanceof ZipScrubberStep) {
+      return (ZipScrubberStep) instance;
+    }
+    return ZipScrubberStep.of(instance.getZipAbsolutePath());
+  }
+}
@@ -24,17 +24,27 @@ import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.log.Logger;
 import com.facebook.buck.rules.RuleKey;
 import com.facebook.buck.slb.HttpService;
+import com.facebook.buck.util.concurrent.MostExecutors;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 
+import javax.annotation.Nullable;
+
 public abstract class AbstractNetworkCache implements ArtifactCache {
 
   private static final Logger LOG = Logger.get(AbstractNetworkCache.class);
@@ -50,9 +60,14 @@ public abstract class AbstractNetworkCache implements ArtifactCache {
   private final ListeningExecutorService httpWriteExecutorService;
   private final String errorTextTemplate;
   private final Optional<Long> maxStoreSize;
+  private final int maxConcurrentFetches;
 
   private final Set<String> seenErrors = Sets.newConcurrentHashSet();
 
+  // Runs the requests of a multiFetch or multiContains, created on first use.
+  @Nullable
+  private ListeningExecutorService multiFetchExecutorService;
+
   public AbstractNetworkCache(NetworkCacheArgs args) {
     this.name = args.getCacheName();
     this.repository = args.getRepository();
@@ -65,6 +80,7 @@ public abstract class AbstractNetworkCache implements ArtifactCache {
     this.httpWriteExecutorService = args.getHttpWriteExecutorService();
     this.errorTextTemplate = args.getErrorTextTemplate();
     this.maxStoreSize = args.getMaxStoreSizeBytes();
+    this.maxConcurrentFetches = args.getMaxConcurrentFetches();
   }
 
   protected abstract CacheResult fetchImpl(
@@ -72,6 +88,12 @@ public abstract class AbstractNetworkCache implements ArtifactCache {
       LazyPath output,
       final HttpArtifactCacheEvent.Finished.Builder eventBuilder) throws IOException;
 
+  /**
+   * Checks whether the cache holds the artifact for the given rule key, without downloading it.
+   * Returns {@link CacheResult#ignored()} if the protocol has no way of asking.
+   */
+  protected abstract CacheResult containsImpl(RuleKey ruleKey) throws IOException;
+
   protected abstract void storeImpl(
       ArtifactInfo info,
       final Path file,
@@ -106,6 +128,88 @@ public abstract class AbstractNetworkCache implements ArtifactCache {
     }
   }
 
+  /**
+   * Fetches the artifacts with up to {@code maxConcurrentFetches} requests in flight at once, so
+   * that the round trips overlap rather than being paid for one after another.
+   */
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiFetch(ImmutableMap<RuleKey, LazyPath> outputs) {
+    if (outputs.size() <= 1 || maxConcurrentFetches <= 1) {
+      return ArtifactCache.super.multiFetch(outputs);
+    }
+    return inParallel(outputs.keySet(), ruleKey -> fetch(ruleKey, outputs.get(ruleKey)));
+  }
+
+  /**
+   * Checks for the artifacts, as {@link #multiFetch(ImmutableMap)} fetches them.
+   */
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    if (ruleKeys.size() <= 1 || maxConcurrentFetches <= 1) {
+      ImmutableMap.Builder<RuleKey, CacheResult> results = ImmutableMap.builder();
+      for (RuleKey ruleKey : ruleKeys) {
+        results.put(ruleKey, contains(ruleKey));
+      }
+      return results.build();
+    }
+    return inParallel(ruleKeys, this::contains);
+  }
+
+  private CacheResult contains(RuleKey ruleKey) {
+    try {
+      return containsImpl(ruleKey);
+    } catch (IOException e) {
+      String msg = String.format("%s: %s", e.getClass().getName(), e.getMessage());
+      reportFailure(e, "contains(%s): %s", ruleKey, msg);
+      return CacheResult.error(name, msg);
+    }
+  }
+
+  private ImmutableMap<RuleKey, CacheResult> inParallel(
+      ImmutableSet<RuleKey> ruleKeys,
+      Function<RuleKey, CacheResult> request) {
+    ListeningExecutorService executorService = getMultiFetchExecutorService();
+    Map<RuleKey, ListenableFuture<CacheResult>> futures = new LinkedHashMap<>();
+    for (RuleKey ruleKey : ruleKeys) {
+      futures.put(ruleKey, executorService.submit(() -> request.apply(ruleKey)));
+    }
+
+    ImmutableMap.Builder<RuleKey, CacheResult> results = ImmutableMap.builder();
+    boolean interrupted = false;
+    for (Map.Entry<RuleKey, ListenableFuture<CacheResult>> entry : futures.entrySet()) {
+      CacheResult result;
+      if (interrupted) {
+        entry.getValue().cancel(true);
+        result = CacheResult.error(name, "interrupted");
+      } else {
+        try {
+          result = entry.getValue().get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+          entry.getValue().cancel(true);
+          result = CacheResult.error(name, "interrupted");
+        } catch (ExecutionException e) {
+          // The requests report their own failures, so this is an internal error.
+          LOG.error(e.getCause(), "request for %s failed", entry.getKey());
+          result = CacheResult.error(name, String.valueOf(e.getCause()));
+        }
+      }
+      results.put(entry.getKey(), result);
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    return results.build();
+  }
+
+  private synchronized ListeningExecutorService getMultiFetchExecutorService() {
+    if (multiFetchExecutorService == null) {
+      multiFetchExecutorService = MoreExecutors.listeningDecorator(
+          MostExecutors.newMultiThreadExecutor(name + "-multi-fetch", maxConcurrentFetches));
+    }
+    return multiFetchExecutorService;
+  }
+
   @Override
   public ListenableFuture<Void> store(
       final ArtifactInfo info,
@@ -186,6 +290,11 @@ public abstract class AbstractNetworkCache implements ArtifactCache {
 
   @Override
   public void close() {
+    synchronized (this) {
+      if (multiFetchExecutorService != null) {
+        multiFetchExecutorService.shutdownNow();
+      }
+    }
     fetchClient.close();
     storeClient.close();
   }
@@ -42,4 +42,12 @@ interface AbstractNetworkCacheArgs {
   Optional<Long> getMaxStoreSizeBytes();
   Optional<String> getThriftEndpointPath();
   boolean distributedBuildModeEnabled();
+
+  /**
+   * @return the number of requests a single {@link ArtifactCache#multiFetch} may have in flight.
+   */
+  @Value.Default
+  default int getMaxConcurrentFetches() {
+    return 1;
+  }
 }
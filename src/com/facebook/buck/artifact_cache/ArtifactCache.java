@@ -19,8 +19,12 @@ package com.facebook.buck.artifact_cache;
 import com.facebook.buck.io.BorrowablePath;
 import com.facebook.buck.io.LazyPath;
 import com.facebook.buck.rules.RuleKey;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Map;
+
 public interface ArtifactCache extends AutoCloseable {
   /**
    * Fetch a cached artifact, keyed by ruleKey, save the artifact to path specified by output, and
@@ -34,6 +38,40 @@ public interface ArtifactCache extends AutoCloseable {
    */
   CacheResult fetch(RuleKey ruleKey, LazyPath output);
 
+  /**
+   * Fetch several cached artifacts, as {@link #fetch(RuleKey, LazyPath)} would for each of them.
+   * Caches which pay a round trip per request should override this to overlap or batch them.
+   *
+   * @param outputs the path to store each rule key's artifact to.
+   * @return the result of fetching each rule key, in the same order as {@code outputs}.
+   */
+  default ImmutableMap<RuleKey, CacheResult> multiFetch(
+      ImmutableMap<RuleKey, LazyPath> outputs) {
+    ImmutableMap.Builder<RuleKey, CacheResult> results = ImmutableMap.builder();
+    for (Map.Entry<RuleKey, LazyPath> entry : outputs.entrySet()) {
+      results.put(entry.getKey(), fetch(entry.getKey(), entry.getValue()));
+    }
+    return results.build();
+  }
+
+  /**
+   * Check whether the cache holds artifacts for the given rule keys, without downloading them.
+   * Caches which can't tell without downloading the artifact answer
+   * {@link CacheResultType#IGNORED}, so callers must only rely on hits and misses.
+   *
+   * @return a {@link CacheResultType#HIT} for each rule key the cache holds, a
+   *     {@link CacheResultType#MISS} for each one it doesn't, and an
+   *     {@link CacheResultType#IGNORED} or {@link CacheResultType#ERROR} for every one it couldn't
+   *     check, in the same order as {@code ruleKeys}.
+   */
+  default ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    ImmutableMap.Builder<RuleKey, CacheResult> results = ImmutableMap.builder();
+    for (RuleKey ruleKey : ruleKeys) {
+      results.put(ruleKey, CacheResult.ignored());
+    }
+    return results.build();
+  }
+
   /**
    * Store the artifact at path specified by output to cache, such that it can later be fetched
    * using ruleKey as the lookup key.  If any internal errors occur, fail silently and continue
@@ -80,6 +80,8 @@ public class ArtifactCacheBuckConfig {
   private static final String DIR_MODE_FIELD = "dir_mode";
   private static final String DIR_MAX_SIZE_FIELD = "dir_max_size";
   private static final String DIR_CACHE_NAMES_FIELD_NAME = "dir_cache_names";
+  private static final String DIR_CONTENT_ADDRESSED_FIELD = "dir_content_addressed";
+  private static final String DIR_INDEXED_EVICTION_FIELD = "dir_indexed_eviction";
   private static final ImmutableSet<String> DIR_CACHE_DESCRIPTION_FIELDS = ImmutableSet.of(
       DIR_FIELD,
       DIR_MODE_FIELD,
@@ -89,6 +91,7 @@ public class ArtifactCacheBuckConfig {
   private static final String DEFAULT_HTTP_CACHE_MODE = CacheReadMode.READWRITE.name();
   private static final long DEFAULT_HTTP_CACHE_TIMEOUT_SECONDS = 3L;
   private static final String DEFAULT_HTTP_MAX_CONCURRENT_WRITES = "1";
+  private static final int DEFAULT_HTTP_MAX_CONCURRENT_FETCHES = 4;
   private static final String DEFAULT_HTTP_WRITE_SHUTDOWN_TIMEOUT_SECONDS = "1800"; // 30 minutes
   private static final String DEFAULT_HTTP_CACHE_ERROR_MESSAGE =
       "{cache_name} cache encountered an error: {error_message}";
@@ -162,6 +165,11 @@ public class ArtifactCacheBuckConfig {
             DEFAULT_HTTP_MAX_CONCURRENT_WRITES));
   }
 
+  public int getHttpMaxConcurrentFetches() {
+    return buckConfig.getInteger(CACHE_SECTION_NAME, "http_max_concurrent_fetches")
+        .orElse(DEFAULT_HTTP_MAX_CONCURRENT_FETCHES);
+  }
+
   public int getHttpWriterShutdownTimeout() {
     return Integer.valueOf(
         buckConfig.getValue(CACHE_SECTION_NAME, "http_writer_shutdown_timeout_seconds").orElse(
@@ -387,6 +395,10 @@ public class ArtifactCacheBuckConfig {
         .setCacheDir(pathToCacheDir)
         .setCacheReadMode(readMode)
         .setMaxSizeBytes(maxSizeBytes)
+        .setContentAddressed(
+            buckConfig.getBooleanValue(section, DIR_CONTENT_ADDRESSED_FIELD, false))
+        .setIndexedEviction(
+            buckConfig.getBooleanValue(section, DIR_INDEXED_EVICTION_FIELD, false))
         .build();
   }
 
@@ -466,6 +478,16 @@ public class ArtifactCacheBuckConfig {
     public abstract Path getCacheDir();
     public abstract Optional<Long> getMaxSizeBytes();
     public abstract CacheReadMode getCacheReadMode();
+
+    @Value.Default
+    public boolean getContentAddressed() {
+      return false;
+    }
+
+    @Value.Default
+    public boolean getIndexedEviction() {
+      return false;
+    }
   }
 
   @Value.Immutable
@@ -332,7 +332,9 @@ public class ArtifactCaches implements ArtifactCacheFactory {
           projectFilesystem,
           cacheDir,
           dirCacheConfig.getCacheReadMode(),
-          dirCacheConfig.getMaxSizeBytes());
+          dirCacheConfig.getMaxSizeBytes(),
+          dirCacheConfig.getContentAddressed(),
+          dirCacheConfig.getIndexedEviction());
 
       if (!buckEventBus.isPresent()) {
         return dirArtifactCache;
@@ -457,6 +459,7 @@ public class ArtifactCaches implements ArtifactCacheFactory {
             .setProjectFilesystem(projectFilesystem)
             .setBuckEventBus(buckEventBus)
             .setHttpWriteExecutorService(httpWriteExecutorService)
+            .setMaxConcurrentFetches(config.getHttpMaxConcurrentFetches())
             .setErrorTextTemplate(cacheDescription.getErrorMessageFormat())
             .setDistributedBuildModeEnabled(distributedBuildModeEnabled)
             .build());
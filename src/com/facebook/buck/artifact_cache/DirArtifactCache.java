@@ -23,8 +23,11 @@ import com.facebook.buck.log.Logger;
 import com.facebook.buck.rules.RuleKey;
 import com.facebook.buck.util.DirectoryCleaner;
 import com.facebook.buck.util.DirectoryCleanerArgs;
+import com.facebook.buck.util.concurrent.MostExecutors;
+import com.facebook.buck.util.environment.Platform;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -42,11 +45,18 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
 
 public class DirArtifactCache implements ArtifactCache {
 
@@ -57,12 +67,24 @@ public class DirArtifactCache implements ArtifactCache {
   // How much of the max size to leave if we decide to delete old files.
   private static final float MAX_BYTES_TRIM_RATIO = 2 / 3f;
   private static final String TMP_EXTENSION = ".tmp";
+  // In content addressed mode, rule keys map to pointer files with this extension, which contain
+  // the content hash of the artifact stored under `CONTENT_DIR`.
+  private static final String CONTENT_POINTER_EXTENSION = ".cas";
+  private static final String CONTENT_DIR = "cas";
+  // With indexed eviction, the log backing the index of cached files.
+  private static final String INDEX_FILE = ".index";
 
   private final String name;
   private final ProjectFilesystem filesystem;
   private final Path cacheDir;
   private final Optional<Long> maxCacheSizeBytes;
   private final CacheReadMode cacheMode;
+  private final boolean contentAddressed;
+  @Nullable
+  private final DirArtifactCacheIndex index;
+  @Nullable
+  private final ExecutorService trimExecutor;
+  private final AtomicBoolean trimScheduled = new AtomicBoolean(false);
   private long bytesSinceLastDeleteOldFiles;
 
   public DirArtifactCache(
@@ -72,17 +94,64 @@ public class DirArtifactCache implements ArtifactCache {
       CacheReadMode cacheMode,
       Optional<Long> maxCacheSizeBytes)
       throws IOException {
+    this(name, filesystem, cacheDir, cacheMode, maxCacheSizeBytes, false);
+  }
+
+  public DirArtifactCache(
+      String name,
+      ProjectFilesystem filesystem,
+      Path cacheDir,
+      CacheReadMode cacheMode,
+      Optional<Long> maxCacheSizeBytes,
+      boolean contentAddressed)
+      throws IOException {
+    this(name, filesystem, cacheDir, cacheMode, maxCacheSizeBytes, contentAddressed, false);
+  }
+
+  /**
+   * @param contentAddressed if set, artifacts are stored once by content hash, with rule keys
+   *                         mapping to small pointer files, so that identical artifacts stored
+   *                         under different rule keys share storage.  Fetches hard link the
+   *                         artifact into place where possible.
+   * @param indexedEviction if set, and the cache has a maximum size, the cache keeps an index of
+   *                        its files in least-recently-used order, so that trimming it deletes
+   *                        straight from the index instead of walking the whole cache directory.
+   *                        Trimming then also happens in the background rather than blocking
+   *                        stores.
+   */
+  public DirArtifactCache(
+      String name,
+      ProjectFilesystem filesystem,
+      Path cacheDir,
+      CacheReadMode cacheMode,
+      Optional<Long> maxCacheSizeBytes,
+      boolean contentAddressed,
+      boolean indexedEviction)
+      throws IOException {
     this.name = name;
     this.filesystem = filesystem;
     this.cacheDir = cacheDir;
     this.maxCacheSizeBytes = maxCacheSizeBytes;
     this.cacheMode = cacheMode;
+    this.contentAddressed = contentAddressed;
     this.bytesSinceLastDeleteOldFiles = 0L;
 
     // Check first, as mkdirs will fail if the path is a symlink.
     if (!filesystem.isDirectory(cacheDir)) {
       filesystem.mkdirs(cacheDir);
     }
+
+    if (indexedEviction && maxCacheSizeBytes.isPresent()) {
+      Path cacheDirInFs = filesystem.resolve(cacheDir);
+      this.index = DirArtifactCacheIndex.open(
+          cacheDirInFs,
+          cacheDirInFs.resolve(INDEX_FILE),
+          this::getAllFilesInCache);
+      this.trimExecutor = MostExecutors.newSingleThreadExecutor("DirArtifactCache trimmer");
+    } else {
+      this.index = null;
+      this.trimExecutor = null;
+    }
   }
 
   @Override
@@ -106,7 +175,17 @@ public class DirArtifactCache implements ArtifactCache {
       }
 
       // Now copy the artifact out.
-      filesystem.copyFile(getPathForRuleKey(ruleKey, Optional.empty()), output.get());
+      Optional<Path> contentPath =
+          contentAddressed ? readContentPointer(ruleKey) : Optional.empty();
+      if (contentPath.isPresent()) {
+        fetchContent(contentPath.get(), output.get());
+        recordAccessed(getPathForRuleKey(ruleKey, Optional.of(CONTENT_POINTER_EXTENSION)));
+        recordAccessed(contentPath.get());
+      } else {
+        filesystem.copyFile(getPathForRuleKey(ruleKey, Optional.empty()), output.get());
+        recordAccessed(getPathForRuleKey(ruleKey, Optional.empty()));
+      }
+      recordAccessed(getPathForRuleKey(ruleKey, Optional.of(".metadata")));
 
       result = CacheResult.hit(name, metadata.build(), filesystem.getFileSize(output.get()));
     } catch (NoSuchFileException e) {
@@ -128,6 +207,23 @@ public class DirArtifactCache implements ArtifactCache {
     return result;
   }
 
+  /**
+   * Checks for each rule key's metadata and artifact on disk, without copying anything out.
+   */
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    ImmutableMap.Builder<RuleKey, CacheResult> results = ImmutableMap.builder();
+    for (RuleKey ruleKey : ruleKeys) {
+      boolean contains =
+          filesystem.exists(getPathForRuleKey(ruleKey, Optional.of(".metadata"))) &&
+              (filesystem.exists(getPathForRuleKey(ruleKey, Optional.empty())) ||
+                  (contentAddressed &&
+                      readContentPointer(ruleKey).map(filesystem::exists).orElse(false)));
+      results.put(ruleKey, contains ? CacheResult.hit(name) : CacheResult.miss());
+    }
+    return results.build();
+  }
+
   @Override
   public ListenableFuture<Void> store(
       ArtifactInfo info,
@@ -138,51 +234,11 @@ public class DirArtifactCache implements ArtifactCache {
     }
 
     try {
-      Optional<Path> borrowedAndStoredArtifactPath = Optional.empty();
-      for (RuleKey ruleKey : info.getRuleKeys()) {
-        Path artifactPath = getPathForRuleKey(ruleKey, Optional.empty());
-        Path metadataPath = getPathForRuleKey(ruleKey, Optional.of(".metadata"));
-
-        if (filesystem.exists(artifactPath) && filesystem.exists(metadataPath)) {
-          continue;
-        }
-
-        filesystem.mkdirs(getParentDirForRuleKey(ruleKey));
-
-        if (!output.canBorrow()) {
-          storeArtifactOutput(output.getPath(), artifactPath);
-        } else {
-          // This branch means that we are apparently the only users of the `output`, so instead
-          // of making a safe transfer of the output to the dir cache (copy+move), we can just
-          // move it without copying.  This significantly optimizes the Disk I/O.
-          if (!borrowedAndStoredArtifactPath.isPresent()) {
-            borrowedAndStoredArtifactPath = Optional.of(artifactPath);
-            filesystem.move(output.getPath(), artifactPath, StandardCopyOption.REPLACE_EXISTING);
-          } else {
-            storeArtifactOutput(borrowedAndStoredArtifactPath.get(), artifactPath);
-          }
-        }
-        bytesSinceLastDeleteOldFiles += filesystem.getFileSize(artifactPath);
-
-        // Now, write the meta data artifact.
-        Path tmp = filesystem.createTempFile(getPreparedTempFolder(), "metadata", TMP_EXTENSION);
-        try {
-          try (DataOutputStream out = new DataOutputStream(filesystem.newFileOutputStream(tmp))) {
-            out.writeInt(info.getMetadata().size());
-            for (Map.Entry<String, String> ent : info.getMetadata().entrySet()) {
-              out.writeUTF(ent.getKey());
-              byte[] val = ent.getValue().getBytes(Charsets.UTF_8);
-              out.writeInt(val.length);
-              out.write(val);
-            }
-          }
-          filesystem.move(tmp, metadataPath, StandardCopyOption.REPLACE_EXISTING);
-          bytesSinceLastDeleteOldFiles += filesystem.getFileSize(metadataPath);
-        } finally {
-          filesystem.deleteFileAtPathIfExists(tmp);
-        }
+      if (contentAddressed) {
+        storeContentAddressed(info, output);
+      } else {
+        storeByRuleKey(info, output);
       }
-
     } catch (IOException e) {
       LOG.warn(
           e,
@@ -195,12 +251,161 @@ public class DirArtifactCache implements ArtifactCache {
         bytesSinceLastDeleteOldFiles >
             (maxCacheSizeBytes.get() * STORED_TO_MAX_BYTES_RATIO_TRIM_TRIGGER)) {
       bytesSinceLastDeleteOldFiles = 0L;
-      deleteOldFiles();
+      if (trimExecutor == null) {
+        deleteOldFiles();
+      } else if (trimScheduled.compareAndSet(false, true)) {
+        trimExecutor.submit(
+            () -> {
+              trimScheduled.set(false);
+              deleteOldFiles();
+            });
+      }
     }
 
     return Futures.immediateFuture(null);
   }
 
+  private void storeByRuleKey(ArtifactInfo info, BorrowablePath output) throws IOException {
+    Optional<Path> borrowedAndStoredArtifactPath = Optional.empty();
+    for (RuleKey ruleKey : info.getRuleKeys()) {
+      Path artifactPath = getPathForRuleKey(ruleKey, Optional.empty());
+      Path metadataPath = getPathForRuleKey(ruleKey, Optional.of(".metadata"));
+
+      if (filesystem.exists(artifactPath) && filesystem.exists(metadataPath)) {
+        continue;
+      }
+
+      filesystem.mkdirs(getParentDirForRuleKey(ruleKey));
+
+      if (!output.canBorrow()) {
+        storeArtifactOutput(output.getPath(), artifactPath);
+      } else {
+        // This branch means that we are apparently the only users of the `output`, so instead
+        // of making a safe transfer of the output to the dir cache (copy+move), we can just
+        // move it without copying.  This significantly optimizes the Disk I/O.
+        if (!borrowedAndStoredArtifactPath.isPresent()) {
+          borrowedAndStoredArtifactPath = Optional.of(artifactPath);
+          filesystem.move(output.getPath(), artifactPath, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+          storeArtifactOutput(borrowedAndStoredArtifactPath.get(), artifactPath);
+        }
+      }
+      recordStored(artifactPath);
+
+      // Now, write the meta data artifact.
+      storeMetadata(info, metadataPath);
+    }
+  }
+
+  private void storeContentAddressed(ArtifactInfo info, BorrowablePath output) throws IOException {
+    String contentHash = filesystem.computeSha1(output.getPath()).toString();
+    Path contentPath = getPathForContentHash(contentHash);
+
+    // Identical artifacts are only ever stored once.
+    if (!filesystem.exists(contentPath)) {
+      filesystem.mkdirs(contentPath.getParent());
+      if (output.canBorrow()) {
+        filesystem.move(output.getPath(), contentPath, StandardCopyOption.REPLACE_EXISTING);
+      } else {
+        Path tmp = filesystem.createTempFile(getPreparedTempFolder(), "artifact", TMP_EXTENSION);
+        try {
+          filesystem.copyFile(output.getPath(), tmp);
+          // Another process may have stored the same content in the meantime, in which case
+          // replacing it is harmless.
+          filesystem.move(tmp, contentPath, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+          filesystem.deleteFileAtPathIfExists(tmp);
+        }
+      }
+      recordStored(contentPath);
+    }
+
+    for (RuleKey ruleKey : info.getRuleKeys()) {
+      Path pointerPath = getPathForRuleKey(ruleKey, Optional.of(CONTENT_POINTER_EXTENSION));
+      Path metadataPath = getPathForRuleKey(ruleKey, Optional.of(".metadata"));
+
+      filesystem.mkdirs(getParentDirForRuleKey(ruleKey));
+
+      Path tmp = filesystem.createTempFile(getPreparedTempFolder(), "pointer", TMP_EXTENSION);
+      try {
+        filesystem.writeContentsToPath(contentHash, tmp);
+        filesystem.move(tmp, pointerPath, StandardCopyOption.REPLACE_EXISTING);
+        recordStored(pointerPath);
+      } finally {
+        filesystem.deleteFileAtPathIfExists(tmp);
+      }
+
+      storeMetadata(info, metadataPath);
+    }
+  }
+
+  private void storeMetadata(ArtifactInfo info, Path metadataPath) throws IOException {
+    Path tmp = filesystem.createTempFile(getPreparedTempFolder(), "metadata", TMP_EXTENSION);
+    try {
+      try (DataOutputStream out = new DataOutputStream(filesystem.newFileOutputStream(tmp))) {
+        out.writeInt(info.getMetadata().size());
+        for (Map.Entry<String, String> ent : info.getMetadata().entrySet()) {
+          out.writeUTF(ent.getKey());
+          byte[] val = ent.getValue().getBytes(Charsets.UTF_8);
+          out.writeInt(val.length);
+          out.write(val);
+        }
+      }
+      filesystem.move(tmp, metadataPath, StandardCopyOption.REPLACE_EXISTING);
+      recordStored(metadataPath);
+    } finally {
+      filesystem.deleteFileAtPathIfExists(tmp);
+    }
+  }
+
+  private void recordStored(Path path) throws IOException {
+    long sizeBytes = filesystem.getFileSize(path);
+    bytesSinceLastDeleteOldFiles += sizeBytes;
+    if (index != null) {
+      index.recordStore(filesystem.resolve(path), sizeBytes);
+    }
+  }
+
+  private void recordAccessed(Path path) throws IOException {
+    if (index != null) {
+      index.recordAccess(filesystem.resolve(path));
+    }
+  }
+
+  /**
+   * @return the path of the content addressed artifact the given rule key points to, if any.
+   */
+  private Optional<Path> readContentPointer(RuleKey ruleKey) {
+    return filesystem
+        .readFileIfItExists(getPathForRuleKey(ruleKey, Optional.of(CONTENT_POINTER_EXTENSION)))
+        .map(String::trim)
+        .map(this::getPathForContentHash);
+  }
+
+  private void fetchContent(Path contentPath, Path output) throws IOException {
+    Path source = filesystem.resolve(contentPath);
+
+    // Hard linking doesn't read the artifact, so explicitly mark it as accessed to keep it from
+    // being evicted.
+    Files.getFileAttributeView(source, BasicFileAttributeView.class)
+        .setTimes(null, FileTime.fromMillis(System.currentTimeMillis()), null);
+
+    // Artifacts are never modified in place once stored, so sharing the inode with the fetched
+    // output is safe.  Windows can't delete read-only links that are in use, so always copy there.
+    if (Platform.detect() != Platform.WINDOWS) {
+      Path target = filesystem.resolve(output);
+      try {
+        Files.deleteIfExists(target);
+        Files.createLink(target, source);
+        return;
+      } catch (IOException | UnsupportedOperationException e) {
+        // Most likely the output is on a different device, so fall back to copying.
+        LOG.verbose(e, "Failed to link %s to %s", source, target);
+      }
+    }
+    filesystem.copyFile(contentPath, output);
+  }
+
   private Path getPathToTempFolder() {
     return cacheDir.resolve("tmp");
   }
@@ -227,6 +432,15 @@ public class DirArtifactCache implements ArtifactCache {
     return getParentDirForRuleKey(ruleKey).resolve(ruleKey.toString() + extension.orElse(""));
   }
 
+  @VisibleForTesting
+  Path getPathForContentHash(String contentHash) {
+    Path result = cacheDir.resolve(CONTENT_DIR);
+    if (contentHash.length() >= 4) {
+      result = result.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4));
+    }
+    return result.resolve(contentHash);
+  }
+
   @VisibleForTesting
   Path getParentDirForRuleKey(RuleKey ruleKey) {
     ImmutableList<String> folders = subfolders(ruleKey);
@@ -258,10 +472,26 @@ public class DirArtifactCache implements ArtifactCache {
 
   @Override
   public void close() {
+    if (trimExecutor != null) {
+      try {
+        MostExecutors.shutdown(trimExecutor, 1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
     // Do a cache clean up on exit only if cache was written to.
     if (bytesSinceLastDeleteOldFiles > 0) {
       deleteOldFiles();
     }
+
+    if (index != null) {
+      try {
+        index.close();
+      } catch (IOException e) {
+        LOG.warn(e, "Failed to close the index of [%s].", cacheDir);
+      }
+    }
   }
 
   /**
@@ -276,13 +506,30 @@ public class DirArtifactCache implements ArtifactCache {
     Path cacheDirInFs = filesystem.resolve(cacheDir);
     try {
       synchronized (this) {
-        newDirectoryCleaner().clean(cacheDirInFs);
+        if (index != null) {
+          deleteOldFilesFromIndex();
+        } else {
+          newDirectoryCleaner().clean(cacheDirInFs);
+        }
       }
     } catch (IOException e) {
       LOG.error(e, "Failed to clean path [%s].", cacheDirInFs);
     }
   }
 
+  private void deleteOldFilesFromIndex() throws IOException {
+    Preconditions.checkNotNull(index);
+    if (index.getTotalSizeBytes() <= maxCacheSizeBytes.get()) {
+      return;
+    }
+    ImmutableList<Path> evicted =
+        index.evict((long) (maxCacheSizeBytes.get() * MAX_BYTES_TRIM_RATIO));
+    LOG.debug("Evicting %d files from [%s].", evicted.size(), cacheDir);
+    for (Path path : evicted) {
+      Files.deleteIfExists(path);
+    }
+  }
+
   @VisibleForTesting
   List<Path> getAllFilesInCache() throws IOException {
     final List<Path> allFiles = new ArrayList<>();
@@ -306,7 +553,11 @@ public class DirArtifactCache implements ArtifactCache {
           public FileVisitResult visitFile(
               Path file,
               BasicFileAttributes attrs) throws IOException {
-            allFiles.add(file);
+            // Skip the index's log and its lock and temporary files.
+            if (!file.getFileName().toString().startsWith(INDEX_FILE) ||
+                !file.getParent().equals(filesystem.resolve(cacheDir))) {
+              allFiles.add(file);
+            }
             return super.visitFile(file, attrs);
           }
         });
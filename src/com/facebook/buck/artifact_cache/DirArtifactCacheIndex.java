@@ -0,0 +1,416 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.artifact_cache;
+
+import com.facebook.buck.log.Logger;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * An incrementally maintained index of the files in a {@link DirArtifactCache}, tracking their
+ * sizes in least-recently-used order so that trimming the cache only touches the files it evicts,
+ * rather than walking and stat-ing the entire cache.
+ *
+ * The index is persisted as an append-only log of stores, accesses and deletions, which is replayed
+ * when the cache is opened and compacted once it grows large.  Processes sharing a cache directory
+ * coordinate through a lock file next to the log: appends hold a shared lock and loading,
+ * rebuilding and compacting the log hold an exclusive one.  Compaction replaces the log with a new
+ * file, so before appending, a process checks that its log is still the current one and reopens
+ * it if not.  Each process only sees the others' changes the next time it loads the log.  If there
+ * is no usable log, the index is rebuilt from a single walk of the cache, ordered by access time.
+ */
+class DirArtifactCacheIndex implements Closeable {
+
+  private static final Logger LOG = Logger.get(DirArtifactCacheIndex.class);
+
+  private static final int VERSION = 0;
+
+  private static final byte STORE = 0;
+  private static final byte ACCESS = 1;
+  private static final byte DELETE = 2;
+
+  // Compact the log once it holds this many more records than there are entries in the index.
+  private static final int COMPACTION_THRESHOLD = 10000;
+
+  // File locks are held by the whole JVM, so indexes of the same cache in one process take turns.
+  private static final ConcurrentMap<Path, Object> IN_PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+  private final Path root;
+  private final Path logPath;
+  private final Path lockPath;
+  private final FileChannel lockChannel;
+
+  // Entries in access order, from least to most recently used, mapped to their sizes.
+  private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalSizeBytes = 0L;
+  private int logRecords = 0;
+
+  @Nullable
+  private FileChannel log = null;
+  // Identifies the file the log was opened on, to tell when compaction has replaced it.
+  @Nullable
+  private Object logFileKey = null;
+
+  private DirArtifactCacheIndex(Path root, Path logPath) throws IOException {
+    this.root = root;
+    this.logPath = logPath;
+    this.lockPath = logPath.resolveSibling(logPath.getFileName() + ".lock");
+    this.lockChannel = FileChannel.open(
+        lockPath,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  /**
+   * @param root the absolute path of the cache directory.
+   * @param logPath the absolute path of the log to load and append to.
+   * @param allFiles lists all the files in the cache, used to build the index if there's no log.
+   */
+  public static DirArtifactCacheIndex open(
+      Path root,
+      Path logPath,
+      Callable<List<Path>> allFiles)
+      throws IOException {
+    DirArtifactCacheIndex index = new DirArtifactCacheIndex(root, logPath);
+    try {
+      index.withLock(/* shared */ false, () -> {
+        if (!index.replay()) {
+          index.rebuild(allFiles);
+        }
+        index.openLog();
+      });
+    } catch (IOException | RuntimeException e) {
+      index.closeLockChannel();
+      throw e;
+    }
+    return index;
+  }
+
+  /**
+   * Record that the given file was added to (or replaced in) the cache.
+   */
+  public synchronized void recordStore(Path path, long sizeBytes) throws IOException {
+    Path key = root.relativize(path);
+    applyStore(key, sizeBytes);
+    append(STORE, key, sizeBytes);
+  }
+
+  /**
+   * Record that the given file was read from the cache.
+   */
+  public synchronized void recordAccess(Path path) throws IOException {
+    Path key = root.relativize(path);
+    if (entries.get(key) != null) {
+      append(ACCESS, key, 0L);
+    }
+  }
+
+  /**
+   * Remove the least recently used files from the index until it holds at most
+   * {@code maxBytesAfterDeletion} bytes.  The caller is responsible for deleting the files.
+   *
+   * @return the absolute paths of the evicted files.
+   */
+  public synchronized ImmutableList<Path> evict(long maxBytesAfterDeletion) throws IOException {
+    ImmutableList.Builder<Path> evicted = ImmutableList.builder();
+    ByteArrayOutputStream records = new ByteArrayOutputStream();
+    int recordCount = 0;
+    Iterator<Map.Entry<Path, Long>> iterator = entries.entrySet().iterator();
+    while (totalSizeBytes > maxBytesAfterDeletion && iterator.hasNext()) {
+      Map.Entry<Path, Long> entry = iterator.next();
+      iterator.remove();
+      totalSizeBytes -= entry.getValue();
+      records.write(encode(DELETE, entry.getKey(), 0L));
+      recordCount++;
+      evicted.add(root.resolve(entry.getKey()));
+    }
+    if (recordCount > 0) {
+      append(records.toByteArray(), recordCount);
+    }
+    return evicted.build();
+  }
+
+  public synchronized long getTotalSizeBytes() {
+    return totalSizeBytes;
+  }
+
+  @VisibleForTesting
+  synchronized ImmutableList<Path> getEntriesInAccessOrder() {
+    ImmutableList.Builder<Path> builder = ImmutableList.builder();
+    for (Path key : entries.keySet()) {
+      builder.add(root.resolve(key));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (log == null) {
+      return;
+    }
+    try {
+      log.close();
+      log = null;
+      if (logRecords > entries.size() + COMPACTION_THRESHOLD) {
+        withLock(/* shared */ false, this::compact);
+      }
+    } finally {
+      closeLockChannel();
+    }
+  }
+
+  private void applyStore(Path key, long sizeBytes) {
+    Long previous = entries.put(key, sizeBytes);
+    totalSizeBytes += sizeBytes - (previous == null ? 0L : previous);
+  }
+
+  private void applyRecord(byte type, Path key, long sizeBytes) {
+    switch (type) {
+      case STORE:
+        applyStore(key, sizeBytes);
+        break;
+      case ACCESS:
+        // Looking up the entry moves it to the most recently used end.
+        entries.get(key);
+        break;
+      case DELETE:
+        Long previous = entries.remove(key);
+        if (previous != null) {
+          totalSizeBytes -= previous;
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unknown record type " + type);
+    }
+  }
+
+  /**
+   * Load the index from the log.
+   *
+   * @return whether a usable log was found.
+   */
+  private boolean replay() throws IOException {
+    try (DataInputStream input =
+             new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+      if (input.readInt() != VERSION) {
+        return false;
+      }
+      while (true) {
+        byte type;
+        try {
+          type = input.readByte();
+        } catch (EOFException e) {
+          break;
+        }
+        try {
+          Path key = root.getFileSystem().getPath(input.readUTF());
+          long sizeBytes = input.readLong();
+          applyRecord(type, key, sizeBytes);
+          logRecords++;
+        } catch (EOFException e) {
+          // A partially written record, which we can safely drop.
+          LOG.debug("Ignoring truncated record in %s", logPath);
+          break;
+        }
+      }
+      return true;
+    } catch (NoSuchFileException e) {
+      return false;
+    } catch (EOFException | IllegalStateException e) {
+      LOG.warn(e, "Ignoring unreadable dir cache index %s", logPath);
+      entries.clear();
+      totalSizeBytes = 0L;
+      logRecords = 0;
+      return false;
+    }
+  }
+
+  private void rebuild(Callable<List<Path>> allFiles) throws IOException {
+    LOG.debug("Building dir cache index for %s", root);
+    List<Path> files;
+    try {
+      files = allFiles.call();
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+
+    // Order files the same way the directory cleaner would delete them.
+    List<Map.Entry<Path, BasicFileAttributes>> attributes = new ArrayList<>(files.size());
+    for (Path file : files) {
+      try {
+        attributes.add(
+            new AbstractMap.SimpleEntry<>(
+                file,
+                Files.readAttributes(file, BasicFileAttributes.class)));
+      } catch (NoSuchFileException e) {
+        // Deleted by someone else in the meantime.
+      }
+    }
+    attributes.sort(
+        (a, b) -> ComparisonChain.start()
+            .compare(a.getValue().lastAccessTime(), b.getValue().lastAccessTime())
+            .compare(a.getValue().creationTime(), b.getValue().creationTime())
+            .result());
+
+    entries.clear();
+    totalSizeBytes = 0L;
+    for (Map.Entry<Path, BasicFileAttributes> entry : attributes) {
+      applyStore(root.relativize(entry.getKey()), entry.getValue().size());
+    }
+    writeCompactLog();
+  }
+
+  /**
+   * Rewrite the log so that it only contains the current entries.  Records appended by other
+   * processes since we loaded the log are picked up first.  Must hold the exclusive lock.
+   */
+  private void compact() throws IOException {
+    entries.clear();
+    totalSizeBytes = 0L;
+    logRecords = 0;
+    if (!replay()) {
+      return;
+    }
+    writeCompactLog();
+  }
+
+  private void writeCompactLog() throws IOException {
+    Path tmp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+    try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(tmp))) {
+      output.writeInt(VERSION);
+      for (Map.Entry<Path, Long> entry : entries.entrySet()) {
+        output.write(encode(STORE, entry.getKey(), entry.getValue()));
+      }
+    }
+    Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING);
+    logRecords = entries.size();
+  }
+
+  private void openLog() throws IOException {
+    log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    logFileKey = Files.readAttributes(logPath, BasicFileAttributes.class).fileKey();
+  }
+
+  /**
+   * Reopen the log if another process compacted it since we opened it, so that our records don't
+   * go to the file it replaced.  Must hold a lock.
+   */
+  private void reopenLogIfReplaced() throws IOException {
+    Preconditions.checkNotNull(log);
+    boolean replaced;
+    try {
+      replaced = !Objects.equals(
+          Files.readAttributes(logPath, BasicFileAttributes.class).fileKey(),
+          logFileKey);
+    } catch (NoSuchFileException e) {
+      replaced = true;
+    }
+    if (replaced) {
+      log.close();
+      openLog();
+    }
+  }
+
+  private void append(byte type, Path key, long sizeBytes) throws IOException {
+    append(encode(type, key, sizeBytes), 1);
+  }
+
+  private void append(byte[] records, int recordCount) throws IOException {
+    if (log == null) {
+      return;
+    }
+    withLock(/* shared */ true, () -> {
+      reopenLogIfReplaced();
+      ByteBuffer buffer = ByteBuffer.wrap(records);
+      while (buffer.hasRemaining()) {
+        Preconditions.checkNotNull(log).write(buffer);
+      }
+    });
+    logRecords += recordCount;
+  }
+
+  private void withLock(boolean shared, LockedOperation operation) throws IOException {
+    synchronized (getInProcessLock()) {
+      try (FileLock lock = lockChannel.lock(0L, Long.MAX_VALUE, shared)) {
+        operation.run();
+      }
+    }
+  }
+
+  /**
+   * Closing any channel on a file may release every lock the JVM holds on it, so this waits until
+   * no other index of the same cache in this process holds one.
+   */
+  private void closeLockChannel() throws IOException {
+    synchronized (getInProcessLock()) {
+      lockChannel.close();
+    }
+  }
+
+  private Object getInProcessLock() {
+    return IN_PROCESS_LOCKS.computeIfAbsent(lockPath, path -> new Object());
+  }
+
+  private static byte[] encode(byte type, Path key, long sizeBytes) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeByte(type);
+      output.writeUTF(key.toString());
+      output.writeLong(sizeBytes);
+    }
+    return bytes.toByteArray();
+  }
+
+  private interface LockedOperation {
+    void run() throws IOException;
+  }
+
+}
@@ -133,6 +133,33 @@ public final class HttpArtifactCache extends AbstractNetworkCache {
     }
   }
 
+  @Override
+  protected CacheResult containsImpl(RuleKey ruleKey) throws IOException {
+    Request.Builder requestBuilder =
+        new Request.Builder()
+            .head();
+    try (HttpResponse response = fetchClient.makeRequest(
+        "/artifacts/key/" + ruleKey.toString(),
+        requestBuilder)) {
+      if (response.statusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+        LOG.info("contains(%s, %s): cache miss", response.requestUrl(), ruleKey);
+        return CacheResult.miss();
+      }
+
+      if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+        String msg = String.format(
+            "unexpected server response: [%d:%s]",
+            response.statusCode(),
+            response.statusMessage());
+        reportFailure("contains(%s, %s): %s", response.requestUrl(), ruleKey, msg);
+        return CacheResult.error(name, msg);
+      }
+
+      LOG.info("contains(%s, %s): cache hit", response.requestUrl(), ruleKey);
+      return CacheResult.hit(name);
+    }
+  }
+
   @Override
   protected void storeImpl(
       ArtifactInfo info,
@@ -19,9 +19,13 @@ import com.facebook.buck.event.BuckEventBus;
 import com.facebook.buck.io.BorrowablePath;
 import com.facebook.buck.io.LazyPath;
 import com.facebook.buck.rules.RuleKey;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Decorator for wrapping a {@link ArtifactCache} to log a {@link ArtifactCacheEvent} for the start
  * and finish of each event.
@@ -53,6 +57,29 @@ public class LoggingArtifactCacheDecorator implements ArtifactCache, CacheDecora
     return fetchResult;
   }
 
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiFetch(ImmutableMap<RuleKey, LazyPath> outputs) {
+    Map<RuleKey, ArtifactCacheEvent.Started> started = new LinkedHashMap<>();
+    for (RuleKey ruleKey : outputs.keySet()) {
+      ArtifactCacheEvent.Started event =
+          eventFactory.newFetchStartedEvent(ImmutableSet.of(ruleKey));
+      eventBus.post(event);
+      started.put(ruleKey, event);
+    }
+    ImmutableMap<RuleKey, CacheResult> fetchResults = delegate.multiFetch(outputs);
+    for (Map.Entry<RuleKey, ArtifactCacheEvent.Started> entry : started.entrySet()) {
+      eventBus.post(eventFactory.newFetchFinishedEvent(
+          entry.getValue(),
+          fetchResults.get(entry.getKey())));
+    }
+    return fetchResults;
+  }
+
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    return delegate.multiContains(ruleKeys);
+  }
+
   @Override
   public ListenableFuture<Void> store(
       ArtifactInfo info,
@@ -23,11 +23,15 @@ import com.facebook.buck.util.MoreCollectors;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Functions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -81,6 +85,85 @@ public class MultiArtifactCache implements ArtifactCache {
     return cacheResult;
   }
 
+  /**
+   * Fetch the artifacts matching the given rule keys, asking each of the encapsulated
+   * ArtifactCaches in turn for all of the ones still missing at once.  As with
+   * {@link #fetch(RuleKey, LazyPath)}, artifacts are propagated to the caches searched before the
+   * one they were found in.
+   */
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiFetch(ImmutableMap<RuleKey, LazyPath> outputs) {
+    Map<RuleKey, CacheResult> results = new HashMap<>();
+    ImmutableMap<RuleKey, LazyPath> remaining = outputs;
+    ImmutableList.Builder<ArtifactCache> priorCaches = ImmutableList.builder();
+    for (ArtifactCache artifactCache : artifactCaches) {
+      if (remaining.isEmpty()) {
+        break;
+      }
+      ImmutableMap<RuleKey, CacheResult> cacheResults = artifactCache.multiFetch(remaining);
+      ImmutableList<ArtifactCache> cachesToStoreTo = priorCaches.build();
+      ImmutableMap.Builder<RuleKey, LazyPath> misses = ImmutableMap.builder();
+      for (Map.Entry<RuleKey, LazyPath> entry : remaining.entrySet()) {
+        CacheResult cacheResult = cacheResults.get(entry.getKey());
+        results.put(entry.getKey(), cacheResult);
+        if (cacheResult.getType().isSuccess()) {
+          storeToCaches(
+              cachesToStoreTo,
+              ArtifactInfo.builder()
+                  .addRuleKeys(entry.getKey())
+                  .setMetadata(cacheResult.getMetadata())
+                  .build(),
+              BorrowablePath.notBorrowablePath(entry.getValue().getUnchecked()));
+        } else {
+          misses.put(entry);
+        }
+      }
+      remaining = misses.build();
+      if (artifactCache.getCacheReadMode().isWritable()) {
+        priorCaches.add(artifactCache);
+      }
+    }
+    return inOrder(outputs.keySet(), results);
+  }
+
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    Map<RuleKey, CacheResult> results = new HashMap<>();
+    ImmutableSet<RuleKey> remaining = ruleKeys;
+    for (ArtifactCache artifactCache : artifactCaches) {
+      if (remaining.isEmpty()) {
+        break;
+      }
+      ImmutableMap<RuleKey, CacheResult> cacheResults = artifactCache.multiContains(remaining);
+      ImmutableSet.Builder<RuleKey> misses = ImmutableSet.builder();
+      for (RuleKey ruleKey : remaining) {
+        CacheResult cacheResult = cacheResults.get(ruleKey);
+        // A key is only missing if every cache says so: a cache which couldn't check may hold it.
+        CacheResult previous = results.get(ruleKey);
+        if (previous == null ||
+            previous.getType() == CacheResultType.MISS ||
+            cacheResult.getType().isSuccess()) {
+          results.put(ruleKey, cacheResult);
+        }
+        if (!cacheResult.getType().isSuccess()) {
+          misses.add(ruleKey);
+        }
+      }
+      remaining = misses.build();
+    }
+    return inOrder(ruleKeys, results);
+  }
+
+  private static ImmutableMap<RuleKey, CacheResult> inOrder(
+      ImmutableSet<RuleKey> ruleKeys,
+      Map<RuleKey, CacheResult> results) {
+    ImmutableMap.Builder<RuleKey, CacheResult> builder = ImmutableMap.builder();
+    for (RuleKey ruleKey : ruleKeys) {
+      builder.put(ruleKey, results.getOrDefault(ruleKey, CacheResult.miss()));
+    }
+    return builder.build();
+  }
+
   private static ListenableFuture<Void> storeToCaches(
       ImmutableList<ArtifactCache> caches,
       ArtifactInfo info,
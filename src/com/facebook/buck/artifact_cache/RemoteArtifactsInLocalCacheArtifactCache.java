@@ -21,6 +21,9 @@ import com.facebook.buck.io.LazyPath;
 import com.facebook.buck.rules.RuleKey;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ListenableFuture;
 
 /**
@@ -66,6 +69,25 @@ public class RemoteArtifactsInLocalCacheArtifactCache implements ArtifactCache {
     return remoteResult;
   }
 
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    ImmutableMap<RuleKey, CacheResult> localResults = localCache.multiContains(ruleKeys);
+    ImmutableSet<RuleKey> localMisses = ImmutableSet.copyOf(
+        Maps.filterValues(localResults, result -> result.getType() == CacheResultType.MISS)
+            .keySet());
+    if (localMisses.isEmpty()) {
+      return localResults;
+    }
+    ImmutableMap<RuleKey, CacheResult> remoteResults = remoteCache.multiContains(localMisses);
+    ImmutableMap.Builder<RuleKey, CacheResult> results = ImmutableMap.builder();
+    for (RuleKey ruleKey : ruleKeys) {
+      results.put(
+          ruleKey,
+          localMisses.contains(ruleKey) ? remoteResults.get(ruleKey) : localResults.get(ruleKey));
+    }
+    return results.build();
+  }
+
   @Override
   public ListenableFuture<Void> store(ArtifactInfo info, BorrowablePath output) {
     return remoteCache.store(info, output);
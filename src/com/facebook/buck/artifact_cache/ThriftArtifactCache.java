@@ -192,6 +192,12 @@ public class ThriftArtifactCache extends AbstractNetworkCache {
         input -> new RuleKey(input.getHashString())));
   }
 
+  @Override
+  protected CacheResult containsImpl(RuleKey ruleKey) {
+    // The protocol has no way of asking after an artifact without having it sent back.
+    return CacheResult.ignored();
+  }
+
   @Override
   protected void storeImpl(
       final ArtifactInfo info,
@@ -155,6 +155,15 @@ public class TwoLevelArtifactCacheDecorator implements ArtifactCache, CacheDecor
     return fetchResult;
   }
 
+  /**
+   * Only checks for the first-level entries, so a hit may still miss the second-level lookup when
+   * fetched.
+   */
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    return delegate.multiContains(ruleKeys);
+  }
+
   @Override
   public ListenableFuture<Void> store(
       final ArtifactInfo info,
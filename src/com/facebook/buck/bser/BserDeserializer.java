@@ -16,20 +16,6 @@
 
 package com.facebook.buck.bser;
 
-import static com.facebook.buck.bser.BserConstants.BSER_ARRAY;
-import static com.facebook.buck.bser.BserConstants.BSER_FALSE;
-import static com.facebook.buck.bser.BserConstants.BSER_INT16;
-import static com.facebook.buck.bser.BserConstants.BSER_INT32;
-import static com.facebook.buck.bser.BserConstants.BSER_INT64;
-import static com.facebook.buck.bser.BserConstants.BSER_INT8;
-import static com.facebook.buck.bser.BserConstants.BSER_NULL;
-import static com.facebook.buck.bser.BserConstants.BSER_OBJECT;
-import static com.facebook.buck.bser.BserConstants.BSER_REAL;
-import static com.facebook.buck.bser.BserConstants.BSER_SKIP;
-import static com.facebook.buck.bser.BserConstants.BSER_STRING;
-import static com.facebook.buck.bser.BserConstants.BSER_TEMPLATE;
-import static com.facebook.buck.bser.BserConstants.BSER_TRUE;
-
 import com.facebook.buck.util.MoreCollectors;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ForwardingMap;
@@ -40,16 +26,9 @@ import com.google.common.io.ByteStreams;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.BufferUnderflowException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CodingErrorAction;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -86,7 +65,6 @@ public class BserDeserializer {
   }
 
   private final KeyOrdering keyOrdering;
-  private final CharsetDecoder utf8Decoder;
 
   /**
    * If {@code keyOrdering} is {@code SORTED}, any {@code Map} objects
@@ -96,17 +74,8 @@ public class BserDeserializer {
    */
   public BserDeserializer(KeyOrdering keyOrdering) {
     this.keyOrdering = keyOrdering;
-    this.utf8Decoder = StandardCharsets.UTF_8
-        .newDecoder()
-        .onMalformedInput(CodingErrorAction.REPORT);
   }
 
-  // 2 bytes marker, 1 byte int size
-  private static final int INITIAL_SNIFF_LEN = 3;
-
-  // 2 bytes marker, 1 byte int size, up to 8 bytes int64 value
-  private static final int SNIFF_BUFFER_SIZE = 13;
-
   /**
    * Deserializes the next BSER-encoded value from the stream.
    *
@@ -116,153 +85,98 @@ public class BserDeserializer {
    */
   @Nullable
   public Object deserializeBserValue(InputStream inputStream) throws IOException {
-    try {
-      return deserializeRecursive(readBserBuffer(inputStream));
-    } catch (BufferUnderflowException e) {
-      throw new BserEofException("Prematurely reached end of BSER buffer", e);
-    }
+    BserParser parser = new BserParser(inputStream);
+    Object value = deserializeValue(parser, Preconditions.checkNotNull(parser.nextToken()));
+    parser.finish();
+    return value;
   }
 
-  private ByteBuffer readBserBuffer(InputStream inputStream) throws IOException {
-    ByteBuffer sniffBuffer = ByteBuffer.allocate(SNIFF_BUFFER_SIZE).order(ByteOrder.nativeOrder());
-    Preconditions.checkState(sniffBuffer.hasArray());
-
-    int sniffBytesRead = ByteStreams.read(inputStream, sniffBuffer.array(), 0, INITIAL_SNIFF_LEN);
-    if (sniffBytesRead < INITIAL_SNIFF_LEN) {
+  /**
+   * Deserializes the next BSER-encoded value from the stream as a view over its encoded form,
+   * which only decodes what is looked at: each {@code Map} and {@code List} in it decodes its
+   * values, and each {@link String} its characters, when they are accessed. This is much cheaper
+   * than {@link #deserializeBserValue(InputStream)} for large values that are read once, like
+   * Watchman query results, but the views hold on to the whole encoded value for as long as any
+   * of them is reachable.
+   * <p>
+   * The views are immutable and safe to share between threads. They always iterate in encoded
+   * order, so this is only available with {@link KeyOrdering#UNSORTED}. A string that is not valid
+   * UTF-8 makes the access that decodes it throw an {@link java.io.UncheckedIOException}.
+   */
+  @Nullable
+  public Object deserializeBserValueView(InputStream inputStream) throws IOException {
+    Preconditions.checkState(
+        keyOrdering == KeyOrdering.UNSORTED,
+        "BSER views are only available in encoded order");
+    byte[] scratch = new byte[BserParser.SNIFF_BUFFER_SIZE];
+    int length = BserParser.readPduLength(inputStream, scratch);
+    byte[] pdu = new byte[length];
+    int bytesRead = ByteStreams.read(inputStream, pdu, 0, length);
+    if (bytesRead < length) {
       throw new BserEofException(
           String.format(
               "Invalid BSER header (expected %d bytes, got %d bytes)",
-              INITIAL_SNIFF_LEN,
-              sniffBytesRead));
-    }
-
-    if (sniffBuffer.get() != 0x00 || sniffBuffer.get() != 0x01) {
-      throw new IOException("Invalid BSER header");
+              length,
+              bytesRead));
     }
-
-    byte lengthType = sniffBuffer.get();
-    int lengthBytesRemaining;
-    switch (lengthType) {
-      case BSER_INT8:
-        lengthBytesRemaining = 1;
-        break;
-      case BSER_INT16:
-        lengthBytesRemaining = 2;
-        break;
-      case BSER_INT32:
-        lengthBytesRemaining = 4;
-        break;
-      case BSER_INT64:
-        lengthBytesRemaining = 8;
-        break;
-      default:
-        throw new IOException(
-            String.format("Unrecognized BSER header length type %d", lengthType));
-    }
-    int lengthBytesRead = ByteStreams.read(
-        inputStream,
-        sniffBuffer.array(),
-        sniffBuffer.position(),
-        lengthBytesRemaining);
-    if (lengthBytesRead < lengthBytesRemaining) {
-      throw new BserEofException(
-          String.format(
-              "Invalid BSER header length (expected %d bytes, got %d bytes)",
-              lengthBytesRemaining,
-              lengthBytesRead));
-    }
-    int bytesRemaining = deserializeIntLen(sniffBuffer, lengthType);
-
-    ByteBuffer bserBuffer = ByteBuffer.allocate(bytesRemaining)
-        .order(ByteOrder.nativeOrder());
-    Preconditions.checkState(bserBuffer.hasArray());
-
-    int remainingBytesRead = ByteStreams.read(
-        inputStream,
-        bserBuffer.array(),
-        0,
-        bytesRemaining);
-
-    if (remainingBytesRead < bytesRemaining) {
-      throw new IOException(
-          String.format(
-              "Invalid BSER header (expected %d bytes, got %d bytes)",
-              bytesRemaining,
-              remainingBytesRead));
-    }
-
-    return bserBuffer;
-  }
-
-  private int deserializeIntLen(ByteBuffer buffer, byte type) throws IOException {
-    long value = deserializeNumber(buffer, type).longValue();
-    if (value > Integer.MAX_VALUE) {
-      throw new IOException(
-          String.format(
-              "BSER length out of range (%d > %d)",
-              value,
-              Integer.MAX_VALUE));
-    } else if (value < 0) {
-      throw new IOException(
-          String.format(
-              "BSER length out of range (%d < 0)",
-              value));
-    }
-    return (int) value;
+    return BserValueViews.decode(pdu);
   }
 
-  private Number deserializeNumber(ByteBuffer buffer, byte type) throws IOException {
-    switch (type) {
-      case BSER_INT8:
-        return buffer.get();
-      case BSER_INT16:
-        return buffer.getShort();
-      case BSER_INT32:
-        return buffer.getInt();
-      case BSER_INT64:
-        return buffer.getLong();
+  /**
+   * Deserializes the value that starts at the parser's current token, leaving the parser at the
+   * last token of that value. This lets callers that stream through a large PDU with a
+   * {@link BserParser} decode just the parts they keep.
+   */
+  @Nullable
+  public Object deserializeValue(BserParser parser, BserParser.Token token) throws IOException {
+    switch (token) {
+      case VALUE_INT:
+        return parser.getNumberValue();
+      case VALUE_REAL:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return true;
+      case VALUE_FALSE:
+        return false;
+      case VALUE_NULL:
+        return null;
+      case VALUE_STRING:
+        // We'll likely have many duplicates of this string. Java 7 and
+        // up have not-insane behavior of String.intern(), so we'll use
+        // it to deduplicate the String instances.
+        //
+        // See: http://java-performance.info/string-intern-in-java-6-7-8/
+        return parser.getText().intern();
+      case START_ARRAY:
+        return deserializeArray(parser);
+      case START_OBJECT:
+        return deserializeObject(parser);
+      case END_ARRAY:
+      case END_OBJECT:
+      case FIELD_NAME:
       default:
-        throw new IOException(String.format("Invalid BSER number encoding %d", type));
-    }
-  }
-
-  private String deserializeString(ByteBuffer buffer) throws IOException {
-    byte intType = buffer.get();
-    int len = deserializeIntLen(buffer, intType);
-
-    // We use a CharsetDecoder here instead of String(byte[], Charset)
-    // because we want it to throw an exception for any non-UTF-8 input.
-    buffer.limit(buffer.position() + len);
-
-    try {
-      // We'll likely have many duplicates of this string. Java 7 and
-      // up have not-insane behavior of String.intern(), so we'll use
-      // it to deduplicate the String instances.
-      //
-      // See: http://java-performance.info/string-intern-in-java-6-7-8/
-      return utf8Decoder.decode(buffer).toString().intern();
-    } finally {
-      buffer.limit(buffer.capacity());
+        throw new IOException(String.format("Unexpected BSER token %s", token));
     }
   }
 
-  private List<Object> deserializeArray(ByteBuffer buffer) throws IOException {
-    byte intType = buffer.get();
-    int numItems = deserializeIntLen(buffer, intType);
+  private List<Object> deserializeArray(BserParser parser) throws IOException {
+    int numItems = parser.getContainerSize();
     if (numItems == 0) {
+      nextToken(parser);
       return Collections.emptyList();
     }
     ArrayList<Object> list = new ArrayList<>(numItems);
-    for (int i = 0; i < numItems; i++) {
-      list.add(deserializeRecursive(buffer));
+    for (BserParser.Token token = nextToken(parser);
+         token != BserParser.Token.END_ARRAY;
+         token = nextToken(parser)) {
+      list.add(deserializeValue(parser, token));
     }
     return list;
   }
 
-  private Map<String, Object> deserializeObject(ByteBuffer buffer) throws IOException {
-    byte intType = buffer.get();
-    int numItems = deserializeIntLen(buffer, intType);
-    if (numItems == 0) {
+  private Map<String, Object> deserializeObject(BserParser parser) throws IOException {
+    BserParser.Token token = nextToken(parser);
+    if (token == BserParser.Token.END_OBJECT) {
       return Collections.emptyMap();
     }
     ImmutableMap.Builder<String, Object> builder;
@@ -271,82 +185,21 @@ public class BserDeserializer {
     } else {
       builder = ImmutableSortedMap.naturalOrder();
     }
-    for (int i = 0; i < numItems; i++) {
-      byte stringType = buffer.get();
-      if (stringType != BSER_STRING) {
-        throw new IOException(
-            String.format(
-                "Unrecognized BSER object key type %d, expected string",
-                stringType));
-      }
-      String key = deserializeString(buffer);
-      Object value = deserializeRecursive(buffer);
+    do {
+      String key = parser.getFieldName();
+      Object value = deserializeValue(parser, nextToken(parser));
       builder.put(key, value != null ? value : MapWrapperForNullValues.NULL);
-    }
+      token = nextToken(parser);
+    } while (token != BserParser.Token.END_OBJECT);
     return new MapWrapperForNullValues<>(builder.build());
   }
 
-  private List<Map<String, Object>> deserializeTemplate(ByteBuffer buffer) throws IOException {
-    byte arrayType = buffer.get();
-    if (arrayType != BSER_ARRAY) {
-      throw new IOException(String.format("Expected ARRAY to follow TEMPLATE, got %d", arrayType));
-    }
-    List<Object> keys = deserializeArray(buffer);
-    byte numItemsType = buffer.get();
-    int numItems = deserializeIntLen(buffer, numItemsType);
-    ArrayList<Map<String, Object>> result = new ArrayList<>();
-    for (int itemIdx = 0; itemIdx < numItems; itemIdx++) {
-      Map<String, Object> obj;
-      if (keyOrdering == KeyOrdering.UNSORTED) {
-        obj = new LinkedHashMap<>();
-      } else {
-        obj = new TreeMap<>();
-      }
-      for (int keyIdx = 0; keyIdx < keys.size(); keyIdx++) {
-        byte keyValueType = buffer.get();
-        if (keyValueType != BSER_SKIP) {
-          String key = (String) keys.get(keyIdx);
-          obj.put(key, deserializeRecursiveWithType(buffer, keyValueType));
-        }
-      }
-      result.add(obj);
-    }
-    return result;
-  }
-
-  @Nullable
-  private Object deserializeRecursive(ByteBuffer buffer) throws IOException {
-    byte type = buffer.get();
-    return deserializeRecursiveWithType(buffer, type);
-  }
-
-  @Nullable
-  private Object deserializeRecursiveWithType(ByteBuffer buffer, byte type) throws IOException {
-    switch (type) {
-      case BSER_INT8:
-      case BSER_INT16:
-      case BSER_INT32:
-      case BSER_INT64:
-        return deserializeNumber(buffer, type);
-      case BSER_REAL:
-        return buffer.getDouble();
-      case BSER_TRUE:
-        return true;
-      case BSER_FALSE:
-        return false;
-      case BSER_NULL:
-        return null;
-      case BSER_STRING:
-        return deserializeString(buffer);
-      case BSER_ARRAY:
-        return deserializeArray(buffer);
-      case BSER_OBJECT:
-        return deserializeObject(buffer);
-      case BSER_TEMPLATE:
-        return deserializeTemplate(buffer);
-      default:
-        throw new IOException(String.format("Unrecognized BSER value type %d", type));
+  private static BserParser.Token nextToken(BserParser parser) throws IOException {
+    BserParser.Token token = parser.nextToken();
+    if (token == null) {
+      throw new BserEofException("Prematurely reached end of BSER buffer");
     }
+    return token;
   }
 
   /**
@@ -383,6 +236,22 @@ public class BserDeserializer {
           .collect(Collectors.toList());
     }
 
+    // The delegate holds the sentinel, so comparing and printing it would leak the sentinel.
+    @Override
+    public boolean equals(@Nullable Object object) {
+      return standardEquals(object);
+    }
+
+    @Override
+    public int hashCode() {
+      return standardHashCode();
+    }
+
+    @Override
+    public String toString() {
+      return standardToString();
+    }
+
     @Override
     public Set<Entry<K, V>> entrySet() {
       return super.entrySet().stream()
@@ -413,6 +282,21 @@ public class BserDeserializer {
         }
         return result;
       }
+
+      @Override
+      public boolean equals(@Nullable Object object) {
+        return standardEquals(object);
+      }
+
+      @Override
+      public int hashCode() {
+        return standardHashCode();
+      }
+
+      @Override
+      public String toString() {
+        return standardToString();
+      }
     }
   }
 }
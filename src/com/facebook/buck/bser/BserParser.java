@@ -0,0 +1,586 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.bser;
+
+import static com.facebook.buck.bser.BserConstants.BSER_ARRAY;
+import static com.facebook.buck.bser.BserConstants.BSER_FALSE;
+import static com.facebook.buck.bser.BserConstants.BSER_INT16;
+import static com.facebook.buck.bser.BserConstants.BSER_INT32;
+import static com.facebook.buck.bser.BserConstants.BSER_INT64;
+import static com.facebook.buck.bser.BserConstants.BSER_INT8;
+import static com.facebook.buck.bser.BserConstants.BSER_NULL;
+import static com.facebook.buck.bser.BserConstants.BSER_OBJECT;
+import static com.facebook.buck.bser.BserConstants.BSER_REAL;
+import static com.facebook.buck.bser.BserConstants.BSER_SKIP;
+import static com.facebook.buck.bser.BserConstants.BSER_STRING;
+import static com.facebook.buck.bser.BserConstants.BSER_TEMPLATE;
+import static com.facebook.buck.bser.BserConstants.BSER_TRUE;
+
+import com.facebook.buck.bser.BserDeserializer.BserEofException;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Pull parser for one BSER-encoded PDU, in the style of Jackson's {@code JsonParser}.
+ * <p>
+ * The PDU is read from the stream through a small buffer as it is parsed, and never past its
+ * end, so the stream is left at the start of the next PDU once {@link #finish()} returns. Strings
+ * are only decoded when {@link #getText()} is called, straight out of that buffer, so values that
+ * are skipped cost nothing but the bytes read.
+ * <p>
+ * Templates (compact arrays of objects) are expanded, so they look like an array of objects with
+ * the skipped fields left out.
+ */
+public class BserParser {
+
+  public enum Token {
+    START_ARRAY,
+    END_ARRAY,
+    START_OBJECT,
+    END_OBJECT,
+    FIELD_NAME,
+    VALUE_STRING,
+    VALUE_INT,
+    VALUE_REAL,
+    VALUE_TRUE,
+    VALUE_FALSE,
+    VALUE_NULL
+  }
+
+  // 2 bytes marker, 1 byte int size
+  private static final int INITIAL_SNIFF_LEN = 3;
+
+  // 2 bytes marker, 1 byte int size, up to 8 bytes int64 value
+  static final int SNIFF_BUFFER_SIZE = 13;
+
+  private static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+  private static final int INITIAL_DEPTH = 8;
+
+  private static final int ARRAY_FRAME = 0;
+  private static final int OBJECT_FRAME = 1;
+  private static final int TEMPLATE_FRAME = 2;
+  private static final int TEMPLATE_ROW_FRAME = 3;
+
+  private final InputStream inputStream;
+  private final CharsetDecoder utf8Decoder;
+
+  private byte[] buffer;
+  private ByteBuffer byteBuffer;
+  private int position;
+  private int limit;
+  private int pduLength = -1;
+  private long pduBytesUnread;
+
+  // The stack of containers being parsed.
+  private int depth;
+  private int[] frameTypes = new int[INITIAL_DEPTH];
+  private int[] itemsRemaining = new int[INITIAL_DEPTH];
+  private boolean[] expectingValue = new boolean[INITIAL_DEPTH];
+  private String[][] templateKeys = new String[INITIAL_DEPTH][];
+  private boolean finishedTopLevel;
+  private byte pendingValueType;
+
+  // The current token and its value.
+  @Nullable private Token currentToken;
+  private byte intType;
+  private long longValue;
+  private double doubleValue;
+  private int textOffset;
+  private int textLength;
+  @Nullable private String decodedText;
+
+  public BserParser(InputStream inputStream) {
+    this(inputStream, DEFAULT_BUFFER_SIZE);
+  }
+
+  BserParser(InputStream inputStream, int bufferSize) {
+    this.inputStream = inputStream;
+    this.utf8Decoder = StandardCharsets.UTF_8
+        .newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT);
+    setBuffer(new byte[Math.max(bufferSize, SNIFF_BUFFER_SIZE)]);
+  }
+
+  /**
+   * Advances to the next token of the PDU, reading its header first if need be.
+   *
+   * @return the new current token, or null once the top-level value has been parsed.
+   */
+  @Nullable
+  public Token nextToken() throws IOException {
+    if (pduLength < 0) {
+      pduLength = readPduLength(inputStream, buffer);
+      pduBytesUnread = pduLength;
+    }
+    decodedText = null;
+    currentToken = readNextToken();
+    return currentToken;
+  }
+
+  @Nullable
+  public Token getCurrentToken() {
+    return currentToken;
+  }
+
+  /**
+   * @return the text of the current {@link Token#VALUE_STRING} or {@link Token#FIELD_NAME}.
+   */
+  public String getText() throws IOException {
+    Preconditions.checkState(
+        currentToken == Token.VALUE_STRING || currentToken == Token.FIELD_NAME,
+        "No text for %s",
+        currentToken);
+    if (decodedText == null) {
+      decodedText = decodeText();
+    }
+    return decodedText;
+  }
+
+  /**
+   * @return the interned name of the current {@link Token#FIELD_NAME}. The names of objects
+   *     expanded from a template are interned once for the whole template, not once per object.
+   */
+  public String getFieldName() throws IOException {
+    Preconditions.checkState(currentToken == Token.FIELD_NAME, "Not a field: %s", currentToken);
+    if (frameTypes[depth - 1] == TEMPLATE_ROW_FRAME) {
+      return getText();
+    }
+    return getText().intern();
+  }
+
+  /**
+   * @return the value of the current {@link Token#VALUE_INT} as the smallest of {@link Byte},
+   *     {@link Short}, {@link Integer} or {@link Long} that it was encoded as.
+   */
+  public Number getNumberValue() {
+    Preconditions.checkState(currentToken == Token.VALUE_INT, "Not a number: %s", currentToken);
+    switch (intType) {
+      case BSER_INT8:
+        return (byte) longValue;
+      case BSER_INT16:
+        return (short) longValue;
+      case BSER_INT32:
+        return (int) longValue;
+      default:
+        return longValue;
+    }
+  }
+
+  public long getLongValue() {
+    Preconditions.checkState(currentToken == Token.VALUE_INT, "Not a number: %s", currentToken);
+    return longValue;
+  }
+
+  public double getDoubleValue() {
+    Preconditions.checkState(currentToken == Token.VALUE_REAL, "Not a real: %s", currentToken);
+    return doubleValue;
+  }
+
+  /**
+   * @return the number of items in the array, or entries in the object, that the current token
+   *     starts. Objects expanded from a template may have fewer, since fields that a row skips are
+   *     left out.
+   */
+  public int getContainerSize() {
+    Preconditions.checkState(
+        currentToken == Token.START_ARRAY || currentToken == Token.START_OBJECT,
+        "Not the start of a container: %s",
+        currentToken);
+    int frame = depth - 1;
+    if (frameTypes[frame] == TEMPLATE_ROW_FRAME) {
+      return templateKeys[frame].length;
+    }
+    return itemsRemaining[frame];
+  }
+
+  /**
+   * If the current token starts an array or an object, skips to the token that ends it, without
+   * decoding anything inside it.
+   */
+  public void skipChildren() throws IOException {
+    if (currentToken != Token.START_ARRAY && currentToken != Token.START_OBJECT) {
+      return;
+    }
+    int targetDepth = depth - 1;
+    while (depth > targetDepth) {
+      nextToken();
+    }
+  }
+
+  /**
+   * Skips whatever is left of the PDU, leaving the stream at the start of the next one.
+   */
+  public void finish() throws IOException {
+    if (pduLength < 0) {
+      nextToken();
+    }
+    while (depth > 0) {
+      nextToken();
+    }
+    while (pduBytesUnread > 0) {
+      limit = position = 0;
+      require((int) Math.min(pduBytesUnread, buffer.length));
+    }
+    position = limit;
+  }
+
+  /**
+   * Reads the header of a BSER PDU, using {@code scratch} to hold it.
+   *
+   * @return the length of the rest of the PDU.
+   */
+  static int readPduLength(InputStream inputStream, byte[] scratch) throws IOException {
+    Preconditions.checkArgument(scratch.length >= SNIFF_BUFFER_SIZE);
+    ByteBuffer sniffBuffer = ByteBuffer.wrap(scratch, 0, SNIFF_BUFFER_SIZE)
+        .order(ByteOrder.nativeOrder());
+
+    int sniffBytesRead = ByteStreams.read(inputStream, scratch, 0, INITIAL_SNIFF_LEN);
+    if (sniffBytesRead < INITIAL_SNIFF_LEN) {
+      throw new BserEofException(
+          String.format(
+              "Invalid BSER header (expected %d bytes, got %d bytes)",
+              INITIAL_SNIFF_LEN,
+              sniffBytesRead));
+    }
+
+    if (sniffBuffer.get() != 0x00 || sniffBuffer.get() != 0x01) {
+      throw new IOException("Invalid BSER header");
+    }
+
+    byte lengthType = sniffBuffer.get();
+    int lengthBytesRemaining;
+    switch (lengthType) {
+      case BSER_INT8:
+        lengthBytesRemaining = 1;
+        break;
+      case BSER_INT16:
+        lengthBytesRemaining = 2;
+        break;
+      case BSER_INT32:
+        lengthBytesRemaining = 4;
+        break;
+      case BSER_INT64:
+        lengthBytesRemaining = 8;
+        break;
+      default:
+        throw new IOException(
+            String.format("Unrecognized BSER header length type %d", lengthType));
+    }
+    int lengthBytesRead = ByteStreams.read(
+        inputStream,
+        scratch,
+        sniffBuffer.position(),
+        lengthBytesRemaining);
+    if (lengthBytesRead < lengthBytesRemaining) {
+      throw new BserEofException(
+          String.format(
+              "Invalid BSER header length (expected %d bytes, got %d bytes)",
+              lengthBytesRemaining,
+              lengthBytesRead));
+    }
+    return checkLength(readInt(sniffBuffer, sniffBuffer.position(), lengthType));
+  }
+
+  static int checkLength(long value) throws IOException {
+    if (value > Integer.MAX_VALUE) {
+      throw new IOException(
+          String.format(
+              "BSER length out of range (%d > %d)",
+              value,
+              Integer.MAX_VALUE));
+    } else if (value < 0) {
+      throw new IOException(
+          String.format(
+              "BSER length out of range (%d < 0)",
+              value));
+    }
+    return (int) value;
+  }
+
+  /**
+   * @return the number of bytes an integer of the given type takes up.
+   */
+  static int intSize(byte type) throws IOException {
+    switch (type) {
+      case BSER_INT8:
+        return 1;
+      case BSER_INT16:
+        return 2;
+      case BSER_INT32:
+        return 4;
+      case BSER_INT64:
+        return 8;
+      default:
+        throw new IOException(String.format("Invalid BSER number encoding %d", type));
+    }
+  }
+
+  /**
+   * Reads an integer of the given type at an absolute offset in the buffer.
+   */
+  static long readInt(ByteBuffer buffer, int offset, byte type) throws IOException {
+    switch (type) {
+      case BSER_INT8:
+        return buffer.get(offset);
+      case BSER_INT16:
+        return buffer.getShort(offset);
+      case BSER_INT32:
+        return buffer.getInt(offset);
+      case BSER_INT64:
+        return buffer.getLong(offset);
+      default:
+        throw new IOException(String.format("Invalid BSER number encoding %d", type));
+    }
+  }
+
+  @Nullable
+  private Token readNextToken() throws IOException {
+    if (depth == 0) {
+      if (finishedTopLevel) {
+        return null;
+      }
+      finishedTopLevel = true;
+      return readValue(readByte());
+    }
+    int frame = depth - 1;
+    switch (frameTypes[frame]) {
+      case ARRAY_FRAME:
+        if (itemsRemaining[frame] == 0) {
+          depth--;
+          return Token.END_ARRAY;
+        }
+        itemsRemaining[frame]--;
+        return readValue(readByte());
+      case OBJECT_FRAME:
+        if (expectingValue[frame]) {
+          expectingValue[frame] = false;
+          return readValue(readByte());
+        }
+        if (itemsRemaining[frame] == 0) {
+          depth--;
+          return Token.END_OBJECT;
+        }
+        itemsRemaining[frame]--;
+        byte keyType = readByte();
+        if (keyType != BSER_STRING) {
+          throw new IOException(
+              String.format(
+                  "Unrecognized BSER object key type %d, expected string",
+                  keyType));
+        }
+        readString();
+        expectingValue[frame] = true;
+        return Token.FIELD_NAME;
+      case TEMPLATE_FRAME:
+        if (itemsRemaining[frame] == 0) {
+          depth--;
+          return Token.END_ARRAY;
+        }
+        itemsRemaining[frame]--;
+        pushFrame(TEMPLATE_ROW_FRAME, 0, templateKeys[frame]);
+        return Token.START_OBJECT;
+      case TEMPLATE_ROW_FRAME:
+        if (expectingValue[frame]) {
+          expectingValue[frame] = false;
+          return readValue(pendingValueType);
+        }
+        String[] keys = templateKeys[frame];
+        while (itemsRemaining[frame] < keys.length) {
+          byte valueType = readByte();
+          String key = keys[itemsRemaining[frame]++];
+          if (valueType != BSER_SKIP) {
+            pendingValueType = valueType;
+            expectingValue[frame] = true;
+            decodedText = key;
+            return Token.FIELD_NAME;
+          }
+        }
+        depth--;
+        return Token.END_OBJECT;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private Token readValue(byte type) throws IOException {
+    switch (type) {
+      case BSER_INT8:
+      case BSER_INT16:
+      case BSER_INT32:
+      case BSER_INT64:
+        intType = type;
+        longValue = readInt(type);
+        return Token.VALUE_INT;
+      case BSER_REAL:
+        require(8);
+        doubleValue = byteBuffer.getDouble(position);
+        position += 8;
+        return Token.VALUE_REAL;
+      case BSER_TRUE:
+        return Token.VALUE_TRUE;
+      case BSER_FALSE:
+        return Token.VALUE_FALSE;
+      case BSER_NULL:
+        return Token.VALUE_NULL;
+      case BSER_STRING:
+        readString();
+        return Token.VALUE_STRING;
+      case BSER_ARRAY:
+        pushFrame(ARRAY_FRAME, readLength(), null);
+        return Token.START_ARRAY;
+      case BSER_OBJECT:
+        pushFrame(OBJECT_FRAME, readLength(), null);
+        return Token.START_OBJECT;
+      case BSER_TEMPLATE:
+        String[] keys = readTemplateKeys();
+        pushFrame(TEMPLATE_FRAME, readLength(), keys);
+        return Token.START_ARRAY;
+      default:
+        throw new IOException(String.format("Unrecognized BSER value type %d", type));
+    }
+  }
+
+  private String[] readTemplateKeys() throws IOException {
+    byte arrayType = readByte();
+    if (arrayType != BSER_ARRAY) {
+      throw new IOException(String.format("Expected ARRAY to follow TEMPLATE, got %d", arrayType));
+    }
+    String[] keys = new String[readLength()];
+    for (int i = 0; i < keys.length; i++) {
+      byte keyType = readByte();
+      if (keyType != BSER_STRING) {
+        throw new IOException(
+            String.format(
+                "Unrecognized BSER template key type %d, expected string",
+                keyType));
+      }
+      readString();
+      keys[i] = decodeText().intern();
+    }
+    return keys;
+  }
+
+  private void pushFrame(int frameType, int items, @Nullable String[] keys) {
+    if (depth == frameTypes.length) {
+      int newLength = depth * 2;
+      frameTypes = Arrays.copyOf(frameTypes, newLength);
+      itemsRemaining = Arrays.copyOf(itemsRemaining, newLength);
+      expectingValue = Arrays.copyOf(expectingValue, newLength);
+      templateKeys = Arrays.copyOf(templateKeys, newLength);
+    }
+    frameTypes[depth] = frameType;
+    itemsRemaining[depth] = items;
+    expectingValue[depth] = false;
+    templateKeys[depth] = keys;
+    depth++;
+  }
+
+  private void readString() throws IOException {
+    int length = readLength();
+    require(length);
+    textOffset = position;
+    textLength = length;
+    position += length;
+  }
+
+  private String decodeText() throws IOException {
+    // Most strings Buck sees are paths and identifiers, so skip the decoder when there is
+    // nothing but ASCII.
+    int end = textOffset + textLength;
+    boolean ascii = true;
+    for (int i = textOffset; i < end; i++) {
+      if (buffer[i] < 0) {
+        ascii = false;
+        break;
+      }
+    }
+    if (ascii) {
+      return new String(buffer, textOffset, textLength, StandardCharsets.ISO_8859_1);
+    }
+    // We use a CharsetDecoder here instead of String(byte[], Charset)
+    // because we want it to throw an exception for any non-UTF-8 input.
+    return utf8Decoder.decode(ByteBuffer.wrap(buffer, textOffset, textLength)).toString();
+  }
+
+  private int readLength() throws IOException {
+    return checkLength(readInt(readByte()));
+  }
+
+  private long readInt(byte type) throws IOException {
+    int size = intSize(type);
+    require(size);
+    long value = readInt(byteBuffer, position, type);
+    position += size;
+    return value;
+  }
+
+  private byte readByte() throws IOException {
+    require(1);
+    return buffer[position++];
+  }
+
+  /**
+   * Makes sure the next {@code count} bytes of the PDU are in the buffer, reading more of the
+   * stream if they are not.
+   */
+  private void require(int count) throws IOException {
+    int available = limit - position;
+    if (available >= count) {
+      return;
+    }
+    if (available + pduBytesUnread < count) {
+      throw new BserEofException("Prematurely reached end of BSER buffer");
+    }
+    if (buffer.length < count) {
+      byte[] newBuffer = new byte[Math.max(count, buffer.length * 2)];
+      System.arraycopy(buffer, position, newBuffer, 0, available);
+      setBuffer(newBuffer);
+    } else {
+      System.arraycopy(buffer, position, buffer, 0, available);
+    }
+    position = 0;
+    limit = available;
+
+    int toRead = (int) Math.min(buffer.length - limit, pduBytesUnread);
+    int read = ByteStreams.read(inputStream, buffer, limit, toRead);
+    if (read < toRead) {
+      throw new BserEofException(
+          String.format(
+              "Invalid BSER header (expected %d bytes, got %d bytes)",
+              pduLength,
+              pduLength - pduBytesUnread + read));
+    }
+    limit += read;
+    pduBytesUnread -= read;
+  }
+
+  private void setBuffer(byte[] buffer) {
+    this.buffer = buffer;
+    this.byteBuffer = ByteBuffer.wrap(buffer).order(ByteOrder.nativeOrder());
+  }
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.bser;
+
+import static com.facebook.buck.bser.BserConstants.BSER_ARRAY;
+import static com.facebook.buck.bser.BserConstants.BSER_FALSE;
+import static com.facebook.buck.bser.BserConstants.BSER_INT16;
+import static com.facebook.buck.bser.BserConstants.BSER_INT32;
+import static com.facebook.buck.bser.BserConstants.BSER_INT64;
+import static com.facebook.buck.bser.BserConstants.BSER_INT8;
+import static com.facebook.buck.bser.BserConstants.BSER_NULL;
+import static com.facebook.buck.bser.BserConstants.BSER_OBJECT;
+import static com.facebook.buck.bser.BserConstants.BSER_REAL;
+import static com.facebook.buck.bser.BserConstants.BSER_SKIP;
+import static com.facebook.buck.bser.BserConstants.BSER_STRING;
+import static com.facebook.buck.bser.BserConstants.BSER_TEMPLATE;
+import static com.facebook.buck.bser.BserConstants.BSER_TRUE;
+
+import com.facebook.buck.bser.BserDeserializer.BserEofException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read-only {@link Map} and {@link List} views over an encoded BSER value, which decode entries
+ * as they are accessed. See {@link BserDeserializer#deserializeBserValueView}.
+ * <p>
+ * Every view indexes its own entries when it is created, which means walking over everything
+ * inside it. Creating the top-level view therefore checks that the whole value is well-formed, so
+ * the views themselves never have to report a truncated value.
+ * <p>
+ * Decoded entries are cached in plain arrays. Racing threads may both decode the same entry, but
+ * since every decoded value is immutable, either copy will do.
+ */
+final class BserValueViews {
+
+  private static final Object NOT_DECODED = new Object();
+
+  private static final ThreadLocal<CharsetDecoder> UTF8_DECODER = ThreadLocal.withInitial(
+      () -> StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT));
+
+  private BserValueViews() {}
+
+  @Nullable
+  static Object decode(byte[] pdu) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(pdu).order(ByteOrder.nativeOrder());
+    try {
+      return readValue(buffer, 0);
+    } catch (IndexOutOfBoundsException e) {
+      throw new BserEofException("Prematurely reached end of BSER buffer", e);
+    }
+  }
+
+  @Nullable
+  private static Object readValue(ByteBuffer buffer, int offset) throws IOException {
+    byte type = buffer.get(offset);
+    switch (type) {
+      case BSER_INT8:
+        return buffer.get(offset + 1);
+      case BSER_INT16:
+        return buffer.getShort(offset + 1);
+      case BSER_INT32:
+        return buffer.getInt(offset + 1);
+      case BSER_INT64:
+        return buffer.getLong(offset + 1);
+      case BSER_REAL:
+        return buffer.getDouble(offset + 1);
+      case BSER_TRUE:
+        return true;
+      case BSER_FALSE:
+        return false;
+      case BSER_NULL:
+        return null;
+      case BSER_STRING:
+        return readString(buffer, offset + 1);
+      case BSER_ARRAY:
+        return new ArrayView(buffer, offset);
+      case BSER_OBJECT:
+        return new ObjectView(buffer, offset);
+      case BSER_TEMPLATE:
+        return new TemplateView(buffer, offset);
+      default:
+        throw new IOException(String.format("Unrecognized BSER value type %d", type));
+    }
+  }
+
+  /**
+   * @return the offset just past the value that starts at {@code offset}.
+   */
+  private static int skipValue(ByteBuffer buffer, int offset) throws IOException {
+    byte type = buffer.get(offset);
+    switch (type) {
+      case BSER_INT8:
+      case BSER_INT16:
+      case BSER_INT32:
+      case BSER_INT64:
+        return checkBounds(buffer, skipInt(offset, type));
+      case BSER_REAL:
+        return checkBounds(buffer, offset + 1 + 8);
+      case BSER_TRUE:
+      case BSER_FALSE:
+      case BSER_NULL:
+        return offset + 1;
+      case BSER_STRING:
+        return skipString(buffer, offset + 1);
+      case BSER_ARRAY: {
+        int numItems = readLength(buffer, offset + 1);
+        int position = skipInt(buffer, offset + 1);
+        for (int i = 0; i < numItems; i++) {
+          position = skipValue(buffer, position);
+        }
+        return position;
+      }
+      case BSER_OBJECT: {
+        int numItems = readLength(buffer, offset + 1);
+        int position = skipInt(buffer, offset + 1);
+        for (int i = 0; i < numItems; i++) {
+          position = skipValue(buffer, skipKey(buffer, position));
+        }
+        return position;
+      }
+      case BSER_TEMPLATE: {
+        int keysOffset = checkTemplateKeys(buffer, offset);
+        int numKeys = readLength(buffer, keysOffset + 1);
+        int position = skipValue(buffer, keysOffset);
+        int numRows = readLength(buffer, position);
+        position = skipInt(buffer, position);
+        for (int row = 0; row < numRows; row++) {
+          position = skipRow(buffer, position, numKeys);
+        }
+        return position;
+      }
+      default:
+        throw new IOException(String.format("Unrecognized BSER value type %d", type));
+    }
+  }
+
+  private static int skipRow(ByteBuffer buffer, int offset, int numKeys) throws IOException {
+    int position = offset;
+    for (int key = 0; key < numKeys; key++) {
+      position = buffer.get(position) == BSER_SKIP ? position + 1 : skipValue(buffer, position);
+    }
+    return position;
+  }
+
+  private static int skipKey(ByteBuffer buffer, int offset) throws IOException {
+    byte keyType = buffer.get(offset);
+    if (keyType != BSER_STRING) {
+      throw new IOException(
+          String.format(
+              "Unrecognized BSER object key type %d, expected string",
+              keyType));
+    }
+    return skipString(buffer, offset + 1);
+  }
+
+  /**
+   * @return the offset of the array of keys of the template that starts at {@code offset}.
+   */
+  private static int checkTemplateKeys(ByteBuffer buffer, int offset) throws IOException {
+    int keysOffset = offset + 1;
+    byte arrayType = buffer.get(keysOffset);
+    if (arrayType != BSER_ARRAY) {
+      throw new IOException(String.format("Expected ARRAY to follow TEMPLATE, got %d", arrayType));
+    }
+    return keysOffset;
+  }
+
+  /**
+   * @param offset the offset of the length of the string.
+   * @return the offset just past the string.
+   */
+  private static int skipString(ByteBuffer buffer, int offset) throws IOException {
+    int length = readLength(buffer, offset);
+    return checkBounds(buffer, skipInt(buffer, offset) + length);
+  }
+
+  private static String readString(ByteBuffer buffer, int offset) throws IOException {
+    int length = readLength(buffer, offset);
+    int start = skipInt(buffer, offset);
+    checkBounds(buffer, start + length);
+    return decodeString(buffer, start, length);
+  }
+
+  private static String decodeString(ByteBuffer buffer, int start, int length) throws IOException {
+    byte[] bytes = buffer.array();
+    int end = start + length;
+    boolean ascii = true;
+    for (int i = start; i < end; i++) {
+      if (bytes[i] < 0) {
+        ascii = false;
+        break;
+      }
+    }
+    if (ascii) {
+      return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+    }
+    return UTF8_DECODER.get().decode(ByteBuffer.wrap(bytes, start, length)).toString();
+  }
+
+  /**
+   * @param offset the offset of the type byte of an integer.
+   */
+  private static int readLength(ByteBuffer buffer, int offset) throws IOException {
+    return BserParser.checkLength(BserParser.readInt(buffer, offset + 1, buffer.get(offset)));
+  }
+
+  /**
+   * @param offset the offset of the type byte of an integer.
+   * @return the offset just past the integer.
+   */
+  private static int skipInt(ByteBuffer buffer, int offset) throws IOException {
+    return skipInt(offset, buffer.get(offset));
+  }
+
+  private static int skipInt(int offset, byte type) throws IOException {
+    return offset + 1 + BserParser.intSize(type);
+  }
+
+  private static int checkBounds(ByteBuffer buffer, int end) throws IOException {
+    if (end > buffer.limit()) {
+      throw new BserEofException("Prematurely reached end of BSER buffer");
+    }
+    return end;
+  }
+
+  private static Object[] newCache(int size) {
+    Object[] cache = new Object[size];
+    Arrays.fill(cache, NOT_DECODED);
+    return cache;
+  }
+
+  @Nullable
+  private static Object cachedValue(ByteBuffer buffer, Object[] cache, int index, int offset) {
+    Object value = cache[index];
+    if (value == NOT_DECODED) {
+      try {
+        value = readValue(buffer, offset);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      cache[index] = value;
+    }
+    return value;
+  }
+
+  private static class ArrayView extends AbstractList<Object> implements RandomAccess {
+    private final ByteBuffer buffer;
+    private final int[] valueOffsets;
+    private final Object[] values;
+
+    ArrayView(ByteBuffer buffer, int offset) throws IOException {
+      this.buffer = buffer;
+      this.valueOffsets = new int[readLength(buffer, offset + 1)];
+      int position = skipInt(buffer, offset + 1);
+      for (int i = 0; i < valueOffsets.length; i++) {
+        valueOffsets[i] = position;
+        position = skipValue(buffer, position);
+      }
+      this.values = newCache(valueOffsets.length);
+    }
+
+    @Override
+    @Nullable
+    public Object get(int index) {
+      return cachedValue(buffer, values, index, valueOffsets[index]);
+    }
+
+    @Override
+    public int size() {
+      return valueOffsets.length;
+    }
+  }
+
+  private static class ObjectView extends AbstractMap<String, Object> {
+    private final ByteBuffer buffer;
+    private final int[] keyOffsets;
+    private final int[] keyLengths;
+    private final int[] valueOffsets;
+    private final String[] keys;
+    private final Object[] values;
+
+    ObjectView(ByteBuffer buffer, int offset) throws IOException {
+      this.buffer = buffer;
+      int numItems = readLength(buffer, offset + 1);
+      this.keyOffsets = new int[numItems];
+      this.keyLengths = new int[numItems];
+      this.valueOffsets = new int[numItems];
+      int position = skipInt(buffer, offset + 1);
+      for (int i = 0; i < numItems; i++) {
+        int valueOffset = skipKey(buffer, position);
+        keyLengths[i] = readLength(buffer, position + 1);
+        keyOffsets[i] = valueOffset - keyLengths[i];
+        valueOffsets[i] = valueOffset;
+        position = skipValue(buffer, valueOffset);
+      }
+      this.keys = new String[numItems];
+      this.values = newCache(numItems);
+    }
+
+    @Override
+    @Nullable
+    public Object get(@Nullable Object key) {
+      int index = indexOf(key);
+      return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return valueOffsets.length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new Iterator<Entry<String, Object>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+              return next < valueOffsets.length;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              int index = next++;
+              return new SimpleImmutableEntry<>(keyAt(index), valueAt(index));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return valueOffsets.length;
+        }
+      };
+    }
+
+    private int indexOf(@Nullable Object key) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      String keyString = (String) key;
+      for (int i = 0; i < keyOffsets.length; i++) {
+        if (keyEquals(i, keyString)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Compares a key without decoding it. Encoded keys have at least as many bytes as decoded ones
+     * have characters, with as many only if they are ASCII, so only longer keys need decoding.
+     */
+    private boolean keyEquals(int index, String key) {
+      int length = keyLengths[index];
+      if (length != key.length()) {
+        return length > key.length() && keyAt(index).equals(key);
+      }
+      int offset = keyOffsets[index];
+      for (int i = 0; i < length; i++) {
+        if (buffer.get(offset + i) != key.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private String keyAt(int index) {
+      String key = keys[index];
+      if (key == null) {
+        try {
+          key = decodeString(buffer, keyOffsets[index], keyLengths[index]);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        keys[index] = key;
+      }
+      return key;
+    }
+
+    @Nullable
+    private Object valueAt(int index) {
+      return cachedValue(buffer, values, index, valueOffsets[index]);
+    }
+  }
+
+  private static class TemplateView extends AbstractList<Object> implements RandomAccess {
+    private final ByteBuffer buffer;
+    private final String[] keys;
+    private final int[] rowOffsets;
+    private final Object[] rows;
+
+    TemplateView(ByteBuffer buffer, int offset) throws IOException {
+      this.buffer = buffer;
+      int keysOffset = checkTemplateKeys(buffer, offset);
+      this.keys = new String[readLength(buffer, keysOffset + 1)];
+      int position = skipInt(buffer, keysOffset + 1);
+      for (int i = 0; i < keys.length; i++) {
+        int end = skipKey(buffer, position);
+        keys[i] = readString(buffer, position + 1).intern();
+        position = end;
+      }
+      this.rowOffsets = new int[readLength(buffer, position)];
+      position = skipInt(buffer, position);
+      for (int row = 0; row < rowOffsets.length; row++) {
+        rowOffsets[row] = position;
+        position = skipRow(buffer, position, keys.length);
+      }
+      this.rows = newCache(rowOffsets.length);
+    }
+
+    @Override
+    public Object get(int index) {
+      Object row = rows[index];
+      if (row == NOT_DECODED) {
+        row = new RowView(this, rowOffsets[index]);
+        rows[index] = row;
+      }
+      return row;
+    }
+
+    @Override
+    public int size() {
+      return rowOffsets.length;
+    }
+  }
+
+  /**
+   * One object of a template. Fields that the row skips are left out.
+   */
+  private static class RowView extends AbstractMap<String, Object> {
+    private final TemplateView template;
+    /** The offset of each field's value, or -1 if the row skips the field. */
+    private final int[] valueOffsets;
+    private final int size;
+    private final Object[] values;
+
+    RowView(TemplateView template, int offset) {
+      this.template = template;
+      this.valueOffsets = new int[template.keys.length];
+      int position = offset;
+      int presentFields = 0;
+      try {
+        for (int i = 0; i < valueOffsets.length; i++) {
+          if (template.buffer.get(position) == BSER_SKIP) {
+            valueOffsets[i] = -1;
+            position++;
+          } else {
+            valueOffsets[i] = position;
+            presentFields++;
+            position = skipValue(template.buffer, position);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      this.size = presentFields;
+      this.values = newCache(valueOffsets.length);
+    }
+
+    @Override
+    @Nullable
+    public Object get(@Nullable Object key) {
+      int index = indexOf(key);
+      return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      if (size == 0) {
+        return Collections.emptySet();
+      }
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new Iterator<Entry<String, Object>>() {
+            private int next = nextPresent(0);
+
+            @Override
+            public boolean hasNext() {
+              return next < valueOffsets.length;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              int index = next;
+              next = nextPresent(index + 1);
+              return new SimpleImmutableEntry<>(template.keys[index], valueAt(index));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+
+    private int nextPresent(int index) {
+      while (index < valueOffsets.length && valueOffsets[index] < 0) {
+        index++;
+      }
+      return index;
+    }
+
+    private int indexOf(@Nullable Object key) {
+      String[] keys = template.keys;
+      for (int i = 0; i < keys.length; i++) {
+        if (valueOffsets[i] >= 0 && keys[i].equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Nullable
+    private Object valueAt(int index) {
+      return cachedValue(template.buffer, values, index, valueOffsets[index]);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.facebook.buck.jvm.core.JavaPackageFinder;
 import com.facebook.buck.log.InvocationInfo;
 import com.facebook.buck.parser.Parser;
 import com.facebook.buck.rules.ActionGraphCache;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.facebook.buck.rules.Cell;
 import com.facebook.buck.rules.KnownBuildRuleTypesFactory;
 import com.facebook.buck.rules.RuleKey;
@@ -96,4 +97,9 @@ public interface AbstractCommandRunnerParams {
   Optional<InvocationInfo> getInvocationInfo();
 
   Optional<RuleKeyCacheRecycler<RuleKey>> getDefaultRuleKeyFactoryCacheRecycler();
+
+  /**
+   * @return how long rules took to build in previous builds, for critical path scheduling.
+   */
+  Optional<BuildRuleDurationHistory> getBuildRuleDurationHistory();
 }
@@ -27,6 +27,7 @@ import com.facebook.buck.model.BuildTarget;
 import com.facebook.buck.parser.BuildTargetParseException;
 import com.facebook.buck.parser.BuildTargetParser;
 import com.facebook.buck.parser.BuildTargetPatternParser;
+import com.facebook.buck.rules.ActionGraphCache;
 import com.facebook.buck.rules.BinaryBuildRuleToolProvider;
 import com.facebook.buck.rules.BuildRuleResolver;
 import com.facebook.buck.rules.CellPathResolver;
@@ -126,7 +127,11 @@ public class BuckConfig implements ConfigPathGetter {
     ignoreFieldsForDaemonRestartBuilder.put("client",
         ImmutableSet.of("id", "skip-action-graph-cache"));
     ignoreFieldsForDaemonRestartBuilder.put("log", ImmutableSet.of(
-        "chrome_trace_generation", "compress_traces", "max_traces", "public_announcements"));
+        "binary_traces",
+        "chrome_trace_generation",
+        "compress_traces",
+        "max_traces",
+        "public_announcements"));
     ignoreFieldsForDaemonRestartBuilder.put("project", ImmutableSet.of(
         "ide_prompt", "xcode_focus_disable_build_with_buck"));
     IGNORE_FIELDS_FOR_DAEMON_RESTART = ignoreFieldsForDaemonRestartBuilder.build();
@@ -498,6 +503,10 @@ public class BuckConfig implements ConfigPathGetter {
     return getBooleanValue("log", "compress_traces", false);
   }
 
+  public boolean getBinaryTraces() {
+    return getBooleanValue(LOG_SECTION, "binary_traces", false);
+  }
+
   public ProjectTestsMode xcodeProjectTestsMode() {
     return getEnum("project", "xcode_project_tests_mode", ProjectTestsMode.class).orElse(
         ProjectTestsMode.WITH_TESTS);
@@ -582,6 +591,26 @@ public class BuckConfig implements ConfigPathGetter {
     return getBooleanValue("cache", "action_graph_cache_check_enabled", false);
   }
 
+  public boolean isIncrementalActionGraphEnabled() {
+    return getBooleanValue("cache", "incremental_action_graph", false);
+  }
+
+  public int getMaxActionGraphCacheEntries() {
+    long maxEntries = config.getLong("cache", "max_action_graph_cache_entries")
+        .orElse((long) ActionGraphCache.DEFAULT_MAX_ENTRIES);
+    if (maxEntries < 1 || maxEntries > Integer.MAX_VALUE) {
+      throw new HumanReadableException(
+          "cache.max_action_graph_cache_entries must be a positive integer, got %d.",
+          maxEntries);
+    }
+    return (int) maxEntries;
+  }
+
+  public float getActionGraphCacheMaxHeapFraction() {
+    return config.getFloat("cache", "action_graph_cache_max_heap_fraction")
+        .orElse(ActionGraphCache.DEFAULT_MAX_HEAP_FRACTION);
+  }
+
   public Optional<String> getRepository() {
     return config.get("cache", "repository");
   }
@@ -1091,6 +1120,28 @@ public class BuckConfig implements ConfigPathGetter {
     return getBooleanValue("build", "rule_key_caching", false);
   }
 
+  /**
+   * @return whether to persist cached rule keys across daemon restarts.
+   */
+  public boolean getRuleKeyCachePersistence() {
+    return getRuleKeyCaching() &&
+        getBooleanValue("build", "rule_key_cache_persistence", false);
+  }
+
+  /**
+   * @return whether to persist the daemon's file hashes across daemon restarts.
+   */
+  public boolean getFileHashCachePersistence() {
+    return getBooleanValue("build", "file_hash_cache_persistence", false);
+  }
+
+  /**
+   * @return whether to persist how long rules took to build across Buck invocations.
+   */
+  public boolean getRuleDurationPersistence() {
+    return getBooleanValue("build", "rule_duration_persistence", false);
+  }
+
   public ImmutableList<String> getCleanAdditionalPaths() {
     return getListWithoutComments("clean", "additional_paths");
   }
@@ -22,7 +22,7 @@ import com.facebook.buck.artifact_cache.ArtifactCacheBuckConfig;
 import com.facebook.buck.artifact_cache.NoopArtifactCache;
 import com.facebook.buck.command.Build;
 import com.facebook.buck.distributed.BuckVersionUtil;
-import com.facebook.buck.distributed.BuildJobStateSerializer;
+import com.facebook.buck.distributed.BuildJobStateStreamWriter;
 import com.facebook.buck.distributed.DistBuildCellIndexer;
 import com.facebook.buck.distributed.DistBuildClientExecutor;
 import com.facebook.buck.distributed.DistBuildConfig;
@@ -35,6 +35,7 @@ import com.facebook.buck.distributed.DistBuildTypeCoercerFactory;
 import com.facebook.buck.distributed.thrift.BuckVersion;
 import com.facebook.buck.distributed.thrift.BuildJobState;
 import com.facebook.buck.event.BuckEventBus;
+import com.facebook.buck.event.FileHashCacheEvent;
 import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.json.BuildFileParseException;
 import com.facebook.buck.jvm.java.JavaBuckConfig;
@@ -63,6 +64,7 @@ import com.facebook.buck.rules.RuleKey;
 import com.facebook.buck.rules.SourcePath;
 import com.facebook.buck.rules.SourcePathResolver;
 import com.facebook.buck.rules.SourcePathRuleFinder;
+import com.facebook.buck.rules.TargetGraph;
 import com.facebook.buck.rules.TargetGraphAndBuildTargets;
 import com.facebook.buck.rules.TargetNode;
 import com.facebook.buck.rules.TargetNodeFactory;
@@ -83,6 +85,7 @@ import com.facebook.buck.util.HumanReadableException;
 import com.facebook.buck.util.MoreExceptions;
 import com.facebook.buck.util.Verbosity;
 import com.facebook.buck.util.cache.FileHashCache;
+import com.facebook.buck.util.cache.FileHashCachePrefetchResult;
 import com.facebook.buck.util.concurrent.ResourceAmounts;
 import com.facebook.buck.util.concurrent.WeightedListeningExecutorService;
 import com.facebook.buck.util.environment.Platform;
@@ -486,7 +489,14 @@ public class BuildCommand extends AbstractCommand {
       ActionAndTargetGraphs graphs)
       throws IOException, InterruptedException {
     int exitCode;
-    if (useDistributedBuild) {
+    if (useDistributedBuild && distributedBuildStateFile != null) {
+      writeDistBuildState(
+          params,
+          graphs,
+          executorService,
+          Paths.get(distributedBuildStateFile));
+      exitCode = 0;
+    } else if (useDistributedBuild) {
       BuildJobState jobState = computeDistBuildState(
           params,
           graphs,
@@ -499,6 +509,7 @@ public class BuildCommand extends AbstractCommand {
           params.getFileHashCache(),
           jobState);
     } else {
+      prefetchFileHashes(params, graphs.getTargetGraphForLocalBuild());
       exitCode = executeLocalBuild(params, graphs.actionGraph, executorService);
     }
     if (exitCode == 0) {
@@ -509,6 +520,33 @@ public class BuildCommand extends AbstractCommand {
     return exitCode;
   }
 
+  /**
+   * Hash the inputs of the whole target graph up front and in parallel, rather than one at a time
+   * as the build engine computes rule keys.
+   */
+  private void prefetchFileHashes(
+      CommandRunnerParams params,
+      TargetGraphAndBuildTargets targetGraphAndBuildTargets) {
+    if (!params.getBuckConfig().getView(CachingBuildEngineBuckConfig.class)
+        .getBuildPrefetchFileHashes()) {
+      return;
+    }
+    List<Path> inputs = new ArrayList<>();
+    for (TargetNode<?, ?> node : targetGraphAndBuildTargets.getTargetGraph().getNodes()) {
+      for (Path input : node.getInputs()) {
+        inputs.add(node.getFilesystem().resolve(input));
+      }
+    }
+    FileHashCacheEvent.PrefetchStarted started = FileHashCacheEvent.prefetchStarted();
+    params.getBuckEventBus().post(started);
+    FileHashCachePrefetchResult result = params.getFileHashCache().prefetch(inputs);
+    params.getBuckEventBus().post(
+        FileHashCacheEvent.prefetchFinished(
+            started,
+            result.getFilesHashed(),
+            result.getBytesHashed()));
+  }
+
   private int processSuccessfulBuild(
       CommandRunnerParams params,
       ActionAndTargetGraphs graphs)
@@ -548,6 +586,53 @@ public class BuildCommand extends AbstractCommand {
       ActionAndTargetGraphs graphs,
       final WeightedListeningExecutorService executorService)
       throws IOException, InterruptedException {
+    return dumpDistBuildState(params, graphs, executorService, DistBuildState::dump);
+  }
+
+  /**
+   * Writes the distributed build state straight to {@code stateDumpPath} as it is encoded, without
+   * assembling it in memory first.
+   */
+  private void writeDistBuildState(
+      final CommandRunnerParams params,
+      ActionAndTargetGraphs graphs,
+      final WeightedListeningExecutorService executorService,
+      Path stateDumpPath)
+      throws IOException, InterruptedException {
+    try (BuildJobStateStreamWriter writer = new BuildJobStateStreamWriter(
+        params.getCell().getFilesystem().newFileOutputStream(stateDumpPath))) {
+      dumpDistBuildState(
+          params,
+          graphs,
+          executorService,
+          (cellIndexer, fileHashes, targetGraphCodec, targetGraph, topLevelTargets) -> {
+            DistBuildState.dump(
+                cellIndexer,
+                fileHashes,
+                targetGraphCodec,
+                targetGraph,
+                topLevelTargets,
+                writer);
+            return null;
+          });
+    }
+  }
+
+  private interface DistBuildStateDumper<T> {
+    T dump(
+        DistBuildCellIndexer cellIndexer,
+        DistBuildFileHashes fileHashes,
+        DistBuildTargetGraphCodec targetGraphCodec,
+        TargetGraph targetGraph,
+        ImmutableSet<BuildTarget> topLevelTargets) throws IOException, InterruptedException;
+  }
+
+  private <T> T dumpDistBuildState(
+      final CommandRunnerParams params,
+      ActionAndTargetGraphs graphs,
+      final WeightedListeningExecutorService executorService,
+      DistBuildStateDumper<T> dumper)
+      throws IOException, InterruptedException {
     // Distributed builds serialize and send the unversioned target graph,
     // and then deserialize and version remotely.
     TargetGraphAndBuildTargets targetGraphAndBuildTargets = graphs.unversionedTargetGraph;
@@ -596,13 +681,12 @@ public class BuildCommand extends AbstractCommand {
         params.getBuckConfig().getKeySeed(),
         params.getCell());
 
-    return DistBuildState.dump(
+    return dumper.dump(
         cellIndexer,
         distributedBuildFileHashes,
         targetGraphCodec,
         targetGraphAndBuildTargets.getTargetGraph(),
-        buildTargets
-    );
+        buildTargets);
   }
 
   private int executeDistBuild(
@@ -612,67 +696,58 @@ public class BuildCommand extends AbstractCommand {
       ProjectFilesystem filesystem,
       FileHashCache fileHashCache,
       BuildJobState jobState) throws IOException, InterruptedException {
-    if (distributedBuildStateFile != null) {
-      Path stateDumpPath = Paths.get(distributedBuildStateFile);
-      BuildJobStateSerializer.serialize(
+    BuildEvent.DistBuildStarted started = BuildEvent.distBuildStarted();
+    params.getBuckEventBus().post(started);
+
+    int distBuildExitCode = 1;
+    DistBuildClientExecutor.ExecutionResult distBuildResult;
+    BuckVersion buckVersion = getBuckVersion();
+    Preconditions.checkArgument(params.getInvocationInfo().isPresent());
+
+    try (DistBuildService service = DistBuildFactory.newDistBuildService(params);
+         DistBuildLogStateTracker distBuildLogStateTracker =
+             DistBuildFactory.newDistBuildLogStateTracker(
+                 params.getInvocationInfo().get().getLogDirectoryPath(),
+                 filesystem)) {
+      DistBuildClientExecutor build = new DistBuildClientExecutor(
           jobState,
-          filesystem.newFileOutputStream(stateDumpPath));
-      return 0;
-
-    } else {
-      BuildEvent.DistBuildStarted started = BuildEvent.distBuildStarted();
-      params.getBuckEventBus().post(started);
+          service,
+          distBuildLogStateTracker,
+          buckVersion,
+          Executors.newScheduledThreadPool(1));
+      distBuildResult =
+          build.executeAndPrintFailuresToEventBus(
+              executorService,
+              filesystem,
+              fileHashCache,
+              params.getBuckEventBus());
+      distBuildExitCode = distBuildResult.exitCode;
+    } finally {
+      BuildEvent.DistBuildFinished finished =
+          BuildEvent.distBuildFinished(started, distBuildExitCode);
+      params.getBuckEventBus().post(finished);
+    }
 
-      int distBuildExitCode = 1;
-      DistBuildClientExecutor.ExecutionResult distBuildResult;
-      BuckVersion buckVersion = getBuckVersion();
-      Preconditions.checkArgument(params.getInvocationInfo().isPresent());
-
-      try (DistBuildService service = DistBuildFactory.newDistBuildService(params);
-           DistBuildLogStateTracker distBuildLogStateTracker =
-               DistBuildFactory.newDistBuildLogStateTracker(
-                   params.getInvocationInfo().get().getLogDirectoryPath(),
-                   filesystem)) {
-        DistBuildClientExecutor build = new DistBuildClientExecutor(
-            jobState,
-            service,
-            distBuildLogStateTracker,
-            buckVersion,
-            Executors.newScheduledThreadPool(1));
-        distBuildResult =
-            build.executeAndPrintFailuresToEventBus(
-                executorService,
-                filesystem,
-                fileHashCache,
-                params.getBuckEventBus());
-        distBuildExitCode = distBuildResult.exitCode;
-      } finally {
-        BuildEvent.DistBuildFinished finished =
-            BuildEvent.distBuildFinished(started, distBuildExitCode);
-        params.getBuckEventBus().post(finished);
+    DistBuildConfig distBuildConfig = new DistBuildConfig(params.getBuckConfig());
+    // After dist-build is complete, start build locally and we'll find everything in the cache.
+    if (distBuildConfig.isSlowLocalBuildFallbackModeEnabled() || distBuildExitCode == 0) {
+      if (distBuildExitCode != 0) {
+        String errorMessage = String.format(
+            "The remote/distributed build with Stampede ID [%s] " +
+                "failed with exit code [%d] trying to build " +
+                "targets [%s]. This program will continue now by falling back to a " +
+                "local build because config " +
+                "[stampede.enable_slow_local_build_fallback=true]. ",
+            distBuildResult.stampedeId,
+            distBuildExitCode,
+            Joiner.on(" ").join(arguments));
+        params.getConsole().printErrorText(errorMessage);
+        LOG.error(errorMessage);
       }
 
-      DistBuildConfig distBuildConfig = new DistBuildConfig(params.getBuckConfig());
-      // After dist-build is complete, start build locally and we'll find everything in the cache.
-      if (distBuildConfig.isSlowLocalBuildFallbackModeEnabled() || distBuildExitCode == 0) {
-        if (distBuildExitCode != 0) {
-          String errorMessage = String.format(
-              "The remote/distributed build with Stampede ID [%s] " +
-                  "failed with exit code [%d] trying to build " +
-                  "targets [%s]. This program will continue now by falling back to a " +
-                  "local build because config " +
-                  "[stampede.enable_slow_local_build_fallback=true]. ",
-              distBuildResult.stampedeId,
-              distBuildExitCode,
-              Joiner.on(" ").join(arguments));
-          params.getConsole().printErrorText(errorMessage);
-          LOG.error(errorMessage);
-        }
-
-        return executeLocalBuild(params, graphs.actionGraph, executorService);
-      } else {
-        return distBuildExitCode;
-      }
+      return executeLocalBuild(params, graphs.actionGraph, executorService);
+    } else {
+      return distBuildExitCode;
     }
   }
 
@@ -838,7 +913,7 @@ public class BuildCommand extends AbstractCommand {
                  params,
                  new RuleKeyCacheRecycler.SettingsAffectingCache(
                      rootCellBuckConfig.getKeySeed(),
-                     actionGraphAndResolver.getActionGraph()));
+                     actionGraphAndResolver));
          CachingBuildEngine buildEngine = new CachingBuildEngine(
              cachingBuildEngineDelegate,
              executor,
@@ -849,8 +924,11 @@ public class BuildCommand extends AbstractCommand {
              cachingBuildEngineBuckConfig.getBuildDepFiles(),
              cachingBuildEngineBuckConfig.getBuildMaxDepFileCacheEntries(),
              cachingBuildEngineBuckConfig.getBuildArtifactCacheSizeLimit(),
+             cachingBuildEngineBuckConfig.getBuildCachePrefetchMaxBytes(),
              actionGraphAndResolver.getResolver(),
              cachingBuildEngineBuckConfig.getResourceAwareSchedulingInfo(),
+             params.getBuildRuleDurationHistory()
+                 .filter(history -> cachingBuildEngineBuckConfig.isCriticalPathSchedulingEnabled()),
              RuleKeyFactories.of(
                  rootCellBuckConfig.getKeySeed(),
                  cachingBuildEngineDelegate.getFileHashCache(),
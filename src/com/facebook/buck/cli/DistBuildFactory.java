@@ -114,6 +114,7 @@ public abstract class DistBuildFactory {
             .setCoordinatorPort(coordinatorPort)
             .setStampedeId(stampedeId.orElse(new StampedeId().setId("LOCAL_FILE")))
             .setVersionedTargetGraphCache(params.getVersionedTargetGraphCache())
+            .setBuildRuleDurationHistory(params.getBuildRuleDurationHistory())
             .build());
     return executor;
   }
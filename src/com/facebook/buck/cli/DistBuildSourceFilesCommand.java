@@ -16,12 +16,18 @@
 
 package com.facebook.buck.cli;
 
+import com.facebook.buck.distributed.BuildJobStateSerializer;
+import com.facebook.buck.distributed.BuildJobStateStreamReader;
 import com.facebook.buck.distributed.DistBuildService;
 import com.facebook.buck.distributed.thrift.BuildJobState;
+import com.facebook.buck.distributed.thrift.BuildJobStateCell;
 import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
 import com.facebook.buck.distributed.thrift.BuildJobStateFileHashes;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetNode;
 import com.facebook.buck.distributed.thrift.StampedeId;
 import com.facebook.buck.io.ProjectFilesystem;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 import org.kohsuke.args4j.Argument;
@@ -33,8 +39,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
 /**
  * Distributed build debug command that prints out all files in the local hard-drive whose
  * contents were hashed in order to take part in any rule key computation. This capturing is done
@@ -112,7 +121,7 @@ public class DistBuildSourceFilesCommand extends AbstractDistBuildCommand {
           arguments,
           params,
           pool.getExecutor());
-      outputResultToTempFile(params, jobState);
+      outputResultToTempFile(params, visitor -> BuildJobStateSerializer.visit(jobState, visitor));
 
     }
   }
@@ -125,8 +134,8 @@ public class DistBuildSourceFilesCommand extends AbstractDistBuildCommand {
       CommandRunnerParams params,
       StampedeId stampedeId) throws IOException {
     try (DistBuildService service = DistBuildFactory.newDistBuildService(params)) {
-      BuildJobState jobState = service.fetchBuildJobState(stampedeId);
-      outputResultToTempFile(params, jobState);
+      // Only the cells and file hashes are needed, so don't assemble the whole state.
+      outputResultToTempFile(params, visitor -> service.fetchBuildJobState(stampedeId, visitor));
     }
   }
 
@@ -136,30 +145,69 @@ public class DistBuildSourceFilesCommand extends AbstractDistBuildCommand {
    */
   private void outputResultToTempFile(
       CommandRunnerParams params,
-      BuildJobState jobState) throws IOException {
+      JobStateSource jobState) throws IOException {
     Path logDir = params.getInvocationInfo().get().getLogDirectoryPath();
     Path outputFileAbs = logDir.resolve(outputFilename).normalize();
-    int writtenLineCount = 0;
+    int writtenLineCount;
     try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(outputFileAbs))) {
       ProjectFilesystem fs = params.getCell().getFilesystem();
       Path cellsCommonRootPath = fs.resolve(Paths.get(cellsRootPath).normalize());
-      for (BuildJobStateFileHashes cellHashes : jobState.getFileHashes()) {
-        String cellName = jobState.getCells().get(cellHashes.cellIndex).getNameHint();
-        Path cellRoot = cellsCommonRootPath.resolve(cellName);
-        if (!cellHashes.isSetEntries()) {
-          continue;
-        }
-
-        for (BuildJobStateFileHashEntry entry : cellHashes.getEntries()) {
-          Path absPath = cellRoot.resolve(entry.getPath().getPath()).normalize();
-          writer.println(absPath);
-          ++writtenLineCount;
-        }
-      }
+      SourceFilePrinter printer = new SourceFilePrinter(writer, cellsCommonRootPath);
+      jobState.visit(printer);
+      writtenLineCount = printer.writtenLineCount;
     }
     params.getConsole().printSuccess(
         "A total of [%d] source file paths were saved to [%s].",
         writtenLineCount,
         outputFileAbs.toAbsolutePath().toString());
   }
+
+  private interface JobStateSource {
+    void visit(BuildJobStateStreamReader.Visitor visitor) throws IOException;
+  }
+
+  private static class SourceFilePrinter implements BuildJobStateStreamReader.Visitor {
+    private final PrintWriter writer;
+    private final Path cellsCommonRootPath;
+    private Map<Integer, BuildJobStateCell> cells = ImmutableMap.of();
+    @Nullable
+    private Path currentCellRoot;
+    private int writtenLineCount = 0;
+
+    private SourceFilePrinter(PrintWriter writer, Path cellsCommonRootPath) {
+      this.writer = writer;
+      this.cellsCommonRootPath = cellsCommonRootPath;
+    }
+
+    @Override
+    public void visitHeader(BuildJobState header) {
+      if (header.isSetCells()) {
+        cells = header.getCells();
+      }
+    }
+
+    @Override
+    public void visitTargetNodes(List<BuildJobStateTargetNode> nodes) {
+      // Target nodes don't name any source files.
+    }
+
+    @Override
+    public void visitFileHashes(BuildJobStateFileHashes cellHashes) {
+      String cellName = cells.get(cellHashes.cellIndex).getNameHint();
+      currentCellRoot = cellsCommonRootPath.resolve(cellName);
+      if (cellHashes.isSetEntries()) {
+        visitMoreFileHashEntries(cellHashes.getEntries());
+      }
+    }
+
+    @Override
+    public void visitMoreFileHashEntries(List<BuildJobStateFileHashEntry> entries) {
+      Path cellRoot = Preconditions.checkNotNull(currentCellRoot);
+      for (BuildJobStateFileHashEntry entry : entries) {
+        Path absPath = cellRoot.resolve(entry.getPath().getPath()).normalize();
+        writer.println(absPath);
+        ++writtenLineCount;
+      }
+    }
+  }
 }
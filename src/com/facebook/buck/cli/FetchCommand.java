@@ -113,7 +113,7 @@ public class FetchCommand extends BuildCommand {
                    params,
                    new RuleKeyCacheRecycler.SettingsAffectingCache(
                        params.getBuckConfig().getKeySeed(),
-                       actionGraphAndResolver.getActionGraph()));
+                       actionGraphAndResolver));
            CachingBuildEngine buildEngine = new CachingBuildEngine(
                localCachingBuildEngineDelegate,
                pool.getExecutor(),
@@ -124,8 +124,10 @@ public class FetchCommand extends BuildCommand {
                cachingBuildEngineBuckConfig.getBuildDepFiles(),
                cachingBuildEngineBuckConfig.getBuildMaxDepFileCacheEntries(),
                cachingBuildEngineBuckConfig.getBuildArtifactCacheSizeLimit(),
+               cachingBuildEngineBuckConfig.getBuildCachePrefetchMaxBytes(),
                actionGraphAndResolver.getResolver(),
                cachingBuildEngineBuckConfig.getResourceAwareSchedulingInfo(),
+               Optional.empty(),
                RuleKeyFactories.of(
                    params.getBuckConfig().getKeySeed(),
                    localCachingBuildEngineDelegate.getFileHashCache(),
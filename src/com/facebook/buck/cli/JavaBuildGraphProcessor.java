@@ -49,6 +49,7 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Optional;
 
 /**
  * Utility that aids in creating the objects necessary to traverse the target graph with special
@@ -145,8 +146,10 @@ final class JavaBuildGraphProcessor {
               cachingBuildEngineBuckConfig.getBuildDepFiles(),
               cachingBuildEngineBuckConfig.getBuildMaxDepFileCacheEntries(),
               cachingBuildEngineBuckConfig.getBuildArtifactCacheSizeLimit(),
+              cachingBuildEngineBuckConfig.getBuildCachePrefetchMaxBytes(),
               buildRuleResolver,
               cachingBuildEngineBuckConfig.getResourceAwareSchedulingInfo(),
+              Optional.empty(),
               RuleKeyFactories.of(
                   params.getBuckConfig().getKeySeed(),
                   cachingBuildEngineDelegate.getFileHashCache(),
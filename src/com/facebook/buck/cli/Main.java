@@ -29,6 +29,7 @@ import com.facebook.buck.artifact_cache.ArtifactCaches;
 import com.facebook.buck.artifact_cache.HttpArtifactCacheEvent;
 import com.facebook.buck.config.Config;
 import com.facebook.buck.config.Configs;
+import com.facebook.buck.counters.Counter;
 import com.facebook.buck.counters.CounterRegistry;
 import com.facebook.buck.counters.CounterRegistryImpl;
 import com.facebook.buck.event.BuckEventBus;
@@ -77,6 +78,8 @@ import com.facebook.buck.model.BuildId;
 import com.facebook.buck.parser.Parser;
 import com.facebook.buck.parser.ParserConfig;
 import com.facebook.buck.rules.ActionGraphCache;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
+import com.facebook.buck.rules.BuildRuleResolver;
 import com.facebook.buck.rules.Cell;
 import com.facebook.buck.rules.CellProvider;
 import com.facebook.buck.rules.ConstructorArgMarshaller;
@@ -89,6 +92,7 @@ import com.facebook.buck.rules.coercer.DefaultTypeCoercerFactory;
 import com.facebook.buck.rules.coercer.TypeCoercerFactory;
 import com.facebook.buck.rules.keys.DefaultRuleKeyCache;
 import com.facebook.buck.rules.keys.RuleKeyCacheRecycler;
+import com.facebook.buck.rules.keys.RuleKeyCacheSnapshot;
 import com.facebook.buck.shell.WorkerProcessPool;
 import com.facebook.buck.step.ExecutorPool;
 import com.facebook.buck.test.TestConfig;
@@ -107,15 +111,18 @@ import com.facebook.buck.util.DefaultProcessExecutor;
 import com.facebook.buck.util.HumanReadableException;
 import com.facebook.buck.util.InterruptionFailedException;
 import com.facebook.buck.util.Libc;
+import com.facebook.buck.util.MoreCollectors;
 import com.facebook.buck.util.PkillProcessManager;
 import com.facebook.buck.util.PrintStreamProcessExecutorFactory;
 import com.facebook.buck.util.ProcessExecutor;
 import com.facebook.buck.util.ProcessManager;
 import com.facebook.buck.util.RichStream;
 import com.facebook.buck.util.Verbosity;
+import com.facebook.buck.util.WatchmanSubscriber;
 import com.facebook.buck.util.WatchmanWatcher;
 import com.facebook.buck.util.WatchmanWatcherException;
 import com.facebook.buck.util.cache.DefaultFileHashCache;
+import com.facebook.buck.util.cache.FileHashCacheSnapshot;
 import com.facebook.buck.util.cache.ProjectFileHashCache;
 import com.facebook.buck.util.cache.StackedFileHashCache;
 import com.facebook.buck.util.cache.WatchedFileHashCache;
@@ -143,6 +150,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.eventbus.EventBus;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.reflect.ClassPath;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.martiansoftware.nailgun.NGContext;
@@ -155,20 +164,25 @@ import com.sun.jna.ptr.IntByReference;
 
 import org.kohsuke.args4j.CmdLineException;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
@@ -342,6 +356,10 @@ public final class Main {
    */
   private static final class Daemon implements Closeable {
 
+    private static final long FILE_HASH_CACHE_SNAPSHOT_INTERVAL_NANOS =
+        TimeUnit.MINUTES.toNanos(10);
+    private static final long FILE_HASH_CACHE_SNAPSHOT_TIMEOUT_SECONDS = 60;
+
     private final Cell cell;
     private final Parser parser;
     private final ImmutableList<ProjectFileHashCache> hashCaches;
@@ -350,8 +368,16 @@ public final class Main {
     private final ConcurrentMap<String, WorkerProcessPool> persistentWorkerPools;
     private final VersionedTargetGraphCache versionedTargetGraphCache;
     private final ActionGraphCache actionGraphCache;
+    private final BuildRuleDurationHistory buildRuleDurationHistory;
     private final BroadcastEventListener broadcastEventListener;
     private final RuleKeyCacheRecycler<RuleKey> defaultRuleKeyFactoryCacheRecycler;
+    private final Optional<Path> ruleKeyCacheSnapshotFile;
+    private final HashCode ruleKeyCacheFingerprint;
+    private final ImmutableMap<Path, WatchedFileHashCache> watchedHashCaches;
+    private final Optional<Path> fileHashCacheSnapshotFile;
+    private final ExecutorService fileHashCacheSnapshotExecutor;
+    private long lastFileHashCacheSnapshotNanos;
+    private final Optional<WatchmanSubscriber> watchmanSubscriber;
 
     private ImmutableMap<Path, WatchmanCursor> cursor;
 
@@ -366,12 +392,16 @@ public final class Main {
 
       // Setup the stacked file hash cache from all cells.
       ImmutableList.Builder<ProjectFileHashCache> hashCachesBuilder = ImmutableList.builder();
+      ImmutableMap.Builder<Path, WatchedFileHashCache> watchedHashCachesBuilder =
+          ImmutableMap.builder();
       cells.forEach(
           (Cell subCell) -> {
             WatchedFileHashCache watchedCache = new WatchedFileHashCache(subCell.getFilesystem());
             fileEventBus.register(watchedCache);
             hashCachesBuilder.add(watchedCache);
+            watchedHashCachesBuilder.put(subCell.getFilesystem().getRootPath(), watchedCache);
           });
+      this.watchedHashCaches = watchedHashCachesBuilder.build();
       hashCachesBuilder.add(
           DefaultFileHashCache.createBuckOutFileHashCache(
               cell.getFilesystem().replaceBlacklistedPaths(ImmutableSet.of()),
@@ -379,26 +409,58 @@ public final class Main {
       this.hashCaches = hashCachesBuilder.build();
 
       this.broadcastEventListener = new BroadcastEventListener();
-      this.actionGraphCache = new ActionGraphCache(broadcastEventListener);
+      this.actionGraphCache =
+          new ActionGraphCache(
+              broadcastEventListener,
+              cell.getBuckConfig().isIncrementalActionGraphEnabled(),
+              cell.getBuckConfig().getMaxActionGraphCacheEntries(),
+              cell.getBuckConfig().getActionGraphCacheMaxHeapFraction());
       this.versionedTargetGraphCache = new VersionedTargetGraphCache();
+      this.buildRuleDurationHistory =
+          createBuildRuleDurationHistory(cell.getBuckConfig(), cell.getFilesystem());
 
       TypeCoercerFactory typeCoercerFactory = new DefaultTypeCoercerFactory();
       this.parser = new Parser(
           this.broadcastEventListener,
           cell.getBuckConfig().getView(ParserConfig.class),
           typeCoercerFactory,
-          new ConstructorArgMarshaller(typeCoercerFactory));
+          new ConstructorArgMarshaller(typeCoercerFactory),
+          /* reuseBuildFileParsers */ true);
       fileEventBus.register(parser);
       fileEventBus.register(actionGraphCache);
 
-      // Build the the rule key cache recycler.
+      // Build the the rule key cache recycler, seeding it from the rule keys persisted by the
+      // previous daemon if enabled.
+      ImmutableSet<ProjectFilesystem> cellFilesystems =
+          RichStream.from(cells)
+              .map(Cell::getFilesystem)
+              .toImmutableSet();
+      this.ruleKeyCacheFingerprint = getRuleKeyCacheFingerprint(cell.getBuckConfig());
+      this.ruleKeyCacheSnapshotFile =
+          cell.getBuckConfig().getRuleKeyCachePersistence() &&
+              !BuckVersion.getVersion().equals("N/A") ?
+              Optional.of(
+                  cell.getFilesystem().resolve(
+                      cell.getFilesystem().getBuckPaths().getRuleKeyCacheSnapshotFile())) :
+              Optional.empty();
       this.defaultRuleKeyFactoryCacheRecycler =
           RuleKeyCacheRecycler.createAndRegister(
               fileEventBus,
               new DefaultRuleKeyCache<>(),
-              RichStream.from(cells)
-                  .map(Cell::getFilesystem)
-                  .toImmutableSet());
+              cellFilesystems,
+              ruleKeyCacheSnapshotFile.isPresent() ?
+                  resolver ->
+                      readRuleKeyCacheSnapshot().map(
+                          snapshot ->
+                              snapshot.toSeed(
+                                  resolver,
+                                  new StackedFileHashCache(hashCaches),
+                                  RichStream.from(cellFilesystems)
+                                      .collect(
+                                          MoreCollectors.toImmutableMap(
+                                              ProjectFilesystem::getRootPath,
+                                              f -> f)))) :
+                  null);
 
       if (webServerToReuse.isPresent()) {
         webServer = webServerToReuse;
@@ -426,6 +488,23 @@ public final class Main {
       }
       cursor = cursorBuilder.build();
       LOG.debug("Using Watchman Cursor: %s", cursor);
+
+      // Seed the file hash caches from the hashes persisted by the previous daemon, if enabled.
+      // This has to happen before the first Watchman query made with our own cursors, as changes
+      // between the previous daemon's clocks and ours are only reported to us here.
+      this.fileHashCacheSnapshotFile =
+          cell.getBuckConfig().getFileHashCachePersistence() ?
+              Optional.of(
+                  cell.getFilesystem().resolve(
+                      cell.getFilesystem().getBuckPaths().getFileHashCacheSnapshotFile())) :
+              Optional.empty();
+      this.fileHashCacheSnapshotExecutor =
+          MostExecutors.newSingleThreadExecutor("file-hash-cache-snapshot");
+      this.lastFileHashCacheSnapshotNanos = System.nanoTime();
+      if (fileHashCacheSnapshotFile.isPresent()) {
+        restoreFileHashCaches();
+      }
+      this.watchmanSubscriber = createWatchmanSubscriber();
       persistentWorkerPools = new ConcurrentHashMap<>();
       JavaUtilsLoggingBuildListener.ensureLogFileIsWritten(cell.getFilesystem());
     }
@@ -492,6 +571,10 @@ public final class Main {
       return actionGraphCache;
     }
 
+    private BuildRuleDurationHistory getBuildRuleDurationHistory() {
+      return buildRuleDurationHistory;
+    }
+
     private BroadcastEventListener getBroadcastEventListener() {
       return broadcastEventListener;
     }
@@ -508,6 +591,264 @@ public final class Main {
       return defaultRuleKeyFactoryCacheRecycler;
     }
 
+    private static HashCode getRuleKeyCacheFingerprint(BuckConfig buckConfig) {
+      return Hashing.sha1().newHasher()
+          .putString(BuckVersion.getVersion(), StandardCharsets.UTF_8)
+          .putInt(buckConfig.getKeySeed())
+          .putString(buckConfig.getRawConfigForParser().toString(), StandardCharsets.UTF_8)
+          .hash();
+    }
+
+    private Optional<RuleKeyCacheSnapshot> readRuleKeyCacheSnapshot() {
+      Path snapshotFile = ruleKeyCacheSnapshotFile.get();
+      if (!Files.exists(snapshotFile)) {
+        return Optional.empty();
+      }
+      try (InputStream input = new BufferedInputStream(Files.newInputStream(snapshotFile))) {
+        Optional<RuleKeyCacheSnapshot> snapshot =
+            RuleKeyCacheSnapshot.read(input, ruleKeyCacheFingerprint);
+        LOG.debug(
+            "Read %d persisted rule keys from %s",
+            snapshot.map(RuleKeyCacheSnapshot::size).orElse(0),
+            snapshotFile);
+        return snapshot;
+      } catch (IOException | RuntimeException e) {
+        LOG.warn(e, "Failed to read persisted rule keys from %s", snapshotFile);
+        return Optional.empty();
+      } finally {
+        // A snapshot is only valid for the daemon which immediately follows the one writing it.
+        try {
+          Files.deleteIfExists(snapshotFile);
+        } catch (IOException e) {
+          LOG.warn(e, "Failed to delete persisted rule keys at %s", snapshotFile);
+        }
+      }
+    }
+
+    /**
+     * Persist the contents of the rule key cache, so that they can be used by the next daemon.
+     */
+    private void writeRuleKeyCacheSnapshot() {
+      if (!ruleKeyCacheSnapshotFile.isPresent()) {
+        return;
+      }
+      Optional<BuildRuleResolver> resolver =
+          defaultRuleKeyFactoryCacheRecycler.getBuildRuleResolver();
+      if (!resolver.isPresent()) {
+        return;
+      }
+      Path snapshotFile = ruleKeyCacheSnapshotFile.get();
+      try {
+        RuleKeyCacheSnapshot snapshot =
+            RuleKeyCacheSnapshot.create(
+                ruleKeyCacheFingerprint,
+                resolver.get(),
+                defaultRuleKeyFactoryCacheRecycler.getCachedBuildRuleResults(),
+                new StackedFileHashCache(hashCaches));
+        Files.createDirectories(snapshotFile.getParent());
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(snapshotFile))) {
+          snapshot.write(output);
+        }
+        LOG.debug("Persisted %d rule keys to %s", snapshot.size(), snapshotFile);
+      } catch (IOException | RuntimeException e) {
+        LOG.warn(e, "Failed to persist rule keys to %s", snapshotFile);
+      }
+    }
+
+    private void restoreFileHashCaches() {
+      Path snapshotFile = fileHashCacheSnapshotFile.get();
+      if (!Files.exists(snapshotFile)) {
+        return;
+      }
+      Optional<FileHashCacheSnapshot> snapshot;
+      try (InputStream input = new BufferedInputStream(Files.newInputStream(snapshotFile))) {
+        snapshot = FileHashCacheSnapshot.read(input, BuckVersion.getVersion());
+      } catch (IOException | RuntimeException e) {
+        LOG.warn(e, "Failed to read persisted file hashes from %s", snapshotFile);
+        return;
+      } finally {
+        // The snapshot is rewritten from our own caches, so don't let it outlive this daemon.
+        try {
+          Files.deleteIfExists(snapshotFile);
+        } catch (IOException e) {
+          LOG.warn(e, "Failed to delete persisted file hashes at %s", snapshotFile);
+        }
+      }
+      if (!snapshot.isPresent() || !cell.getWatchman().getWatchmanClient().isPresent()) {
+        return;
+      }
+
+      WatchmanWatcher watchmanWatcher =
+          new WatchmanWatcher(
+              cell.getWatchman().getProjectWatches(),
+              fileEventBus,
+              ImmutableSet.<PathOrGlobMatcher>builder()
+                  .addAll(cell.getFilesystem().getIgnorePaths())
+                  .addAll(DEFAULT_IGNORE_GLOBS)
+                  .build(),
+              cell.getWatchman(),
+              cursor);
+      for (Map.Entry<Path, WatchedFileHashCache> entry : watchedHashCaches.entrySet()) {
+        Optional<FileHashCacheSnapshot.Section> section =
+            snapshot.get().getSection(entry.getKey());
+        if (!section.isPresent()) {
+          continue;
+        }
+        Optional<ImmutableSet<Path>> changedPaths;
+        try {
+          changedPaths =
+              watchmanWatcher.queryChangedPathsSince(entry.getKey(), section.get().getClock());
+        } catch (IOException e) {
+          LOG.warn(e, "Failed to get changes to %s from Watchman", entry.getKey());
+          continue;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        if (!changedPaths.isPresent()) {
+          LOG.debug("Watchman can't say what changed in %s, not using persisted file hashes",
+              entry.getKey());
+          continue;
+        }
+        entry.getValue().restore(section.get().getEntries(), changedPaths.get());
+      }
+    }
+
+    /**
+     * Subscribe to file changes, if enabled, so that they are applied to the caches as they
+     * happen rather than when the next command starts.  Must be called once the cursors no longer
+     * move other than by applying changes to the caches.
+     */
+    private Optional<WatchmanSubscriber> createWatchmanSubscriber() {
+      ParserConfig parserConfig = cell.getBuckConfig().getView(ParserConfig.class);
+      Watchman watchman = cell.getWatchman();
+      if (!parserConfig.getWatchmanSubscription() || !watchman.getTransportPath().isPresent()) {
+        return Optional.empty();
+      }
+      try {
+        return WatchmanSubscriber.subscribe(
+            Watchman.createLocalTransport(watchman.getTransportPath().get()),
+            watchman.getProjectWatches(),
+            ImmutableSet.<PathOrGlobMatcher>builder()
+                .addAll(cell.getFilesystem().getIgnorePaths())
+                .addAll(DEFAULT_IGNORE_GLOBS)
+                .build(),
+            cursor,
+            watchman.getCapabilities(),
+            fileEventBus,
+            parser,
+            // Read/write commands hold the semaphore for as long as they use the caches.
+            () -> commandSemaphore.availablePermits() > 0,
+            parserConfig.getWatchmanSubscriptionSettleMs());
+      } catch (IOException e) {
+        LOG.warn(e, "Could not connect to Watchman to subscribe to file changes");
+        return Optional.empty();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Optional.empty();
+      }
+    }
+
+    private ImmutableList<Counter> getWatchmanSubscriberCounters() {
+      return watchmanSubscriber.map(WatchmanSubscriber::getCounters).orElse(ImmutableList.of());
+    }
+
+    /**
+     * @return the clock each cell's Watchman cursor is at, for cells using clock based cursors.
+     *     Must be called with the parser locked, so that all the changes up to the clock have been
+     *     applied to the caches.
+     */
+    private ImmutableMap<Path, String> getWatchmanClocks() {
+      ImmutableMap.Builder<Path, String> clocks = ImmutableMap.builder();
+      for (Map.Entry<Path, WatchmanCursor> entry : cursor.entrySet()) {
+        if (entry.getValue().get().startsWith("c:")) {
+          clocks.put(entry.getKey(), entry.getValue().get());
+        }
+      }
+      return clocks.build();
+    }
+
+    /**
+     * Persist the daemon's file hashes, so that they can be used by the next daemon.
+     */
+    private void writeFileHashCacheSnapshot() {
+      if (!fileHashCacheSnapshotFile.isPresent()) {
+        return;
+      }
+      ImmutableMap<Path, String> clocks;
+      synchronized (parser) {
+        clocks = getWatchmanClocks();
+      }
+      writeFileHashCacheSnapshot(clocks);
+    }
+
+    /**
+     * Persist the daemon's file hashes one last time, once any snapshot being written in the
+     * background has finished, so that it can't overwrite this one with older hashes.
+     */
+    private void writeFinalFileHashCacheSnapshot() {
+      try {
+        if (!MostExecutors.shutdown(
+                fileHashCacheSnapshotExecutor,
+                FILE_HASH_CACHE_SNAPSHOT_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS)) {
+          LOG.warn("Timed out waiting for a background snapshot, not persisting file hashes");
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      writeFileHashCacheSnapshot();
+    }
+
+    private void writeFileHashCacheSnapshot(ImmutableMap<Path, String> clocks) {
+      Path snapshotFile = fileHashCacheSnapshotFile.get();
+      FileHashCacheSnapshot.Builder builder =
+          FileHashCacheSnapshot.builder(BuckVersion.getVersion());
+      for (Map.Entry<Path, WatchedFileHashCache> entry : watchedHashCaches.entrySet()) {
+        String clock = clocks.get(entry.getKey());
+        if (clock != null) {
+          builder.addSection(entry.getKey(), clock, entry.getValue().getSnapshotEntries());
+        }
+      }
+      FileHashCacheSnapshot snapshot = builder.build();
+      try {
+        Files.createDirectories(snapshotFile.getParent());
+        // Write to a temporary file first, so that a daemon starting up never sees a partially
+        // written snapshot.
+        Path tempFile =
+            Files.createTempFile(snapshotFile.getParent(), snapshotFile.getFileName().toString(), "");
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+          snapshot.write(output);
+        }
+        Files.move(
+            tempFile,
+            snapshotFile,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        LOG.debug("Persisted %d file hashes to %s", snapshot.size(), snapshotFile);
+      } catch (IOException | RuntimeException e) {
+        LOG.warn(e, "Failed to persist file hashes to %s", snapshotFile);
+      }
+    }
+
+    /**
+     * Persist the daemon's file hashes in the background if it's been a while since we last did,
+     * as the daemon may well be killed rather than shut down cleanly.  Must be called with the
+     * parser locked.
+     */
+    private void maybeWriteFileHashCacheSnapshot() {
+      if (!fileHashCacheSnapshotFile.isPresent() ||
+          System.nanoTime() - lastFileHashCacheSnapshotNanos <
+              FILE_HASH_CACHE_SNAPSHOT_INTERVAL_NANOS) {
+        return;
+      }
+      lastFileHashCacheSnapshotNanos = System.nanoTime();
+      ImmutableMap<Path, String> clocks = getWatchmanClocks();
+      fileHashCacheSnapshotExecutor.submit(() -> writeFileHashCacheSnapshot(clocks));
+    }
+
     private void watchClient(final NGContext context) {
       context.addClientListener(() -> {
         if (isSessionLeader && commandSemaphoreNgClient.orElse(null) == context) {
@@ -549,13 +890,18 @@ public final class Main {
         FileHashCacheEvent.InvalidationStarted started = FileHashCacheEvent.invalidationStarted();
         eventBus.post(started);
         try {
-          watchmanWatcher.postEvents(
-              eventBus,
-              watchmanFreshInstanceAction
-          );
+          // Changes are normally already applied by the subscription, which only has to catch up
+          // with the last few; if it can't, ask Watchman what changed since the cursors.
+          if (!watchmanSubscriber.isPresent() || !watchmanSubscriber.get().postEvents(eventBus)) {
+            watchmanWatcher.postEvents(
+                eventBus,
+                watchmanFreshInstanceAction
+            );
+          }
         } finally {
           eventBus.post(FileHashCacheEvent.invalidationFinished(started));
         }
+        maybeWriteFileHashCacheSnapshot();
       }
     }
 
@@ -587,6 +933,11 @@ public final class Main {
 
     @Override
     public void close() throws IOException {
+      watchmanSubscriber.ifPresent(WatchmanSubscriber::close);
+      writeRuleKeyCacheSnapshot();
+      writeFinalFileHashCacheSnapshot();
+      buildRuleDurationHistory.close();
+      parser.close();
       shutdownPersistentWorkerPools();
       shutdownWebServer();
     }
@@ -645,6 +996,11 @@ public final class Main {
             daemon.cell,
             cell);
         if (shouldReuseWebServer(cell)) {
+          daemon.watchmanSubscriber.ifPresent(WatchmanSubscriber::close);
+          daemon.writeRuleKeyCacheSnapshot();
+          daemon.writeFinalFileHashCacheSnapshot();
+          daemon.buildRuleDurationHistory.close();
+          daemon.parser.close();
           webServer = daemon.getWebServer();
           LOG.info("Reusing web server");
         } else {
@@ -680,6 +1036,16 @@ public final class Main {
     return new BroadcastEventListener();
   }
 
+  private static BuildRuleDurationHistory createBuildRuleDurationHistory(
+      BuckConfig buckConfig,
+      ProjectFilesystem filesystem) {
+    if (buckConfig.getRuleDurationPersistence()) {
+      return BuildRuleDurationHistory.open(
+          filesystem.resolve(filesystem.getBuckPaths().getRuleDurationHistoryFile()));
+    }
+    return new BuildRuleDurationHistory();
+  }
+
   private static boolean shouldReuseWebServer(Cell newCell) {
     if (newCell == null || daemon == null || daemon.cell == null) {
       return false;
@@ -1113,6 +1479,9 @@ public final class Main {
                     locale,
                     filesystem.getBuckPaths().getLogDir().resolve("test.log"));
             AsyncCloseable asyncCloseable = new AsyncCloseable(diskIoExecutorService);
+            // The daemon keeps its own history across commands.
+            BuildRuleDurationHistory commandBuildRuleDurationHistory =
+                isDaemon ? null : createBuildRuleDurationHistory(buckConfig, filesystem);
             DefaultBuckEventBus buildEventBus = new DefaultBuckEventBus(clock, buildId);
             BroadcastEventListener.BroadcastEventBusClosable broadcastEventBusClosable =
                 broadcastEventListener.addEventBus(buildEventBus);
@@ -1237,6 +1606,7 @@ public final class Main {
           Parser parser = null;
           VersionedTargetGraphCache versionedTargetGraphCache = null;
           ActionGraphCache actionGraphCache = null;
+          BuildRuleDurationHistory buildRuleDurationHistory = commandBuildRuleDurationHistory;
           Optional<RuleKeyCacheRecycler<RuleKey>> defaultRuleKeyFactoryCacheRecycler =
               Optional.empty();
 
@@ -1261,6 +1631,8 @@ public final class Main {
                   watchmanFreshInstanceAction);
               versionedTargetGraphCache = daemon.getVersionedTargetGraphCache();
               actionGraphCache = daemon.getActionGraphCache();
+              buildRuleDurationHistory = daemon.getBuildRuleDurationHistory();
+              counterRegistry.registerCounters(daemon.getWatchmanSubscriberCounters());
               if (buckConfig.getRuleKeyCaching()) {
                 LOG.debug("Using rule key calculation caching");
                 defaultRuleKeyFactoryCacheRecycler =
@@ -1282,6 +1654,12 @@ public final class Main {
             actionGraphCache = new ActionGraphCache(broadcastEventListener);
           }
 
+          if (buildRuleDurationHistory == null) {
+            buildRuleDurationHistory = new BuildRuleDurationHistory();
+          }
+          buildEventBus.register(buildRuleDurationHistory);
+          progressEstimator.setBuildRuleDurationHistory(buildRuleDurationHistory);
+
           if (parser == null) {
             TypeCoercerFactory typeCoercerFactory = new DefaultTypeCoercerFactory();
             parser = new Parser(
@@ -1358,6 +1736,7 @@ public final class Main {
                     .setKnownBuildRuleTypesFactory(factory)
                     .setInvocationInfo(Optional.of(invocationInfo))
                     .setDefaultRuleKeyFactoryCacheRecycler(defaultRuleKeyFactoryCacheRecycler)
+                    .setBuildRuleDurationHistory(buildRuleDurationHistory)
                     .build());
           } catch (InterruptedException | ClosedByInterruptException e) {
             exitCode = INTERRUPTED_EXIT_CODE;
@@ -1770,7 +2149,8 @@ public final class Main {
             invocationInfo,
             clock,
             buckConfig.getMaxTraces(),
-            buckConfig.getCompressTraces()));
+            buckConfig.getCompressTraces(),
+            buckConfig.getBinaryTraces()));
       } catch (IOException e) {
         LOG.error("Unable to create ChromeTrace listener!");
       }
@@ -536,7 +536,7 @@ public class TestCommand extends BuildCommand {
                    params,
                    new RuleKeyCacheRecycler.SettingsAffectingCache(
                        params.getBuckConfig().getKeySeed(),
-                       actionGraphAndResolver.getActionGraph()))) {
+                       actionGraphAndResolver))) {
         LocalCachingBuildEngineDelegate localCachingBuildEngineDelegate =
             new LocalCachingBuildEngineDelegate(params.getFileHashCache());
         try (
@@ -553,8 +553,13 @@ public class TestCommand extends BuildCommand {
                     cachingBuildEngineBuckConfig.getBuildDepFiles(),
                     cachingBuildEngineBuckConfig.getBuildMaxDepFileCacheEntries(),
                     cachingBuildEngineBuckConfig.getBuildArtifactCacheSizeLimit(),
+                    cachingBuildEngineBuckConfig.getBuildCachePrefetchMaxBytes(),
                     actionGraphAndResolver.getResolver(),
                     cachingBuildEngineBuckConfig.getResourceAwareSchedulingInfo(),
+                    params.getBuildRuleDurationHistory()
+                        .filter(
+                            history ->
+                                cachingBuildEngineBuckConfig.isCriticalPathSchedulingEnabled()),
                     RuleKeyFactories.of(
                         params.getBuckConfig().getKeySeed(),
                         localCachingBuildEngineDelegate.getFileHashCache(),
@@ -22,6 +22,7 @@ import com.facebook.buck.distributed.thrift.StampedeId;
 import com.facebook.buck.event.BuckEventBus;
 import com.facebook.buck.parser.Parser;
 import com.facebook.buck.rules.ActionGraphCache;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.facebook.buck.rules.Cell;
 import com.facebook.buck.step.ExecutorPool;
 import com.facebook.buck.timing.Clock;
@@ -35,6 +36,7 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import org.immutables.value.Value;
 
 import java.util.Map;
+import java.util.Optional;
 
 @Value.Immutable
 @BuckStyleImmutable
@@ -80,4 +82,9 @@ abstract class AbstractDistBuildExecutorArgs {
   }
 
   public abstract VersionedTargetGraphCache getVersionedTargetGraphCache();
+
+  /**
+   * How long rules took to build before, used to predict what each target will cost.
+   */
+  public abstract Optional<BuildRuleDurationHistory> getBuildRuleDurationHistory();
 }
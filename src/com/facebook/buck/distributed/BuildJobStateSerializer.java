@@ -17,38 +17,171 @@
 package com.facebook.buck.distributed;
 
 import com.facebook.buck.distributed.thrift.BuildJobState;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashes;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetGraph;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetNode;
 import com.facebook.buck.slb.ThriftProtocol;
 import com.facebook.buck.slb.ThriftUtil;
+import com.google.common.base.Preconditions;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.DeflaterOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.zip.InflaterInputStream;
 
+/**
+ * Converts a {@link BuildJobState} to and from the chunked format of
+ * {@link BuildJobStateStreamWriter}. States written as a single deflated thrift struct by older
+ * versions can still be read.
+ */
 public abstract class BuildJobStateSerializer {
-  private static final ThriftProtocol PROTOCOL = ThriftProtocol.COMPACT;
+  static final ThriftProtocol PROTOCOL = ThriftProtocol.COMPACT;
 
   private BuildJobStateSerializer() {
     // Do not instantiate.
   }
 
   public static void serialize(BuildJobState state, OutputStream stream) throws IOException {
-    try (DeflaterOutputStream zlibStream = new DeflaterOutputStream(stream)) {
-      ThriftUtil.serialize(PROTOCOL, state, zlibStream);
+    serialize(state, stream, /* includeFileContents */ true);
+  }
+
+  public static void serialize(
+      BuildJobState state,
+      OutputStream stream,
+      boolean includeFileContents) throws IOException {
+    try (BuildJobStateStreamWriter writer = new BuildJobStateStreamWriter(stream)) {
+      writer.writeHeader(createHeader(state));
+      if (state.isSetTargetGraph() && state.getTargetGraph().isSetNodes()) {
+        for (BuildJobStateTargetNode node : state.getTargetGraph().getNodes()) {
+          writer.writeTargetNode(node);
+        }
+      }
+      if (state.isSetFileHashes()) {
+        for (BuildJobStateFileHashes hashes : state.getFileHashes()) {
+          writer.writeFileHashes(hashes, includeFileContents);
+        }
+      }
     }
   }
 
   public static byte[] serialize(BuildJobState state) throws IOException {
+    return serialize(state, /* includeFileContents */ true);
+  }
+
+  public static byte[] serialize(
+      BuildJobState state,
+      boolean includeFileContents) throws IOException {
     try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-      serialize(state, stream);
+      serialize(state, stream, includeFileContents);
       return stream.toByteArray();
     }
   }
 
   public static BuildJobState deserialize(InputStream stream) throws IOException {
+    StateAssembler assembler = new StateAssembler();
+    deserialize(stream, assembler);
+    return Preconditions.checkNotNull(assembler.state);
+  }
+
+  public static BuildJobState deserialize(byte[] data) throws IOException {
+    try (ByteArrayInputStream stream = new ByteArrayInputStream(data)) {
+      return deserialize(stream);
+    }
+  }
+
+  /**
+   * Reads a serialized state, handing each part of it to {@code visitor} as soon as it has been
+   * decoded, so callers which only need some of the state never hold all of it.
+   */
+  public static void deserialize(
+      InputStream stream,
+      BuildJobStateStreamReader.Visitor visitor) throws IOException {
+    BufferedInputStream bufferedStream = new BufferedInputStream(stream);
+    if (!isStreamed(bufferedStream)) {
+      visit(deserializeSingleStruct(bufferedStream), visitor);
+      return;
+    }
+
+    try (BuildJobStateStreamReader reader = new BuildJobStateStreamReader(bufferedStream)) {
+      reader.read(visitor);
+    }
+  }
+
+  public static void deserialize(
+      byte[] data,
+      BuildJobStateStreamReader.Visitor visitor) throws IOException {
+    try (ByteArrayInputStream stream = new ByteArrayInputStream(data)) {
+      deserialize(stream, visitor);
+    }
+  }
+
+  /**
+   * Hands an in-memory state to {@code visitor} in the same order as
+   * {@link #deserialize(InputStream, BuildJobStateStreamReader.Visitor)} would.
+   */
+  public static void visit(
+      BuildJobState state,
+      BuildJobStateStreamReader.Visitor visitor) throws IOException {
+    visitor.visitHeader(createHeader(state));
+    if (state.isSetTargetGraph() && state.getTargetGraph().getNodesSize() > 0) {
+      visitor.visitTargetNodes(state.getTargetGraph().getNodes());
+    }
+    if (state.isSetFileHashes()) {
+      for (BuildJobStateFileHashes hashes : state.getFileHashes()) {
+        visitor.visitFileHashes(hashes);
+      }
+    }
+  }
+
+  /**
+   * @return a copy of everything in {@code state} apart from target nodes and file hashes. The
+   *     target graph and file hash list are kept, empty, if they are set in {@code state}.  Fields
+   *     are copied generically, so ones added to the thrift structs later are carried over too.
+   */
+  private static BuildJobState createHeader(BuildJobState state) {
+    BuildJobState header = new BuildJobState();
+    for (BuildJobState._Fields field : BuildJobState._Fields.values()) {
+      if (state.isSet(field)) {
+        header.setFieldValue(field, state.getFieldValue(field));
+      }
+    }
+    if (state.isSetFileHashes()) {
+      header.setFileHashes(new ArrayList<>());
+    }
+    if (state.isSetTargetGraph()) {
+      BuildJobStateTargetGraph targetGraph = new BuildJobStateTargetGraph();
+      for (BuildJobStateTargetGraph._Fields field : BuildJobStateTargetGraph._Fields.values()) {
+        if (state.getTargetGraph().isSet(field)) {
+          targetGraph.setFieldValue(field, state.getTargetGraph().getFieldValue(field));
+        }
+      }
+      if (state.getTargetGraph().isSetNodes()) {
+        targetGraph.setNodes(new ArrayList<>());
+      }
+      header.setTargetGraph(targetGraph);
+    }
+    return header;
+  }
+
+  private static boolean isStreamed(BufferedInputStream stream) throws IOException {
+    stream.mark(Integer.BYTES);
+    try {
+      return new DataInputStream(stream).readInt() == BuildJobStateStreamWriter.MAGIC;
+    } catch (IOException e) {
+      return false;
+    } finally {
+      stream.reset();
+    }
+  }
+
+  private static BuildJobState deserializeSingleStruct(InputStream stream) throws IOException {
     BuildJobState state = new BuildJobState();
     try (InflaterInputStream zlibStream = new InflaterInputStream(stream)) {
       ThriftUtil.deserialize(PROTOCOL, zlibStream, state);
@@ -57,9 +190,36 @@ public abstract class BuildJobStateSerializer {
     return state;
   }
 
-  public static BuildJobState deserialize(byte[] data) throws IOException {
-    try (ByteArrayInputStream stream = new ByteArrayInputStream(data)) {
-      return deserialize(stream);
+  private static class StateAssembler implements BuildJobStateStreamReader.Visitor {
+    private BuildJobState state;
+    private BuildJobStateFileHashes currentFileHashes;
+
+    @Override
+    public void visitHeader(BuildJobState header) {
+      state = header;
+    }
+
+    @Override
+    public void visitTargetNodes(List<BuildJobStateTargetNode> nodes) {
+      if (!state.isSetTargetGraph()) {
+        state.setTargetGraph(new BuildJobStateTargetGraph());
+      }
+      for (BuildJobStateTargetNode node : nodes) {
+        state.getTargetGraph().addToNodes(node);
+      }
+    }
+
+    @Override
+    public void visitFileHashes(BuildJobStateFileHashes hashes) {
+      state.addToFileHashes(hashes);
+      currentFileHashes = hashes;
+    }
+
+    @Override
+    public void visitMoreFileHashEntries(List<BuildJobStateFileHashEntry> entries) {
+      for (BuildJobStateFileHashEntry entry : entries) {
+        currentFileHashes.addToEntries(entry);
+      }
     }
   }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.distributed;
+
+import com.facebook.buck.distributed.thrift.BuildJobState;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashes;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetGraph;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetNode;
+import com.facebook.buck.slb.ThriftUtil;
+
+import org.apache.thrift.TBase;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads the record stream written by {@link BuildJobStateStreamWriter}, handing each record to a
+ * {@link Visitor} as soon as it has been decoded.
+ */
+public class BuildJobStateStreamReader implements Closeable {
+
+  /**
+   * Receives the records of a stream in the order they were written.
+   */
+  public interface Visitor {
+    void visitHeader(BuildJobState header) throws IOException;
+
+    void visitTargetNodes(List<BuildJobStateTargetNode> nodes) throws IOException;
+
+    /**
+     * Starts the hashes of a cell. Further entries for the same cell may follow in calls to
+     * {@link #visitMoreFileHashEntries(List)}.
+     */
+    void visitFileHashes(BuildJobStateFileHashes hashes) throws IOException;
+
+    void visitMoreFileHashEntries(List<BuildJobStateFileHashEntry> entries) throws IOException;
+  }
+
+  private final DataInputStream stream;
+
+  public BuildJobStateStreamReader(InputStream stream) throws IOException {
+    DataInputStream rawStream = new DataInputStream(stream);
+    int magic = rawStream.readInt();
+    if (magic != BuildJobStateStreamWriter.MAGIC) {
+      throw new IOException(
+          String.format("Not a streamed BuildJobState (magic was 0x%08x).", magic));
+    }
+    byte version = rawStream.readByte();
+    if (version != BuildJobStateStreamWriter.VERSION) {
+      throw new IOException(
+          String.format("Unsupported streamed BuildJobState version [%d].", version));
+    }
+    this.stream = new DataInputStream(new InflaterInputStream(stream));
+  }
+
+  /**
+   * Reads records until the end marker.
+   */
+  public void read(Visitor visitor) throws IOException {
+    boolean headerSeen = false;
+    boolean fileHashesStarted = false;
+    while (true) {
+      byte tag;
+      try {
+        tag = stream.readByte();
+      } catch (EOFException e) {
+        throw new IOException("Streamed BuildJobState is truncated.", e);
+      }
+      if (tag == BuildJobStateStreamWriter.TAG_END) {
+        return;
+      }
+      if (!headerSeen && tag != BuildJobStateStreamWriter.TAG_HEADER) {
+        throw new IOException("Streamed BuildJobState does not start with a header.");
+      }
+
+      switch (tag) {
+        case BuildJobStateStreamWriter.TAG_HEADER:
+          if (headerSeen) {
+            throw new IOException("Streamed BuildJobState has more than one header.");
+          }
+          headerSeen = true;
+          visitor.visitHeader(readRecord(new BuildJobState()));
+          break;
+
+        case BuildJobStateStreamWriter.TAG_TARGET_NODES:
+          visitor.visitTargetNodes(readRecord(new BuildJobStateTargetGraph()).getNodes());
+          break;
+
+        case BuildJobStateStreamWriter.TAG_FILE_HASHES:
+          fileHashesStarted = true;
+          visitor.visitFileHashes(readRecord(new BuildJobStateFileHashes()));
+          break;
+
+        case BuildJobStateStreamWriter.TAG_FILE_HASHES_CONTINUATION:
+          if (!fileHashesStarted) {
+            throw new IOException("Streamed BuildJobState continues file hashes it never began.");
+          }
+          visitor.visitMoreFileHashEntries(readRecord(new BuildJobStateFileHashes()).getEntries());
+          break;
+
+        default:
+          throw new IOException(
+              String.format("Unknown record [%d] in streamed BuildJobState.", tag));
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    stream.close();
+  }
+
+  private <T extends TBase<?, ?>> T readRecord(T record) throws IOException {
+    int length = stream.readInt();
+    if (length < 0) {
+      throw new IOException(String.format("Invalid record length [%d].", length));
+    }
+    byte[] data = new byte[length];
+    stream.readFully(data);
+    ThriftUtil.deserialize(BuildJobStateSerializer.PROTOCOL, data, record);
+    return record;
+  }
+}
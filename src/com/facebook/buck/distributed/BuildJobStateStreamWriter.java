@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.distributed;
+
+import com.facebook.buck.distributed.thrift.BuildJobState;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashes;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetGraph;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetNode;
+import com.facebook.buck.slb.ThriftUtil;
+import com.google.common.base.Preconditions;
+
+import org.apache.thrift.TBase;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a {@link BuildJobState} as a compressed sequence of small records, so that the target
+ * graph and the file hashes can be produced one piece at a time instead of being assembled into
+ * a single thrift struct first. Read back with {@link BuildJobStateStreamReader}.
+ *
+ * The stream starts with {@link #MAGIC} and {@link #VERSION}, uncompressed. Everything after
+ * that is deflated and consists of records of the form {@code [tag][length][thrift struct]}:
+ * one header, then any number of target node and file hash chunks, then an end marker.
+ */
+public class BuildJobStateStreamWriter implements Closeable {
+
+  static final int MAGIC = 0x424A5353; // "BJSS"
+  static final byte VERSION = 1;
+
+  static final byte TAG_END = 0;
+  static final byte TAG_HEADER = 1;
+  static final byte TAG_TARGET_NODES = 2;
+  static final byte TAG_FILE_HASHES = 3;
+  static final byte TAG_FILE_HASHES_CONTINUATION = 4;
+
+  static final int TARGET_NODES_PER_CHUNK = 256;
+  static final int FILE_HASH_ENTRIES_PER_CHUNK = 1024;
+
+  private final DataOutputStream stream;
+  private final List<BuildJobStateTargetNode> pendingTargetNodes;
+  private boolean headerWritten;
+  private boolean closed;
+
+  public BuildJobStateStreamWriter(OutputStream stream) throws IOException {
+    DataOutputStream rawStream = new DataOutputStream(stream);
+    rawStream.writeInt(MAGIC);
+    rawStream.writeByte(VERSION);
+    rawStream.flush();
+    this.stream = new DataOutputStream(new DeflaterOutputStream(stream));
+    this.pendingTargetNodes = new ArrayList<>(TARGET_NODES_PER_CHUNK);
+  }
+
+  /**
+   * Writes everything in the state other than the target nodes and file hashes. The header must
+   * be written exactly once, before any other record. The target graph and file hash list of the
+   * header, if set, should be empty; their contents are written with
+   * {@link #writeTargetNode(BuildJobStateTargetNode)} and
+   * {@link #writeFileHashes(BuildJobStateFileHashes, boolean)}.
+   */
+  public void writeHeader(BuildJobState header) throws IOException {
+    Preconditions.checkState(!headerWritten, "The header has already been written.");
+    Preconditions.checkArgument(header.getFileHashesSize() == 0);
+    Preconditions.checkArgument(
+        !header.isSetTargetGraph() || header.getTargetGraph().getNodesSize() == 0);
+    writeRecord(TAG_HEADER, header);
+    headerWritten = true;
+  }
+
+  public void writeTargetNode(BuildJobStateTargetNode node) throws IOException {
+    checkHeaderWritten();
+    pendingTargetNodes.add(node);
+    if (pendingTargetNodes.size() == TARGET_NODES_PER_CHUNK) {
+      flushTargetNodes();
+    }
+  }
+
+  /**
+   * Writes the hashes of one cell in chunks of at most {@link #FILE_HASH_ENTRIES_PER_CHUNK}
+   * entries.
+   *
+   * @param includeContents if false, inline file contents are left out of the written entries.
+   *     The given entries are never modified.
+   */
+  public void writeFileHashes(
+      BuildJobStateFileHashes hashes,
+      boolean includeContents) throws IOException {
+    checkHeaderWritten();
+    // Keep all target nodes ahead of the file hashes so that readers see them in the order the
+    // writer produced them.
+    flushTargetNodes();
+
+    List<BuildJobStateFileHashEntry> entries = hashes.getEntries();
+    BuildJobStateFileHashes first = new BuildJobStateFileHashes();
+    if (hashes.isSetCellIndex()) {
+      first.setCellIndex(hashes.getCellIndex());
+    }
+    if (entries == null) {
+      writeRecord(TAG_FILE_HASHES, first);
+      return;
+    }
+
+    int start = 0;
+    do {
+      int end = Math.min(entries.size(), start + FILE_HASH_ENTRIES_PER_CHUNK);
+      List<BuildJobStateFileHashEntry> chunkEntries = new ArrayList<>(end - start);
+      for (BuildJobStateFileHashEntry entry : entries.subList(start, end)) {
+        if (!includeContents && entry.isSetContents()) {
+          entry = entry.deepCopy();
+          entry.unsetContents();
+        }
+        chunkEntries.add(entry);
+      }
+      if (start == 0) {
+        first.setEntries(chunkEntries);
+        writeRecord(TAG_FILE_HASHES, first);
+      } else {
+        writeRecord(
+            TAG_FILE_HASHES_CONTINUATION,
+            new BuildJobStateFileHashes().setEntries(chunkEntries));
+      }
+      start = end;
+    } while (start < entries.size());
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flushTargetNodes();
+      stream.writeByte(TAG_END);
+    } finally {
+      stream.close();
+    }
+  }
+
+  private void flushTargetNodes() throws IOException {
+    if (pendingTargetNodes.isEmpty()) {
+      return;
+    }
+    writeRecord(
+        TAG_TARGET_NODES,
+        new BuildJobStateTargetGraph().setNodes(new ArrayList<>(pendingTargetNodes)));
+    pendingTargetNodes.clear();
+  }
+
+  private void writeRecord(byte tag, TBase<?, ?> record) throws IOException {
+    byte[] data = ThriftUtil.serialize(BuildJobStateSerializer.PROTOCOL, record);
+    stream.writeByte(tag);
+    stream.writeInt(data.length);
+    stream.write(data);
+  }
+
+  private void checkHeaderWritten() {
+    Preconditions.checkState(headerWritten, "The header must be written first.");
+  }
+}
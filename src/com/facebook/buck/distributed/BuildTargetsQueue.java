@@ -19,154 +19,150 @@ import com.facebook.buck.model.BuildTarget;
 import com.facebook.buck.rules.BuildRule;
 import com.facebook.buck.rules.BuildRuleResolver;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
 
+/**
+ * Hands out the targets of a build as their dependencies finish building.
+ *
+ * Targets are numbered densely as the action graph is walked, and the reverse dependency graph is
+ * kept in compressed sparse row form: the targets depending on target {@code i} are
+ * {@code dependents[dependentsStart[i]]} to {@code dependents[dependentsStart[i + 1] - 1]}.  Each
+ * target becomes ready exactly once, so ready targets go in a fixed size array.  Other than
+ * building the returned lists, dequeueing and completing targets doesn't allocate.
+ * NOTE: Not thread safe.
+ */
 public class BuildTargetsQueue {
-  private List<EnqueuedTarget> zeroDependencyTargets;
-  private final Map<String, EnqueuedTarget> allEnqueuedTargets;
+  private final String[] targetNames;
+  private final Map<String, Integer> targetIds;
+  private final int[] dependentsStart;
+  private final int[] dependents;
+  private final int[] unsatisfiedDependencies;
+  private final int[] readyTargets;
+  private int readyHead;
+  private int readyTail;
 
   private BuildTargetsQueue(
-      List<EnqueuedTarget> zeroDependencyTargets,
-      Map<String, EnqueuedTarget> allEnqueuedTargets) {
-    this.zeroDependencyTargets = zeroDependencyTargets;
-    this.allEnqueuedTargets = allEnqueuedTargets;
+      String[] targetNames,
+      Map<String, Integer> targetIds,
+      int[] dependentsStart,
+      int[] dependents,
+      int[] unsatisfiedDependencies) {
+    this.targetNames = targetNames;
+    this.targetIds = targetIds;
+    this.dependentsStart = dependentsStart;
+    this.dependents = dependents;
+    this.unsatisfiedDependencies = unsatisfiedDependencies;
+    this.readyTargets = new int[targetNames.length];
+    for (int target = 0; target < targetNames.length; target++) {
+      if (unsatisfiedDependencies[target] == 0) {
+        readyTargets[readyTail++] = target;
+      }
+    }
   }
 
   public static BuildTargetsQueue newEmptyQueue() {
-    return new BuildTargetsQueue(new ArrayList<>(), new HashMap<>());
+    return new BuildTargetsQueue(new String[0], new HashMap<>(), new int[1], new int[0], new int[0]);
   }
 
   public static BuildTargetsQueue newQueue(
       BuildRuleResolver resolver,
       Iterable<BuildTarget> targetsToBuild) {
-    // Build the reverse dependency graph by traversing the action graph Top-Down.
-    Map<String, Set<String>> allReverseDeps = new HashMap<>();
-    Map<String, Integer> numberOfDependencies = new HashMap<>();
-    Set<String> visitedTargets = Sets.newHashSet();
-    Queue<BuildRule> buildRulesToProcess = Lists.newLinkedList(
-        FluentIterable.from(targetsToBuild).transform(
-            x -> {
-              BuildRule rule = resolver.getRule(x);
-              visitedTargets.add(ruleToTarget(rule));
-              return rule;
-            }));
-    while (!buildRulesToProcess.isEmpty()) {
-      BuildRule rule = buildRulesToProcess.remove();
-      String target = ruleToTarget(rule);
-      numberOfDependencies.put(target, rule.getBuildDeps().size());
-      for (BuildRule dependencyRule : rule.getBuildDeps()) {
-        String dependencyTarget = ruleToTarget(dependencyRule);
-        if (!allReverseDeps.containsKey(dependencyTarget)) {
-          allReverseDeps.put(dependencyTarget, Sets.newHashSet());
+    // Number the rules as the action graph is traversed Top-Down, noting each dependency edge.
+    Map<BuildRule, Integer> ruleIds = new HashMap<>();
+    List<BuildRule> rules = new ArrayList<>();
+    for (BuildTarget target : targetsToBuild) {
+      BuildRule rule = resolver.getRule(target);
+      if (ruleIds.putIfAbsent(rule, rules.size()) == null) {
+        rules.add(rule);
+      }
+    }
+    int[] edgeDependents = new int[rules.size()];
+    int[] edgeDependencies = new int[rules.size()];
+    int edgeCount = 0;
+    for (int target = 0; target < rules.size(); target++) {
+      for (BuildRule dependencyRule : rules.get(target).getBuildDeps()) {
+        Integer dependency = ruleIds.putIfAbsent(dependencyRule, rules.size());
+        if (dependency == null) {
+          dependency = rules.size();
+          rules.add(dependencyRule);
         }
-        allReverseDeps.get(dependencyTarget).add(target);
-
-        if (!visitedTargets.contains(dependencyTarget)) {
-          visitedTargets.add(dependencyTarget);
-          buildRulesToProcess.add(dependencyRule);
+        if (edgeCount == edgeDependents.length) {
+          edgeDependents = Arrays.copyOf(edgeDependents, edgeCount * 2 + 1);
+          edgeDependencies = Arrays.copyOf(edgeDependencies, edgeCount * 2 + 1);
         }
+        edgeDependents[edgeCount] = target;
+        edgeDependencies[edgeCount] = dependency;
+        edgeCount++;
       }
     }
 
-    // Do the reference counting and create the EnqueuedTargets.
-    List<EnqueuedTarget> zeroDependencyTargets = new ArrayList<>();
-    Map<String, EnqueuedTarget> allEnqueuedTargets = new HashMap<>();
-    for (String target : visitedTargets) {
-      Iterable<String> currentRevDeps = null;
-      if (allReverseDeps.containsKey(target)) {
-        currentRevDeps = allReverseDeps.get(target);
-      } else {
-        currentRevDeps = new ArrayList<>();
-      }
-
-      EnqueuedTarget enqueuedTarget = new EnqueuedTarget(
-          target,
-          ImmutableList.copyOf(currentRevDeps),
-          Preconditions.checkNotNull(numberOfDependencies.get(target)));
-      allEnqueuedTargets.put(target, enqueuedTarget);
-
-      if (enqueuedTarget.areAllDependenciesResolved()) {
-        zeroDependencyTargets.add(enqueuedTarget);
-      }
+    // Group the edges by dependency to build the reverse dependency graph, and do the reference
+    // counting.
+    int targetCount = rules.size();
+    String[] targetNames = new String[targetCount];
+    Map<String, Integer> targetIds = new HashMap<>(targetCount * 2);
+    for (int target = 0; target < targetCount; target++) {
+      targetNames[target] = ruleToTarget(rules.get(target));
+      targetIds.put(targetNames[target], target);
+    }
+    int[] dependentsStart = new int[targetCount + 1];
+    int[] unsatisfiedDependencies = new int[targetCount];
+    for (int edge = 0; edge < edgeCount; edge++) {
+      dependentsStart[edgeDependencies[edge] + 1]++;
+      unsatisfiedDependencies[edgeDependents[edge]]++;
+    }
+    for (int target = 0; target < targetCount; target++) {
+      dependentsStart[target + 1] += dependentsStart[target];
+    }
+    int[] nextDependent = Arrays.copyOf(dependentsStart, targetCount);
+    int[] dependents = new int[edgeCount];
+    for (int edge = 0; edge < edgeCount; edge++) {
+      dependents[nextDependent[edgeDependencies[edge]]++] = edgeDependents[edge];
     }
 
-    return new BuildTargetsQueue(zeroDependencyTargets, allEnqueuedTargets);
+    return new BuildTargetsQueue(
+        targetNames,
+        targetIds,
+        dependentsStart,
+        dependents,
+        unsatisfiedDependencies);
   }
 
   public ImmutableList<String> dequeueZeroDependencyNodes(ImmutableList<String> finishedNodes) {
     // Decrement reference counting.
     for (String node : finishedNodes) {
-      EnqueuedTarget target = Preconditions.checkNotNull(allEnqueuedTargets.get(node));
-      for (String dependent : target.getDependentTargets()) {
-        EnqueuedTarget dep = Preconditions.checkNotNull(allEnqueuedTargets.get(dependent));
-        dep.decrementUnsatisfiedDeps();
-        if (dep.areAllDependenciesResolved()) {
-          zeroDependencyTargets.add(dep);
+      int target = Preconditions.checkNotNull(targetIds.get(node));
+      for (int edge = dependentsStart[target]; edge < dependentsStart[target + 1]; edge++) {
+        int dependent = dependents[edge];
+        int remaining = --unsatisfiedDependencies[dependent];
+        Preconditions.checkState(
+            remaining >= 0,
+            "The number of unsatisfied dependencies can never be negative.");
+        if (remaining == 0) {
+          readyTargets[readyTail++] = dependent;
         }
       }
     }
 
     // Return all the Targets that have all dependencies resolved.
-    ImmutableList<String> targetsReadyToBuild = ImmutableList.copyOf(
-        FluentIterable.from(zeroDependencyTargets).transform(x -> x.getBuildTarget()));
-    zeroDependencyTargets.clear();
-    return targetsReadyToBuild;
+    ImmutableList.Builder<String> targetsReadyToBuild = ImmutableList.builder();
+    for (; readyHead < readyTail; readyHead++) {
+      targetsReadyToBuild.add(targetNames[readyTargets[readyHead]]);
+    }
+    return targetsReadyToBuild.build();
   }
 
-  private static String ruleToTarget(BuildRule rule) {
-    return rule.getFullyQualifiedName();
+  public int getTargetCount() {
+    return targetNames.length;
   }
 
-  private static class EnqueuedTarget {
-    private final String buildTarget;
-    private final ImmutableList<String> dependentTargets;
-    private int unsatisfiedDependencies;
-
-    private EnqueuedTarget(
-        String buildTarget,
-        ImmutableList<String> dependentTargets,
-        int numberOfDependencies) {
-      this.buildTarget = buildTarget;
-      this.dependentTargets = dependentTargets;
-      this.unsatisfiedDependencies = numberOfDependencies;
-    }
-
-    public boolean areAllDependenciesResolved() {
-      return 0 == unsatisfiedDependencies;
-    }
-
-    public String getBuildTarget() {
-      return buildTarget;
-    }
-
-    public ImmutableList<String> getDependentTargets() {
-      return dependentTargets;
-    }
-
-    public void decrementUnsatisfiedDeps() {
-      --unsatisfiedDependencies;
-      Preconditions.checkArgument(
-          unsatisfiedDependencies >= 0,
-          "The number of unsatisfied dependencies can never be negative.");
-    }
-
-    @Override
-    public String toString() {
-      return "EnqueuedTarget{" +
-          "buildTarget='" + buildTarget + '\'' +
-          ", unsatisfiedDependencies=" + unsatisfiedDependencies +
-          ", dependentTargets=" + dependentTargets +
-          '}';
-    }
+  private static String ruleToTarget(BuildRule rule) {
+    return rule.getFullyQualifiedName();
   }
 }
@@ -17,6 +17,7 @@
 package com.facebook.buck.distributed;
 
 import com.facebook.buck.distributed.thrift.StampedeId;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.google.common.base.Preconditions;
 
 import java.io.Closeable;
@@ -27,11 +28,21 @@ public class CoordinatorModeRunner implements DistBuildModeRunner {
   private final BuildTargetsQueue queue;
   private final int coordinatorPort;
   private final StampedeId stampedeId;
+  private final BuildRuleDurationHistory durationHistory;
 
   public CoordinatorModeRunner(
       int coordinatorPort,
       BuildTargetsQueue queue, StampedeId stampedeId) {
+    this(coordinatorPort, queue, stampedeId, new BuildRuleDurationHistory());
+  }
+
+  public CoordinatorModeRunner(
+      int coordinatorPort,
+      BuildTargetsQueue queue,
+      StampedeId stampedeId,
+      BuildRuleDurationHistory durationHistory) {
     this.stampedeId = stampedeId;
+    this.durationHistory = durationHistory;
     Preconditions.checkArgument(
         coordinatorPort > 0,
         "The coordinator's port needs to be a positive integer.");
@@ -54,7 +65,11 @@ public class CoordinatorModeRunner implements DistBuildModeRunner {
     private final ThriftCoordinatorServer server;
 
     private AsyncCoordinatorRun(BuildTargetsQueue queue) throws IOException {
-      this.server = new ThriftCoordinatorServer(coordinatorPort, queue, stampedeId);
+      this.server = new ThriftCoordinatorServer(
+          coordinatorPort,
+          queue,
+          stampedeId,
+          durationHistory);
       this.server.start();
     }
 
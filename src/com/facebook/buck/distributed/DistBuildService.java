@@ -63,6 +63,7 @@ import com.facebook.buck.slb.ThriftUtil;
 import com.facebook.buck.util.cache.FileHashCache;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -73,6 +74,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -83,6 +85,10 @@ import java.util.Optional;
 public class DistBuildService implements Closeable {
   private static final Logger LOG = Logger.get(DistBuildService.class);
   private static final ThriftProtocol PROTOCOL_FOR_CLIENT_ONLY_STRUCTS = ThriftProtocol.COMPACT;
+  // Missing files are uploaded in requests of at most this many bytes of file contents, so that a
+  // large change doesn't have to go up in a single enormous request.
+  private static final long MAX_UPLOAD_BATCH_BYTES = 16 * 1024 * 1024;
+  private static final int MAX_FILES_PER_FETCH = 256;
 
   private final FrontendService service;
 
@@ -125,24 +131,14 @@ public class DistBuildService implements Closeable {
   }
 
   public void uploadTargetGraph(
-      final BuildJobState buildJobStateArg,
+      final BuildJobState buildJobState,
       final StampedeId stampedeId) throws IOException {
-    // TODO(shivanker): We shouldn't be doing this. Fix after we stop reading all files into memory.
-    final BuildJobState buildJobState = buildJobStateArg.deepCopy();
-    // Get rid of file contents from buildJobState
-    for (BuildJobStateFileHashes cell : buildJobState.getFileHashes()) {
-      if (!cell.isSetEntries()) {
-        continue;
-      }
-      for (BuildJobStateFileHashEntry file : cell.getEntries()) {
-        file.unsetContents();
-      }
-    }
-
-    // Now serialize and send the whole buildJobState
+    // File contents are uploaded separately, so leave them out of the serialized state. This is
+    // done chunk by chunk as the state is written rather than on a copy of the whole state.
     StoreBuildGraphRequest storeBuildGraphRequest = new StoreBuildGraphRequest();
     storeBuildGraphRequest.setStampedeId(stampedeId);
-    storeBuildGraphRequest.setBuildGraph(BuildJobStateSerializer.serialize(buildJobState));
+    storeBuildGraphRequest.setBuildGraph(
+        BuildJobStateSerializer.serialize(buildJobState, /* includeFileContents */ false));
 
     FrontendRequest request = new FrontendRequest();
     request.setType(FrontendRequestType.STORE_BUILD_GRAPH);
@@ -228,9 +224,27 @@ public class DistBuildService implements Closeable {
         sha1ToFileInfo.size() - filesToBeUploaded.size(),
         sha1ToFileInfo.size(),
         filesToBeUploaded.size());
-    request = new FrontendRequest();
+    List<FileInfo> batch = new ArrayList<>();
+    long batchBytes = 0;
+    for (FileInfo file : filesToBeUploaded) {
+      long fileBytes = file.isSetContent() ? file.getContent().length : 0;
+      if (!batch.isEmpty() && batchBytes + fileBytes > MAX_UPLOAD_BATCH_BYTES) {
+        storeLocalChanges(batch);
+        batch = new ArrayList<>();
+        batchBytes = 0;
+      }
+      batch.add(file);
+      batchBytes += fileBytes;
+    }
+    if (!batch.isEmpty()) {
+      storeLocalChanges(batch);
+    }
+  }
+
+  private void storeLocalChanges(List<FileInfo> files) throws IOException {
+    FrontendRequest request = new FrontendRequest();
     StoreLocalChangesRequest storeReq = new StoreLocalChangesRequest();
-    storeReq.setFiles(filesToBeUploaded);
+    storeReq.setFiles(files);
     request.setType(FrontendRequestType.STORE_LOCAL_CHANGES);
     request.setStoreLocalChangesRequest(storeReq);
     makeRequestChecked(request);
@@ -277,6 +291,20 @@ public class DistBuildService implements Closeable {
   }
 
   public BuildJobState fetchBuildJobState(StampedeId stampedeId) throws IOException {
+    return BuildJobStateSerializer.deserialize(fetchBuildGraph(stampedeId));
+  }
+
+  /**
+   * Fetches the state of a build, handing each part of it to {@code visitor} as it is decoded
+   * instead of assembling a {@link BuildJobState}.
+   */
+  public void fetchBuildJobState(
+      StampedeId stampedeId,
+      BuildJobStateStreamReader.Visitor visitor) throws IOException {
+    BuildJobStateSerializer.deserialize(fetchBuildGraph(stampedeId), visitor);
+  }
+
+  private byte[] fetchBuildGraph(StampedeId stampedeId) throws IOException {
     FrontendRequest request = createFetchBuildGraphRequest(stampedeId);
     FrontendResponse response = makeRequestChecked(request);
 
@@ -285,8 +313,7 @@ public class DistBuildService implements Closeable {
     Preconditions.checkState(
         response.getFetchBuildGraphResponse().getBuildGraph().length > 0);
 
-    return BuildJobStateSerializer.deserialize(
-        response.getFetchBuildGraphResponse().getBuildGraph());
+    return response.getFetchBuildGraphResponse().getBuildGraph();
   }
 
   public static FrontendRequest createFetchBuildGraphRequest(StampedeId stampedeId) {
@@ -312,6 +339,41 @@ public class DistBuildService implements Closeable {
     return new ByteArrayInputStream(file.getContent());
   }
 
+  /**
+   * Receives the contents of source files fetched by
+   * {@link #multiFetchSourceFiles(Collection, SourceFileConsumer)}.
+   */
+  public interface SourceFileConsumer {
+    void accept(String hashCode, byte[] contents) throws IOException;
+  }
+
+  /**
+   * Fetches the contents of many source files, a batch of them per request.  Each batch is handed
+   * to {@code consumer} as soon as it arrives, so only one batch is held in memory at a time.
+   * Hashes the server doesn't have are skipped.
+   */
+  public void multiFetchSourceFiles(Collection<String> hashCodes, SourceFileConsumer consumer)
+      throws IOException {
+    for (List<String> batch : Iterables.partition(hashCodes, MAX_FILES_PER_FETCH)) {
+      FetchSourceFilesRequest fetchSourceFilesRequest = new FetchSourceFilesRequest();
+      fetchSourceFilesRequest.setContentHashes(batch);
+      FrontendRequest request = new FrontendRequest();
+      request.setType(FrontendRequestType.FETCH_SRC_FILES);
+      request.setFetchSourceFilesRequest(fetchSourceFilesRequest);
+      FrontendResponse response = makeRequestChecked(request);
+
+      Preconditions.checkState(response.isSetFetchSourceFilesResponse());
+      if (!response.getFetchSourceFilesResponse().isSetFiles()) {
+        continue;
+      }
+      for (FileInfo file : response.getFetchSourceFilesResponse().getFiles()) {
+        if (file.isSetContentHash() && file.isSetContent()) {
+          consumer.accept(file.getContentHash(), file.getContent());
+        }
+      }
+    }
+  }
+
   public static FrontendRequest createFetchSourceFileRequest(String fileHash) {
     FetchSourceFilesRequest fetchSourceFileRequest = new FetchSourceFilesRequest();
     fetchSourceFileRequest.setContentHashesIsSet(true);
@@ -28,6 +28,7 @@ import com.facebook.buck.parser.BuildTargetPatternParser;
 import com.facebook.buck.parser.DefaultParserTargetNodeFactory;
 import com.facebook.buck.parser.ParserTargetNodeFactory;
 import com.facebook.buck.rules.ActionGraphAndResolver;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.facebook.buck.rules.CachingBuildEngine;
 import com.facebook.buck.rules.CachingBuildEngineBuckConfig;
 import com.facebook.buck.rules.Cell;
@@ -133,7 +134,8 @@ public class DistBuildSlaveExecutor {
     return new CoordinatorModeRunner(
         args.getCoordinatorPort(),
         queue,
-        args.getStampedeId());
+        args.getStampedeId(),
+        args.getBuildRuleDurationHistory().orElseGet(BuildRuleDurationHistory::new));
   }
 
   private TargetGraph createTargetGraph() throws IOException, InterruptedException {
@@ -291,8 +293,14 @@ public class DistBuildSlaveExecutor {
               engineConfig.getBuildDepFiles(),
               engineConfig.getBuildMaxDepFileCacheEntries(),
               engineConfig.getBuildArtifactCacheSizeLimit(),
+              engineConfig.getBuildCachePrefetchMaxBytes(),
               Preconditions.checkNotNull(actionGraphAndResolver).getResolver(),
               engineConfig.getResourceAwareSchedulingInfo(),
+              engineConfig.isCriticalPathSchedulingEnabled() ?
+                  Optional.of(
+                      args.getBuildRuleDurationHistory()
+                          .orElseGet(BuildRuleDurationHistory::new)) :
+                  Optional.empty(),
               RuleKeyFactories.of(
                   distBuildConfig.getKeySeed(),
                   cachingBuildEngineDelegate.getFileHashCache(),
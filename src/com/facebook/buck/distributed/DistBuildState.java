@@ -23,6 +23,7 @@ import com.facebook.buck.distributed.thrift.BuildJobState;
 import com.facebook.buck.distributed.thrift.BuildJobStateBuckConfig;
 import com.facebook.buck.distributed.thrift.BuildJobStateCell;
 import com.facebook.buck.distributed.thrift.BuildJobStateFileHashes;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetGraph;
 import com.facebook.buck.distributed.thrift.OrderedStringMapEntry;
 import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.model.BuildTarget;
@@ -33,6 +34,7 @@ import com.facebook.buck.rules.DistBuildCellParams;
 import com.facebook.buck.rules.KnownBuildRuleTypesFactory;
 import com.facebook.buck.rules.TargetGraph;
 import com.facebook.buck.rules.TargetGraphAndBuildTargets;
+import com.facebook.buck.rules.TargetNode;
 import com.facebook.buck.util.cache.ProjectFileHashCache;
 import com.facebook.buck.util.environment.Architecture;
 import com.facebook.buck.util.environment.Platform;
@@ -46,6 +48,8 @@ import com.google.common.collect.Maps;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -97,6 +101,41 @@ public class DistBuildState {
     return jobState;
   }
 
+  /**
+   * Like {@link #dump(DistBuildCellIndexer, DistBuildFileHashes, DistBuildTargetGraphCodec,
+   * TargetGraph, ImmutableSet)}, but writes the state to {@code writer} as it is encoded instead
+   * of assembling a {@link BuildJobState}, so the encoded target graph is never held in memory.
+   */
+  public static void dump(
+      DistBuildCellIndexer distributedBuildCellIndexer,
+      DistBuildFileHashes fileHashes,
+      DistBuildTargetGraphCodec targetGraphCodec,
+      TargetGraph targetGraph,
+      ImmutableSet<BuildTarget> topLevelTargets,
+      BuildJobStateStreamWriter writer) throws IOException, InterruptedException {
+    Preconditions.checkArgument(topLevelTargets.size() > 0);
+    List<BuildJobStateFileHashes> remoteFileHashes = fileHashes.getFileHashes();
+
+    // The header holds the cells, which are indexed as they are first seen, so index the cells of
+    // all the target nodes before writing it.
+    for (TargetNode<?, ?> targetNode : targetGraph.getNodes()) {
+      distributedBuildCellIndexer.getCellIndex(targetNode.getFilesystem().getRootPath());
+    }
+    BuildJobState header = new BuildJobState();
+    header.setFileHashes(new ArrayList<>());
+    header.setTargetGraph(new BuildJobStateTargetGraph());
+    header.setCells(distributedBuildCellIndexer.getState());
+    for (BuildTarget target : topLevelTargets) {
+      header.addToTopLevelTargets(target.getFullyQualifiedName());
+    }
+    writer.writeHeader(header);
+
+    targetGraphCodec.dump(targetGraph.getNodes(), distributedBuildCellIndexer, writer);
+    for (BuildJobStateFileHashes hashes : remoteFileHashes) {
+      writer.writeFileHashes(hashes, /* includeContents */ true);
+    }
+  }
+
   public static DistBuildState load(
       Optional<BuckConfig> localBuckConfig, // e.g. the slave's .buckconfig
       BuildJobState jobState,
@@ -69,24 +69,40 @@ public class DistBuildTargetGraphCodec {
       Collection<TargetNode<?, ?>> targetNodes,
       DistBuildCellIndexer cellIndexer) {
     BuildJobStateTargetGraph result = new BuildJobStateTargetGraph();
+    for (TargetNode<?, ?> targetNode : targetNodes) {
+      result.addToNodes(encodeTargetNode(targetNode, cellIndexer));
+    }
+    return result;
+  }
 
-
+  /**
+   * Encodes the nodes one at a time, writing each to {@code writer} as soon as it is ready, so
+   * that the whole encoded graph is never held in memory.
+   */
+  public void dump(
+      Collection<TargetNode<?, ?>> targetNodes,
+      DistBuildCellIndexer cellIndexer,
+      BuildJobStateStreamWriter writer) throws IOException {
     for (TargetNode<?, ?> targetNode : targetNodes) {
-      Map<String, Object> rawTargetNode = nodeToRawNode.apply(targetNode);
-      ProjectFilesystem projectFilesystem = targetNode.getFilesystem();
-
-      BuildJobStateTargetNode remoteNode = new BuildJobStateTargetNode();
-      remoteNode.setCellIndex(cellIndexer.getCellIndex(projectFilesystem.getRootPath()));
-      remoteNode.setBuildTarget(encodeBuildTarget(targetNode.getBuildTarget()));
-      try {
-        remoteNode.setRawNode(ObjectMappers.WRITER.writeValueAsString(rawTargetNode));
-      } catch (JsonProcessingException e) {
-        throw new RuntimeException(e);
-      }
-      result.addToNodes(remoteNode);
+      writer.writeTargetNode(encodeTargetNode(targetNode, cellIndexer));
     }
+  }
 
-    return result;
+  private BuildJobStateTargetNode encodeTargetNode(
+      TargetNode<?, ?> targetNode,
+      DistBuildCellIndexer cellIndexer) {
+    Map<String, Object> rawTargetNode = nodeToRawNode.apply(targetNode);
+    ProjectFilesystem projectFilesystem = targetNode.getFilesystem();
+
+    BuildJobStateTargetNode remoteNode = new BuildJobStateTargetNode();
+    remoteNode.setCellIndex(cellIndexer.getCellIndex(projectFilesystem.getRootPath()));
+    remoteNode.setBuildTarget(encodeBuildTarget(targetNode.getBuildTarget()));
+    try {
+      remoteNode.setRawNode(ObjectMappers.WRITER.writeValueAsString(rawTargetNode));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+    return remoteNode;
   }
 
   public static BuildJobStateBuildTarget encodeBuildTarget(BuildTarget buildTarget) {
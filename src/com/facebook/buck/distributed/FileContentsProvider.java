@@ -17,9 +17,11 @@
 package com.facebook.buck.distributed;
 
 import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
+import com.google.common.collect.ImmutableSet;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Map;
 
 public interface FileContentsProvider {
   /**
@@ -30,4 +32,23 @@ public interface FileContentsProvider {
    */
   boolean materializeFileContents(BuildJobStateFileHashEntry entry, Path targetAbsPath)
       throws IOException;
+
+  /**
+   * Same as {@link #materializeFileContents(BuildJobStateFileHashEntry, Path)} for many files, so
+   * that implementations can fetch them in batches.
+   *
+   * @param entries the entry to fetch the contents for, by where it should be written to.
+   *
+   * @return the paths which could not be materialized.
+   */
+  default ImmutableSet<Path> materializeFileContents(Map<Path, BuildJobStateFileHashEntry> entries)
+      throws IOException {
+    ImmutableSet.Builder<Path> missing = ImmutableSet.builder();
+    for (Map.Entry<Path, BuildJobStateFileHashEntry> entry : entries.entrySet()) {
+      if (!materializeFileContents(entry.getValue(), entry.getKey())) {
+        missing.add(entry.getKey());
+      }
+    }
+    return missing.build();
+  }
 }
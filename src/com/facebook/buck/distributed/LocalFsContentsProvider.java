@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
@@ -51,15 +52,32 @@ public class LocalFsContentsProvider implements FileContentsProvider {
         new ProjectFilesystem(cacheDirAbsPath),
         Paths.get(CACHE_NAME),
         CacheReadMode.READWRITE,
-        Optional.empty());
+        Optional.empty(),
+        /* contentAddressed */ true);
   }
 
   @Override
   public boolean materializeFileContents(BuildJobStateFileHashEntry entry, Path targetAbsPath)
       throws IOException {
     RuleKey key = new RuleKey(entry.getHashCode());
-    CacheResult cacheResult = dirCache.fetch(key, LazyPath.ofInstance(targetAbsPath));
-    return cacheResult.getType() == CacheResultType.HIT;
+    if (!entry.isIsExecutable()) {
+      CacheResult cacheResult = dirCache.fetch(key, LazyPath.ofInstance(targetAbsPath));
+      return cacheResult.getType() == CacheResultType.HIT;
+    }
+
+    // The cache hard links files into place, so copy executable files rather than change the
+    // permissions of the copy in the cache, which other files with the same contents share.
+    Path linkAbsPath = targetAbsPath.resolveSibling(targetAbsPath.getFileName() + ".cas.tmp");
+    try {
+      CacheResult cacheResult = dirCache.fetch(key, LazyPath.ofInstance(linkAbsPath));
+      if (cacheResult.getType() != CacheResultType.HIT) {
+        return false;
+      }
+      Files.copy(linkAbsPath, targetAbsPath, StandardCopyOption.REPLACE_EXISTING);
+      return true;
+    } finally {
+      Files.deleteIfExists(linkAbsPath);
+    }
   }
 
   public void writeFileAndGetInputStream(
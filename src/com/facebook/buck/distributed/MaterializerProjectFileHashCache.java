@@ -25,12 +25,14 @@ import com.facebook.buck.log.Logger;
 import com.facebook.buck.util.cache.FileHashCacheVerificationResult;
 import com.facebook.buck.util.cache.ProjectFileHashCache;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.hash.HashCode;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
@@ -63,6 +65,8 @@ class MaterializerProjectFileHashCache implements ProjectFileHashCache {
   }
 
   public void preloadAllFiles() throws IOException {
+    // Plain files to materialize are fetched together at the end, so that they can be batched.
+    Map<Path, BuildJobStateFileHashEntry> filesToMaterialize = new HashMap<>();
     for (Path absPath : remoteFileHashesByAbsPath.keySet()) {
       LOG.info("Preloading: [%s]", absPath.toString());
       BuildJobStateFileHashEntry fileHashEntry = remoteFileHashesByAbsPath.get(absPath);
@@ -70,8 +74,12 @@ class MaterializerProjectFileHashCache implements ProjectFileHashCache {
         continue;
       } else if (fileHashEntry.isSetMaterializeDuringPreloading() &&
           fileHashEntry.isMaterializeDuringPreloading()) {
-        Path relPath = projectFilesystem.getPathRelativeToProjectRoot(absPath).get();
-        get(relPath);
+        if (fileHashEntry.isSetRootSymLink() || fileHashEntry.isIsDirectory()) {
+          Path relPath = projectFilesystem.getPathRelativeToProjectRoot(absPath).get();
+          get(relPath);
+        } else {
+          filesToMaterialize.put(absPath, fileHashEntry);
+        }
       } else if (fileHashEntry.isSetRootSymLink()) {
         materializeSymlink(fileHashEntry, symlinkedPaths);
         symlinkedPaths.add(absPath);
@@ -85,6 +93,34 @@ class MaterializerProjectFileHashCache implements ProjectFileHashCache {
         projectFilesystem.mkdirs(absPath);
       }
     }
+    materializeFiles(filesToMaterialize);
+  }
+
+  private void materializeFiles(Map<Path, BuildJobStateFileHashEntry> allFiles)
+      throws IOException {
+    // As with single files, skip any which have already been materialized.
+    Map<Path, BuildJobStateFileHashEntry> files = new HashMap<>();
+    for (Map.Entry<Path, BuildJobStateFileHashEntry> file : allFiles.entrySet()) {
+      Path relPath = projectFilesystem.getPathRelativeToProjectRoot(file.getKey()).get();
+      if (!materializedPaths.contains(relPath)) {
+        files.put(file.getKey(), file.getValue());
+      }
+    }
+    if (files.isEmpty()) {
+      return;
+    }
+    for (Path absPath : files.keySet()) {
+      projectFilesystem.createParentDirs(absPath);
+    }
+    ImmutableSet<Path> missing = provider.materializeFileContents(files);
+    Preconditions.checkState(
+        missing.isEmpty(),
+        "[Stampede] Missing source files %s",
+        missing);
+    for (Map.Entry<Path, BuildJobStateFileHashEntry> file : files.entrySet()) {
+      file.getKey().toFile().setExecutable(file.getValue().isExecutable);
+      materializedPaths.add(projectFilesystem.getPathRelativeToProjectRoot(file.getKey()).get());
+    }
   }
 
   private void materializeIfNeeded(Path relPath, Queue<Path> remainingRelPaths) throws IOException {
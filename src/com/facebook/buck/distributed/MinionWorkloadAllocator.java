@@ -16,30 +16,63 @@
 
 package com.facebook.buck.distributed;
 
+import com.facebook.buck.rules.BuildRuleDurationHistory;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 /**
  * Allocates and keeps track of what BuildTargets are allocated to which Minions.
+ *
+ * Targets which become ready to build when a Minion finishes its workload are queued for that same
+ * Minion, as it already holds the outputs of at least one of their dependencies.  A Minion asking
+ * for work is handed the most expensive targets, by their previous build durations, first from its
+ * own queue, then from the targets no Minion has a claim on, and finally by stealing from the queue
+ * of the Minion with the most work waiting for it.
  * NOTE: Not thread safe.
  */
 public class MinionWorkloadAllocator {
 
+  /**
+   * What a target which has never been built before is assumed to cost.
+   */
+  @VisibleForTesting
+  static final long DEFAULT_TARGET_COST_MILLIS = 1000;
+
   private final BuildTargetsQueue queue;
   private final int maxTargetsPerMinion;
+  private final BuildRuleDurationHistory durationHistory;
   private final Map<String, MinionWorkload> minionAllocations;
   private final List<String> targetsNotAssignedYet;
+  private final Map<String, List<String>> targetsQueuedForMinion;
+  private final Map<String, Long> targetCosts;
+  private final Comparator<String> mostExpensiveFirst;
 
   public MinionWorkloadAllocator(BuildTargetsQueue queue, int maxTargetsPerMinion) {
+    this(queue, maxTargetsPerMinion, new BuildRuleDurationHistory());
+  }
+
+  public MinionWorkloadAllocator(
+      BuildTargetsQueue queue,
+      int maxTargetsPerMinion,
+      BuildRuleDurationHistory durationHistory) {
     this.queue = queue;
+    this.durationHistory = durationHistory;
     this.minionAllocations = new HashMap<>();
     this.targetsNotAssignedYet =
         Lists.newArrayList(queue.dequeueZeroDependencyNodes(ImmutableList.of()));
+    this.targetsQueuedForMinion = new HashMap<>();
+    this.targetCosts = new HashMap<>();
+    this.mostExpensiveFirst = Comparator.comparingLong(this::getCost).reversed();
     this.maxTargetsPerMinion = maxTargetsPerMinion;
   }
 
@@ -54,34 +87,100 @@ public class MinionWorkloadAllocator {
       targetsNotAssignedYet.addAll(queue.dequeueZeroDependencyNodes(ImmutableList.of()));
     }
 
-    if (targetsNotAssignedYet.isEmpty()) {
-      return ImmutableList.of();
+    ImmutableList.Builder<String> targetsToBuild = ImmutableList.builder();
+    int remaining = maxTargetsPerMinion;
+    remaining -= takeMostExpensive(
+        targetsQueuedForMinion.getOrDefault(minionId, new ArrayList<>()),
+        remaining,
+        targetsToBuild);
+    remaining -= takeMostExpensive(targetsNotAssignedYet, remaining, targetsToBuild);
+    while (remaining > 0) {
+      String victim = getMinionWithMostQueuedWork(minionId);
+      if (victim == null) {
+        break;
+      }
+      remaining -=
+          takeMostExpensive(targetsQueuedForMinion.get(victim), remaining, targetsToBuild);
+    }
+    targetsQueuedForMinion.values().removeIf(List::isEmpty);
+
+    ImmutableList<String> targets = targetsToBuild.build();
+    if (targets.isEmpty()) {
+      return targets;
     }
 
     // Assign new minionWorkload to the worker.
+    MinionWorkload minionWorkload = new MinionWorkload(targets);
+    minionAllocations.put(minionId, minionWorkload);
+    return targets;
+  }
+
+  public void finishedBuildingTargets(String minionId) {
+    MinionWorkload minionWorkload = Preconditions.checkNotNull(minionAllocations.remove(minionId));
+    ImmutableList<String> unblockedTargets =
+        queue.dequeueZeroDependencyNodes(minionWorkload.getTargetsBeingBuilt());
+    if (!unblockedTargets.isEmpty()) {
+      targetsQueuedForMinion.computeIfAbsent(minionId, key -> new ArrayList<>())
+          .addAll(unblockedTargets);
+    }
+  }
+
+  public boolean isBuildFinished() {
+    return minionAllocations.size() == 0 &&
+        targetsNotAssignedYet.size() == 0 &&
+        targetsQueuedForMinion.isEmpty();
+  }
+
+  /**
+   * Moves up to {@code count} of the most expensive targets from {@code source} to {@code sink}.
+   *
+   * @return how many targets were moved.
+   */
+  private int takeMostExpensive(
+      List<String> source,
+      int count,
+      ImmutableList.Builder<String> sink) {
+    if (count <= 0 || source.isEmpty()) {
+      return 0;
+    }
+    // The sort is stable, so targets of equal cost are handed out in the order they became ready.
+    source.sort(mostExpensiveFirst);
 
     // NOTE: This is just a view into the original collection. It's not a clone.
-    int lastIndex = Math.min(targetsNotAssignedYet.size(), maxTargetsPerMinion);
-    List<String> viewIntoTargetsToBuild = targetsNotAssignedYet.subList(0, lastIndex);
-    ImmutableList<String> targetsToBuild = ImmutableList.copyOf(viewIntoTargetsToBuild);
+    List<String> view = source.subList(0, Math.min(source.size(), count));
+    int taken = view.size();
+    sink.addAll(view);
 
     // Because this is a view over the original List, the .clear() method will remove the
     // items from the original list.
-    viewIntoTargetsToBuild.clear();
-
-    MinionWorkload minionWorkload = new MinionWorkload(targetsToBuild);
-    minionAllocations.put(minionId, minionWorkload);
-    return targetsToBuild;
+    view.clear();
+    return taken;
   }
 
-  public void finishedBuildingTargets(String minionId) {
-    MinionWorkload minionWorkload = Preconditions.checkNotNull(minionAllocations.remove(minionId));
-    targetsNotAssignedYet.addAll(
-        queue.dequeueZeroDependencyNodes(minionWorkload.getTargetsBeingBuilt()));
+  @Nullable
+  private String getMinionWithMostQueuedWork(String thiefId) {
+    String victim = null;
+    long victimQueuedCost = 0;
+    for (Map.Entry<String, List<String>> entry : targetsQueuedForMinion.entrySet()) {
+      if (entry.getKey().equals(thiefId) || entry.getValue().isEmpty()) {
+        continue;
+      }
+      long queuedCost = 0;
+      for (String target : entry.getValue()) {
+        queuedCost += getCost(target);
+      }
+      if (victim == null || queuedCost > victimQueuedCost) {
+        victim = entry.getKey();
+        victimQueuedCost = queuedCost;
+      }
+    }
+    return victim;
   }
 
-  public boolean isBuildFinished() {
-    return minionAllocations.size() == 0 && targetsNotAssignedYet.size() == 0;
+  private long getCost(String target) {
+    return targetCosts.computeIfAbsent(
+        target,
+        key -> durationHistory.getEstimatedDurationMillis(key).orElse(DEFAULT_TARGET_COST_MILLIS));
   }
 
   private static class MinionWorkload {
@@ -17,9 +17,12 @@
 package com.facebook.buck.distributed;
 
 import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
+import com.google.common.collect.ImmutableSet;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 public class MultiSourceContentsProvider implements FileContentsProvider {
@@ -70,4 +73,33 @@ public class MultiSourceContentsProvider implements FileContentsProvider {
 
     return false;
   }
+
+  @Override
+  public ImmutableSet<Path> materializeFileContents(Map<Path, BuildJobStateFileHashEntry> entries)
+      throws IOException {
+    Map<Path, BuildJobStateFileHashEntry> serverEntries = new HashMap<>();
+    for (Map.Entry<Path, BuildJobStateFileHashEntry> entry : entries.entrySet()) {
+      if (inlineProvider.materializeFileContents(entry.getValue(), entry.getKey())) {
+        continue;
+      }
+      if (localFsProvider.isPresent() &&
+          localFsProvider.get().materializeFileContents(entry.getValue(), entry.getKey())) {
+        continue;
+      }
+      serverEntries.put(entry.getKey(), entry.getValue());
+    }
+    if (serverEntries.isEmpty()) {
+      return ImmutableSet.of();
+    }
+
+    ImmutableSet<Path> missing = serverProvider.materializeFileContents(serverEntries);
+    if (localFsProvider.isPresent()) {
+      for (Map.Entry<Path, BuildJobStateFileHashEntry> entry : serverEntries.entrySet()) {
+        if (!missing.contains(entry.getKey())) {
+          localFsProvider.get().writeFileAndGetInputStream(entry.getValue(), entry.getKey());
+        }
+      }
+    }
+    return missing;
+  }
 }
@@ -18,12 +18,16 @@ package com.facebook.buck.distributed;
 
 import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 import com.google.common.io.ByteStreams;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.Map;
 
 public class ServerContentsProvider implements FileContentsProvider {
   private final DistBuildService service;
@@ -47,4 +51,30 @@ public class ServerContentsProvider implements FileContentsProvider {
 
     return true;
   }
+
+  @Override
+  public ImmutableSet<Path> materializeFileContents(Map<Path, BuildJobStateFileHashEntry> entries)
+      throws IOException {
+    // Files with the same contents are only fetched once.
+    Multimap<String, Path> pathsByHashCode = HashMultimap.create();
+    for (Map.Entry<Path, BuildJobStateFileHashEntry> entry : entries.entrySet()) {
+      Preconditions.checkState(
+          entry.getValue().isSetHashCode(),
+          String.format("File hash missing for file [%s]", entry.getValue().getPath()));
+      pathsByHashCode.put(entry.getValue().getHashCode(), entry.getKey());
+    }
+
+    // Write out each batch as it arrives, rather than holding every file's contents in memory.
+    service.multiFetchSourceFiles(
+        ImmutableSet.copyOf(pathsByHashCode.keySet()),
+        (hashCode, contents) -> {
+          for (Path path : pathsByHashCode.removeAll(hashCode)) {
+            try (OutputStream outputStream = InlineContentsProvider.newOutputStream(path)) {
+              outputStream.write(contents);
+            }
+          }
+        });
+
+    return ImmutableSet.copyOf(pathsByHashCode.values());
+  }
 }
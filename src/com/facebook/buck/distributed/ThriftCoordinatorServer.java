@@ -24,6 +24,7 @@ import com.facebook.buck.distributed.thrift.GetTargetsToBuildRequest;
 import com.facebook.buck.distributed.thrift.GetTargetsToBuildResponse;
 import com.facebook.buck.distributed.thrift.StampedeId;
 import com.facebook.buck.log.Logger;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.facebook.buck.slb.ThriftException;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
@@ -70,10 +71,19 @@ public class ThriftCoordinatorServer implements Closeable {
   private Thread serverThread;
 
   public ThriftCoordinatorServer(int port, BuildTargetsQueue queue, StampedeId stampedeId) {
+    this(port, queue, stampedeId, new BuildRuleDurationHistory());
+  }
+
+  public ThriftCoordinatorServer(
+      int port,
+      BuildTargetsQueue queue,
+      StampedeId stampedeId,
+      BuildRuleDurationHistory durationHistory) {
     this.stampedeId = stampedeId;
     this.lock = new Object();
     this.exitCodeFuture = new CompletableFuture<>();
-    this.allocator = new MinionWorkloadAllocator(queue, MAX_TARGETS_ALLOCATED_PER_MINION);
+    this.allocator =
+        new MinionWorkloadAllocator(queue, MAX_TARGETS_ALLOCATED_PER_MINION, durationHistory);
     this.port = port;
     this.handler = new CoordinatorServiceHandler();
     this.processor = new CoordinatorService.Processor<CoordinatorService.Iface>(handler);
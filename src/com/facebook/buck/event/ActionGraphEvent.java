@@ -90,6 +90,10 @@ public abstract class ActionGraphEvent
       return new MissWithTargetGraphHashMatch();
     }
 
+    public static Eviction eviction(Eviction.Reason reason, int hits, int misses) {
+      return new Eviction(reason, hits, misses);
+    }
+
     public static class Hit extends Cache {
       public Hit() {
         super("ActionGraphCacheHit");
@@ -110,6 +114,27 @@ public abstract class ActionGraphEvent
       }
     }
 
+    /**
+     * An action graph was dropped from the cache, along with how often it had been used.
+     */
+    public static class Eviction extends Cache {
+      public enum Reason {
+        CAPACITY,
+        HEAP_BUDGET,
+      }
+
+      public final Reason reason;
+      public final int hits;
+      public final int misses;
+
+      public Eviction(Reason reason, int hits, int misses) {
+        super("ActionGraphCacheEviction");
+        this.reason = reason;
+        this.hits = hits;
+        this.misses = misses;
+      }
+    }
+
     @Override
     public String getEventName() {
       return eventName;
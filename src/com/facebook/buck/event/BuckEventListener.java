@@ -19,9 +19,33 @@ package com.facebook.buck.event;
 import com.facebook.buck.model.BuildId;
 
 public interface BuckEventListener {
+
+  /**
+   * What the event bus does with events for a listener that has fallen too far behind to queue
+   * them.
+   */
+  enum OverflowPolicy {
+    /**
+     * The posting thread waits until the listener catches up.
+     */
+    BLOCK,
+    /**
+     * Events are dropped until the listener catches up.
+     */
+    DROP,
+  }
+
   /**
    * Output any trace data collected to the backing store.
    * @param buildId for the trace to be written.
    */
   public void outputTrace(BuildId buildId) throws InterruptedException;
+
+  /**
+   * Listeners that only report progress, and so can miss an event without being wrong afterwards,
+   * can return {@link OverflowPolicy#DROP} so that a slow consumer never holds up the build.
+   */
+  default OverflowPolicy getOverflowPolicy() {
+    return OverflowPolicy.BLOCK;
+  }
 }
@@ -47,7 +47,7 @@ public class ChromeTraceEvent {
     }
 
     @JsonValue
-    String getPhase() {
+    public String getPhase() {
       return phase;
     }
   }
@@ -19,20 +19,30 @@ import com.facebook.buck.log.CommandThreadFactory;
 import com.facebook.buck.log.Logger;
 import com.facebook.buck.model.BuildId;
 import com.facebook.buck.timing.Clock;
-import com.facebook.buck.util.concurrent.MostExecutors;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
-import com.google.common.eventbus.EventBus;
-import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.collect.ImmutableList;
 
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Thin wrapper around guava event bus.
+ * Event bus that delivers events to the {@link com.google.common.eventbus.Subscribe} methods of its
+ * listeners, with the same semantics as guava's event bus.
+ *
+ * In asynchronous mode every listener has its own {@link EventRing}, drained by a thread of its
+ * own, so a slow listener doesn't hold up the others. Posting an event only puts it in the rings
+ * of the listeners that have a handler for its class, which are looked up once per class.
  */
 public class DefaultBuckEventBus implements com.facebook.buck.event.BuckEventBus {
 
@@ -40,16 +50,43 @@ public class DefaultBuckEventBus implements com.facebook.buck.event.BuckEventBus
 
   public static final int DEFAULT_SHUTDOWN_TIMEOUT_MS = 15000;
 
+  /**
+   * How many events each listener can fall behind by before its
+   * {@link BuckEventListener.OverflowPolicy} applies.
+   */
+  public static final int DEFAULT_RING_CAPACITY = 4096;
+
   private static final Supplier<Long> DEFAULT_THREAD_ID_SUPPLIER =
       () -> Thread.currentThread().getId();
 
   private final Clock clock;
-  private final ExecutorService executorService;
-  private final EventBus eventBus;
+  private final boolean async;
+  private final ThreadFactory threadFactory;
+  private final int ringCapacity;
   private final Supplier<Long> threadIdSupplier;
   private final BuildId buildId;
   private final int shutdownTimeoutMillis;
 
+  private final List<ListenerSubscription> subscriptions = new CopyOnWriteArrayList<>();
+  private final List<EventRing> rings = new CopyOnWriteArrayList<>();
+  private final AtomicLong offeredEvents = new AtomicLong();
+  /**
+   * For each event class, the listeners with a handler for it. Replaced whenever a listener is
+   * registered, so that a lookup racing with the registration can't fill in a stale entry.
+   */
+  private volatile ConcurrentMap<Class<?>, ImmutableList<EventRing>> ringsByEventClass =
+      new ConcurrentHashMap<>();
+  private volatile ConcurrentMap<Class<?>, ImmutableList<ListenerSubscription>>
+      subscriptionsByEventClass = new ConcurrentHashMap<>();
+  /**
+   * In synchronous mode, events posted by a handler are queued until the event being handled has
+   * been delivered to every listener, as guava's event bus does.
+   */
+  private final ThreadLocal<Queue<BuckEvent>> queuedSynchronousEvents =
+      ThreadLocal.withInitial(ArrayDeque::new);
+  private final ThreadLocal<Boolean> isDispatchingSynchronously =
+      ThreadLocal.withInitial(() -> false);
+
   public DefaultBuckEventBus(Clock clock, BuildId buildId) {
     this(clock, true, buildId, DEFAULT_SHUTDOWN_TIMEOUT_MS);
   }
@@ -60,20 +97,85 @@ public class DefaultBuckEventBus implements com.facebook.buck.event.BuckEventBus
       boolean async,
       BuildId buildId,
       int shutdownTimeoutMillis) {
+    this(clock, async, buildId, shutdownTimeoutMillis, DEFAULT_RING_CAPACITY);
+  }
+
+  @VisibleForTesting
+  DefaultBuckEventBus(
+      Clock clock,
+      boolean async,
+      BuildId buildId,
+      int shutdownTimeoutMillis,
+      int ringCapacity) {
     this.clock = clock;
-    this.executorService = async ?
-        MostExecutors.newSingleThreadExecutor(
-            new CommandThreadFactory(BuckEventBus.class.getSimpleName())) :
-        MoreExecutors.newDirectExecutorService();
-    this.eventBus = new EventBus("buck-build-events");
+    this.async = async;
+    this.threadFactory = new CommandThreadFactory(BuckEventBus.class.getSimpleName());
+    this.ringCapacity = ringCapacity;
     this.threadIdSupplier = DEFAULT_THREAD_ID_SUPPLIER;
     this.buildId = buildId;
     this.shutdownTimeoutMillis = shutdownTimeoutMillis;
   }
 
-  private void dispatch(final BuckEvent event) {
-    executorService.submit(
-        () -> eventBus.post(event));
+  private void dispatch(BuckEvent event) {
+    if (async) {
+      offeredEvents.incrementAndGet();
+      for (EventRing ring : getRings(event.getClass())) {
+        ring.offer(event);
+      }
+      return;
+    }
+    dispatchSynchronously(event);
+  }
+
+  private void dispatchSynchronously(BuckEvent event) {
+    queuedSynchronousEvents.get().add(event);
+    if (isDispatchingSynchronously.get()) {
+      return;
+    }
+    isDispatchingSynchronously.set(true);
+    try {
+      BuckEvent next;
+      while ((next = queuedSynchronousEvents.get().poll()) != null) {
+        for (ListenerSubscription subscription : getSubscriptions(next.getClass())) {
+          subscription.deliver(next);
+        }
+      }
+    } finally {
+      isDispatchingSynchronously.set(false);
+    }
+  }
+
+  private ImmutableList<EventRing> getRings(Class<?> eventClass) {
+    ConcurrentMap<Class<?>, ImmutableList<EventRing>> cache = ringsByEventClass;
+    ImmutableList<EventRing> eventRings = cache.get(eventClass);
+    if (eventRings == null) {
+      ImmutableList.Builder<EventRing> builder = ImmutableList.builder();
+      for (EventRing ring : rings) {
+        if (ring.getSubscription().accepts(eventClass)) {
+          builder.add(ring);
+        }
+      }
+      eventRings = builder.build();
+      cache.put(eventClass, eventRings);
+    }
+    return eventRings;
+  }
+
+  private ImmutableList<ListenerSubscription> getSubscriptions(Class<?> eventClass) {
+    ConcurrentMap<Class<?>, ImmutableList<ListenerSubscription>> cache =
+        subscriptionsByEventClass;
+    ImmutableList<ListenerSubscription> eventSubscriptions = cache.get(eventClass);
+    if (eventSubscriptions == null) {
+      ImmutableList.Builder<ListenerSubscription> builder = ImmutableList.builder();
+      for (ListenerSubscription subscription : subscriptions) {
+        if (subscription.accepts(eventClass)) {
+          builder.add(subscription);
+        }
+      }
+      eventSubscriptions = builder.build();
+      cache.put(eventClass, eventSubscriptions);
+    }
+    return eventSubscriptions;
   }
 
   @Override
@@ -97,14 +199,34 @@ public class DefaultBuckEventBus implements com.facebook.buck.event.BuckEventBus
   }
 
   @Override
-  public void register(Object object) {
-    eventBus.register(object);
+  public synchronized void register(Object object) {
+    for (ListenerSubscription subscription : subscriptions) {
+      if (subscription.getListener() == object) {
+        return;
+      }
+    }
+    ListenerSubscription subscription = ListenerSubscription.of(object);
+    if (!subscription.hasHandlers()) {
+      return;
+    }
+    subscriptions.add(subscription);
+    if (async) {
+      BuckEventListener.OverflowPolicy overflowPolicy = object instanceof BuckEventListener ?
+          ((BuckEventListener) object).getOverflowPolicy() :
+          BuckEventListener.OverflowPolicy.BLOCK;
+      rings.add(new EventRing(subscription, overflowPolicy, ringCapacity, threadFactory));
+    }
+    ringsByEventClass = new ConcurrentHashMap<>();
+    subscriptionsByEventClass = new ConcurrentHashMap<>();
   }
 
   @Override
   public void postWithoutConfiguring(BuckEvent event) {
     Preconditions.checkState(event.isConfigured());
-    eventBus.post(event);
+    // Delivered on the caller's thread even in asynchronous mode, as guava's event bus did:
+    // SimplePerfEvent and BroadcastEventListener expect the listeners to have seen the event by
+    // the time this returns.
+    dispatchSynchronously(event);
   }
 
   @VisibleForTesting
@@ -125,26 +247,52 @@ public class DefaultBuckEventBus implements com.facebook.buck.event.BuckEventBus
   }
 
   /**
-   * {@link ExecutorService#awaitTermination(long, java.util.concurrent.TimeUnit)} is called
-   * to wait for events which have been posted, but which have been queued by the
-   * {@link EventBus}, to be delivered. This allows listeners to record or report as much
-   * information as possible. This aids debugging when close is called during exception processing.
+   * Waits for events which have been posted, but not yet delivered, to be delivered. This allows
+   * listeners to record or report as much information as possible. This aids debugging when close
+   * is called during exception processing.
    */
   @Override
   public void close() throws IOException {
-    executorService.shutdown();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
     try {
-      if (!executorService.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+      // Listeners post events of their own while handling events, so wait until nothing is left
+      // to deliver anywhere before stopping any of them.
+      awaitQuiescence(deadline);
+      for (EventRing ring : rings) {
+        ring.close();
+      }
+      boolean terminated = true;
+      for (EventRing ring : rings) {
+        terminated &= ring.awaitTermination(deadline - System.nanoTime());
+      }
+      if (!terminated) {
         LOG.warn(Joiner.on(System.lineSeparator()).join(
           "The BuckEventBus failed to shut down within the standard timeout.",
           "Your build might have succeeded, but some messages were probably lost.",
           "Here's some debugging information:",
-          executorService.toString()));
-        executorService.shutdownNow();
+          Joiner.on(System.lineSeparator()).join(rings)));
+        rings.forEach(EventRing::abandon);
       }
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
+    for (EventRing ring : rings) {
+      if (ring.getDroppedEventCount() > 0) {
+        LOG.debug("Dropped %d events for a listener that fell behind: %s",
+            ring.getDroppedEventCount(),
+            ring);
+      }
+    }
+  }
+
+  private void awaitQuiescence(long deadline) throws InterruptedException {
+    while (System.nanoTime() < deadline) {
+      long offeredBefore = offeredEvents.get();
+      if (rings.stream().allMatch(EventRing::isIdle) && offeredEvents.get() == offeredBefore) {
+        return;
+      }
+      Thread.sleep(1);
+    }
   }
 
   /**
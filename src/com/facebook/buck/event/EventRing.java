@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.event;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded multi-producer, single-consumer ring buffer of events for one listener, drained by
+ * a thread of its own so that a slow listener only ever delays itself.
+ *
+ * Producers claim a sequence number, write the event into the slot for it and then publish the
+ * sequence number for that slot; the consumer delivers slots strictly in sequence order, so each
+ * listener sees events in the order they were claimed. When the ring is full, the
+ * {@link BuckEventListener.OverflowPolicy} decides whether the producer waits or the event is
+ * dropped.
+ *
+ * Threads that drain a ring never wait for room in another one, or two listeners that post events
+ * while handling events could wait for each other forever. Their events go to an unbounded
+ * overflow queue instead, which is drained between events from the ring.
+ */
+final class EventRing {
+  private static final ThreadLocal<Boolean> IS_CONSUMER_THREAD =
+      ThreadLocal.withInitial(() -> false);
+
+  private static final long PRODUCER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long CONSUMER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final int IDLE_YIELDS_BEFORE_PARKING = 16;
+
+  private final ListenerSubscription subscription;
+  private final BuckEventListener.OverflowPolicy overflowPolicy;
+  private final Object[] slots;
+  private final AtomicLongArray published;
+  private final int mask;
+  /** The next sequence number for a producer to claim. */
+  private final AtomicLong claimed = new AtomicLong();
+  /** The next sequence number for the consumer to deliver. */
+  private final AtomicLong consumed = new AtomicLong();
+  private final Queue<Object> overflow = new ConcurrentLinkedQueue<>();
+  private final AtomicLong droppedEvents = new AtomicLong();
+  private final Thread thread;
+
+  private volatile boolean consumerWaiting;
+  private volatile boolean delivering;
+  private volatile boolean closed;
+  private volatile boolean abandoned;
+  private volatile boolean terminated;
+
+  EventRing(
+      ListenerSubscription subscription,
+      BuckEventListener.OverflowPolicy overflowPolicy,
+      int capacity,
+      ThreadFactory threadFactory) {
+    Preconditions.checkArgument(
+        capacity > 0 && Integer.bitCount(capacity) == 1,
+        "Capacity must be a power of two: %s",
+        capacity);
+    this.subscription = subscription;
+    this.overflowPolicy = overflowPolicy;
+    this.slots = new Object[capacity];
+    this.published = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      published.set(i, -1);
+    }
+    this.mask = capacity - 1;
+    this.thread = threadFactory.newThread(this::run);
+    this.thread.start();
+  }
+
+  ListenerSubscription getSubscription() {
+    return subscription;
+  }
+
+  /**
+   * @return whether the calling thread is the consumer of some ring.
+   */
+  static boolean isConsumerThread() {
+    return IS_CONSUMER_THREAD.get();
+  }
+
+  void offer(Object event) {
+    if (terminated) {
+      droppedEvents.incrementAndGet();
+      return;
+    }
+    long sequence;
+    while ((sequence = tryClaim()) < 0) {
+      if (terminated || overflowPolicy == BuckEventListener.OverflowPolicy.DROP) {
+        droppedEvents.incrementAndGet();
+        return;
+      }
+      if (isConsumerThread()) {
+        overflow.add(event);
+        wakeConsumer();
+        return;
+      }
+      wakeConsumer();
+      LockSupport.parkNanos(this, PRODUCER_BACKOFF_NANOS);
+    }
+    int index = (int) sequence & mask;
+    slots[index] = event;
+    published.set(index, sequence);
+    wakeConsumer();
+  }
+
+  /**
+   * Stops the consumer once it has delivered every event that was offered before this call.
+   */
+  void close() {
+    closed = true;
+    LockSupport.unpark(thread);
+  }
+
+  /**
+   * @return whether the consumer stopped within the timeout.
+   */
+  boolean awaitTermination(long timeoutNanos) throws InterruptedException {
+    TimeUnit.NANOSECONDS.timedJoin(thread, Math.max(timeoutNanos, 1));
+    return terminated;
+  }
+
+  /**
+   * Stops the consumer without delivering the events still queued, and interrupts the handler it
+   * is running, if any.
+   */
+  void abandon() {
+    abandoned = true;
+    thread.interrupt();
+  }
+
+  long getDroppedEventCount() {
+    return droppedEvents.get();
+  }
+
+  /**
+   * @return whether every event offered so far has been delivered.
+   */
+  boolean isIdle() {
+    return claimed.get() == consumed.get() && overflow.isEmpty() && !delivering;
+  }
+
+  long getPendingEventCount() {
+    return claimed.get() - consumed.get() + overflow.size();
+  }
+
+  private long tryClaim() {
+    while (true) {
+      long sequence = claimed.get();
+      if (sequence - consumed.get() >= slots.length) {
+        return -1;
+      }
+      if (claimed.compareAndSet(sequence, sequence + 1)) {
+        return sequence;
+      }
+    }
+  }
+
+  private void wakeConsumer() {
+    if (consumerWaiting) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void run() {
+    IS_CONSUMER_THREAD.set(true);
+    try {
+      long next = 0;
+      int idleYields = 0;
+      while (!abandoned) {
+        int index = (int) next & mask;
+        // Mark the consumer as delivering before taking the event, so that it never looks idle
+        // in between.
+        delivering = true;
+        if (published.get(index) == next) {
+          Object event = slots[index];
+          slots[index] = null;
+          consumed.set(++next);
+          subscription.deliver(event);
+          delivering = false;
+          idleYields = 0;
+          continue;
+        }
+
+        Object spilled = overflow.poll();
+        if (spilled != null) {
+          subscription.deliver(spilled);
+          delivering = false;
+          idleYields = 0;
+          continue;
+        }
+        delivering = false;
+
+        if (closed && claimed.get() == next) {
+          break;
+        }
+
+        // Events tend to come in bursts, so give producers a chance to publish the next one
+        // before paying for a park and an unpark.
+        if (idleYields++ < IDLE_YIELDS_BEFORE_PARKING) {
+          Thread.yield();
+          continue;
+        }
+        idleYields = 0;
+
+        consumerWaiting = true;
+        if (published.get(index) != next && overflow.isEmpty() && !closed) {
+          LockSupport.parkNanos(this, CONSUMER_PARK_NANOS);
+        }
+        consumerWaiting = false;
+      }
+    } finally {
+      terminated = true;
+      droppedEvents.addAndGet(Math.max(0, getPendingEventCount()));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s{listener=%s, pending=%d, dropped=%d, terminated=%s}",
+        getClass().getSimpleName(),
+        subscription.getListener().getClass().getName(),
+        getPendingEventCount(),
+        getDroppedEventCount(),
+        terminated);
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.facebook.buck.event;
 
+import java.util.concurrent.TimeUnit;
+
 public abstract class FileHashCacheEvent extends AbstractBuckEvent implements LeafEvent {
 
   public FileHashCacheEvent(EventKey eventKey) {
@@ -40,6 +42,17 @@ public abstract class FileHashCacheEvent extends AbstractBuckEvent implements Le
     return new InvalidationFinished(started);
   }
 
+  public static PrefetchStarted prefetchStarted() {
+    return new PrefetchStarted();
+  }
+
+  public static PrefetchFinished prefetchFinished(
+      PrefetchStarted started,
+      int filesHashed,
+      long bytesHashed) {
+    return new PrefetchFinished(started, filesHashed, bytesHashed);
+  }
+
   public static class InvalidationStarted extends FileHashCacheEvent {
     public InvalidationStarted() {
       super(EventKey.unique());
@@ -62,4 +75,67 @@ public abstract class FileHashCacheEvent extends AbstractBuckEvent implements Le
       return "FileHashCacheInvalidationFinished";
     }
   }
+
+  public static class PrefetchStarted extends FileHashCacheEvent {
+    public PrefetchStarted() {
+      super(EventKey.unique());
+    }
+
+    @Override
+    public String getCategory() {
+      return "file_hash_cache_prefetch";
+    }
+
+    @Override
+    public String getEventName() {
+      return "FileHashCachePrefetchStarted";
+    }
+  }
+
+  /**
+   * Posted once a bulk prefetch of file hashes finishes, with the throughput it achieved.
+   */
+  public static class PrefetchFinished extends FileHashCacheEvent {
+    private final long startedNanoTime;
+    private final int filesHashed;
+    private final long bytesHashed;
+
+    public PrefetchFinished(PrefetchStarted started, int filesHashed, long bytesHashed) {
+      super(started.getEventKey());
+      this.startedNanoTime = started.getNanoTime();
+      this.filesHashed = filesHashed;
+      this.bytesHashed = bytesHashed;
+    }
+
+    public int getFilesHashed() {
+      return filesHashed;
+    }
+
+    public long getBytesHashed() {
+      return bytesHashed;
+    }
+
+    public double getFilesPerSecond() {
+      return perSecond(filesHashed);
+    }
+
+    public double getBytesPerSecond() {
+      return perSecond(bytesHashed);
+    }
+
+    private double perSecond(long count) {
+      long elapsedNanos = getNanoTime() - startedNanoTime;
+      return elapsedNanos <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String getCategory() {
+      return "file_hash_cache_prefetch";
+    }
+
+    @Override
+    public String getEventName() {
+      return "FileHashCachePrefetchFinished";
+    }
+  }
 }
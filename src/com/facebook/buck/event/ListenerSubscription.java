@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.event;
+
+import com.facebook.buck.log.Logger;
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.reflect.TypeToken;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link Subscribe} methods of one listener registered with a {@link DefaultBuckEventBus},
+ * resolved once into {@link MethodHandle}s, together with a table from event class to the handlers
+ * that accept it.
+ *
+ * Handlers are found the same way Guava's {@link com.google.common.eventbus.EventBus} finds them:
+ * any method annotated with {@link Subscribe} that takes a single argument, declared on the
+ * listener's class or any of its supertypes, receives every event assignable to that argument.
+ */
+final class ListenerSubscription {
+  private static final Logger LOG = Logger.get(ListenerSubscription.class);
+
+  private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class);
+
+  private final Object listener;
+  private final ImmutableList<Handler> handlers;
+  private final ConcurrentMap<Class<?>, MethodHandle[]> handlersByEventClass =
+      new ConcurrentHashMap<>();
+
+  private ListenerSubscription(Object listener, ImmutableList<Handler> handlers) {
+    this.listener = listener;
+    this.handlers = handlers;
+  }
+
+  static ListenerSubscription of(Object listener) {
+    Map<List<Object>, Method> methods = new HashMap<>();
+    for (Class<?> type : TypeToken.of(listener.getClass()).getTypes().rawTypes()) {
+      for (Method method : type.getDeclaredMethods()) {
+        if (!method.isAnnotationPresent(Subscribe.class) || method.isSynthetic()) {
+          continue;
+        }
+        if (method.getParameterCount() != 1) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "Method %s has @Subscribe annotation but has %d parameters. " +
+                      "Subscriber methods must have exactly 1 parameter.",
+                  method,
+                  method.getParameterCount()));
+        }
+        // The most specific declaration of an overridden method wins.
+        methods.putIfAbsent(
+            ImmutableList.of(method.getName(), Arrays.asList(method.getParameterTypes())),
+            method);
+      }
+    }
+
+    ImmutableList.Builder<Handler> handlers = ImmutableList.builder();
+    for (Method method : methods.values()) {
+      method.setAccessible(true);
+      MethodHandle handle;
+      try {
+        handle = MethodHandles.lookup().unreflect(method).bindTo(listener).asType(HANDLER_TYPE);
+      } catch (IllegalAccessException e) {
+        throw new IllegalArgumentException(e);
+      }
+      handlers.add(new Handler(method.getParameterTypes()[0], handle));
+    }
+    return new ListenerSubscription(listener, handlers.build());
+  }
+
+  Object getListener() {
+    return listener;
+  }
+
+  boolean hasHandlers() {
+    return !handlers.isEmpty();
+  }
+
+  boolean accepts(Class<?> eventClass) {
+    return getHandlers(eventClass).length > 0;
+  }
+
+  /**
+   * Calls every handler that accepts the event. Exceptions thrown by a handler are logged, as
+   * Guava's event bus does, so that one broken listener does not stop the others. Like guava,
+   * handlers of a listener are never called concurrently, since events posted without
+   * configuring are delivered on the posting thread while the listener's ring is being drained.
+   */
+  synchronized void deliver(Object event) {
+    for (MethodHandle handle : getHandlers(event.getClass())) {
+      try {
+        handle.invokeExact(event);
+      } catch (Throwable t) {
+        LOG.error(
+            t,
+            "Exception thrown by %s while handling %s.",
+            listener.getClass().getName(),
+            event.getClass().getName());
+      }
+    }
+  }
+
+  private MethodHandle[] getHandlers(Class<?> eventClass) {
+    MethodHandle[] eventHandlers = handlersByEventClass.get(eventClass);
+    if (eventHandlers == null) {
+      eventHandlers = handlers.stream()
+          .filter(handler -> handler.eventType.isAssignableFrom(eventClass))
+          .map(handler -> handler.handle)
+          .toArray(MethodHandle[]::new);
+      handlersByEventClass.putIfAbsent(eventClass, eventHandlers);
+    }
+    return eventHandlers;
+  }
+
+  private static class Handler {
+    private final Class<?> eventType;
+    private final MethodHandle handle;
+
+    private Handler(Class<?> eventType, MethodHandle handle) {
+      this.eventType = eventType;
+      this.handle = handle;
+    }
+  }
+}
@@ -636,7 +636,9 @@ public abstract class AbstractConsoleEventBusListener implements BuckEventListen
   @Subscribe
   public void buildRuleStarted(BuildRuleEvent.Started started) {
     if (progressEstimator.isPresent()) {
-      progressEstimator.get().didStartRule();
+      progressEstimator.get().didStartRule(
+          started.getBuildRule().getBuildTarget(),
+          started.getTimestamp());
     }
     buildRuleThreadTracker.didStartBuildRule(started);
   }
@@ -661,7 +663,9 @@ public abstract class AbstractConsoleEventBusListener implements BuckEventListen
   public void buildRuleFinished(BuildRuleEvent.Finished finished) {
     if (finished.getStatus() != BuildRuleStatus.CANCELED) {
       if (progressEstimator.isPresent()) {
-        progressEstimator.get().didFinishRule();
+        progressEstimator.get().didFinishRule(
+            finished.getBuildRule().getBuildTarget(),
+            finished.getTimestamp());
       }
       numRulesCompleted.getAndIncrement();
     }
@@ -54,6 +54,8 @@ import com.facebook.buck.util.ProcessResourceConsumption;
 import com.facebook.buck.util.concurrent.MostExecutors;
 import com.facebook.buck.util.perf.PerfStatsTracking;
 import com.facebook.buck.util.perf.ProcessTracker;
+import com.facebook.buck.util.trace.BinaryChromeTraceReader;
+import com.facebook.buck.util.trace.BinaryChromeTraceWriter;
 import com.facebook.buck.util.unit.SizeUnit;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.annotations.VisibleForTesting;
@@ -80,8 +82,12 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 /**
- * Logs events to a json file formatted to be viewed in Chrome Trace View (chrome://tracing).
+ * Logs events to a json file formatted to be viewed in Chrome Trace View (chrome://tracing), or
+ * to a binary trace that {@link com.facebook.buck.util.trace.BinaryChromeTraceConverter} turns
+ * into one.
  */
 public class ChromeTraceBuildListener implements BuckEventListener {
 
@@ -108,10 +114,14 @@ public class ChromeTraceBuildListener implements BuckEventListener {
   private final Clock clock;
   private final int tracesToKeep;
   private final boolean compressTraces;
+  private final boolean binaryTraces;
   private final ThreadLocal<SimpleDateFormat> dateFormat;
   private final Path tracePath;
   private final OutputStream traceStream;
+  @Nullable
   private final JsonGenerator jsonGenerator;
+  @Nullable
+  private final BinaryChromeTraceWriter binaryWriter;
   private final InvocationInfo invocationInfo;
 
   private final ExecutorService outputExecutor;
@@ -122,6 +132,16 @@ public class ChromeTraceBuildListener implements BuckEventListener {
       Clock clock,
       int tracesToKeep,
       boolean compressTraces) throws IOException {
+    this(projectFilesystem, invocationInfo, clock, tracesToKeep, compressTraces, false);
+  }
+
+  public ChromeTraceBuildListener(
+      ProjectFilesystem projectFilesystem,
+      InvocationInfo invocationInfo,
+      Clock clock,
+      int tracesToKeep,
+      boolean compressTraces,
+      boolean binaryTraces) throws IOException {
     this(
         projectFilesystem,
         invocationInfo,
@@ -129,7 +149,28 @@ public class ChromeTraceBuildListener implements BuckEventListener {
         Locale.US,
         TimeZone.getDefault(),
         tracesToKeep,
-        compressTraces);
+        compressTraces,
+        binaryTraces);
+  }
+
+  @VisibleForTesting
+  ChromeTraceBuildListener(
+      ProjectFilesystem projectFilesystem,
+      InvocationInfo invocationInfo,
+      Clock clock,
+      Locale locale,
+      TimeZone timeZone,
+      int tracesToKeep,
+      boolean compressTraces) throws IOException {
+    this(
+        projectFilesystem,
+        invocationInfo,
+        clock,
+        locale,
+        timeZone,
+        tracesToKeep,
+        compressTraces,
+        false);
   }
 
   @VisibleForTesting
@@ -140,7 +181,8 @@ public class ChromeTraceBuildListener implements BuckEventListener {
       final Locale locale,
       final TimeZone timeZone,
       int tracesToKeep,
-      boolean compressTraces) throws IOException {
+      boolean compressTraces,
+      boolean binaryTraces) throws IOException {
     this.invocationInfo = invocationInfo;
     this.projectFilesystem = projectFilesystem;
     this.clock = clock;
@@ -154,14 +196,20 @@ public class ChromeTraceBuildListener implements BuckEventListener {
     };
     this.tracesToKeep = tracesToKeep;
     this.compressTraces = compressTraces;
+    this.binaryTraces = binaryTraces;
     this.outputExecutor = MostExecutors.newSingleThreadExecutor(
         new CommandThreadFactory(getClass().getName()));
     TracePathAndStream tracePathAndStream = createPathAndStream(invocationInfo);
     this.tracePath = tracePathAndStream.getPath();
     this.traceStream = tracePathAndStream.getStream();
-    this.jsonGenerator = ObjectMappers.createGenerator(this.traceStream);
-
-    this.jsonGenerator.writeStartArray();
+    if (binaryTraces) {
+      this.jsonGenerator = null;
+      this.binaryWriter = new BinaryChromeTraceWriter(this.traceStream);
+    } else {
+      this.jsonGenerator = ObjectMappers.createGenerator(this.traceStream);
+      this.binaryWriter = null;
+      this.jsonGenerator.writeStartArray();
+    }
     addProcessMetadataEvent();
   }
 
@@ -190,7 +238,7 @@ public class ChromeTraceBuildListener implements BuckEventListener {
     try {
       for (Path path : PathListing.listMatchingPathsWithFilters(
                traceDirectory,
-               "build.*.trace",
+               binaryTraces ? "build.*" + BinaryChromeTraceReader.EXTENSION + "*" : "build.*.trace",
                PathListing.GET_PATH_MODIFIED_TIME,
                PathListing.FilterMode.EXCLUDE,
                Optional.of(tracesToKeep),
@@ -204,8 +252,11 @@ public class ChromeTraceBuildListener implements BuckEventListener {
 
   private TracePathAndStream createPathAndStream(InvocationInfo invocationInfo) {
     String filenameTime = dateFormat.get().format(new Date(clock.currentTimeMillis()));
-    String traceName =
-        String.format("build.%s.%s.trace", filenameTime, invocationInfo.getBuildId());
+    String traceName = String.format(
+        "build.%s.%s%s",
+        filenameTime,
+        invocationInfo.getBuildId(),
+        getTraceExtension());
     if (compressTraces) {
       traceName = traceName + ".gz";
     }
@@ -222,6 +273,10 @@ public class ChromeTraceBuildListener implements BuckEventListener {
     }
   }
 
+  private String getTraceExtension() {
+    return binaryTraces ? BinaryChromeTraceReader.EXTENSION : ".trace";
+  }
+
   @Override
   public void outputTrace(BuildId buildId) {
     try {
@@ -235,10 +290,14 @@ public class ChromeTraceBuildListener implements BuckEventListener {
         Thread.currentThread().interrupt();
       }
 
-      jsonGenerator.writeEndArray();
-      jsonGenerator.close();
+      if (binaryWriter != null) {
+        binaryWriter.close();
+      } else {
+        jsonGenerator.writeEndArray();
+        jsonGenerator.close();
+      }
       traceStream.close();
-      String symlinkName = compressTraces ? "build.trace.gz" : "build.trace";
+      String symlinkName = "build" + getTraceExtension() + (compressTraces ? ".gz" : "");
       Path symlinkPath = projectFilesystem.getBuckPaths().getLogDir().resolve(symlinkName);
       projectFilesystem.createSymLink(
           projectFilesystem.resolve(symlinkPath),
@@ -364,7 +423,9 @@ public class ChromeTraceBuildListener implements BuckEventListener {
     writeChromeTraceEvent("buck",
         "parse",
         ChromeTraceEvent.Phase.BEGIN,
-        ImmutableMap.of(),
+        started.getParserPoolSize().isPresent() ?
+            ImmutableMap.of("parser_pool_size", started.getParserPoolSize().get().toString()) :
+            ImmutableMap.of(),
         started);
   }
 
@@ -474,6 +535,19 @@ public class ChromeTraceBuildListener implements BuckEventListener {
         miss);
   }
 
+  @Subscribe
+  public void actionGraphCacheEviction(ActionGraphEvent.Cache.Eviction eviction) {
+    writeChromeTraceEvent(
+        "buck",
+        "action_graph_cache_eviction",
+        ChromeTraceEvent.Phase.IMMEDIATE,
+        ImmutableMap.of(
+            "reason", eviction.reason.toString(),
+            "hits", String.valueOf(eviction.hits),
+            "misses", String.valueOf(eviction.misses)),
+        eviction);
+  }
+
   @Subscribe
   public void installStarted(InstallEvent.Started started) {
     writeChromeTraceEvent(
@@ -797,7 +871,19 @@ public class ChromeTraceBuildListener implements BuckEventListener {
     @SuppressWarnings("unused") Future<?> unused =
         outputExecutor.submit(() -> {
         try {
-          ObjectMappers.WRITER.writeValue(jsonGenerator, chromeTraceEvent);
+          if (binaryWriter != null) {
+            binaryWriter.writeEvent(
+                chromeTraceEvent.getCategory(),
+                chromeTraceEvent.getName(),
+                chromeTraceEvent.getPhase().getPhase(),
+                chromeTraceEvent.getProcessId(),
+                chromeTraceEvent.getThreadId(),
+                chromeTraceEvent.getMicroTime(),
+                chromeTraceEvent.getMicroThreadUserTime(),
+                chromeTraceEvent.getArgs());
+          } else {
+            ObjectMappers.WRITER.writeValue(jsonGenerator, chromeTraceEvent);
+          }
         } catch (IOException e) {
           // Swallow any failures to write.
         }
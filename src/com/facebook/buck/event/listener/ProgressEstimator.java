@@ -19,6 +19,8 @@ package com.facebook.buck.event.listener;
 import com.facebook.buck.event.BuckEventBus;
 import com.facebook.buck.event.ProgressEvent;
 import com.facebook.buck.log.Logger;
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.facebook.buck.util.ObjectMappers;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Joiner;
@@ -31,7 +33,11 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nullable;
 
@@ -48,6 +54,12 @@ public class ProgressEstimator {
       "expectedNumberOfGeneratedProjectFiles";
   public static final String PROGRESS_ESTIMATIONS_JSON = ".progressestimations.json";
 
+  /**
+   * The most a rule which is still building can count towards the build progress, however long it
+   * has been going compared to its previous builds.
+   */
+  private static final double MAX_RUNNING_RULE_PROGRESS = 0.9;
+
   @Nullable
   private String command;
 
@@ -72,6 +84,10 @@ public class ProgressEstimator {
   private final AtomicDouble projectGenerationProgress = new AtomicDouble(-1.0);
   private final AtomicDouble buildProgress = new AtomicDouble(-1.0);
 
+  private Optional<BuildRuleDurationHistory> buildRuleDurationHistory = Optional.empty();
+  private final ConcurrentMap<BuildTarget, Long> runningRuleStartTimes = new ConcurrentHashMap<>();
+  private final AtomicLong latestRuleEventMillis = new AtomicLong();
+
   public ProgressEstimator(
       Path storageFile,
       BuckEventBus buckEventBus) {
@@ -81,6 +97,14 @@ public class ProgressEstimator {
     this.expectationsStorage = null;
   }
 
+  /**
+   * Lets the build progress credit rules which are still building with the fraction of their usual
+   * duration they've been going for.
+   */
+  public void setBuildRuleDurationHistory(BuildRuleDurationHistory history) {
+    buildRuleDurationHistory = Optional.of(history);
+  }
+
   public void setCurrentCommand(String commandName, ImmutableList<String> commandArgs) {
     command = commandName + " " + Joiner.on(" ").join(commandArgs);
     fillEstimationsForCommand(command);
@@ -127,6 +151,12 @@ public class ProgressEstimator {
     calculateBuildProgress();
   }
 
+  public void didStartRule(BuildTarget target, long timestampMillis) {
+    runningRuleStartTimes.putIfAbsent(target, timestampMillis);
+    latestRuleEventMillis.accumulateAndGet(timestampMillis, Math::max);
+    didStartRule();
+  }
+
   public void didResumeRule() {
     calculateBuildProgress();
   }
@@ -140,9 +170,16 @@ public class ProgressEstimator {
     calculateBuildProgress();
   }
 
+  public void didFinishRule(BuildTarget target, long timestampMillis) {
+    runningRuleStartTimes.remove(target);
+    latestRuleEventMillis.accumulateAndGet(timestampMillis, Math::max);
+    didFinishRule();
+  }
+
   public void didStartBuild() {
     numberOfStartedRules.set(0);
     numberOfFinishedRules.set(0);
+    runningRuleStartTimes.clear();
   }
 
   public void didFinishBuild() {
@@ -324,7 +361,8 @@ public class ProgressEstimator {
     if (ruleCount == 0.0) {
       newValue = -1.0;
     } else {
-      double buildProgress = numberOfFinishedRules.get() / ruleCount;
+      double buildProgress =
+          Math.min((numberOfFinishedRules.get() + getRunningRulesProgress()) / ruleCount, 1.0);
       newValue = Math.floor(buildProgress * 100.0) / 100.0;
     }
 
@@ -333,4 +371,26 @@ public class ProgressEstimator {
       buckEventBus.post(ProgressEvent.buildProgressUpdated(newValue));
     }
   }
+
+  /**
+   * @return how many rules' worth of work the rules which are still building have done, judging by
+   *     how long they've been going compared to their previous builds.
+   */
+  private double getRunningRulesProgress() {
+    if (!buildRuleDurationHistory.isPresent()) {
+      return 0.0;
+    }
+    long now = latestRuleEventMillis.get();
+    double progress = 0.0;
+    for (Map.Entry<BuildTarget, Long> entry : runningRuleStartTimes.entrySet()) {
+      OptionalLong expectedMillis =
+          buildRuleDurationHistory.get().getEstimatedDurationMillis(entry.getKey());
+      if (expectedMillis.isPresent() && expectedMillis.getAsLong() > 0) {
+        progress += Math.min(
+            (double) (now - entry.getValue()) / expectedMillis.getAsLong(),
+            MAX_RUNNING_RULE_PROGRESS);
+      }
+    }
+    return progress;
+  }
 }
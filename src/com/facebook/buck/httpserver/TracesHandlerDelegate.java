@@ -34,7 +34,8 @@ import java.util.regex.Pattern;
 public class TracesHandlerDelegate extends AbstractTemplateHandlerDelegate {
 
   private static final Pattern TRACE_FILE_NAME_PATTERN = Pattern.compile(
-      "build\\.(?:[\\d\\-\\.]+\\.)?" + BuildTraces.TRACE_ID_PATTERN + "\\.trace");
+      "build\\.(?:[\\d\\-\\.]+\\.)?" + BuildTraces.TRACE_ID_PATTERN +
+          "\\.(?:trace|btrace|btrace\\.gz)");
 
   private final BuildTraces buildTraces;
 
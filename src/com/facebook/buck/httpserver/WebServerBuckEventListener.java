@@ -46,6 +46,14 @@ public class WebServerBuckEventListener implements BuckEventListener {
   @Override
   public void outputTrace(BuildId buildId) {}
 
+  /**
+   * Clients only show progress, so it's better for them to miss an update than to slow the build.
+   */
+  @Override
+  public OverflowPolicy getOverflowPolicy() {
+    return OverflowPolicy.DROP;
+  }
+
   @Subscribe
   public void parseStarted(ParseEvent.Started started) {
     streamingWebSocketServlet.tellClients(started);
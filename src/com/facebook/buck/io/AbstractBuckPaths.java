@@ -51,6 +51,38 @@ abstract class AbstractBuckPaths {
     return getBuckOut().resolve(".currentversion");
   }
 
+  /**
+   * The rule key cache persisted by the daemon between restarts
+   */
+  @Value.Derived
+  public Path getRuleKeyCacheSnapshotFile() {
+    return getBuckOut().resolve(".rulekeycache");
+  }
+
+  /**
+   * The file hash cache persisted by the daemon between restarts
+   */
+  @Value.Derived
+  public Path getFileHashCacheSnapshotFile() {
+    return getBuckOut().resolve(".filehashcache");
+  }
+
+  /**
+   * How long rules took to build, persisted between Buck invocations
+   */
+  @Value.Derived
+  public Path getRuleDurationHistoryFile() {
+    return getBuckOut().resolve(".ruledurations");
+  }
+
+  /**
+   * Raw nodes of parsed build files, persisted between Buck daemons
+   */
+  @Value.Derived
+  public Path getParserCacheDir() {
+    return getBuckOut().resolve(".parsercache");
+  }
+
   @Value.Derived
   public Path getGenDir() {
     return getConfiguredBuckOut().resolve("gen");
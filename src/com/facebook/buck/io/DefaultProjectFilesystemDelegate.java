@@ -18,15 +18,15 @@ package com.facebook.buck.io;
 
 import com.facebook.buck.event.BuckEventBus;
 import com.facebook.buck.util.sha1.Sha1HashCode;
-import com.google.common.hash.HashCode;
-import com.google.common.hash.Hashing;
-import com.google.common.io.ByteSource;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Default implementation of {@link ProjectFilesystemDelegate} that talks to the filesystem via
@@ -34,6 +34,13 @@ import java.nio.file.Path;
  */
 public final class DefaultProjectFilesystemDelegate implements ProjectFilesystemDelegate {
 
+  // Every thread which hashes a file keeps one of these for as long as it lives, so keep them
+  // small: reads much beyond this size don't make hashing any faster.
+  private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+  private static final ThreadLocal<ByteBuffer> HASH_BUFFER =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HASH_BUFFER_SIZE));
+
   private final Path root;
 
   public DefaultProjectFilesystemDelegate(Path root) {
@@ -51,18 +58,29 @@ public final class DefaultProjectFilesystemDelegate implements ProjectFilesystem
 
     // Normally, we would just use `Files.hash(fileToHash.toFile(), Hashing.sha1())`, but if
     // fileToHash is backed by Jimfs, its toFile() method throws an UnsupportedOperationException.
-    // Creating the input stream via java.nio.file.Files.newInputStream() avoids this issue.
-    ByteSource source =
-        new ByteSource() {
-          @Override
-          public InputStream openStream() throws IOException {
-            // No need to wrap with BufferedInputStream because ByteSource uses ByteStreams.copy(),
-            // which already buffers.
-            return Files.newInputStream(fileToHash);
-          }
-        };
-    HashCode hashCode = source.hash(Hashing.sha1());
-    return Sha1HashCode.fromHashCode(hashCode);
+    // Opening a channel via java.nio.file.Files.newByteChannel() avoids this issue.  Reading into
+    // a direct buffer, rather than streaming through a small heap array, saves a copy and a lot
+    // of read calls for big files.
+    MessageDigest digest = newSha1Digest();
+    ByteBuffer buffer = HASH_BUFFER.get();
+    try (SeekableByteChannel channel = Files.newByteChannel(fileToHash)) {
+      buffer.clear();
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return Sha1HashCode.fromBytes(digest.digest());
+  }
+
+  private static MessageDigest newSha1Digest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-1.
+      throw new IllegalStateException(e);
+    }
   }
 
   @Override
@@ -57,7 +57,9 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.CopyOption;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
@@ -782,6 +784,19 @@ public class ProjectFilesystem {
             attrs));
   }
 
+  /**
+   * Maps the given file into memory for reading, so that it can be probed in place without reading
+   * the whole thing.
+   */
+  public ByteBuffer mapReadOnly(Path pathRelativeToProjectRoot) throws IOException {
+    try (FileChannel channel =
+             FileChannel.open(
+                 getPathForRelativePath(pathRelativeToProjectRoot),
+                 StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
   public <A extends BasicFileAttributes> A readAttributes(
       Path pathRelativeToProjectRoot,
       Class<A> type,
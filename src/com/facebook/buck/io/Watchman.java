@@ -50,7 +50,8 @@ public class Watchman implements AutoCloseable {
     WILDMATCH_GLOB,
     WILDMATCH_MULTISLASH,
     GLOB_GENERATOR,
-    CLOCK_SYNC_TIMEOUT
+    CLOCK_SYNC_TIMEOUT,
+    FLUSH_SUBSCRIPTIONS
   }
 
   public static final String NULL_CLOCK = "c:0:0";
@@ -69,6 +70,7 @@ public class Watchman implements AutoCloseable {
           .put("wildmatch_multislash", Capability.WILDMATCH_MULTISLASH)
           .put("glob_generator", Capability.GLOB_GENERATOR)
           .put("clock-sync-timeout", Capability.CLOCK_SYNC_TIMEOUT)
+          .put("cmd-flush-subscriptions", Capability.FLUSH_SUBSCRIPTIONS)
           .build();
 
   private static final Logger LOG = Logger.get(Watchman.class);
@@ -460,20 +462,24 @@ public class Watchman implements AutoCloseable {
               new WatchmanTransportClient(
                   console,
                   clock,
-                  createLocalWatchmanTransport(transportPath)));
+                  createLocalTransport(transportPath)));
         } catch (IOException e) {
           LOG.warn(e, "Could not connect to Watchman at path %s", transportPath);
           return Optional.empty();
         }
       }
-
-      private Transport createLocalWatchmanTransport(Path transportPath) throws IOException {
-        // TODO(beng): Support Windows named pipes here.
-        return UnixDomainSocket.createSocketWithPath(transportPath);
-      }
     };
   }
 
+  /**
+   * Opens a new connection to the Watchman server listening at {@code transportPath}, for
+   * callers which need a connection of their own, e.g. to hold a subscription open.
+   */
+  public static Transport createLocalTransport(Path transportPath) throws IOException {
+    // TODO(beng): Support Windows named pipes here.
+    return UnixDomainSocket.createSocketWithPath(transportPath);
+  }
+
   // TODO(beng): Split the metadata out into an immutable value type and pass
   // the WatchmanClient separately.
   @VisibleForTesting
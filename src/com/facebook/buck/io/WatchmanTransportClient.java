@@ -138,7 +138,9 @@ class WatchmanTransportClient implements WatchmanClient, AutoCloseable {
       throws IOException {
     LOG.debug("Sending query: %s", query);
     bserSerializer.serializeToStream(query, transport.getOutputStream());
-    Object response = bserDeserializer.deserializeBserValue(transport.getInputStream());
+    // Query results can list every file in the repo, and each one is only read once, so decode
+    // them lazily rather than building the whole tree up front.
+    Object response = bserDeserializer.deserializeBserValueView(transport.getInputStream());
     LOG.verbose("Got response: %s", response);
     Map<String, Object> responseMap = (Map<String, Object>) response;
     if (responseMap == null) {
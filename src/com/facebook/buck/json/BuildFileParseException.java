@@ -33,7 +33,7 @@ public class BuildFileParseException extends Exception
     super(message);
   }
 
-  static BuildFileParseException createForUnknownParseError(String message) {
+  public static BuildFileParseException createForUnknownParseError(String message) {
     return new BuildFileParseException(message);
   }
 
@@ -24,6 +24,7 @@ import com.facebook.buck.event.PerfEventId;
 import com.facebook.buck.event.SimplePerfEvent;
 import com.facebook.buck.io.PathOrGlobMatcher;
 import com.facebook.buck.io.ProjectWatch;
+import com.facebook.buck.io.Watchman;
 import com.facebook.buck.io.WatchmanDiagnostic;
 import com.facebook.buck.io.WatchmanDiagnosticEvent;
 import com.facebook.buck.log.Logger;
@@ -67,7 +68,9 @@ import javax.annotation.Nullable;
 
 /**
  * Delegates to buck.py for parsing of buck build files.  Constructed on demand for the
- * parsing phase and must be closed afterward to free up resources.
+ * parsing phase and must be closed afterward to free up resources.  A parser may instead be
+ * {@link #release() released} and {@link #reuse(BuckEventBus) reused} by a later parse, which then
+ * needn't start Python and evaluate the includes again.
  */
 public class ProjectBuildFileParser implements AutoCloseable {
 
@@ -86,7 +89,8 @@ public class ProjectBuildFileParser implements AutoCloseable {
 
   private final ProjectBuildFileParserOptions options;
   private final ConstructorArgMarshaller marshaller;
-  private final BuckEventBus buckEventBus;
+  // Replaced when the parser is reused, and read by the stderr consumer thread.
+  private volatile BuckEventBus buckEventBus;
   private final ProcessExecutor processExecutor;
   private final BserDeserializer bserDeserializer;
   private final BserSerializer bserSerializer;
@@ -95,6 +99,9 @@ public class ProjectBuildFileParser implements AutoCloseable {
 
   private boolean isInitialized;
   private boolean isClosed;
+  private boolean isHealthy = true;
+  // Whether the next request is the first of a parse reusing this parser.
+  private boolean isNewParse = false;
 
   private boolean enableProfiling;
   @Nullable private FutureTask<Void> stderrConsumerTerminationFuture;
@@ -166,6 +173,58 @@ public class ProjectBuildFileParser implements AutoCloseable {
     return isClosed;
   }
 
+  /**
+   * @return false if a request to buck.py failed before its response was read in full, in which
+   *     case the protocol stream may be garbled and this parser should not be used again. Errors
+   *     reported by buck.py about the build file itself leave the parser healthy.
+   */
+  public boolean isHealthy() {
+    return isHealthy;
+  }
+
+  /**
+   * @return a key equal to that of any other parser whose buck.py process would be started in the
+   *     same way, and which could therefore be reused in place of this one.
+   */
+  public Object getProcessKey() {
+    return ImmutableList.of(
+        // Watchman and descriptions don't implement equals(), so compare what buck.py sees of them.
+        options.withWatchman(Watchman.NULL_WATCHMAN).withDescriptions(ImmutableSet.of()),
+        options.getWatchman().getTransportPath(),
+        options.getDescriptions().stream()
+            .map(description -> description.getClass().getName())
+            .collect(MoreCollectors.toImmutableSortedSet()),
+        environment,
+        enableProfiling,
+        ignoreBuckAutodepsFiles);
+  }
+
+  /**
+   * Ends the current parse's use of this parser, leaving buck.py running so that a later parse can
+   * {@link #reuse(BuckEventBus) reuse} it.
+   */
+  public void release() {
+    ensureNotClosed();
+    if (projectBuildFileParseEventStarted != null) {
+      buckEventBus.post(
+          new ProjectBuildFileParseEvents.Finished(projectBuildFileParseEventStarted));
+      projectBuildFileParseEventStarted = null;
+    }
+  }
+
+  /**
+   * Hands this {@link #release() released} parser over to a later parse, along with the includes
+   * buck.py has evaluated so far.  Those are evaluated again if their contents have changed since.
+   *
+   * @param buckEventBus where to post the events of the later parse.
+   */
+  public void reuse(BuckEventBus buckEventBus) {
+    ensureNotClosed();
+    Preconditions.checkState(projectBuildFileParseEventStarted == null);
+    this.buckEventBus = buckEventBus;
+    isNewParse = true;
+  }
+
   private void ensureNotClosed() {
     Preconditions.checkState(!isClosed);
   }
@@ -182,6 +241,10 @@ public class ProjectBuildFileParser implements AutoCloseable {
   @VisibleForTesting
   public void initIfNeeded() throws IOException {
     ensureNotClosed();
+    if (projectBuildFileParseEventStarted == null) {
+      projectBuildFileParseEventStarted = new ProjectBuildFileParseEvents.Started();
+      buckEventBus.post(projectBuildFileParseEventStarted);
+    }
     if (!isInitialized) {
       init();
       isInitialized = true;
@@ -192,8 +255,6 @@ public class ProjectBuildFileParser implements AutoCloseable {
    * Initialize the parser, starting buck.py.
    */
   private void init() throws IOException {
-    projectBuildFileParseEventStarted = new ProjectBuildFileParseEvents.Started();
-    buckEventBus.post(projectBuildFileParseEventStarted);
     try (SimplePerfEvent.Scope scope = SimplePerfEvent.scope(
         buckEventBus,
         PerfEventId.of("ParserInit"))) {
@@ -376,6 +437,7 @@ public class ProjectBuildFileParser implements AutoCloseable {
     ImmutableList<Map<String, Object>> values = ImmutableList.of();
     String profile = "";
     try (AssertScopeExclusiveAccess.Scope scope = assertSingleThreadedParsing.scope()) {
+      isHealthy = false;
       Path cellPath = options.getProjectRoot().toAbsolutePath();
       String watchRoot = cellPath.toString();
       String projectPrefix = "";
@@ -390,9 +452,12 @@ public class ProjectBuildFileParser implements AutoCloseable {
           ImmutableMap.of(
               "buildFile", buildFile.toString(),
               "watchRoot", watchRoot,
-              "projectPrefix", projectPrefix),
+              "projectPrefix", projectPrefix,
+              // Files may have changed since buck.py last parsed, so it can't trust what it knows.
+              "newParse", isNewParse),
           buckPyStdinWriter);
       buckPyStdinWriter.flush();
+      isNewParse = false;
 
       LOG.verbose("Parsing output of process %s...", buckPyProcess);
       Object deserializedValue;
@@ -405,11 +470,19 @@ public class ProjectBuildFileParser implements AutoCloseable {
       }
       BuildFilePythonResult resultObject = handleDeserializedValue(deserializedValue);
       Path buckPyPath = getPathToBuckPy(options.getDescriptions());
-      handleDiagnostics(
-          buildFile,
-          buckPyPath.getParent(),
-          resultObject.getDiagnostics(),
-          buckEventBus);
+      try {
+        handleDiagnostics(
+            buildFile,
+            buckPyPath.getParent(),
+            resultObject.getDiagnostics(),
+            buckEventBus);
+      } catch (BuildFileParseException e) {
+        // buck.py carries on after errors in the build file, but not after e.g. losing watchman,
+        // which is thrown as an IOException.
+        isHealthy = true;
+        throw e;
+      }
+      isHealthy = true;
       values = resultObject.getValues();
 
       LOG.verbose("Got rules: %s", values);
@@ -739,10 +812,9 @@ public class ProjectBuildFileParser implements AutoCloseable {
 
       }
     } finally {
-      if (isInitialized) {
+      if (projectBuildFileParseEventStarted != null) {
         buckEventBus.post(
-            new ProjectBuildFileParseEvents.Finished(
-                Preconditions.checkNotNull(projectBuildFileParseEventStarted)));
+            new ProjectBuildFileParseEvents.Finished(projectBuildFileParseEventStarted));
       }
       isClosed = true;
     }
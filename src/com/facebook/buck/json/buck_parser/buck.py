@@ -530,7 +530,11 @@ class BuildFileProcessor(object):
             env_vars = {}
         if ignore_paths is None:
             ignore_paths = []
-        self._cache = {}
+        # Evaluated includes by path, along with the content hashes of the files they were evaluated
+        # from, so that they're only evaluated again once one of those files changes.
+        self._include_cache = {}
+        # Content hashes by path, taken at most once per parse.
+        self._file_hashes = {}
         self._current_build_env = None
         self._sync_cookie_state = SyncCookieState()
 
@@ -899,13 +903,8 @@ class BuildFileProcessor(object):
         :param path: target-like path to the file to process.
         :param is_implicit_include: whether the file being processed is an implicit include, or was
             included from an implicit include.
-        :returns: build context (potentially different if retrieved from cache) and loaded module.
+        :returns: build context and loaded module.
         """
-        # First check the cache.
-        cached = self._cache.get(path)
-        if cached is not None:
-            return cached
-
         # Install the build context for this input as the current context.
         with self._set_build_env(build_env):
             # Set of helpers callable from the child environment.
@@ -950,19 +949,53 @@ class BuildFileProcessor(object):
             with self._build_file_sandboxing():
                 exec(code, module.__dict__)
 
-        self._cache[path] = build_env, module
         return build_env, module
 
     def _process_include(self, path, is_implicit_include):
         # type: (str, bool) -> Tuple[AbstractContext, types.ModuleType]
         """Process the include file at the given path.
 
+        The include is only evaluated again if it, or one of the files it includes, has changed
+        since it was last evaluated.
+
         :param path: path to the include.
         :param is_implicit_include: whether the file being processed is an implicit include, or was
             included from an implicit include.
+        :returns: build context (potentially retrieved from cache) and loaded module.
+        """
+        cached = self._include_cache.get(path)
+        if cached is not None:
+            file_hashes, build_env, module = cached
+            if all(self._get_file_hash(p) == h for p, h in file_hashes):
+                return build_env, module
+
+        file_hash = self._get_file_hash(path)
+        build_env, module = self._process(
+            IncludeContext(), path, is_implicit_include=is_implicit_include)
+        file_hashes = [(path, file_hash)]
+        file_hashes.extend((p, self._get_file_hash(p)) for p in build_env.includes)
+        self._include_cache[path] = file_hashes, build_env, module
+        return build_env, module
+
+    def _get_file_hash(self, path):
+        """Returns the SHA-1 of the contents of the file at the given path, or None if it can't be
+        read.  Files are assumed not to change during a parse.
+        """
+        if path not in self._file_hashes:
+            try:
+                with self._wrap_file_access(wrap=False):
+                    with open(path, 'rb') as f:
+                        self._file_hashes[path] = hashlib.sha1(f.read()).hexdigest()
+            except (IOError, OSError):
+                self._file_hashes[path] = None
+        return self._file_hashes[path]
+
+    def start_new_parse(self):
+        """Forget what's known about the files on disk, which may have changed since the previous
+        parse, e.g. by an earlier command run by the daemon.
         """
-        build_env = IncludeContext()
-        return self._process(build_env, path, is_implicit_include=is_implicit_include)
+        self._file_hashes = {}
+        self._sync_cookie_state.use_sync_cookies = True
 
     def _process_build_file(self, watch_root, project_prefix, path):
         """Process the build file at the given path."""
@@ -1169,6 +1202,8 @@ def process_with_diagnostics(build_file_query, build_file_processor, to_parent,
     build_file = build_file_query.get('buildFile')
     watch_root = build_file_query.get('watchRoot')
     project_prefix = build_file_query.get('projectPrefix')
+    if build_file_query.get('newParse'):
+        build_file_processor.start_new_parse()
 
     build_file = cygwin_adjusted_path(build_file).rstrip().encode('ascii')
     watch_root = cygwin_adjusted_path(watch_root).rstrip().encode('ascii')
@@ -1456,12 +1491,17 @@ def main():
                                          should_profile=options.profile)
 
             for build_file_query in iter(lambda: bser.load(sys.stdin), None):
-                process_with_diagnostics(
-                    build_file_query,
-                    buildFileProcessor,
-                    to_parent,
-                    should_profile=options.profile
-                )
+                try:
+                    process_with_diagnostics(
+                        build_file_query,
+                        buildFileProcessor,
+                        to_parent,
+                        should_profile=options.profile
+                    )
+                except Exception:
+                    # The error has been reported to the parent, which may go on to send more
+                    # build files, and keep the includes evaluated so far.
+                    pass
 
     if options.quiet:
         sys.excepthook = orig_excepthook
@@ -850,6 +850,43 @@ class BuckTest(unittest.TestCase):
                 NameError,
                 lambda: processor.process(self.project_root, None, 'BUCK_fail', []))
 
+    def test_includes_are_evaluated_again_once_changed_in_a_new_parse(self):
+        defs_file = ProjectFile(self.project_root, path='DEFS', contents=('value = 1',))
+        build_file = ProjectFile(
+            self.project_root,
+            path='BUCK',
+            contents=(
+                'include_defs("//DEFS")',
+                'foo_rule(name="foo" + str(value), srcs=[])',
+            )
+        )
+        self.write_files(defs_file, build_file)
+        processor = self.create_build_file_processor(extra_funcs=[foo_rule])
+
+        def get_rule_names():
+            with processor.with_builtins(__builtin__.__dict__):
+                result = processor.process(self.project_root, None, 'BUCK', [])
+            return [x['name'] for x in result if 'name' in x]
+
+        self.assertEqual(['foo1'], get_rule_names())
+
+        # Files don't change during a parse, so the evaluated include is kept until the next one.
+        self.write_file(ProjectFile(self.project_root, path='DEFS', contents=('value = 2',)))
+        self.assertEqual(['foo1'], get_rule_names())
+        processor.start_new_parse()
+        self.assertEqual(['foo2'], get_rule_names())
+
+        # Build files themselves are always evaluated again.
+        self.write_file(ProjectFile(
+            self.project_root,
+            path='BUCK',
+            contents=(
+                'include_defs("//DEFS")',
+                'foo_rule(name="bar" + str(value), srcs=[])',
+            )
+        ))
+        self.assertEqual(['bar2'], get_rule_names())
+
 
 if __name__ == '__main__':
     unittest.main()
@@ -41,7 +41,6 @@ abstract class AbstractParserConfig implements ConfigView<BuckConfig> {
   public static final String BUILDFILE_SECTION_NAME = "buildfile";
   public static final String INCLUDES_PROPERTY_NAME = "includes";
 
-  private static final long NUM_PARSING_THREADS_DEFAULT = 1L;
 
   public enum GlobHandler {
     PYTHON,
@@ -165,6 +164,16 @@ abstract class AbstractParserConfig implements ConfigView<BuckConfig> {
       .orElse(WatchmanWatcher.CursorType.CLOCK_ID);
   }
 
+  @Value.Lazy
+  public boolean getWatchmanSubscription() {
+    return getDelegate().getBooleanValue("project", "watchman_subscription", false);
+  }
+
+  @Value.Lazy
+  public long getWatchmanSubscriptionSettleMs() {
+    return getDelegate().getLong("project", "watchman_subscription_settle_ms").orElse(200L);
+  }
+
   @Value.Lazy
   public boolean getEnableParallelParsing() {
     return getDelegate().getBooleanValue("project", "parallel_parsing", true);
@@ -176,13 +185,24 @@ abstract class AbstractParserConfig implements ConfigView<BuckConfig> {
       return 1;
     }
 
+    // Each parsing thread drives its own buck.py process, so by default scale with the cores.
     int value = getDelegate()
-        .getLong("project", "parsing_threads").orElse(NUM_PARSING_THREADS_DEFAULT)
+        .getLong("project", "parsing_threads")
+        .orElse((long) Runtime.getRuntime().availableProcessors())
         .intValue();
 
     return Math.min(value, getDelegate().getNumThreads());
   }
 
+  /**
+   * @return whether raw nodes of parsed build files are persisted to buck-out, so that they can be
+   *     reused by a newly started daemon.
+   */
+  @Value.Lazy
+  public boolean getParserCachePersistence() {
+    return getDelegate().getBooleanValue("project", "parser_cache_persistence", false);
+  }
+
   @Value.Lazy
   public ApplyDefaultFlavorsMode getDefaultFlavorsMode() {
     return getDelegate().getEnum(
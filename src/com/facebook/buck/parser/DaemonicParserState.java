@@ -92,6 +92,8 @@ class DaemonicParserState {
   private static final String FILES_CHANGED_COUNTER_NAME = "files_changed";
   private static final String RULES_INVALIDATED_BY_WATCH_EVENTS_COUNTER_NAME =
       "rules_invalidated_by_watch_events";
+  private static final String RAW_NODES_LOADED_FROM_DISK_COUNTER_NAME =
+      "raw_nodes_loaded_from_disk";
   private static final String PATHS_ADDED_OR_REMOVED_INVALIDATING_BUILD_FILES =
       "paths_added_or_removed_invalidating_build_files";
 
@@ -176,10 +178,24 @@ class DaemonicParserState {
       invalidateIfBuckConfigOrEnvHasChanged(cell, buildFile);
 
       DaemonicCellState state = getCellState(cell);
-      if (state == null) {
+      if (state != null) {
+        Optional<ImmutableSet<Map<String, Object>>> rawNodes = state.lookupRawNodes(buildFile);
+        if (rawNodes.isPresent()) {
+          return rawNodes;
+        }
+      }
+
+      if (!PersistedRawNodeCache.isEnabled(cell)) {
+        return Optional.empty();
+      }
+      Optional<ImmutableSet<Map<String, Object>>> persistedRawNodes =
+          persistedRawNodeCache.load(cell, buildFile);
+      if (!persistedRawNodes.isPresent()) {
         return Optional.empty();
       }
-      return state.lookupRawNodes(buildFile);
+      rawNodesLoadedFromDiskCounter.inc();
+      return Optional.of(
+          putRawNodes(cell, buildFile, persistedRawNodes.get(), /* persist */ false));
     }
 
     /**
@@ -192,13 +208,24 @@ class DaemonicParserState {
      * @param rawNodes nodes to insert
      * @return previous nodes for the file if the cache contained it, new ones otherwise.
      */
-    @SuppressWarnings({"unchecked", "PMD.EmptyIfStmt"})
     @Override
     public ImmutableSet<Map<String, Object>> putComputedNodeIfNotPresent(
         Cell cell,
         Path buildFile,
         ImmutableSet<Map<String, Object>> rawNodes)
         throws BuildTargetException {
+      return putRawNodes(cell, buildFile, rawNodes, PersistedRawNodeCache.isEnabled(cell));
+    }
+
+    /**
+     * @param persist whether to also write the nodes to the {@link PersistedRawNodeCache}.
+     */
+    @SuppressWarnings({"unchecked", "PMD.EmptyIfStmt"})
+    private ImmutableSet<Map<String, Object>> putRawNodes(
+        Cell cell,
+        Path buildFile,
+        ImmutableSet<Map<String, Object>> rawNodes,
+        boolean persist) {
       Preconditions.checkState(buildFile.isAbsolute());
       // Technically this leads to inconsistent state if the state change happens after rawNodes
       // were computed, but before we reach the synchronized section here, however that's a problem
@@ -262,10 +289,15 @@ class DaemonicParserState {
         dependentsOfEveryNode.add(cell.getFilesystem().resolve(include.substring(2)));
       }
 
+      ImmutableSet<Path> dependents = dependentsOfEveryNode.build();
+      if (persist) {
+        persistedRawNodeCache.storeInBackground(cell, buildFile, rawNodes, dependents);
+      }
+
       return getOrCreateCellState(cell).putRawNodesIfNotPresentAndStripMetaEntries(
           buildFile,
           withoutMetaIncludes,
-          dependentsOfEveryNode.build(),
+          dependents,
           configs,
           env);
     }
@@ -280,6 +312,7 @@ class DaemonicParserState {
   private final IntegerCounter filesChangedCounter;
   private final IntegerCounter rulesInvalidatedByWatchEventsCounter;
   private final TagSetCounter pathsAddedOrRemovedInvalidatingBuildFiles;
+  private final IntegerCounter rawNodesLoadedFromDiskCounter;
 
   /**
    * The set of {@link Cell} instances that have been seen by this state. This information is used
@@ -291,6 +324,7 @@ class DaemonicParserState {
   private final LoadingCache<Class<?>, DaemonicCacheView<?>> typedNodeCaches =
       CacheBuilder.newBuilder().build(CacheLoader.from(cls -> new DaemonicCacheView<>(cls)));
   private final DaemonicRawCacheView rawNodeCache;
+  private final PersistedRawNodeCache persistedRawNodeCache;
 
   private final int parsingThreads;
 
@@ -343,6 +377,10 @@ class DaemonicParserState {
             COUNTER_CATEGORY,
             PATHS_ADDED_OR_REMOVED_INVALIDATING_BUILD_FILES,
             ImmutableMap.of());
+    this.rawNodesLoadedFromDiskCounter = new IntegerCounter(
+        COUNTER_CATEGORY,
+        RAW_NODES_LOADED_FROM_DISK_COUNTER_NAME,
+        ImmutableMap.of());
     this.buildFileTrees = CacheBuilder.newBuilder().build(
         new CacheLoader<Cell, BuildFileTree>() {
           @Override
@@ -358,6 +396,7 @@ class DaemonicParserState {
             parsingThreads);
 
     this.rawNodeCache = new DaemonicRawCacheView();
+    this.persistedRawNodeCache = new PersistedRawNodeCache(CONFIGS_META_RULE, ENV_META_RULE);
 
     this.cachedStateLock = new AutoCloseableReadWriteUpdateLock();
     this.cellStateLock = new AutoCloseableReadWriteUpdateLock();
@@ -472,6 +511,7 @@ class DaemonicParserState {
 
     // The paths from watchman are not absolute. Because of this, we adopt a conservative approach
     // to invalidating the caches.
+    persistedRawNodeCache.invalidateFileHashes(path);
     try (AutoCloseableLock readLock = cellStateLock.readLock()) {
       for (DaemonicCellState state : cellPathToDaemonicState.values()) {
         invalidatePath(state, path);
@@ -525,6 +565,11 @@ class DaemonicParserState {
     // Invalidate all the packages we found.
     for (Path buildFile : packageBuildFiles) {
       invalidatePath(state, buildFile.resolve(cell.getBuildFileName()));
+      if (PersistedRawNodeCache.isEnabled(cell)) {
+        persistedRawNodeCache.invalidate(
+            cell,
+            cell.getFilesystem().resolve(buildFile.resolve(cell.getBuildFileName())));
+      }
     }
   }
 
@@ -630,6 +675,7 @@ class DaemonicParserState {
 
   public boolean invalidateAllCaches() {
     LOG.debug("Starting to invalidate all caches..");
+    persistedRawNodeCache.invalidateAllFileHashes();
     try (AutoCloseableLock writeLock = cellStateLock.writeLock()) {
       boolean invalidated = !cellPathToDaemonicState.isEmpty();
       cellPathToDaemonicState.clear();
@@ -651,7 +697,8 @@ class DaemonicParserState {
         buildFilesInvalidatedByFileAddOrRemoveCounter,
         filesChangedCounter,
         rulesInvalidatedByWatchEventsCounter,
-        pathsAddedOrRemovedInvalidatingBuildFiles);
+        pathsAddedOrRemovedInvalidatingBuildFiles,
+        rawNodesLoadedFromDiskCounter);
   }
 
   @Override
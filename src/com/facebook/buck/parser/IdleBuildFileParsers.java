@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.facebook.buck.parser;
+
+import com.facebook.buck.json.ProjectBuildFileParser;
+import com.facebook.buck.log.Logger;
+import com.facebook.buck.util.MoreCollectors;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Build file parsers released at the end of a parse, kept for later parses (e.g. by the next
+ * command the daemon runs) so that they needn't start Python again.  buck.py keeps the includes it
+ * has evaluated, and only evaluates them again once their contents change.
+ */
+class IdleBuildFileParsers implements AutoCloseable {
+  private static final Logger LOG = Logger.get(IdleBuildFileParsers.class);
+
+  @GuardedBy("this")
+  private final Map<Object, Deque<ProjectBuildFileParser>> parsers = new HashMap<>();
+  @GuardedBy("this")
+  private boolean closed = false;
+
+  /**
+   * @return an idle parser which can stand in for parsers with the given
+   *     {@link ProjectBuildFileParser#getProcessKey() process key}.
+   */
+  public synchronized Optional<ProjectBuildFileParser> take(Object processKey) {
+    Deque<ProjectBuildFileParser> idle = parsers.get(processKey);
+    if (idle == null) {
+      return Optional.empty();
+    }
+    ProjectBuildFileParser parser = idle.pollFirst();
+    if (idle.isEmpty()) {
+      parsers.remove(processKey);
+    }
+    return Optional.of(parser);
+  }
+
+  /**
+   * Keeps the given {@link ProjectBuildFileParser#release() released} parser until it's taken.
+   */
+  public void put(ProjectBuildFileParser parser) {
+    synchronized (this) {
+      if (!closed) {
+        parsers.computeIfAbsent(parser.getProcessKey(), key -> new ArrayDeque<>()).add(parser);
+        return;
+      }
+    }
+    closeParser(parser);
+  }
+
+  @Override
+  public void close() {
+    ImmutableList<ProjectBuildFileParser> toClose;
+    synchronized (this) {
+      closed = true;
+      toClose = parsers.values().stream()
+          .flatMap(Deque::stream)
+          .collect(MoreCollectors.toImmutableList());
+      parsers.clear();
+    }
+    toClose.forEach(IdleBuildFileParsers::closeParser);
+  }
+
+  private static void closeParser(ProjectBuildFileParser parser) {
+    try {
+      parser.close();
+    } catch (Exception e) {
+      LOG.info(e, "Error shutting down an idle build file parser.");
+    }
+  }
+}
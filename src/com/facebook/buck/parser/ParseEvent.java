@@ -56,7 +56,14 @@ public abstract class ParseEvent extends AbstractBuckEvent implements LeafEvent,
   }
 
   public static Started started(Iterable<BuildTarget> buildTargets) {
-    return new Started(buildTargets);
+    return new Started(buildTargets, Optional.empty());
+  }
+
+  /**
+   * @param parserPoolSize the maximum number of build file parser processes per cell.
+   */
+  public static Started started(Iterable<BuildTarget> buildTargets, int parserPoolSize) {
+    return new Started(buildTargets, Optional.of(parserPoolSize));
   }
 
   public static Finished finished(Started started,
@@ -65,14 +72,26 @@ public abstract class ParseEvent extends AbstractBuckEvent implements LeafEvent,
   }
 
   public static class Started extends ParseEvent {
-    protected Started(Iterable<BuildTarget> buildTargets) {
+    private final Optional<Integer> parserPoolSize;
+
+    protected Started(Iterable<BuildTarget> buildTargets, Optional<Integer> parserPoolSize) {
       super(EventKey.unique(), buildTargets);
+      this.parserPoolSize = parserPoolSize;
     }
 
     @Override
     public String getEventName() {
       return PARSE_STARTED;
     }
+
+    /**
+     * @return the maximum number of build file parser processes per cell, if this parse uses
+     *     build file parsers at all.
+     */
+    @JsonIgnore
+    public Optional<Integer> getParserPoolSize() {
+      return parserPoolSize;
+    }
   }
 
   public static class Finished extends ParseEvent {
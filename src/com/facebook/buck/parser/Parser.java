@@ -85,23 +85,56 @@ public class Parser {
 
   private final DaemonicParserState permState;
   private final ConstructorArgMarshaller marshaller;
+  private final Optional<IdleBuildFileParsers> idleBuildFileParsers;
 
   public Parser(
       BroadcastEventListener broadcastEventListener,
       ParserConfig parserConfig,
       TypeCoercerFactory typeCoercerFactory,
       ConstructorArgMarshaller marshaller) {
+    this(
+        broadcastEventListener,
+        parserConfig,
+        typeCoercerFactory,
+        marshaller,
+        /* reuseBuildFileParsers */ false);
+  }
+
+  /**
+   * @param reuseBuildFileParsers whether to keep build file parsers running between parses, as the
+   *     daemon does.  They're stopped by {@link #close()}.
+   */
+  public Parser(
+      BroadcastEventListener broadcastEventListener,
+      ParserConfig parserConfig,
+      TypeCoercerFactory typeCoercerFactory,
+      ConstructorArgMarshaller marshaller,
+      boolean reuseBuildFileParsers) {
     this.permState = new DaemonicParserState(
         broadcastEventListener,
         typeCoercerFactory,
         parserConfig.getNumParsingThreads());
     this.marshaller = marshaller;
+    this.idleBuildFileParsers = reuseBuildFileParsers ?
+        Optional.of(new IdleBuildFileParsers()) :
+        Optional.empty();
   }
 
   protected DaemonicParserState getPermState() {
     return permState;
   }
 
+  Optional<IdleBuildFileParsers> getIdleBuildFileParsers() {
+    return idleBuildFileParsers;
+  }
+
+  /**
+   * Stops the build file parsers kept running between parses.
+   */
+  public void close() {
+    idleBuildFileParsers.ifPresent(IdleBuildFileParsers::close);
+  }
+
   protected ConstructorArgMarshaller getMarshaller() {
     return marshaller;
   }
@@ -276,7 +309,8 @@ public class Parser {
     final MutableDirectedGraph<TargetNode<?, ?>> graph = new MutableDirectedGraph<>();
     final Map<BuildTarget, TargetNode<?, ?>> index = new HashMap<>();
 
-    ParseEvent.Started parseStart = ParseEvent.started(toExplore);
+    ParseEvent.Started parseStart =
+        ParseEvent.started(toExplore, state.getParserPoolSize());
     eventBus.post(parseStart);
 
     GraphTraversable<BuildTarget> traversable = target -> {
@@ -116,7 +116,8 @@ public class PerBuildState implements AutoCloseable {
     int numParsingThreads = parserConfig.getNumParsingThreads();
     this.projectBuildFileParserPool = new ProjectBuildFileParserPool(
         numParsingThreads, // Max parsers to create per cell.
-        input -> createBuildFileParser(input, PerBuildState.this.ignoreBuckAutodepsFiles));
+        input -> createBuildFileParser(input, PerBuildState.this.ignoreBuckAutodepsFiles),
+        parser.getIdleBuildFileParsers());
 
     this.rawNodeParsePipeline = new RawNodeParsePipeline(
         parser.getPermState().getRawNodeCache(),
@@ -139,6 +140,13 @@ public class PerBuildState implements AutoCloseable {
     register(rootCell);
   }
 
+  /**
+   * @return the maximum number of build file parsers this state runs for each cell.
+   */
+  public int getParserPoolSize() {
+    return projectBuildFileParserPool.getMaxParsersPerCell();
+  }
+
   public TargetNode<?, ?> getTargetNode(BuildTarget target)
       throws BuildFileParseException, BuildTargetException {
     Cell owningCell = getCell(target);
@@ -183,6 +191,13 @@ public class PerBuildState implements AutoCloseable {
         eventBus,
         ignoreBuckAutodepsFiles);
     parser.setEnableProfiling(enableProfiling);
+    Optional<ProjectBuildFileParser> idleParser = this.parser.getIdleBuildFileParsers()
+        .flatMap(idleParsers -> idleParsers.take(parser.getProcessKey()));
+    if (idleParser.isPresent()) {
+      // The new parser hasn't started buck.py yet, so there's nothing to stop.
+      idleParser.get().reuse(eventBus);
+      return idleParser.get();
+    }
     return parser;
   }
 
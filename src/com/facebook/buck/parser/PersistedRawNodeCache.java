@@ -0,0 +1,462 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.parser;
+
+import com.facebook.buck.bser.BserDeserializer;
+import com.facebook.buck.bser.BserSerializer;
+import com.facebook.buck.cli.BuckConfig;
+import com.facebook.buck.io.PathOrGlobMatcher;
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.log.Logger;
+import com.facebook.buck.model.BuckVersion;
+import com.facebook.buck.rules.Cell;
+import com.facebook.buck.util.concurrent.MostExecutors;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Keeps the raw nodes of parsed build files in each cell's buck-out, so that a newly started
+ * daemon can reuse them instead of running buck.py again.
+ *
+ * An entry holds the raw nodes exactly as buck.py returned them, meta rules included, along with
+ * the content hash of the build file and of every file it included, and a hash of the names of the
+ * files in the build file's package. It is only used if those files are unchanged, if no file was
+ * added to or removed from the package since, as that changes what globs match, if the
+ * configuration values and environment variables recorded in its meta rules still have the same
+ * values, and if it was written by the same version of Buck.
+ */
+class PersistedRawNodeCache {
+  private static final Logger LOG = Logger.get(PersistedRawNodeCache.class);
+
+  private static final long FORMAT_VERSION = 2;
+
+  private static final String VERSION_KEY = "version";
+  private static final String BUCK_VERSION_KEY = "buck_version";
+  private static final String BUILD_FILE_KEY = "build_file";
+  private static final String HASHES_KEY = "hashes";
+  private static final String LISTING_KEY = "listing";
+  private static final String NODES_KEY = "nodes";
+
+  private final String configsMetaRule;
+  private final String envMetaRule;
+
+  /**
+   * The content hashes of build files and includes, so that an include shared by many build files
+   * is only read once.  Kept until {@link #invalidateFileHashes(Path)} reports a change.
+   */
+  private final ConcurrentMap<Path, Optional<String>> fileHashes = new ConcurrentHashMap<>();
+
+  /**
+   * The roots of every cell that files were hashed for, to resolve the cell-relative paths of watch
+   * events against.
+   */
+  private final Set<Path> cellRoots = ConcurrentHashMap.newKeySet();
+
+  /**
+   * How many times each entry was invalidated, so that a write of nodes parsed before the last
+   * invalidation doesn't bring the entry back.
+   */
+  @GuardedBy("this")
+  private final Map<Path, Long> invalidations = new HashMap<>();
+
+  /**
+   * Writes entries, so that parse threads don't wait on serializing and writing them.  Pending
+   * writes are dropped if the process exits, which only costs a reparse in the next daemon.
+   */
+  private final ExecutorService storeExecutor = MostExecutors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder()
+          .setNameFormat("persisted-raw-nodes-%d")
+          .setDaemon(true)
+          .build());
+
+  PersistedRawNodeCache(String configsMetaRule, String envMetaRule) {
+    this.configsMetaRule = configsMetaRule;
+    this.envMetaRule = envMetaRule;
+  }
+
+  /**
+   * Forgets the hash of any file that {@code path} may refer to.  Watch events carry cell-relative
+   * paths, so the file it names in each known cell is forgotten.
+   */
+  void invalidateFileHashes(Path path) {
+    if (path.isAbsolute()) {
+      fileHashes.remove(path);
+      return;
+    }
+    for (Path cellRoot : cellRoots) {
+      fileHashes.remove(cellRoot.resolve(path));
+    }
+  }
+
+  void invalidateAllFileHashes() {
+    fileHashes.clear();
+  }
+
+  /**
+   * Deletes the entry for {@code buildFile}, and makes sure that nodes parsed from it before now are
+   * not persisted.  Used when a file is added to or removed from its package, as its globs may
+   * match something else now.
+   */
+  void invalidate(Cell cell, Path buildFile) {
+    Path entryPath = getEntryPath(cell, buildFile);
+    synchronized (this) {
+      invalidations.put(entryPath, getInvalidationCount(entryPath) + 1);
+      try {
+        Files.deleteIfExists(entryPath);
+      } catch (IOException e) {
+        LOG.debug(e, "Unable to delete persisted raw nodes for %s.", buildFile);
+      }
+    }
+  }
+
+  /**
+   * @return whether entries should be read and written for the given cell. Without a known Buck
+   *     version there is no way to tell whether an entry was written by a compatible buck.py.
+   */
+  static boolean isEnabled(Cell cell) {
+    return cell.getBuckConfig().getView(ParserConfig.class).getParserCachePersistence() &&
+        !BuckVersion.getVersion().equals("N/A");
+  }
+
+  /**
+   * @return the raw nodes, including meta rules, stored for {@code buildFile} if they are still
+   *     valid.
+   */
+  @SuppressWarnings("unchecked")
+  Optional<ImmutableSet<Map<String, Object>>> load(Cell cell, Path buildFile) {
+    cellRoots.addAll(cell.getKnownRoots());
+    Path entryPath = getEntryPath(cell, buildFile);
+    Object value;
+    try (InputStream stream = Files.newInputStream(entryPath)) {
+      value = new BserDeserializer(BserDeserializer.KeyOrdering.SORTED)
+          .deserializeBserValue(stream);
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      LOG.debug(e, "Unable to read persisted raw nodes for %s.", buildFile);
+      return Optional.empty();
+    }
+
+    try {
+      Map<String, Object> entry = (Map<String, Object>) Objects.requireNonNull(value);
+      if (!Long.valueOf(FORMAT_VERSION).equals(toLong(entry.get(VERSION_KEY))) ||
+          !BuckVersion.getVersion().equals(entry.get(BUCK_VERSION_KEY)) ||
+          !buildFile.toString().equals(entry.get(BUILD_FILE_KEY))) {
+        return Optional.empty();
+      }
+
+      Map<String, String> hashes = (Map<String, String>) entry.get(HASHES_KEY);
+      for (Map.Entry<String, String> hash : hashes.entrySet()) {
+        Optional<String> currentHash = hashFile(cell.getFilesystem().resolve(hash.getKey()));
+        if (!currentHash.equals(Optional.of(hash.getValue()))) {
+          LOG.verbose("Persisted raw nodes for %s are stale: %s changed.", buildFile, hash);
+          return Optional.empty();
+        }
+      }
+
+      Optional<String> listing = hashPackageListing(cell, buildFile);
+      if (!listing.isPresent() || !listing.get().equals(entry.get(LISTING_KEY))) {
+        LOG.verbose("Persisted raw nodes for %s are stale: files were added or removed.", buildFile);
+        return Optional.empty();
+      }
+
+      ImmutableSet<Map<String, Object>> rawNodes =
+          ImmutableSet.copyOf((List<Map<String, Object>>) entry.get(NODES_KEY));
+      if (!usedValuesAreUnchanged(cell.getBuckConfig(), rawNodes)) {
+        LOG.verbose("Persisted raw nodes for %s read configs or env vars that changed.", buildFile);
+        return Optional.empty();
+      }
+      return Optional.of(rawNodes);
+    } catch (ClassCastException | NullPointerException e) {
+      LOG.debug(e, "Ignoring malformed persisted raw nodes for %s.", buildFile);
+      return Optional.empty();
+    } catch (IOException e) {
+      LOG.debug(e, "Unable to validate persisted raw nodes for %s.", buildFile);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Persists the raw nodes buck.py returned for {@code buildFile}.
+   *
+   * @param rawNodes the nodes including meta rules.
+   * @param dependencies every file other than the build file that the nodes were computed from.
+   */
+  void store(
+      Cell cell,
+      Path buildFile,
+      ImmutableSet<Map<String, Object>> rawNodes,
+      Collection<Path> dependencies) {
+    long invalidationCount = getInvalidationCount(getEntryPath(cell, buildFile));
+    Optional<Map<String, String>> hashes = hashFiles(cell, buildFile, dependencies);
+    Optional<String> listing = hashPackageListing(cell, buildFile);
+    if (hashes.isPresent() && listing.isPresent()) {
+      write(cell, buildFile, rawNodes, hashes.get(), listing.get(), invalidationCount);
+    }
+  }
+
+  /**
+   * Like {@link #store(Cell, Path, ImmutableSet, Collection)}, but only hashes the files and lists
+   * the package on the calling thread, so that they match what the nodes were just computed from,
+   * and writes the entry in the background.
+   */
+  void storeInBackground(
+      Cell cell,
+      Path buildFile,
+      ImmutableSet<Map<String, Object>> rawNodes,
+      Collection<Path> dependencies) {
+    long invalidationCount = getInvalidationCount(getEntryPath(cell, buildFile));
+    Optional<Map<String, String>> hashes = hashFiles(cell, buildFile, dependencies);
+    Optional<String> listing = hashPackageListing(cell, buildFile);
+    if (hashes.isPresent() && listing.isPresent()) {
+      storeExecutor.execute(
+          () -> write(
+              cell,
+              buildFile,
+              rawNodes,
+              hashes.get(),
+              listing.get(),
+              invalidationCount));
+    }
+  }
+
+  private synchronized long getInvalidationCount(Path entryPath) {
+    return invalidations.getOrDefault(entryPath, 0L);
+  }
+
+  /**
+   * @return the hashes of the build file and its dependencies, keyed by path, or nothing if any of
+   *     them can't be hashed, as then there is nothing to validate the nodes against later.
+   */
+  private Optional<Map<String, String>> hashFiles(
+      Cell cell,
+      Path buildFile,
+      Collection<Path> dependencies) {
+    cellRoots.addAll(cell.getKnownRoots());
+    Map<String, String> hashes = new HashMap<>();
+    for (Path path : Iterables.concat(ImmutableList.of(buildFile), dependencies)) {
+      Optional<String> hash;
+      try {
+        hash = hashFile(path);
+      } catch (IOException e) {
+        LOG.debug(e, "Unable to hash %s.", path);
+        return Optional.empty();
+      }
+      if (!hash.isPresent()) {
+        return Optional.empty();
+      }
+      hashes.put(path.toString(), hash.get());
+    }
+    return Optional.of(hashes);
+  }
+
+  private void write(
+      Cell cell,
+      Path buildFile,
+      ImmutableSet<Map<String, Object>> rawNodes,
+      Map<String, String> hashes,
+      String listing,
+      long invalidationCount) {
+    Path entryPath = getEntryPath(cell, buildFile);
+    Path tempPath = null;
+    try {
+      Map<String, Object> entry = new HashMap<>();
+      entry.put(VERSION_KEY, FORMAT_VERSION);
+      entry.put(BUCK_VERSION_KEY, BuckVersion.getVersion());
+      entry.put(BUILD_FILE_KEY, buildFile.toString());
+      entry.put(HASHES_KEY, hashes);
+      entry.put(LISTING_KEY, listing);
+      entry.put(NODES_KEY, new ArrayList<>(rawNodes));
+
+      Files.createDirectories(entryPath.getParent());
+      tempPath = Files.createTempFile(
+          entryPath.getParent(),
+          entryPath.getFileName().toString(),
+          ".tmp");
+      try (OutputStream stream = Files.newOutputStream(tempPath)) {
+        new BserSerializer().serializeToStream(entry, stream);
+      }
+      synchronized (this) {
+        if (getInvalidationCount(entryPath) != invalidationCount) {
+          LOG.verbose("Not persisting raw nodes for %s, as its package changed since.", buildFile);
+          return;
+        }
+        Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING);
+      }
+      tempPath = null;
+    } catch (IOException e) {
+      LOG.debug(e, "Unable to persist raw nodes for %s.", buildFile);
+    } finally {
+      if (tempPath != null) {
+        try {
+          Files.deleteIfExists(tempPath);
+        } catch (IOException e) {
+          LOG.debug(e, "Unable to delete %s.", tempPath);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean usedValuesAreUnchanged(
+      BuckConfig buckConfig,
+      ImmutableSet<Map<String, Object>> rawNodes) {
+    ImmutableMap<String, String> environment = buckConfig.getEnvironment();
+    for (Map<String, Object> rawNode : rawNodes) {
+      if (rawNode.containsKey(configsMetaRule)) {
+        Map<String, Map<String, String>> configs =
+            (Map<String, Map<String, String>>) rawNode.get(configsMetaRule);
+        for (Map.Entry<String, Map<String, String>> section : configs.entrySet()) {
+          for (Map.Entry<String, String> value : section.getValue().entrySet()) {
+            // Compare raw values, as those are what buck.py was given; see
+            // DaemonicCellState#invalidateIfBuckConfigHasChanged.
+            if (!buckConfig.getRawValue(section.getKey(), value.getKey())
+                .equals(Optional.ofNullable(value.getValue()))) {
+              return false;
+            }
+          }
+        }
+      } else if (rawNode.containsKey(envMetaRule)) {
+        Map<String, String> env = (Map<String, String>) rawNode.get(envMetaRule);
+        for (Map.Entry<String, String> value : env.entrySet()) {
+          if (!Objects.equals(environment.get(value.getKey()), value.getValue())) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private static Path getEntryPath(Cell cell, Path buildFile) {
+    ProjectFilesystem filesystem = cell.getFilesystem();
+    String key = Hashing.sha1()
+        .hashString(filesystem.relativize(buildFile).toString(), StandardCharsets.UTF_8)
+        .toString();
+    return filesystem.resolve(filesystem.getBuckPaths().getParserCacheDir())
+        .resolve(key.substring(0, 2))
+        .resolve(key.substring(2));
+  }
+
+  /**
+   * @return a hash of the names of the files and directories under the package of
+   *     {@code buildFile} that its globs could match, or nothing if they can't be listed.  Like
+   *     {@link DaemonicParserState}, subpackages are only looked into if package boundaries aren't
+   *     enforced.
+   */
+  private static Optional<String> hashPackageListing(Cell cell, Path buildFile) {
+    ProjectFilesystem filesystem = cell.getFilesystem();
+    ImmutableSet<PathOrGlobMatcher> ignorePaths = filesystem.getIgnorePaths();
+    Path packageRoot = buildFile.getParent();
+    boolean stopAtSubpackages = cell.isEnforcingBuckPackageBoundaries(buildFile);
+    SortedSet<String> names = new TreeSet<>();
+    try {
+      Files.walkFileTree(packageRoot, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+          if (dir.equals(packageRoot)) {
+            return FileVisitResult.CONTINUE;
+          }
+          if (isIgnored(dir)) {
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+          names.add(packageRoot.relativize(dir) + "/");
+          if (stopAtSubpackages && Files.isRegularFile(dir.resolve(cell.getBuildFileName()))) {
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          if (!isIgnored(file)) {
+            names.add(packageRoot.relativize(file).toString());
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        private boolean isIgnored(Path path) {
+          Path relativePath = filesystem.relativize(path);
+          return ignorePaths.stream().anyMatch(matcher -> matcher.matches(relativePath));
+        }
+      });
+    } catch (IOException e) {
+      LOG.debug(e, "Unable to list the package of %s.", buildFile);
+      return Optional.empty();
+    }
+
+    Hasher hasher = Hashing.sha1().newHasher();
+    for (String name : names) {
+      hasher.putString(name, StandardCharsets.UTF_8).putByte((byte) 0);
+    }
+    return Optional.of(hasher.hash().toString());
+  }
+
+  /**
+   * @return the SHA-1 of the file's contents, or nothing if it doesn't exist.
+   */
+  private Optional<String> hashFile(Path path) throws IOException {
+    Optional<String> hash = fileHashes.get(path);
+    if (hash == null) {
+      try {
+        hash = Optional.of(Hashing.sha1().hashBytes(Files.readAllBytes(path)).toString());
+      } catch (NoSuchFileException e) {
+        hash = Optional.empty();
+      }
+      fileHashes.put(path, hash);
+    }
+    return hash;
+  }
+
+  @Nullable
+  private static Long toLong(Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : null;
+  }
+}
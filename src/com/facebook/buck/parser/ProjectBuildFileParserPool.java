@@ -16,18 +16,23 @@
 
 package com.facebook.buck.parser;
 
+import com.facebook.buck.json.BuildFileParseException;
 import com.facebook.buck.json.ProjectBuildFileParser;
+import com.facebook.buck.model.Either;
 import com.facebook.buck.rules.Cell;
 import com.facebook.buck.util.concurrent.ResourcePool;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.concurrent.GuardedBy;
@@ -38,12 +43,18 @@ import javax.annotation.concurrent.GuardedBy;
  * Parser instances are lazily created up till a fixed maximum. If more than max parser are
  * requested the associated 'requests' are queued up. As soon as a parser is returned it will
  * be used to satisfy the first pending request, otherwise it is "parked".
+ *
+ * Parsers are only retired when they fail in a way that may have left their buck.py process in a
+ * bad state. A build file that fails to evaluate is reported without losing the process, and with
+ * it the includes it has already loaded. When given {@link IdleBuildFileParsers}, the pool hands
+ * its parsers over to them once closed instead of closing them, so that they outlive the parse.
  */
 class ProjectBuildFileParserPool implements AutoCloseable {
   private final int maxParsersPerCell;
   @GuardedBy("this")
-  private final Map<Cell, ResourcePool<ProjectBuildFileParser>> parserResourcePools;
+  private final Map<Cell, ResourcePool<PooledParser>> parserResourcePools;
   private final Function<Cell, ProjectBuildFileParser> parserFactory;
+  private final Optional<IdleBuildFileParsers> idleParsers;
   private final AtomicBoolean closing;
 
   /**
@@ -53,11 +64,25 @@ class ProjectBuildFileParserPool implements AutoCloseable {
   public ProjectBuildFileParserPool(
       int maxParsersPerCell,
       Function<Cell, ProjectBuildFileParser> parserFactory) {
+    this(maxParsersPerCell, parserFactory, Optional.empty());
+  }
+
+  /**
+   * @param maxParsersPerCell maximum number of parsers to create for a single cell.
+   * @param parserFactory function used to create a new parser, or to take one from
+   *     {@code idleParsers}.
+   * @param idleParsers where to leave the parsers which are still healthy once the pool is closed.
+   */
+  public ProjectBuildFileParserPool(
+      int maxParsersPerCell,
+      Function<Cell, ProjectBuildFileParser> parserFactory,
+      Optional<IdleBuildFileParsers> idleParsers) {
     Preconditions.checkArgument(maxParsersPerCell > 0);
 
     this.maxParsersPerCell = maxParsersPerCell;
     this.parserResourcePools = new HashMap<>();
     this.parserFactory = parserFactory;
+    this.idleParsers = idleParsers;
     this.closing = new AtomicBoolean(false);
   }
 
@@ -74,20 +99,43 @@ class ProjectBuildFileParserPool implements AutoCloseable {
       final ListeningExecutorService executorService) {
     Preconditions.checkState(!closing.get());
 
-    return getResourcePoolForCell(cell).scheduleOperationWithResource(
-        parser -> ImmutableSet.copyOf(parser.getAllRulesAndMetaRules(buildFile)),
-        executorService);
+    ListenableFuture<Either<ImmutableSet<Map<String, Object>>, BuildFileParseException>> result =
+        getResourcePoolForCell(cell).scheduleOperationWithResource(
+            pooledParser -> {
+              ProjectBuildFileParser parser = pooledParser.parser;
+              try {
+                return Either.ofLeft(
+                    ImmutableSet.copyOf(parser.getAllRulesAndMetaRules(buildFile)));
+              } catch (BuildFileParseException e) {
+                if (!parser.isHealthy()) {
+                  throw e;
+                }
+                // Hand the error back as a value so the pool keeps this parser.
+                return Either.ofRight(e);
+              }
+            },
+            executorService);
+    return Futures.transformAsync(
+        result,
+        either -> either.isLeft() ?
+            Futures.immediateFuture(either.getLeft()) :
+            Futures.immediateFailedFuture(either.getRight()),
+        MoreExecutors.directExecutor());
+  }
+
+  public int getMaxParsersPerCell() {
+    return maxParsersPerCell;
   }
 
-  private synchronized ResourcePool<ProjectBuildFileParser> getResourcePoolForCell(Cell cell) {
-    ResourcePool<ProjectBuildFileParser> pool = parserResourcePools.get(cell);
+  private synchronized ResourcePool<PooledParser> getResourcePoolForCell(Cell cell) {
+    ResourcePool<PooledParser> pool = parserResourcePools.get(cell);
     if (pool == null) {
       pool = new ResourcePool<>(
           maxParsersPerCell,
           // If the Python process garbles the output stream then the bser codec doesn't always
           // recover and subsequent attempts at invoking the parser will fail.
           ResourcePool.ResourceUsageErrorPolicy.RETIRE,
-          () -> parserFactory.apply(cell));
+          () -> new PooledParser(parserFactory.apply(cell)));
       parserResourcePools.put(cell, pool);
     }
     return pool;
@@ -95,7 +143,7 @@ class ProjectBuildFileParserPool implements AutoCloseable {
 
   @Override
   public void close() {
-    ImmutableSet<ResourcePool<ProjectBuildFileParser>> resourcePools;
+    ImmutableSet<ResourcePool<PooledParser>> resourcePools;
     synchronized (this) {
       Preconditions.checkState(!closing.get());
       closing.set(true);
@@ -103,4 +151,25 @@ class ProjectBuildFileParserPool implements AutoCloseable {
     }
     resourcePools.forEach(ResourcePool::close);
   }
+
+  /**
+   * A parser of this pool, which is closed along with the pool unless it can be left idle.
+   */
+  private class PooledParser implements AutoCloseable {
+    private final ProjectBuildFileParser parser;
+
+    PooledParser(ProjectBuildFileParser parser) {
+      this.parser = parser;
+    }
+
+    @Override
+    public void close() throws Exception {
+      if (idleParsers.isPresent() && parser.isHealthy()) {
+        parser.release();
+        idleParsers.get().put(parser);
+      } else {
+        parser.close();
+      }
+    }
+  }
 }
@@ -68,6 +68,30 @@ abstract class AbstractCachingBuildEngineBuckConfig implements ConfigView<BuckCo
     return getDelegate().getLong("build", "artifact_cache_size_limit");
   }
 
+  /**
+   * @return the maximum number of bytes of speculatively fetched artifacts to hold on to while
+   *     waiting for the build to need them, or zero if cache prefetching is disabled.
+   */
+  public long getBuildCachePrefetchMaxBytes() {
+    return getDelegate().getLong("build", "cache_prefetch_max_bytes").orElse(0L);
+  }
+
+  /**
+   * @return whether to hash all the input files of the target graph in parallel before building,
+   *     rather than one at a time as rule keys need them.
+   */
+  public boolean getBuildPrefetchFileHashes() {
+    return getDelegate().getBooleanValue("build", "prefetch_file_hashes", false);
+  }
+
+  /**
+   * @return whether to start the rules with the longest chains of work depending on them first
+   *     when more rules are ready to build than there are threads to build them.
+   */
+  public boolean isCriticalPathSchedulingEnabled() {
+    return getDelegate().getBooleanValue("build", "critical_path_scheduling", false);
+  }
+
   /**
    * @return the maximum size of files input based rule keys will be willing to hash.
    */
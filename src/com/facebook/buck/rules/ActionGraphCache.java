@@ -25,13 +25,18 @@ import com.facebook.buck.event.listener.BroadcastEventListener;
 import com.facebook.buck.graph.AbstractBottomUpTraversal;
 import com.facebook.buck.log.Logger;
 import com.facebook.buck.model.Pair;
+import com.facebook.buck.model.UnflavoredBuildTarget;
 import com.facebook.buck.parser.NoSuchBuildTargetException;
 import com.facebook.buck.rules.keys.ContentAgnosticRuleKeyFactory;
 import com.facebook.buck.rules.keys.RuleKeyFieldLoader;
 import com.facebook.buck.util.HumanReadableException;
+import com.facebook.buck.util.MoreCollectors;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.MapDifference;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.Subscribe;
@@ -39,31 +44,94 @@ import com.google.common.hash.HashCode;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
 /**
  * Class that transforms {@link TargetGraph} to {@link ActionGraph}. It also holds a cache for the
- * last ActionGraph it generated.
+ * last few ActionGraphs it generated, keyed by the hash of their target graph.
  */
 public class ActionGraphCache {
   private static final Logger LOG = Logger.get(ActionGraphCache.class);
 
-  @Nullable
-  private Pair<TargetGraph, ActionGraphAndResolver> lastActionGraph;
+  /**
+   * Rules reused by an incremental update keep hold of the {@link BuildRuleResolver} they were
+   * created with, so every so often we build the action graph from scratch to let old resolvers
+   * be garbage-collected.
+   */
+  private static final int MAX_INCREMENTAL_UPDATES = 10;
 
-  @Nullable
-  private HashCode lastTargetGraphHash;
+  /** The default number of action graphs to keep. */
+  public static final int DEFAULT_MAX_ENTRIES = 1;
+
+  /** The default fraction of the maximum heap above which only one action graph is kept. */
+  public static final float DEFAULT_MAX_HEAP_FRACTION = 0.5f;
+
+  /**
+   * The cached action graphs, keyed by the hash of their target graph, from least to most
+   * recently used.
+   */
+  private final LinkedHashMap<HashCode, CacheEntry> cache =
+      new LinkedHashMap<>(16, 0.75f, /* accessOrder */ true);
 
   private BroadcastEventListener broadcastEventListener;
 
+  private final boolean incrementalActionGraph;
+  private final int maxEntries;
+  private final float maxHeapFraction;
+
   public ActionGraphCache(BroadcastEventListener broadcastEventListener) {
+    this(broadcastEventListener, /* incrementalActionGraph */ false);
+  }
+
+  public ActionGraphCache(
+      BroadcastEventListener broadcastEventListener,
+      boolean incrementalActionGraph) {
+    this(
+        broadcastEventListener,
+        incrementalActionGraph,
+        DEFAULT_MAX_ENTRIES,
+        DEFAULT_MAX_HEAP_FRACTION);
+  }
+
+  /**
+   * @param incrementalActionGraph if true, on a cache miss only rebuild the {@link BuildRule}s
+   *     of target nodes which changed since the cached action graph was built, along with those of
+   *     their transitive dependents, and reuse all the other rules.
+   * @param maxEntries the number of action graphs to keep, so that alternating between commands
+   *     on different targets doesn't rebuild the action graph every time.  Must be at least 1.
+   * @param maxHeapFraction once the heap in use after garbage collection exceeds this fraction of
+   *     the maximum heap size, only the most recently used action graph is kept.
+   */
+  public ActionGraphCache(
+      BroadcastEventListener broadcastEventListener,
+      boolean incrementalActionGraph,
+      int maxEntries,
+      float maxHeapFraction) {
+    Preconditions.checkArgument(maxEntries > 0);
     this.broadcastEventListener = broadcastEventListener;
+    this.incrementalActionGraph = incrementalActionGraph;
+    this.maxEntries = maxEntries;
+    this.maxHeapFraction = maxHeapFraction;
   }
 
   /**
@@ -88,37 +156,72 @@ public class ActionGraphCache {
     ActionGraphAndResolver out;
     try {
       RuleKeyFieldLoader fieldLoader = new RuleKeyFieldLoader(keySeed);
-      if (lastActionGraph != null && lastActionGraph.getFirst().equals(targetGraph)) {
+      // Try the most recently used graph first, which saves hashing the target graph when the same
+      // command is run over and over.
+      @Nullable HashCode targetGraphHash = null;
+      @Nullable CacheEntry entry = getMostRecentlyUsedEntry();
+      if (entry == null || !entry.targetGraph.equals(targetGraph)) {
+        LOG.debug("Computing TargetGraph HashCode...");
+        targetGraphHash = getTargetGraphHash(targetGraph);
+        entry = cache.get(targetGraphHash);
+      }
+      if (entry != null && entry.targetGraph.equals(targetGraph)) {
+        entry.hits++;
         eventBus.post(ActionGraphEvent.Cache.hit());
-        LOG.info("ActionGraph cache hit.");
+        LOG.info(
+            "ActionGraph cache hit. Entry hits/misses: %d/%d.",
+            entry.hits,
+            entry.misses);
         if (checkActionGraphs) {
-          compareActionGraphs(eventBus, lastActionGraph.getSecond(), targetGraph, fieldLoader);
+          compareActionGraphs(
+              eventBus,
+              entry.actionGraphAndResolver,
+              targetGraph,
+              fieldLoader);
         }
-        out = lastActionGraph.getSecond();
+        out = entry.actionGraphAndResolver;
       } else {
-        eventBus.post(ActionGraphEvent.Cache.miss(lastActionGraph == null));
-        LOG.debug("Computing TargetGraph HashCode...");
-        HashCode targetGraphHash = getTargetGraphHash(targetGraph);
-        if (lastActionGraph == null) {
+        Preconditions.checkNotNull(targetGraphHash);
+        eventBus.post(ActionGraphEvent.Cache.miss(cache.isEmpty()));
+        if (cache.isEmpty()) {
           LOG.info("ActionGraph cache miss. Cache was empty.");
-        } else if (Objects.equals(lastTargetGraphHash, targetGraphHash)) {
+        } else if (entry != null) {
           LOG.info("ActionGraph cache miss. TargetGraphs mismatched but hashes are the same.");
           eventBus.post(ActionGraphEvent.Cache.missWithTargetGraphHashMatch());
         } else {
           LOG.info("ActionGraph cache miss. TargetGraphs mismatched.");
         }
-        lastTargetGraphHash = targetGraphHash;
-        Pair<TargetGraph, ActionGraphAndResolver> freshActionGraph =
-            new Pair<TargetGraph, ActionGraphAndResolver>(
-                targetGraph,
-                createActionGraph(
-                    eventBus,
-                    new DefaultTargetNodeToBuildRuleTransformer(),
-                    targetGraph));
-        out = freshActionGraph.getSecond();
+        // Base an incremental update on the graph for the same targets if we have one, as it's
+        // likely to have the most in common with the new one.
+        @Nullable CacheEntry base = entry != null ? entry : getMostRecentlyUsedEntry();
+        boolean incremental =
+            incrementalActionGraph &&
+                base != null &&
+                base.incrementalUpdates < MAX_INCREMENTAL_UPDATES;
+        out = incremental ?
+            createIncrementalActionGraph(
+                eventBus,
+                new DefaultTargetNodeToBuildRuleTransformer(),
+                Preconditions.checkNotNull(base).targetGraph,
+                base.actionGraphAndResolver.getResolver(),
+                targetGraph) :
+            createActionGraph(
+                eventBus,
+                new DefaultTargetNodeToBuildRuleTransformer(),
+                targetGraph);
         if (!skipActionGraphCache) {
           LOG.info("ActionGraph cache assignment. skipActionGraphCache? %s", skipActionGraphCache);
-          lastActionGraph = freshActionGraph;
+          CacheEntry newEntry =
+              new CacheEntry(
+                  targetGraph,
+                  out,
+                  incremental ? Preconditions.checkNotNull(base).incrementalUpdates + 1 : 0);
+          if (entry != null) {
+            newEntry.hits = entry.hits;
+            newEntry.misses = entry.misses + 1;
+          }
+          cache.put(targetGraphHash, newEntry);
+          evictEntries(eventBus);
         }
       }
     } finally {
@@ -127,6 +230,54 @@ public class ActionGraphCache {
     return out;
   }
 
+  @Nullable
+  private CacheEntry getMostRecentlyUsedEntry() {
+    return Iterables.getLast(cache.values(), null);
+  }
+
+  /**
+   * Evict the least recently used action graphs until we're within our limits, always keeping the
+   * most recently used one.
+   */
+  private void evictEntries(BuckEventBus eventBus) {
+    boolean overHeapBudget = cache.size() > 1 && isOverHeapBudget();
+    Iterator<CacheEntry> entries = cache.values().iterator();
+    while (cache.size() > 1) {
+      ActionGraphEvent.Cache.Eviction.Reason reason;
+      if (cache.size() > maxEntries) {
+        reason = ActionGraphEvent.Cache.Eviction.Reason.CAPACITY;
+      } else if (overHeapBudget) {
+        reason = ActionGraphEvent.Cache.Eviction.Reason.HEAP_BUDGET;
+      } else {
+        break;
+      }
+      CacheEntry entry = entries.next();
+      entries.remove();
+      LOG.info(
+          "ActionGraph cache eviction (%s). Entry hits/misses: %d/%d.",
+          reason,
+          entry.hits,
+          entry.misses);
+      eventBus.post(ActionGraphEvent.Cache.eviction(reason, entry.hits, entry.misses));
+    }
+  }
+
+  /**
+   * @return whether the heap still in use after the last garbage collection exceeds our budget.
+   *     Memory freed by evicting an action graph is only reflected after the next collection, so
+   *     this errs on the side of keeping fewer graphs.
+   */
+  private boolean isOverHeapBudget() {
+    long used = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (pool.getType() == MemoryType.HEAP && usage != null) {
+        used += usage.getUsed();
+      }
+    }
+    return used > maxHeapFraction * Runtime.getRuntime().maxMemory();
+  }
+
   /**
    * * It returns a new {@link ActionGraphAndResolver} based on the targetGraph without checking
    * the cache. It uses a {@link DefaultTargetNodeToBuildRuleTransformer}.
@@ -167,7 +318,156 @@ public class ActionGraphCache {
       final BuckEventBus eventBus,
       TargetNodeToBuildRuleTransformer transformer,
       TargetGraph targetGraph) {
+    return createActionGraph(eventBus, transformer, targetGraph, ImmutableList.of());
+  }
+
+  /**
+   * Build the action graph for {@code targetGraph}, reusing the {@link BuildRule}s of
+   * {@code lastTargetGraph} which can't have changed.
+   */
+  @VisibleForTesting
+  static ActionGraphAndResolver createIncrementalActionGraph(
+      final BuckEventBus eventBus,
+      TargetNodeToBuildRuleTransformer transformer,
+      TargetGraph lastTargetGraph,
+      BuildRuleResolver lastResolver,
+      TargetGraph targetGraph) {
+    ImmutableList<BuildRule> reusedRules;
+    try (SimplePerfEvent.Scope scope = SimplePerfEvent.scope(
+        eventBus,
+        PerfEventId.of("FindReusableBuildRules"))) {
+      Set<UnflavoredBuildTarget> unchangedTargets =
+          getUnchangedTargets(lastTargetGraph, targetGraph);
+      reusedRules = getReusableBuildRules(lastResolver, unchangedTargets);
+      scope.update("unchanged_targets", unchangedTargets.size());
+      scope.update("reused_rules", reusedRules.size());
+    }
+    LOG.info(
+        "Incrementally updating ActionGraph, reusing %d of %d rules.",
+        reusedRules.size(),
+        Iterables.size(lastResolver.getBuildRules()));
+    return createActionGraph(eventBus, transformer, targetGraph, reusedRules);
+  }
+
+  /**
+   * @return the targets of {@code targetGraph} whose nodes, and those of their transitive
+   *     dependencies, are unchanged from {@code lastTargetGraph}.  Targets are unflavored, as a
+   *     node's description may create rules for any flavor of its target, so a target only counts
+   *     as unchanged if all its flavors in the graph are.
+   */
+  private static Set<UnflavoredBuildTarget> getUnchangedTargets(
+      TargetGraph lastTargetGraph,
+      TargetGraph targetGraph) {
+    Queue<TargetNode<?, ?>> changedNodes = new ArrayDeque<>();
+    for (TargetNode<?, ?> node : targetGraph.getNodes()) {
+      Optional<TargetNode<?, ?>> lastNode = lastTargetGraph.getOptional(node.getBuildTarget());
+      if (!lastNode.isPresent() || !isSameNode(lastNode.get(), node)) {
+        changedNodes.add(node);
+      }
+    }
+
+    // Anything depending on a changed node may create different rules too.
+    Set<TargetNode<?, ?>> visited = new HashSet<>();
+    Set<UnflavoredBuildTarget> changedTargets = new HashSet<>();
+    while (!changedNodes.isEmpty()) {
+      TargetNode<?, ?> node = changedNodes.remove();
+      if (visited.add(node)) {
+        changedTargets.add(node.getBuildTarget().getUnflavoredBuildTarget());
+        changedNodes.addAll(targetGraph.getIncomingNodesFor(node));
+      }
+    }
+
+    Set<UnflavoredBuildTarget> unchangedTargets = new HashSet<>();
+    for (TargetNode<?, ?> node : targetGraph.getNodes()) {
+      UnflavoredBuildTarget target = node.getBuildTarget().getUnflavoredBuildTarget();
+      if (!changedTargets.contains(target)) {
+        unchangedTargets.add(target);
+      }
+    }
+    return unchangedTargets;
+  }
+
+  private static boolean isSameNode(TargetNode<?, ?> lastNode, TargetNode<?, ?> node) {
+    if (lastNode == node) {
+      return true;
+    }
+    return lastNode.getRawInputsHashCode().equals(node.getRawInputsHashCode()) &&
+        lastNode.getDescription().getClass().equals(node.getDescription().getClass()) &&
+        lastNode.getFilesystem().equals(node.getFilesystem()) &&
+        lastNode.getParseDeps().equals(node.getParseDeps()) &&
+        lastNode.getSelectedVersions().equals(node.getSelectedVersions());
+  }
+
+  /**
+   * @return the rules of {@code lastResolver} belonging to unchanged targets all of whose
+   *     dependencies can be reused too, so that no reused rule refers to a stale one.
+   */
+  private static ImmutableList<BuildRule> getReusableBuildRules(
+      BuildRuleResolver lastResolver,
+      Set<UnflavoredBuildTarget> unchangedTargets) {
+    Map<BuildRule, Boolean> reusable = new IdentityHashMap<>();
+    Deque<BuildRule> stack = new ArrayDeque<>();
+    ImmutableList.Builder<BuildRule> reusableRules = ImmutableList.builder();
+    for (BuildRule rule : lastResolver.getBuildRules()) {
+      stack.push(rule);
+      while (!stack.isEmpty()) {
+        BuildRule current = stack.peek();
+        if (reusable.containsKey(current)) {
+          stack.pop();
+          continue;
+        }
+        if (!unchangedTargets.contains(current.getBuildTarget().getUnflavoredBuildTarget())) {
+          reusable.put(current, false);
+          stack.pop();
+          continue;
+        }
+        boolean depsReusable = true;
+        List<BuildRule> unvisitedDeps = new ArrayList<>();
+        for (BuildRule dep : getDeps(current, lastResolver)) {
+          Boolean depReusable = reusable.get(dep);
+          if (depReusable == null) {
+            unvisitedDeps.add(dep);
+          } else if (!depReusable) {
+            depsReusable = false;
+            break;
+          }
+        }
+        if (depsReusable && !unvisitedDeps.isEmpty()) {
+          unvisitedDeps.forEach(stack::push);
+        } else {
+          reusable.put(current, depsReusable);
+          stack.pop();
+        }
+      }
+      if (reusable.get(rule)) {
+        reusableRules.add(rule);
+      }
+    }
+    return reusableRules.build();
+  }
+
+  private static Iterable<BuildRule> getDeps(BuildRule rule, BuildRuleResolver resolver) {
+    if (!(rule instanceof HasRuntimeDeps)) {
+      return rule.getBuildDeps();
+    }
+    return Iterables.concat(
+        rule.getBuildDeps(),
+        ((HasRuntimeDeps) rule).getRuntimeDeps()
+            .map(resolver::getRuleOptional)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(MoreCollectors.toImmutableList()));
+  }
+
+  private static ActionGraphAndResolver createActionGraph(
+      final BuckEventBus eventBus,
+      TargetNodeToBuildRuleTransformer transformer,
+      TargetGraph targetGraph,
+      ImmutableList<BuildRule> reusedRules) {
     final BuildRuleResolver resolver = new BuildRuleResolver(targetGraph, transformer, eventBus);
+    // Reused rules are indexed up front so that any rule created afresh which depends on them
+    // gets the very same instances as the reused rules themselves refer to.
+    resolver.addAllToIndex(reusedRules);
 
     AbstractBottomUpTraversal<TargetNode<?, ?>, RuntimeException> bottomUpTraversal =
         new AbstractBottomUpTraversal<TargetNode<?, ?>, RuntimeException>(targetGraph) {
@@ -292,12 +592,43 @@ public class ActionGraphCache {
   }
 
   private void invalidateCache() {
-    lastActionGraph = null;
-    lastTargetGraphHash = null;
+    cache.clear();
   }
 
   @VisibleForTesting
   boolean isCacheEmpty() {
-    return lastActionGraph == null;
+    return cache.isEmpty();
+  }
+
+  @VisibleForTesting
+  int getCacheSize() {
+    return cache.size();
+  }
+
+  private static class CacheEntry {
+    private final TargetGraph targetGraph;
+    private final ActionGraphAndResolver actionGraphAndResolver;
+
+    /**
+     * The number of incremental updates since this entry's action graph was last built from
+     * scratch.
+     */
+    private final int incrementalUpdates;
+
+    /**
+     * The number of times this entry's action graph was reused, and the number of times the action
+     * graph for its target graph hash had to be rebuilt.
+     */
+    private int hits = 0;
+    private int misses = 1;
+
+    private CacheEntry(
+        TargetGraph targetGraph,
+        ActionGraphAndResolver actionGraphAndResolver,
+        int incrementalUpdates) {
+      this.targetGraph = targetGraph;
+      this.actionGraphAndResolver = actionGraphAndResolver;
+      this.incrementalUpdates = incrementalUpdates;
+    }
   }
 }
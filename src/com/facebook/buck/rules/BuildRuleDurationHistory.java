@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import com.facebook.buck.log.Logger;
+import com.facebook.buck.model.BuildTarget;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.eventbus.Subscribe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Remembers how long rules took to build locally, so that later builds can estimate how long they
+ * will take: the build engine to schedule rules along the critical path, the progress estimator to
+ * credit rules which are part way through, and so on.
+ *
+ * The most recent {@link #MAX_SAMPLES} durations of each target are kept, so that estimates follow
+ * the target as it changes and can be given as percentiles.  The history either lives in memory,
+ * in which case the daemon keeps it across commands, or is loaded from and saved back to a file in
+ * buck-out so that it outlives the daemon.  Register it on the event bus of each command to record
+ * the rules it builds.
+ */
+public class BuildRuleDurationHistory implements AutoCloseable {
+
+  private static final Logger LOG = Logger.get(BuildRuleDurationHistory.class);
+
+  private static final int VERSION = 0;
+
+  @VisibleForTesting
+  static final int MAX_SAMPLES = 16;
+
+  /**
+   * Recent durations, oldest first, keyed by fully qualified target name.
+   */
+  private final ConcurrentMap<String, long[]> samples;
+  private final Optional<Path> file;
+  private final AtomicBoolean modified = new AtomicBoolean(false);
+
+  public BuildRuleDurationHistory() {
+    this(new ConcurrentHashMap<>(), Optional.empty());
+  }
+
+  private BuildRuleDurationHistory(ConcurrentMap<String, long[]> samples, Optional<Path> file) {
+    this.samples = samples;
+    this.file = file;
+  }
+
+  /**
+   * Loads the history saved in the given file, if any, which {@link #close()} saves it back to.
+   */
+  public static BuildRuleDurationHistory open(Path file) {
+    ConcurrentMap<String, long[]> samples = new ConcurrentHashMap<>();
+    try (DataInputStream input =
+             new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (input.readInt() == VERSION) {
+        int numberOfTargets = input.readInt();
+        for (int i = 0; i < numberOfTargets; i++) {
+          String target = input.readUTF();
+          long[] durations = new long[input.readUnsignedByte()];
+          for (int j = 0; j < durations.length; j++) {
+            durations[j] = input.readLong();
+          }
+          samples.put(target, durations);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      // Nothing has been saved yet.
+    } catch (IOException | RuntimeException e) {
+      LOG.warn(e, "Unable to load rule durations from %s, starting afresh.", file);
+      samples.clear();
+    }
+    return new BuildRuleDurationHistory(samples, Optional.of(file));
+  }
+
+  @Subscribe
+  public void buildRuleFinished(BuildRuleEvent.Finished finished) {
+    if (finished.getSuccessType().equals(Optional.of(BuildRuleSuccessType.BUILT_LOCALLY))) {
+      record(
+          finished.getBuildRule().getBuildTarget(),
+          finished.getDuration().getWallMillisDuration());
+    }
+  }
+
+  /**
+   * Record a local build of the given target, dropping its oldest duration if it already has
+   * {@link #MAX_SAMPLES} of them.
+   */
+  public void record(BuildTarget target, long durationMillis) {
+    samples.merge(
+        target.getFullyQualifiedName(),
+        new long[] {durationMillis},
+        (previous, latest) -> {
+          long[] next =
+              previous.length < MAX_SAMPLES ?
+                  Arrays.copyOf(previous, previous.length + 1) :
+                  Arrays.copyOfRange(previous, 1, previous.length + 1);
+          next[next.length - 1] = latest[0];
+          return next;
+        });
+    modified.set(true);
+  }
+
+  /**
+   * @return how long the given target is expected to take to build locally (its median recent
+   *     duration), if it has been built before.
+   */
+  public OptionalLong getEstimatedDurationMillis(BuildTarget target) {
+    return getEstimatedDurationMillis(target.getFullyQualifiedName());
+  }
+
+  /**
+   * Same as {@link #getEstimatedDurationMillis(BuildTarget)}, for callers which identify targets
+   * by name, such as the distributed build queue.
+   */
+  public OptionalLong getEstimatedDurationMillis(String fullyQualifiedName) {
+    return getDurationPercentileMillis(fullyQualifiedName, 50);
+  }
+
+  /**
+   * @param percentile between 0 and 100.
+   * @return the given percentile of the recent durations of the target, if it has been built
+   *     before.
+   */
+  public OptionalLong getDurationPercentileMillis(BuildTarget target, double percentile) {
+    return getDurationPercentileMillis(target.getFullyQualifiedName(), percentile);
+  }
+
+  public OptionalLong getDurationPercentileMillis(String fullyQualifiedName, double percentile) {
+    Preconditions.checkArgument(percentile >= 0 && percentile <= 100);
+    long[] durations = samples.get(fullyQualifiedName);
+    if (durations == null) {
+      return OptionalLong.empty();
+    }
+    long[] sorted = durations.clone();
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+    return OptionalLong.of(sorted[Math.max(0, index)]);
+  }
+
+  /**
+   * Saves the history back to the file it was loaded from, if any, and if anything was recorded.
+   */
+  @Override
+  public void close() {
+    if (!file.isPresent() || !modified.getAndSet(false)) {
+      return;
+    }
+    Path path = file.get();
+    Map<String, long[]> snapshot = new HashMap<>(samples);
+    try {
+      Files.createDirectories(path.getParent());
+      // Write to a temporary file first, so that other Buck processes never see a partially
+      // written history.
+      Path tempFile = Files.createTempFile(path.getParent(), path.getFileName().toString(), "");
+      try (DataOutputStream output =
+               new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        output.writeInt(VERSION);
+        output.writeInt(snapshot.size());
+        for (Map.Entry<String, long[]> entry : snapshot.entrySet()) {
+          output.writeUTF(entry.getKey());
+          output.writeByte(entry.getValue().length);
+          for (long duration : entry.getValue()) {
+            output.writeLong(duration);
+          }
+        }
+      }
+      Files.move(
+          tempFile,
+          path,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      LOG.debug("Saved durations of %d rules to %s", snapshot.size(), path);
+    } catch (IOException e) {
+      LOG.warn(e, "Unable to save rule durations to %s", path);
+    }
+  }
+
+}
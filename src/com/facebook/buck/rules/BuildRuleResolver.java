@@ -110,6 +110,10 @@ public class BuildRuleResolver {
             });
   }
 
+  public TargetGraph getTargetGraph() {
+    return targetGraph;
+  }
+
   /**
    * @return an unmodifiable view of the rules in the index
    */
@@ -0,0 +1,574 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import com.facebook.buck.artifact_cache.ArtifactCache;
+import com.facebook.buck.artifact_cache.CacheResult;
+import com.facebook.buck.artifact_cache.CacheResultType;
+import com.facebook.buck.io.LazyPath;
+import com.facebook.buck.io.MoreFiles;
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.log.Logger;
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.util.MoreCollectors;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Speculatively fetches artifacts for rules whose keys are known, before the build engine gets
+ * around to looking them up, so that the round trips to a high-latency cache overlap with the rest
+ * of the build rather than being paid one level of the action graph at a time.  Fetches go out in
+ * batches, one at a time, each a single {@link ArtifactCache#multiFetch(ImmutableMap)} which the
+ * cache can overlap or batch the requests of.  Whatever queues up while a batch is out, typically
+ * the frontier of rules whose keys have just been computed, goes out together in the next one.
+ *
+ * Fetched artifacts wait in zip files under {@code buck-out}'s temporary directory until the
+ * engine claims them.  Each prefetcher keeps them in a directory of its own, which it locks while
+ * in use and deletes when closed, and deletes the directories of prefetchers whose processes died.
+ * The total size of the unclaimed artifacts is bounded by a byte budget, as is the number of
+ * requests in flight, so that speculative fetches never crowd out the lookups the engine actually
+ * needs.  While the byte budget is spent, queued rules are instead checked for with
+ * {@link ArtifactCache#multiContains(ImmutableSet)}, which downloads nothing, so that the engine
+ * can skip its own lookup for the ones the cache doesn't have.  Prefetches that turn out to be
+ * unnecessary, e.g. because the rule's output is already on disk, are cancelled and their
+ * artifacts deleted.
+ */
+class CachePrefetcher implements AutoCloseable {
+
+  private static final Logger LOG = Logger.get(CachePrefetcher.class);
+
+  // Under buck-out's temporary directory.
+  private static final String PREFETCH_DIR = "prefetch";
+
+  private enum State {
+    QUEUED,
+    CHECKING,
+    RUNNING,
+    DONE,
+    CLAIMED,
+    CANCELLED,
+  }
+
+  /**
+   * An artifact fetched, or being fetched, on behalf of a rule.
+   */
+  static class Prefetch {
+    private final BuildTarget target;
+    private final RuleKey ruleKey;
+    private final ArtifactCache artifactCache;
+    private final BooleanSupplier isNeeded;
+    private final LazyPath output;
+    private final SettableFuture<CacheResult> result = SettableFuture.create();
+
+    private State state = State.QUEUED;
+    private boolean checked = false;
+    private long sizeBytes = 0L;
+    @Nullable
+    private volatile Path createdOutput = null;
+
+    private Prefetch(
+        CachePrefetcher prefetcher,
+        BuildTarget target,
+        RuleKey ruleKey,
+        ArtifactCache artifactCache,
+        ProjectFilesystem filesystem,
+        BooleanSupplier isNeeded) {
+      this.target = target;
+      this.ruleKey = ruleKey;
+      this.artifactCache = artifactCache;
+      this.isNeeded = isNeeded;
+      this.output = new LazyPath() {
+        @Override
+        protected Path create() throws IOException {
+          // Next to buck-out, so that caches on the same device can hard link the artifact.
+          createdOutput = Files.createTempFile(
+              prefetcher.getDirectory(filesystem),
+              "buck_prefetch_" + MoreFiles.sanitize(target.getShortName()),
+              ".zip");
+          return createdOutput;
+        }
+      };
+    }
+
+    /**
+     * @return the result of the fetch.  A {@link CacheResultType#HIT} means the artifact has been
+     *     written to {@link #getOutput()}.
+     */
+    public ListenableFuture<CacheResult> getResult() {
+      return result;
+    }
+
+    public LazyPath getOutput() {
+      return output;
+    }
+  }
+
+  private final ListeningExecutorService service;
+  private final long maxBytes;
+  private final int maxInFlight;
+
+  private final Map<BuildTarget, Prefetch> prefetches = new HashMap<>();
+  private final Map<Path, PrefetchDirectory> directories = new HashMap<>();
+  private final ArrayDeque<Prefetch> queue = new ArrayDeque<>();
+  private long bytesHeld = 0L;
+  private int inFlight = 0;
+  private boolean draining = false;
+
+  /**
+   * @param service where to run the fetches.
+   * @param maxBytes the most bytes of fetched but unclaimed artifacts to hold on to before holding
+   *     back further fetches.  Fetches already under way may take it over by up to
+   *     {@code maxInFlight} artifacts.
+   * @param maxInFlight the most rule keys to fetch or check for in one batch.
+   */
+  CachePrefetcher(ListeningExecutorService service, long maxBytes, int maxInFlight) {
+    Preconditions.checkArgument(maxBytes > 0);
+    Preconditions.checkArgument(maxInFlight > 0);
+    this.service = service;
+    this.maxBytes = maxBytes;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Queue a fetch of the artifact for the given rule, unless one has already been requested.
+   *
+   * @param isNeeded checked just before going to the cache, so that rules whose artifacts turn out
+   *     not to be needed after all, e.g. because they're up to date on disk, are left alone.
+   */
+  synchronized void prefetch(
+      BuildTarget target,
+      RuleKey ruleKey,
+      ArtifactCache artifactCache,
+      ProjectFilesystem filesystem,
+      BooleanSupplier isNeeded) {
+    if (prefetches.containsKey(target)) {
+      return;
+    }
+    Prefetch prefetch =
+        new Prefetch(this, target, ruleKey, artifactCache, filesystem, isNeeded);
+    prefetches.put(target, prefetch);
+    queue.add(prefetch);
+    drain();
+  }
+
+  /**
+   * Take over the prefetch for the given rule.  Only fetches which are already under way, or which
+   * have found the artifact missing, are handed over; queued ones are dropped, as the caller is
+   * better off doing the lookup itself than waiting for its turn.  The caller becomes responsible
+   * for the artifact written to {@link Prefetch#getOutput()}.
+   */
+  synchronized Optional<Prefetch> claim(BuildTarget target, RuleKey ruleKey) {
+    Prefetch prefetch = prefetches.remove(target);
+    if (prefetch == null) {
+      return Optional.empty();
+    }
+    if (!prefetch.ruleKey.equals(ruleKey) ||
+        (prefetch.state != State.RUNNING && prefetch.state != State.DONE)) {
+      cancel(prefetch);
+      return Optional.empty();
+    }
+    if (prefetch.state == State.DONE) {
+      bytesHeld -= prefetch.sizeBytes;
+    }
+    prefetch.state = State.CLAIMED;
+    drain();
+    return Optional.of(prefetch);
+  }
+
+  /**
+   * Give up on the prefetch for the given rule, deleting its artifact if it's already been fetched.
+   */
+  synchronized void cancel(BuildTarget target) {
+    Prefetch prefetch = prefetches.remove(target);
+    if (prefetch != null) {
+      cancel(prefetch);
+      drain();
+    }
+  }
+
+  /**
+   * Give up on all outstanding prefetches.
+   */
+  synchronized void cancelAll() {
+    List<Prefetch> outstanding = new ArrayList<>(prefetches.values());
+    prefetches.clear();
+    queue.clear();
+    for (Prefetch prefetch : outstanding) {
+      cancel(prefetch);
+    }
+  }
+
+  /**
+   * Give up on all outstanding prefetches and delete the directories their artifacts went to.
+   * Artifacts which have been claimed must have been dealt with by now.
+   */
+  @Override
+  public synchronized void close() {
+    cancelAll();
+    for (PrefetchDirectory directory : directories.values()) {
+      directory.close();
+    }
+    directories.clear();
+  }
+
+  @VisibleForTesting
+  synchronized long getBytesHeld() {
+    return bytesHeld;
+  }
+
+  private void cancel(Prefetch prefetch) {
+    State previous = prefetch.state;
+    prefetch.state = State.CANCELLED;
+    if (previous == State.DONE) {
+      bytesHeld -= prefetch.sizeBytes;
+      deleteOutput(prefetch);
+    }
+    // Running fetches can't be safely interrupted, so they clean up after themselves once they
+    // finish.
+  }
+
+  private void drain() {
+    // With a direct executor, fetches complete (and call back into here) before they're submitted,
+    // so don't recurse: the outer loop will pick up where they left off.
+    if (draining) {
+      return;
+    }
+    draining = true;
+    try {
+      while (inFlight == 0) {
+        if (bytesHeld < maxBytes) {
+          List<Prefetch> batch = takeBatch(maxInFlight, /* uncheckedOnly */ false);
+          if (batch.isEmpty()) {
+            break;
+          }
+          for (Prefetch prefetch : batch) {
+            prefetch.state = State.RUNNING;
+          }
+          inFlight += batch.size();
+          service.execute(() -> fetch(batch));
+        } else {
+          List<Prefetch> batch = takeBatch(maxInFlight, /* uncheckedOnly */ true);
+          if (batch.isEmpty()) {
+            break;
+          }
+          for (Prefetch prefetch : batch) {
+            prefetch.state = State.CHECKING;
+          }
+          inFlight += batch.size();
+          service.execute(() -> check(batch));
+        }
+      }
+    } finally {
+      draining = false;
+    }
+  }
+
+  /**
+   * Takes up to {@code limit} queued prefetches for distinct rule keys from the same cache off the
+   * front of the queue.
+   */
+  private List<Prefetch> takeBatch(int limit, boolean uncheckedOnly) {
+    List<Prefetch> batch = new ArrayList<>();
+    Iterator<Prefetch> iterator = queue.iterator();
+    while (batch.size() < limit && iterator.hasNext()) {
+      Prefetch prefetch = iterator.next();
+      if (prefetch.state != State.QUEUED) {
+        iterator.remove();
+      } else if (!(uncheckedOnly && prefetch.checked) &&
+          (batch.isEmpty() ||
+              (batch.get(0).artifactCache == prefetch.artifactCache &&
+                  batch.stream().noneMatch(other -> other.ruleKey.equals(prefetch.ruleKey))))) {
+        iterator.remove();
+        batch.add(prefetch);
+      }
+    }
+    return batch;
+  }
+
+  private void fetch(List<Prefetch> batch) {
+    Map<Prefetch, CacheResult> results = new HashMap<>();
+    try {
+      List<Prefetch> needed = new ArrayList<>();
+      for (Prefetch prefetch : batch) {
+        if (prefetch.isNeeded.getAsBoolean()) {
+          needed.add(prefetch);
+        } else {
+          results.put(prefetch, CacheResult.ignored());
+        }
+      }
+      if (!needed.isEmpty()) {
+        ImmutableMap<RuleKey, LazyPath> outputs = needed.stream()
+            .collect(MoreCollectors.toImmutableMap(
+                prefetch -> prefetch.ruleKey,
+                prefetch -> prefetch.output));
+        ImmutableMap<RuleKey, CacheResult> fetched =
+            needed.get(0).artifactCache.multiFetch(outputs);
+        for (Prefetch prefetch : needed) {
+          results.put(
+              prefetch,
+              Optional.ofNullable(fetched.get(prefetch.ruleKey)).orElse(CacheResult.ignored()));
+        }
+      }
+    } catch (RuntimeException e) {
+      LOG.error(e, "Buck internal error when prefetching from the cache.");
+      for (Prefetch prefetch : batch) {
+        results.putIfAbsent(prefetch, CacheResult.error("unknown", e.getMessage()));
+      }
+    } finally {
+      for (Prefetch prefetch : batch) {
+        results.putIfAbsent(prefetch, CacheResult.ignored());
+      }
+      finished(results);
+    }
+  }
+
+  private void check(List<Prefetch> batch) {
+    Map<Prefetch, CacheResult> results = new HashMap<>();
+    try {
+      List<Prefetch> needed = new ArrayList<>();
+      for (Prefetch prefetch : batch) {
+        if (prefetch.isNeeded.getAsBoolean()) {
+          needed.add(prefetch);
+        } else {
+          results.put(prefetch, CacheResult.ignored());
+        }
+      }
+      if (!needed.isEmpty()) {
+        ImmutableSet<RuleKey> ruleKeys = needed.stream()
+            .map(prefetch -> prefetch.ruleKey)
+            .collect(MoreCollectors.toImmutableSet());
+        ImmutableMap<RuleKey, CacheResult> contained =
+            needed.get(0).artifactCache.multiContains(ruleKeys);
+        for (Prefetch prefetch : needed) {
+          CacheResult result = contained.get(prefetch.ruleKey);
+          if (result != null && result.getType() == CacheResultType.MISS) {
+            results.put(prefetch, result);
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      LOG.error(e, "Buck internal error when checking the cache for prefetches.");
+    } finally {
+      checked(batch, results);
+    }
+  }
+
+  /**
+   * Completes the prefetches a check found an answer for, and requeues the rest to be fetched once
+   * there's room in the byte budget.
+   */
+  private void checked(List<Prefetch> batch, Map<Prefetch, CacheResult> results) {
+    Map<Prefetch, CacheResult> completed = new HashMap<>();
+    synchronized (this) {
+      inFlight -= batch.size();
+      List<Prefetch> requeue = new ArrayList<>();
+      for (Prefetch prefetch : batch) {
+        if (prefetch.state != State.CHECKING) {
+          continue;
+        }
+        CacheResult result = results.get(prefetch);
+        if (result == null) {
+          prefetch.state = State.QUEUED;
+          prefetch.checked = true;
+          requeue.add(prefetch);
+        } else {
+          prefetch.state = State.DONE;
+          completed.put(prefetch, result);
+        }
+      }
+      for (Prefetch prefetch : Lists.reverse(requeue)) {
+        queue.addFirst(prefetch);
+      }
+      drain();
+    }
+    for (Map.Entry<Prefetch, CacheResult> entry : completed.entrySet()) {
+      entry.getKey().result.set(entry.getValue());
+    }
+  }
+
+  private void finished(Map<Prefetch, CacheResult> results) {
+    synchronized (this) {
+      inFlight -= results.size();
+      for (Map.Entry<Prefetch, CacheResult> entry : results.entrySet()) {
+        Prefetch prefetch = entry.getKey();
+        if (prefetch.state == State.RUNNING) {
+          prefetch.state = State.DONE;
+          if (entry.getValue().getType() == CacheResultType.HIT) {
+            prefetch.sizeBytes = getOutputSize(prefetch);
+            bytesHeld += prefetch.sizeBytes;
+          }
+        } else if (prefetch.state == State.CANCELLED) {
+          deleteOutput(prefetch);
+        }
+      }
+      drain();
+    }
+    for (Map.Entry<Prefetch, CacheResult> entry : results.entrySet()) {
+      entry.getKey().result.set(entry.getValue());
+    }
+  }
+
+  /**
+   * @return the absolute path of the directory this prefetcher keeps the artifacts of the given
+   *     filesystem's rules in, creating it first if need be.
+   */
+  private synchronized Path getDirectory(ProjectFilesystem filesystem) throws IOException {
+    Path parent =
+        filesystem.resolve(filesystem.getBuckPaths().getTmpDir()).resolve(PREFETCH_DIR);
+    PrefetchDirectory directory = directories.get(parent);
+    if (directory == null) {
+      directory = PrefetchDirectory.create(parent);
+      directories.put(parent, directory);
+    }
+    return directory.path;
+  }
+
+  private static long getOutputSize(Prefetch prefetch) {
+    Path output = prefetch.createdOutput;
+    try {
+      return output == null ? 0L : Files.size(output);
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+
+  private static void deleteOutput(Prefetch prefetch) {
+    Path output = prefetch.createdOutput;
+    if (output == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(output);
+    } catch (IOException e) {
+      LOG.warn(e, "Failed to delete prefetched artifact for %s", prefetch.target);
+    }
+  }
+
+  /**
+   * A directory of prefetched artifacts, locked by the prefetcher using it.  Directories whose
+   * locks nobody holds were left behind by a process which died, and are deleted whenever a new
+   * one is created beside them.
+   */
+  private static class PrefetchDirectory {
+    private static final String LOCK_SUFFIX = ".lock";
+    // Guards the lock file in the parent directory, which file locks alone can't do within a JVM.
+    private static final Object CREATION_LOCK = new Object();
+    // Directories in use in this process.  Their lock files mustn't even be opened, since closing
+    // any channel on a file may release the locks the whole JVM holds on it.
+    private static final Set<Path> IN_USE = ConcurrentHashMap.newKeySet();
+
+    private final Path path;
+    private final FileChannel lockChannel;
+
+    private PrefetchDirectory(Path path, FileChannel lockChannel) {
+      this.path = path;
+      this.lockChannel = lockChannel;
+    }
+
+    /**
+     * Creates a new directory in {@code parent}, first deleting any stale ones there.  Done while
+     * holding a lock on the parent, so that a directory which is still being set up is never
+     * mistaken for a stale one.
+     */
+    static PrefetchDirectory create(Path parent) throws IOException {
+      Files.createDirectories(parent);
+      synchronized (CREATION_LOCK) {
+        try (FileChannel parentChannel = openLockFile(parent.resolve(LOCK_SUFFIX));
+             FileLock parentLock = parentChannel.lock()) {
+          deleteStaleDirectories(parent);
+          Path path = Files.createTempDirectory(parent, "prefetch");
+          FileChannel lockChannel = openLockFile(getLockFile(path));
+          try {
+            // Nobody else can have found this file yet, so this doesn't block.
+            lockChannel.lock();
+          } catch (IOException e) {
+            lockChannel.close();
+            throw e;
+          }
+          IN_USE.add(path);
+          return new PrefetchDirectory(path, lockChannel);
+        }
+      }
+    }
+
+    void close() {
+      try {
+        MoreFiles.deleteRecursivelyIfExists(path);
+        Files.deleteIfExists(getLockFile(path));
+        lockChannel.close();
+      } catch (IOException e) {
+        LOG.warn(e, "Failed to delete prefetched artifacts in %s", path);
+      } finally {
+        IN_USE.remove(path);
+      }
+    }
+
+    private static void deleteStaleDirectories(Path parent) throws IOException {
+      try (DirectoryStream<Path> entries = Files.newDirectoryStream(parent)) {
+        for (Path entry : entries) {
+          if (Files.isDirectory(entry) && !IN_USE.contains(entry) && isStale(entry)) {
+            LOG.debug("Deleting stale prefetched artifacts in %s", entry);
+            MoreFiles.deleteRecursivelyIfExists(entry);
+            Files.deleteIfExists(getLockFile(entry));
+          }
+        }
+      }
+    }
+
+    private static boolean isStale(Path directory) throws IOException {
+      try (FileChannel channel = openLockFile(getLockFile(directory));
+           FileLock lock = channel.tryLock()) {
+        return lock != null;
+      }
+    }
+
+    private static Path getLockFile(Path directory) {
+      return directory.resolveSibling(directory.getFileName() + LOCK_SUFFIX);
+    }
+
+    private static FileChannel openLockFile(Path lockFile) throws IOException {
+      return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+  }
+
+}
@@ -123,6 +123,10 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
       0, 0, 1, 0);
   public static final ResourceAmounts SCHEDULING_MORE_WORK_RESOURCE_AMOUNTS = ResourceAmounts.ZERO;
 
+  // The most speculative cache fetches to have in flight at once, leaving room on the cache
+  // activity service for the lookups the build is actually waiting on.
+  private static final int CACHE_PREFETCH_MAX_IN_FLIGHT = 8;
+
   private static final String BUILD_RULE_TYPE_CONTEXT_KEY = "build_rule_type";
   private static final String STEP_TYPE_CONTEXT_KEY = "step_type";
 
@@ -161,6 +165,8 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
   private final FileHashCache fileHashCache;
   private final RuleKeyFactories ruleKeyFactories;
   private final ResourceAwareSchedulingInfo resourceAwareSchedulingInfo;
+  private final Optional<CachePrefetcher> cachePrefetcher;
+  private final Optional<BuildRuleDurationHistory> criticalPathHistory;
 
   private final RuleDepsCache ruleDeps;
   private final Optional<UnskippedRulesTracker> unskippedRulesTracker;
@@ -169,6 +175,12 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
 
   private final ConcurrentHashMap<Path, BuildInfoStore> buildInfoStores = new ConcurrentHashMap<>();
 
+  /**
+   * Priorities with which to build rules locally, as computed by {@link CriticalPathPriorities}
+   * when critical path scheduling is enabled.
+   */
+  private volatile ImmutableMap<BuildTarget, Long> criticalPathPriorities = ImmutableMap.of();
+
   public CachingBuildEngine(
       CachingBuildEngineDelegate cachingBuildEngineDelegate,
       WeightedListeningExecutorService service,
@@ -179,8 +191,10 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
       DepFiles depFiles,
       long maxDepFileCacheEntries,
       Optional<Long> artifactCacheSizeLimit,
+      long cachePrefetchMaxBytes,
       final BuildRuleResolver resolver,
       ResourceAwareSchedulingInfo resourceAwareSchedulingInfo,
+      Optional<BuildRuleDurationHistory> criticalPathHistory,
       RuleKeyFactories ruleKeyFactories) {
     this.cachingBuildEngineDelegate = cachingBuildEngineDelegate;
 
@@ -199,6 +213,14 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
     this.fileHashCache = cachingBuildEngineDelegate.getFileHashCache();
     this.ruleKeyFactories = ruleKeyFactories;
     this.resourceAwareSchedulingInfo = resourceAwareSchedulingInfo;
+    this.cachePrefetcher = cachePrefetchMaxBytes > 0 ?
+        Optional.of(
+            new CachePrefetcher(
+                artifactFetchService.withDefaultAmounts(CACHE_CHECK_RESOURCE_AMOUNTS),
+                cachePrefetchMaxBytes,
+                CACHE_PREFETCH_MAX_IN_FLIGHT)) :
+        Optional.empty();
+    this.criticalPathHistory = criticalPathHistory;
 
     this.ruleDeps = new RuleDepsCache(service, resolver);
     this.unskippedRulesTracker =
@@ -227,7 +249,8 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
       SourcePathRuleFinder ruleFinder,
       SourcePathResolver pathResolver,
       RuleKeyFactories ruleKeyFactories,
-      ResourceAwareSchedulingInfo resourceAwareSchedulingInfo) {
+      ResourceAwareSchedulingInfo resourceAwareSchedulingInfo,
+      Optional<BuildRuleDurationHistory> criticalPathHistory) {
     this.cachingBuildEngineDelegate = cachingBuildEngineDelegate;
 
     this.service = service;
@@ -245,6 +268,8 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
     this.fileHashCache = cachingBuildEngineDelegate.getFileHashCache();
     this.ruleKeyFactories = ruleKeyFactories;
     this.resourceAwareSchedulingInfo = resourceAwareSchedulingInfo;
+    this.cachePrefetcher = Optional.empty();
+    this.criticalPathHistory = criticalPathHistory;
 
     this.ruleDeps = new RuleDepsCache(service, resolver);
     this.unskippedRulesTracker =
@@ -254,6 +279,7 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
 
   @Override
   public void close() {
+    cachePrefetcher.ifPresent(CachePrefetcher::close);
     for (BuildInfoStore store : buildInfoStores.values()) {
       store.close();
     }
@@ -364,7 +390,8 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
                   cacheResult);
             }
           },
-          getRuleResourceAmounts(rule));
+          getRuleResourceAmounts(rule),
+          criticalPathPriorities.getOrDefault(rule.getBuildTarget(), 0L));
     };
   }
 
@@ -524,6 +551,7 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
           onDiskBuildInfo.getRuleKey(BuildInfo.MetadataKey.RULE_KEY);
       final RuleKey defaultRuleKey = ruleKeyFactories.getDefaultRuleKeyFactory().build(rule);
       if (defaultRuleKey.equals(cachedRuleKey.orElse(null))) {
+        cachePrefetcher.ifPresent(prefetcher -> prefetcher.cancel(rule.getBuildTarget()));
         return Futures.transform(
             markRuleAsUsed(rule, buildContext.getEventBus()),
             Functions.constant(
@@ -533,29 +561,52 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
                     CacheResult.localKeyUnchangedHit())));
       }
 
-      // 2. Rule key cache lookup.
+      // 2. Rule key cache lookup, picking up the artifact from the prefetcher if it has already
+      // gone looking for it.
+      Optional<CachePrefetcher.Prefetch> prefetch =
+          cachePrefetcher.flatMap(
+              prefetcher -> prefetcher.claim(rule.getBuildTarget(), defaultRuleKey));
       ListenableFuture<CacheResult> rulekeyCacheResult =
-          cacheActivityService.submit(
-              () -> {
-                CacheResult cacheResult =
-                    tryToFetchArtifactFromBuildCacheAndOverlayOnTopOfProjectFilesystem(
-                        rule,
-                        defaultRuleKey,
-                        buildContext.getArtifactCache(),
-                        // TODO(simons): This should be a shared between all tests, not one per cell
-                        rule.getProjectFilesystem(),
-                        buildContext);
-                if (cacheResult.getType().isSuccess()) {
-                  fillMissingBuildMetadataFromCache(
-                      cacheResult,
-                      buildInfoRecorder,
-                      BuildInfo.MetadataKey.INPUT_BASED_RULE_KEY,
-                      BuildInfo.MetadataKey.DEP_FILE_RULE_KEY,
-                      BuildInfo.MetadataKey.DEP_FILE);
-                }
-                return cacheResult;
-              },
-              CACHE_CHECK_RESOURCE_AMOUNTS);
+          Futures.transformAsync(
+              prefetch.isPresent() ?
+                  prefetch.get().getResult() :
+                  Futures.immediateFuture(CacheResult.ignored()),
+              prefetchResult -> cacheActivityService.submit(
+                  () -> {
+                    CacheResult cacheResult;
+                    if (prefetch.isPresent() &&
+                        prefetchResult.getType() != CacheResultType.IGNORED) {
+                      cacheResult =
+                          unzipArtifactFromCacheResult(
+                              rule,
+                              defaultRuleKey,
+                              prefetch.get().getOutput(),
+                              buildContext,
+                              rule.getProjectFilesystem(),
+                              prefetchResult);
+                    } else {
+                      cacheResult =
+                          tryToFetchArtifactFromBuildCacheAndOverlayOnTopOfProjectFilesystem(
+                              rule,
+                              defaultRuleKey,
+                              buildContext.getArtifactCache(),
+                              // TODO(simons): This should be a shared between all tests, not one
+                              // per cell
+                              rule.getProjectFilesystem(),
+                              buildContext);
+                    }
+                    if (cacheResult.getType().isSuccess()) {
+                      fillMissingBuildMetadataFromCache(
+                          cacheResult,
+                          buildInfoRecorder,
+                          BuildInfo.MetadataKey.INPUT_BASED_RULE_KEY,
+                          BuildInfo.MetadataKey.DEP_FILE_RULE_KEY,
+                          BuildInfo.MetadataKey.DEP_FILE);
+                    }
+                    return cacheResult;
+                  },
+                  CACHE_CHECK_RESOURCE_AMOUNTS),
+              MoreExecutors.directExecutor());
 
       return Futures.transformAsync(
           rulekeyCacheResult,
@@ -1231,7 +1282,7 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
 
   // Provide a future that resolves to the result of executing this rule and its runtime
   // dependencies.
-  private ListenableFuture<BuildResult> getBuildRuleResultWithRuntimeDepsUnlocked(
+  private ListenableFuture<BuildResult> getBuildRuleResultWithRuntimeDeps(
       final BuildRule rule,
       final BuildEngineBuildContext buildContext,
       final ExecutionContext executionContext,
@@ -1243,6 +1294,36 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
       return existingResult;
     }
 
+    // Otherwise, race to install a placeholder future for this rule.  Only the thread which wins
+    // the race goes on to schedule the work, everyone else just waits on the placeholder, so we
+    // never need to take a lock which would serialize all rules behind one another.
+    SettableFuture<BuildResult> placeholder = SettableFuture.create();
+    existingResult = results.putIfAbsent(rule.getBuildTarget(), placeholder);
+    if (existingResult != null) {
+      return existingResult;
+    }
+
+    // Everyone else is waiting on the placeholder, so it must be completed even if scheduling the
+    // work fails, or they would hang forever.
+    try {
+      placeholder.setFuture(
+          scheduleBuildRuleResultWithRuntimeDeps(
+              rule,
+              buildContext,
+              executionContext,
+              asyncCallbacks));
+    } catch (RuntimeException e) {
+      placeholder.setException(e);
+    }
+    return placeholder;
+  }
+
+  private ListenableFuture<BuildResult> scheduleBuildRuleResultWithRuntimeDeps(
+      final BuildRule rule,
+      final BuildEngineBuildContext buildContext,
+      final ExecutionContext executionContext,
+      final ConcurrentLinkedQueue<ListenableFuture<Void>> asyncCallbacks) {
+
     // Get the future holding the result for this rule and, if we have no additional runtime deps
     // to attach, return it.
     ListenableFuture<RuleKey> ruleKey = calculateRuleKey(rule, buildContext);
@@ -1252,7 +1333,6 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
             input -> processBuildRule(rule, buildContext, executionContext, asyncCallbacks),
             serviceByAdjustingDefaultWeightsTo(SCHEDULING_MORE_WORK_RESOURCE_AMOUNTS));
     if (!(rule instanceof HasRuntimeDeps)) {
-      results.put(rule.getBuildTarget(), result);
       return result;
     }
 
@@ -1263,7 +1343,7 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
         runtimeDepPaths.collect(MoreCollectors.toImmutableSet()));
     for (BuildRule dep : runtimeDeps) {
       runtimeDepResults.add(
-          getBuildRuleResultWithRuntimeDepsUnlocked(
+          getBuildRuleResultWithRuntimeDeps(
               dep,
               buildContext,
               executionContext,
@@ -1273,39 +1353,13 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
     // Create a new combined future, which runs the original rule and all the runtime deps in
     // parallel, but which propagates an error if any one of them fails.
     // It also checks that all runtime deps succeeded.
-    ListenableFuture<BuildResult> chainedResult =
-        Futures.transformAsync(
-            Futures.allAsList(runtimeDepResults),
-            results ->
-                !buildContext.isKeepGoing() && firstFailure != null ?
-                    Futures.immediateFuture(BuildResult.canceled(rule, firstFailure)) :
-                    result,
-            MoreExecutors.directExecutor());
-    results.put(rule.getBuildTarget(), chainedResult);
-    return chainedResult;
-  }
-
-  private ListenableFuture<BuildResult> getBuildRuleResultWithRuntimeDeps(
-      BuildRule rule,
-      BuildEngineBuildContext buildContext,
-      ExecutionContext executionContext,
-      ConcurrentLinkedQueue<ListenableFuture<Void>> asyncCallbacks) {
-
-    // If the rule is already executing, return it's result future from the cache without acquiring
-    // the lock.
-    ListenableFuture<BuildResult> existingResult = results.get(rule.getBuildTarget());
-    if (existingResult != null) {
-      return existingResult;
-    }
-
-    // Otherwise, grab the lock and delegate to the real method,
-    synchronized (results) {
-      return getBuildRuleResultWithRuntimeDepsUnlocked(
-          rule,
-          buildContext,
-          executionContext,
-          asyncCallbacks);
-    }
+    return Futures.transformAsync(
+        Futures.allAsList(runtimeDepResults),
+        results ->
+            !buildContext.isKeepGoing() && firstFailure != null ?
+                Futures.immediateFuture(BuildResult.canceled(rule, firstFailure)) :
+                result,
+        MoreExecutors.directExecutor());
   }
 
   public ListenableFuture<?> walkRule(
@@ -1336,52 +1390,109 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
       }
     }
     Futures.getUnchecked(Futures.allAsList(results.build()));
+    if (criticalPathHistory.isPresent()) {
+      // Having walked the whole graph, we may as well rank the rules for scheduling while we're at
+      // it.
+      criticalPathPriorities =
+          CriticalPathPriorities.compute(seen, ruleDeps::getComputed, criticalPathHistory.get());
+    }
     return seen.size();
   }
 
-  private synchronized ListenableFuture<RuleKey> calculateRuleKey(
+  private ListenableFuture<RuleKey> calculateRuleKey(
       final BuildRule rule,
       final BuildEngineBuildContext context) {
-    ListenableFuture<RuleKey> ruleKey = ruleKeys.get(rule.getBuildTarget());
-    if (ruleKey == null) {
-
-      // Grab all the dependency rule key futures.  Since our rule key calculation depends on this
-      // one, we need to wait for them to complete.
-      ListenableFuture<List<RuleKey>> depKeys =
-          Futures.transformAsync(
-              ruleDeps.get(rule),
-              deps -> {
-                List<ListenableFuture<RuleKey>> depKeys1 =
-                    Lists.newArrayListWithExpectedSize(rule.getBuildDeps().size());
-                for (BuildRule dep : deps) {
-                  depKeys1.add(calculateRuleKey(dep, context));
-                }
-                return Futures.allAsList(depKeys1);
-              },
-              serviceByAdjustingDefaultWeightsTo(RULE_KEY_COMPUTATION_RESOURCE_AMOUNTS));
-
-      // Setup a future to calculate this rule key once the dependencies have been calculated.
-      ruleKey = Futures.transform(
-          depKeys,
-          (List<RuleKey> input) -> {
-            try (BuildRuleEvent.Scope scope =
-                     BuildRuleEvent.ruleKeyCalculationScope(
-                         context.getEventBus(),
-                         rule,
-                         buildRuleDurationTracker,
-                         ruleKeyFactories.getDefaultRuleKeyFactory())) {
-              return ruleKeyFactories.getDefaultRuleKeyFactory().build(rule);
-            }
-          },
-          serviceByAdjustingDefaultWeightsTo(RULE_KEY_COMPUTATION_RESOURCE_AMOUNTS));
+    ListenableFuture<RuleKey> existingRuleKey = ruleKeys.get(rule.getBuildTarget());
+    if (existingRuleKey != null) {
+      return existingRuleKey;
+    }
 
-      // Record the rule key future.
-      ruleKeys.put(rule.getBuildTarget(), ruleKey);
+    // Install a placeholder future for this rule key, and only set up the calculation if we were
+    // the ones to install it.  Losing the race means someone else is already on the job.
+    SettableFuture<RuleKey> ruleKey = SettableFuture.create();
+    existingRuleKey = ruleKeys.putIfAbsent(rule.getBuildTarget(), ruleKey);
+    if (existingRuleKey != null) {
+      return existingRuleKey;
     }
 
+    // As above, the placeholder must be completed even if setting up the calculation fails.
+    try {
+      ruleKey.setFuture(scheduleRuleKeyCalculation(rule, context));
+    } catch (RuntimeException e) {
+      ruleKey.setException(e);
+    }
     return ruleKey;
   }
 
+  private ListenableFuture<RuleKey> scheduleRuleKeyCalculation(
+      final BuildRule rule,
+      final BuildEngineBuildContext context) {
+    // Grab all the dependency rule key futures.  Since our rule key calculation depends on this
+    // one, we need to wait for them to complete.
+    ListenableFuture<List<RuleKey>> depKeys =
+        Futures.transformAsync(
+            ruleDeps.get(rule),
+            deps -> {
+              List<ListenableFuture<RuleKey>> depKeys1 =
+                  Lists.newArrayListWithExpectedSize(rule.getBuildDeps().size());
+              for (BuildRule dep : deps) {
+                depKeys1.add(calculateRuleKey(dep, context));
+              }
+              return Futures.allAsList(depKeys1);
+            },
+            serviceByAdjustingDefaultWeightsTo(RULE_KEY_COMPUTATION_RESOURCE_AMOUNTS));
+
+    // Setup a future to calculate this rule key once the dependencies have been calculated.
+    return Futures.transform(
+        depKeys,
+        (List<RuleKey> input) -> {
+          try (BuildRuleEvent.Scope scope =
+                   BuildRuleEvent.ruleKeyCalculationScope(
+                       context.getEventBus(),
+                       rule,
+                       buildRuleDurationTracker,
+                       ruleKeyFactories.getDefaultRuleKeyFactory())) {
+            RuleKey key = ruleKeyFactories.getDefaultRuleKeyFactory().build(rule);
+            prefetchArtifact(rule, key, context);
+            return key;
+          }
+        },
+        serviceByAdjustingDefaultWeightsTo(RULE_KEY_COMPUTATION_RESOURCE_AMOUNTS));
+  }
+
+  /**
+   * Start fetching the artifact for a rule as soon as we know its key, rather than waiting for
+   * the rules which depend on it to miss the cache first.
+   */
+  private void prefetchArtifact(
+      final BuildRule rule,
+      final RuleKey ruleKey,
+      final BuildEngineBuildContext buildContext) {
+    if (!cachePrefetcher.isPresent() || !rule.isCacheable()) {
+      return;
+    }
+    cachePrefetcher.get().prefetch(
+        rule.getBuildTarget(),
+        ruleKey,
+        buildContext.getArtifactCache(),
+        rule.getProjectFilesystem(),
+        () -> {
+          // There's no point going to the network if the build is already failing or the rule's
+          // output is already up to date on disk.
+          if (!buildContext.isKeepGoing() && firstFailure != null) {
+            return false;
+          }
+          ProjectFilesystem filesystem = rule.getProjectFilesystem();
+          OnDiskBuildInfo onDiskBuildInfo =
+              buildContext.createOnDiskBuildInfoFor(
+                  rule.getBuildTarget(),
+                  filesystem,
+                  getOrCreateBuildInfoStore(filesystem));
+          return !ruleKey.equals(
+              onDiskBuildInfo.getRuleKey(BuildInfo.MetadataKey.RULE_KEY).orElse(null));
+        });
+  }
+
   @Override
   public ListenableFuture<BuildResult> build(
       BuildEngineBuildContext buildContext,
@@ -1720,38 +1831,59 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
     Preconditions.checkState(useManifestCaching(rule));
 
     final Path manifestPath = getManifestPath(rule);
-    Manifest manifest = new Manifest();
+    @Nullable Manifest manifest = new Manifest();
 
     // If we already have a manifest downloaded, use that.
     if (rule.getProjectFilesystem().exists(manifestPath)) {
-      try (InputStream inputStream =
-               rule.getProjectFilesystem().newFileInputStream(manifestPath)) {
-        manifest = new Manifest(inputStream);
+      MappedManifest existing =
+          MappedManifest.of(rule.getProjectFilesystem().mapReadOnly(manifestPath));
+
+      // If the manifest is larger than the max size, just truncate it.  It might be nice to
+      // support some sort of LRU management here to avoid evicting everything, but it'll take some
+      // care to do this efficiently and it's not clear how much benefit this will give us.
+      if (existing.size() < maxDepFileCacheEntries) {
+        // If the new entry only refers to header hashes the manifest already has, which is the
+        // common case when going back and forth between revisions, we can just append it.
+        Optional<byte[]> entry =
+            existing.encodeEntry(
+                fileHashCache,
+                key,
+                pathResolver,
+                manifestKey.getInputs(),
+                inputs);
+        if (entry.isPresent()) {
+          try (OutputStream outputStream =
+                   rule.getProjectFilesystem().newFileOutputStream(
+                       manifestPath,
+                       /* append */ true)) {
+            outputStream.write(entry.get());
+          }
+          manifest = null;
+        } else {
+          manifest = existing.toManifest();
+        }
       }
     } else {
       // Ensure the path to manifest exist
       rule.getProjectFilesystem().createParentDirs(manifestPath);
     }
 
-    // If the manifest is larger than the max size, just truncate it.  It might be nice to support
-    // some sort of LRU management here to avoid evicting everything, but it'll take some care to do
-    // this efficiently and it's not clear how much benefit this will give us.
-    if (manifest.size() >= maxDepFileCacheEntries) {
-      manifest = new Manifest();
-    }
-
-    // Update the manifest with the new output rule key.
-    manifest.addEntry(
-        fileHashCache,
-        key,
-        pathResolver,
-        manifestKey.getInputs(),
-        inputs);
-
-    // Serialize the manifest to disk.
-    try (OutputStream outputStream =
-             rule.getProjectFilesystem().newFileOutputStream(manifestPath)) {
-      manifest.serialize(outputStream);
+    if (manifest != null) {
+      // Update the manifest with the new output rule key.
+      manifest.addEntry(
+          fileHashCache,
+          key,
+          pathResolver,
+          manifestKey.getInputs(),
+          inputs);
+
+      // Serialize the manifest to disk.
+      Path tempManifestPath = createTempManifestPath(rule.getProjectFilesystem(), manifestPath);
+      try (OutputStream outputStream =
+               rule.getProjectFilesystem().newFileOutputStream(tempManifestPath)) {
+        manifest.serialize(outputStream);
+      }
+      replaceManifest(rule.getProjectFilesystem(), tempManifestPath, manifestPath);
     }
 
     final Path tempFile = Files.createTempFile("buck.", ".manifest");
@@ -1781,6 +1913,29 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
             MoreExecutors.directExecutor());
   }
 
+  private static Path createTempManifestPath(ProjectFilesystem filesystem, Path manifestPath)
+      throws IOException {
+    return filesystem.createTempFile(
+        manifestPath.getParent(),
+        manifestPath.getFileName().toString(),
+        ".tmp");
+  }
+
+  // Manifests are memory-mapped when read, and truncating a file which is still mapped makes
+  // reads of the mapping crash the JVM with a SIGBUS, so whole new manifests are written next to
+  // the old one and moved over it, leaving existing mappings pointing at the old file.
+  private static void replaceManifest(
+      ProjectFilesystem filesystem,
+      Path tempManifestPath,
+      Path manifestPath)
+      throws IOException {
+    filesystem.move(
+        tempManifestPath,
+        manifestPath,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
   private Optional<RuleKeyAndInputs> calculateManifestKey(
       BuildRule rule,
       BuckEventBus eventBus)
@@ -1821,26 +1976,21 @@ public class CachingBuildEngine implements BuildEngine, Closeable {
 
     Path manifestPath = getManifestPath(rule);
 
-    // Clear out any existing manifest.
-    rule.getProjectFilesystem().deleteFileAtPathIfExists(manifestPath);
-
-    // Now, fetch an existing manifest from the cache.
+    // Now, replace any existing manifest with the one fetched from the cache.
     rule.getProjectFilesystem().createParentDirs(manifestPath);
-
+    Path tempManifestPath = createTempManifestPath(rule.getProjectFilesystem(), manifestPath);
     try (OutputStream outputStream =
-             rule.getProjectFilesystem().newFileOutputStream(manifestPath);
+             rule.getProjectFilesystem().newFileOutputStream(tempManifestPath);
          InputStream inputStream = new GZIPInputStream(
              new BufferedInputStream(Files.newInputStream(tempFile.get())))) {
       ByteStreams.copy(inputStream, outputStream);
     }
+    replaceManifest(rule.getProjectFilesystem(), tempManifestPath, manifestPath);
     Files.delete(tempFile.get());
 
-    // Deserialize the manifest.
-    Manifest manifest;
-    try (InputStream input =
-             rule.getProjectFilesystem().newFileInputStream(manifestPath)) {
-      manifest = new Manifest(input);
-    }
+    // Map the manifest, so that we only read the parts of it the lookup needs.
+    MappedManifest manifest =
+        MappedManifest.of(rule.getProjectFilesystem().mapReadOnly(manifestPath));
 
     // Lookup the rule for the current state of our inputs.
     Optional<RuleKey> ruleKey =
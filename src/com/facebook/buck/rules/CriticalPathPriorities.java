@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import com.facebook.buck.model.BuildTarget;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * Scheduling priorities that start rules on the critical path of a build first.
+ *
+ * A rule's priority is the estimated time from when it starts building to when the build can
+ * finish: its own duration plus the longest such time among the rules that depend on it.  Running
+ * the rules with the longest remaining path first keeps long chains of dependent rules from being
+ * started late, behind work that could have been done in parallel with them.
+ */
+class CriticalPathPriorities {
+
+  private CriticalPathPriorities() {}
+
+  /**
+   * @param rules a set of rules closed under {@code getDeps}.
+   * @param history durations of previous builds.  Rules which haven't been built before are
+   *     assumed to take the average time of those which have, so with no history at all a rule's
+   *     priority is the length of the longest chain of rules depending on it.
+   */
+  static ImmutableMap<BuildTarget, Long> compute(
+      Iterable<BuildRule> rules,
+      Function<BuildRule, ? extends Iterable<BuildRule>> getDeps,
+      BuildRuleDurationHistory history) {
+    Map<BuildRule, Integer> remainingDependents = new HashMap<>();
+    Map<BuildRule, Long> durations = new HashMap<>();
+    long knownDurationTotal = 0;
+    int knownDurationCount = 0;
+    for (BuildRule rule : rules) {
+      remainingDependents.putIfAbsent(rule, 0);
+      for (BuildRule dep : getDeps.apply(rule)) {
+        remainingDependents.merge(dep, 1, Integer::sum);
+      }
+      OptionalLong duration = history.getEstimatedDurationMillis(rule.getBuildTarget());
+      if (duration.isPresent()) {
+        durations.put(rule, duration.getAsLong());
+        knownDurationTotal += duration.getAsLong();
+        knownDurationCount++;
+      }
+    }
+    long defaultDuration =
+        knownDurationCount == 0 ? 1 : Math.max(1, knownDurationTotal / knownDurationCount);
+
+    // Walk down from the top-level rules, visiting each rule once all of its dependents have been,
+    // so that the longest path above it is known by then.
+    Deque<BuildRule> ready = new ArrayDeque<>();
+    for (Map.Entry<BuildRule, Integer> entry : remainingDependents.entrySet()) {
+      if (entry.getValue() == 0) {
+        ready.add(entry.getKey());
+      }
+    }
+    Map<BuildRule, Long> longestPathAbove = new HashMap<>();
+    ImmutableMap.Builder<BuildTarget, Long> priorities = ImmutableMap.builder();
+    while (!ready.isEmpty()) {
+      BuildRule rule = ready.pop();
+      long priority =
+          Math.max(1, durations.getOrDefault(rule, defaultDuration)) +
+              longestPathAbove.getOrDefault(rule, 0L);
+      priorities.put(rule.getBuildTarget(), priority);
+      for (BuildRule dep : getDeps.apply(rule)) {
+        longestPathAbove.merge(dep, priority, Math::max);
+        if (remainingDependents.merge(dep, -1, Integer::sum) == 0) {
+          ready.push(dep);
+        }
+      }
+    }
+    return priorities.build();
+  }
+
+}
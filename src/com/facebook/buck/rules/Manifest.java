@@ -17,6 +17,7 @@
 package com.facebook.buck.rules;
 
 import com.facebook.buck.model.Pair;
+import com.facebook.buck.util.MoreCollectors;
 import com.facebook.buck.util.cache.FileHashCache;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
@@ -29,12 +30,16 @@ import com.google.common.collect.Multimaps;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Ints;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -42,27 +47,29 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Maps the hashes of the headers a rule's dep file listed to the rule key of its output, so that
+ * an output can be fetched from the cache when only the headers it actually used are unchanged.
+ * This is the mutable, in-memory form of a manifest, which is serialized in the format read in
+ * place by {@link MappedManifest}.
+ */
 public class Manifest {
 
-  private static final int VERSION = 0;
+  // The original, stream oriented format, which can still be read.
+  static final int LEGACY_VERSION = 0;
 
-  private final List<String> headers;
-  private final Map<String, Integer> headerIndices;
+  private final List<String> headers = new ArrayList<>();
+  private final Map<String, Integer> headerIndices = new HashMap<>();
 
-  private final List<Pair<Integer, HashCode>> hashes;
-  private final Map<HashCode, Integer> hashIndices;
+  private final List<Pair<Integer, HashCode>> hashes = new ArrayList<>();
+  private final Map<Pair<Integer, HashCode>, Integer> hashIndices = new HashMap<>();
 
-  private final List<Pair<RuleKey, int[]>> entries;
+  private final List<Pair<RuleKey, int[]>> entries = new ArrayList<>();
 
   /**
    * Create an empty manifest.
    */
   public Manifest() {
-    headers = new ArrayList<>();
-    headerIndices = new HashMap<>();
-    hashes = new ArrayList<>();
-    hashIndices = new HashMap<>();
-    entries = new ArrayList<>();
   }
 
   /**
@@ -71,11 +78,17 @@ public class Manifest {
   public Manifest(InputStream rawInput) throws IOException {
     DataInputStream input = new DataInputStream(rawInput);
 
-    Preconditions.checkState(input.readInt() == VERSION);
+    int version = input.readInt();
+    if (version == MappedManifest.VERSION) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      new DataOutputStream(bytes).writeInt(version);
+      ByteStreams.copy(input, bytes);
+      MappedManifest.of(ByteBuffer.wrap(bytes.toByteArray())).toManifest().copyTo(this);
+      return;
+    }
+    Preconditions.checkState(version == LEGACY_VERSION);
 
     int numberOfHeaders = input.readInt();
-    headers = new ArrayList<>(numberOfHeaders);
-    headerIndices = new HashMap<>(numberOfHeaders);
     for (int index = 0; index < numberOfHeaders; index++) {
       String header = input.readUTF();
       headers.add(header);
@@ -83,17 +96,15 @@ public class Manifest {
     }
 
     int numberOfHashes = input.readInt();
-    hashes = new ArrayList<>(numberOfHashes);
-    hashIndices = new HashMap<>(numberOfHashes);
     for (int index = 0; index < numberOfHashes; index++) {
       int headerIndex = input.readInt();
       HashCode headerHash = HashCode.fromString(input.readUTF());
-      hashes.add(new Pair<>(headerIndex, headerHash));
-      hashIndices.put(headerHash, index);
+      Pair<Integer, HashCode> hash = new Pair<>(headerIndex, headerHash);
+      hashes.add(hash);
+      hashIndices.put(hash, index);
     }
 
     int numberOfEntries = input.readInt();
-    entries = new ArrayList<>(numberOfEntries);
     for (int entryIndex = 0; entryIndex < numberOfEntries; entryIndex++) {
       int numberOfEntryHashes = input.readInt();
       int[] entryHashes = new int[numberOfEntryHashes];
@@ -105,6 +116,14 @@ public class Manifest {
     }
   }
 
+  private void copyTo(Manifest other) {
+    other.headers.addAll(headers);
+    other.headerIndices.putAll(headerIndices);
+    other.hashes.addAll(hashes);
+    other.hashIndices.putAll(hashIndices);
+    other.entries.addAll(entries);
+  }
+
   private Integer addHash(String header, HashCode hash) {
     Integer headerIndex = headerIndices.get(header);
     if (headerIndex == null) {
@@ -113,11 +132,13 @@ public class Manifest {
       headerIndices.put(header, headerIndex);
     }
 
-    Integer hashIndex = hashIndices.get(hash);
+    // Different headers can have the same contents, so hashes are only shared within a header.
+    Pair<Integer, HashCode> key = new Pair<>(headerIndex, hash);
+    Integer hashIndex = hashIndices.get(key);
     if (hashIndex == null) {
-      hashes.add(new Pair<>(headerIndex, hash));
+      hashes.add(key);
       hashIndex = hashes.size() - 1;
-      hashIndices.put(hash, hashIndex);
+      hashIndices.put(key, hashIndex);
     }
 
     return hashIndex;
@@ -201,7 +222,7 @@ public class Manifest {
     return input -> sourcePathToManifestHeader(input, resolver);
   }
 
-  private static String sourcePathToManifestHeader(
+  static String sourcePathToManifestHeader(
       SourcePath input,
       SourcePathResolver resolver) {
     if (input instanceof ArchiveMemberSourcePath) {
@@ -240,32 +261,21 @@ public class Manifest {
   }
 
   /**
-   * Serializes the manifest to the given {@link OutputStream}.
+   * Adds an entry for the given headers and their hashes.
    */
-  public void serialize(OutputStream rawOutput) throws IOException {
-    DataOutputStream output = new DataOutputStream(rawOutput);
-
-    output.writeInt(VERSION);
-
-    output.writeInt(headers.size());
-    for (String header : headers) {
-      output.writeUTF(header);
-    }
-
-    output.writeInt(hashes.size());
-    for (Pair<Integer, HashCode> hash : hashes) {
-      output.writeInt(hash.getFirst());
-      output.writeUTF(hash.getSecond().toString());
+  void addEntry(RuleKey key, Iterable<Pair<String, HashCode>> headerHashes) {
+    List<Integer> entryHashIndices = new ArrayList<>();
+    for (Pair<String, HashCode> headerHash : headerHashes) {
+      entryHashIndices.add(addHash(headerHash.getFirst(), headerHash.getSecond()));
     }
+    entries.add(new Pair<>(key, Ints.toArray(entryHashIndices)));
+  }
 
-    output.writeInt(entries.size());
-    for (Pair<RuleKey, int[]> entry : entries) {
-      output.writeInt(entry.getSecond().length);
-      for (int hashIndex : entry.getSecond()) {
-        output.writeInt(hashIndex);
-      }
-      output.writeUTF(entry.getFirst().toString());
-    }
+  /**
+   * Serializes the manifest to the given {@link OutputStream}.
+   */
+  public void serialize(OutputStream rawOutput) throws IOException {
+    MappedManifest.write(headers, hashes, entries, rawOutput);
   }
 
   public int size() {
@@ -292,13 +302,11 @@ public class Manifest {
   static Manifest fromMap(ImmutableMap<RuleKey, ImmutableMap<String, HashCode>> map) {
     Manifest manifest = new Manifest();
     for (Map.Entry<RuleKey, ImmutableMap<String, HashCode>> entry : map.entrySet()) {
-      int entryHashIndex = 0;
-      int[] entryHashIndices = new int[entry.getValue().size()];
-      for (Map.Entry<String, HashCode> innerEntry : entry.getValue().entrySet()) {
-        entryHashIndices[entryHashIndex++] =
-            manifest.addHash(innerEntry.getKey(), innerEntry.getValue());
-      }
-      manifest.entries.add(new Pair<>(entry.getKey(), entryHashIndices));
+      manifest.addEntry(
+          entry.getKey(),
+          entry.getValue().entrySet().stream()
+              .map(innerEntry -> new Pair<>(innerEntry.getKey(), innerEntry.getValue()))
+              .collect(MoreCollectors.toImmutableList()));
     }
     return manifest;
   }
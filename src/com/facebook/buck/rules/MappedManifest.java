@@ -0,0 +1,470 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import com.facebook.buck.model.Pair;
+import com.facebook.buck.util.cache.FileHashCache;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimaps;
+import com.google.common.hash.HashCode;
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * A read-only view of a serialized {@link Manifest}, which is probed in place rather than being
+ * deserialized first, so that a (typically memory-mapped) manifest with thousands of headers only
+ * costs as much as the headers its entries actually check.
+ *
+ * The layout, all big-endian, is:
+ * <pre>
+ *   int version
+ *   int header count, H
+ *   int hash count, N
+ *   int hash table size, T (a power of two)
+ *   int offset of the first entry
+ *   int[H] offsets of the header strings, sorted by their UTF-8 bytes
+ *   (int header index, int offset of the hash bytes)[N]
+ *   int[T] open-addressed table of (header index, hash) to hash index + 1, or 0 if empty
+ *   string pool: headers as (short length, UTF-8 bytes), hashes as (byte length, bytes)
+ *   entries, each (int count, int[count] hash indices, short length, UTF-8 rule key)
+ * </pre>
+ * Entries come last so that new ones can be appended without rewriting the rest of the file, as
+ * long as they only use headers and hashes which are already in the tables.  A partially written
+ * entry at the end of the file is ignored, and stops further entries being appended after it, as
+ * they'd be ignored too.
+ */
+public class MappedManifest {
+
+  static final int VERSION = 1;
+
+  private static final int HEADER_COUNT_OFFSET = 4;
+  private static final int HASH_COUNT_OFFSET = 8;
+  private static final int TABLE_SIZE_OFFSET = 12;
+  private static final int ENTRIES_OFFSET_OFFSET = 16;
+  private static final int HEADER_OFFSETS_OFFSET = 20;
+
+  private static final Comparator<byte[]> HEADER_ORDER = UnsignedBytes.lexicographicalComparator();
+
+  private final ByteBuffer buffer;
+  private final boolean appendable;
+  private final int headerCount;
+  private final int hashCount;
+  private final int tableSize;
+  private final int hashRecordsOffset;
+  private final int tableOffset;
+  private final int entriesOffset;
+  private final int entryCount;
+  private final boolean hasPartialEntry;
+
+  private MappedManifest(ByteBuffer buffer, boolean appendable) {
+    this.buffer = buffer;
+    this.appendable = appendable;
+    Preconditions.checkState(buffer.getInt(0) == VERSION);
+    this.headerCount = buffer.getInt(HEADER_COUNT_OFFSET);
+    this.hashCount = buffer.getInt(HASH_COUNT_OFFSET);
+    this.tableSize = buffer.getInt(TABLE_SIZE_OFFSET);
+    this.entriesOffset = buffer.getInt(ENTRIES_OFFSET_OFFSET);
+    this.hashRecordsOffset = HEADER_OFFSETS_OFFSET + 4 * headerCount;
+    this.tableOffset = hashRecordsOffset + 8 * hashCount;
+
+    // Walk the entries to find how many were completely written.
+    long limit = buffer.limit();
+    long position = entriesOffset;
+    int count = 0;
+    while (position + 4 <= limit) {
+      long keyPosition = position + 4 + 4L * buffer.getInt((int) position);
+      if (keyPosition < position + 4 || keyPosition + 2 > limit) {
+        break;
+      }
+      long end = keyPosition + 2 + Short.toUnsignedInt(buffer.getShort((int) keyPosition));
+      if (end > limit) {
+        break;
+      }
+      count++;
+      position = end;
+    }
+    this.entryCount = count;
+    this.hasPartialEntry = position != limit;
+  }
+
+  /**
+   * Wraps the serialized manifest in the given buffer.  Manifests written in the older, stream
+   * oriented format are converted, in which case {@link #encodeEntry} never allows appending to
+   * them.
+   */
+  public static MappedManifest of(ByteBuffer buffer) throws IOException {
+    ByteBuffer duplicate = buffer.duplicate();
+    if (duplicate.remaining() >= 4 && duplicate.getInt(0) == VERSION) {
+      return new MappedManifest(duplicate, /* appendable */ true);
+    }
+    byte[] bytes = new byte[duplicate.remaining()];
+    duplicate.get(bytes);
+    Manifest manifest = new Manifest(new ByteArrayInputStream(bytes));
+    ByteArrayOutputStream converted = new ByteArrayOutputStream();
+    manifest.serialize(converted);
+    return new MappedManifest(ByteBuffer.wrap(converted.toByteArray()), /* appendable */ false);
+  }
+
+  public int size() {
+    return entryCount;
+  }
+
+  /**
+   * @return the {@link RuleKey} of the first entry that matches the on disk hashes provided by
+   *     {@code fileHashCache}.
+   */
+  public Optional<RuleKey> lookup(
+      FileHashCache fileHashCache,
+      SourcePathResolver resolver,
+      ImmutableSet<SourcePath> universe)
+      throws IOException {
+    ImmutableListMultimap<String, SourcePath> mappedUniverse =
+        Multimaps.index(universe, path -> Manifest.sourcePathToManifestHeader(path, resolver));
+
+    // Entries tend to share most of their headers, so only hash each one once.
+    byte[][] onDiskHashes = new byte[headerCount][];
+    boolean[] hashed = new boolean[headerCount];
+
+    int position = entriesOffset;
+    for (int entry = 0; entry < entryCount; entry++) {
+      int count = buffer.getInt(position);
+      position += 4;
+      boolean matches = true;
+      for (int i = 0; i < count && matches; i++) {
+        int hashRecord = hashRecordsOffset + 8 * buffer.getInt(position + 4 * i);
+        int headerIndex = buffer.getInt(hashRecord);
+        if (!hashed[headerIndex]) {
+          onDiskHashes[headerIndex] =
+              hashHeader(fileHashCache, resolver, mappedUniverse, getHeader(headerIndex));
+          hashed[headerIndex] = true;
+        }
+        matches = hashBytesEqual(buffer.getInt(hashRecord + 4), onDiskHashes[headerIndex]);
+      }
+      position += 4 * count;
+      int keyLength = Short.toUnsignedInt(buffer.getShort(position));
+      position += 2;
+      if (matches) {
+        return Optional.of(new RuleKey(getString(position, keyLength)));
+      }
+      position += keyLength;
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Encodes a new entry which can be appended to the serialized form of this manifest, provided
+   * it only refers to headers and hashes that are already in the manifest's tables.
+   *
+   * @return the bytes to append, or empty if the manifest needs to be rewritten to include the
+   *     entry, e.g. because a previous append was cut short.
+   */
+  public Optional<byte[]> encodeEntry(
+      FileHashCache fileHashCache,
+      RuleKey key,
+      SourcePathResolver resolver,
+      ImmutableSet<SourcePath> universe,
+      ImmutableSet<SourcePath> inputs)
+      throws IOException {
+    if (!appendable || hasPartialEntry) {
+      return Optional.empty();
+    }
+    ImmutableListMultimap<String, SourcePath> mappedUniverse =
+        Multimaps.index(universe, path -> Manifest.sourcePathToManifestHeader(path, resolver));
+    int[] hashIndices = new int[inputs.size()];
+    int index = 0;
+    for (SourcePath input : inputs) {
+      String header = Manifest.sourcePathToManifestHeader(input, resolver);
+      ImmutableList<SourcePath> paths = mappedUniverse.get(header);
+      Preconditions.checkState(!paths.isEmpty());
+      int headerIndex = findHeader(header.getBytes(StandardCharsets.UTF_8));
+      if (headerIndex < 0) {
+        return Optional.empty();
+      }
+      int hashIndex =
+          findHash(headerIndex, Manifest.hashSourcePathGroup(fileHashCache, resolver, paths));
+      if (hashIndex < 0) {
+        return Optional.empty();
+      }
+      hashIndices[index++] = hashIndex;
+    }
+    return Optional.of(encodeEntry(key, hashIndices));
+  }
+
+  /**
+   * Copy this manifest into a {@link Manifest}, e.g. to add entries which can't be appended.
+   */
+  public Manifest toManifest() {
+    Manifest manifest = new Manifest();
+    int position = entriesOffset;
+    for (int entry = 0; entry < entryCount; entry++) {
+      int count = buffer.getInt(position);
+      position += 4;
+      ImmutableList.Builder<Pair<String, HashCode>> hashes = ImmutableList.builder();
+      for (int i = 0; i < count; i++) {
+        int hashRecord = hashRecordsOffset + 8 * buffer.getInt(position + 4 * i);
+        hashes.add(
+            new Pair<>(
+                getHeader(buffer.getInt(hashRecord)),
+                HashCode.fromBytes(getHashBytes(buffer.getInt(hashRecord + 4)))));
+      }
+      position += 4 * count;
+      int keyLength = Short.toUnsignedInt(buffer.getShort(position));
+      position += 2;
+      manifest.addEntry(new RuleKey(getString(position, keyLength)), hashes.build());
+      position += keyLength;
+    }
+    return manifest;
+  }
+
+  /**
+   * Serialize a manifest's tables and entries in this format.
+   *
+   * @param headers the headers, in any order.
+   * @param hashes pairs of indices into {@code headers} and the hash of that header.
+   * @param entries pairs of rule keys and the indices into {@code hashes} they depend on.
+   */
+  static void write(
+      List<String> headers,
+      List<Pair<Integer, HashCode>> hashes,
+      List<Pair<RuleKey, int[]>> entries,
+      OutputStream rawOutput)
+      throws IOException {
+
+    // Sort the headers so that they can be binary searched, remembering where each one went.
+    byte[][] headerBytes = new byte[headers.size()][];
+    Integer[] order = new Integer[headers.size()];
+    for (int i = 0; i < headers.size(); i++) {
+      headerBytes[i] = headers.get(i).getBytes(StandardCharsets.UTF_8);
+      Preconditions.checkArgument(headerBytes[i].length <= 0xFFFF);
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> HEADER_ORDER.compare(headerBytes[a], headerBytes[b]));
+    int[] sortedIndex = new int[headers.size()];
+    for (int i = 0; i < order.length; i++) {
+      sortedIndex[order[i]] = i;
+    }
+
+    int tableSize = 2;
+    while (tableSize < 2 * hashes.size()) {
+      tableSize <<= 1;
+    }
+    int[] table = new int[tableSize];
+    for (int i = 0; i < hashes.size(); i++) {
+      Pair<Integer, HashCode> hash = hashes.get(i);
+      int slot = slotFor(sortedIndex[hash.getFirst()], hash.getSecond(), tableSize);
+      while (table[slot] != 0) {
+        slot = (slot + 1) & (tableSize - 1);
+      }
+      table[slot] = i + 1;
+    }
+
+    // Lay out the string pool: the headers in sorted order, followed by the hashes.
+    int poolOffset =
+        HEADER_OFFSETS_OFFSET + 4 * headers.size() + 8 * hashes.size() + 4 * tableSize;
+    int[] headerOffsets = new int[headers.size()];
+    int offset = poolOffset;
+    for (int i = 0; i < order.length; i++) {
+      headerOffsets[i] = offset;
+      offset += 2 + headerBytes[order[i]].length;
+    }
+    int[] hashOffsets = new int[hashes.size()];
+    for (int i = 0; i < hashes.size(); i++) {
+      hashOffsets[i] = offset;
+      offset += 1 + hashes.get(i).getSecond().bits() / 8;
+    }
+
+    DataOutputStream output = new DataOutputStream(rawOutput);
+    output.writeInt(VERSION);
+    output.writeInt(headers.size());
+    output.writeInt(hashes.size());
+    output.writeInt(tableSize);
+    output.writeInt(offset);
+    for (int headerOffset : headerOffsets) {
+      output.writeInt(headerOffset);
+    }
+    for (int i = 0; i < hashes.size(); i++) {
+      output.writeInt(sortedIndex[hashes.get(i).getFirst()]);
+      output.writeInt(hashOffsets[i]);
+    }
+    for (int slot : table) {
+      output.writeInt(slot);
+    }
+    for (Integer index : order) {
+      output.writeShort(headerBytes[index].length);
+      output.write(headerBytes[index]);
+    }
+    for (Pair<Integer, HashCode> hash : hashes) {
+      byte[] bytes = hash.getSecond().asBytes();
+      Preconditions.checkArgument(bytes.length <= 0xFF);
+      output.writeByte(bytes.length);
+      output.write(bytes);
+    }
+    for (Pair<RuleKey, int[]> entry : entries) {
+      output.write(encodeEntry(entry.getFirst(), entry.getSecond()));
+    }
+    output.flush();
+  }
+
+  private static byte[] encodeEntry(RuleKey key, int[] hashIndices) throws IOException {
+    byte[] keyBytes = key.toString().getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 + 4 * hashIndices.length + 2 + 40);
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeInt(hashIndices.length);
+      for (int hashIndex : hashIndices) {
+        output.writeInt(hashIndex);
+      }
+      output.writeShort(keyBytes.length);
+      output.write(keyBytes);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static int slotFor(int headerIndex, HashCode hash, int tableSize) {
+    long bits = hash.padToLong();
+    int h = (int) (bits ^ (bits >>> 32)) * 31 + headerIndex;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    return h & (tableSize - 1);
+  }
+
+  /**
+   * @return the index of the given header, or a negative number if it isn't in the manifest.
+   */
+  private int findHeader(byte[] header) {
+    int low = 0;
+    int high = headerCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int cmp = compareHeader(middle, header);
+      if (cmp < 0) {
+        low = middle + 1;
+      } else if (cmp > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  private int compareHeader(int headerIndex, byte[] header) {
+    int offset = buffer.getInt(HEADER_OFFSETS_OFFSET + 4 * headerIndex);
+    int length = Short.toUnsignedInt(buffer.getShort(offset));
+    offset += 2;
+    for (int i = 0; i < Math.min(length, header.length); i++) {
+      int cmp = UnsignedBytes.compare(buffer.get(offset + i), header[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return length - header.length;
+  }
+
+  /**
+   * @return the index of the hash record for the given header and hash, or a negative number if
+   *     there isn't one.
+   */
+  private int findHash(int headerIndex, HashCode hash) {
+    byte[] bytes = hash.asBytes();
+    int slot = slotFor(headerIndex, hash, tableSize);
+    while (true) {
+      int value = buffer.getInt(tableOffset + 4 * slot);
+      if (value == 0) {
+        return -1;
+      }
+      int hashRecord = hashRecordsOffset + 8 * (value - 1);
+      if (buffer.getInt(hashRecord) == headerIndex &&
+          hashBytesEqual(buffer.getInt(hashRecord + 4), bytes)) {
+        return value - 1;
+      }
+      slot = (slot + 1) & (tableSize - 1);
+    }
+  }
+
+  private boolean hashBytesEqual(int offset, @Nullable byte[] bytes) {
+    if (bytes == null || Byte.toUnsignedInt(buffer.get(offset)) != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(offset + 1 + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private byte[] getHashBytes(int offset) {
+    byte[] bytes = new byte[Byte.toUnsignedInt(buffer.get(offset))];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(offset + 1 + i);
+    }
+    return bytes;
+  }
+
+  private String getHeader(int headerIndex) {
+    int offset = buffer.getInt(HEADER_OFFSETS_OFFSET + 4 * headerIndex);
+    return getString(offset + 2, Short.toUnsignedInt(buffer.getShort(offset)));
+  }
+
+  private String getString(int offset, int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the hash of the header's current contents, or null if it's not available.
+   */
+  @Nullable
+  private static byte[] hashHeader(
+      FileHashCache fileHashCache,
+      SourcePathResolver resolver,
+      ImmutableListMultimap<String, SourcePath> universe,
+      String header)
+      throws IOException {
+    ImmutableList<SourcePath> candidates = universe.get(header);
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    try {
+      return Manifest.hashSourcePathGroup(fileHashCache, resolver, candidates).asBytes();
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+}
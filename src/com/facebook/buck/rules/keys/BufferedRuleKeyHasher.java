@@ -0,0 +1,292 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules.keys;
+
+import com.facebook.buck.io.ArchiveMemberPath;
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.rules.BuildRuleType;
+import com.facebook.buck.rules.BuildTargetSourcePath;
+import com.facebook.buck.rules.ExplicitBuildTargetSourcePath;
+import com.facebook.buck.rules.ForwardingBuildTargetSourcePath;
+import com.facebook.buck.rules.RuleKey;
+import com.facebook.buck.rules.RuleKeyFieldCategory;
+import com.facebook.buck.rules.SourceRoot;
+import com.facebook.buck.util.sha1.Sha1HashCode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RuleKeyHasher} that feeds a Guava {@link Hasher} exactly the same bytes as
+ * {@link GuavaRuleKeyHasher}, so it produces the same rule keys, but stages them in a buffer that
+ * is reused for the lifetime of the hasher.
+ *
+ * Strings are encoded to UTF-8 straight into the buffer and hash codes are copied into it, so
+ * hashing a value does not allocate. The wrapped hasher only sees one large update whenever the
+ * buffer fills up, rather than a handful of tiny ones per value.
+ */
+public class BufferedRuleKeyHasher implements RuleKeyHasher<HashCode> {
+
+  private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+  // The longest fixed-size write is a long followed by its type.
+  private static final int MAX_WRITE_SIZE = Long.BYTES + 1;
+
+  private final Hasher hasher;
+  // Guava hashers are little endian, so primitives must be written the same way to match.
+  private final ByteBuffer buffer;
+
+  public BufferedRuleKeyHasher(Hasher hasher) {
+    this(hasher, DEFAULT_BUFFER_SIZE);
+  }
+
+  @VisibleForTesting
+  BufferedRuleKeyHasher(Hasher hasher, int bufferSize) {
+    this.hasher = hasher;
+    this.buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_WRITE_SIZE))
+        .order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private void flush() {
+    hasher.putBytes(buffer.array(), 0, buffer.position());
+    buffer.clear();
+  }
+
+  private ByteBuffer reserve(int size) {
+    if (buffer.remaining() < size) {
+      flush();
+    }
+    return buffer;
+  }
+
+  private BufferedRuleKeyHasher putTag(byte type) {
+    reserve(1).put(type);
+    return this;
+  }
+
+  private BufferedRuleKeyHasher putBytes(byte type, byte[] bytes) {
+    int offset = 0;
+    while (offset < bytes.length) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      int length = Math.min(buffer.remaining(), bytes.length - offset);
+      buffer.put(bytes, offset, length);
+      offset += length;
+    }
+    reserve(Integer.BYTES + 1).putInt(bytes.length).put(type);
+    return this;
+  }
+
+  private BufferedRuleKeyHasher putHashCode(byte type, HashCode hash) {
+    int length = hash.bits() / Byte.SIZE;
+    if (length > buffer.capacity()) {
+      return putBytes(type, hash.asBytes());
+    }
+    reserve(length);
+    hash.writeBytesTo(buffer.array(), buffer.position(), length);
+    buffer.position(buffer.position() + length);
+    reserve(Integer.BYTES + 1).putInt(length).put(type);
+    return this;
+  }
+
+  /**
+   * Encodes the string the way {@link String#getBytes} does with UTF-8, including replacing
+   * unpaired surrogates with {@code '?'}, followed by the encoded length and the type.
+   */
+  private BufferedRuleKeyHasher putStringified(byte type, String val) {
+    int length = 0;
+    for (int i = 0; i < val.length(); i++) {
+      char c = val.charAt(i);
+      reserve(4);
+      if (c < 0x80) {
+        buffer.put((byte) c);
+        length += 1;
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xc0 | (c >>> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3f)));
+        length += 2;
+      } else if (!Character.isSurrogate(c)) {
+        buffer.put((byte) (0xe0 | (c >>> 12)));
+        buffer.put((byte) (0x80 | ((c >>> 6) & 0x3f)));
+        buffer.put((byte) (0x80 | (c & 0x3f)));
+        length += 3;
+      } else if (Character.isHighSurrogate(c) &&
+          i + 1 < val.length() &&
+          Character.isLowSurrogate(val.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, val.charAt(++i));
+        buffer.put((byte) (0xf0 | (codePoint >>> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >>> 12) & 0x3f)));
+        buffer.put((byte) (0x80 | ((codePoint >>> 6) & 0x3f)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+        length += 4;
+      } else {
+        buffer.put((byte) '?');
+        length += 1;
+      }
+    }
+    reserve(Integer.BYTES + 1).putInt(length).put(type);
+    return this;
+  }
+
+  @Override
+  public BufferedRuleKeyHasher selectCategory(RuleKeyFieldCategory category) {
+    // Category is useful for instrumentation purposes, but can be safely ignored here.
+    return this;
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putKey(String key) {
+    return putStringified(RuleKeyHasherTypes.KEY, key);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putNull() {
+    return putTag(RuleKeyHasherTypes.NULL);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putBoolean(boolean val) {
+    return putTag(val ? RuleKeyHasherTypes.TRUE : RuleKeyHasherTypes.FALSE);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putNumber(Number val) {
+    ByteBuffer buffer = reserve(Long.BYTES + 1);
+    if (val instanceof Integer) { // most common, so test first
+      buffer.putInt((Integer) val).put(RuleKeyHasherTypes.INTEGER);
+    } else if (val instanceof Long) {
+      buffer.putLong((Long) val).put(RuleKeyHasherTypes.LONG);
+    } else if (val instanceof Short) {
+      buffer.putShort((Short) val).put(RuleKeyHasherTypes.SHORT);
+    } else if (val instanceof Byte) {
+      buffer.put((Byte) val).put(RuleKeyHasherTypes.BYTE);
+    } else if (val instanceof Float) {
+      buffer.putInt(Float.floatToRawIntBits((Float) val)).put(RuleKeyHasherTypes.FLOAT);
+    } else if (val instanceof Double) {
+      buffer.putLong(Double.doubleToRawLongBits((Double) val)).put(RuleKeyHasherTypes.DOUBLE);
+    } else {
+      throw new UnsupportedOperationException(("Unsupported Number type: " + val.getClass()));
+    }
+    return this;
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putString(String val) {
+    return putStringified(RuleKeyHasherTypes.STRING, val);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putBytes(byte[] bytes) {
+    return putBytes(RuleKeyHasherTypes.BYTE_ARRAY, bytes);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putPattern(Pattern pattern) {
+    return putStringified(RuleKeyHasherTypes.PATTERN, pattern.toString());
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putSha1(Sha1HashCode sha1) {
+    flush();
+    sha1.update(hasher);
+    return putTag(RuleKeyHasherTypes.SHA1);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putPath(Path path, HashCode hash) {
+    putStringified(RuleKeyHasherTypes.PATH, path.toString());
+    return putHashCode(RuleKeyHasherTypes.PATH, hash);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putArchiveMemberPath(ArchiveMemberPath path, HashCode hash) {
+    putStringified(RuleKeyHasherTypes.ARCHIVE_MEMBER_PATH, path.toString());
+    return putHashCode(RuleKeyHasherTypes.ARCHIVE_MEMBER_PATH, hash);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putNonHashingPath(String path) {
+    return putStringified(RuleKeyHasherTypes.NON_HASHING_PATH, path);
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putSourceRoot(SourceRoot sourceRoot) {
+    return putStringified(RuleKeyHasherTypes.SOURCE_ROOT, sourceRoot.getName());
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putRuleKey(RuleKey ruleKey) {
+    return putHashCode(RuleKeyHasherTypes.RULE_KEY, ruleKey.getHashCode());
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putBuildRuleType(BuildRuleType buildRuleType) {
+    return putStringified(RuleKeyHasherTypes.RULE_TYPE, buildRuleType.toString());
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putBuildTarget(BuildTarget buildTarget) {
+    return putStringified(RuleKeyHasherTypes.TARGET, buildTarget.getFullyQualifiedName());
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putBuildTargetSourcePath(
+      BuildTargetSourcePath<?> targetSourcePath) {
+    putStringified(
+        RuleKeyHasherTypes.TARGET_SOURCE_PATH,
+        targetSourcePath.getTarget().getFullyQualifiedName());
+    if (targetSourcePath instanceof ExplicitBuildTargetSourcePath) {
+      putStringified(
+          RuleKeyHasherTypes.TARGET_SOURCE_PATH,
+          ((ExplicitBuildTargetSourcePath) targetSourcePath).getResolvedPath().toString());
+    } else if (targetSourcePath instanceof ForwardingBuildTargetSourcePath) {
+      putStringified(
+          RuleKeyHasherTypes.TARGET_SOURCE_PATH,
+          ((ForwardingBuildTargetSourcePath) targetSourcePath).getDelegate().toString());
+    }
+    return this;
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putContainer(Container container, int length) {
+    reserve(Integer.BYTES + 2)
+        .put(RuleKeyHasherTypes.containerSubType(container))
+        .putInt(length)
+        .put(RuleKeyHasherTypes.CONTAINER);
+    return this;
+  }
+
+  @Override
+  public BufferedRuleKeyHasher putWrapper(Wrapper wrapper) {
+    reserve(2)
+        .put(RuleKeyHasherTypes.wrapperSubType(wrapper))
+        .put(RuleKeyHasherTypes.WRAPPER);
+    return this;
+  }
+
+  @Override
+  public HashCode hash() {
+    flush();
+    return hasher.hash();
+  }
+}
@@ -28,15 +28,23 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 
 import java.nio.file.Path;
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
@@ -44,6 +52,8 @@ import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 /**
  * A {@link com.facebook.buck.rules.RuleKey} cache used by a {@link RuleKeyFactory}.  Inputs and
  * dependencies of cached rule keys are tracked to allow for invalidations based on changed inputs.
@@ -94,11 +104,19 @@ public class DefaultRuleKeyCache<V> implements RuleKeyCache<V> {
   private final ConcurrentMap<RuleKeyInput, Collection<Object>> inputsIndex =
       new ConcurrentHashMap<>();
 
+  /**
+   * Rule keys persisted from a previous process, consulted before computing rule keys from scratch.
+   */
+  @Nullable
+  private volatile RuleKeyCacheSeed<V> seed = null;
+
   // Stats.
   private final LongAdder lookupCount = new LongAdder();
   private final LongAdder missCount = new LongAdder();
   private final LongAdder totalLoadTime = new LongAdder();
   private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder seedReusedCount = new LongAdder();
+  private final LongAdder seedInvalidatedCount = new LongAdder();
 
   public DefaultRuleKeyCache(Clock clock) {
     this.clock = clock;
@@ -148,7 +166,15 @@ public class DefaultRuleKeyCache<V> implements RuleKeyCache<V> {
 
   @Override
   public V get(BuildRule rule, Function<? super BuildRule, RuleKeyResult<V>> create) {
-    return getNode(rule, create);
+    RuleKeyCacheSeed<V> seed = this.seed;
+    if (seed == null) {
+      return getNode(rule, create);
+    }
+    // The seed validates recorded keys against the current keys of their deps, which we look up
+    // through the cache so that they are either seeded or computed as usual.
+    return getNode(
+        rule,
+        r -> seed.get(r, dep -> get(dep, create)).orElseGet(() -> create.apply(r)));
   }
 
   @Override
@@ -247,11 +273,42 @@ public class DefaultRuleKeyCache<V> implements RuleKeyCache<V> {
             .collect(Collectors.toList()));
   }
 
+  /**
+   * Invalidate all {@link BuildRule}s not in the given set and their transitive dependents, along
+   * with any {@link RuleKeyAppendable}s no longer used by a cached {@link BuildRule}.
+   */
+  @Override
+  public void invalidateAllExceptBuildRules(Set<BuildRule> rules) {
+    invalidateNodes(
+        cache.keySet().stream()
+            .map(key -> key.delegate)
+            .filter(node -> node instanceof BuildRule && !rules.contains(node))
+            .collect(Collectors.toList()));
+
+    // Appendables don't depend on the rules using them, so drop them separately once no cached
+    // rule uses them any more.  Nested appendables need another round each.
+    List<Object> unused;
+    do {
+      unused = new ArrayList<>();
+      for (IdentityWrapper<Object> key : cache.keySet()) {
+        if (key.delegate instanceof BuildRule) {
+          continue;
+        }
+        Collection<Object> dependents = dependentsIndex.get(key);
+        if (dependents == null || dependents.stream().noneMatch(this::isCachedNode)) {
+          unused.add(key.delegate);
+        }
+      }
+      invalidateNodes(unused);
+    } while (!unused.isEmpty());
+  }
+
   /**
    * Invalidate everything in the cache.
    */
   @Override
   public void invalidateAll() {
+    dropSeed();
     cache.clear();
     dependentsIndex.clear();
     inputsIndex.clear();
@@ -284,6 +341,87 @@ public class DefaultRuleKeyCache<V> implements RuleKeyCache<V> {
     return builder.build();
   }
 
+  @Override
+  public void seed(RuleKeyCacheSeed<V> seed) {
+    dropSeed();
+    this.seed = seed;
+  }
+
+  // Fold the stats of the current seed, if any, into our own before dropping it.
+  private void dropSeed() {
+    RuleKeyCacheSeed<V> seed = this.seed;
+    this.seed = null;
+    if (seed != null) {
+      seedReusedCount.add(seed.getReusedCount());
+      seedInvalidatedCount.add(seed.getInvalidatedCount());
+    }
+  }
+
+  @Override
+  public long getSeedReusedCount() {
+    RuleKeyCacheSeed<V> seed = this.seed;
+    return seedReusedCount.longValue() + (seed == null ? 0 : seed.getReusedCount());
+  }
+
+  @Override
+  public long getSeedInvalidatedCount() {
+    RuleKeyCacheSeed<V> seed = this.seed;
+    return seedInvalidatedCount.longValue() + (seed == null ? 0 : seed.getInvalidatedCount());
+  }
+
+  /**
+   * Dependencies through {@link RuleKeyAppendable}s are flattened, so that the result can be
+   * persisted and restored without the appendables.
+   */
+  @Override
+  public ImmutableMap<BuildRule, RuleKeyResult<V>> getCachedBuildRuleResults() {
+
+    // Invert the dependents and inputs indices to find the direct deps and inputs of each node.
+    Map<IdentityWrapper<Object>, Set<Object>> deps = new HashMap<>();
+    dependentsIndex.forEach(
+        (dep, dependents) -> {
+          for (Object dependent : dependents) {
+            deps.computeIfAbsent(new IdentityWrapper<>(dependent), k -> Sets.newIdentityHashSet())
+                .add(dep.delegate);
+          }
+        });
+    Map<IdentityWrapper<Object>, Set<RuleKeyInput>> inputs = new HashMap<>();
+    inputsIndex.forEach(
+        (input, nodes) -> {
+          for (Object node : nodes) {
+            inputs.computeIfAbsent(new IdentityWrapper<>(node), k -> new HashSet<>()).add(input);
+          }
+        });
+
+    ImmutableMap.Builder<BuildRule, RuleKeyResult<V>> builder = ImmutableMap.builder();
+    for (Map.Entry<IdentityWrapper<Object>, Supplier<V>> entry : cache.entrySet()) {
+      if (!(entry.getKey().delegate instanceof BuildRule)) {
+        continue;
+      }
+      Set<BuildRule> ruleDeps = new LinkedHashSet<>();
+      Set<RuleKeyInput> ruleInputs = new LinkedHashSet<>();
+      Set<Object> visited = Sets.newIdentityHashSet();
+      Deque<Object> work = new ArrayDeque<>();
+      work.add(entry.getKey().delegate);
+      while (!work.isEmpty()) {
+        Object node = work.remove();
+        ruleInputs.addAll(
+            inputs.getOrDefault(new IdentityWrapper<>(node), ImmutableSet.of()));
+        for (Object dep : deps.getOrDefault(new IdentityWrapper<>(node), ImmutableSet.of())) {
+          if (dep instanceof BuildRule) {
+            ruleDeps.add((BuildRule) dep);
+          } else if (visited.add(dep)) {
+            work.add(dep);
+          }
+        }
+      }
+      builder.put(
+          (BuildRule) entry.getKey().delegate,
+          new RuleKeyResult<>(entry.getValue().get(), ruleDeps, ruleInputs));
+    }
+    return builder.build();
+  }
+
   /**
    * A wrapper class which uses identity equality and hash code.  Intended to wrap keys used in a
    * map.
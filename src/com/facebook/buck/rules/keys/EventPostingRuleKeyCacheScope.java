@@ -30,6 +30,8 @@ public class EventPostingRuleKeyCacheScope<V> implements RuleKeyCacheScope<V> {
   private final RuleKeyCache<V> cache;
 
   private final CacheStats startStats;
+  private final long startSeedReusedCount;
+  private final long startSeedInvalidatedCount;
 
   public EventPostingRuleKeyCacheScope(
       BuckEventBus buckEventBus,
@@ -42,6 +44,8 @@ public class EventPostingRuleKeyCacheScope<V> implements RuleKeyCacheScope<V> {
 
       // Record the initial stats.
       startStats = cache.getStats();
+      startSeedReusedCount = cache.getSeedReusedCount();
+      startSeedInvalidatedCount = cache.getSeedInvalidatedCount();
 
       // Run additional setup.
       setup(scope);
@@ -72,12 +76,16 @@ public class EventPostingRuleKeyCacheScope<V> implements RuleKeyCacheScope<V> {
 
       // Log stats.
       CacheStats stats = cache.getStats().minus(startStats);
-      buckEventBus.post(RuleKeyCacheStatsEvent.create(stats));
+      long seedReused = cache.getSeedReusedCount() - startSeedReusedCount;
+      long seedInvalidated = cache.getSeedInvalidatedCount() - startSeedInvalidatedCount;
+      buckEventBus.post(RuleKeyCacheStatsEvent.create(stats, seedReused, seedInvalidated));
       scope.update("hitRate", stats.hitRate());
       scope.update("hits", stats.hitCount());
       scope.update("misses", stats.missCount());
       scope.update("requests", stats.requestCount());
       scope.update("load_time_ns", stats.totalLoadTime());
+      scope.update("seed_reused", seedReused);
+      scope.update("seed_invalidated", seedInvalidated);
 
       // Run additional cleanup.
       cleanup(scope);
@@ -16,18 +16,38 @@
 
 package com.facebook.buck.rules.keys;
 
+import com.google.common.base.Throwables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 
 import javax.annotation.Nullable;
 
 /**
  * Extracts a value of a given field, that is assumed to be accessible.
+ *
+ * The field is read through a {@link MethodHandle} resolved once up front, which skips the access
+ * and type checks {@link Field#get} repeats on every call.
  */
 public class FieldValueExtractor implements ValueExtractor {
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
   private final Field field;
+  private final MethodHandle getter;
 
   public FieldValueExtractor(Field field) {
     this.field = field;
+    this.getter = unreflectGetter(field).asType(GETTER_TYPE);
+  }
+
+  static MethodHandle unreflectGetter(Field field) {
+    try {
+      return MethodHandles.lookup().unreflectGetter(field);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(e);
+    }
   }
 
   @Override
@@ -44,9 +64,10 @@ public class FieldValueExtractor implements ValueExtractor {
   @Nullable
   public Object getValue(Object obj) {
     try {
-      return field.get(obj);
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException(e);
+      return getter.invokeExact(obj);
+    } catch (Throwable t) {
+      Throwables.throwIfUnchecked(t);
+      throw new RuntimeException(t);
     }
   }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules.keys;
+
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.RuleKeyFieldCategory;
+import com.facebook.buck.rules.RuleKeyObjectSink;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Adds a primitive field to the rule key. Booleans are read without boxing, and values go straight
+ * to the {@link RuleKeyBuilder}'s hasher rather than through the type dispatch of
+ * {@link RuleKeyBuilder#setReflectively(Object)}.
+ */
+class PrimitiveAlterRuleKey implements AlterRuleKey {
+  private static final MethodType BOOLEAN_GETTER_TYPE =
+      MethodType.methodType(boolean.class, Object.class);
+  private static final MethodType NUMBER_GETTER_TYPE =
+      MethodType.methodType(Number.class, Object.class);
+
+  private final String name;
+  private final RuleKeyFieldCategory category;
+  private final boolean isBoolean;
+  private final MethodHandle getter;
+
+  public PrimitiveAlterRuleKey(Field field, RuleKeyFieldCategory category) {
+    Preconditions.checkArgument(isSupported(field), "Not a boolean or numeric field: %s", field);
+    this.name = field.getName();
+    this.category = category;
+    this.isBoolean = field.getType() == boolean.class;
+    this.getter = FieldValueExtractor.unreflectGetter(field)
+        .asType(isBoolean ? BOOLEAN_GETTER_TYPE : NUMBER_GETTER_TYPE);
+  }
+
+  /** {@code char} fields are left out, as rule keys have no representation for characters. */
+  public static boolean isSupported(Field field) {
+    return field.getType().isPrimitive() && field.getType() != char.class;
+  }
+
+  @Override
+  public void amendKey(RuleKeyObjectSink builder, BuildRule rule) {
+    if (builder instanceof RuleKeyBuilder) {
+      RuleKeyBuilder<?> ruleKeyBuilder = (RuleKeyBuilder<?>) builder;
+      if (isBoolean) {
+        ruleKeyBuilder.setBoolean(name, getBoolean(rule), category);
+      } else {
+        ruleKeyBuilder.setNumber(name, getNumber(rule), category);
+      }
+    } else {
+      builder.setReflectively(name, isBoolean ? getBoolean(rule) : getNumber(rule), category);
+    }
+  }
+
+  private boolean getBoolean(BuildRule rule) {
+    try {
+      return (boolean) getter.invokeExact((Object) rule);
+    } catch (Throwable t) {
+      Throwables.throwIfUnchecked(t);
+      throw new RuntimeException(t);
+    }
+  }
+
+  private Number getNumber(BuildRule rule) {
+    try {
+      return (Number) getter.invokeExact((Object) rule);
+    } catch (Throwable t) {
+      Throwables.throwIfUnchecked(t);
+      throw new RuntimeException(t);
+    }
+  }
+}
@@ -47,7 +47,9 @@ class ReflectiveAlterKeyLoader
         final AddToRuleKey annotation = field.getAnnotation(AddToRuleKey.class);
         if (annotation != null) {
           ValueExtractor valueExtractor = new FieldValueExtractor(field);
-          sortedExtractors.put(valueExtractor, createAlterRuleKey(valueExtractor, annotation));
+          sortedExtractors.put(
+              valueExtractor,
+              createAlterRuleKey(field, valueExtractor, annotation));
         }
       }
       builder.addAll(sortedExtractors.build().values());
@@ -55,9 +57,14 @@ class ReflectiveAlterKeyLoader
     return builder.build();
   }
 
-  private AlterRuleKey createAlterRuleKey(ValueExtractor valueExtractor, AddToRuleKey annotation) {
+  private AlterRuleKey createAlterRuleKey(
+      Field field,
+      ValueExtractor valueExtractor,
+      AddToRuleKey annotation) {
     if (annotation.stringify()) {
       return new StringifyAlterRuleKey(valueExtractor, annotation.category());
+    } else if (PrimitiveAlterRuleKey.isSupported(field)) {
+      return new PrimitiveAlterRuleKey(field, annotation.category());
     } else {
       return new DefaultAlterRuleKey(valueExtractor, annotation.category());
     }
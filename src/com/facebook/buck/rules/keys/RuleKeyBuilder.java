@@ -114,7 +114,7 @@ public abstract class RuleKeyBuilder<RULE_KEY> implements RuleKeyObjectSink {
   }
 
   public static RuleKeyHasher<HashCode> createDefaultHasher() {
-    RuleKeyHasher<HashCode> hasher = new GuavaRuleKeyHasher(Hashing.sha1().newHasher());
+    RuleKeyHasher<HashCode> hasher = new BufferedRuleKeyHasher(Hashing.sha1().newHasher());
     if (logger.isVerboseEnabled()) {
       hasher = new ForwardingRuleKeyHasher<HashCode, String>(hasher, new StringRuleKeyHasher()) {
         @Override
@@ -140,6 +140,29 @@ public abstract class RuleKeyBuilder<RULE_KEY> implements RuleKeyObjectSink {
     }
   }
 
+  /**
+   * Same as {@link #setReflectively(String, Object, RuleKeyFieldCategory)} for a boolean, without
+   * boxing it or dispatching on its type.
+   */
+  final RuleKeyBuilder<RULE_KEY> setBoolean(
+      String key, boolean val, RuleKeyFieldCategory category) {
+    hasher.selectCategory(category);
+    hasher.putBoolean(val);
+    hasher.putKey(key);
+    return this;
+  }
+
+  /**
+   * Same as {@link #setReflectively(String, Object, RuleKeyFieldCategory)} for a number, without
+   * dispatching on its type.
+   */
+  final RuleKeyBuilder<RULE_KEY> setNumber(String key, Number val, RuleKeyFieldCategory category) {
+    hasher.selectCategory(category);
+    hasher.putNumber(val);
+    hasher.putKey(key);
+    return this;
+  }
+
   /** Recursively serializes the value. Serialization of the key is handled outside. */
   protected RuleKeyBuilder<RULE_KEY> setReflectively(@Nullable Object val) {
     if (val instanceof RuleKeyAppendable) {
@@ -21,10 +21,12 @@ import com.facebook.buck.rules.BuildRule;
 import com.facebook.buck.rules.RuleKeyAppendable;
 import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -47,9 +49,29 @@ public interface RuleKeyCache<V> {
   /**
    * @return the contents of the {@link RuleKeyCache}.
    */
-  default ImmutableList<Map.Entry<BuildRule, V>> getCachedBuildRules() {
-    throw new UnsupportedOperationException();
-  }
+  ImmutableList<Map.Entry<BuildRule, V>> getCachedBuildRules();
+
+  /**
+   * @return the cached {@link BuildRule}s along with the {@link BuildRule}s and inputs their rule
+   *         keys depend on.
+   */
+  ImmutableMap<BuildRule, RuleKeyResult<V>> getCachedBuildRuleResults();
+
+  /**
+   * Use the given {@link RuleKeyCacheSeed} as a source of rule keys for {@link BuildRule}s which
+   * aren't yet cached.  The seed is dropped on the next {@link #invalidateAll()}.
+   */
+  void seed(RuleKeyCacheSeed<V> seed);
+
+  /**
+   * @return the number of rule keys served from {@link RuleKeyCacheSeed}s.
+   */
+  long getSeedReusedCount();
+
+  /**
+   * @return the number of rule keys {@link RuleKeyCacheSeed}s found to be out of date.
+   */
+  long getSeedInvalidatedCount();
 
   /**
    * Invalidate the given inputs and all their transitive dependents.
@@ -72,6 +94,16 @@ public interface RuleKeyCache<V> {
    */
   void invalidateFilesystem(ProjectFilesystem filesystem);
 
+  /**
+   * Invalidate all {@link BuildRule}s *not* in the given set and their transitive dependents.
+   * Used to keep the rule keys of rules carried over into a new action graph.
+   *
+   * @param rules the rules to keep, which must be compared by identity.
+   */
+  default void invalidateAllExceptBuildRules(Set<BuildRule> rules) {
+    invalidateAll();
+  }
+
   /**
    * Invalidate everything in the cache.
    */
@@ -22,16 +22,23 @@ import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.io.WatchEvents;
 import com.facebook.buck.log.Logger;
 import com.facebook.buck.rules.ActionGraph;
+import com.facebook.buck.rules.ActionGraphAndResolver;
 import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.BuildRuleResolver;
 import com.facebook.buck.util.MoreCollectors;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.IntStream;
@@ -48,14 +55,22 @@ public class RuleKeyCacheRecycler<V> {
   private final RuleKeyCache<V> cache;
   private final ImmutableSet<ProjectFilesystem> watchedFilesystems;
 
+  /**
+   * Loads rule keys persisted by a previous process to seed the cache with on its first use.
+   */
+  @Nullable
+  private Function<BuildRuleResolver, Optional<RuleKeyCacheSeed<V>>> seedLoader;
+
   @Nullable
   private SettingsAffectingCache previousSettings = null;
 
   private RuleKeyCacheRecycler(
       RuleKeyCache<V> cache,
-      ImmutableSet<ProjectFilesystem> watchedFilesystems) {
+      ImmutableSet<ProjectFilesystem> watchedFilesystems,
+      @Nullable Function<BuildRuleResolver, Optional<RuleKeyCacheSeed<V>>> seedLoader) {
     this.cache = cache;
     this.watchedFilesystems = watchedFilesystems;
+    this.seedLoader = seedLoader;
   }
 
   /**
@@ -68,8 +83,22 @@ public class RuleKeyCacheRecycler<V> {
       EventBus eventBus,
       RuleKeyCache<V> ruleKeyCache,
       ImmutableSet<ProjectFilesystem> watchedFilesystems) {
+    return createAndRegister(eventBus, ruleKeyCache, watchedFilesystems, null);
+  }
 
-    RuleKeyCacheRecycler<V> recycler = new RuleKeyCacheRecycler<>(ruleKeyCache, watchedFilesystems);
+  /**
+   * @param seedLoader used once, when the cache is first used, to load rule keys persisted by a
+   *                   previous process from the {@link BuildRuleResolver} of the current build.
+   * @return a new {@link RuleKeyCacheRecycler}.
+   */
+  public static <V> RuleKeyCacheRecycler<V> createAndRegister(
+      EventBus eventBus,
+      RuleKeyCache<V> ruleKeyCache,
+      ImmutableSet<ProjectFilesystem> watchedFilesystems,
+      @Nullable Function<BuildRuleResolver, Optional<RuleKeyCacheSeed<V>>> seedLoader) {
+
+    RuleKeyCacheRecycler<V> recycler =
+        new RuleKeyCacheRecycler<>(ruleKeyCache, watchedFilesystems, seedLoader);
 
     // Subscribe the recycler to receive filesystem watch events.
     eventBus.register(recycler);
@@ -78,7 +107,7 @@ public class RuleKeyCacheRecycler<V> {
   }
 
   public static <V> RuleKeyCacheRecycler<V> create(RuleKeyCache<V> ruleKeyCache) {
-    return new RuleKeyCacheRecycler<>(ruleKeyCache, ImmutableSet.of());
+    return new RuleKeyCacheRecycler<>(ruleKeyCache, ImmutableSet.of(), null);
   }
 
   @Subscribe
@@ -129,13 +158,23 @@ public class RuleKeyCacheRecycler<V> {
       protected void setup(SimplePerfEvent.Scope scope) {
         super.setup(scope);
 
-        // We invalidate everything if any of the settings we care about change.
-        if (!SettingsAffectingCache.areIdentical(previousSettings, currentSettings)) {
+        // We invalidate everything if any of the settings we care about change, except when only
+        // the action graph changed and some of its rules were carried over from the previous one
+        // (e.g. by an incremental update), in which case those rules keep their keys.
+        if (SettingsAffectingCache.areIdentical(previousSettings, currentSettings)) {
+          scope.update("settings_change", false);
+        } else if (SettingsAffectingCache.sharesBuildRules(previousSettings, currentSettings)) {
+          LOG.debug("invalidating rules not in the new action graph");
+          Set<BuildRule> rules = Sets.newIdentityHashSet();
+          Iterables.addAll(rules, currentSettings.actionGraph.getNodes());
+          cache.invalidateAllExceptBuildRules(rules);
+          scope.update("settings_change", false);
+          scope.update("action_graph_change", true);
+        } else {
           LOG.debug("invalidating entire cache due to settings change");
           cache.invalidateAll();
           scope.update("settings_change", true);
-        } else {
-          scope.update("settings_change", false);
+          seedCache(scope, currentSettings);
         }
 
         // Record the current settings for next time.
@@ -159,6 +198,22 @@ public class RuleKeyCacheRecycler<V> {
     };
   }
 
+  // On first use, seed the freshly invalidated cache with any persisted rule keys.
+  private void seedCache(SimplePerfEvent.Scope scope, SettingsAffectingCache settings) {
+    Function<BuildRuleResolver, Optional<RuleKeyCacheSeed<V>>> seedLoader = this.seedLoader;
+    Optional<BuildRuleResolver> resolver = settings.resolver;
+    if (seedLoader == null || !resolver.isPresent()) {
+      return;
+    }
+    this.seedLoader = null;
+    Optional<RuleKeyCacheSeed<V>> seed = seedLoader.apply(resolver.get());
+    if (seed.isPresent()) {
+      LOG.debug("seeding cache with persisted rule keys");
+      cache.seed(seed.get());
+    }
+    scope.update("seeded", seed.isPresent());
+  }
+
   /**
    * Run the given {@link Function} with access to the {@link RuleKeyCache}.  This is a convenience
    * method used to abstract away handling of the {@link RuleKeyCacheScope} inside a try-resource
@@ -191,6 +246,22 @@ public class RuleKeyCacheRecycler<V> {
     return cache.getCachedBuildRules();
   }
 
+  /**
+   * @return the {@link BuildRuleResolver} which owns the {@link BuildRule}s currently in the cache,
+   *         if known.
+   */
+  public Optional<BuildRuleResolver> getBuildRuleResolver() {
+    SettingsAffectingCache settings = previousSettings;
+    return settings == null ? Optional.empty() : settings.resolver;
+  }
+
+  /**
+   * @return the cached {@link BuildRule}s along with the rules and inputs their keys depend on.
+   */
+  public ImmutableMap<BuildRule, RuleKeyResult<V>> getCachedBuildRuleResults() {
+    return cache.getCachedBuildRuleResults();
+  }
+
   /**
    * Any external settings which, if changed, will cause the entire cache to be invalidated.
    */
@@ -198,10 +269,18 @@ public class RuleKeyCacheRecycler<V> {
 
     private final int ruleKeySeed;
     private final ActionGraph actionGraph;
+    private final Optional<BuildRuleResolver> resolver;
 
     public SettingsAffectingCache(int ruleKeySeed, ActionGraph actionGraph) {
       this.ruleKeySeed = ruleKeySeed;
       this.actionGraph = actionGraph;
+      this.resolver = Optional.empty();
+    }
+
+    public SettingsAffectingCache(int ruleKeySeed, ActionGraphAndResolver actionGraphAndResolver) {
+      this.ruleKeySeed = ruleKeySeed;
+      this.actionGraph = actionGraphAndResolver.getActionGraph();
+      this.resolver = Optional.of(actionGraphAndResolver.getResolver());
     }
 
     private static boolean areIdentical(
@@ -217,10 +296,10 @@ public class RuleKeyCacheRecycler<V> {
         return false;
       }
 
-      // NOTE: Since the cache indexes using instance equality, it's only ever useful if we get a
-      // hit in the action graph cache and re-use the same action graph in the next build.  So, if
-      // we detect that a fresh action graph is being used, we eagerly dump the cache to free up
-      // memory.
+      // NOTE: Since the cache indexes using instance equality, it's only ever useful for rules
+      // which are re-used in the next build, either by a hit in the action graph cache or by an
+      // incremental update of the action graph.  So, if we detect that a different action graph is
+      // being used, we eagerly dump the keys of all rules not in it to free up memory.
       if (previous.actionGraph != current.actionGraph) {
         return false;
       }
@@ -228,6 +307,29 @@ public class RuleKeyCacheRecycler<V> {
       return true;
     }
 
+    /**
+     * @return whether only the action graph changed and at least one of its rules was carried over
+     *     from the previous one.  A freshly built action graph shares no rules, so there's nothing
+     *     worth keeping and the cache can simply be dropped wholesale.
+     */
+    private static boolean sharesBuildRules(
+        @Nullable SettingsAffectingCache previous,
+        SettingsAffectingCache current) {
+      if (previous == null ||
+          previous.ruleKeySeed != current.ruleKeySeed ||
+          previous.actionGraph == current.actionGraph) {
+        return false;
+      }
+      Set<BuildRule> previousRules = Sets.newIdentityHashSet();
+      Iterables.addAll(previousRules, previous.actionGraph.getNodes());
+      for (BuildRule rule : current.actionGraph.getNodes()) {
+        if (previousRules.contains(rule)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
   }
 
 }
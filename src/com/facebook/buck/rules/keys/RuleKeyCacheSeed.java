@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules.keys;
+
+import com.facebook.buck.rules.BuildRule;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A source of rule keys for {@link BuildRule}s which were computed outside of a
+ * {@link RuleKeyCache} (e.g. persisted by a previous daemon), which the cache may use in preference
+ * to computing them.
+ *
+ * @param <V> The rule key type.
+ */
+public interface RuleKeyCacheSeed<V> {
+
+  /**
+   * @param depKeys used to look up the current rule keys of any dependencies of {@code rule}, so
+   *                that the seeded value can be checked against them.
+   * @return the seeded rule key for {@code rule}, along with the dependencies and inputs it was
+   *         calculated from, if it is still valid.
+   */
+  Optional<RuleKeyResult<V>> get(BuildRule rule, Function<BuildRule, V> depKeys);
+
+  /**
+   * @return the number of seeded rule keys which have been handed out.
+   */
+  long getReusedCount();
+
+  /**
+   * @return the number of seeded rule keys which were found to be out of date.
+   */
+  long getInvalidatedCount();
+
+}
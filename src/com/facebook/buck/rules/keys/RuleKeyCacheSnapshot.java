@@ -0,0 +1,424 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules.keys;
+
+import com.facebook.buck.hashing.FileHashLoader;
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.log.Logger;
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.BuildRuleResolver;
+import com.facebook.buck.rules.RuleKey;
+import com.facebook.buck.rules.TargetGraph;
+import com.facebook.buck.rules.TargetNode;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A serializable snapshot of the contents of a {@link DefaultRuleKeyCache}, used to carry rule keys
+ * across daemon restarts.
+ *
+ * Entries are keyed by build target and record, alongside the rule key, everything needed to check
+ * whether the key is still valid in a later process: a hash of the target's definition (and those
+ * of its transitive parse deps), the hashes of the rule key's inputs, and the rule keys of the
+ * rules it depends on.
+ */
+public class RuleKeyCacheSnapshot {
+
+  private static final Logger LOG = Logger.get(RuleKeyCacheSnapshot.class);
+
+  private static final int VERSION = 0;
+
+  /**
+   * A hash of all global state affecting rule keys (e.g. buck version and configuration).  A
+   * snapshot is only used if this matches that of the current process.
+   */
+  private final HashCode fingerprint;
+
+  private final ImmutableMap<String, Entry> entries;
+
+  private RuleKeyCacheSnapshot(HashCode fingerprint, ImmutableMap<String, Entry> entries) {
+    this.fingerprint = fingerprint;
+    this.entries = entries;
+  }
+
+  /**
+   * Create a snapshot from the given cached results.
+   *
+   * @param resolver the {@link BuildRuleResolver} owning the cached rules.
+   * @param hashLoader used to record the current hashes of rule key inputs.
+   */
+  public static RuleKeyCacheSnapshot create(
+      HashCode fingerprint,
+      BuildRuleResolver resolver,
+      ImmutableMap<BuildRule, RuleKeyResult<RuleKey>> results,
+      FileHashLoader hashLoader) {
+    DefinitionHasher definitionHasher = new DefinitionHasher(resolver.getTargetGraph());
+    ImmutableMap.Builder<String, Entry> entries = ImmutableMap.builder();
+    for (Map.Entry<BuildRule, RuleKeyResult<RuleKey>> result : results.entrySet()) {
+      BuildRule rule = result.getKey();
+      Optional<HashCode> definitionHash = definitionHasher.get(rule.getBuildTarget());
+      if (!definitionHash.isPresent()) {
+        continue;
+      }
+
+      Optional<ImmutableList<InputEntry>> inputs =
+          getInputEntries(rule, result.getValue(), hashLoader);
+      if (!inputs.isPresent()) {
+        continue;
+      }
+
+      ImmutableMap.Builder<String, RuleKey> deps = ImmutableMap.builder();
+      boolean allDepsCached = true;
+      for (Object dep : result.getValue().deps) {
+        RuleKeyResult<RuleKey> depResult = results.get(dep);
+        if (depResult == null) {
+          allDepsCached = false;
+          break;
+        }
+        deps.put(((BuildRule) dep).getBuildTarget().toString(), depResult.result);
+      }
+      if (!allDepsCached) {
+        continue;
+      }
+
+      entries.put(
+          rule.getBuildTarget().toString(),
+          new Entry(result.getValue().result, definitionHash.get(), inputs.get(), deps.build()));
+    }
+    return new RuleKeyCacheSnapshot(fingerprint, entries.build());
+  }
+
+  private static Optional<ImmutableList<InputEntry>> getInputEntries(
+      BuildRule rule,
+      RuleKeyResult<RuleKey> result,
+      FileHashLoader hashLoader) {
+    ImmutableList.Builder<InputEntry> inputs = ImmutableList.builder();
+    for (RuleKeyInput input : result.inputs) {
+      // Inputs are restored relative to the filesystem with the same root in the next process, so
+      // an absolute path can't be persisted.
+      if (input.getPath().isAbsolute()) {
+        LOG.verbose("not persisting rule key for %s: input %s is absolute", rule, input.getPath());
+        return Optional.empty();
+      }
+      try {
+        inputs.add(
+            new InputEntry(
+                input.getFilesystem().getRootPath(),
+                input.getPath(),
+                hashLoader.get(input.getFilesystem(), input.getPath())));
+      } catch (IOException e) {
+        LOG.verbose(e, "not persisting rule key for %s", rule);
+        return Optional.empty();
+      }
+    }
+    return Optional.of(inputs.build());
+  }
+
+  /**
+   * Deserialize a snapshot from the given {@link InputStream}.
+   *
+   * @return the snapshot, or {@link Optional#empty()} if it was written using a different format
+   *         or {@code fingerprint}.
+   */
+  public static Optional<RuleKeyCacheSnapshot> read(InputStream rawInput, HashCode fingerprint)
+      throws IOException {
+    DataInputStream input = new DataInputStream(rawInput);
+
+    if (input.readInt() != VERSION) {
+      return Optional.empty();
+    }
+    HashCode snapshotFingerprint = HashCode.fromString(input.readUTF());
+    if (!snapshotFingerprint.equals(fingerprint)) {
+      return Optional.empty();
+    }
+
+    int numberOfEntries = input.readInt();
+    ImmutableMap.Builder<String, Entry> entries = ImmutableMap.builder();
+    for (int index = 0; index < numberOfEntries; index++) {
+      String target = input.readUTF();
+      RuleKey ruleKey = new RuleKey(input.readUTF());
+      HashCode definitionHash = HashCode.fromString(input.readUTF());
+
+      int numberOfInputs = input.readInt();
+      ImmutableList.Builder<InputEntry> inputs = ImmutableList.builder();
+      for (int inputIndex = 0; inputIndex < numberOfInputs; inputIndex++) {
+        inputs.add(
+            new InputEntry(
+                Paths.get(input.readUTF()),
+                Paths.get(input.readUTF()),
+                HashCode.fromString(input.readUTF())));
+      }
+
+      int numberOfDeps = input.readInt();
+      ImmutableMap.Builder<String, RuleKey> deps = ImmutableMap.builder();
+      for (int depIndex = 0; depIndex < numberOfDeps; depIndex++) {
+        deps.put(input.readUTF(), new RuleKey(input.readUTF()));
+      }
+
+      entries.put(target, new Entry(ruleKey, definitionHash, inputs.build(), deps.build()));
+    }
+
+    return Optional.of(new RuleKeyCacheSnapshot(fingerprint, entries.build()));
+  }
+
+  public void write(OutputStream rawOutput) throws IOException {
+    DataOutputStream output = new DataOutputStream(rawOutput);
+
+    output.writeInt(VERSION);
+    output.writeUTF(fingerprint.toString());
+
+    output.writeInt(entries.size());
+    for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+      Entry entry = mapEntry.getValue();
+      output.writeUTF(mapEntry.getKey());
+      output.writeUTF(entry.ruleKey.toString());
+      output.writeUTF(entry.definitionHash.toString());
+      output.writeInt(entry.inputs.size());
+      for (InputEntry input : entry.inputs) {
+        output.writeUTF(input.root.toString());
+        output.writeUTF(input.path.toString());
+        output.writeUTF(input.hash.toString());
+      }
+      output.writeInt(entry.deps.size());
+      for (Map.Entry<String, RuleKey> dep : entry.deps.entrySet()) {
+        output.writeUTF(dep.getKey());
+        output.writeUTF(dep.getValue().toString());
+      }
+    }
+
+    output.flush();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @param resolver the {@link BuildRuleResolver} of the current build.
+   * @param hashLoader used to check the recorded input hashes against the current ones.
+   * @param filesystems the {@link ProjectFilesystem}s which inputs may come from, indexed by root.
+   * @return a {@link RuleKeyCacheSeed} which serves the rule keys in this snapshot which are still
+   *         valid.
+   */
+  public RuleKeyCacheSeed<RuleKey> toSeed(
+      BuildRuleResolver resolver,
+      FileHashLoader hashLoader,
+      ImmutableMap<Path, ProjectFilesystem> filesystems) {
+    return new Seed(resolver, hashLoader, filesystems);
+  }
+
+  private class Seed implements RuleKeyCacheSeed<RuleKey> {
+
+    private final DefinitionHasher definitionHasher;
+    private final FileHashLoader hashLoader;
+    private final ImmutableMap<Path, ProjectFilesystem> filesystems;
+    private final Supplier<ImmutableMap<String, BuildRule>> rules;
+
+    private final LongAdder reusedCount = new LongAdder();
+    private final LongAdder invalidatedCount = new LongAdder();
+
+    private Seed(
+        BuildRuleResolver resolver,
+        FileHashLoader hashLoader,
+        ImmutableMap<Path, ProjectFilesystem> filesystems) {
+      this.definitionHasher = new DefinitionHasher(resolver.getTargetGraph());
+      this.hashLoader = hashLoader;
+      this.filesystems = filesystems;
+      this.rules =
+          Suppliers.memoize(
+              () -> {
+                Map<String, BuildRule> rules = new HashMap<>();
+                for (BuildRule rule : resolver.getBuildRules()) {
+                  rules.put(rule.getBuildTarget().toString(), rule);
+                }
+                return ImmutableMap.copyOf(rules);
+              });
+    }
+
+    @Override
+    public Optional<RuleKeyResult<RuleKey>> get(
+        BuildRule rule,
+        Function<BuildRule, RuleKey> depKeys) {
+      Entry entry = entries.get(rule.getBuildTarget().toString());
+      if (entry == null) {
+        return Optional.empty();
+      }
+      Optional<RuleKeyResult<RuleKey>> result = validate(rule, entry, depKeys);
+      if (result.isPresent()) {
+        reusedCount.increment();
+      } else {
+        LOG.verbose("persisted rule key for %s is out of date", rule);
+        invalidatedCount.increment();
+      }
+      return result;
+    }
+
+    private Optional<RuleKeyResult<RuleKey>> validate(
+        BuildRule rule,
+        Entry entry,
+        Function<BuildRule, RuleKey> depKeys) {
+
+      if (!definitionHasher.get(rule.getBuildTarget()).equals(Optional.of(entry.definitionHash))) {
+        return Optional.empty();
+      }
+
+      ImmutableList.Builder<RuleKeyInput> inputs = ImmutableList.builder();
+      for (InputEntry input : entry.inputs) {
+        ProjectFilesystem filesystem = filesystems.get(input.root);
+        if (filesystem == null) {
+          return Optional.empty();
+        }
+        try {
+          if (!hashLoader.get(filesystem, input.path).equals(input.hash)) {
+            return Optional.empty();
+          }
+        } catch (IOException e) {
+          return Optional.empty();
+        }
+        inputs.add(RuleKeyInput.of(filesystem, input.path));
+      }
+
+      ImmutableList.Builder<BuildRule> deps = ImmutableList.builder();
+      for (Map.Entry<String, RuleKey> dep : entry.deps.entrySet()) {
+        BuildRule depRule = rules.get().get(dep.getKey());
+        if (depRule == null || !depKeys.apply(depRule).equals(dep.getValue())) {
+          return Optional.empty();
+        }
+        deps.add(depRule);
+      }
+
+      return Optional.of(new RuleKeyResult<>(entry.ruleKey, deps.build(), inputs.build()));
+    }
+
+    @Override
+    public long getReusedCount() {
+      return reusedCount.longValue();
+    }
+
+    @Override
+    public long getInvalidatedCount() {
+      return invalidatedCount.longValue();
+    }
+
+  }
+
+  /**
+   * Hashes the definitions of targets, as parsed from build files, along with those of their
+   * transitive parse deps.  Rules whose targets have no node of their own (e.g. flavored rules
+   * created by descriptions) use the node of their unflavored target.
+   */
+  private static class DefinitionHasher {
+
+    private final TargetGraph targetGraph;
+    private final ConcurrentMap<BuildTarget, HashCode> hashes = new ConcurrentHashMap<>();
+
+    private DefinitionHasher(TargetGraph targetGraph) {
+      this.targetGraph = targetGraph;
+    }
+
+    public Optional<HashCode> get(BuildTarget target) {
+      Optional<TargetNode<?, ?>> node = targetGraph.getOptional(target);
+      if (!node.isPresent()) {
+        node = targetGraph.getOptional(BuildTarget.of(target.getUnflavoredBuildTarget()));
+      }
+      if (!node.isPresent()) {
+        return Optional.empty();
+      }
+      Hasher hasher = Hashing.sha1().newHasher();
+      hasher.putString(target.toString(), StandardCharsets.UTF_8);
+      hasher.putBytes(getNodeHash(node.get()).asBytes());
+      return Optional.of(hasher.hash());
+    }
+
+    private HashCode getNodeHash(TargetNode<?, ?> node) {
+      HashCode hash = hashes.get(node.getBuildTarget());
+      if (hash != null) {
+        return hash;
+      }
+      Hasher hasher = Hashing.sha1().newHasher();
+      hasher.putString(node.getBuildTarget().toString(), StandardCharsets.UTF_8);
+      hasher.putBytes(node.getRawInputsHashCode().asBytes());
+      for (BuildTarget dep : ImmutableSortedSet.copyOf(node.getParseDeps())) {
+        hasher.putBytes(getNodeHash(targetGraph.get(dep)).asBytes());
+      }
+      hash = hasher.hash();
+      hashes.put(node.getBuildTarget(), hash);
+      return hash;
+    }
+
+  }
+
+  private static class Entry {
+
+    private final RuleKey ruleKey;
+    private final HashCode definitionHash;
+    private final ImmutableList<InputEntry> inputs;
+    private final ImmutableMap<String, RuleKey> deps;
+
+    private Entry(
+        RuleKey ruleKey,
+        HashCode definitionHash,
+        ImmutableList<InputEntry> inputs,
+        ImmutableMap<String, RuleKey> deps) {
+      this.ruleKey = ruleKey;
+      this.definitionHash = definitionHash;
+      this.inputs = inputs;
+      this.deps = deps;
+    }
+
+  }
+
+  private static class InputEntry {
+
+    private final Path root;
+    private final Path path;
+    private final HashCode hash;
+
+    private InputEntry(Path root, Path path, HashCode hash) {
+      Preconditions.checkArgument(!path.isAbsolute());
+      this.root = root;
+      this.path = path;
+      this.hash = hash;
+    }
+
+  }
+
+}
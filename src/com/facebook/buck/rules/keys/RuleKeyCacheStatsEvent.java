@@ -23,16 +23,33 @@ import com.google.common.cache.CacheStats;
 public class RuleKeyCacheStatsEvent extends AbstractBuckEvent {
 
   private final CacheStats stats;
+  private final long seedReusedCount;
+  private final long seedInvalidatedCount;
 
   private RuleKeyCacheStatsEvent(
       EventKey eventKey,
-      CacheStats stats) {
+      CacheStats stats,
+      long seedReusedCount,
+      long seedInvalidatedCount) {
     super(eventKey);
     this.stats = stats;
+    this.seedReusedCount = seedReusedCount;
+    this.seedInvalidatedCount = seedInvalidatedCount;
   }
 
   public static RuleKeyCacheStatsEvent create(CacheStats stats) {
-    return new RuleKeyCacheStatsEvent(EventKey.unique(), stats);
+    return create(stats, 0, 0);
+  }
+
+  public static RuleKeyCacheStatsEvent create(
+      CacheStats stats,
+      long seedReusedCount,
+      long seedInvalidatedCount) {
+    return new RuleKeyCacheStatsEvent(
+        EventKey.unique(),
+        stats,
+        seedReusedCount,
+        seedInvalidatedCount);
   }
 
   @Override
@@ -49,4 +66,18 @@ public class RuleKeyCacheStatsEvent extends AbstractBuckEvent {
     return stats;
   }
 
+  /**
+   * @return the number of rule keys reused from a persisted snapshot.
+   */
+  public long getSeedReusedCount() {
+    return seedReusedCount;
+  }
+
+  /**
+   * @return the number of rule keys from a persisted snapshot which were found to be out of date.
+   */
+  public long getSeedInvalidatedCount() {
+    return seedInvalidatedCount;
+  }
+
 }
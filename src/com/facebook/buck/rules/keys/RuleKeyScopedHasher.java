@@ -16,15 +16,31 @@
 
 package com.facebook.buck.rules.keys;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * A wrapper of {@link RuleKeyHasher} that provides scoped hashing facilities.
  *
  * Important: Container, wrapper and key signatures only get hashed if their scope was non-empty.
  * I.e. if at least one thing gets hashed under their scope. This is to support rule key builders
  * that ignore some fields.
+ *
+ * Scopes must be closed in the reverse order they were opened, as try-with-resources does. This
+ * lets their state live on a stack that is reused for every field, instead of in a new object.
  */
 public class RuleKeyScopedHasher<HASH> {
   private final CountingRuleKeyHasher<HASH> hasher;
+  private final Scope scope = this::closeScope;
+
+  // What to do when each open scope closes: a key, a wrapper, or the container of an element.
+  private Object[] scopeSignatures = new Object[16];
+  private long[] scopeCounts = new long[16];
+  private int scopeDepth = 0;
+
+  private final List<ContainerScope> containerScopes = new ArrayList<>();
+  private int containerDepth = 0;
 
   public RuleKeyScopedHasher(CountingRuleKeyHasher<HASH> hasher) {
     this.hasher = hasher;
@@ -36,22 +52,12 @@ public class RuleKeyScopedHasher<HASH> {
 
   /** Hashes the key iff non-empty (i.e. if anything gets hashed during its scope). */
   public Scope keyScope(final String key) {
-    final long hasherCount = hasher.getCount();
-    return () -> {
-      if (hasher.getCount() > hasherCount) {
-        hasher.putKey(key);
-      }
-    };
+    return openScope(key);
   }
 
   /** Hashes the wrapper iff non-empty (i.e. if any element gets hashed during its scope). */
   public Scope wrapperScope(final RuleKeyHasher.Wrapper wrapper) {
-    final long hasherCount = hasher.getCount();
-    return () -> {
-      if (hasher.getCount() > hasherCount) {
-        hasher.putWrapper(wrapper);
-      }
-    };
+    return openScope(wrapper);
   }
 
   /**
@@ -60,34 +66,66 @@ public class RuleKeyScopedHasher<HASH> {
    * Note that an element scope needs to be created for each element!
    */
   public ContainerScope containerScope(final RuleKeyHasher.Container container) {
-    return new ContainerScope(hasher, container);
+    if (containerDepth == containerScopes.size()) {
+      containerScopes.add(new ContainerScope(this));
+    }
+    ContainerScope containerScope = containerScopes.get(containerDepth++);
+    containerScope.open(container);
+    return containerScope;
+  }
+
+  private Scope openScope(Object signature) {
+    if (scopeDepth == scopeCounts.length) {
+      scopeSignatures = Arrays.copyOf(scopeSignatures, scopeDepth * 2);
+      scopeCounts = Arrays.copyOf(scopeCounts, scopeDepth * 2);
+    }
+    scopeSignatures[scopeDepth] = signature;
+    scopeCounts[scopeDepth] = hasher.getCount();
+    scopeDepth++;
+    return scope;
+  }
+
+  private void closeScope() {
+    scopeDepth--;
+    Object signature = scopeSignatures[scopeDepth];
+    scopeSignatures[scopeDepth] = null;
+    if (hasher.getCount() <= scopeCounts[scopeDepth]) {
+      return;
+    }
+    if (signature instanceof String) {
+      hasher.putKey((String) signature);
+    } else if (signature instanceof RuleKeyHasher.Wrapper) {
+      hasher.putWrapper((RuleKeyHasher.Wrapper) signature);
+    } else {
+      ((ContainerScope) signature).elementCount++;
+    }
   }
 
   public static class ContainerScope implements AutoCloseable {
-    private final CountingRuleKeyHasher<?> hasher;
-    private final RuleKeyHasher.Container container;
+    private final RuleKeyScopedHasher<?> scopedHasher;
+    private RuleKeyHasher.Container container = RuleKeyHasher.Container.TUPLE;
     private int elementCount = 0;
 
-    private ContainerScope(CountingRuleKeyHasher<?> hasher, RuleKeyHasher.Container container) {
-      this.hasher = hasher;
+    private ContainerScope(RuleKeyScopedHasher<?> scopedHasher) {
+      this.scopedHasher = scopedHasher;
+    }
+
+    private void open(RuleKeyHasher.Container container) {
       this.container = container;
+      this.elementCount = 0;
     }
 
     /** Increases element count if anything gets hashed during the element scope. */
     public Scope elementScope() {
-      final long hasherCount = hasher.getCount();
-      return () -> {
-        if (hasher.getCount() > hasherCount) {
-          elementCount++;
-        }
-      };
+      return scopedHasher.openScope(this);
     }
 
     /** Hashes the container iff non-empty (i.e. if any element gets hashed during this scope). */
     @Override
     public void close() {
+      scopedHasher.containerDepth--;
       if (elementCount > 0) {
-        hasher.putContainer(container, elementCount);
+        scopedHasher.hasher.putContainer(container, elementCount);
       }
     }
   }
@@ -0,0 +1,553 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util;
+
+import com.facebook.buck.bser.BserDeserializer;
+import com.facebook.buck.bser.BserSerializer;
+import com.facebook.buck.counters.Counter;
+import com.facebook.buck.counters.IntegerCounter;
+import com.facebook.buck.counters.SamplingCounter;
+import com.facebook.buck.event.BuckEventBus;
+import com.facebook.buck.event.WatchmanStatusEvent;
+import com.facebook.buck.io.PathOrGlobMatcher;
+import com.facebook.buck.io.ProjectWatch;
+import com.facebook.buck.io.Transport;
+import com.facebook.buck.io.Watchman.Capability;
+import com.facebook.buck.io.WatchmanCursor;
+import com.facebook.buck.io.WatchmanQuery;
+import com.facebook.buck.log.Logger;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.EventBus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Holds a Watchman subscription open for each cell and applies the changes it reports to the
+ * daemon's caches in the background, so that commands don't have to wait for a {@code since}
+ * query, and the invalidations it triggers, before they can start.
+ * <p>
+ * Changes are applied in batches once they have settled, and never while a command which could
+ * observe them is running: those are left for the next command, which flushes the subscriptions
+ * so that everything up to the moment it started is applied before it uses the caches.  While
+ * Mercurial is updating the working copy, Watchman defers notifications until it is done, so a
+ * large rebase arrives as one batch rather than a stream of intermediate states.
+ */
+public class WatchmanSubscriber implements AutoCloseable {
+
+  private static final Logger LOG = Logger.get(WatchmanSubscriber.class);
+
+  private static final String COUNTER_CATEGORY = "watchman_subscription";
+
+  // States Mercurial asserts while it rewrites the working copy.
+  private static final ImmutableList<String> DEFERRED_STATES =
+      ImmutableList.of("hg.update", "hg.transaction");
+
+  // How often to check whether a running command has finished, so that changes which arrived
+  // while it was running can be applied.
+  private static final long IDLE_POLL_MILLIS = 200;
+
+  // Changes are applied even if more keep arriving once the oldest has waited this many settle
+  // periods, so that a busy working copy can't hold them back indefinitely.
+  private static final int MAX_SETTLE_PERIODS = 10;
+
+  private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final Transport transport;
+  private final EventBus fileChangeEventBus;
+  private final Object lock;
+  private final BooleanSupplier canApplyInBackground;
+  private final Map<Path, WatchmanCursor> cursors;
+  private final ImmutableMap<String, Path> cellsBySubscription;
+  private final ImmutableListMultimap<String, String> subscriptionsByWatchRoot;
+  private final boolean canFlush;
+  private final long settleNanos;
+  private final long timeoutMillis;
+  private final BserSerializer bserSerializer;
+  private final BserDeserializer bserDeserializer;
+  private final BlockingQueue<Map<String, Object>> responses;
+  private final Thread readerThread;
+  private final Thread applierThread;
+
+  private final SamplingCounter queueLagCounter;
+  private final IntegerCounter filesChangedCounter;
+  private final IntegerCounter freshInstanceCounter;
+  private final IntegerCounter flushFallbackCounter;
+
+  @GuardedBy("pending")
+  private final Deque<Notification> pending = new ArrayDeque<>();
+  @GuardedBy("pending")
+  private final Set<String> assertedStates = new HashSet<>();
+  @GuardedBy("pending")
+  private long lastNotificationNanos;
+
+  @GuardedBy("lock")
+  private boolean filesChangedSinceLastCommand = false;
+
+  private volatile boolean connected = true;
+
+  private WatchmanSubscriber(
+      Transport transport,
+      EventBus fileChangeEventBus,
+      Object lock,
+      BooleanSupplier canApplyInBackground,
+      Map<Path, WatchmanCursor> cursors,
+      ImmutableMap<String, Path> cellsBySubscription,
+      ImmutableListMultimap<String, String> subscriptionsByWatchRoot,
+      boolean canFlush,
+      long settleMillis,
+      long timeoutMillis) {
+    this.transport = transport;
+    this.fileChangeEventBus = fileChangeEventBus;
+    this.lock = lock;
+    this.canApplyInBackground = canApplyInBackground;
+    this.cursors = cursors;
+    this.cellsBySubscription = cellsBySubscription;
+    this.subscriptionsByWatchRoot = subscriptionsByWatchRoot;
+    this.canFlush = canFlush;
+    this.settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMillis);
+    this.timeoutMillis = timeoutMillis;
+    this.bserSerializer = new BserSerializer();
+    this.bserDeserializer = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED);
+    this.responses = new LinkedBlockingQueue<>();
+    this.readerThread = new Thread(this::readFromWatchman, "Watchman subscription reader");
+    this.readerThread.setDaemon(true);
+    this.applierThread = new Thread(this::applyInBackground, "Watchman subscription applier");
+    this.applierThread.setDaemon(true);
+    this.queueLagCounter =
+        new SamplingCounter(COUNTER_CATEGORY, "queue_lag_ms", ImmutableMap.of());
+    this.filesChangedCounter =
+        new IntegerCounter(COUNTER_CATEGORY, "files_changed", ImmutableMap.of());
+    this.freshInstanceCounter =
+        new IntegerCounter(COUNTER_CATEGORY, "fresh_instances", ImmutableMap.of());
+    this.flushFallbackCounter =
+        new IntegerCounter(COUNTER_CATEGORY, "flush_fallbacks", ImmutableMap.of());
+  }
+
+  /**
+   * Subscribes to changes in each cell over {@code transport}, which must be a connection of its
+   * own, and starts applying them in the background.
+   *
+   * @param cursors the clock each cell's caches are up to date with.  Subscriptions start from
+   *     these clocks, and they are moved forward as changes are applied.
+   * @param lock held while applying changes, so that they are applied atomically with respect to
+   *     commands reading the caches.
+   * @param canApplyInBackground checked with {@code lock} held before applying changes in the
+   *     background, so that they aren't applied under a running command.
+   * @return the subscriber, or {@link Optional#empty()} if the cells can't be subscribed to, in
+   *     which case {@code transport} is closed.
+   */
+  public static Optional<WatchmanSubscriber> subscribe(
+      Transport transport,
+      ImmutableMap<Path, ProjectWatch> projectWatches,
+      ImmutableSet<PathOrGlobMatcher> ignorePaths,
+      Map<Path, WatchmanCursor> cursors,
+      Set<Capability> watchmanCapabilities,
+      EventBus fileChangeEventBus,
+      Object lock,
+      BooleanSupplier canApplyInBackground,
+      long settleMillis) throws InterruptedException {
+    return subscribe(
+        transport,
+        WatchmanWatcher.createQueries(projectWatches, ignorePaths, watchmanCapabilities),
+        cursors,
+        watchmanCapabilities,
+        fileChangeEventBus,
+        lock,
+        canApplyInBackground,
+        settleMillis,
+        DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  @VisibleForTesting
+  static Optional<WatchmanSubscriber> subscribe(
+      Transport transport,
+      ImmutableMap<Path, WatchmanQuery> queries,
+      Map<Path, WatchmanCursor> cursors,
+      Set<Capability> watchmanCapabilities,
+      EventBus fileChangeEventBus,
+      Object lock,
+      BooleanSupplier canApplyInBackground,
+      long settleMillis,
+      long timeoutMillis) throws InterruptedException {
+    ImmutableMap.Builder<String, Path> cellsBySubscription = ImmutableMap.builder();
+    ImmutableListMultimap.Builder<String, String> subscriptionsByWatchRoot =
+        ImmutableListMultimap.builder();
+    ImmutableList.Builder<ImmutableList<Object>> subscribeCommands = ImmutableList.builder();
+    for (Map.Entry<Path, WatchmanQuery> entry : queries.entrySet()) {
+      WatchmanCursor cursor = cursors.get(entry.getKey());
+      if (cursor == null || !cursor.get().startsWith("c:")) {
+        // Named cursors are advanced by Watchman as they are queried, so they can't be shared
+        // with a subscription.
+        LOG.debug("Not subscribing to %s, which doesn't use a clock cursor", entry.getKey());
+        closeQuietly(transport);
+        return Optional.empty();
+      }
+      String name = "buckd:" + entry.getKey();
+      WatchmanQuery query = entry.getValue();
+      cellsBySubscription.put(name, entry.getKey());
+      subscriptionsByWatchRoot.put(query.getQueryPath(), name);
+      subscribeCommands.add(
+          ImmutableList.of(
+              "subscribe",
+              query.getQueryPath(),
+              name,
+              ImmutableMap.<String, Object>builder()
+                  .put("since", cursor.get())
+                  .put("defer", DEFERRED_STATES)
+                  .putAll(query.getQueryParams())
+                  .build()));
+    }
+
+    WatchmanSubscriber subscriber = new WatchmanSubscriber(
+        transport,
+        fileChangeEventBus,
+        lock,
+        canApplyInBackground,
+        cursors,
+        cellsBySubscription.build(),
+        subscriptionsByWatchRoot.build(),
+        watchmanCapabilities.contains(Capability.FLUSH_SUBSCRIPTIONS),
+        settleMillis,
+        timeoutMillis);
+    subscriber.readerThread.start();
+    for (ImmutableList<Object> command : subscribeCommands.build()) {
+      Optional<Map<String, Object>> response = subscriber.sendCommand(command);
+      if (!response.isPresent() || response.get().containsKey("error")) {
+        LOG.warn(
+            "Could not subscribe to Watchman with %s: %s",
+            command,
+            response.map(r -> r.get("error")).orElse("no response"));
+        subscriber.close();
+        return Optional.empty();
+      }
+    }
+    subscriber.applierThread.start();
+    LOG.info("Subscribed to Watchman changes in %s", queries.keySet());
+    return Optional.of(subscriber);
+  }
+
+  /**
+   * Brings the caches up to date with every change Watchman has seen, for a command about to
+   * start.  Must be called with the lock held.
+   *
+   * @return false if the subscriptions couldn't be flushed, in which case changes may be missing
+   *     and the caller must query for them itself, starting from the cursors.
+   */
+  public boolean postEvents(BuckEventBus buckEventBus) throws InterruptedException {
+    boolean flushed = flush();
+    applyPending();
+    if (!flushed) {
+      flushFallbackCounter.inc();
+    } else if (!filesChangedSinceLastCommand) {
+      buckEventBus.post(WatchmanStatusEvent.zeroFileChanges());
+    }
+    filesChangedSinceLastCommand = false;
+    return flushed;
+  }
+
+  public boolean isConnected() {
+    return connected;
+  }
+
+  public ImmutableList<Counter> getCounters() {
+    return ImmutableList.of(
+        queueLagCounter,
+        filesChangedCounter,
+        freshInstanceCounter,
+        flushFallbackCounter);
+  }
+
+  /**
+   * Asks Watchman to deliver any notifications it is still holding back, e.g. waiting for the
+   * filesystem to settle, and waits for them to be queued.
+   */
+  private boolean flush() throws InterruptedException {
+    if (!connected || !canFlush) {
+      return false;
+    }
+    synchronized (pending) {
+      if (!assertedStates.isEmpty()) {
+        // Watchman won't deliver anything until these states are left.
+        LOG.debug("Not flushing Watchman subscriptions while states %s are asserted",
+            assertedStates);
+        return false;
+      }
+    }
+    for (Map.Entry<String, Collection<String>> entry :
+         subscriptionsByWatchRoot.asMap().entrySet()) {
+      Optional<Map<String, Object>> response = sendCommand(
+          ImmutableList.of(
+              "flush-subscriptions",
+              entry.getKey(),
+              ImmutableMap.of(
+                  "sync_timeout", timeoutMillis / 2,
+                  "subscriptions", ImmutableList.copyOf(entry.getValue()))));
+      if (!response.isPresent()) {
+        return false;
+      }
+      String error = (String) response.get().get("error");
+      if (error != null) {
+        LOG.warn("Error flushing Watchman subscriptions for %s: %s", entry.getKey(), error);
+        return false;
+      }
+      Set<Object> flushed = new HashSet<>();
+      for (String field : ImmutableList.of("synced", "no_sync_needed")) {
+        Object names = response.get().get(field);
+        if (names instanceof Collection<?>) {
+          flushed.addAll((Collection<?>) names);
+        }
+      }
+      if (!flushed.containsAll(entry.getValue())) {
+        LOG.debug("Watchman subscriptions %s were not flushed: %s", entry.getValue(), response);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private synchronized Optional<Map<String, Object>> sendCommand(List<Object> command)
+      throws InterruptedException {
+    if (!connected) {
+      return Optional.empty();
+    }
+    try {
+      bserSerializer.serializeToStream(command, transport.getOutputStream());
+      transport.getOutputStream().flush();
+    } catch (IOException e) {
+      disconnect(e, "Could not send %s to Watchman", command);
+      return Optional.empty();
+    }
+    Map<String, Object> response = responses.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    if (response == null) {
+      // A late response would be taken for the answer to the next command, so give up on this
+      // connection altogether.
+      disconnect(null, "Watchman did not respond to %s within %d ms", command, timeoutMillis);
+      return Optional.empty();
+    }
+    return Optional.of(response);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readFromWatchman() {
+    try {
+      while (connected) {
+        Object pdu = bserDeserializer.deserializeBserValueView(transport.getInputStream());
+        if (!(pdu instanceof Map<?, ?>)) {
+          LOG.warn("Ignoring unrecognized Watchman PDU: %s", pdu);
+          continue;
+        }
+        Map<String, Object> map = (Map<String, Object>) pdu;
+        if (Boolean.TRUE.equals(map.get("unilateral")) || map.containsKey("subscription")) {
+          enqueue(map);
+        } else {
+          responses.add(map);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      if (connected) {
+        disconnect(e, "Lost connection to Watchman");
+      }
+    }
+  }
+
+  private void enqueue(Map<String, Object> notification) {
+    String name = (String) notification.get("subscription");
+    Path cellPath = cellsBySubscription.get(name);
+    if (cellPath == null) {
+      LOG.debug("Ignoring notification for unknown subscription %s", name);
+      return;
+    }
+    synchronized (pending) {
+      String enteredState = (String) notification.get("state-enter");
+      String leftState = (String) notification.get("state-leave");
+      if (enteredState != null) {
+        LOG.debug("Watchman state %s entered for %s", enteredState, name);
+        assertedStates.add(name + ":" + enteredState);
+      } else if (leftState != null) {
+        LOG.debug("Watchman state %s left for %s", leftState, name);
+        assertedStates.remove(name + ":" + leftState);
+      } else {
+        lastNotificationNanos = System.nanoTime();
+        pending.add(new Notification(cellPath, notification, lastNotificationNanos));
+      }
+      pending.notifyAll();
+    }
+  }
+
+  private void applyInBackground() {
+    try {
+      while (connected) {
+        waitUntilSettled();
+        synchronized (lock) {
+          if (canApplyInBackground.getAsBoolean()) {
+            applyPending();
+            continue;
+          }
+        }
+        // A command is running: it mustn't see the caches change underneath it, so wait for it
+        // to finish, unless the next command gets to these changes first.
+        Thread.sleep(IDLE_POLL_MILLIS);
+      }
+    } catch (InterruptedException e) {
+      LOG.debug("Stopped applying Watchman changes in the background");
+    }
+  }
+
+  private void waitUntilSettled() throws InterruptedException {
+    synchronized (pending) {
+      while (true) {
+        if (!connected) {
+          return;
+        }
+        long now = System.nanoTime();
+        Notification oldest = pending.peekFirst();
+        if (oldest == null) {
+          pending.wait();
+          continue;
+        }
+        long remainingNanos = Math.min(
+            settleNanos - (now - lastNotificationNanos),
+            settleNanos * MAX_SETTLE_PERIODS - (now - oldest.receivedNanos));
+        if (remainingNanos <= 0) {
+          return;
+        }
+        TimeUnit.NANOSECONDS.timedWait(pending, remainingNanos);
+      }
+    }
+  }
+
+  /**
+   * Applies every queued notification, in the order Watchman sent them.  Must be called with the
+   * lock held.
+   */
+  private void applyPending() {
+    List<Notification> notifications;
+    synchronized (pending) {
+      notifications = new ArrayList<>(pending);
+      pending.clear();
+    }
+    long now = System.nanoTime();
+    for (Notification notification : notifications) {
+      queueLagCounter.addSample(TimeUnit.NANOSECONDS.toMillis(now - notification.receivedNanos));
+      apply(notification);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void apply(Notification notification) {
+    Map<String, Object> response = notification.response;
+    if (Boolean.TRUE.equals(response.get("is_fresh_instance"))) {
+      LOG.debug("Watchman subscription for %s reported a fresh instance", notification.cellPath);
+      freshInstanceCounter.inc();
+      postWatchEvent(
+          WatchmanWatcher.createOverflowEvent("Watchman subscription reported a fresh instance"));
+    } else {
+      List<Map<String, Object>> files = (List<Map<String, Object>>) response.get("files");
+      if (files != null) {
+        for (Map<String, Object> file : files) {
+          Optional<WatchEvent<Path>> event = WatchmanWatcher.createPathEvent(file);
+          if (!event.isPresent()) {
+            LOG.warn("Filename missing from Watchman subscription notification %s", file);
+            postWatchEvent(
+                WatchmanWatcher.createOverflowEvent("Filename missing from Watchman response"));
+            break;
+          }
+          postWatchEvent(event.get());
+        }
+        filesChangedCounter.inc(files.size());
+        filesChangedSinceLastCommand |= !files.isEmpty();
+      }
+    }
+
+    String clock = (String) response.get("clock");
+    WatchmanCursor cursor = cursors.get(notification.cellPath);
+    if (clock != null && cursor != null) {
+      LOG.debug("Updating Watchman Cursor from %s to %s", cursor.get(), clock);
+      cursor.set(clock);
+    }
+  }
+
+  private void postWatchEvent(WatchEvent<?> event) {
+    LOG.verbose("Posting WatchEvent: %s", event);
+    fileChangeEventBus.post(event);
+  }
+
+  private void disconnect(@Nullable Throwable cause, String format, Object... args) {
+    if (!connected) {
+      return;
+    }
+    LOG.warn(cause, format + "; falling back to querying Watchman for each command", args);
+    connected = false;
+    closeQuietly(transport);
+    synchronized (pending) {
+      pending.notifyAll();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (connected) {
+      LOG.debug("Closing Watchman subscription.");
+      connected = false;
+      closeQuietly(transport);
+    }
+    readerThread.interrupt();
+    applierThread.interrupt();
+  }
+
+  private static void closeQuietly(Transport transport) {
+    try {
+      transport.close();
+    } catch (IOException e) {
+      LOG.debug(e, "Error closing Watchman subscription transport");
+    }
+  }
+
+  private static class Notification {
+    private final Path cellPath;
+    private final Map<String, Object> response;
+    private final long receivedNanos;
+
+    Notification(Path cellPath, Map<String, Object> response, long receivedNanos) {
+      this.cellPath = cellPath;
+      this.response = response;
+      this.receivedNanos = receivedNanos;
+    }
+  }
+}
@@ -210,6 +210,53 @@ public class WatchmanWatcher {
     return ImmutableList.of();
   }
 
+  /**
+   * Ask Watchman which files under the given cell changed since the given clock, without posting
+   * any events or moving the cell's cursor.  Used to check whether state recorded by an earlier
+   * process is still up to date.
+   *
+   * @return the paths of the changed files, relative to the cell, or {@link Optional#empty()} if
+   *     Watchman can't say, e.g. because it has restarted since {@code clock} was taken.
+   */
+  @SuppressWarnings("unchecked")
+  public Optional<ImmutableSet<Path>> queryChangedPathsSince(Path cellPath, String clock)
+      throws IOException, InterruptedException {
+    WatchmanQuery query = queries.get(cellPath);
+    if (query == null) {
+      return Optional.empty();
+    }
+    Optional<? extends Map<String, ? extends Object>> queryResponse =
+        watchmanClient.queryWithTimeout(
+            TimeUnit.MILLISECONDS.toNanos(timeoutMillis),
+            query.toList(clock).toArray());
+    if (!queryResponse.isPresent()) {
+      LOG.warn("Could not get changes since %s from Watchman within %d ms", clock, timeoutMillis);
+      return Optional.empty();
+    }
+    Map<String, ? extends Object> response = queryResponse.get();
+    String error = (String) response.get("error");
+    if (error != null) {
+      LOG.warn("Error getting changes since %s from Watchman: %s", clock, error);
+      return Optional.empty();
+    }
+    Boolean isFreshInstance = (Boolean) response.get("is_fresh_instance");
+    if (isFreshInstance != null && isFreshInstance) {
+      return Optional.empty();
+    }
+    List<Map<String, Object>> files = (List<Map<String, Object>>) response.get("files");
+    ImmutableSet.Builder<Path> changedPaths = ImmutableSet.builder();
+    if (files != null) {
+      for (Map<String, Object> file : files) {
+        String fileName = (String) file.get("name");
+        if (fileName == null) {
+          return Optional.empty();
+        }
+        changedPaths.add(Paths.get(fileName).normalize());
+      }
+    }
+    return Optional.of(changedPaths.build());
+  }
+
   /**
    * Query Watchman for file change events. If too many events are pending or an error occurs
    * an overflow event is posted to the EventBus signalling that events may have been lost
@@ -307,24 +354,14 @@ public class WatchmanWatcher {
       List<Map<String, Object>> files = (List<Map<String, Object>>) response.get("files");
       if (files != null) {
         for (Map<String, Object> file : files) {
-          String fileName = (String) file.get("name");
-          if (fileName == null) {
+          Optional<WatchEvent<Path>> event = createPathEvent(file);
+          if (!event.isPresent()) {
             LOG.warn("Filename missing from Watchman file response %s", file);
             postWatchEvent(createOverflowEvent("Filename missing from Watchman response"));
             filesHaveChanged.set(true);
             return;
           }
-          PathEventBuilder builder = new PathEventBuilder();
-          builder.setPath(Paths.get(fileName));
-          Boolean fileNew = (Boolean) file.get("new");
-          if (fileNew != null && fileNew) {
-            builder.setCreationEvent();
-          }
-          Boolean fileExists = (Boolean) file.get("exists");
-          if (fileExists != null && !fileExists) {
-            builder.setDeletionEvent();
-          }
-          postWatchEvent(builder.build());
+          postWatchEvent(event.get());
         }
 
         if (!files.isEmpty() || freshInstanceAction == FreshInstanceAction.NONE) {
@@ -358,6 +395,28 @@ public class WatchmanWatcher {
     fileChangeEventBus.post(event);
   }
 
+  /**
+   * @return the event for a file listed in a Watchman query or subscription response, or
+   *     {@link Optional#empty()} if the response doesn't name the file.
+   */
+  static Optional<WatchEvent<Path>> createPathEvent(Map<String, Object> file) {
+    String fileName = (String) file.get("name");
+    if (fileName == null) {
+      return Optional.empty();
+    }
+    PathEventBuilder builder = new PathEventBuilder();
+    builder.setPath(Paths.get(fileName));
+    Boolean fileNew = (Boolean) file.get("new");
+    if (fileNew != null && fileNew) {
+      builder.setCreationEvent();
+    }
+    Boolean fileExists = (Boolean) file.get("exists");
+    if (fileExists != null && !fileExists) {
+      builder.setDeletionEvent();
+    }
+    return Optional.of(builder.build());
+  }
+
   @VisibleForTesting
   public static WatchEvent<Object> createOverflowEvent(final String reason) {
     return new WatchEvent<Object>() {
@@ -42,6 +42,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.Nonnull;
 
@@ -50,6 +55,33 @@ public class DefaultFileHashCache implements ProjectFileHashCache {
   private static final boolean SHOULD_CHECK_IGNORED_PATHS =
       Boolean.getBoolean("buck.DefaultFileHashCache.check_ignored_paths");
 
+  /**
+   * Pool shared by all caches to hash files in parallel, both for explicit prefetches and for the
+   * contents of directories.  Hashing is mostly I/O bound, but bounding the pool keeps a cold
+   * daemon from thrashing the disk with one thread per file.
+   *
+   * The pool lives as long as the process and is never shut down.  Its threads are daemon threads,
+   * so they never hold up exit, and they exit after a few seconds idle, releasing the per-thread
+   * buffers they hash files with, so an idle daemon holds on to nothing.
+   */
+  private static final ForkJoinPool HASHING_POOL =
+      new ForkJoinPool(
+          Runtime.getRuntime().availableProcessors(),
+          pool -> {
+            ForkJoinWorkerThread thread =
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("file-hashing-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+          },
+          /* handler */ null,
+          /* asyncMode */ false);
+
+  /**
+   * Don't bother splitting batches smaller than this across threads.
+   */
+  private static final int MIN_PARALLEL_BATCH = 4;
+
   private final ProjectFilesystem projectFilesystem;
   private final Optional<Path> buckOutPath;
 
@@ -152,9 +184,12 @@ public class DefaultFileHashCache implements ProjectFileHashCache {
   }
 
   private HashCodeAndFileType getDirHashCode(Path path) throws IOException {
+    // Walk the directory once, hashing its files in parallel first so that combining them below
+    // only hits the cache.
+    ImmutableSet<Path> files = projectFilesystem.getFilesUnderPath(path);
+    hashInParallel(files.asList(), new LongAdder(), new LongAdder());
     Hasher hasher = Hashing.sha1().newHasher();
-    ImmutableSet<Path> children =
-        PathHashing.hashPath(hasher, this, projectFilesystem, path);
+    ImmutableSet<Path> children = PathHashing.hashPath(hasher, this, path, files);
     return HashCodeAndFileType.ofDirectory(hasher.hash(), children);
   }
 
@@ -288,6 +323,89 @@ public class DefaultFileHashCache implements ProjectFileHashCache {
     loadingCache.put(relativePath, value);
   }
 
+  @Override
+  public FileHashCachePrefetchResult prefetch(Iterable<Path> relativePaths) {
+    ImmutableList.Builder<Path> toHash = ImmutableList.builder();
+    for (Path relativePath : relativePaths) {
+      Preconditions.checkArgument(!relativePath.isAbsolute());
+      checkNotIgnored(relativePath);
+      Path normalized = relativePath.normalize();
+      if (loadingCache.getIfPresent(normalized) == null) {
+        toHash.add(normalized);
+      }
+    }
+    LongAdder filesHashed = new LongAdder();
+    LongAdder bytesHashed = new LongAdder();
+    hashInParallel(toHash.build(), filesHashed, bytesHashed);
+    return FileHashCachePrefetchResult.of(filesHashed.intValue(), bytesHashed.sum());
+  }
+
+  /**
+   * Load the given paths into the cache using {@link #HASHING_POOL}, joining in on the work if
+   * we're already running on it (e.g. when prefetching a directory).
+   */
+  private void hashInParallel(
+      ImmutableList<Path> paths,
+      LongAdder filesHashed,
+      LongAdder bytesHashed) {
+    if (paths.isEmpty()) {
+      return;
+    }
+    HashTask task = new HashTask(paths, 0, paths.size(), filesHashed, bytesHashed);
+    if (ForkJoinTask.getPool() == HASHING_POOL) {
+      task.invoke();
+    } else {
+      HASHING_POOL.invoke(task);
+    }
+  }
+
+  private class HashTask extends RecursiveAction {
+    private final ImmutableList<Path> paths;
+    private final int start;
+    private final int end;
+    private final LongAdder filesHashed;
+    private final LongAdder bytesHashed;
+
+    private HashTask(
+        ImmutableList<Path> paths,
+        int start,
+        int end,
+        LongAdder filesHashed,
+        LongAdder bytesHashed) {
+      this.paths = paths;
+      this.start = start;
+      this.end = end;
+      this.filesHashed = filesHashed;
+      this.bytesHashed = bytesHashed;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start > MIN_PARALLEL_BATCH) {
+        int middle = (start + end) >>> 1;
+        invokeAll(
+            new HashTask(paths, start, middle, filesHashed, bytesHashed),
+            new HashTask(paths, middle, end, filesHashed, bytesHashed));
+        return;
+      }
+      for (int i = start; i < end; i++) {
+        Path path = paths.get(i);
+        if (loadingCache.getIfPresent(path) != null) {
+          continue;
+        }
+        try {
+          HashCodeAndFileType loaded = loadingCache.get(path);
+          if (loaded.getType() != HashCodeAndFileType.Type.DIRECTORY) {
+            filesHashed.increment();
+            bytesHashed.add(projectFilesystem.getFileSize(path));
+          }
+        } catch (ExecutionException | IOException | RuntimeException e) {
+          // Leave the error for whoever actually asks for this path's hash.
+        }
+      }
+    }
+  }
+
   @Override
   public FileHashCacheVerificationResult verify() throws IOException {
     List<String> errors = new ArrayList<>();
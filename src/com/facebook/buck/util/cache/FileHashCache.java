@@ -19,6 +19,7 @@ package com.facebook.buck.util.cache;
 import com.facebook.buck.hashing.FileHashLoader;
 import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.util.immutables.BuckStyleImmutable;
+import com.facebook.buck.util.immutables.BuckStyleTuple;
 import com.google.common.hash.HashCode;
 
 import org.immutables.value.Value;
@@ -60,6 +61,16 @@ public interface FileHashCache extends FileHashLoader {
         "FileHashCache class " + getClass().getName() + " does not support verification.");
   }
 
+  /**
+   * Hash the given absolute {@link Path}s ahead of time, in parallel where possible, so that
+   * subsequent lookups for them are served from the cache.  Paths which can't be hashed are
+   * skipped, leaving the lookup itself to report the error.
+   */
+  default FileHashCachePrefetchResult prefetch(
+      @SuppressWarnings("unused") Iterable<Path> paths) {
+    return FileHashCachePrefetchResult.of(0, 0L);
+  }
+
   @Value.Immutable
   @BuckStyleImmutable
   interface AbstractFileHashCacheVerificationResult {
@@ -68,4 +79,11 @@ public interface FileHashCache extends FileHashLoader {
     List<String> getVerificationErrors();
   }
 
+  @Value.Immutable
+  @BuckStyleTuple
+  interface AbstractFileHashCachePrefetchResult {
+    int getFilesHashed();
+    long getBytesHashed();
+  }
+
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A serializable snapshot of the file hashes cached by {@link WatchedFileHashCache}s, used to carry
+ * them across daemon restarts.
+ *
+ * Hashes are grouped by the root of the filesystem they belong to, along with the Watchman clock
+ * as of which they were known to be up to date, so that the next daemon can ask Watchman which of
+ * them have changed since.  Each hash also records the size, modification time and file key (e.g.
+ * inode) the file had when the snapshot was taken, as a cheap second check.
+ */
+public class FileHashCacheSnapshot {
+
+  private static final int VERSION = 0;
+
+  private final String fingerprint;
+  private final ImmutableMap<Path, Section> sections;
+
+  private FileHashCacheSnapshot(String fingerprint, ImmutableMap<Path, Section> sections) {
+    this.fingerprint = fingerprint;
+    this.sections = sections;
+  }
+
+  public static Builder builder(String fingerprint) {
+    return new Builder(fingerprint);
+  }
+
+  /**
+   * Deserialize a snapshot from the given {@link InputStream}.
+   *
+   * @return the snapshot, or {@link Optional#empty()} if it was written using a different format
+   *         or {@code fingerprint}.
+   */
+  public static Optional<FileHashCacheSnapshot> read(InputStream rawInput, String fingerprint)
+      throws IOException {
+    DataInputStream input = new DataInputStream(rawInput);
+
+    if (input.readInt() != VERSION || !input.readUTF().equals(fingerprint)) {
+      return Optional.empty();
+    }
+
+    int numberOfSections = input.readInt();
+    ImmutableMap.Builder<Path, Section> sections = ImmutableMap.builder();
+    for (int sectionIndex = 0; sectionIndex < numberOfSections; sectionIndex++) {
+      Path root = Paths.get(input.readUTF());
+      String clock = input.readUTF();
+      int numberOfEntries = input.readInt();
+      ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+      for (int entryIndex = 0; entryIndex < numberOfEntries; entryIndex++) {
+        entries.add(
+            new Entry(
+                Paths.get(input.readUTF()),
+                input.readBoolean(),
+                HashCode.fromString(input.readUTF()),
+                input.readLong(),
+                input.readLong(),
+                input.readUTF()));
+      }
+      sections.put(root, new Section(clock, entries.build()));
+    }
+
+    return Optional.of(new FileHashCacheSnapshot(fingerprint, sections.build()));
+  }
+
+  public void write(OutputStream rawOutput) throws IOException {
+    DataOutputStream output = new DataOutputStream(rawOutput);
+
+    output.writeInt(VERSION);
+    output.writeUTF(fingerprint);
+
+    output.writeInt(sections.size());
+    for (Map.Entry<Path, Section> section : sections.entrySet()) {
+      output.writeUTF(section.getKey().toString());
+      output.writeUTF(section.getValue().getClock());
+      output.writeInt(section.getValue().getEntries().size());
+      for (Entry entry : section.getValue().getEntries()) {
+        output.writeUTF(entry.getPath().toString());
+        output.writeBoolean(entry.isArchive());
+        output.writeUTF(entry.getHashCode().toString());
+        output.writeLong(entry.getSize());
+        output.writeLong(entry.getLastModifiedMillis());
+        output.writeUTF(entry.getFileKey());
+      }
+    }
+
+    output.flush();
+  }
+
+  /**
+   * @return the hashes recorded for the filesystem with the given root.
+   */
+  public Optional<Section> getSection(Path root) {
+    return Optional.ofNullable(sections.get(root));
+  }
+
+  public int size() {
+    int size = 0;
+    for (Section section : sections.values()) {
+      size += section.getEntries().size();
+    }
+    return size;
+  }
+
+  public static class Builder {
+
+    private final String fingerprint;
+    private final ImmutableMap.Builder<Path, Section> sections = ImmutableMap.builder();
+
+    private Builder(String fingerprint) {
+      this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Record the hashes for the filesystem with the given root.
+     *
+     * @param clock the Watchman clock as of which the hashes were up to date.
+     */
+    public Builder addSection(Path root, String clock, ImmutableList<Entry> entries) {
+      sections.put(root, new Section(clock, entries));
+      return this;
+    }
+
+    public FileHashCacheSnapshot build() {
+      return new FileHashCacheSnapshot(fingerprint, sections.build());
+    }
+
+  }
+
+  public static class Section {
+
+    private final String clock;
+    private final ImmutableList<Entry> entries;
+
+    private Section(String clock, ImmutableList<Entry> entries) {
+      this.clock = clock;
+      this.entries = entries;
+    }
+
+    public String getClock() {
+      return clock;
+    }
+
+    public ImmutableList<Entry> getEntries() {
+      return entries;
+    }
+
+  }
+
+  /**
+   * The hash of a single file, along with what it looked like on disk when it was recorded.
+   */
+  public static class Entry {
+
+    private final Path path;
+    private final boolean archive;
+    private final HashCode hashCode;
+    private final long size;
+    private final long lastModifiedMillis;
+    private final String fileKey;
+
+    Entry(
+        Path path,
+        boolean archive,
+        HashCode hashCode,
+        long size,
+        long lastModifiedMillis,
+        String fileKey) {
+      Preconditions.checkArgument(!path.isAbsolute());
+      this.path = path;
+      this.archive = archive;
+      this.hashCode = hashCode;
+      this.size = size;
+      this.lastModifiedMillis = lastModifiedMillis;
+      this.fileKey = fileKey;
+    }
+
+    /**
+     * @return the path of the file, relative to the root of its filesystem.
+     */
+    public Path getPath() {
+      return path;
+    }
+
+    public boolean isArchive() {
+      return archive;
+    }
+
+    public HashCode getHashCode() {
+      return hashCode;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getLastModifiedMillis() {
+      return lastModifiedMillis;
+    }
+
+    /**
+     * @return the file's {@link java.nio.file.attribute.BasicFileAttributes#fileKey()}, or an
+     *     empty string if the filesystem doesn't provide one.
+     */
+    public String getFileKey() {
+      return fileKey;
+    }
+
+  }
+
+}
@@ -47,4 +47,14 @@ public interface ProjectFileHashCache extends ProjectFileHashLoader {
         "ProjectFileHashCache class " + getClass().getName() + " does not support verification.");
   }
 
+  /**
+   * Hash the given {@link Path}s, relative to the project root, ahead of time.
+   *
+   * @see FileHashCache#prefetch(Iterable)
+   */
+  default FileHashCachePrefetchResult prefetch(
+      @SuppressWarnings("unused") Iterable<Path> paths) {
+    return FileHashCachePrefetchResult.of(0, 0L);
+  }
+
 }
@@ -21,6 +21,8 @@ import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.model.Pair;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
 import com.google.common.hash.HashCode;
 
 import java.io.IOException;
@@ -175,6 +177,28 @@ public class StackedFileHashCache implements FileHashCache {
         .build();
   }
 
+  @Override
+  public FileHashCachePrefetchResult prefetch(Iterable<Path> paths) {
+    // Batch the paths up by the cache that handles them, so that each cache can hash its batch in
+    // parallel.
+    ListMultimap<ProjectFileHashCache, Path> pathsByCache =
+        MultimapBuilder.linkedHashKeys().arrayListValues().build();
+    for (Path path : paths) {
+      Optional<Pair<ProjectFileHashCache, Path>> found = lookup(path);
+      if (found.isPresent()) {
+        pathsByCache.put(found.get().getFirst(), found.get().getSecond());
+      }
+    }
+    int filesHashed = 0;
+    long bytesHashed = 0;
+    for (ProjectFileHashCache cache : pathsByCache.keySet()) {
+      FileHashCachePrefetchResult result = cache.prefetch(pathsByCache.get(cache));
+      filesHashed += result.getFilesHashed();
+      bytesHashed += result.getBytesHashed();
+    }
+    return FileHashCachePrefetchResult.of(filesHashed, bytesHashed);
+  }
+
   @Override
   public HashCode get(ProjectFilesystem filesystem, Path path) throws IOException {
     return lookup(filesystem, path)
@@ -20,11 +20,16 @@ import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.io.WatchEvents;
 import com.facebook.buck.log.Logger;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.Subscribe;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
 import java.util.Optional;
 
 public class WatchedFileHashCache extends DefaultFileHashCache {
@@ -83,4 +88,91 @@ public class WatchedFileHashCache extends DefaultFileHashCache {
     }
   }
 
+  /**
+   * @return the hashes of the files currently in the cache, along with what the files look like on
+   *     disk now.  Directories are left out, as they're cheap to rehash from their files.
+   */
+  public ImmutableList<FileHashCacheSnapshot.Entry> getSnapshotEntries() {
+    ImmutableList.Builder<FileHashCacheSnapshot.Entry> entries = ImmutableList.builder();
+    for (Map.Entry<Path, HashCodeAndFileType> cached : loadingCache.asMap().entrySet()) {
+      HashCodeAndFileType value = cached.getValue();
+      if (value.getType() == HashCodeAndFileType.Type.DIRECTORY) {
+        continue;
+      }
+      Optional<BasicFileAttributes> attributes = readAttributes(cached.getKey());
+      if (attributes.isPresent()) {
+        entries.add(
+            new FileHashCacheSnapshot.Entry(
+                cached.getKey(),
+                value.getType() == HashCodeAndFileType.Type.ARCHIVE,
+                value.getHashCode(),
+                attributes.get().size(),
+                attributes.get().lastModifiedTime().toMillis(),
+                getFileKey(attributes.get())));
+      }
+    }
+    return entries.build();
+  }
+
+  /**
+   * Seed the cache with hashes recorded by a previous daemon.  Hashes are only used if the file
+   * hasn't changed since: it mustn't be among (or under) the paths Watchman reports as changed,
+   * and its size, modification time and file key must be unchanged.
+   *
+   * @param changedPaths the paths which changed after the hashes were recorded, relative to the
+   *     project root.
+   * @return the number of hashes restored.
+   */
+  public int restore(
+      Iterable<FileHashCacheSnapshot.Entry> entries,
+      ImmutableSet<Path> changedPaths) {
+    int restored = 0;
+    for (FileHashCacheSnapshot.Entry entry : entries) {
+      if (isChanged(entry.getPath(), changedPaths)) {
+        continue;
+      }
+      Optional<BasicFileAttributes> attributes = readAttributes(entry.getPath());
+      if (!attributes.isPresent() ||
+          attributes.get().size() != entry.getSize() ||
+          attributes.get().lastModifiedTime().toMillis() != entry.getLastModifiedMillis() ||
+          !getFileKey(attributes.get()).equals(entry.getFileKey())) {
+        continue;
+      }
+      HashCodeAndFileType value =
+          entry.isArchive() ?
+              HashCodeAndFileType.ofArchive(entry.getHashCode(), getFilesystem(), entry.getPath()) :
+              HashCodeAndFileType.ofFile(entry.getHashCode());
+      if (loadingCache.asMap().putIfAbsent(entry.getPath(), value) == null) {
+        restored++;
+      }
+    }
+    LOG.debug("Restored %d persisted file hashes", restored);
+    return restored;
+  }
+
+  /**
+   * @return whether the path, or any of its parents (e.g. a symlink to a directory), changed.
+   */
+  private static boolean isChanged(Path path, ImmutableSet<Path> changedPaths) {
+    for (Path current = path; current != null; current = current.getParent()) {
+      if (changedPaths.contains(current)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Optional<BasicFileAttributes> readAttributes(Path path) {
+    try {
+      return Optional.of(getFilesystem().readAttributes(path, BasicFileAttributes.class));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static String getFileKey(BasicFileAttributes attributes) {
+    Object fileKey = attributes.fileKey();
+    return fileKey == null ? "" : fileKey.toString();
+  }
+
 }
@@ -25,4 +25,10 @@ import org.immutables.value.Value;
 abstract class AbstractListeningSemaphoreArrayPendingItem {
   public abstract SettableFuture<Void> getFuture();
   public abstract ResourceAmounts getResources();
+  public abstract long getPriority();
+
+  /**
+   * Order in which the item was queued, used to keep items of equal priority first-in first-out.
+   */
+  public abstract long getSequenceNumber();
 }
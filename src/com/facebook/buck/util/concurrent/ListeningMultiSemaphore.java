@@ -16,34 +16,54 @@
 package com.facebook.buck.util.concurrent;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A semaphore using {@link ListenableFuture}s for acquisition of different resource types
  * rather than blocking.
+ *
+ * Acquisitions that have to wait are granted in order of their priority, highest first, and in the
+ * order they were made among those of equal priority.  Neither acquiring nor releasing takes a
+ * lock: the resources in use are updated with compare-and-set and waiting acquisitions are kept in
+ * a concurrent skip list, so that many threads finishing work at once don't queue up behind each
+ * other to hand their resources on.
  */
 public class ListeningMultiSemaphore {
 
-  private ResourceAmounts usedValues;
+  private static final Comparator<ListeningSemaphoreArrayPendingItem> PENDING_ITEM_ORDER =
+      Comparator
+          .comparingLong((ListeningSemaphoreArrayPendingItem item) -> -item.getPriority())
+          .thenComparingLong(ListeningSemaphoreArrayPendingItem::getSequenceNumber);
+
+  private final AtomicReference<ResourceAmounts> usedValues =
+      new AtomicReference<>(ResourceAmounts.ZERO);
   private final ResourceAmounts maximumValues;
-  private final List<ListeningSemaphoreArrayPendingItem> pending = new LinkedList<>();
+  private final ConcurrentSkipListSet<ListeningSemaphoreArrayPendingItem> pending =
+      new ConcurrentSkipListSet<>(PENDING_ITEM_ORDER);
+  private final AtomicLong nextSequenceNumber = new AtomicLong();
   private final ResourceAllocationFairness fairness;
 
   public ListeningMultiSemaphore(
       ResourceAmounts availableResources,
       ResourceAllocationFairness fairness) {
-    this.usedValues = ResourceAmounts.ZERO;
     this.maximumValues = availableResources;
     this.fairness = fairness;
   }
 
+  /**
+   * Same as {@link #acquire(ResourceAmounts, long)} with a priority of zero.
+   */
+  public ListenableFuture<Void> acquire(ResourceAmounts resources) {
+    return acquire(resources, 0);
+  }
+
   /**
    * Returns the future which will be completed by the moment when resources will be acquired.
    * Future may be returned already completed. You should subscribe to the future and perform your
@@ -53,22 +73,32 @@ public class ListeningMultiSemaphore {
    *
    * @param resources Resource amounts that need to be acquired. If they are higher than maximum
    *                  amounts, they will be capped to them.
+   * @param priority If the resources aren't available right away, acquisitions with a higher
+   *                 priority are granted resources first once they are released.
    *
    * @return Future that will be completed once resource will be acquired.
    */
-  public synchronized ListenableFuture<Void> acquire(ResourceAmounts resources) {
+  public ListenableFuture<Void> acquire(ResourceAmounts resources, long priority) {
     if (resources.equals(ResourceAmounts.ZERO)) {
       return Futures.immediateFuture(null);
     }
 
     resources = capResourceAmounts(resources);
-    if (!checkIfResourcesAvailable(resources)) {
-      SettableFuture<Void> pendingFuture = SettableFuture.create();
-      pending.add(ListeningSemaphoreArrayPendingItem.of(pendingFuture, resources));
-      return pendingFuture;
+    if (tryIncreaseUsedResources(resources)) {
+      return Futures.immediateFuture(null);
     }
-    increaseUsedResources(resources);
-    return Futures.immediateFuture(null);
+
+    SettableFuture<Void> pendingFuture = SettableFuture.create();
+    pending.add(
+        ListeningSemaphoreArrayPendingItem.of(
+            pendingFuture,
+            resources,
+            priority,
+            nextSequenceNumber.getAndIncrement()));
+    // The resources may have been released between our attempt to take them and queueing up, in
+    // which case whoever released them may have missed us.
+    processPendingItems();
+    return pendingFuture;
   }
 
   /**
@@ -84,36 +114,46 @@ public class ListeningMultiSemaphore {
 
     resources = capResourceAmounts(resources);
     decreaseUsedResources(resources);
-    processPendingFutures(getPendingItemsThatCanBeProcessed());
+    processPendingItems();
   }
 
-  private synchronized ImmutableList<ListeningSemaphoreArrayPendingItem>
-  getPendingItemsThatCanBeProcessed() {
-    ImmutableList.Builder<ListeningSemaphoreArrayPendingItem> builder = ImmutableList.builder();
-
-    Iterator<ListeningSemaphoreArrayPendingItem> iterator = pending.iterator();
-    while (!getAvailableResources().equals(ResourceAmounts.ZERO) && iterator.hasNext()) {
-      ListeningSemaphoreArrayPendingItem item = iterator.next();
-      if (checkIfResourcesAvailable(item.getResources())) {
-        builder.add(item);
-        increaseUsedResources(item.getResources());
-        iterator.remove();
-      } else if (!fairnessAllowsReordering()) {
-        break;
+  /**
+   * Hands the available resources out to pending items, in priority order.
+   */
+  private void processPendingItems() {
+    boolean resourcesReturned;
+    do {
+      resourcesReturned = false;
+      for (ListeningSemaphoreArrayPendingItem item : pending) {
+        if (getAvailableResources().equals(ResourceAmounts.ZERO)) {
+          return;
+        }
+        if (!tryIncreaseUsedResources(item.getResources())) {
+          if (!fairnessAllowsReordering()) {
+            break;
+          }
+          continue;
+        }
+        // Another thread processing the queue may have beaten us to this item, or its future
+        // may have been cancelled while it was waiting.  Either way, the resources we took for
+        // it are free again, possibly for an item we've already passed over.
+        if (!pending.remove(item) || !item.getFuture().set(null)) {
+          decreaseUsedResources(item.getResources());
+          resourcesReturned = true;
+        }
       }
-    }
-    return builder.build();
+    } while (resourcesReturned);
   }
 
-  public synchronized ResourceAmounts getAvailableResources() {
-    return maximumValues.subtract(usedValues);
+  public ResourceAmounts getAvailableResources() {
+    return maximumValues.subtract(usedValues.get());
   }
 
-  public synchronized ResourceAmounts getMaximumValues() {
+  public ResourceAmounts getMaximumValues() {
     return maximumValues;
   }
 
-  public synchronized int getQueueLength() {
+  public int getQueueLength() {
     return pending.size();
   }
 
@@ -130,38 +170,37 @@ public class ListeningMultiSemaphore {
         Math.min(amounts.getNetworkIO(), maximumValues.getNetworkIO()));
   }
 
-  private synchronized boolean checkIfResourcesAvailable(ResourceAmounts resources) {
+  /**
+   * @return whether the resources were available, in which case they're now in use.
+   */
+  private boolean tryIncreaseUsedResources(ResourceAmounts resources) {
     Preconditions.checkState(
         resources.allValuesLessThanOrEqual(maximumValues),
         "Resource amounts (%s) must be capped to the maximum amounts (%s)",
         resources, maximumValues);
-    return usedValues.append(resources).allValuesLessThanOrEqual(maximumValues);
-  }
-
-  private synchronized void increaseUsedResources(ResourceAmounts resources) {
-    usedValues = usedValues.append(resources);
-  }
-
-  private synchronized void decreaseUsedResources(ResourceAmounts resources) {
-    ResourceAmounts updatedAmounts = usedValues.subtract(resources);
-    Preconditions.checkArgument(
-        !updatedAmounts.containsValuesLessThan(ResourceAmounts.ZERO),
-        "Cannot increase available resources by %s. Current: %s, Maximum: %s",
-        resources, usedValues, maximumValues);
-    usedValues = updatedAmounts;
-  }
-
-  private void processPendingFutures(ImmutableList<ListeningSemaphoreArrayPendingItem> items) {
-    ResourceAmounts failedAmounts = ResourceAmounts.ZERO;
-
-    for (ListeningSemaphoreArrayPendingItem item : items) {
-      if (!item.getFuture().set(null)) {
-        failedAmounts = failedAmounts.append(item.getResources());
+    while (true) {
+      ResourceAmounts current = usedValues.get();
+      ResourceAmounts updated = current.append(resources);
+      if (!updated.allValuesLessThanOrEqual(maximumValues)) {
+        return false;
+      }
+      if (usedValues.compareAndSet(current, updated)) {
+        return true;
       }
     }
+  }
 
-    if (!failedAmounts.equals(ResourceAmounts.ZERO)) {
-      release(failedAmounts);
+  private void decreaseUsedResources(ResourceAmounts resources) {
+    while (true) {
+      ResourceAmounts current = usedValues.get();
+      ResourceAmounts updated = current.subtract(resources);
+      Preconditions.checkArgument(
+          !updated.containsValuesLessThan(ResourceAmounts.ZERO),
+          "Cannot increase available resources by %s. Current: %s, Maximum: %s",
+          resources, current, maximumValues);
+      if (usedValues.compareAndSet(current, updated)) {
+        return;
+      }
     }
   }
 
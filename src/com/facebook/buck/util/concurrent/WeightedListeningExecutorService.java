@@ -72,10 +72,11 @@ public class WeightedListeningExecutorService extends AbstractListeningExecutorS
 
   private <T> ListenableFuture<T> submitWithSemaphore(
       final Callable<T> callable,
-      final ResourceAmounts amounts) {
+      final ResourceAmounts amounts,
+      long priority) {
     ListenableFuture<T> future =
         Futures.transformAsync(
-            semaphore.acquire(amounts),
+            semaphore.acquire(amounts, priority),
             input -> {
               try {
                 return Futures.immediateFuture(callable.call());
@@ -109,7 +110,8 @@ public class WeightedListeningExecutorService extends AbstractListeningExecutorS
           task.run();
           return result;
         },
-        amounts);
+        amounts,
+        0);
   }
 
   @Nonnull
@@ -119,7 +121,18 @@ public class WeightedListeningExecutorService extends AbstractListeningExecutorS
   }
 
   public <T> ListenableFuture<T> submit(Callable<T> task, ResourceAmounts amounts) {
-    return submitWithSemaphore(task, amounts);
+    return submitWithSemaphore(task, amounts, 0);
+  }
+
+  /**
+   * Submits a task which, if it has to wait for resources, runs ahead of waiting tasks with a
+   * lower {@code priority}.
+   */
+  public <T> ListenableFuture<T> submit(
+      Callable<T> task,
+      ResourceAmounts amounts,
+      long priority) {
+    return submitWithSemaphore(task, amounts, priority);
   }
 
   @Nonnull
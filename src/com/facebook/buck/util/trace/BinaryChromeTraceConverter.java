@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util.trace;
+
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts binary traces written by {@link BinaryChromeTraceWriter} to Chrome's JSON array format,
+ * which chrome://tracing and the rest of the trace tooling understand.
+ * <p>
+ * Usage: {@code BinaryChromeTraceConverter build.<...>.btrace[.gz] build.<...>.trace}
+ */
+public class BinaryChromeTraceConverter {
+
+  private BinaryChromeTraceConverter() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: BinaryChromeTraceConverter <binary trace> <json trace>");
+      System.exit(1);
+    }
+    Path input = Paths.get(args[0]);
+    try (
+        InputStream json = toJson(BinaryChromeTraceReader.open(input, Files.newInputStream(input)));
+        OutputStream output = Files.newOutputStream(Paths.get(args[1]))) {
+      ByteStreams.copy(json, output);
+    }
+  }
+
+  /**
+   * @return a stream of the trace in JSON, which is converted as it is read. Closing it closes
+   *     the reader.
+   */
+  public static InputStream toJson(BinaryChromeTraceReader reader) {
+    return new JsonTraceInputStream(reader);
+  }
+
+  private static class JsonTraceInputStream extends InputStream {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BinaryChromeTraceReader reader;
+    private byte[] buffer = EMPTY;
+    private int position;
+    private boolean started;
+    private boolean finished;
+
+    private JsonTraceInputStream(BinaryChromeTraceReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!fill()) {
+        return -1;
+      }
+      return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.length - position);
+      System.arraycopy(buffer, position, bytes, offset, count);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+
+    /**
+     * @return whether there are bytes left to read in the buffer.
+     */
+    private boolean fill() throws IOException {
+      while (position == buffer.length) {
+        if (finished) {
+          return false;
+        }
+        JsonObject event = reader.readEvent();
+        String json;
+        if (event == null) {
+          json = started ? "]" : "[]";
+          finished = true;
+        } else {
+          json = (started ? "," : "[") + event.toString();
+          started = true;
+        }
+        buffer = json.getBytes(StandardCharsets.UTF_8);
+        position = 0;
+      }
+      return true;
+    }
+  }
+}
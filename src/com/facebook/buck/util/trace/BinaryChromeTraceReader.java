@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util.trace;
+
+import com.google.gson.JsonObject;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads traces written by {@link BinaryChromeTraceWriter}, one event at a time, as the JSON
+ * objects that the same events would have been in a Chrome trace.
+ */
+public class BinaryChromeTraceReader implements Closeable {
+
+  /**
+   * The extension of binary trace files, which distinguishes them from JSON ones.
+   */
+  public static final String EXTENSION = ".btrace";
+
+  private final DataInputStream input;
+  private final List<String> strings = new ArrayList<>();
+  private long threadId;
+  private int eventsLeftInBlock;
+  private long lastMicroTime;
+  private final Map<Long, Long> lastMicroThreadUserTimes = new HashMap<>();
+  private boolean ended;
+
+  public BinaryChromeTraceReader(InputStream input) throws IOException {
+    this.input = new DataInputStream(new BufferedInputStream(input));
+    byte[] magic = new byte[BinaryChromeTraceWriter.MAGIC.length];
+    this.input.readFully(magic);
+    if (!Arrays.equals(magic, BinaryChromeTraceWriter.MAGIC)) {
+      throw new IOException("Not a binary Chrome trace.");
+    }
+    int version = this.input.readUnsignedByte();
+    if (version != BinaryChromeTraceWriter.VERSION) {
+      throw new IOException("Unsupported binary Chrome trace version " + version + ".");
+    }
+  }
+
+  /**
+   * Opens the binary trace in the given stream, decompressing it if the path says it is gzipped.
+   */
+  public static BinaryChromeTraceReader open(Path path, InputStream input) throws IOException {
+    if (path.getFileName().toString().endsWith(".gz")) {
+      input = new GZIPInputStream(input);
+    }
+    return new BinaryChromeTraceReader(input);
+  }
+
+  /**
+   * @return whether the file at the given path is a binary trace, judging by its name.
+   */
+  public static boolean isBinaryTrace(Path path) {
+    String name = path.getFileName().toString();
+    return name.endsWith(EXTENSION) || name.endsWith(EXTENSION + ".gz");
+  }
+
+  /**
+   * @return the next event, or null at the end of the trace. A trace that was cut short, say
+   *     because Buck was killed while writing it, ends after the last complete event.
+   */
+  @Nullable
+  public JsonObject readEvent() throws IOException {
+    try {
+      return readNextEvent();
+    } catch (EOFException e) {
+      ended = true;
+      eventsLeftInBlock = 0;
+      return null;
+    }
+  }
+
+  @Nullable
+  private JsonObject readNextEvent() throws IOException {
+    while (eventsLeftInBlock == 0) {
+      if (ended) {
+        return null;
+      }
+      int tag = input.read();
+      switch (tag) {
+        case BinaryChromeTraceWriter.STRING_RECORD:
+          byte[] bytes = new byte[(int) readVarint()];
+          input.readFully(bytes);
+          strings.add(new String(bytes, StandardCharsets.UTF_8));
+          break;
+        case BinaryChromeTraceWriter.BLOCK_RECORD:
+          threadId = readVarint();
+          eventsLeftInBlock = (int) readVarint();
+          break;
+        case BinaryChromeTraceWriter.END_RECORD:
+        case -1:
+          ended = true;
+          break;
+        default:
+          throw new IOException("Unknown record " + tag + " in binary Chrome trace.");
+      }
+    }
+
+    JsonObject event = new JsonObject();
+    event.addProperty("ph", readString());
+    event.addProperty("cat", readString());
+    event.addProperty("name", readString());
+    event.addProperty("pid", readVarint());
+    event.addProperty("tid", threadId);
+    lastMicroTime += unzigzag(readVarint());
+    long microThreadUserTime =
+        lastMicroThreadUserTimes.getOrDefault(threadId, 0L) + unzigzag(readVarint());
+    lastMicroThreadUserTimes.put(threadId, microThreadUserTime);
+    event.addProperty("ts", lastMicroTime);
+    event.addProperty("tts", microThreadUserTime);
+    JsonObject args = new JsonObject();
+    for (long argCount = readVarint(); argCount > 0; argCount--) {
+      args.addProperty(readString(), readString());
+    }
+    event.add("args", args);
+    eventsLeftInBlock--;
+    return event;
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+
+  private String readString() throws IOException {
+    long id = readVarint();
+    if (id >= strings.size()) {
+      throw new IOException("Reference to undefined string " + id + " in binary Chrome trace.");
+    }
+    return strings.get((int) id);
+  }
+
+  private long readVarint() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = input.read();
+      if (b == -1) {
+        throw new EOFException();
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint in binary Chrome trace.");
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
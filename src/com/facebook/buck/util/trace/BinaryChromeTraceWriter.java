@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes Chrome trace events in a compact binary format, which {@link BinaryChromeTraceReader}
+ * reads back and {@link BinaryChromeTraceConverter} turns into Chrome's JSON array format.
+ * <p>
+ * After a four byte magic number and a version byte, the file is a sequence of records, each
+ * starting with a tag byte:
+ * <ul>
+ *   <li>{@code STRING}: the next entry of the string table, as a varint length and UTF-8 bytes.
+ *   Categories, names, phases and argument keys and values all refer to strings by their index
+ *   in this table, so each distinct string is written only once.</li>
+ *   <li>{@code BLOCK}: the thread id and a count of events, followed by that many consecutive
+ *   events from that thread. Each event is its phase, category and name, its process id, its
+ *   timestamp as a zigzag varint delta from the previous event in the trace, its thread CPU time
+ *   as a zigzag varint delta from the previous event on the same thread, and its arguments as
+ *   key/value pairs.</li>
+ *   <li>{@code END}: the end of the trace.</li>
+ * </ul>
+ * Events keep the order they were written in, as in a JSON trace. A block ends when an event from
+ * another thread comes in or the block is full, and everything written so far is flushed to the
+ * underlying stream once a second of trace time, so a build that gets killed loses little.
+ * <p>
+ * This class is not thread safe.
+ */
+public class BinaryChromeTraceWriter implements Closeable, Flushable {
+
+  static final byte[] MAGIC = {'B', 'C', 'T', 'F'};
+  static final int VERSION = 2;
+
+  static final int END_RECORD = 0;
+  static final int STRING_RECORD = 1;
+  static final int BLOCK_RECORD = 2;
+
+  private static final int EVENTS_PER_BLOCK = 256;
+  private static final long FLUSH_INTERVAL_MICROS = TimeUnit.SECONDS.toMicros(1);
+  private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+  private final OutputStream output;
+  private final Map<String, Integer> stringIds = new HashMap<>();
+  private final Map<Long, Long> lastMicroThreadUserTimes = new HashMap<>();
+  private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+  private long blockThreadId;
+  private int blockEventCount;
+  private long lastMicroTime;
+  private long lastFlushMicroTime;
+
+  public BinaryChromeTraceWriter(OutputStream output) throws IOException {
+    this.output = new BufferedOutputStream(output, OUTPUT_BUFFER_SIZE);
+    this.output.write(MAGIC);
+    this.output.write(VERSION);
+  }
+
+  /**
+   * Adds an event to the trace. The arguments mirror the fields of a Chrome trace event.
+   */
+  public void writeEvent(
+      String category,
+      String name,
+      String phase,
+      long processId,
+      long threadId,
+      long microTime,
+      long microThreadUserTime,
+      Map<String, String> args) throws IOException {
+    // Intern the strings first, so that their records precede the block that refers to them.
+    int phaseId = intern(phase);
+    int categoryId = intern(category);
+    int nameId = intern(name);
+    int[] argIds = new int[args.size() * 2];
+    int i = 0;
+    for (Map.Entry<String, String> arg : args.entrySet()) {
+      argIds[i++] = intern(arg.getKey());
+      argIds[i++] = intern(arg.getValue());
+    }
+
+    if (blockEventCount > 0 && blockThreadId != threadId) {
+      writeBlock();
+    }
+    blockThreadId = threadId;
+    Long lastMicroThreadUserTime = lastMicroThreadUserTimes.put(threadId, microThreadUserTime);
+    writeVarint(block, phaseId);
+    writeVarint(block, categoryId);
+    writeVarint(block, nameId);
+    writeVarint(block, processId);
+    writeVarint(block, zigzag(microTime - lastMicroTime));
+    writeVarint(block, zigzag(
+        microThreadUserTime - (lastMicroThreadUserTime == null ? 0 : lastMicroThreadUserTime)));
+    writeVarint(block, args.size());
+    for (int argId : argIds) {
+      writeVarint(block, argId);
+    }
+    lastMicroTime = microTime;
+    if (++blockEventCount == EVENTS_PER_BLOCK) {
+      writeBlock();
+    }
+    if (microTime - lastFlushMicroTime >= FLUSH_INTERVAL_MICROS) {
+      flush();
+      lastFlushMicroTime = microTime;
+    }
+  }
+
+  /**
+   * Writes out the events buffered so far and flushes the underlying stream.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (blockEventCount > 0) {
+      writeBlock();
+    }
+    output.flush();
+  }
+
+  /**
+   * Writes out the events still buffered and ends the trace. Closes the underlying stream.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (blockEventCount > 0) {
+        writeBlock();
+      }
+      output.write(END_RECORD);
+    } finally {
+      output.close();
+    }
+  }
+
+  private int intern(String string) throws IOException {
+    Integer id = stringIds.get(string);
+    if (id == null) {
+      id = stringIds.size();
+      stringIds.put(string, id);
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      output.write(STRING_RECORD);
+      writeVarint(output, bytes.length);
+      output.write(bytes);
+    }
+    return id;
+  }
+
+  private void writeBlock() throws IOException {
+    output.write(BLOCK_RECORD);
+    writeVarint(output, blockThreadId);
+    writeVarint(output, blockEventCount);
+    block.writeTo(output);
+    block.reset();
+    blockEventCount = 0;
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static void writeVarint(OutputStream output, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.write((int) value);
+  }
+
+}
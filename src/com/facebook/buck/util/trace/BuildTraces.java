@@ -61,7 +61,8 @@ public class BuildTraces {
 
   private static final Logger logger = Logger.get(BuildTraces.class);
 
-  private static final Pattern TRACES_FILE_PATTERN = Pattern.compile("build\\..*\\.trace$");
+  private static final Pattern TRACES_FILE_PATTERN =
+      Pattern.compile("build\\..*\\.(trace|btrace|btrace\\.gz)$");
 
   private final ProjectFilesystem projectFilesystem;
 
@@ -102,10 +103,18 @@ public class BuildTraces {
     }
   }
 
+  /**
+   * @return the traces for the given build in Chrome's JSON array format. Binary traces are
+   *     converted as they are read.
+   */
   public Iterable<InputStream> getInputsForTraces(String id) throws IOException {
     ImmutableList.Builder<InputStream> tracesBuilder = ImmutableList.builder();
     for (Path p : getPathsToTraces(id)) {
-      tracesBuilder.add(projectFilesystem.getInputStreamForRelativePath(p));
+      InputStream input = projectFilesystem.getInputStreamForRelativePath(p);
+      if (BinaryChromeTraceReader.isBinaryTrace(p)) {
+        input = BinaryChromeTraceConverter.toJson(BinaryChromeTraceReader.open(p, input));
+      }
+      tracesBuilder.add(input);
     }
     return tracesBuilder.build();
   }
@@ -149,9 +158,11 @@ public class BuildTraces {
 
   private boolean isTraceForBuild(Path path, String id) {
     String testPrefix = "build.";
-    String testSuffix = "." + id + ".trace";
     String name = path.getFileName().toString();
-    return name.startsWith(testPrefix) && name.endsWith(testSuffix);
+    return name.startsWith(testPrefix) &&
+        (name.endsWith("." + id + ".trace") ||
+            name.endsWith("." + id + BinaryChromeTraceReader.EXTENSION) ||
+            name.endsWith("." + id + BinaryChromeTraceReader.EXTENSION + ".gz"));
   }
 
   /**
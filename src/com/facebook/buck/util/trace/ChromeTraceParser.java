@@ -84,7 +84,7 @@ public class ChromeTraceParser {
    * satisfied. This method parses only one Chrome trace event at a time, which avoids loading the
    * entire trace into memory.
    * @param pathToTrace is a relative path [to the ProjectFilesystem] to a Chrome trace in the
-   *     "JSON Array Format."
+   *     "JSON Array Format," or to a binary trace written by {@link BinaryChromeTraceWriter}.
    * @param chromeTraceEventMatchers set of matchers this invocation of {@code parse()} is trying to
    *     satisfy. Once a matcher finds a match, it will not consider any other events in the trace.
    * @return a {@code Map} where every matcher that found a match will have an entry whose key is
@@ -99,41 +99,35 @@ public class ChromeTraceParser {
     Preconditions.checkArgument(!unmatchedMatchers.isEmpty(), "Must specify at least one matcher");
     Map<ChromeTraceEventMatcher<?>, Object> results = new HashMap<>();
 
+    if (BinaryChromeTraceReader.isBinaryTrace(pathToTrace)) {
+      try (BinaryChromeTraceReader reader = BinaryChromeTraceReader.open(
+               pathToTrace,
+               projectFilesystem.newFileInputStream(pathToTrace))) {
+        JsonObject event;
+        while ((event = reader.readEvent()) != null) {
+          if (matchEvent(event, unmatchedMatchers, results)) {
+            break;
+          }
+        }
+      }
+      return results;
+    }
+
     try (
         InputStream input = projectFilesystem.newFileInputStream(pathToTrace);
         JsonReader jsonReader = new JsonReader(new InputStreamReader(input))) {
       jsonReader.beginArray();
       Gson gson = new Gson();
 
-      featureSearch:
       while (true) {
         // If END_ARRAY is the next token, then there are no more elements in the array.
         if (jsonReader.peek().equals(JsonToken.END_ARRAY)) {
           break;
         }
 
-        // Verify and extract the name property before invoking any of the matchers.
         JsonElement eventEl = gson.fromJson(jsonReader, JsonElement.class);
-        JsonObject event = eventEl.getAsJsonObject();
-        JsonElement nameEl = event.get("name");
-        if (nameEl == null || !nameEl.isJsonPrimitive()) {
-          continue;
-        }
-        String name = nameEl.getAsString();
-
-        // Prefer Iterator to Iterable+foreach so we can use remove().
-        for (Iterator<ChromeTraceEventMatcher<?>> iter = unmatchedMatchers.iterator();
-             iter.hasNext(); ) {
-          ChromeTraceEventMatcher<?> chromeTraceEventMatcher = iter.next();
-          Optional<?> result = chromeTraceEventMatcher.test(event, name);
-          if (result.isPresent()) {
-            iter.remove();
-            results.put(chromeTraceEventMatcher, result.get());
-
-            if (unmatchedMatchers.isEmpty()) {
-              break featureSearch;
-            }
-          }
+        if (matchEvent(eventEl.getAsJsonObject(), unmatchedMatchers, results)) {
+          break;
         }
       }
     }
@@ -142,6 +136,35 @@ public class ChromeTraceParser {
     return results;
   }
 
+  /**
+   * Offers the event to every matcher that has not found a match yet.
+   *
+   * @return whether every matcher has now found a match.
+   */
+  private static boolean matchEvent(
+      JsonObject event,
+      Set<ChromeTraceEventMatcher<?>> unmatchedMatchers,
+      Map<ChromeTraceEventMatcher<?>, Object> results) {
+    // Verify and extract the name property before invoking any of the matchers.
+    JsonElement nameEl = event.get("name");
+    if (nameEl == null || !nameEl.isJsonPrimitive()) {
+      return false;
+    }
+    String name = nameEl.getAsString();
+
+    // Prefer Iterator to Iterable+foreach so we can use remove().
+    for (Iterator<ChromeTraceEventMatcher<?>> iter = unmatchedMatchers.iterator();
+         iter.hasNext(); ) {
+      ChromeTraceEventMatcher<?> chromeTraceEventMatcher = iter.next();
+      Optional<?> result = chromeTraceEventMatcher.test(event, name);
+      if (result.isPresent()) {
+        iter.remove();
+        results.put(chromeTraceEventMatcher, result.get());
+      }
+    }
+    return unmatchedMatchers.isEmpty();
+  }
+
   /**
    * Designed for use with the result of {@link ChromeTraceParser#parse(Path, Set)}.
    * Helper function to avoid some distasteful casting logic.
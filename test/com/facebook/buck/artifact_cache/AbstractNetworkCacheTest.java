@@ -92,6 +92,11 @@ public class AbstractNetworkCacheTest {
         return null;
       }
 
+      @Override
+      protected CacheResult containsImpl(RuleKey ruleKey) throws IOException {
+        return null;
+      }
+
       @Override
       protected void storeImpl(
           ArtifactInfo info,
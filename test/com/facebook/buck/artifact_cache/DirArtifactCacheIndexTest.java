@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.artifact_cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.buck.testutil.integration.TemporaryPaths;
+import com.google.common.collect.ImmutableList;
+
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class DirArtifactCacheIndexTest {
+
+  @Rule
+  public TemporaryPaths tmpDir = new TemporaryPaths();
+
+  private Path root;
+  private Path log;
+
+  @Before
+  public void setUp() throws IOException {
+    root = tmpDir.newFolder();
+    log = root.resolve(".index");
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedFirst() throws IOException {
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, noFiles())) {
+      index.recordStore(root.resolve("a"), 1L);
+      index.recordStore(root.resolve("b"), 2L);
+      index.recordStore(root.resolve("c"), 3L);
+      index.recordAccess(root.resolve("a"));
+      assertThat(index.getTotalSizeBytes(), Matchers.equalTo(6L));
+
+      assertThat(
+          index.evict(3L),
+          Matchers.equalTo(ImmutableList.of(root.resolve("b"), root.resolve("c"))));
+      assertThat(index.getTotalSizeBytes(), Matchers.equalTo(1L));
+      assertThat(index.getEntriesInAccessOrder(), Matchers.contains(root.resolve("a")));
+    }
+  }
+
+  @Test
+  public void restoringAnEntryReplacesItsSize() throws IOException {
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, noFiles())) {
+      index.recordStore(root.resolve("a"), 5L);
+      index.recordStore(root.resolve("a"), 2L);
+      assertThat(index.getTotalSizeBytes(), Matchers.equalTo(2L));
+    }
+  }
+
+  @Test
+  public void reopeningReplaysTheLog() throws IOException {
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, noFiles())) {
+      index.recordStore(root.resolve("a"), 1L);
+      index.recordStore(root.resolve("b"), 2L);
+      index.recordStore(root.resolve("c"), 3L);
+      index.recordAccess(root.resolve("a"));
+      index.evict(5L);
+    }
+
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, failOnWalk())) {
+      assertThat(
+          index.getEntriesInAccessOrder(),
+          Matchers.contains(root.resolve("c"), root.resolve("a")));
+      assertThat(index.getTotalSizeBytes(), Matchers.equalTo(4L));
+    }
+  }
+
+  @Test
+  public void truncatedRecordsAreIgnored() throws IOException {
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, noFiles())) {
+      index.recordStore(root.resolve("a"), 1L);
+    }
+    Files.write(log, new byte[] {0, 0, 5, 'b'}, StandardOpenOption.APPEND);
+
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, failOnWalk())) {
+      assertThat(index.getEntriesInAccessOrder(), Matchers.contains(root.resolve("a")));
+    }
+  }
+
+  @Test
+  public void missingLogIsRebuiltFromFilesByAccessTime() throws IOException {
+    Path older = root.resolve("older");
+    Path newer = root.resolve("newer");
+    Files.write(older, "older".getBytes(UTF_8));
+    Files.write(newer, "new".getBytes(UTF_8));
+    Files.setAttribute(older, "lastAccessTime", FileTime.fromMillis(1000));
+    Files.setAttribute(newer, "lastAccessTime", FileTime.fromMillis(2000));
+
+    try (DirArtifactCacheIndex index =
+             DirArtifactCacheIndex.open(root, log, () -> ImmutableList.of(newer, older))) {
+      assertThat(index.getEntriesInAccessOrder(), Matchers.contains(older, newer));
+      assertThat(index.getTotalSizeBytes(), Matchers.equalTo(8L));
+    }
+    assertTrue(Files.exists(log));
+  }
+
+  @Test
+  public void closingCompactsLargeLogs() throws IOException {
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, noFiles())) {
+      index.recordStore(root.resolve("a"), 1L);
+      index.recordStore(root.resolve("b"), 1L);
+      for (int i = 0; i < 20000; i++) {
+        index.recordAccess(root.resolve(i % 2 == 0 ? "b" : "a"));
+      }
+    }
+    assertThat(Files.size(log), Matchers.lessThan(100L));
+
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, failOnWalk())) {
+      assertThat(
+          index.getEntriesInAccessOrder(),
+          Matchers.contains(root.resolve("b"), root.resolve("a")));
+    }
+  }
+
+  @Test
+  public void recordsAppendedAfterAnotherIndexCompactsAreKept() throws IOException {
+    try (DirArtifactCacheIndex first = DirArtifactCacheIndex.open(root, log, noFiles())) {
+      first.recordStore(root.resolve("a"), 1L);
+
+      // Another user of the cache compacts the log out from under the first one.
+      try (DirArtifactCacheIndex second = DirArtifactCacheIndex.open(root, log, failOnWalk())) {
+        for (int i = 0; i < 20000; i++) {
+          second.recordAccess(root.resolve("a"));
+        }
+      }
+      assertThat(Files.size(log), Matchers.lessThan(100L));
+
+      first.recordStore(root.resolve("b"), 2L);
+    }
+
+    try (DirArtifactCacheIndex index = DirArtifactCacheIndex.open(root, log, failOnWalk())) {
+      assertThat(
+          index.getEntriesInAccessOrder(),
+          Matchers.contains(root.resolve("a"), root.resolve("b")));
+      assertThat(index.getTotalSizeBytes(), Matchers.equalTo(3L));
+    }
+  }
+
+  private static Callable<List<Path>> noFiles() {
+    return ImmutableList::of;
+  }
+
+  private static Callable<List<Path>> failOnWalk() {
+    return () -> {
+      throw new AssertionError("The index should have been loaded from the log.");
+    };
+  }
+
+}
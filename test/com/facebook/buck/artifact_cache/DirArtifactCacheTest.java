@@ -63,6 +63,7 @@ import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class DirArtifactCacheTest {
   @Rule
@@ -537,6 +538,45 @@ public class DirArtifactCacheTest {
         ImmutableSet.copyOf(filesInCache));
   }
 
+  @Test
+  public void testIndexedEvictionDeletesLeastRecentlyUsed() throws IOException {
+    Path cacheDir = tmpDir.newFolder();
+
+    Path fileW = cacheDir.resolve("11").resolve("11").resolve("w");
+    Path fileX = cacheDir.resolve("22").resolve("22").resolve("x");
+    Path fileY = cacheDir.resolve("33").resolve("33").resolve("y");
+    Path fileZ = cacheDir.resolve("44").resolve("44").resolve("z");
+
+    for (Path file : ImmutableList.of(fileW, fileX, fileY, fileZ)) {
+      Files.createDirectories(file.getParent());
+      Files.write(file, file.getFileName().toString().getBytes(UTF_8));
+    }
+
+    Files.setAttribute(fileW, "lastAccessTime", FileTime.fromMillis(9000));
+    Files.setAttribute(fileX, "lastAccessTime", FileTime.fromMillis(0));
+    Files.setAttribute(fileY, "lastAccessTime", FileTime.fromMillis(1000));
+    Files.setAttribute(fileZ, "lastAccessTime", FileTime.fromMillis(2000));
+
+    // The index is built from the existing files when the cache is opened.
+    dirArtifactCache = new DirArtifactCache(
+        "dir",
+        new ProjectFilesystem(cacheDir),
+        Paths.get("."),
+        CacheReadMode.READWRITE,
+        /* maxCacheSizeBytes */ Optional.of(3L),
+        /* contentAddressed */ false,
+        /* indexedEviction */ true);
+
+    // Once the index exists, trimming shouldn't depend on access times on disk.
+    Files.setAttribute(fileW, "lastAccessTime", FileTime.fromMillis(0));
+
+    dirArtifactCache.deleteOldFiles();
+
+    assertEquals(
+        ImmutableSet.of(fileZ, fileW),
+        ImmutableSet.copyOf(dirArtifactCache.getAllFilesInCache()));
+  }
+
   private DirectoryCleaner.PathStats fakePathStats(long creationTime, long lastAccessTime) {
     return new DirectoryCleaner.PathStats(null, 0, creationTime, lastAccessTime);
   }
@@ -728,6 +768,111 @@ public class DirArtifactCacheTest {
     cache.close();
   }
 
+  @Test
+  public void testContentAddressedStoreDeduplicatesArtifacts() throws IOException {
+    Path cacheDir = tmpDir.newFolder();
+    Path fileX = tmpDir.newFile("x");
+    Path fileY = tmpDir.newFile("y");
+    Path fetched = tmpDir.getRoot().resolve("fetched");
+
+    dirArtifactCache = new DirArtifactCache(
+        "dir",
+        new ProjectFilesystem(cacheDir),
+        Paths.get("."),
+        CacheReadMode.READWRITE,
+        /* maxCacheSizeBytes */ Optional.empty(),
+        /* contentAddressed */ true);
+
+    Files.write(fileX, "content".getBytes(UTF_8));
+    Files.write(fileY, "content".getBytes(UTF_8));
+
+    RuleKey ruleKey1 = new RuleKey("aaaa");
+    RuleKey ruleKey2 = new RuleKey("bbbb");
+    dirArtifactCache.store(
+        ArtifactInfo.builder().addRuleKeys(ruleKey1).build(),
+        BorrowablePath.notBorrowablePath(fileX));
+    dirArtifactCache.store(
+        ArtifactInfo.builder().addRuleKeys(ruleKey2).build(),
+        BorrowablePath.notBorrowablePath(fileY));
+
+    // Only a single copy of the artifact should have been stored.
+    Path contentDir = cacheDir.resolve("cas");
+    List<Path> contentFiles;
+    try (Stream<Path> files = Files.walk(contentDir)) {
+      contentFiles = files.filter(Files::isRegularFile).collect(MoreCollectors.toImmutableList());
+    }
+    assertThat(contentFiles, Matchers.hasSize(1));
+
+    for (RuleKey ruleKey : ImmutableList.of(ruleKey1, ruleKey2)) {
+      assertEquals(
+          CacheResultType.HIT,
+          dirArtifactCache.fetch(ruleKey, LazyPath.ofInstance(fetched)).getType());
+      assertEquals("content", new String(Files.readAllBytes(fetched), UTF_8));
+      Files.delete(fetched);
+    }
+
+    // Deleting a fetched output must not affect the stored artifact.
+    assertTrue(Files.exists(contentFiles.get(0)));
+  }
+
+  @Test
+  public void testMultiContainsDoesNotFetch() throws IOException {
+    Path cacheDir = tmpDir.newFolder();
+    Path fileX = tmpDir.newFile("x");
+    Files.write(fileX, "x".getBytes(UTF_8));
+
+    dirArtifactCache = new DirArtifactCache(
+        "dir",
+        new ProjectFilesystem(cacheDir),
+        Paths.get("."),
+        CacheReadMode.READWRITE,
+        /* maxCacheSizeBytes */ Optional.empty(),
+        /* contentAddressed */ true);
+
+    RuleKey storedRuleKey = new RuleKey("aaaa");
+    RuleKey missingRuleKey = new RuleKey("bbbb");
+    dirArtifactCache.store(
+        ArtifactInfo.builder().addRuleKeys(storedRuleKey).build(),
+        BorrowablePath.notBorrowablePath(fileX));
+
+    ImmutableMap<RuleKey, CacheResult> results =
+        dirArtifactCache.multiContains(ImmutableSet.of(storedRuleKey, missingRuleKey));
+    assertEquals(CacheResultType.HIT, results.get(storedRuleKey).getType());
+    assertEquals(CacheResultType.MISS, results.get(missingRuleKey).getType());
+  }
+
+  @Test
+  public void testContentAddressedFetchesRuleKeyEntries() throws IOException {
+    Path cacheDir = tmpDir.newFolder();
+    Path fileX = tmpDir.newFile("x");
+    Path fetched = tmpDir.getRoot().resolve("fetched");
+    Files.write(fileX, "x".getBytes(UTF_8));
+
+    RuleKey ruleKey = new RuleKey("aaaa");
+    DirArtifactCache ruleKeyCache = new DirArtifactCache(
+        "dir",
+        new ProjectFilesystem(cacheDir),
+        Paths.get("."),
+        CacheReadMode.READWRITE,
+        /* maxCacheSizeBytes */ Optional.empty());
+    ruleKeyCache.store(
+        ArtifactInfo.builder().addRuleKeys(ruleKey).build(),
+        BorrowablePath.notBorrowablePath(fileX));
+    ruleKeyCache.close();
+
+    dirArtifactCache = new DirArtifactCache(
+        "dir",
+        new ProjectFilesystem(cacheDir),
+        Paths.get("."),
+        CacheReadMode.READWRITE,
+        /* maxCacheSizeBytes */ Optional.empty(),
+        /* contentAddressed */ true);
+    assertEquals(
+        CacheResultType.HIT,
+        dirArtifactCache.fetch(ruleKey, LazyPath.ofInstance(fetched)).getType());
+    assertEquals("x", new String(Files.readAllBytes(fetched), UTF_8));
+  }
+
   @Test
   public void testFolderLevelsForRuleKeys() throws IOException {
     DirArtifactCache cache = new DirArtifactCache(
@@ -19,6 +19,8 @@ package com.facebook.buck.artifact_cache;
 import com.facebook.buck.io.BorrowablePath;
 import com.facebook.buck.io.LazyPath;
 import com.facebook.buck.rules.RuleKey;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -39,6 +41,17 @@ public class DummyArtifactCache extends NoopArtifactCache {
     return ruleKey.equals(storeKey) ? CacheResult.hit("cache") : CacheResult.miss();
   }
 
+  @Override
+  public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+    ImmutableMap.Builder<RuleKey, CacheResult> results = ImmutableMap.builder();
+    for (RuleKey ruleKey : ruleKeys) {
+      results.put(
+          ruleKey,
+          ruleKey.equals(storeKey) ? CacheResult.hit("cache") : CacheResult.miss());
+    }
+    return results.build();
+  }
+
   @Override
   public ListenableFuture<Void> store(
       ArtifactInfo info,
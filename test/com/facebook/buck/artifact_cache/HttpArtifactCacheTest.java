@@ -57,6 +57,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import okhttp3.MediaType;
@@ -212,6 +214,65 @@ public class HttpArtifactCacheTest {
     cache.close();
   }
 
+  @Test
+  public void testMultiFetchOverlapsRequests() throws Exception {
+    final CountDownLatch allRequestsInFlight = new CountDownLatch(3);
+    argsBuilder.setMaxConcurrentFetches(3);
+    argsBuilder.setFetchClient(withMakeRequest((path, requestBuilder) -> {
+      allRequestsInFlight.countDown();
+      try {
+        allRequestsInFlight.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      return new OkHttpResponseWrapper(
+          new Response.Builder()
+              .code(HttpURLConnection.HTTP_NOT_FOUND)
+              .body(ResponseBody.create(OCTET_STREAM, ""))
+              .protocol(Protocol.HTTP_1_1)
+              .request(requestBuilder.url(SERVER + path).build())
+              .build());
+    }));
+    HttpArtifactCache cache = new HttpArtifactCache(argsBuilder.build());
+    ImmutableMap.Builder<RuleKey, LazyPath> outputs = ImmutableMap.builder();
+    for (int i = 0; i < 3; i++) {
+      outputs.put(
+          new RuleKey("0000000000000000000000000000000" + i),
+          LazyPath.ofInstance(Paths.get("output/file" + i)));
+    }
+    ImmutableMap<RuleKey, CacheResult> results = cache.multiFetch(outputs.build());
+    assertEquals(0, allRequestsInFlight.getCount());
+    assertEquals(outputs.build().keySet(), results.keySet());
+    for (CacheResult result : results.values()) {
+      assertEquals(CacheResultType.MISS, result.getType());
+    }
+    cache.close();
+  }
+
+  @Test
+  public void testMultiContainsAsksWithoutDownloading() throws Exception {
+    final RuleKey storedRuleKey = new RuleKey("00000000000000000000000000000000");
+    final RuleKey missingRuleKey = new RuleKey("00000000000000000000000000000001");
+    argsBuilder.setFetchClient(withMakeRequest((path, requestBuilder) -> {
+      Request request = requestBuilder.url(SERVER + path).build();
+      assertEquals("HEAD", request.method());
+      boolean stored = request.url().encodedPath().endsWith(storedRuleKey.toString());
+      return new OkHttpResponseWrapper(
+          new Response.Builder()
+              .code(stored ? HttpURLConnection.HTTP_OK : HttpURLConnection.HTTP_NOT_FOUND)
+              .body(ResponseBody.create(OCTET_STREAM, ""))
+              .protocol(Protocol.HTTP_1_1)
+              .request(request)
+              .build());
+    }));
+    HttpArtifactCache cache = new HttpArtifactCache(argsBuilder.build());
+    ImmutableMap<RuleKey, CacheResult> results =
+        cache.multiContains(ImmutableSet.of(storedRuleKey, missingRuleKey));
+    assertEquals(CacheResultType.HIT, results.get(storedRuleKey).getType());
+    assertEquals(CacheResultType.MISS, results.get(missingRuleKey).getType());
+    cache.close();
+  }
+
   @Test
   public void testFetchUrl() throws Exception {
     final RuleKey ruleKey = new RuleKey("00000000000000000000000000000000");
@@ -27,6 +27,7 @@ import com.facebook.buck.rules.RuleKey;
 import com.facebook.buck.testutil.integration.TemporaryPaths;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -95,6 +96,37 @@ public class MultiArtifactCacheTest {
     multiArtifactCache.close();
   }
 
+  @Test
+  public void testMultiFetchPropagatesToEarlierCaches() throws Exception {
+    RuleKey otherRuleKey = new RuleKey("0000000000000000000000000000000000000000");
+    DummyArtifactCache dummyArtifactCache1 = new DummyArtifactCache();
+    DummyArtifactCache dummyArtifactCache2 = new DummyArtifactCache();
+    MultiArtifactCache multiArtifactCache = new MultiArtifactCache(ImmutableList.of(
+        dummyArtifactCache1,
+        dummyArtifactCache2));
+
+    dummyArtifactCache2.store(
+        ArtifactInfo.builder().addRuleKeys(dummyRuleKey).build(),
+        BorrowablePath.notBorrowablePath(dummyFile.get()));
+    ImmutableMap<RuleKey, CacheResult> results = multiArtifactCache.multiFetch(
+        ImmutableMap.of(otherRuleKey, dummyFile, dummyRuleKey, dummyFile));
+
+    assertThat(results.keySet(), Matchers.contains(otherRuleKey, dummyRuleKey));
+    assertEquals(CacheResultType.MISS, results.get(otherRuleKey).getType());
+    assertEquals(CacheResultType.HIT, results.get(dummyRuleKey).getType());
+    assertEquals(
+        "The hit should have been propagated to the first cache",
+        dummyRuleKey,
+        dummyArtifactCache1.storeKey);
+    assertEquals(
+        CacheResultType.HIT,
+        multiArtifactCache.multiContains(ImmutableSet.of(dummyRuleKey))
+            .get(dummyRuleKey)
+            .getType());
+
+    multiArtifactCache.close();
+  }
+
   @Test
   public void testPropagateOnlyCacheStore() throws InterruptedException, IOException,
       ExecutionException {
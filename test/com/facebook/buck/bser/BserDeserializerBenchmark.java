@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.bser;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Decodes responses shaped like the largest ones Buck reads: a Watchman query that lists every
+ * file in a repository, encoded as a template the way Watchman sends it, and the output of
+ * parsing a build file with many rules.  Compares building the whole tree, reading it through
+ * views and pulling tokens off the stream.  Run with caliper's allocation instrument to see the
+ * garbage each one makes.
+ */
+public class BserDeserializerBenchmark {
+  @Param({"10000", "100000", "500000"})
+  private int fileCount = 10000;
+
+  private static final int RULES_PER_BUILD_FILE = 2000;
+  private static final ImmutableList<String> FILE_FIELDS =
+      ImmutableList.of("name", "exists", "new", "type");
+
+  private byte[] watchmanResponse;
+  private byte[] parserOutput;
+
+  @Before
+  public void setUpTest() throws IOException {
+    fileCount = 1000;
+    setUpBenchmark();
+  }
+
+  @BeforeExperiment
+  public void setUpBenchmark() throws IOException {
+    watchmanResponse = encodeWatchmanResponse(fileCount);
+    parserOutput = encodeParserOutput();
+  }
+
+  @Test
+  public void watchmanResponseCorrectness() throws IOException {
+    long expected = watchmanTree();
+    assertEquals(expected, watchmanView());
+    assertEquals(expected, watchmanStreaming());
+  }
+
+  @Test
+  public void parserOutputCorrectness() throws IOException {
+    Map<?, ?> output = (Map<?, ?>) new BserDeserializer(BserDeserializer.KeyOrdering.SORTED)
+        .deserializeBserValue(new ByteArrayInputStream(parserOutput));
+    assertEquals(RULES_PER_BUILD_FILE, ((List<?>) output.get("values")).size());
+  }
+
+  @Benchmark
+  public long watchmanTree() throws IOException {
+    Object response = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED)
+        .deserializeBserValue(new ByteArrayInputStream(watchmanResponse));
+    return sumExistingFiles(response);
+  }
+
+  @Benchmark
+  public long watchmanView() throws IOException {
+    Object response = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED)
+        .deserializeBserValueView(new ByteArrayInputStream(watchmanResponse));
+    return sumExistingFiles(response);
+  }
+
+  @Benchmark
+  public long watchmanStreaming() throws IOException {
+    BserParser parser = new BserParser(new ByteArrayInputStream(watchmanResponse));
+    long sum = 0;
+    BserParser.Token token;
+    while ((token = parser.nextToken()) != null) {
+      if (token != BserParser.Token.FIELD_NAME || !parser.getText().equals("files")) {
+        continue;
+      }
+      parser.nextToken();
+      while (parser.nextToken() == BserParser.Token.START_OBJECT) {
+        String name = null;
+        boolean exists = false;
+        while (parser.nextToken() == BserParser.Token.FIELD_NAME) {
+          String field = parser.getText();
+          token = parser.nextToken();
+          if (field.equals("name")) {
+            name = parser.getText();
+          } else if (field.equals("exists")) {
+            exists = token == BserParser.Token.VALUE_TRUE;
+          }
+        }
+        if (exists && name != null) {
+          sum += name.hashCode();
+        }
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int parserOutput() throws IOException {
+    Map<?, ?> output = (Map<?, ?>) new BserDeserializer(BserDeserializer.KeyOrdering.SORTED)
+        .deserializeBserValue(new ByteArrayInputStream(parserOutput));
+    return ((List<?>) output.get("values")).size();
+  }
+
+  /**
+   * Reads the response the way {@code WatchmanWatcher} does.
+   */
+  @SuppressWarnings("unchecked")
+  private static long sumExistingFiles(Object response) {
+    List<Map<String, Object>> files =
+        (List<Map<String, Object>>) ((Map<String, Object>) response).get("files");
+    long sum = 0;
+    for (Map<String, Object> file : files) {
+      String name = (String) file.get("name");
+      if (Boolean.TRUE.equals(file.get("exists"))) {
+        sum += name.hashCode();
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * {@link BserSerializer} does not write templates, so encode this one by hand.
+   */
+  private static byte[] encodeWatchmanResponse(int fileCount) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(128 + fileCount * 96).order(ByteOrder.nativeOrder());
+    buffer.put(BserConstants.BSER_OBJECT);
+    putInt(buffer, 4);
+    putString(buffer, "version");
+    putString(buffer, "4.7.0");
+    putString(buffer, "clock");
+    putString(buffer, "c:1490000000:1234:1:5678");
+    putString(buffer, "is_fresh_instance");
+    buffer.put(BserConstants.BSER_FALSE);
+    putString(buffer, "files");
+    buffer.put(BserConstants.BSER_TEMPLATE);
+    buffer.put(BserConstants.BSER_ARRAY);
+    putInt(buffer, FILE_FIELDS.size());
+    for (String field : FILE_FIELDS) {
+      putString(buffer, field);
+    }
+    putInt(buffer, fileCount);
+    for (int i = 0; i < fileCount; i++) {
+      putString(
+          buffer,
+          String.format("src/com/facebook/module%d/package%d/File%d.java", i / 1000, i / 50, i));
+      buffer.put(i % 10 == 0 ? BserConstants.BSER_FALSE : BserConstants.BSER_TRUE);
+      if (i % 4 == 0) {
+        buffer.put(BserConstants.BSER_SKIP);
+      } else {
+        buffer.put(BserConstants.BSER_FALSE);
+      }
+      putString(buffer, "f");
+    }
+    buffer.flip();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(0x00);
+    bytes.write(0x01);
+    ByteBuffer header = ByteBuffer.allocate(5).order(ByteOrder.nativeOrder());
+    header.put(BserConstants.BSER_INT32).putInt(buffer.limit());
+    bytes.write(header.array());
+    bytes.write(buffer.array(), 0, buffer.limit());
+    return bytes.toByteArray();
+  }
+
+  private static byte[] encodeParserOutput() throws IOException {
+    List<Object> values = new ArrayList<>();
+    for (int i = 0; i < RULES_PER_BUILD_FILE; i++) {
+      Map<String, Object> rule = new TreeMap<>();
+      rule.put("buck.base_path", "java/com/example/module" + (i / 100));
+      rule.put("buck.type", "java_library");
+      rule.put("name", "lib" + i);
+      rule.put("srcs", ImmutableList.of("A" + i + ".java", "B" + i + ".java"));
+      List<String> deps = new ArrayList<>();
+      for (int dep = Math.max(0, i - 5); dep < i; dep++) {
+        deps.add(":lib" + dep);
+      }
+      rule.put("deps", deps);
+      rule.put("visibility", ImmutableList.of("PUBLIC"));
+      rule.put("source", "8");
+      rule.put("target", "8");
+      values.add(rule);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new BserSerializer().serializeToStream(
+        ImmutableMap.of("values", values, "diagnostics", ImmutableList.of(), "profile", ""),
+        bytes);
+    return bytes.toByteArray();
+  }
+
+  private static void putInt(ByteBuffer buffer, int value) {
+    buffer.put(BserConstants.BSER_INT32);
+    buffer.putInt(value);
+  }
+
+  private static void putString(ByteBuffer buffer, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.put(BserConstants.BSER_STRING);
+    putInt(buffer, bytes.length);
+    buffer.put(bytes);
+  }
+}
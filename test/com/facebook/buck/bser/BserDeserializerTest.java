@@ -29,13 +29,16 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.io.BaseEncoding;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.nio.ByteOrder;
 import java.nio.charset.CharacterCodingException;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -350,4 +353,70 @@ public class BserDeserializerTest {
     BserDeserializer deserializer = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED);
     deserializer.deserializeBserValue(getByteStream("0001030701030103030323"));
   }
+
+  @Test
+  public void viewEqualsDeserializedValue() throws IOException {
+    Map<String, Object> nested = new LinkedHashMap<>();
+    nested.put("null", null);
+    nested.put("real", 0.5);
+    nested.put("\u00e9t\u00e9", "\u4e2d\u6587");
+    Map<String, Object> value = new LinkedHashMap<>();
+    value.put("version", "4.7.0");
+    value.put("big", 0x11223344CCDDEEFFL);
+    value.put("flags", ImmutableList.of(true, false));
+    value.put("nested", nested);
+    value.put("empty", ImmutableList.of());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new BserSerializer().serializeToStream(value, bytes);
+
+    BserDeserializer deserializer = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED);
+    Map<String, Object> view = (Map<String, Object>) deserializer.deserializeBserValueView(
+        new ByteArrayInputStream(bytes.toByteArray()));
+    Map<String, Object> deserialized = (Map<String, Object>) deserializer.deserializeBserValue(
+        new ByteArrayInputStream(bytes.toByteArray()));
+    assertThat(view, equalTo(deserialized));
+    assertThat(view.entrySet(), equalTo(deserialized.entrySet()));
+    assertThat(view.keySet(), contains(value.keySet().toArray()));
+    Map<String, Object> nestedView = (Map<String, Object>) view.get("nested");
+    assertThat(nestedView.get("\u00e9t\u00e9"), equalTo("\u4e2d\u6587"));
+    assertThat(nestedView.containsKey("null"), is(true));
+    assertThat(view.get("missing"), is(nullValue()));
+  }
+
+  @Test
+  public void viewOfTemplate() throws IOException {
+    BserDeserializer deserializer = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED);
+    List<Map<String, Object>> view = (List<Map<String, Object>>)
+        deserializer.deserializeBserValueView(
+            getByteStream(
+                "000103280B0003020203046E616D6502030361676503030203046672656403140203" +
+                "0470657465031E0C0319"));
+    assertThat(view.size(), equalTo(3));
+    assertThat(view.get(0).get("name"), equalTo("fred"));
+    assertThat(view.get(2).containsKey("name"), is(false));
+    assertThat(
+        view,
+        Matchers.contains(
+            ImmutableMap.of("name", "fred", "age", (byte) 20),
+            ImmutableMap.of("name", "pete", "age", (byte) 30),
+            ImmutableMap.of("age", (byte) 25)));
+  }
+
+  @Test
+  public void throwIfViewIsTruncated() throws IOException {
+    thrown.expect(BserDeserializer.BserEofException.class);
+    thrown.expectMessage("Prematurely reached end of BSER buffer");
+    BserDeserializer deserializer = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED);
+    deserializer.deserializeBserValueView(getByteStream("0001030B010303020303666F6F0323"));
+  }
+
+  @Test
+  public void viewThrowsWhenStringNotUTF8IsAccessed() throws IOException {
+    BserDeserializer deserializer = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED);
+    List<Object> view = (List<Object>) deserializer.deserializeBserValueView(
+        getByteStream("0001030B0003020303020303ABCDEF"));
+    assertThat(view.get(0), equalTo((byte) 3));
+    thrown.expect(UncheckedIOException.class);
+    view.get(1);
+  }
 }
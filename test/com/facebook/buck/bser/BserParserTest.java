@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.bser;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BserParserTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  // A template with keys "name" and "age", and rows {name: fred, age: 20} and {name: pete}.
+  private static final String TEMPLATE_PDU =
+      "000103240B0003020203046E616D650203036167650302020304667265640314020304" +
+      "706574650C";
+
+  @Test
+  public void templatesAreExpandedWithoutSkippedFields() throws IOException {
+    BserParser parser = new BserParser(
+        new ByteArrayInputStream(
+            BaseEncoding.base16().decode(TEMPLATE_PDU)));
+    List<String> tokens = new ArrayList<>();
+    BserParser.Token token;
+    while ((token = parser.nextToken()) != null) {
+      switch (token) {
+        case START_ARRAY:
+        case START_OBJECT:
+          tokens.add(token + "(" + parser.getContainerSize() + ")");
+          break;
+        case FIELD_NAME:
+        case VALUE_STRING:
+          tokens.add(parser.getText());
+          break;
+        case VALUE_INT:
+          tokens.add(parser.getNumberValue().toString());
+          break;
+        case END_ARRAY:
+        case END_OBJECT:
+        case VALUE_REAL:
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+        case VALUE_NULL:
+          tokens.add(token.toString());
+          break;
+      }
+    }
+    assertThat(
+        tokens,
+        equalTo(
+            ImmutableList.of(
+                "START_ARRAY(2)",
+                "START_OBJECT(2)",
+                "name",
+                "fred",
+                "age",
+                "20",
+                "END_OBJECT",
+                "START_OBJECT(2)",
+                "name",
+                "pete",
+                "END_OBJECT",
+                "END_ARRAY")));
+  }
+
+  @Test
+  public void templateFieldNamesAreInternedOnce() throws IOException {
+    BserParser parser = new BserParser(
+        new ByteArrayInputStream(
+            BaseEncoding.base16().decode(TEMPLATE_PDU)));
+    List<String> names = new ArrayList<>();
+    BserParser.Token token;
+    while ((token = parser.nextToken()) != null) {
+      if (token == BserParser.Token.FIELD_NAME) {
+        names.add(parser.getFieldName());
+      }
+    }
+    assertThat(names, equalTo(ImmutableList.of("name", "age", "name")));
+    assertThat(names.get(0), sameInstance("name"));
+    assertThat(names.get(2), sameInstance(names.get(0)));
+  }
+
+  @Test
+  public void skipChildrenSkipsNestedContainers() throws IOException {
+    BserParser parser = new BserParser(
+        serialize(
+            ImmutableMap.of(
+                "skipped", ImmutableList.of(ImmutableMap.of("a", 1), ImmutableList.of("b")),
+                "kept", "value")));
+    assertThat(parser.nextToken(), is(BserParser.Token.START_OBJECT));
+    assertThat(parser.nextToken(), is(BserParser.Token.FIELD_NAME));
+    assertThat(parser.getText(), equalTo("skipped"));
+    assertThat(parser.nextToken(), is(BserParser.Token.START_ARRAY));
+    parser.skipChildren();
+    assertThat(parser.getCurrentToken(), is(BserParser.Token.END_ARRAY));
+    assertThat(parser.nextToken(), is(BserParser.Token.FIELD_NAME));
+    assertThat(parser.getText(), equalTo("kept"));
+    assertThat(parser.nextToken(), is(BserParser.Token.VALUE_STRING));
+    assertThat(parser.getText(), equalTo("value"));
+    assertThat(parser.nextToken(), is(BserParser.Token.END_OBJECT));
+    assertThat(parser.nextToken(), is(nullValue()));
+  }
+
+  @Test
+  public void finishLeavesStreamAtNextPdu() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BserSerializer serializer = new BserSerializer();
+    serializer.serializeToStream(ImmutableList.of("first", ImmutableMap.of("a", "b")), bytes);
+    serializer.serializeToStream("second", bytes);
+    InputStream stream = new ByteArrayInputStream(bytes.toByteArray());
+
+    BserParser first = new BserParser(stream);
+    assertThat(first.nextToken(), is(BserParser.Token.START_ARRAY));
+    first.finish();
+
+    BserParser second = new BserParser(stream);
+    assertThat(second.nextToken(), is(BserParser.Token.VALUE_STRING));
+    assertThat(second.getText(), equalTo("second"));
+    second.finish();
+    assertThat(stream.read(), is(-1));
+  }
+
+  @Test
+  public void valuesLargerThanTheBufferAreRead() throws IOException {
+    String longString = Strings.repeat("0123456789", 100) + "\u00e9\u4e2d";
+    List<Object> value = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      value.add(ImmutableMap.of("index", i * 1000, "string", longString));
+    }
+    BserParser parser = new BserParser(serialize(value), 16);
+    Object deserialized = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED)
+        .deserializeValue(parser, parser.nextToken());
+    assertThat(
+        deserialized,
+        equalTo(
+            new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED)
+                .deserializeBserValue(serialize(value))));
+  }
+
+  @Test
+  public void throwIfStreamEndsBeforePdu() throws IOException {
+    thrown.expect(BserDeserializer.BserEofException.class);
+    thrown.expectMessage("Invalid BSER header (expected 36 bytes, got 30 bytes)");
+    BserParser parser = new BserParser(
+        new ByteArrayInputStream(
+            BaseEncoding.base16().decode(TEMPLATE_PDU.substring(0, 2 * (4 + 30)))),
+        16);
+    while (parser.nextToken() != null) {
+      // Keep reading until the stream runs out.
+    }
+  }
+
+  private static InputStream serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new BserSerializer().serializeToStream(value, bytes);
+    return new ByteArrayInputStream(bytes.toByteArray());
+  }
+}
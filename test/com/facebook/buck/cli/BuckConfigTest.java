@@ -380,6 +380,25 @@ public class BuckConfigTest {
     assertEquals(42, config.getMaxTraces());
   }
 
+  @Test
+  public void testGetMaxActionGraphCacheEntries() throws IOException {
+    assertEquals(1, FakeBuckConfig.builder().build().getMaxActionGraphCacheEntries());
+    assertEquals(
+        3,
+        createFromText("[cache]", "max_action_graph_cache_entries = 3")
+            .getMaxActionGraphCacheEntries());
+
+    BuckConfig config = createFromText("[cache]", "max_action_graph_cache_entries = 0");
+    try {
+      config.getMaxActionGraphCacheEntries();
+      fail("Should have thrown HumanReadableException.");
+    } catch (HumanReadableException e) {
+      assertEquals(
+          "cache.max_action_graph_cache_entries must be a positive integer, got 0.",
+          e.getHumanReadableErrorMessage());
+    }
+  }
+
   @Test
   public void testGetAndroidTargetSdkWithSpaces() throws IOException {
     BuckConfig config = createFromText(
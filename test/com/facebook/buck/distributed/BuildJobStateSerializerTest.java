@@ -17,12 +17,25 @@
 package com.facebook.buck.distributed;
 
 import com.facebook.buck.distributed.thrift.BuildJobState;
+import com.facebook.buck.distributed.thrift.BuildJobStateCell;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
+import com.facebook.buck.distributed.thrift.BuildJobStateFileHashes;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetGraph;
+import com.facebook.buck.distributed.thrift.BuildJobStateTargetNode;
+import com.facebook.buck.distributed.thrift.PathWithUnixSeparators;
+import com.facebook.buck.slb.ThriftProtocol;
+import com.facebook.buck.slb.ThriftUtil;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
 
 public class BuildJobStateSerializerTest {
 
@@ -40,4 +53,183 @@ public class BuildJobStateSerializerTest {
       Assert.assertEquals(state, actual);
     }
   }
+
+  @Test
+  public void testLargeStateIsSymmetrical() throws IOException {
+    BuildJobState state = createLargeState();
+
+    BuildJobState actual = BuildJobStateSerializer.deserialize(
+        BuildJobStateSerializer.serialize(state));
+    Assert.assertEquals(state, actual);
+  }
+
+  @Test
+  public void testFileContentsCanBeLeftOut() throws IOException {
+    BuildJobState state = createLargeState();
+
+    BuildJobState actual = BuildJobStateSerializer.deserialize(
+        BuildJobStateSerializer.serialize(state, /* includeFileContents */ false));
+
+    Assert.assertTrue(state.getFileHashes().get(0).getEntries().get(0).isSetContents());
+    BuildJobState expected = state.deepCopy();
+    for (BuildJobStateFileHashes hashes : expected.getFileHashes()) {
+      if (!hashes.isSetEntries()) {
+        continue;
+      }
+      for (BuildJobStateFileHashEntry entry : hashes.getEntries()) {
+        entry.unsetContents();
+      }
+    }
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testRecordsAreStreamedInChunks() throws IOException {
+    BuildJobState state = createLargeState();
+    List<Integer> targetNodeChunkSizes = new ArrayList<>();
+    List<Integer> fileHashChunkSizes = new ArrayList<>();
+
+    try (BuildJobStateStreamReader reader = new BuildJobStateStreamReader(
+        new ByteArrayInputStream(BuildJobStateSerializer.serialize(state)))) {
+      reader.read(new BuildJobStateStreamReader.Visitor() {
+        @Override
+        public void visitHeader(BuildJobState header) {
+          Assert.assertEquals(0, header.getTargetGraph().getNodesSize());
+          Assert.assertEquals(0, header.getFileHashesSize());
+          Assert.assertEquals(state.getTopLevelTargets(), header.getTopLevelTargets());
+        }
+
+        @Override
+        public void visitTargetNodes(List<BuildJobStateTargetNode> nodes) {
+          targetNodeChunkSizes.add(nodes.size());
+        }
+
+        @Override
+        public void visitFileHashes(BuildJobStateFileHashes hashes) {
+          fileHashChunkSizes.add(hashes.getEntriesSize());
+        }
+
+        @Override
+        public void visitMoreFileHashEntries(List<BuildJobStateFileHashEntry> entries) {
+          fileHashChunkSizes.add(entries.size());
+        }
+      });
+    }
+
+    int nodeCount = state.getTargetGraph().getNodesSize();
+    Assert.assertEquals(
+        (nodeCount + BuildJobStateStreamWriter.TARGET_NODES_PER_CHUNK - 1) /
+            BuildJobStateStreamWriter.TARGET_NODES_PER_CHUNK,
+        targetNodeChunkSizes.size());
+    for (int size : targetNodeChunkSizes) {
+      Assert.assertTrue(size <= BuildJobStateStreamWriter.TARGET_NODES_PER_CHUNK);
+    }
+    Assert.assertTrue(fileHashChunkSizes.size() > state.getFileHashesSize());
+    for (int size : fileHashChunkSizes) {
+      Assert.assertTrue(size <= BuildJobStateStreamWriter.FILE_HASH_ENTRIES_PER_CHUNK);
+    }
+  }
+
+  @Test
+  public void testVisitorSeesTheSameStateAsAnInMemoryOne() throws IOException {
+    BuildJobState state = createLargeState();
+    RecordingVisitor streamed = new RecordingVisitor();
+    BuildJobStateSerializer.deserialize(BuildJobStateSerializer.serialize(state), streamed);
+    RecordingVisitor inMemory = new RecordingVisitor();
+    BuildJobStateSerializer.visit(state, inMemory);
+
+    Assert.assertEquals(inMemory.header, streamed.header);
+    Assert.assertEquals(state.getTopLevelTargets(), streamed.header.getTopLevelTargets());
+    Assert.assertEquals(state.getCells(), streamed.header.getCells());
+    Assert.assertEquals(state.getTargetGraph().getNodes(), streamed.nodes);
+    Assert.assertEquals(inMemory.nodes, streamed.nodes);
+    Assert.assertEquals(inMemory.fileHashEntryCount, streamed.fileHashEntryCount);
+  }
+
+  @Test
+  public void testSingleStructFormatCanStillBeRead() throws IOException {
+    BuildJobState state = createLargeState();
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    try (DeflaterOutputStream zlibStream = new DeflaterOutputStream(stream)) {
+      ThriftUtil.serialize(ThriftProtocol.COMPACT, state, zlibStream);
+    }
+
+    Assert.assertEquals(state, BuildJobStateSerializer.deserialize(stream.toByteArray()));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedStreamIsRejected() throws IOException {
+    byte[] data = BuildJobStateSerializer.serialize(createLargeState());
+    byte[] truncated = new byte[data.length / 2];
+    System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+    BuildJobStateSerializer.deserialize(truncated);
+  }
+
+  private static class RecordingVisitor implements BuildJobStateStreamReader.Visitor {
+    private BuildJobState header;
+    private final List<BuildJobStateTargetNode> nodes = new ArrayList<>();
+    private int fileHashEntryCount = 0;
+
+    @Override
+    public void visitHeader(BuildJobState header) {
+      this.header = header;
+    }
+
+    @Override
+    public void visitTargetNodes(List<BuildJobStateTargetNode> nodes) {
+      this.nodes.addAll(nodes);
+    }
+
+    @Override
+    public void visitFileHashes(BuildJobStateFileHashes hashes) {
+      fileHashEntryCount += hashes.getEntriesSize();
+    }
+
+    @Override
+    public void visitMoreFileHashEntries(List<BuildJobStateFileHashEntry> entries) {
+      fileHashEntryCount += entries.size();
+    }
+  }
+
+  private static BuildJobState createLargeState() {
+    BuildJobState state = new BuildJobState();
+
+    BuildJobStateCell cell = new BuildJobStateCell();
+    cell.setNameHint("root");
+    state.putToCells(0, cell);
+    state.addToTopLevelTargets("//foo:bar");
+
+    BuildJobStateTargetGraph graph = new BuildJobStateTargetGraph();
+    graph.setNodes(new ArrayList<>());
+    int nodeCount = BuildJobStateStreamWriter.TARGET_NODES_PER_CHUNK * 3 + 7;
+    for (int i = 0; i < nodeCount; i++) {
+      BuildJobStateTargetNode node = new BuildJobStateTargetNode();
+      node.setCellIndex(0);
+      node.setRawNode("{\"name\":\"target" + i + "\"}");
+      graph.addToNodes(node);
+    }
+    state.setTargetGraph(graph);
+
+    state.setFileHashes(new ArrayList<>());
+    for (int cellIndex = 0; cellIndex < 2; cellIndex++) {
+      BuildJobStateFileHashes hashes = new BuildJobStateFileHashes();
+      hashes.setCellIndex(cellIndex);
+      hashes.setEntries(new ArrayList<>());
+      int entryCount = BuildJobStateStreamWriter.FILE_HASH_ENTRIES_PER_CHUNK * 2 + 3;
+      for (int i = 0; i < entryCount; i++) {
+        BuildJobStateFileHashEntry entry = new BuildJobStateFileHashEntry();
+        entry.setPath(new PathWithUnixSeparators().setPath("dir/file" + i));
+        entry.setHashCode(Integer.toHexString(i));
+        entry.setContents(ByteBuffer.wrap(("contents" + i).getBytes()));
+        hashes.addToEntries(entry);
+      }
+      state.addToFileHashes(hashes);
+    }
+    // One cell with no entries at all.
+    state.addToFileHashes(new BuildJobStateFileHashes().setCellIndex(2));
+
+    return state;
+  }
 }
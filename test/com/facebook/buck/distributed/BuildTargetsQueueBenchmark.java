@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.distributed;
+
+import static org.junit.Assert.assertEquals;
+
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.BuildRuleResolver;
+import com.facebook.buck.rules.DefaultTargetNodeToBuildRuleTransformer;
+import com.facebook.buck.rules.FakeBuildRule;
+import com.facebook.buck.rules.SourcePathResolver;
+import com.facebook.buck.rules.SourcePathRuleFinder;
+import com.facebook.buck.rules.TargetGraph;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds a {@link BuildTargetsQueue} over a synthetic action graph, and hands out every target in
+ * it as a coordinator would.  Run with caliper's allocation instrument to see how much heap the
+ * queue takes.
+ */
+public class BuildTargetsQueueBenchmark {
+  @Param({"100000", "500000", "1000000"})
+  private int ruleCount = 100000;
+
+  private static final int MAX_DEPS_PER_RULE = 8;
+
+  private BuildRuleResolver resolver;
+  private ImmutableList<BuildTarget> topLevelTargets;
+
+  @Before
+  public void setUpTest() {
+    ruleCount = 1000;
+    setUpBenchmark();
+  }
+
+  @BeforeExperiment
+  public void setUpBenchmark() {
+    SourcePathResolver pathResolver =
+        new SourcePathResolver(
+            new SourcePathRuleFinder(
+                new BuildRuleResolver(
+                    TargetGraph.EMPTY,
+                    new DefaultTargetNodeToBuildRuleTransformer())));
+    resolver =
+        new BuildRuleResolver(TargetGraph.EMPTY, new DefaultTargetNodeToBuildRuleTransformer());
+    Random random = new Random(0);
+
+    // Each rule depends on a few of the rules before it, mostly nearby ones, as libraries in the
+    // same part of a repository tend to.
+    List<BuildRule> rules = new ArrayList<>(ruleCount);
+    for (int i = 0; i < ruleCount; i++) {
+      ImmutableSortedSet.Builder<BuildRule> deps = ImmutableSortedSet.naturalOrder();
+      int depCount = i == 0 ? 0 : random.nextInt(MAX_DEPS_PER_RULE + 1);
+      for (int dep = 0; dep < depCount; dep++) {
+        int distance = 1 + (int) Math.abs(random.nextGaussian() * 1000);
+        deps.add(rules.get(Math.max(0, i - distance)));
+      }
+      rules.add(
+          new FakeBuildRule(
+              BuildTargetFactory.newInstance("//package" + (i / 100) + ":rule" + i),
+              pathResolver,
+              deps.build()));
+    }
+
+    // Ask for the last rules, which between them depend on nearly everything.
+    ImmutableList.Builder<BuildTarget> topLevelTargets = ImmutableList.builder();
+    for (BuildRule rule : rules.subList(Math.max(0, ruleCount - 1000), ruleCount)) {
+      resolver.addToIndex(rule);
+      topLevelTargets.add(rule.getBuildTarget());
+    }
+    this.topLevelTargets = topLevelTargets.build();
+  }
+
+  @Test
+  public void everyTargetIsHandedOutOnce() {
+    BuildTargetsQueue queue = BuildTargetsQueue.newQueue(resolver, topLevelTargets);
+    assertEquals(queue.getTargetCount(), buildAll(queue));
+  }
+
+  @Benchmark
+  public BuildTargetsQueue newQueue(int reps) {
+    BuildTargetsQueue queue = null;
+    for (int i = 0; i < reps; i++) {
+      queue = BuildTargetsQueue.newQueue(resolver, topLevelTargets);
+    }
+    return queue;
+  }
+
+  @Benchmark
+  public int newQueueAndBuildAll(int reps) {
+    int built = 0;
+    for (int i = 0; i < reps; i++) {
+      built += buildAll(BuildTargetsQueue.newQueue(resolver, topLevelTargets));
+    }
+    return built;
+  }
+
+  /**
+   * @return how many targets were handed out, finishing each batch as soon as it's handed out.
+   */
+  private static int buildAll(BuildTargetsQueue queue) {
+    int built = 0;
+    ImmutableList<String> ready = queue.dequeueZeroDependencyNodes(ImmutableList.of());
+    while (!ready.isEmpty()) {
+      built += ready.size();
+      ready = queue.dequeueZeroDependencyNodes(ready);
+    }
+    return built;
+  }
+}
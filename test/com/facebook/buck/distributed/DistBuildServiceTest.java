@@ -65,8 +65,10 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
@@ -194,6 +196,67 @@ public class DistBuildServiceTest {
         "content1".getBytes()));
   }
 
+  @Test
+  public void onlyMissingFilesAreUploadedInBatches() throws Exception {
+    FakeFrontendService fakeFrontendService = new FakeFrontendService();
+    fakeFrontendService.addFile("0", "content0".getBytes());
+    byte[] largeContents = new byte[9 * 1024 * 1024];
+
+    BuildJobStateFileHashes fileHashes = new BuildJobStateFileHashes();
+    fileHashes.setCellIndex(0);
+    fileHashes.setEntries(new ArrayList<>());
+    for (int i = 0; i < 3; i++) {
+      BuildJobStateFileHashEntry file = new BuildJobStateFileHashEntry();
+      file.setHashCode(Integer.toString(i));
+      file.setContents(i == 0 ? "content0".getBytes() : largeContents);
+      file.setPath(new PathWithUnixSeparators().setPath("/tmp/" + i));
+      fileHashes.getEntries().add(file);
+    }
+    try (DistBuildService service = new DistBuildService(fakeFrontendService)) {
+      service.uploadMissingFilesAsync(ImmutableList.of(fileHashes), executor).get();
+    }
+
+    Assert.assertEquals(
+        1,
+        fakeFrontendService.getRequestCount(FrontendRequestType.CAS_CONTAINS));
+    Assert.assertEquals(
+        2,
+        fakeFrontendService.getRequestCount(FrontendRequestType.STORE_LOCAL_CHANGES));
+    Assert.assertEquals(3, fakeFrontendService.getFiles().size());
+  }
+
+  @Test
+  public void fetchedFilesAreHandedOverOneBatchAtATime() throws Exception {
+    FakeFrontendService fakeFrontendService = new FakeFrontendService();
+    List<String> hashCodes = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      hashCodes.add(Integer.toString(i));
+      if (i % 2 == 0) {
+        fakeFrontendService.addFile(Integer.toString(i), ("content" + i).getBytes());
+      }
+    }
+
+    List<Integer> requestCountsSeen = new ArrayList<>();
+    Map<String, byte[]> fetched = new HashMap<>();
+    try (DistBuildService service = new DistBuildService(fakeFrontendService)) {
+      service.multiFetchSourceFiles(
+          hashCodes,
+          (hashCode, contents) -> {
+            requestCountsSeen.add(
+                fakeFrontendService.getRequestCount(FrontendRequestType.FETCH_SRC_FILES));
+            fetched.put(hashCode, contents);
+          });
+    }
+
+    Assert.assertEquals(
+        2,
+        fakeFrontendService.getRequestCount(FrontendRequestType.FETCH_SRC_FILES));
+    Assert.assertEquals(150, fetched.size());
+    Assert.assertTrue(Arrays.equals("content42".getBytes(), fetched.get("42")));
+    // The first batch is handed over before the second one is requested.
+    Assert.assertEquals(Integer.valueOf(1), requestCountsSeen.get(0));
+  }
+
   @Test
   public void canCreateBuild() throws Exception {
     final String idString = "create id";
@@ -83,6 +83,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
@@ -278,6 +279,21 @@ public class DistBuildStateTest {
             cell1Filesystem.getRootPath(),
             "//:dummy")));
 
+    // Streaming the dump straight into a writer gives the same state, cells included.
+    ByteArrayOutputStream streamedDump = new ByteArrayOutputStream();
+    try (BuildJobStateStreamWriter writer = new BuildJobStateStreamWriter(streamedDump)) {
+      DistBuildState.dump(
+          new DistBuildCellIndexer(rootCellWhenSaving),
+          emptyActionGraph(),
+          createDefaultCodec(rootCellWhenSaving, Optional.empty()),
+          createCrossCellTargetGraph(cell1Filesystem, cell2Filesystem),
+          ImmutableSet.of(BuildTargetFactory.newInstance(
+              cell1Filesystem.getRootPath(),
+              "//:dummy")),
+          writer);
+    }
+    assertEquals(dump, BuildJobStateSerializer.deserialize(streamedDump.toByteArray()));
+
     Cell rootCellWhenLoading = new TestCellBuilder()
         .setFilesystem(createJavaOnlyFilesystem("/loading"))
         .build();
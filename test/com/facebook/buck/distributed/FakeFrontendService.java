@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.distributed;
+
+import com.facebook.buck.distributed.thrift.CASContainsResponse;
+import com.facebook.buck.distributed.thrift.FetchSourceFilesResponse;
+import com.facebook.buck.distributed.thrift.FileInfo;
+import com.facebook.buck.distributed.thrift.FrontendRequest;
+import com.facebook.buck.distributed.thrift.FrontendRequestType;
+import com.facebook.buck.distributed.thrift.FrontendResponse;
+import com.facebook.buck.slb.HttpResponse;
+import com.facebook.buck.slb.HttpService;
+import com.facebook.buck.slb.ThriftOverHttpServiceConfig;
+import com.google.common.collect.ImmutableMap;
+
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory frontend for a {@link DistBuildService} to talk to, which keeps source files in a
+ * content addressed store.  Only the requests for uploading and fetching source files are
+ * supported.
+ */
+public class FakeFrontendService extends FrontendService {
+
+  private final Map<String, byte[]> contentsByHash = new ConcurrentHashMap<>();
+  private final Map<FrontendRequestType, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+  public FakeFrontendService() {
+    super(ThriftOverHttpServiceConfig.of(new UnusedHttpService()));
+  }
+
+  @Override
+  public FrontendResponse makeRequest(FrontendRequest request) throws IOException {
+    requestCounts.computeIfAbsent(request.getType(), key -> new AtomicInteger()).incrementAndGet();
+    FrontendResponse response = new FrontendResponse();
+    response.setType(request.getType());
+    switch (request.getType()) {
+      case CAS_CONTAINS:
+        List<Boolean> exists = new ArrayList<>();
+        for (String hash : request.getCasContainsRequest().getContentSha1s()) {
+          exists.add(contentsByHash.containsKey(hash));
+        }
+        response.setCasContainsResponse(new CASContainsResponse().setExists(exists));
+        break;
+      case STORE_LOCAL_CHANGES:
+        for (FileInfo file : request.getStoreLocalChangesRequest().getFiles()) {
+          contentsByHash.put(file.getContentHash(), file.getContent());
+        }
+        break;
+      case FETCH_SRC_FILES:
+        List<FileInfo> files = new ArrayList<>();
+        for (String hash : request.getFetchSourceFilesRequest().getContentHashes()) {
+          byte[] contents = contentsByHash.get(hash);
+          if (contents != null) {
+            files.add(new FileInfo().setContentHash(hash).setContent(contents));
+          }
+        }
+        response.setFetchSourceFilesResponse(new FetchSourceFilesResponse().setFiles(files));
+        break;
+      // $CASES-OMITTED$
+      default:
+        throw new UnsupportedOperationException(
+            "FakeFrontendService does not support " + request.getType());
+    }
+    response.setWasSuccessful(true);
+    return response;
+  }
+
+  public void addFile(String hash, byte[] contents) {
+    contentsByHash.put(hash, contents);
+  }
+
+  public ImmutableMap<String, byte[]> getFiles() {
+    return ImmutableMap.copyOf(contentsByHash);
+  }
+
+  public int getRequestCount(FrontendRequestType type) {
+    AtomicInteger count = requestCounts.get(type);
+    return count == null ? 0 : count.get();
+  }
+
+  private static class UnusedHttpService implements HttpService {
+    @Override
+    public HttpResponse makeRequest(String path, Request.Builder request) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
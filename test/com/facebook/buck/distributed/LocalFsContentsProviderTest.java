@@ -21,6 +21,7 @@ import com.google.common.base.Charsets;
 
 import org.hamcrest.Matchers;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -29,6 +30,7 @@ import org.junit.rules.TemporaryFolder;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 public class LocalFsContentsProviderTest {
   private static final byte[] FILE_CONTENTS = "topspin".getBytes(Charsets.UTF_8);
@@ -72,4 +74,29 @@ public class LocalFsContentsProviderTest {
     Assert.assertTrue(Files.isRegularFile(anotherAbsPath));
     Assert.assertThat(FILE_CONTENTS, Matchers.equalTo(Files.readAllBytes(anotherAbsPath)));
   }
+
+  @Test
+  public void executableFilesAreNotLinkedToTheCache() throws IOException {
+    LocalFsContentsProvider provider = new LocalFsContentsProvider(cacheRootDir);
+    Files.write(targetAbsPath, FILE_CONTENTS);
+    provider.writeFileAndGetInputStream(entry, targetAbsPath);
+
+    Path linkedAbsPath = cacheRootDir.resolve("linked.txt");
+    Path copiedAbsPath = cacheRootDir.resolve("copied.txt");
+    Path anotherLinkedAbsPath = cacheRootDir.resolve("another_linked.txt");
+    Assert.assertTrue(provider.materializeFileContents(entry, linkedAbsPath));
+    Assert.assertTrue(
+        provider.materializeFileContents(entry.deepCopy().setIsExecutable(true), copiedAbsPath));
+    Assert.assertTrue(provider.materializeFileContents(entry, anotherLinkedAbsPath));
+    Assert.assertThat(Files.readAllBytes(copiedAbsPath), Matchers.equalTo(FILE_CONTENTS));
+
+    Object linkedFileKey = getFileKey(linkedAbsPath);
+    Assume.assumeNotNull(linkedFileKey);
+    Assert.assertEquals(linkedFileKey, getFileKey(anotherLinkedAbsPath));
+    Assert.assertNotEquals(linkedFileKey, getFileKey(copiedAbsPath));
+  }
+
+  private static Object getFileKey(Path path) throws IOException {
+    return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+  }
 }
@@ -19,16 +19,27 @@ package com.facebook.buck.distributed;
 import com.facebook.buck.model.BuildTarget;
 import com.facebook.buck.model.BuildTargetFactory;
 import com.facebook.buck.parser.NoSuchBuildTargetException;
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.facebook.buck.rules.BuildRuleResolver;
+import com.facebook.buck.rules.DefaultTargetNodeToBuildRuleTransformer;
+import com.facebook.buck.rules.FakeBuildRule;
+import com.facebook.buck.rules.SourcePathResolver;
+import com.facebook.buck.rules.SourcePathRuleFinder;
+import com.facebook.buck.rules.TargetGraph;
 import com.google.common.collect.ImmutableList;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class MinionWorkloadAllocatorTest {
 
   private static final String MINION_ONE = "Super minion 1";
+  private static final String MINION_TWO = "Super minion 2";
 
   private BuildTargetsQueue queue;
   private BuildTarget target;
@@ -65,4 +76,76 @@ public class MinionWorkloadAllocatorTest {
 
     Assert.assertEquals(0, allocator.getTargetsToBuild(MINION_ONE).size());
   }
+
+  @Test
+  public void testUnblockedTargetsStayWithTheMinionThatUnblockedThem() {
+    MinionWorkloadAllocator allocator = new MinionWorkloadAllocator(queue, 2);
+    Assert.assertEquals(1, allocator.getTargetsToBuild(MINION_ONE).size());
+    Assert.assertEquals(0, allocator.getTargetsToBuild(MINION_TWO).size());
+    allocator.finishedBuildingTargets(MINION_ONE);
+
+    Assert.assertEquals(2, allocator.getTargetsToBuild(MINION_ONE).size());
+    Assert.assertEquals(0, allocator.getTargetsToBuild(MINION_TWO).size());
+  }
+
+  @Test
+  public void testIdleMinionStealsTheMostExpensiveQueuedTarget() {
+    BuildRuleDurationHistory history = new BuildRuleDurationHistory();
+    history.record(BuildTargetFactory.newInstance(BuildTargetsQueueTest.TARGET_NAME + "_left"), 10);
+    history.record(
+        BuildTargetFactory.newInstance(BuildTargetsQueueTest.TARGET_NAME + "_right"),
+        5000);
+    MinionWorkloadAllocator allocator = new MinionWorkloadAllocator(queue, 1, history);
+    allocator.getTargetsToBuild(MINION_ONE);
+    allocator.finishedBuildingTargets(MINION_ONE);
+
+    Assert.assertEquals(
+        ImmutableList.of(BuildTargetsQueueTest.TARGET_NAME + "_right"),
+        allocator.getTargetsToBuild(MINION_TWO));
+    Assert.assertEquals(
+        ImmutableList.of(BuildTargetsQueueTest.TARGET_NAME + "_left"),
+        allocator.getTargetsToBuild(MINION_ONE));
+  }
+
+  @Test
+  public void testCostAwareAllocationStartsTheSlowChainFirst() {
+    SourcePathResolver pathResolver =
+        new SourcePathResolver(
+            new SourcePathRuleFinder(
+                new BuildRuleResolver(
+                    TargetGraph.EMPTY,
+                    new DefaultTargetNodeToBuildRuleTransformer())));
+    BuildRuleResolver resolver =
+        new BuildRuleResolver(TargetGraph.EMPTY, new DefaultTargetNodeToBuildRuleTransformer());
+    BuildRuleDurationHistory durations = new BuildRuleDurationHistory();
+
+    // A chain of slow rules next to many quick ones, all of which are ready to build at once.
+    List<BuildRule> topDeps = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      topDeps.add(resolver.addToIndex(new FakeBuildRule("//quick:" + i, pathResolver)));
+      durations.record(BuildTargetFactory.newInstance("//quick:" + i), 10);
+    }
+    BuildRule chain = null;
+    for (int i = 0; i < 10; i++) {
+      chain = chain == null ?
+          new FakeBuildRule("//chain:" + i, pathResolver) :
+          new FakeBuildRule("//chain:" + i, pathResolver, chain);
+      resolver.addToIndex(chain);
+      durations.record(BuildTargetFactory.newInstance("//chain:" + i), 100);
+    }
+    topDeps.add(chain);
+    BuildTarget top = BuildTargetFactory.newInstance("//:top");
+    resolver.addToIndex(
+        new FakeBuildRule("//:top", pathResolver, topDeps.toArray(new BuildRule[0])));
+
+    MinionWorkloadSimulator simulator =
+        new MinionWorkloadSimulator(resolver, ImmutableList.of(top));
+    long costBlindMillis =
+        simulator.simulate(4, 2, new BuildRuleDurationHistory(), durations, 0).getBuildMillis();
+    long costAwareMillis = simulator.simulate(4, 2, durations, durations, 0).getBuildMillis();
+
+    // The chain is the critical path, and starting it first keeps it busy throughout.
+    Assert.assertEquals(1000, costAwareMillis);
+    Assert.assertTrue(costAwareMillis <= costBlindMillis);
+  }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.distributed;
+
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
+import com.facebook.buck.rules.BuildRuleResolver;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Replays a distributed build of an action graph against a number of simulated Minions, in
+ * simulated time, handing out work through {@link MinionWorkloadAllocator} as the coordinator does.
+ *
+ * Each Minion builds the targets it is handed in parallel, and each target takes as long as the
+ * given durations say, plus a fixed penalty for every dependency that was built on another Minion
+ * and has to be fetched from the cache first.  Any action graph can be replayed, so the durations
+ * recorded by real builds can be replayed over the real graph.
+ */
+public class MinionWorkloadSimulator {
+
+  private final BuildRuleResolver resolver;
+  private final ImmutableList<BuildTarget> topLevelTargets;
+  private final ImmutableMap<String, ImmutableList<String>> dependencies;
+
+  public MinionWorkloadSimulator(
+      BuildRuleResolver resolver,
+      Iterable<BuildTarget> topLevelTargets) {
+    this.resolver = resolver;
+    this.topLevelTargets = ImmutableList.copyOf(topLevelTargets);
+
+    Map<String, ImmutableList<String>> dependencies = new HashMap<>();
+    Queue<BuildRule> rulesToVisit = new ArrayDeque<>();
+    for (BuildTarget target : this.topLevelTargets) {
+      rulesToVisit.add(resolver.getRule(target));
+    }
+    while (!rulesToVisit.isEmpty()) {
+      BuildRule rule = rulesToVisit.remove();
+      if (dependencies.containsKey(rule.getFullyQualifiedName())) {
+        continue;
+      }
+      ImmutableList.Builder<String> deps = ImmutableList.builder();
+      for (BuildRule dep : rule.getBuildDeps()) {
+        deps.add(dep.getFullyQualifiedName());
+        rulesToVisit.add(dep);
+      }
+      dependencies.put(rule.getFullyQualifiedName(), deps.build());
+    }
+    this.dependencies = ImmutableMap.copyOf(dependencies);
+  }
+
+  /**
+   * @param predictions what the coordinator knows of previous builds.
+   * @param durations how long each target actually takes to build.
+   */
+  public Result simulate(
+      int minionCount,
+      int maxTargetsPerMinion,
+      BuildRuleDurationHistory predictions,
+      BuildRuleDurationHistory durations,
+      long remoteDependencyFetchMillis) {
+    MinionWorkloadAllocator allocator = new MinionWorkloadAllocator(
+        BuildTargetsQueue.newQueue(resolver, topLevelTargets),
+        maxTargetsPerMinion,
+        predictions);
+    PriorityQueue<RunningWorkload> running = new PriorityQueue<>();
+    Set<Integer> idleMinions = new TreeSet<>();
+    Map<String, Integer> builtOnMinion = new HashMap<>();
+    long now = 0;
+    int remoteFetches = 0;
+    for (int minion = 0; minion < minionCount; minion++) {
+      idleMinions.add(minion);
+    }
+
+    while (!allocator.isBuildFinished()) {
+      List<Integer> busyMinions = new ArrayList<>();
+      for (int minion : idleMinions) {
+        ImmutableList<String> targets = allocator.getTargetsToBuild(getMinionId(minion));
+        if (targets.isEmpty()) {
+          continue;
+        }
+        long workloadMillis = 0;
+        for (String target : targets) {
+          long targetMillis = durations.getEstimatedDurationMillis(target).orElse(0);
+          for (String dep : Preconditions.checkNotNull(dependencies.get(target))) {
+            if (Preconditions.checkNotNull(builtOnMinion.get(dep)) != minion) {
+              targetMillis += remoteDependencyFetchMillis;
+              remoteFetches++;
+            }
+          }
+          workloadMillis = Math.max(workloadMillis, targetMillis);
+        }
+        running.add(new RunningWorkload(minion, targets, now + workloadMillis));
+        busyMinions.add(minion);
+      }
+      idleMinions.removeAll(busyMinions);
+
+      RunningWorkload finished = Preconditions.checkNotNull(
+          running.poll(),
+          "No Minion is building anything, but the build has not finished.");
+      now = finished.finishTime;
+      allocator.finishedBuildingTargets(getMinionId(finished.minion));
+      for (String target : finished.targets) {
+        builtOnMinion.put(target, finished.minion);
+      }
+      idleMinions.add(finished.minion);
+    }
+
+    return new Result(now, remoteFetches);
+  }
+
+  private static String getMinionId(int minion) {
+    return "minion" + minion;
+  }
+
+  public static class Result {
+    private final long buildMillis;
+    private final int remoteFetches;
+
+    private Result(long buildMillis, int remoteFetches) {
+      this.buildMillis = buildMillis;
+      this.remoteFetches = remoteFetches;
+    }
+
+    /**
+     * @return the simulated time at which the last target finished building.
+     */
+    public long getBuildMillis() {
+      return buildMillis;
+    }
+
+    /**
+     * @return how many dependencies had to be fetched from another Minion.
+     */
+    public int getRemoteFetches() {
+      return remoteFetches;
+    }
+  }
+
+  private static class RunningWorkload implements Comparable<RunningWorkload> {
+    private final int minion;
+    private final ImmutableList<String> targets;
+    private final long finishTime;
+
+    RunningWorkload(int minion, ImmutableList<String> targets, long finishTime) {
+      this.minion = minion;
+      this.targets = targets;
+      this.finishTime = finishTime;
+    }
+
+    @Override
+    public int compareTo(RunningWorkload other) {
+      int byTime = Long.compare(finishTime, other.finishTime);
+      return byTime != 0 ? byTime : Integer.compare(minion, other.minion);
+    }
+  }
+}
@@ -17,7 +17,9 @@
 package com.facebook.buck.distributed;
 
 import com.facebook.buck.distributed.thrift.BuildJobStateFileHashEntry;
+import com.facebook.buck.distributed.thrift.FrontendRequestType;
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
 
 import org.easymock.EasyMock;
 import org.hamcrest.Matchers;
@@ -30,6 +32,7 @@ import org.junit.rules.TemporaryFolder;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.Optional;
 
 public class MultiSourceContentsProviderTest {
@@ -82,4 +85,38 @@ public class MultiSourceContentsProviderTest {
     provider.materializeFileContents(entry, targetAbsPath);
     EasyMock.verify(mockProvider);
   }
+
+  @Test
+  public void filesAreFetchedFromTheServerInOneBatchAndCachedLocally() throws IOException {
+    FakeFrontendService frontendService = new FakeFrontendService();
+    frontendService.addFile("1234", FILE_CONTENTS);
+    frontendService.addFile("5678", FILE_CONTENTS);
+    Path cacheDir = tempDir.newFolder("cache").toPath();
+    Path outputDir = tempDir.newFolder("output").toPath();
+    Map<Path, BuildJobStateFileHashEntry> entries = ImmutableMap.of(
+        outputDir.resolve("one.txt"), new BuildJobStateFileHashEntry().setHashCode("1234"),
+        outputDir.resolve("two.txt"), new BuildJobStateFileHashEntry().setHashCode("1234"),
+        outputDir.resolve("three.txt"), new BuildJobStateFileHashEntry().setHashCode("5678"));
+
+    MultiSourceContentsProvider provider = new MultiSourceContentsProvider(
+        new DistBuildService(frontendService),
+        Optional.of(cacheDir));
+    Assert.assertThat(provider.materializeFileContents(entries), Matchers.empty());
+    for (Path path : entries.keySet()) {
+      Assert.assertThat(Files.readAllBytes(path), Matchers.equalTo(FILE_CONTENTS));
+    }
+    Assert.assertEquals(1, frontendService.getRequestCount(FrontendRequestType.FETCH_SRC_FILES));
+
+    for (Path path : entries.keySet()) {
+      Files.delete(path);
+    }
+    provider = new MultiSourceContentsProvider(
+        new DistBuildService(frontendService),
+        Optional.of(cacheDir));
+    Assert.assertThat(provider.materializeFileContents(entries), Matchers.empty());
+    for (Path path : entries.keySet()) {
+      Assert.assertThat(Files.readAllBytes(path), Matchers.equalTo(FILE_CONTENTS));
+    }
+    Assert.assertEquals(1, frontendService.getRequestCount(FrontendRequestType.FETCH_SRC_FILES));
+  }
 }
@@ -17,18 +17,25 @@
 package com.facebook.buck.event;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.facebook.buck.model.BuildId;
 import com.facebook.buck.timing.DefaultClock;
 import com.facebook.buck.timing.SettableFakeClock;
+import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.Subscribe;
 
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 public class DefaultBuckEventBusTest {
@@ -123,6 +130,109 @@ public class DefaultBuckEventBusTest {
     assertEquals(event.getNanoTime(), 64738);
   }
 
+  @Test
+  public void asyncListenersReceiveEveryEventInOrder() throws IOException {
+    DefaultBuckEventBus eb = newAsyncEventBus(16);
+    RecordingSubscriber first = new RecordingSubscriber();
+    RecordingSubscriber second = new RecordingSubscriber();
+    eb.register(first);
+    eb.register(second);
+    ImmutableList.Builder<TestEvent> posted = ImmutableList.builder();
+    for (int i = 0; i < 1000; i++) {
+      TestEvent event = new TestEvent();
+      posted.add(event);
+      eb.post(event);
+    }
+    eb.close();
+    assertEquals(posted.build(), first.events);
+    assertEquals(posted.build(), second.events);
+  }
+
+  @Test
+  public void eventsPostedWithoutConfiguringAreDeliveredOnTheCallersThread() throws IOException {
+    DefaultBuckEventBus eb = newAsyncEventBus(16);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    eb.register(subscriber);
+    TestEvent event = new TestEvent();
+    eb.timestamp(event);
+    eb.postWithoutConfiguring(event);
+    assertEquals(ImmutableList.of(event), subscriber.events);
+    eb.close();
+  }
+
+  @Test
+  public void handlersForSupertypesReceiveEvents() throws IOException {
+    DefaultBuckEventBus eb = newAsyncEventBus(16);
+    SupertypeSubscriber subscriber = new SupertypeSubscriber();
+    eb.register(subscriber);
+    eb.post(new TestEvent());
+    eb.post(new SleepEvent(0));
+    eb.close();
+    assertEquals(2, subscriber.buckEvents);
+    assertEquals(2, subscriber.abstractBuckEvents);
+    assertEquals(1, subscriber.testEvents);
+  }
+
+  @Test
+  public void slowListenerDoesNotDelayOtherListeners() throws Exception {
+    DefaultBuckEventBus eb = newAsyncEventBus(1024);
+    BlockingSubscriber slow = new BlockingSubscriber(BuckEventListener.OverflowPolicy.BLOCK);
+    CountDownLatch delivered = new CountDownLatch(100);
+    eb.register(slow);
+    eb.register(new Object() {
+      @Subscribe
+      @SuppressWarnings("unused")
+      public void count(TestEvent event) {
+        delivered.countDown();
+      }
+    });
+    for (int i = 0; i < 100; i++) {
+      eb.post(new TestEvent());
+    }
+    assertTrue(
+        "Every event should reach the fast listener while the slow one is blocked.",
+        delivered.await(timeoutMillis, TimeUnit.MILLISECONDS));
+    slow.release.countDown();
+    eb.close();
+    assertEquals(100, slow.received);
+  }
+
+  @Test
+  public void droppingListenerDoesNotBlockPosters() throws Exception {
+    DefaultBuckEventBus eb = newAsyncEventBus(4);
+    BlockingSubscriber slow = new BlockingSubscriber(BuckEventListener.OverflowPolicy.DROP);
+    eb.register(slow);
+    for (int i = 0; i < 100; i++) {
+      eb.post(new TestEvent());
+    }
+    slow.release.countDown();
+    eb.close();
+    assertThat(slow.received, lessThan(100));
+  }
+
+  @Test
+  public void eventsPostedByHandlersAreDeliveredWhenRingsAreFull() throws IOException {
+    DefaultBuckEventBus eb = newAsyncEventBus(2);
+    RepostingSubscriber reposting = new RepostingSubscriber(eb);
+    RecordingSubscriber recording = new RecordingSubscriber();
+    eb.register(reposting);
+    eb.register(recording);
+    for (int i = 0; i < 100; i++) {
+      eb.post(new SleepEvent(0));
+    }
+    eb.close();
+    assertEquals(100, recording.events.size());
+  }
+
+  private static DefaultBuckEventBus newAsyncEventBus(int ringCapacity) {
+    return new DefaultBuckEventBus(
+        new DefaultClock(),
+        true,
+        BuckEventBusFactory.BUILD_ID_FOR_TEST,
+        DefaultBuckEventBus.DEFAULT_SHUTDOWN_TIMEOUT_MS,
+        ringCapacity);
+  }
+
   private static class SleepEvent extends AbstractBuckEvent {
     public final long milliseconds;
 
@@ -165,4 +275,76 @@ public class DefaultBuckEventBusTest {
       return "TestEvent";
     }
   }
+
+  private static class RecordingSubscriber {
+    private final List<TestEvent> events = new ArrayList<>();
+
+    @Subscribe
+    public void record(TestEvent event) {
+      events.add(event);
+    }
+  }
+
+  private static class SupertypeSubscriber {
+    private int buckEvents;
+    private int abstractBuckEvents;
+    private int testEvents;
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void buckEvent(BuckEvent event) {
+      buckEvents++;
+    }
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void abstractBuckEvent(AbstractBuckEvent event) {
+      abstractBuckEvents++;
+    }
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void testEvent(TestEvent event) {
+      testEvents++;
+    }
+  }
+
+  private static class BlockingSubscriber implements BuckEventListener {
+    private final OverflowPolicy overflowPolicy;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private int received;
+
+    private BlockingSubscriber(OverflowPolicy overflowPolicy) {
+      this.overflowPolicy = overflowPolicy;
+    }
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void block(TestEvent event) throws InterruptedException {
+      release.await();
+      received++;
+    }
+
+    @Override
+    public void outputTrace(BuildId buildId) {}
+
+    @Override
+    public OverflowPolicy getOverflowPolicy() {
+      return overflowPolicy;
+    }
+  }
+
+  private static class RepostingSubscriber {
+    private final BuckEventBus eventBus;
+
+    private RepostingSubscriber(BuckEventBus eventBus) {
+      this.eventBus = eventBus;
+    }
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void repost(SleepEvent event) {
+      eventBus.post(new TestEvent());
+    }
+  }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.event;
+
+import static org.junit.Assert.assertEquals;
+
+import com.facebook.buck.model.BuildId;
+import com.facebook.buck.timing.DefaultClock;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Posts a build's worth of events from several threads to a set of listeners shaped like the ones
+ * a build registers, and waits for them to be delivered.  Compares {@link DefaultBuckEventBus}
+ * against a guava {@link EventBus} on a single-threaded executor, which is how events used to be
+ * dispatched.
+ */
+public class EventBusBenchmark {
+  @Param({"100000", "1000000"})
+  private int eventCount = 100000;
+
+  @Param({"1", "8"})
+  private int postingThreads = 1;
+
+  /**
+   * One in this many events is a step event, and one in this many step events is a rare event.
+   */
+  private static final int EVENT_PERIOD = 8;
+
+  private static final BuildId BUILD_ID = new BuildId("benchmark");
+
+  @Before
+  public void setUpTest() {
+    eventCount = 10000;
+    postingThreads = 4;
+  }
+
+  @Test
+  public void deliveryCorrectness() throws Exception {
+    ListenerSet guava = new ListenerSet();
+    postToGuavaEventBus(guava);
+    ListenerSet buck = new ListenerSet();
+    postToBuckEventBus(buck);
+    assertEquals(eventCount, guava.traced.get());
+    assertEquals(guava.traced.get(), buck.traced.get());
+    assertEquals(guava.logged.get(), buck.logged.get());
+    assertEquals(guava.stepStates.size(), buck.stepStates.size());
+    assertEquals(guava.rare.get(), buck.rare.get());
+  }
+
+  @Benchmark
+  public long guavaEventBus() throws Exception {
+    ListenerSet listeners = new ListenerSet();
+    postToGuavaEventBus(listeners);
+    return listeners.traced.get();
+  }
+
+  @Benchmark
+  public long buckEventBus() throws Exception {
+    ListenerSet listeners = new ListenerSet();
+    postToBuckEventBus(listeners);
+    return listeners.traced.get();
+  }
+
+  private void postToGuavaEventBus(ListenerSet listeners) throws Exception {
+    EventBus eventBus = new EventBus();
+    listeners.all().forEach(eventBus::register);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    DefaultClock clock = newClock();
+    postEvents(
+        event -> {
+          event.configure(
+              clock.currentTimeMillis(),
+              clock.nanoTime(),
+              clock.threadUserNanoTime(Thread.currentThread().getId()),
+              Thread.currentThread().getId(),
+              BUILD_ID);
+          executor.submit(() -> eventBus.post(event));
+        });
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+  }
+
+  private void postToBuckEventBus(ListenerSet listeners) throws Exception {
+    DefaultBuckEventBus eventBus = new DefaultBuckEventBus(newClock(), BUILD_ID);
+    listeners.all().forEach(eventBus::register);
+    postEvents(eventBus::post);
+    eventBus.close();
+  }
+
+  /**
+   * Reading each thread's CPU time costs more than dispatching an event, so leave it out.
+   */
+  private static DefaultClock newClock() {
+    return new DefaultClock(false);
+  }
+
+  private void postEvents(Consumer<BuckEvent> post) throws InterruptedException {
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < postingThreads; t++) {
+      int thread = t;
+      threads.add(new Thread(() -> {
+        for (int i = thread; i < eventCount; i += postingThreads) {
+          if (i % (EVENT_PERIOD * EVENT_PERIOD) == 0) {
+            post.accept(new RareEvent(i));
+          } else if (i % EVENT_PERIOD == 0) {
+            post.accept(new StepEvent(i));
+          } else {
+            post.accept(new RuleEvent(i));
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  /**
+   * Stand-ins for the trace, logging, console, counters and web server listeners: two that see
+   * every event and format it, one that keeps per-step state, one that only cares about a rare
+   * event and one that only reports progress.
+   */
+  private static class ListenerSet {
+    private final AtomicLong traced = new AtomicLong();
+    private final AtomicLong tracedBytes = new AtomicLong();
+    private final AtomicLong logged = new AtomicLong();
+    private final ConcurrentMap<Integer, String> stepStates = new ConcurrentHashMap<>();
+    private final AtomicLong rare = new AtomicLong();
+    private final AtomicLong progress = new AtomicLong();
+
+    ImmutableList<Object> all() {
+      return ImmutableList.of(
+          new Object() {
+            @Subscribe
+            public void trace(BuckEvent event) {
+              tracedBytes.addAndGet(
+                  String.format(
+                      "{\"name\":\"%s\",\"ts\":%d,\"tid\":%d}",
+                      event.getEventName(),
+                      event.getNanoTime(),
+                      event.getThreadId()).length());
+              traced.incrementAndGet();
+            }
+          },
+          new Object() {
+            @Subscribe
+            public void log(AbstractBuckEvent event) {
+              logged.addAndGet(event.toString().length());
+            }
+          },
+          new Object() {
+            @Subscribe
+            public void step(StepEvent event) {
+              stepStates.put(event.index, event.getEventName());
+            }
+          },
+          new Object() {
+            @Subscribe
+            @SuppressWarnings("unused")
+            public void rare(RareEvent event) {
+              rare.incrementAndGet();
+            }
+          },
+          new BuckEventListener() {
+            @Subscribe
+            @SuppressWarnings("unused")
+            public void progress(RuleEvent event) {
+              progress.incrementAndGet();
+            }
+
+            @Override
+            public void outputTrace(BuildId buildId) {}
+
+            @Override
+            public OverflowPolicy getOverflowPolicy() {
+              return OverflowPolicy.DROP;
+            }
+          });
+    }
+  }
+
+  private static class RuleEvent extends AbstractBuckEvent {
+    protected final int index;
+
+    private RuleEvent(int index) {
+      super(EventKey.unique());
+      this.index = index;
+    }
+
+    @Override
+    protected String getValueString() {
+      return Integer.toString(index);
+    }
+
+    @Override
+    public String getEventName() {
+      return getClass().getSimpleName();
+    }
+  }
+
+  private static class StepEvent extends RuleEvent {
+    private StepEvent(int index) {
+      super(index);
+    }
+  }
+
+  private static class RareEvent extends RuleEvent {
+    private RareEvent(int index) {
+      super(index);
+    }
+  }
+}
@@ -18,6 +18,7 @@ package com.facebook.buck.event.listener;
 
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -62,6 +63,7 @@ import com.facebook.buck.timing.IncrementingFakeClock;
 import com.facebook.buck.util.HumanReadableException;
 import com.facebook.buck.util.ObjectMappers;
 import com.facebook.buck.util.perf.PerfStatsTracking;
+import com.facebook.buck.util.trace.BinaryChromeTraceReader;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
@@ -70,6 +72,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -592,4 +595,36 @@ public class ChromeTraceBuildListenerTest {
     List<?> elements = new Gson().fromJson(reader, List.class);
     assertThat(elements, notNullValue());
   }
+
+  @Test
+  public void canWriteBinaryTraces() throws IOException {
+    ProjectFilesystem projectFilesystem = new ProjectFilesystem(tmpDir.getRoot().toPath());
+
+    ChromeTraceBuildListener listener = new ChromeTraceBuildListener(
+        projectFilesystem,
+        invocationInfo,
+        new FakeClock(TIMESTAMP_NANOS),
+        Locale.US,
+        TimeZone.getTimeZone("America/Los_Angeles"),
+        /* tracesToKeep */ 1,
+        /* compressTraces */ true,
+        /* binaryTraces */ true);
+    listener.outputTrace(invocationInfo.getBuildId());
+
+    Path tracePath = Paths.get(EXPECTED_DIR + "build.2014-09-02.16-55-51.BUILD_ID.btrace.gz");
+    assertTrue(projectFilesystem.exists(tracePath));
+    assertTrue(
+        projectFilesystem.exists(
+            projectFilesystem.getBuckPaths().getLogDir().resolve("build.btrace.gz")));
+
+    try (BinaryChromeTraceReader reader = BinaryChromeTraceReader.open(
+             tracePath,
+             projectFilesystem.newFileInputStream(tracePath))) {
+      JsonObject metadata = reader.readEvent();
+      assertEquals("process_name", metadata.get("name").getAsString());
+      assertEquals("M", metadata.get("ph").getAsString());
+      assertEquals("buck", metadata.getAsJsonObject("args").get("name").getAsString());
+      assertNull(reader.readEvent());
+    }
+  }
 }
@@ -21,6 +21,9 @@ import com.facebook.buck.event.BuckEventBus;
 import com.facebook.buck.event.DefaultBuckEventBus;
 import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.model.BuildId;
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.rules.BuildRuleDurationHistory;
 import com.facebook.buck.testutil.FakeProjectFilesystem;
 import com.facebook.buck.testutil.integration.TemporaryPaths;
 import com.facebook.buck.timing.FakeClock;
@@ -304,4 +307,26 @@ public class ProgressEstimatorTest {
     assertThat(e.getApproximateBuildProgress().get(), Matchers.greaterThan(0.0));
     assertThat(e.getApproximateBuildProgress().get(), Matchers.lessThan(1.0));
   }
+
+  @Test
+  public void rulesStillBuildingCountTowardsProgressByTheirUsualDuration() {
+    ProjectFilesystem filesystem = new FakeProjectFilesystem();
+    Path p = filesystem.resolve(ProgressEstimator.PROGRESS_ESTIMATIONS_JSON);
+    ProgressEstimator e = new ProgressEstimator(p, getBuckEventBus());
+    BuildTarget slow = BuildTargetFactory.newInstance("//:slow");
+    BuildTarget fast = BuildTargetFactory.newInstance("//:fast");
+    BuildRuleDurationHistory history = new BuildRuleDurationHistory();
+    history.record(slow, 1000);
+    history.record(fast, 10);
+    e.setBuildRuleDurationHistory(history);
+
+    e.didStartBuild();
+    e.setNumberOfRules(2);
+    e.didStartRule(slow, 0);
+    e.didStartRule(fast, 0);
+    e.didFinishRule(fast, 500);
+
+    // One rule done, and the other half way through its usual duration.
+    assertThat(e.getApproximateBuildProgress().get(), Matchers.closeTo(0.75, 0.01));
+  }
 }
@@ -42,6 +42,7 @@ import com.facebook.buck.util.environment.Architecture;
 import com.facebook.buck.util.environment.Platform;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -149,6 +150,25 @@ public class ServedCacheIntegrationTest {
         Matchers.equalTo(A_FILE_DATA));
   }
 
+  @Test
+  public void testContainsFromServedDircache() throws Exception {
+    webServer = new WebServer(
+        /* port */ 0,
+        projectFilesystem,
+        "/static/"
+    );
+    webServer.updateAndStartIfNeeded(Optional.of(dirCache));
+
+    ArtifactCache serverBackedCache = createArtifactCache(
+        createMockLocalHttpCacheConfig(webServer.getPort().get()));
+
+    RuleKey missingRuleKey = new RuleKey("9876543210");
+    ImmutableMap<RuleKey, CacheResult> results =
+        serverBackedCache.multiContains(ImmutableSet.of(A_FILE_RULE_KEY, missingRuleKey));
+    assertThat(results.get(A_FILE_RULE_KEY).getType(), Matchers.equalTo(CacheResultType.HIT));
+    assertThat(results.get(missingRuleKey).getType(), Matchers.equalTo(CacheResultType.MISS));
+  }
+
   private static class ThrowAfterXBytesStream extends FilterInputStream {
     private final long bytesToThrowAfter;
     private long bytesRead = 0L;
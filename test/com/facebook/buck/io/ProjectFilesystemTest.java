@@ -37,6 +37,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Ordering;
+import com.google.common.hash.Hashing;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
 
@@ -98,6 +99,22 @@ public class ProjectFilesystemTest {
         filesystem.isFile(Paths.get("foo")));
   }
 
+  @Test
+  public void testComputeSha1OfFileLargerThanHashBuffer() throws IOException {
+    byte[] contents = new byte[3 * 1024 * 1024 + 17];
+    for (int i = 0; i < contents.length; i++) {
+      contents[i] = (byte) (i * 31);
+    }
+    Files.write(tmp.getRoot().resolve("large.bin"), contents);
+    assertEquals(
+        Hashing.sha1().hashBytes(contents),
+        filesystem.computeSha1(Paths.get("large.bin")).asHashCode());
+    tmp.newFile("empty.txt");
+    assertEquals(
+        Hashing.sha1().hashBytes(new byte[0]),
+        filesystem.computeSha1(Paths.get("empty.txt")).asHashCode());
+  }
+
   @Test
   public void testSetLastModifiedTime() throws IOException {
     Path path = tmp.newFile("somefile");
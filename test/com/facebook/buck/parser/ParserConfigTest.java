@@ -167,6 +167,21 @@ public class ParserConfigTest {
     assertEquals(2, parserConfig.getNumParsingThreads());
   }
 
+  @Test
+  public void shouldDefaultThreadCountToNumberOfCores() {
+    BuckConfig config = FakeBuckConfig.builder()
+        .setSections(
+            "[build]",
+            "threads = 1000")
+        .build();
+
+    ParserConfig parserConfig = config.getView(ParserConfig.class);
+
+    assertEquals(
+        Runtime.getRuntime().availableProcessors(),
+        parserConfig.getNumParsingThreads());
+  }
+
   @Test
   public void shouldReturnOneThreadCountIfParallelParsingIsNotEnabled() {
     BuckConfig config = FakeBuckConfig.builder()
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.buck.cli.FakeBuckConfig;
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.rules.Cell;
+import com.facebook.buck.rules.TestCellBuilder;
+import com.facebook.buck.testutil.integration.TemporaryPaths;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+public class PersistedRawNodeCacheTest {
+
+  private static final String CONFIGS_META_RULE = "__configs";
+  private static final String ENV_META_RULE = "__env";
+
+  @Rule
+  public TemporaryPaths tmp = new TemporaryPaths();
+
+  private ProjectFilesystem filesystem;
+  private Path buildFile;
+  private Path include;
+  private ImmutableSet<Map<String, Object>> rawNodes;
+  private PersistedRawNodeCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    filesystem = new ProjectFilesystem(tmp.getRoot());
+    buildFile = filesystem.resolve("foo/BUCK");
+    include = filesystem.resolve("defs/DEFS");
+    Files.createDirectories(buildFile.getParent());
+    Files.createDirectories(include.getParent());
+    write(buildFile, "java_library(name = 'foo')");
+    write(include, "def foo(): pass");
+
+    rawNodes = ImmutableSet.of(
+        ImmutableMap.of(
+            "name", "foo",
+            "buck.type", "java_library",
+            "visibility", ImmutableList.of()),
+        ImmutableMap.of(
+            "__includes",
+            ImmutableList.of(buildFile.toString(), include.toString())),
+        ImmutableMap.of(
+            CONFIGS_META_RULE,
+            ImmutableMap.of("foo", ImmutableMap.of("bar", "baz"))),
+        ImmutableMap.of(
+            ENV_META_RULE,
+            Collections.singletonMap("FOO_ENV", null)));
+    cache = new PersistedRawNodeCache(CONFIGS_META_RULE, ENV_META_RULE);
+  }
+
+  @Test
+  public void storedNodesAreLoaded() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    Optional<ImmutableSet<Map<String, Object>>> loaded = cache.load(cell, buildFile);
+    assertTrue(loaded.isPresent());
+    // BSER decodes null values (such as the unset FOO_ENV) into its own map type, so only compare
+    // the nodes that hold none.
+    assertEquals(rawNodes.size(), loaded.get().size());
+    assertTrue(loaded.get().containsAll(rawNodes.asList().subList(0, 3)));
+  }
+
+  @Test
+  public void missingEntryIsNotLoaded() throws Exception {
+    assertFalse(cache.load(createCell("baz", ImmutableMap.of()), buildFile).isPresent());
+  }
+
+  @Test
+  public void changedBuildFileInvalidatesEntry() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    write(buildFile, "java_library(name = 'bar')");
+    cache.invalidateFileHashes(filesystem.relativize(buildFile));
+
+    assertFalse(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void changedIncludeInvalidatesEntry() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    write(include, "def foo(): return 1");
+    cache.invalidateFileHashes(filesystem.relativize(include));
+
+    assertFalse(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void deletedIncludeInvalidatesEntry() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    Files.delete(include);
+    cache.invalidateFileHashes(filesystem.relativize(include));
+
+    assertFalse(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void addedFileInPackageInvalidatesEntry() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    // No change is reported, as happens when a file is added while no daemon is running.
+    Files.createDirectories(buildFile.resolveSibling("src"));
+    write(buildFile.resolveSibling("src/Foo.java"), "class Foo {}");
+
+    assertFalse(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void removedFileInPackageInvalidatesEntry() throws Exception {
+    Path source = buildFile.resolveSibling("Foo.java");
+    write(source, "class Foo {}");
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    Files.delete(source);
+
+    assertFalse(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void addedFileInSubpackageDoesNotInvalidateEntry() throws Exception {
+    Path subpackage = buildFile.resolveSibling("sub");
+    Files.createDirectories(subpackage);
+    write(subpackage.resolve("BUCK"), "");
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    write(subpackage.resolve("Foo.java"), "class Foo {}");
+
+    assertTrue(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void invalidatedEntryIsNotLoaded() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    cache.invalidate(cell, buildFile);
+
+    assertFalse(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void fileHashesAreReusedUntilInvalidated() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    // Without a change being reported, the include isn't read again.
+    write(include, "def foo(): return 1");
+    assertTrue(cache.load(cell, buildFile).isPresent());
+
+    cache.invalidateAllFileHashes();
+    assertFalse(cache.load(cell, buildFile).isPresent());
+  }
+
+  @Test
+  public void nodesStoredInBackgroundAreLoaded() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.storeInBackground(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!cache.load(cell, buildFile).isPresent()) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void changedConfigInvalidatesEntry() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    assertFalse(cache.load(createCell("qux", ImmutableMap.of()), buildFile).isPresent());
+  }
+
+  @Test
+  public void changedEnvInvalidatesEntry() throws Exception {
+    Cell cell = createCell("baz", ImmutableMap.of());
+    cache.store(cell, buildFile, rawNodes, ImmutableSet.of(include));
+
+    Cell cellWithEnv = createCell("baz", ImmutableMap.of("FOO_ENV", "1"));
+    assertFalse(cache.load(cellWithEnv, buildFile).isPresent());
+  }
+
+  private Cell createCell(String fooBar, ImmutableMap<String, String> env)
+      throws IOException, InterruptedException {
+    return new TestCellBuilder()
+        .setFilesystem(filesystem)
+        .setBuckConfig(
+            FakeBuckConfig.builder()
+                .setFilesystem(filesystem)
+                .setEnvironment(env)
+                .setSections("[foo]", "bar = " + fooBar)
+                .build())
+        .build();
+  }
+
+  private static void write(Path path, String contents) throws IOException {
+    Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+  }
+}
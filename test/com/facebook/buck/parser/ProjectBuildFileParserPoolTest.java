@@ -19,6 +19,7 @@ package com.facebook.buck.parser;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import com.facebook.buck.json.BuildFileParseException;
 import com.facebook.buck.json.ProjectBuildFileParser;
 import com.facebook.buck.rules.Cell;
 import com.facebook.buck.util.concurrent.AssertScopeExclusiveAccess;
@@ -44,9 +45,12 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -329,6 +333,108 @@ public class ProjectBuildFileParserPoolTest {
     }
   }
 
+  @Test
+  public void keepsParsersThatReportBuildFileErrors() throws Exception {
+    assertParsersCreatedAfterParseErrors(/* parserIsHealthy */ true, /* expectedCreateCount */ 1);
+  }
+
+  @Test
+  public void retiresParsersThatFailMidRequest() throws Exception {
+    assertParsersCreatedAfterParseErrors(/* parserIsHealthy */ false, /* expectedCreateCount */ 3);
+  }
+
+  private void assertParsersCreatedAfterParseErrors(
+      boolean parserIsHealthy,
+      int expectedCreateCount) throws Exception {
+    Cell cell = EasyMock.createMock(Cell.class);
+    AtomicInteger createCount = new AtomicInteger(0);
+    BuildFileParseException parseError =
+        BuildFileParseException.createForUnknownParseError("broken BUCK file");
+
+    try (ProjectBuildFileParserPool parserPool =
+             new ProjectBuildFileParserPool(
+                 /* maxParsers */ 1,
+                 input -> {
+                   createCount.incrementAndGet();
+                   ProjectBuildFileParser parser =
+                       EasyMock.createMock(ProjectBuildFileParser.class);
+                   try {
+                     EasyMock.expect(parser.getAllRulesAndMetaRules(EasyMock.anyObject(Path.class)))
+                         .andThrow(parseError)
+                         .anyTimes();
+                     EasyMock.expect(parser.isHealthy()).andReturn(parserIsHealthy).anyTimes();
+                     parser.close();
+                     EasyMock.expectLastCall().andVoid().once();
+                   } catch (Exception e) {
+                     Throwables.throwIfUnchecked(e);
+                     throw new RuntimeException(e);
+                   }
+                   EasyMock.replay(parser);
+                   return parser;
+                 })) {
+
+      for (int i = 0; i < 3; i++) {
+        try {
+          parserPool.getAllRulesAndMetaRules(
+              cell,
+              Paths.get("BUCK"),
+              MoreExecutors.newDirectExecutorService()).get();
+          fail("Expected ExecutionException to be thrown.");
+        } catch (ExecutionException e) {
+          assertThat(e.getCause(), Matchers.sameInstance(parseError));
+        }
+      }
+      assertThat(createCount.get(), Matchers.equalTo(expectedCreateCount));
+    }
+  }
+
+  @Test
+  public void leavesHealthyParsersIdleForLaterPools() throws Exception {
+    Cell cell = EasyMock.createMock(Cell.class);
+    ProjectBuildFileParser parser = EasyMock.createMock(ProjectBuildFileParser.class);
+    EasyMock.expect(parser.getAllRulesAndMetaRules(EasyMock.anyObject(Path.class)))
+        .andReturn(ImmutableList.of())
+        .times(2);
+    EasyMock.expect(parser.isHealthy()).andReturn(true).anyTimes();
+    EasyMock.expect(parser.getProcessKey()).andReturn("key").anyTimes();
+    parser.release();
+    EasyMock.expectLastCall().times(2);
+    parser.close();
+    EasyMock.expectLastCall().once();
+    EasyMock.replay(parser);
+
+    BlockingQueue<ProjectBuildFileParser> parked = new LinkedBlockingQueue<>();
+    IdleBuildFileParsers idleParsers = new IdleBuildFileParsers() {
+      @Override
+      public void put(ProjectBuildFileParser idleParser) {
+        super.put(idleParser);
+        parked.add(idleParser);
+      }
+    };
+    AtomicInteger createCount = new AtomicInteger(0);
+    for (int i = 0; i < 2; i++) {
+      try (ProjectBuildFileParserPool parserPool =
+               new ProjectBuildFileParserPool(
+                   /* maxParsers */ 1,
+                   input -> idleParsers.take("key").orElseGet(() -> {
+                     createCount.incrementAndGet();
+                     return parser;
+                   }),
+                   Optional.of(idleParsers))) {
+        parserPool.getAllRulesAndMetaRules(
+            cell,
+            Paths.get("BUCK"),
+            MoreExecutors.newDirectExecutorService()).get();
+      }
+      // Pools close their parsers asynchronously.
+      assertThat(parked.poll(1, TimeUnit.SECONDS), Matchers.sameInstance(parser));
+    }
+    assertThat(createCount.get(), Matchers.equalTo(1));
+
+    idleParsers.close();
+    EasyMock.verify(parser);
+  }
+
   private static ImmutableSet<ListenableFuture<?>> scheduleWork(
       Cell cell,
       ProjectBuildFileParserPool pool,
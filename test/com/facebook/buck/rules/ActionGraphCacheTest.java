@@ -18,6 +18,8 @@ package com.facebook.buck.rules;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -36,6 +38,7 @@ import com.facebook.buck.testutil.WatchEventsForTests;
 import com.facebook.buck.testutil.integration.TemporaryPaths;
 import com.facebook.buck.timing.IncrementingFakeClock;
 import com.facebook.buck.util.WatchmanWatcher;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.eventbus.Subscribe;
 
@@ -291,6 +294,157 @@ public class ActionGraphCacheTest {
     assertEquals(countEventsOf(ActionGraphEvent.Cache.Miss.class), 4);
   }
 
+  @Test
+  public void incrementalUpdateOnlyRecreatesRulesOfChangedNodesAndTheirDependents() {
+    ActionGraphCache cache =
+        new ActionGraphCache(broadcastEventListener, /* incrementalActionGraph */ true);
+    TargetNode<?, ?> nodeC = createTargetNode("C");
+    ActionGraphAndResolver resultRun1 = cache.getActionGraph(
+        eventBus,
+        NOT_CHECK_GRAPHS,
+        /* skipActionGraphCache */ false,
+        TargetGraphFactory.newInstance(nodeA, nodeB, nodeC),
+        keySeed);
+
+    // C gains a dependency on B, which leaves A and B untouched.
+    TargetGraph targetGraph2 =
+        TargetGraphFactory.newInstance(nodeA, nodeB, createTargetNode("C", nodeB));
+    ActionGraphAndResolver resultRun2 = cache.getActionGraph(
+        eventBus,
+        NOT_CHECK_GRAPHS,
+        /* skipActionGraphCache */ false,
+        targetGraph2,
+        keySeed);
+    assertEquals(2, countEventsOf(ActionGraphEvent.Cache.Miss.class));
+    assertSame(getRule(resultRun1, "A"), getRule(resultRun2, "A"));
+    assertSame(getRule(resultRun1, "B"), getRule(resultRun2, "B"));
+    assertNotSame(getRule(resultRun1, "C"), getRule(resultRun2, "C"));
+    assertThat(
+        getRule(resultRun2, "C").getBuildDeps(),
+        Matchers.contains(getRule(resultRun2, "B")));
+    assertThat(
+        getRuleKeysFromBuildRules(
+            resultRun2.getActionGraph().getNodes(),
+            resultRun2.getResolver()),
+        Matchers.equalTo(getFreshRuleKeys(targetGraph2)));
+
+    // B changing means both its dependents need recreating too.
+    TargetNode<?, ?> nodeD = createTargetNode("D");
+    TargetNode<?, ?> newNodeB = createTargetNode("B", nodeD);
+    TargetGraph targetGraph3 =
+        TargetGraphFactory.newInstance(
+            createTargetNode("A", newNodeB),
+            newNodeB,
+            createTargetNode("C", newNodeB),
+            nodeD);
+    ActionGraphAndResolver resultRun3 = cache.getActionGraph(
+        eventBus,
+        NOT_CHECK_GRAPHS,
+        /* skipActionGraphCache */ false,
+        targetGraph3,
+        keySeed);
+    assertNotSame(getRule(resultRun2, "A"), getRule(resultRun3, "A"));
+    assertNotSame(getRule(resultRun2, "B"), getRule(resultRun3, "B"));
+    assertNotSame(getRule(resultRun2, "C"), getRule(resultRun3, "C"));
+    assertThat(
+        getRuleKeysFromBuildRules(
+            resultRun3.getActionGraph().getNodes(),
+            resultRun3.getResolver()),
+        Matchers.equalTo(getFreshRuleKeys(targetGraph3)));
+  }
+
+  @Test
+  public void nonIncrementalCacheRecreatesAllRules() {
+    ActionGraphCache cache = new ActionGraphCache(broadcastEventListener);
+    ActionGraphAndResolver resultRun1 = cache.getActionGraph(
+        eventBus,
+        NOT_CHECK_GRAPHS,
+        /* skipActionGraphCache */ false,
+        targetGraph,
+        keySeed);
+    ActionGraphAndResolver resultRun2 = cache.getActionGraph(
+        eventBus,
+        NOT_CHECK_GRAPHS,
+        /* skipActionGraphCache */ false,
+        TargetGraphFactory.newInstance(nodeA, nodeB, createTargetNode("C")),
+        keySeed);
+    assertNotSame(getRule(resultRun1, "B"), getRule(resultRun2, "B"));
+  }
+
+  @Test
+  public void alternatingTargetGraphsHitWithMultipleEntries() {
+    ActionGraphCache cache =
+        new ActionGraphCache(
+            broadcastEventListener,
+            /* incrementalActionGraph */ false,
+            /* maxEntries */ 2,
+            /* maxHeapFraction */ 1.0f);
+    TargetGraph subgraph = targetGraph.getSubgraph(ImmutableSet.of(nodeB));
+    for (int i = 0; i < 3; i++) {
+      cache.getActionGraph(
+          eventBus,
+          NOT_CHECK_GRAPHS,
+          /* skipActionGraphCache */ false,
+          targetGraph,
+          keySeed);
+      cache.getActionGraph(
+          eventBus,
+          NOT_CHECK_GRAPHS,
+          /* skipActionGraphCache */ false,
+          subgraph,
+          keySeed);
+    }
+    assertEquals(2, countEventsOf(ActionGraphEvent.Cache.Miss.class));
+    assertEquals(4, countEventsOf(ActionGraphEvent.Cache.Hit.class));
+    assertEquals(0, countEventsOf(ActionGraphEvent.Cache.Eviction.class));
+    assertEquals(2, cache.getCacheSize());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvicted() {
+    ActionGraphCache cache =
+        new ActionGraphCache(
+            broadcastEventListener,
+            /* incrementalActionGraph */ false,
+            /* maxEntries */ 2,
+            /* maxHeapFraction */ 1.0f);
+    TargetGraph subgraph = targetGraph.getSubgraph(ImmutableSet.of(nodeB));
+    TargetGraph otherGraph = TargetGraphFactory.newInstance(createTargetNode("C"));
+    for (TargetGraph graph : ImmutableList.of(targetGraph, subgraph, targetGraph, otherGraph)) {
+      cache.getActionGraph(
+          eventBus,
+          NOT_CHECK_GRAPHS,
+          /* skipActionGraphCache */ false,
+          graph,
+          keySeed);
+    }
+    assertEquals(1, countEventsOf(ActionGraphEvent.Cache.Hit.class));
+    assertEquals(1, countEventsOf(ActionGraphEvent.Cache.Eviction.class));
+    ActionGraphEvent.Cache.Eviction eviction = getEventOf(ActionGraphEvent.Cache.Eviction.class);
+    assertEquals(ActionGraphEvent.Cache.Eviction.Reason.CAPACITY, eviction.reason);
+    assertEquals(0, eviction.hits);
+    assertEquals(1, eviction.misses);
+
+    // The subgraph was evicted, and the full graph is still there.
+    cache.getActionGraph(
+        eventBus,
+        NOT_CHECK_GRAPHS,
+        /* skipActionGraphCache */ false,
+        targetGraph,
+        keySeed);
+    assertEquals(2, countEventsOf(ActionGraphEvent.Cache.Hit.class));
+  }
+
+  private BuildRule getRule(ActionGraphAndResolver actionGraphAndResolver, String name) {
+    return actionGraphAndResolver.getResolver().getRule(
+        BuildTargetFactory.newInstance("//foo:" + name));
+  }
+
+  private Map<BuildRule, RuleKey> getFreshRuleKeys(TargetGraph targetGraph) {
+    ActionGraphAndResolver fresh = ActionGraphCache.getFreshActionGraph(eventBus, targetGraph);
+    return getRuleKeysFromBuildRules(fresh.getActionGraph().getNodes(), fresh.getResolver());
+  }
+
   private TargetNode<?, ?> createTargetNode(String name, TargetNode<?, ?>... deps) {
     BuildTarget buildTarget = BuildTargetFactory.newInstance("//foo:" + name);
     JavaLibraryBuilder targetNodeBuilder = JavaLibraryBuilder.createBuilder(buildTarget);
@@ -300,6 +454,15 @@ public class ActionGraphCacheTest {
     return targetNodeBuilder.build();
   }
 
+  private <T extends ActionGraphEvent> T getEventOf(Class<T> trackedClass) {
+    for (BuckEvent event : trackedEvents) {
+      if (trackedClass.isInstance(event)) {
+        return trackedClass.cast(event);
+      }
+    }
+    throw new AssertionError("No " + trackedClass + " event");
+  }
+
   private int countEventsOf(Class<? extends ActionGraphEvent> trackedClass) {
     int i = 0;
     for (BuckEvent event : trackedEvents) {
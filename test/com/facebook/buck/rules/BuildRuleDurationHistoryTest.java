@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import static org.junit.Assert.assertThat;
+
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.testutil.integration.TemporaryPaths;
+
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.OptionalLong;
+
+public class BuildRuleDurationHistoryTest {
+
+  private static final BuildTarget TARGET = BuildTargetFactory.newInstance("//:target");
+
+  @Rule
+  public TemporaryPaths tmp = new TemporaryPaths();
+
+  @Test
+  public void unknownTargetHasNoEstimate() {
+    try (BuildRuleDurationHistory history = new BuildRuleDurationHistory()) {
+      assertThat(
+          history.getEstimatedDurationMillis(TARGET),
+          Matchers.equalTo(OptionalLong.empty()));
+    }
+  }
+
+  @Test
+  public void percentilesOfRecordedDurations() {
+    try (BuildRuleDurationHistory history = new BuildRuleDurationHistory()) {
+      for (long duration : new long[] {50, 10, 40, 20, 30}) {
+        history.record(TARGET, duration);
+      }
+      assertThat(
+          history.getEstimatedDurationMillis(TARGET),
+          Matchers.equalTo(OptionalLong.of(30)));
+      assertThat(
+          history.getDurationPercentileMillis(TARGET, 0),
+          Matchers.equalTo(OptionalLong.of(10)));
+      assertThat(
+          history.getDurationPercentileMillis(TARGET, 90),
+          Matchers.equalTo(OptionalLong.of(50)));
+    }
+  }
+
+  @Test
+  public void oldestDurationsAreForgotten() {
+    try (BuildRuleDurationHistory history = new BuildRuleDurationHistory()) {
+      for (int i = 0; i < BuildRuleDurationHistory.MAX_SAMPLES; i++) {
+        history.record(TARGET, 1000);
+      }
+      for (int i = 0; i < BuildRuleDurationHistory.MAX_SAMPLES; i++) {
+        history.record(TARGET, 10);
+      }
+      assertThat(
+          history.getDurationPercentileMillis(TARGET, 100),
+          Matchers.equalTo(OptionalLong.of(10)));
+    }
+  }
+
+  @Test
+  public void persistedDurationsAreAvailableAfterReopening() throws Exception {
+    Path file = tmp.getRoot().resolve("buck-out/.ruledurations");
+    try (BuildRuleDurationHistory history = BuildRuleDurationHistory.open(file)) {
+      history.record(TARGET, 10);
+      history.record(TARGET, 20);
+      history.record(TARGET, 30);
+    }
+    try (BuildRuleDurationHistory history = BuildRuleDurationHistory.open(file)) {
+      assertThat(
+          history.getEstimatedDurationMillis(TARGET),
+          Matchers.equalTo(OptionalLong.of(20)));
+      history.record(TARGET, 40);
+      assertThat(
+          history.getDurationPercentileMillis(TARGET, 100),
+          Matchers.equalTo(OptionalLong.of(40)));
+    }
+  }
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.buck.artifact_cache.ArtifactCache;
+import com.facebook.buck.artifact_cache.ArtifactInfo;
+import com.facebook.buck.artifact_cache.CacheReadMode;
+import com.facebook.buck.artifact_cache.CacheResult;
+import com.facebook.buck.artifact_cache.CacheResultType;
+import com.facebook.buck.io.BorrowablePath;
+import com.facebook.buck.io.LazyPath;
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.testutil.integration.TemporaryPaths;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachePrefetcherTest {
+
+  private static final BuildTarget TARGET_A = BuildTargetFactory.newInstance("//:a");
+  private static final BuildTarget TARGET_B = BuildTargetFactory.newInstance("//:b");
+  private static final RuleKey KEY_A = new RuleKey("aaaa");
+  private static final BuildTarget TARGET_C = BuildTargetFactory.newInstance("//:c");
+  private static final RuleKey KEY_B = new RuleKey("bbbb");
+  private static final RuleKey KEY_C = new RuleKey("cccc");
+
+  @Rule
+  public TemporaryPaths tmp = new TemporaryPaths();
+
+  private final ListeningExecutorService direct = MoreExecutors.newDirectExecutorService();
+  private final List<CachePrefetcher> prefetchers = new ArrayList<>();
+  private ProjectFilesystem filesystem;
+
+  @Before
+  public void setUp() throws InterruptedException {
+    filesystem = new ProjectFilesystem(tmp.getRoot());
+  }
+
+  @After
+  public void tearDown() {
+    prefetchers.forEach(CachePrefetcher::close);
+    direct.shutdownNow();
+  }
+
+  @Test
+  public void claimHandsOverFetchedArtifact() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10));
+    CachePrefetcher prefetcher = newPrefetcher(direct, 100L, 1);
+    prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+    assertThat(prefetcher.getBytesHeld(), Matchers.equalTo(10L));
+
+    CachePrefetcher.Prefetch prefetch = prefetcher.claim(TARGET_A, KEY_A).get();
+    assertThat(prefetch.getResult().get().getType(), Matchers.equalTo(CacheResultType.HIT));
+    assertThat(Files.size(prefetch.getOutput().getUnchecked()), Matchers.equalTo(10L));
+    assertThat(prefetcher.getBytesHeld(), Matchers.equalTo(0L));
+
+    // The artifact now belongs to the caller, so it's not ours to hand out again.
+    assertFalse(prefetcher.claim(TARGET_A, KEY_A).isPresent());
+    Files.delete(prefetch.getOutput().getUnchecked());
+  }
+
+  @Test
+  public void byteBudgetHoldsBackFurtherFetchesUntilClaimed() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10, KEY_B, 10));
+    CachePrefetcher prefetcher = newPrefetcher(direct, 5L, 1);
+    prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+    prefetcher.prefetch(TARGET_B, KEY_B, cache, filesystem, () -> true);
+    assertThat(cache.fetches.get(), Matchers.equalTo(1));
+    assertThat(cache.checks.get(), Matchers.equalTo(1));
+
+    CachePrefetcher.Prefetch prefetch = prefetcher.claim(TARGET_A, KEY_A).get();
+    assertThat(cache.fetches.get(), Matchers.equalTo(2));
+    assertThat(prefetcher.getBytesHeld(), Matchers.equalTo(10L));
+
+    Files.delete(prefetch.getOutput().getUnchecked());
+    prefetcher.cancelAll();
+    assertThat(prefetcher.getBytesHeld(), Matchers.equalTo(0L));
+  }
+
+  @Test
+  public void missesAreFoundWithoutFetchingWhileByteBudgetIsSpent() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10));
+    CachePrefetcher prefetcher = newPrefetcher(direct, 5L, 1);
+    prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+    prefetcher.prefetch(TARGET_B, KEY_B, cache, filesystem, () -> true);
+    assertThat(cache.fetches.get(), Matchers.equalTo(1));
+
+    CachePrefetcher.Prefetch prefetch = prefetcher.claim(TARGET_B, KEY_B).get();
+    assertThat(prefetch.getResult().get().getType(), Matchers.equalTo(CacheResultType.MISS));
+    assertThat(cache.fetches.get(), Matchers.equalTo(1));
+    prefetcher.cancelAll();
+  }
+
+  @Test
+  public void cancelDeletesFetchedArtifact() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10));
+    CachePrefetcher prefetcher = newPrefetcher(direct, 100L, 1);
+    prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+    Path output = cache.outputs.get(KEY_A);
+    assertTrue(Files.exists(output));
+
+    prefetcher.cancel(TARGET_A);
+    assertFalse(Files.exists(output));
+    assertThat(prefetcher.getBytesHeld(), Matchers.equalTo(0L));
+    assertFalse(prefetcher.claim(TARGET_A, KEY_A).isPresent());
+  }
+
+  @Test
+  public void prefetchForDifferentRuleKeyIsNotUsed() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10));
+    CachePrefetcher prefetcher = newPrefetcher(direct, 100L, 1);
+    prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+    Path output = cache.outputs.get(KEY_A);
+
+    assertFalse(prefetcher.claim(TARGET_A, KEY_B).isPresent());
+    assertFalse(Files.exists(output));
+    assertThat(prefetcher.getBytesHeld(), Matchers.equalTo(0L));
+  }
+
+  @Test
+  public void unneededPrefetchDoesNotGoToTheCache() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10));
+    CachePrefetcher prefetcher = newPrefetcher(direct, 100L, 1);
+    prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> false);
+
+    CachePrefetcher.Prefetch prefetch = prefetcher.claim(TARGET_A, KEY_A).get();
+    assertThat(prefetch.getResult().get().getType(), Matchers.equalTo(CacheResultType.IGNORED));
+    assertThat(cache.fetches.get(), Matchers.equalTo(0));
+  }
+
+  @Test
+  public void queuedPrefetchIsDroppedWhenClaimed() throws Exception {
+    ListeningExecutorService service =
+        MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    try {
+      CountDownLatch release = new CountDownLatch(1);
+      FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_B, 10)) {
+        @Override
+        public CacheResult fetch(RuleKey ruleKey, LazyPath output) {
+          if (ruleKey.equals(KEY_A)) {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return super.fetch(ruleKey, output);
+        }
+      };
+      CachePrefetcher prefetcher = newPrefetcher(service, 100L, 1);
+      prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+      prefetcher.prefetch(TARGET_B, KEY_B, cache, filesystem, () -> true);
+
+      // The first fetch is holding up the second, so the second is left for the caller to do.
+      assertFalse(prefetcher.claim(TARGET_B, KEY_B).isPresent());
+      Optional<CachePrefetcher.Prefetch> running = prefetcher.claim(TARGET_A, KEY_A);
+      assertTrue(running.isPresent());
+
+      release.countDown();
+      assertThat(
+          running.get().getResult().get().getType(),
+          Matchers.equalTo(CacheResultType.MISS));
+      assertThat(cache.fetches.get(), Matchers.equalTo(1));
+    } finally {
+      service.shutdownNow();
+    }
+  }
+
+  @Test
+  public void prefetchesQueuedTogetherAreFetchedInOneBatch() throws Exception {
+    ListeningExecutorService service =
+        MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    try {
+      CountDownLatch release = new CountDownLatch(1);
+      FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of()) {
+        @Override
+        public CacheResult fetch(RuleKey ruleKey, LazyPath output) {
+          if (ruleKey.equals(KEY_A)) {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return super.fetch(ruleKey, output);
+        }
+      };
+      CachePrefetcher prefetcher = newPrefetcher(service, 100L, 4);
+      prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+      CachePrefetcher.Prefetch first = prefetcher.claim(TARGET_A, KEY_A).get();
+
+      // The first batch is still out, so these wait for it and then go out together.
+      prefetcher.prefetch(TARGET_B, KEY_B, cache, filesystem, () -> true);
+      prefetcher.prefetch(TARGET_C, KEY_C, cache, filesystem, () -> true);
+      release.countDown();
+      first.getResult().get();
+
+      prefetcher.claim(TARGET_B, KEY_B).get().getResult().get();
+      prefetcher.claim(TARGET_C, KEY_C).get().getResult().get();
+      assertThat(cache.batchSizes, Matchers.contains(1, 2));
+    } finally {
+      service.shutdownNow();
+    }
+  }
+
+  @Test
+  public void artifactsAreKeptUnderBuckOutUntilClosed() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10, KEY_B, 10));
+    CachePrefetcher prefetcher = newPrefetcher(direct, 100L, 1);
+    prefetcher.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+    prefetcher.prefetch(TARGET_B, KEY_B, cache, filesystem, () -> true);
+    Path claimed = prefetcher.claim(TARGET_A, KEY_A).get().getOutput().getUnchecked();
+    Path unclaimed = cache.outputs.get(KEY_B);
+    assertTrue(claimed.startsWith(filesystem.resolve(filesystem.getBuckPaths().getTmpDir())));
+
+    prefetcher.close();
+    assertFalse(Files.exists(claimed));
+    assertFalse(Files.exists(unclaimed));
+    assertFalse(Files.exists(unclaimed.getParent()));
+  }
+
+  @Test
+  public void staleArtifactsAreDeletedButLiveOnesAreNot() throws Exception {
+    FakeArtifactCache cache = new FakeArtifactCache(ImmutableMap.of(KEY_A, 10, KEY_B, 10));
+    Path parent = filesystem.resolve(filesystem.getBuckPaths().getTmpDir()).resolve("prefetch");
+    // Left behind by a process which died while prefetching.
+    Path stale = parent.resolve("prefetch1234");
+    Files.createDirectories(stale);
+    Files.write(stale.resolve("buck_prefetch_a.zip"), new byte[10]);
+
+    CachePrefetcher live = newPrefetcher(direct, 100L, 1);
+    live.prefetch(TARGET_A, KEY_A, cache, filesystem, () -> true);
+    Path liveOutput = cache.outputs.get(KEY_A);
+    assertFalse(Files.exists(stale));
+
+    CachePrefetcher other = newPrefetcher(direct, 100L, 1);
+    other.prefetch(TARGET_B, KEY_B, cache, filesystem, () -> true);
+    assertTrue(Files.exists(liveOutput));
+
+  }
+
+  private CachePrefetcher newPrefetcher(
+      ListeningExecutorService service,
+      long maxBytes,
+      int maxInFlight) {
+    CachePrefetcher prefetcher = new CachePrefetcher(service, maxBytes, maxInFlight);
+    prefetchers.add(prefetcher);
+    return prefetcher;
+  }
+
+  /**
+   * Holds artifacts of the given sizes, counting the requests made of it.
+   */
+  private static class FakeArtifactCache implements ArtifactCache {
+    private final ImmutableMap<RuleKey, Integer> sizes;
+    private final Map<RuleKey, Path> outputs = new ConcurrentHashMap<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicInteger checks = new AtomicInteger();
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    FakeArtifactCache(ImmutableMap<RuleKey, Integer> sizes) {
+      this.sizes = sizes;
+    }
+
+    @Override
+    public CacheResult fetch(RuleKey ruleKey, LazyPath output) {
+      fetches.incrementAndGet();
+      Integer size = sizes.get(ruleKey);
+      if (size == null) {
+        return CacheResult.miss();
+      }
+      try {
+        Files.write(output.get(), new byte[size]);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      outputs.put(ruleKey, output.getUnchecked());
+      return CacheResult.hit("dir");
+    }
+
+    @Override
+    public ImmutableMap<RuleKey, CacheResult> multiFetch(ImmutableMap<RuleKey, LazyPath> outputs) {
+      batchSizes.add(outputs.size());
+      return ArtifactCache.super.multiFetch(outputs);
+    }
+
+    @Override
+    public ImmutableMap<RuleKey, CacheResult> multiContains(ImmutableSet<RuleKey> ruleKeys) {
+      checks.addAndGet(ruleKeys.size());
+      Map<RuleKey, CacheResult> results = new HashMap<>();
+      for (RuleKey ruleKey : ruleKeys) {
+        results.put(
+            ruleKey,
+            sizes.containsKey(ruleKey) ? CacheResult.hit("dir") : CacheResult.miss());
+      }
+      return ImmutableMap.copyOf(results);
+    }
+
+    @Override
+    public ListenableFuture<Void> store(ArtifactInfo info, BorrowablePath output) {
+      return Futures.immediateFuture(null);
+    }
+
+    @Override
+    public CacheReadMode getCacheReadMode() {
+      return CacheReadMode.READONLY;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.facebook.buck.artifact_cache.NoopArtifactCache;
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.model.BuildId;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.step.TestExecutionContext;
+import com.facebook.buck.testutil.integration.TemporaryPaths;
+import com.facebook.buck.timing.IncrementingFakeClock;
+import com.facebook.buck.util.cache.DefaultFileHashCache;
+import com.facebook.buck.util.cache.StackedFileHashCache;
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures how quickly {@link CachingBuildEngine} can schedule a large, synthetic action graph of
+ * no-op rules, which is dominated by rule key memoization and result bookkeeping rather than any
+ * actual build work.  Running it across thread counts shows how well scheduling scales with cores.
+ */
+public class CachingBuildEngineBenchmark {
+  @Param({"1000", "20000", "200000"})
+  private int ruleCount = 1000;
+
+  @Param({"1", "2", "4", "8", "16", "32", "48"})
+  private int threadCount = 1;
+
+  /**
+   * Number of rules in each layer of the synthetic graph.  Each rule depends on a handful of rules
+   * from the layer beneath it.
+   */
+  private static final int LAYER_WIDTH = 500;
+
+  private static final int DEPS_PER_RULE = 3;
+
+  private TemporaryPaths tempDir = new TemporaryPaths();
+
+  private ProjectFilesystem filesystem;
+  private BuildRuleResolver resolver;
+  private ImmutableList<BuildRule> topLevelRules;
+  private ListeningExecutorService executorService;
+
+  @Before
+  public void setUpTest() throws Exception {
+    ruleCount = 1000;
+    threadCount = 4;
+    setUpBenchmark();
+  }
+
+  @BeforeExperiment
+  public void setUpBenchmark() throws Exception {
+    tempDir.before();
+    filesystem = new ProjectFilesystem(tempDir.getRoot());
+    resolver =
+        new BuildRuleResolver(TargetGraph.EMPTY, new DefaultTargetNodeToBuildRuleTransformer());
+    SourcePathResolver pathResolver = new SourcePathResolver(new SourcePathRuleFinder(resolver));
+
+    List<BuildRule> previousLayer = new ArrayList<>();
+    List<BuildRule> currentLayer = new ArrayList<>();
+    for (int i = 0; i < ruleCount; i++) {
+      ImmutableSortedSet.Builder<BuildRule> deps = ImmutableSortedSet.naturalOrder();
+      for (int j = 0; j < DEPS_PER_RULE && !previousLayer.isEmpty(); j++) {
+        deps.add(previousLayer.get((i * 7 + j * 13) % previousLayer.size()));
+      }
+      BuildRule rule =
+          new FakeBuildRule(
+              new FakeBuildRuleParamsBuilder(BuildTargetFactory.newInstance("//rule:" + i))
+                  .setProjectFilesystem(filesystem)
+                  .setDeclaredDeps(deps.build())
+                  .build(),
+              pathResolver);
+      resolver.addToIndex(rule);
+      currentLayer.add(rule);
+      if (currentLayer.size() == LAYER_WIDTH) {
+        previousLayer = currentLayer;
+        currentLayer = new ArrayList<>();
+      }
+    }
+    topLevelRules =
+        ImmutableList.copyOf(currentLayer.isEmpty() ? previousLayer : currentLayer);
+
+    executorService =
+        MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threadCount));
+  }
+
+  @After
+  @AfterExperiment
+  public void cleanup() {
+    tempDir.after();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void scheduleAllRulesCorrectness() throws Exception {
+    List<BuildResult> results = scheduleAllRules();
+    assertThat(results.size(), equalTo(topLevelRules.size()));
+    for (BuildResult result : results) {
+      assertThat(result.getStatus(), equalTo(BuildRuleStatus.SUCCESS));
+    }
+  }
+
+  @Benchmark
+  public List<BuildResult> scheduleAllRules() throws Exception {
+    CachingBuildEngine engine = new CachingBuildEngineFactory(resolver)
+        .setBuildMode(CachingBuildEngine.BuildMode.DEEP)
+        .setCachingBuildEngineDelegate(
+            new LocalCachingBuildEngineDelegate(
+                new StackedFileHashCache(
+                    ImmutableList.of(
+                        DefaultFileHashCache.createDefaultFileHashCache(filesystem)))))
+        .setExecutorService(executorService)
+        .build();
+    BuildEngineBuildContext buildContext = BuildEngineBuildContext.builder()
+        .setBuildContext(FakeBuildContext.NOOP_CONTEXT)
+        .setArtifactCache(new NoopArtifactCache())
+        .setBuildId(new BuildId())
+        .setClock(new IncrementingFakeClock())
+        .build();
+    List<ListenableFuture<BuildResult>> results = new ArrayList<>();
+    for (BuildRule rule : topLevelRules) {
+      results.add(engine.build(buildContext, TestExecutionContext.newInstance(), rule));
+    }
+    return Futures.allAsList(results).get();
+  }
+}
@@ -40,6 +40,7 @@ public class CachingBuildEngineFactory {
   private CachingBuildEngine.DepFiles depFiles = CachingBuildEngine.DepFiles.ENABLED;
   private long maxDepFileCacheEntries = 256L;
   private Optional<Long> artifactCacheSizeLimit = Optional.empty();
+  private long cachePrefetchMaxBytes = 0L;
   private long inputFileSizeLimit = Long.MAX_VALUE;
   private Optional<RuleKeyFactories> ruleKeyFactories = Optional.empty();
   private CachingBuildEngineDelegate cachingBuildEngineDelegate;
@@ -47,6 +48,7 @@ public class CachingBuildEngineFactory {
   private BuildRuleResolver buildRuleResolver;
   private ResourceAwareSchedulingInfo resourceAwareSchedulingInfo =
       ResourceAwareSchedulingInfo.NON_AWARE_SCHEDULING_INFO;
+  private Optional<BuildRuleDurationHistory> criticalPathHistory = Optional.empty();
 
   public CachingBuildEngineFactory(BuildRuleResolver buildRuleResolver) {
     this.cachingBuildEngineDelegate =
@@ -76,6 +78,11 @@ public class CachingBuildEngineFactory {
     return this;
   }
 
+  public CachingBuildEngineFactory setCachePrefetchMaxBytes(long cachePrefetchMaxBytes) {
+    this.cachePrefetchMaxBytes = cachePrefetchMaxBytes;
+    return this;
+  }
+
   public CachingBuildEngineFactory setCachingBuildEngineDelegate(
       CachingBuildEngineDelegate cachingBuildEngineDelegate) {
     this.cachingBuildEngineDelegate = cachingBuildEngineDelegate;
@@ -94,6 +101,12 @@ public class CachingBuildEngineFactory {
     return this;
   }
 
+  public CachingBuildEngineFactory setCriticalPathHistory(
+      BuildRuleDurationHistory criticalPathHistory) {
+    this.criticalPathHistory = Optional.of(criticalPathHistory);
+    return this;
+  }
+
   public CachingBuildEngineFactory setRuleKeyFactories(RuleKeyFactories ruleKeyFactories) {
     this.ruleKeyFactories = Optional.of(ruleKeyFactories);
     return this;
@@ -115,7 +128,8 @@ public class CachingBuildEngineFactory {
           ruleFinder,
           new SourcePathResolver(ruleFinder),
           ruleKeyFactories.get(),
-          resourceAwareSchedulingInfo);
+          resourceAwareSchedulingInfo,
+          criticalPathHistory);
     }
 
     return new CachingBuildEngine(
@@ -128,8 +142,10 @@ public class CachingBuildEngineFactory {
         depFiles,
         maxDepFileCacheEntries,
         artifactCacheSizeLimit,
+        cachePrefetchMaxBytes,
         buildRuleResolver,
         resourceAwareSchedulingInfo,
+        criticalPathHistory,
         RuleKeyFactories.of(
             0,
             cachingBuildEngineDelegate.getFileHashCache(),
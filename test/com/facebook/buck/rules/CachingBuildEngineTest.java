@@ -136,6 +136,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -1248,6 +1249,59 @@ public class CachingBuildEngineTest {
       assertTrue(fakeFileHashCache.contains(filesystem.resolve(output)));
     }
 
+    @Test
+    public void prefetchedArtifactIsUsedForCacheHit() throws Exception {
+      BuildTarget target = BuildTargetFactory.newInstance("//:rule");
+      Path output = filesystem.getPath("output/path");
+      BuildRuleParams params =
+          new FakeBuildRuleParamsBuilder(target)
+              .setProjectFilesystem(filesystem)
+              .build();
+      BuildRule rule = new WriteFile(params, "something else", output, /* executable */ false);
+
+      // Run an initial build to seed the cache.
+      CachingBuildEngine cachingBuildEngine = cachingBuildEngineFactory().build();
+      BuildResult result =
+          cachingBuildEngine.build(buildContext, TestExecutionContext.newInstance(), rule).get();
+      assertEquals(BuildRuleSuccessType.BUILT_LOCALLY, result.getSuccess());
+      filesystem.clear();
+
+      // Rebuild with prefetching enabled, which should only go to the cache once.
+      final AtomicInteger fetches = new AtomicInteger();
+      ArtifactCache countingCache = new ArtifactCache() {
+        @Override
+        public CacheResult fetch(RuleKey ruleKey, LazyPath output) {
+          fetches.incrementAndGet();
+          return cache.fetch(ruleKey, output);
+        }
+
+        @Override
+        public ListenableFuture<Void> store(ArtifactInfo info, BorrowablePath output) {
+          return cache.store(info, output);
+        }
+
+        @Override
+        public CacheReadMode getCacheReadMode() {
+          return cache.getCacheReadMode();
+        }
+
+        @Override
+        public void close() {
+        }
+      };
+      cachingBuildEngine = cachingBuildEngineFactory()
+          .setCachePrefetchMaxBytes(1024L * 1024L)
+          .build();
+      result =
+          cachingBuildEngine.build(
+              buildContext.withArtifactCache(countingCache),
+              TestExecutionContext.newInstance(),
+              rule).get();
+      assertEquals(BuildRuleSuccessType.FETCHED_FROM_CACHE, result.getSuccess());
+      assertEquals(1, fetches.get());
+      assertTrue(filesystem.exists(output));
+    }
+
   }
 
   public static class InputBasedRuleKeyTests extends CommonFixture {
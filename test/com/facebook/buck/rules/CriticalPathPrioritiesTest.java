@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import static org.junit.Assert.assertThat;
+
+import com.facebook.buck.model.BuildTarget;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+public class CriticalPathPrioritiesTest {
+
+  private final FakeBuildRule leaf = new FakeBuildRule("//:leaf");
+  private final FakeBuildRule slow = new FakeBuildRule("//:slow", leaf);
+  private final FakeBuildRule fast = new FakeBuildRule("//:fast", leaf);
+  private final FakeBuildRule top = new FakeBuildRule("//:top", slow, fast);
+  private final ImmutableList<BuildRule> rules = ImmutableList.of(top, slow, fast, leaf);
+
+  @Test
+  public void priorityIsLongestPathToTheEndOfTheBuild() {
+    BuildRuleDurationHistory history = new BuildRuleDurationHistory();
+    history.record(top.getBuildTarget(), 10);
+    history.record(slow.getBuildTarget(), 100);
+    history.record(fast.getBuildTarget(), 5);
+    history.record(leaf.getBuildTarget(), 1);
+
+    assertThat(
+        CriticalPathPriorities.compute(rules, BuildRule::getBuildDeps, history),
+        Matchers.equalTo(
+            ImmutableMap.<BuildTarget, Long>of(
+                top.getBuildTarget(), 10L,
+                slow.getBuildTarget(), 110L,
+                fast.getBuildTarget(), 15L,
+                leaf.getBuildTarget(), 111L)));
+  }
+
+  @Test
+  public void rulesWithoutHistoryTakeTheAverageDuration() {
+    BuildRuleDurationHistory history = new BuildRuleDurationHistory();
+    history.record(slow.getBuildTarget(), 100);
+    history.record(fast.getBuildTarget(), 20);
+
+    ImmutableMap<BuildTarget, Long> priorities =
+        CriticalPathPriorities.compute(rules, BuildRule::getBuildDeps, history);
+    assertThat(priorities.get(top.getBuildTarget()), Matchers.equalTo(60L));
+    assertThat(priorities.get(leaf.getBuildTarget()), Matchers.equalTo(220L));
+  }
+
+  @Test
+  public void withoutHistoryPriorityIsLongestChainOfDependents() {
+    ImmutableMap<BuildTarget, Long> priorities =
+        CriticalPathPriorities.compute(
+            rules,
+            BuildRule::getBuildDeps,
+            new BuildRuleDurationHistory());
+    assertThat(priorities.get(top.getBuildTarget()), Matchers.equalTo(1L));
+    assertThat(priorities.get(fast.getBuildTarget()), Matchers.equalTo(2L));
+    assertThat(priorities.get(leaf.getBuildTarget()), Matchers.equalTo(3L));
+  }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.util.concurrent.ListeningMultiSemaphore;
+import com.facebook.buck.util.concurrent.ResourceAllocationFairness;
+import com.facebook.buck.util.concurrent.ResourceAmounts;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Replays a build of a synthetic action graph through {@link ListeningMultiSemaphore} in simulated
+ * time, once in the order rules become ready and once prioritized by
+ * {@link CriticalPathPriorities}, and reports the time each schedule takes to build everything.
+ *
+ * The graph has the shape that makes ready-order scheduling go wrong: a long chain of slow rules
+ * (think of a big library and the binaries built from it) next to a wide spread of quick rules
+ * which all become ready first.  The benchmark time measures the scheduling overhead; the
+ * simulated build times it returns are what to compare.
+ */
+public class CriticalPathSchedulingBenchmark {
+  @Param({"1000", "10000"})
+  private int ruleCount = 1000;
+
+  @Param({"4", "16", "48"})
+  private int threadCount = 4;
+
+  private static final int CHAIN_LENGTH = 20;
+  private static final long CHAIN_RULE_DURATION = 100;
+  private static final int MAX_QUICK_RULE_DURATION = 20;
+  private static final int MAX_DEPS_PER_QUICK_RULE = 2;
+
+  private static final ResourceAmounts ONE_THREAD = ResourceAmounts.of(1, 0, 0, 0);
+
+  private ImmutableList<BuildRule> rules;
+  private Map<BuildRule, List<BuildRule>> dependents;
+  private BuildRuleDurationHistory history;
+  private ImmutableMap<BuildTarget, Long> criticalPathPriorities;
+
+  @Before
+  public void setUpTest() {
+    ruleCount = 1000;
+    threadCount = 4;
+    setUpBenchmark();
+  }
+
+  @BeforeExperiment
+  public void setUpBenchmark() {
+    SourcePathResolver pathResolver =
+        new SourcePathResolver(
+            new SourcePathRuleFinder(
+                new BuildRuleResolver(
+                    TargetGraph.EMPTY,
+                    new DefaultTargetNodeToBuildRuleTransformer())));
+    Random random = new Random(0);
+    history = new BuildRuleDurationHistory();
+
+    // The quick rules come first, so that they're the first to be ready.
+    List<BuildRule> quickRules = new ArrayList<>();
+    for (int i = 0; i < ruleCount - CHAIN_LENGTH - 1; i++) {
+      ImmutableSortedSet.Builder<BuildRule> deps = ImmutableSortedSet.naturalOrder();
+      for (int dep = 0; !quickRules.isEmpty() && dep < MAX_DEPS_PER_QUICK_RULE; dep++) {
+        if (random.nextBoolean()) {
+          deps.add(quickRules.get(random.nextInt(quickRules.size())));
+        }
+      }
+      quickRules.add(
+          newRule(
+              "//quick:" + i,
+              pathResolver,
+              deps.build(),
+              1 + random.nextInt(MAX_QUICK_RULE_DURATION)));
+    }
+    List<BuildRule> chain = new ArrayList<>();
+    for (int i = 0; i < CHAIN_LENGTH; i++) {
+      chain.add(
+          newRule(
+              "//chain:" + i,
+              pathResolver,
+              i == 0 ? ImmutableSortedSet.of() : ImmutableSortedSet.of(chain.get(i - 1)),
+              CHAIN_RULE_DURATION));
+    }
+    BuildRule top =
+        newRule(
+            "//:top",
+            pathResolver,
+            ImmutableSortedSet.<BuildRule>naturalOrder()
+                .addAll(quickRules)
+                .add(chain.get(CHAIN_LENGTH - 1))
+                .build(),
+            1);
+
+    rules = ImmutableList.<BuildRule>builder().addAll(quickRules).addAll(chain).add(top).build();
+    dependents = new HashMap<>();
+    for (BuildRule rule : rules) {
+      for (BuildRule dep : rule.getBuildDeps()) {
+        dependents.computeIfAbsent(dep, key -> new ArrayList<>()).add(rule);
+      }
+    }
+    criticalPathPriorities =
+        CriticalPathPriorities.compute(rules, BuildRule::getBuildDeps, history);
+  }
+
+  @Test
+  public void criticalPathScheduleIsShorter() {
+    assertThat(criticalPathReplay(), lessThan(readyOrderReplay()));
+  }
+
+  @Benchmark
+  public long readyOrderReplay() {
+    return replay(ImmutableMap.of());
+  }
+
+  @Benchmark
+  public long criticalPathReplay() {
+    return replay(criticalPathPriorities);
+  }
+
+  /**
+   * @return the simulated time at which the last rule finishes building.
+   */
+  private long replay(ImmutableMap<BuildTarget, Long> priorities) {
+    ListeningMultiSemaphore semaphore =
+        new ListeningMultiSemaphore(
+            ResourceAmounts.of(threadCount, 0, 0, 0),
+            ResourceAllocationFairness.FAST);
+    PriorityQueue<RunningRule> running = new PriorityQueue<>();
+    Map<BuildRule, Integer> remainingDeps = new HashMap<>();
+    long[] now = {0};
+
+    List<BuildRule> ready = new ArrayList<>();
+    for (BuildRule rule : rules) {
+      remainingDeps.put(rule, rule.getBuildDeps().size());
+      if (rule.getBuildDeps().isEmpty()) {
+        ready.add(rule);
+      }
+    }
+
+    RunningRule finished = null;
+    while (true) {
+      // Queue up newly ready rules before handing on the finished rule's thread, as the build
+      // engine does, so that they compete with the rules already waiting for it.
+      for (BuildRule rule : ready) {
+        semaphore
+            .acquire(ONE_THREAD, priorities.getOrDefault(rule.getBuildTarget(), 0L))
+            .addListener(
+                () -> running.add(new RunningRule(rule, now[0] + getDuration(rule))),
+                MoreExecutors.directExecutor());
+      }
+      ready.clear();
+      if (finished != null) {
+        semaphore.release(ONE_THREAD);
+      }
+
+      finished = running.poll();
+      if (finished == null) {
+        return now[0];
+      }
+      now[0] = finished.finishTime;
+      for (BuildRule dependent : dependents.getOrDefault(finished.rule, ImmutableList.of())) {
+        if (remainingDeps.merge(dependent, -1, Integer::sum) == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+  }
+
+  private long getDuration(BuildRule rule) {
+    return history.getEstimatedDurationMillis(rule.getBuildTarget()).getAsLong();
+  }
+
+  private BuildRule newRule(
+      String target,
+      SourcePathResolver pathResolver,
+      ImmutableSortedSet<BuildRule> deps,
+      long duration) {
+    BuildRule rule = new FakeBuildRule(BuildTargetFactory.newInstance(target), pathResolver, deps);
+    history.record(rule.getBuildTarget(), duration);
+    return rule;
+  }
+
+  private static class RunningRule implements Comparable<RunningRule> {
+    private final BuildRule rule;
+    private final long finishTime;
+
+    RunningRule(BuildRule rule, long finishTime) {
+      this.rule = rule;
+      this.finishTime = finishTime;
+    }
+
+    @Override
+    public int compareTo(RunningRule other) {
+      return Long.compare(finishTime, other.finishTime);
+    }
+  }
+}
@@ -18,6 +18,8 @@ package com.facebook.buck.rules;
 
 import com.facebook.buck.model.BuildTarget;
 import com.facebook.buck.parser.NoSuchBuildTargetException;
+import com.facebook.buck.testutil.FakeProjectFilesystem;
+import com.google.common.hash.HashCode;
 
 public class FakeTargetNodeBuilder extends AbstractNodeBuilder<
     FakeTargetNodeBuilder.Arg,
@@ -30,10 +32,21 @@ public class FakeTargetNodeBuilder extends AbstractNodeBuilder<
     super(description, target);
   }
 
+  private FakeTargetNodeBuilder(
+      FakeDescription description,
+      BuildTarget target,
+      HashCode hashCode) {
+    super(description, target, new FakeProjectFilesystem(), hashCode);
+  }
+
   public static FakeTargetNodeBuilder newBuilder(BuildRule rule) {
     return new FakeTargetNodeBuilder(new FakeDescription(rule), rule.getBuildTarget());
   }
 
+  public static FakeTargetNodeBuilder newBuilder(BuildRule rule, HashCode hashCode) {
+    return new FakeTargetNodeBuilder(new FakeDescription(rule), rule.getBuildTarget(), hashCode);
+  }
+
   public static TargetNode<Arg, FakeDescription> build(BuildRule rule) {
     return newBuilder(rule).build();
   }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.testutil.FakeFileHashCache;
+import com.facebook.buck.testutil.integration.TemporaryPaths;
+import com.facebook.buck.util.cache.FileHashCache;
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * Compares looking up a rule key in a large dep-file manifest by deserializing it first against
+ * probing the memory-mapped manifest in place.  Entries differ from each other in only a few
+ * percent of their headers, as they do in practice, and only the last entry matches.
+ */
+public class ManifestBenchmark {
+  @Param({"1000", "10000"})
+  private int headerCount = 1000;
+
+  @Param({"1", "100", "1000"})
+  private int entryCount = 1;
+
+  /**
+   * One in this many headers changes hash between consecutive entries.
+   */
+  private static final int CHANGE_PERIOD = 33;
+
+  private static final Path MANIFEST_PATH = Paths.get("manifest");
+
+  private TemporaryPaths tempDir = new TemporaryPaths();
+
+  private ProjectFilesystem filesystem;
+  private SourcePathResolver resolver;
+  private FileHashCache fileHashCache;
+  private ImmutableSet<SourcePath> universe;
+  private RuleKey expectedKey;
+
+  @Before
+  public void setUpTest() throws Exception {
+    headerCount = 100;
+    entryCount = 10;
+    setUpBenchmark();
+  }
+
+  @BeforeExperiment
+  public void setUpBenchmark() throws Exception {
+    tempDir.before();
+    filesystem = new ProjectFilesystem(tempDir.getRoot());
+    resolver =
+        new SourcePathResolver(
+            new SourcePathRuleFinder(
+                new BuildRuleResolver(
+                    TargetGraph.EMPTY,
+                    new DefaultTargetNodeToBuildRuleTransformer())));
+
+    ImmutableSet.Builder<SourcePath> universeBuilder = ImmutableSet.builder();
+    ImmutableMap.Builder<Path, HashCode> onDiskHashes = ImmutableMap.builder();
+    String[] headers = new String[headerCount];
+    for (int i = 0; i < headerCount; i++) {
+      SourcePath input = new PathSourcePath(filesystem, Paths.get("include", i + ".h"));
+      universeBuilder.add(input);
+      headers[i] = resolver.getRelativePath(input).toString();
+      onDiskHashes.put(resolver.getAbsolutePath(input), hashFor(i, entryCount - 1));
+    }
+    universe = universeBuilder.build();
+    fileHashCache = new FakeFileHashCache(onDiskHashes.build());
+
+    ImmutableMap.Builder<RuleKey, ImmutableMap<String, HashCode>> entries =
+        ImmutableMap.builder();
+    for (int entry = 0; entry < entryCount; entry++) {
+      ImmutableMap.Builder<String, HashCode> hashes = ImmutableMap.builder();
+      for (int i = 0; i < headerCount; i++) {
+        hashes.put(headers[i], hashFor(i, entry));
+      }
+      expectedKey = new RuleKey(HashCode.fromInt(entry));
+      entries.put(expectedKey, hashes.build());
+    }
+    try (OutputStream output = filesystem.newFileOutputStream(MANIFEST_PATH)) {
+      Manifest.fromMap(entries.build()).serialize(output);
+    }
+  }
+
+  @After
+  @AfterExperiment
+  public void cleanup() {
+    tempDir.after();
+  }
+
+  @Test
+  public void lookupCorrectness() throws Exception {
+    assertThat(deserializeAndLookup(), equalTo(Optional.of(expectedKey)));
+    assertThat(mappedLookup(), equalTo(Optional.of(expectedKey)));
+  }
+
+  @Benchmark
+  public Optional<RuleKey> deserializeAndLookup() throws Exception {
+    Manifest manifest;
+    try (InputStream input = filesystem.newFileInputStream(MANIFEST_PATH)) {
+      manifest = new Manifest(input);
+    }
+    return manifest.lookup(fileHashCache, resolver, universe);
+  }
+
+  @Benchmark
+  public Optional<RuleKey> mappedLookup() throws Exception {
+    return MappedManifest.of(filesystem.mapReadOnly(MANIFEST_PATH))
+        .lookup(fileHashCache, resolver, universe);
+  }
+
+  /**
+   * The hash of the given header in the given entry: each entry changes a few percent of the
+   * headers from the one before it.
+   */
+  private static HashCode hashFor(int header, int entry) {
+    int version = Math.max(0, entry - (header + entry) % CHANGE_PERIOD);
+    return HashCode.fromLong(((long) header << 32) | version);
+  }
+}
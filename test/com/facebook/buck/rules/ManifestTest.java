@@ -32,6 +32,7 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -318,4 +319,44 @@ public class ManifestTest {
         Matchers.equalTo(2));
   }
 
+  @Test
+  public void deserializeLegacyFormat() throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(byteArrayOutputStream);
+    output.writeInt(Manifest.LEGACY_VERSION);
+    output.writeInt(1);
+    output.writeUTF("foo/bar.h");
+    output.writeInt(1);
+    output.writeInt(0);
+    output.writeUTF(HashCode.fromInt(20).toString());
+    output.writeInt(1);
+    output.writeInt(1);
+    output.writeInt(0);
+    output.writeUTF("aa");
+    output.flush();
+    Manifest deserialized =
+        new Manifest(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    assertThat(
+        deserialized.toMap(),
+        Matchers.equalTo(
+            ImmutableMap.of(
+                new RuleKey("aa"),
+                ImmutableMap.of("foo/bar.h", HashCode.fromInt(20)))));
+  }
+
+  @Test
+  public void sameHashForDifferentHeadersIsKeptApart() throws IOException {
+    ImmutableMap<RuleKey, ImmutableMap<String, HashCode>> entries =
+        ImmutableMap.of(
+            new RuleKey("aa"),
+            ImmutableMap.of("foo.h", HashCode.fromInt(0), "bar.h", HashCode.fromInt(0)));
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    Manifest.fromMap(entries).serialize(byteArrayOutputStream);
+    Manifest deserialized =
+        new Manifest(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    assertThat(
+        deserialized.toMap(),
+        Matchers.equalTo(entries));
+  }
+
 }
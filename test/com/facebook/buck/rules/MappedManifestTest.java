@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.buck.testutil.FakeFileHashCache;
+import com.facebook.buck.util.cache.FileHashCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.primitives.Bytes;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+
+public class MappedManifestTest {
+
+  private static final SourcePathResolver RESOLVER =
+      new SourcePathResolver(new SourcePathRuleFinder(
+          new BuildRuleResolver(TargetGraph.EMPTY, new DefaultTargetNodeToBuildRuleTransformer())));
+
+  private static final SourcePath INPUT1 = new FakeSourcePath("input1.h");
+  private static final SourcePath INPUT2 = new FakeSourcePath("input2.h");
+
+  @Test
+  public void lookupMatchesManifest() throws IOException {
+    RuleKey key1 = new RuleKey("aa");
+    RuleKey key2 = new RuleKey("bb");
+    Manifest manifest =
+        Manifest.fromMap(
+            ImmutableMap.of(
+                key1,
+                ImmutableMap.of(header(INPUT1), HashCode.fromInt(1)),
+                key2,
+                ImmutableMap.of(
+                    header(INPUT1), HashCode.fromInt(2),
+                    header(INPUT2), HashCode.fromInt(3))));
+    MappedManifest mapped = map(serialize(manifest));
+    assertThat(mapped.size(), Matchers.equalTo(2));
+
+    FileHashCache mismatch = hashes(HashCode.fromInt(2), HashCode.fromInt(4));
+    FileHashCache match = hashes(HashCode.fromInt(2), HashCode.fromInt(3));
+    ImmutableSet<SourcePath> universe = ImmutableSet.of(INPUT1, INPUT2);
+    assertThat(
+        mapped.lookup(mismatch, RESOLVER, universe),
+        Matchers.equalTo(manifest.lookup(mismatch, RESOLVER, universe)));
+    assertThat(
+        mapped.lookup(match, RESOLVER, universe),
+        Matchers.equalTo(Optional.of(key2)));
+    assertThat(
+        mapped.lookup(match, RESOLVER, universe),
+        Matchers.equalTo(manifest.lookup(match, RESOLVER, universe)));
+  }
+
+  @Test
+  public void appendedEntryIsFound() throws IOException {
+    RuleKey key1 = new RuleKey("aa");
+    RuleKey key2 = new RuleKey("bb");
+    byte[] original =
+        serialize(
+            Manifest.fromMap(
+                ImmutableMap.of(
+                    key1,
+                    ImmutableMap.of(
+                        header(INPUT1), HashCode.fromInt(1),
+                        header(INPUT2), HashCode.fromInt(2)),
+                    key2,
+                    ImmutableMap.of(
+                        header(INPUT1), HashCode.fromInt(3),
+                        header(INPUT2), HashCode.fromInt(4)))));
+
+    // Mixing hashes of the existing entries only needs the entry itself to be appended.
+    RuleKey key3 = new RuleKey("cc");
+    FileHashCache fileHashCache = hashes(HashCode.fromInt(1), HashCode.fromInt(4));
+    ImmutableSet<SourcePath> universe = ImmutableSet.of(INPUT1, INPUT2);
+    Optional<byte[]> entry =
+        map(original).encodeEntry(fileHashCache, key3, RESOLVER, universe, universe);
+    assertTrue(entry.isPresent());
+
+    MappedManifest appended = map(Bytes.concat(original, entry.get()));
+    assertThat(appended.size(), Matchers.equalTo(3));
+    assertThat(
+        appended.lookup(fileHashCache, RESOLVER, universe),
+        Matchers.equalTo(Optional.of(key3)));
+    assertThat(
+        appended.toManifest().toMap().get(key3),
+        Matchers.equalTo(
+            ImmutableMap.of(
+                header(INPUT1), HashCode.fromInt(1),
+                header(INPUT2), HashCode.fromInt(4))));
+  }
+
+  @Test
+  public void entryWithNewHashCannotBeAppended() throws IOException {
+    byte[] original =
+        serialize(
+            Manifest.fromMap(
+                ImmutableMap.of(
+                    new RuleKey("aa"),
+                    ImmutableMap.of(header(INPUT1), HashCode.fromInt(1)))));
+    ImmutableSet<SourcePath> universe = ImmutableSet.of(INPUT1, INPUT2);
+    assertFalse(
+        map(original)
+            .encodeEntry(
+                hashes(HashCode.fromInt(2), HashCode.fromInt(1)),
+                new RuleKey("bb"),
+                RESOLVER,
+                universe,
+                ImmutableSet.of(INPUT1))
+            .isPresent());
+    assertFalse(
+        map(original)
+            .encodeEntry(
+                hashes(HashCode.fromInt(1), HashCode.fromInt(1)),
+                new RuleKey("bb"),
+                RESOLVER,
+                universe,
+                ImmutableSet.of(INPUT2))
+            .isPresent());
+  }
+
+  @Test
+  public void partiallyWrittenEntryIsIgnored() throws IOException {
+    RuleKey key1 = new RuleKey("aa");
+    byte[] original =
+        serialize(
+            Manifest.fromMap(
+                ImmutableMap.of(key1, ImmutableMap.of(header(INPUT1), HashCode.fromInt(1)))));
+    FileHashCache fileHashCache = hashes(HashCode.fromInt(1), HashCode.fromInt(2));
+    byte[] entry =
+        map(original)
+            .encodeEntry(
+                fileHashCache,
+                new RuleKey("bb"),
+                RESOLVER,
+                ImmutableSet.of(INPUT1),
+                ImmutableSet.of(INPUT1))
+            .get();
+
+    MappedManifest truncated =
+        map(Bytes.concat(original, Arrays.copyOf(entry, entry.length - 1)));
+    assertThat(truncated.size(), Matchers.equalTo(1));
+    assertThat(
+        truncated.lookup(fileHashCache, RESOLVER, ImmutableSet.of(INPUT1)),
+        Matchers.equalTo(Optional.of(key1)));
+
+    // Anything appended after the partial entry would be ignored too, so it has to be rewritten.
+    assertFalse(
+        truncated
+            .encodeEntry(
+                fileHashCache,
+                new RuleKey("bb"),
+                RESOLVER,
+                ImmutableSet.of(INPUT1),
+                ImmutableSet.of(INPUT1))
+            .isPresent());
+    assertThat(truncated.toManifest().size(), Matchers.equalTo(1));
+  }
+
+  @Test
+  public void legacyManifestIsReadButNotAppendedTo() throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(byteArrayOutputStream);
+    output.writeInt(Manifest.LEGACY_VERSION);
+    output.writeInt(1);
+    output.writeUTF(header(INPUT1));
+    output.writeInt(1);
+    output.writeInt(0);
+    output.writeUTF(HashCode.fromInt(1).toString());
+    output.writeInt(1);
+    output.writeInt(1);
+    output.writeInt(0);
+    output.writeUTF("aa");
+    output.flush();
+
+    MappedManifest mapped = map(byteArrayOutputStream.toByteArray());
+    FileHashCache fileHashCache = hashes(HashCode.fromInt(1), HashCode.fromInt(2));
+    ImmutableSet<SourcePath> universe = ImmutableSet.of(INPUT1);
+    assertThat(
+        mapped.lookup(fileHashCache, RESOLVER, universe),
+        Matchers.equalTo(Optional.of(new RuleKey("aa"))));
+    assertFalse(
+        mapped.encodeEntry(fileHashCache, new RuleKey("bb"), RESOLVER, universe, universe)
+            .isPresent());
+  }
+
+  private static String header(SourcePath input) {
+    return RESOLVER.getRelativePath(input).toString();
+  }
+
+  private static FileHashCache hashes(HashCode hash1, HashCode hash2) {
+    return new FakeFileHashCache(
+        ImmutableMap.of(
+            RESOLVER.getAbsolutePath(INPUT1), hash1,
+            RESOLVER.getAbsolutePath(INPUT2), hash2));
+  }
+
+  private static byte[] serialize(Manifest manifest) throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    manifest.serialize(byteArrayOutputStream);
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private static MappedManifest map(byte[] bytes) throws IOException {
+    return MappedManifest.of(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules.keys;
+
+import static org.junit.Assert.assertEquals;
+
+import com.facebook.buck.model.BuildTarget;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.rules.BuildRuleType;
+import com.facebook.buck.rules.DefaultBuildTargetSourcePath;
+import com.facebook.buck.rules.ExplicitBuildTargetSourcePath;
+import com.facebook.buck.rules.FakeSourcePath;
+import com.facebook.buck.rules.ForwardingBuildTargetSourcePath;
+import com.facebook.buck.rules.RuleKey;
+import com.facebook.buck.rules.SourceRoot;
+import com.facebook.buck.util.sha1.Sha1HashCode;
+import com.google.common.base.Strings;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+public class BufferedRuleKeyHasherTest extends AbstractRuleKeyHasherTest<HashCode> {
+
+  private static final BuildTarget TARGET =
+      BuildTargetFactory.newInstance(Paths.get("/root"), "//example/base:one#flavor");
+
+  @Override
+  protected BufferedRuleKeyHasher newHasher() {
+    return new BufferedRuleKeyHasher(Hashing.sha1().newHasher());
+  }
+
+  @Test
+  public void hashesMatchGuavaRuleKeyHasher() {
+    for (int bufferSize : new int[] {1, 16, 1024}) {
+      assertEquals(
+          putEverything(new GuavaRuleKeyHasher(Hashing.sha1().newHasher())),
+          putEverything(new BufferedRuleKeyHasher(Hashing.sha1().newHasher(), bufferSize)));
+    }
+  }
+
+  @Test
+  public void stringsAreEncodedLikeStringGetBytes() {
+    String[] strings = {
+        "",
+        "ascii",
+        "caf\u00e9",
+        "\u4e2d\u6587",
+        "\ud83d\ude00",
+        "unpaired \ud83d high",
+        "unpaired \ude00 low",
+        "trailing \ud83d",
+        Strings.repeat("\u00e9\u4e2d\ud83d\ude00x", 200),
+    };
+    for (String string : strings) {
+      assertEquals(
+          string,
+          new GuavaRuleKeyHasher(Hashing.sha1().newHasher()).putString(string).hash(),
+          new BufferedRuleKeyHasher(Hashing.sha1().newHasher(), 16).putString(string).hash());
+    }
+  }
+
+  private HashCode putEverything(RuleKeyHasher<HashCode> hasher) {
+    return hasher
+        .putKey("key")
+        .putNull()
+        .putBoolean(true)
+        .putBoolean(false)
+        .putNumber(42)
+        .putNumber(-42L)
+        .putNumber((short) 42)
+        .putNumber((byte) 42)
+        .putNumber(4.2f)
+        .putNumber(4.2d)
+        .putString(Strings.repeat("long string ", 200))
+        .putBytes(new byte[] {4, 2})
+        .putBytes(new byte[2000])
+        .putPattern(Pattern.compile("4+2"))
+        .putSha1(Sha1HashCode.of(Strings.repeat("a4", 20)))
+        .putPath(Paths.get("4/2"), HashCode.fromInt(42))
+        .putPath(Paths.get("4/2"), HashCode.fromString(Strings.repeat("b2", 20)))
+        .putArchiveMemberPath(
+            newArchiveMember("4/2.jar", "4/2.class"),
+            HashCode.fromString(Strings.repeat("c3", 20)))
+        .putNonHashingPath("4/2")
+        .putSourceRoot(new SourceRoot("42"))
+        .putRuleKey(new RuleKey("a002b39af204cdfaa5fdb67816b13867c32ac52c"))
+        .putBuildRuleType(BuildRuleType.of("genrule"))
+        .putBuildTarget(TARGET)
+        .putBuildTargetSourcePath(new DefaultBuildTargetSourcePath(TARGET))
+        .putBuildTargetSourcePath(new ExplicitBuildTargetSourcePath(TARGET, Paths.get("4/2")))
+        .putBuildTargetSourcePath(
+            new ForwardingBuildTargetSourcePath(TARGET, new FakeSourcePath("4/2")))
+        .putContainer(RuleKeyHasher.Container.MAP, 42)
+        .putWrapper(RuleKeyHasher.Wrapper.OPTIONAL)
+        .hash();
+  }
+}
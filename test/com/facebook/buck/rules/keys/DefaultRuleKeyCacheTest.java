@@ -21,16 +21,22 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.rules.BuildRule;
 import com.facebook.buck.rules.FakeBuildRuleParamsBuilder;
 import com.facebook.buck.rules.NoopBuildRule;
+import com.facebook.buck.rules.RuleKeyAppendable;
+import com.facebook.buck.rules.RuleKeyObjectSink;
 import com.facebook.buck.testutil.FakeProjectFilesystem;
 import com.facebook.buck.timing.Clock;
 import com.facebook.buck.timing.IncrementingFakeClock;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import java.util.Set;
+
 public class DefaultRuleKeyCacheTest {
 
   private static final ProjectFilesystem FILESYSTEM = new FakeProjectFilesystem();
@@ -160,6 +166,34 @@ public class DefaultRuleKeyCacheTest {
         Matchers.equalTo(1L));
   }
 
+  @Test
+  public void testInvalidateAllExceptBuildRules() {
+    DefaultRuleKeyCache<Void> cache = new DefaultRuleKeyCache<>();
+    TestRule kept = new TestRule();
+    cache.get(kept, r -> new RuleKeyResult<>(null, ImmutableList.of(), ImmutableList.of()));
+    TestRule dropped = new TestRule();
+    TestAppendable appendable = new TestAppendable();
+    cache.get(
+        appendable,
+        a -> new RuleKeyResult<>(null, ImmutableList.of(), ImmutableList.of()));
+    cache.get(
+        dropped,
+        r -> new RuleKeyResult<>(null, ImmutableList.of(appendable), ImmutableList.of()));
+    TestRule dependent = new TestRule();
+    cache.get(
+        dependent,
+        r -> new RuleKeyResult<>(null, ImmutableList.of(dropped), ImmutableList.of()));
+
+    Set<BuildRule> rules = Sets.newIdentityHashSet();
+    rules.add(kept);
+    rules.add(dependent);
+    cache.invalidateAllExceptBuildRules(rules);
+    assertTrue(cache.isCached(kept));
+    assertFalse(cache.isCached(dropped));
+    assertFalse(cache.isCached(dependent));
+    assertFalse(cache.isCached(appendable));
+  }
+
   private static class TestRule extends NoopBuildRule {
 
     private TestRule() {
@@ -171,4 +205,11 @@ public class DefaultRuleKeyCacheTest {
 
   }
 
+  private static class TestAppendable implements RuleKeyAppendable {
+
+    @Override
+    public void appendToRuleKey(RuleKeyObjectSink sink) {}
+
+  }
+
 }
@@ -347,6 +347,46 @@ public class DefaultRuleKeyFactoryTest {
     assertEquals(expected, seen);
   }
 
+  @Test
+  public void primitiveFieldsAreAddedLikeTheirBoxedValues() {
+    BuildTarget target = BuildTargetFactory.newInstance("//cheese:peas");
+    SourcePathRuleFinder ruleFinder = new SourcePathRuleFinder(
+        new BuildRuleResolver(TargetGraph.EMPTY, new DefaultTargetNodeToBuildRuleTransformer())
+    );
+    SourcePathResolver pathResolver = new SourcePathResolver(ruleFinder);
+    BuildRule rule = new EmptyRule(target);
+
+    DefaultRuleKeyFactory factory =
+        new DefaultRuleKeyFactory(0, new NullFileHashCache(), pathResolver, ruleFinder);
+    DefaultRuleKeyFactory.Builder<HashCode> builder = factory.newBuilderForTesting(rule);
+
+    builder.setReflectively("aged", true);
+    builder.setReflectively("fat", 45.5);
+    builder.setReflectively("grams", 250L);
+    builder.setReflectively("rind", false);
+    RuleKey expected = builder.build(RuleKey::new);
+
+    class PrimitiveFields extends EmptyRule {
+
+      @AddToRuleKey
+      private final boolean aged = true;
+      @AddToRuleKey
+      private final double fat = 45.5;
+      @AddToRuleKey
+      private final long grams = 250L;
+      @AddToRuleKey
+      private final boolean rind = false;
+
+      public PrimitiveFields(BuildTarget target) {
+        super(target);
+      }
+    }
+
+    RuleKey seen = factory.build(new PrimitiveFields(target));
+
+    assertEquals(expected, seen);
+  }
+
   @Test
   public void fieldsFromParentClassesShouldBeAddedAndFieldsRetainOverallAlphabeticalOrdering() {
     BuildTarget topLevelTarget = BuildTargetFactory.newInstance("//cheese:peas");
@@ -749,6 +789,31 @@ public class DefaultRuleKeyFactoryTest {
       throw new UnsupportedOperationException();
     }
 
+    @Override
+    public ImmutableList<Map.Entry<BuildRule, V>> getCachedBuildRules() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ImmutableMap<BuildRule, RuleKeyResult<V>> getCachedBuildRuleResults() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void seed(RuleKeyCacheSeed<V> seed) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getSeedReusedCount() {
+      return 0;
+    }
+
+    @Override
+    public long getSeedInvalidatedCount() {
+      return 0;
+    }
+
     @Override
     public void invalidateInputs(Iterable<RuleKeyInput> inputs) {
       throw new UnsupportedOperationException();
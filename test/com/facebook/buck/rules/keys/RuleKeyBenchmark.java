@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules.keys;
+
+import static org.junit.Assert.assertEquals;
+
+import com.facebook.buck.cxx.CxxPlatformUtils;
+import com.facebook.buck.cxx.CxxSource;
+import com.facebook.buck.cxx.CxxSourceRuleFactory;
+import com.facebook.buck.hashing.FileHashLoader;
+import com.facebook.buck.io.ArchiveMemberPath;
+import com.facebook.buck.jvm.java.JavaLibraryBuilder;
+import com.facebook.buck.model.BuildTargetFactory;
+import com.facebook.buck.parser.NoSuchBuildTargetException;
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.BuildRuleResolver;
+import com.facebook.buck.rules.DefaultTargetNodeToBuildRuleTransformer;
+import com.facebook.buck.rules.FakeBuildRuleParamsBuilder;
+import com.facebook.buck.rules.FakeSourcePath;
+import com.facebook.buck.rules.RuleKey;
+import com.facebook.buck.rules.SourcePath;
+import com.facebook.buck.rules.SourcePathResolver;
+import com.facebook.buck.rules.SourcePathRuleFinder;
+import com.facebook.buck.rules.TargetNode;
+import com.facebook.buck.shell.GenruleBuilder;
+import com.facebook.buck.testutil.TargetGraphFactory;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes rule keys for a mix of the rules that dominate real build graphs: Java libraries that
+ * depend on each other, genrules and C++ compilations with long flag lists.  The first benchmark
+ * covers the whole pipeline, from reading the fields of each rule to hashing them, with dep keys
+ * computed once per graph as a build does.  The others hash the same rules with their dep keys
+ * already cached, to compare {@link BufferedRuleKeyHasher} with {@link GuavaRuleKeyHasher}.  Run
+ * with caliper's allocation instrument to see the garbage each one makes.
+ */
+public class RuleKeyBenchmark {
+  @Param({"100", "1000"})
+  private int rulesPerType = 100;
+
+  private static final int DEPS_PER_LIBRARY = 5;
+  private static final int FLAGS_PER_COMPILE = 50;
+
+  /**
+   * None of the inputs exist, and their contents do not change how much work hashing them takes.
+   */
+  private static final FileHashLoader FILE_HASH_LOADER = new FileHashLoader() {
+    private final HashCode hash = HashCode.fromString(Strings.repeat("a", 40));
+
+    @Override
+    public HashCode get(Path path) {
+      return hash;
+    }
+
+    @Override
+    public long getSize(Path path) {
+      return 0;
+    }
+
+    @Override
+    public HashCode get(ArchiveMemberPath archiveMemberPath) {
+      return hash;
+    }
+  };
+
+  private SourcePathRuleFinder ruleFinder;
+  private SourcePathResolver pathResolver;
+  private List<BuildRule> rules;
+  private DefaultRuleKeyFactory warmFactory;
+
+  @Before
+  public void setUpTest() throws Exception {
+    rulesPerType = 10;
+    setUpBenchmark();
+  }
+
+  @BeforeExperiment
+  public void setUpBenchmark() throws Exception {
+    List<TargetNode<?, ?>> libraries = createJavaLibraries();
+    BuildRuleResolver resolver = new BuildRuleResolver(
+        TargetGraphFactory.newInstance(libraries),
+        new DefaultTargetNodeToBuildRuleTransformer());
+    ruleFinder = new SourcePathRuleFinder(resolver);
+    pathResolver = new SourcePathResolver(ruleFinder);
+    rules = new ArrayList<>();
+    for (TargetNode<?, ?> library : libraries) {
+      rules.add(resolver.requireRule(library.getBuildTarget()));
+    }
+    rules.addAll(createGenrules(resolver));
+    rules.addAll(createCompiles(resolver));
+
+    warmFactory = newFactory();
+    for (BuildRule rule : rules) {
+      warmFactory.build(rule);
+    }
+  }
+
+  @Test
+  public void hashersAgree() {
+    for (BuildRule rule : rules) {
+      RuleKey expected = newFactory().build(rule);
+      assertEquals(
+          expected,
+          new RuleKey(
+              warmFactory.buildForDiagnostics(
+                  rule,
+                  new GuavaRuleKeyHasher(Hashing.sha1().newHasher())).diagKey));
+      assertEquals(
+          expected,
+          new RuleKey(
+              warmFactory.buildForDiagnostics(
+                  rule,
+                  new BufferedRuleKeyHasher(Hashing.sha1().newHasher())).diagKey));
+    }
+  }
+
+  @Benchmark
+  public int ruleKeys() {
+    DefaultRuleKeyFactory factory = newFactory();
+    int sum = 0;
+    for (BuildRule rule : rules) {
+      sum += factory.build(rule).hashCode();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int guavaHasher() {
+    int sum = 0;
+    for (BuildRule rule : rules) {
+      sum += warmFactory
+          .buildForDiagnostics(rule, new GuavaRuleKeyHasher(Hashing.sha1().newHasher()))
+          .diagKey.hashCode();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int bufferedHasher() {
+    int sum = 0;
+    for (BuildRule rule : rules) {
+      sum += warmFactory
+          .buildForDiagnostics(rule, new BufferedRuleKeyHasher(Hashing.sha1().newHasher()))
+          .diagKey.hashCode();
+    }
+    return sum;
+  }
+
+  private DefaultRuleKeyFactory newFactory() {
+    return new DefaultRuleKeyFactory(0, FILE_HASH_LOADER, pathResolver, ruleFinder);
+  }
+
+  private List<TargetNode<?, ?>> createJavaLibraries() {
+    List<TargetNode<?, ?>> libraries = new ArrayList<>();
+    for (int i = 0; i < rulesPerType; i++) {
+      JavaLibraryBuilder builder = JavaLibraryBuilder
+          .createBuilder(BuildTargetFactory.newInstance("//java/com/example/lib" + i + ":lib"))
+          .addSrc(Paths.get("java/com/example/lib" + i + "/A.java"))
+          .addSrc(Paths.get("java/com/example/lib" + i + "/B.java"))
+          .setSourceLevel("8")
+          .setTargetLevel("8");
+      for (int dep = Math.max(0, i - DEPS_PER_LIBRARY); dep < i; dep++) {
+        builder.addDep(libraries.get(dep).getBuildTarget());
+      }
+      libraries.add(builder.build());
+    }
+    return libraries;
+  }
+
+  private List<BuildRule> createGenrules(BuildRuleResolver resolver)
+      throws NoSuchBuildTargetException {
+    List<BuildRule> genrules = new ArrayList<>();
+    for (int i = 0; i < rulesPerType; i++) {
+      genrules.add(
+          GenruleBuilder
+              .newGenruleBuilder(BuildTargetFactory.newInstance("//gen/example" + i + ":gen"))
+              .setOut("out" + i + ".txt")
+              .setCmd("cat $SRCS > $OUT && echo " + i + " >> $OUT")
+              .setSrcs(
+                  ImmutableList.<SourcePath>of(
+                      new FakeSourcePath("gen/example" + i + "/in.txt"),
+                      new FakeSourcePath("gen/example" + i + "/template.txt")))
+              .build(resolver));
+    }
+    return genrules;
+  }
+
+  private List<BuildRule> createCompiles(BuildRuleResolver resolver) {
+    ImmutableList.Builder<String> flags = ImmutableList.builder();
+    for (int i = 0; i < FLAGS_PER_COMPILE; i++) {
+      flags.add("-Iinclude/path" + i);
+    }
+
+    List<BuildRule> compiles = new ArrayList<>();
+    for (int i = 0; i < rulesPerType; i++) {
+      CxxSourceRuleFactory factory = CxxSourceRuleFactory.builder()
+          .setParams(
+              new FakeBuildRuleParamsBuilder(
+                  BuildTargetFactory.newInstance("//cxx/example" + i + ":lib")).build())
+          .setResolver(resolver)
+          .setPathResolver(pathResolver)
+          .setRuleFinder(ruleFinder)
+          .setCxxBuckConfig(CxxPlatformUtils.DEFAULT_CONFIG)
+          .setCxxPlatform(CxxPlatformUtils.DEFAULT_PLATFORM)
+          .setPicType(CxxSourceRuleFactory.PicType.PIC)
+          .build();
+      compiles.add(
+          factory.createPreprocessAndCompileBuildRule(
+              "source.cpp",
+              CxxSource.of(
+                  CxxSource.Type.CXX,
+                  new FakeSourcePath("cxx/example" + i + "/source.cpp"),
+                  flags.build())));
+    }
+    return compiles;
+  }
+}
@@ -24,6 +24,9 @@ import com.facebook.buck.event.DefaultBuckEventBus;
 import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.model.BuildId;
 import com.facebook.buck.rules.ActionGraph;
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.FakeBuildRuleParamsBuilder;
+import com.facebook.buck.rules.NoopBuildRule;
 import com.facebook.buck.rules.RuleKeyAppendable;
 import com.facebook.buck.testutil.FakeProjectFilesystem;
 import com.facebook.buck.testutil.WatchEventsForTests;
@@ -186,4 +189,30 @@ public class RuleKeyCacheRecyclerTest {
     assertFalse(cache.isCached(appendable));
   }
 
+  @Test
+  public void getCacheWithDifferentActionGraphKeepsRulesCarriedOver() {
+    DefaultRuleKeyCache<Void> cache = new DefaultRuleKeyCache<>();
+    RuleKeyCacheRecycler<Void> recycler =
+        RuleKeyCacheRecycler.createAndRegister(EVENT_BUS, cache, ImmutableSet.of(FILESYSTEM));
+    BuildRule kept = new NoopBuildRule(new FakeBuildRuleParamsBuilder("//:kept").build());
+    BuildRule dropped = new NoopBuildRule(new FakeBuildRuleParamsBuilder("//:dropped").build());
+    recycler.withRecycledCache(
+        BUCK_EVENT_BUS,
+        new RuleKeyCacheRecycler.SettingsAffectingCache(
+            RULE_KEY_SEED,
+            new ActionGraph(ImmutableList.of(kept, dropped))),
+        c -> {
+          c.get(kept, r -> new RuleKeyResult<>(null, ImmutableList.of(), ImmutableList.of()));
+          c.get(dropped, r -> new RuleKeyResult<>(null, ImmutableList.of(), ImmutableList.of()));
+        });
+    recycler.withRecycledCache(
+        BUCK_EVENT_BUS,
+        new RuleKeyCacheRecycler.SettingsAffectingCache(
+            RULE_KEY_SEED,
+            new ActionGraph(ImmutableList.of(kept))),
+        c -> {});
+    assertTrue(cache.isCached(kept));
+    assertFalse(cache.isCached(dropped));
+  }
+
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.rules.keys;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.rules.BuildRule;
+import com.facebook.buck.rules.BuildRuleResolver;
+import com.facebook.buck.rules.DefaultTargetNodeToBuildRuleTransformer;
+import com.facebook.buck.rules.FakeBuildRule;
+import com.facebook.buck.rules.FakeTargetNodeBuilder;
+import com.facebook.buck.rules.RuleKey;
+import com.facebook.buck.rules.TargetGraph;
+import com.facebook.buck.testutil.FakeFileHashCache;
+import com.facebook.buck.testutil.FakeProjectFilesystem;
+import com.facebook.buck.testutil.TargetGraphFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Optional;
+
+public class RuleKeyCacheSnapshotTest {
+
+  private static final HashCode FINGERPRINT = HashCode.fromInt(42);
+  private static final RuleKey DEP_KEY = new RuleKey("aaaa");
+  private static final RuleKey RULE_KEY = new RuleKey("bbbb");
+
+  private final ProjectFilesystem filesystem = new FakeProjectFilesystem();
+  private final RuleKeyInput input = RuleKeyInput.of(filesystem, filesystem.getPath("input"));
+
+  private BuildRule dep;
+  private BuildRule rule;
+
+  @Before
+  public void setUp() {
+    dep = new FakeBuildRule("//:dep");
+    rule = new FakeBuildRule("//:rule", dep);
+  }
+
+  @Test
+  public void roundTripIsReused() throws IOException {
+    RuleKeyCacheSnapshot snapshot = roundTrip(createSnapshot()).get();
+    assertThat(snapshot.size(), Matchers.equalTo(2));
+
+    BuildRuleResolver resolver = createResolver(createTargetGraph("rule"));
+    RuleKeyCacheSeed<RuleKey> seed =
+        snapshot.toSeed(resolver, createHashCache("1111"), getFilesystems());
+    assertThat(
+        seed.get(dep, r -> null).map(result -> result.result),
+        Matchers.equalTo(Optional.of(DEP_KEY)));
+    assertThat(
+        seed.get(rule, r -> DEP_KEY).map(result -> result.result),
+        Matchers.equalTo(Optional.of(RULE_KEY)));
+    assertThat(seed.getReusedCount(), Matchers.equalTo(2L));
+    assertThat(seed.getInvalidatedCount(), Matchers.equalTo(0L));
+  }
+
+  @Test
+  public void differentFingerprintIsIgnored() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    createSnapshot().write(output);
+    assertFalse(
+        RuleKeyCacheSnapshot.read(
+            new ByteArrayInputStream(output.toByteArray()),
+            HashCode.fromInt(43))
+            .isPresent());
+  }
+
+  @Test
+  public void changedInputIsInvalidated() throws IOException {
+    RuleKeyCacheSnapshot snapshot = roundTrip(createSnapshot()).get();
+    BuildRuleResolver resolver = createResolver(createTargetGraph("rule"));
+    RuleKeyCacheSeed<RuleKey> seed =
+        snapshot.toSeed(resolver, createHashCache("2222"), getFilesystems());
+    assertFalse(seed.get(dep, r -> null).isPresent());
+    assertThat(seed.getInvalidatedCount(), Matchers.equalTo(1L));
+  }
+
+  @Test
+  public void changedDepKeyIsInvalidated() throws IOException {
+    RuleKeyCacheSnapshot snapshot = roundTrip(createSnapshot()).get();
+    BuildRuleResolver resolver = createResolver(createTargetGraph("rule"));
+    RuleKeyCacheSeed<RuleKey> seed =
+        snapshot.toSeed(resolver, createHashCache("1111"), getFilesystems());
+    assertFalse(seed.get(rule, r -> new RuleKey("cccc")).isPresent());
+    assertThat(seed.getInvalidatedCount(), Matchers.equalTo(1L));
+  }
+
+  @Test
+  public void changedDefinitionIsInvalidated() throws IOException {
+    RuleKeyCacheSnapshot snapshot = roundTrip(createSnapshot()).get();
+    BuildRuleResolver resolver = createResolver(createTargetGraph("modified rule"));
+    RuleKeyCacheSeed<RuleKey> seed =
+        snapshot.toSeed(resolver, createHashCache("1111"), getFilesystems());
+    assertTrue(seed.get(dep, r -> null).isPresent());
+    assertFalse(seed.get(rule, r -> DEP_KEY).isPresent());
+  }
+
+  @Test
+  public void seededCacheTracksInputs() throws IOException {
+    RuleKeyCacheSnapshot snapshot = roundTrip(createSnapshot()).get();
+    BuildRuleResolver resolver = createResolver(createTargetGraph("rule"));
+    DefaultRuleKeyCache<RuleKey> cache = new DefaultRuleKeyCache<>();
+    cache.seed(snapshot.toSeed(resolver, createHashCache("1111"), getFilesystems()));
+    assertThat(
+        cache.get(
+            rule,
+            r -> {
+              throw new IllegalStateException();
+            }),
+        Matchers.equalTo(RULE_KEY));
+    assertTrue(cache.isCached(dep));
+    assertThat(cache.getSeedReusedCount(), Matchers.equalTo(2L));
+
+    // Seeded entries should be invalidated through their inputs like any other.
+    cache.invalidateInputs(ImmutableList.of(input));
+    assertFalse(cache.isCached(dep));
+    assertFalse(cache.isCached(rule));
+  }
+
+  @Test
+  public void rulesWithAbsoluteInputsAreSkipped() throws IOException {
+    RuleKeyInput absoluteInput = RuleKeyInput.of(filesystem, filesystem.resolve("absolute"));
+    RuleKeyCacheSnapshot snapshot =
+        RuleKeyCacheSnapshot.create(
+            FINGERPRINT,
+            createResolver(createTargetGraph("rule")),
+            ImmutableMap.of(
+                dep, new RuleKeyResult<>(DEP_KEY, ImmutableList.of(), ImmutableList.of(input)),
+                rule,
+                new RuleKeyResult<>(
+                    RULE_KEY,
+                    ImmutableList.of(dep),
+                    ImmutableList.of(absoluteInput))),
+            createHashCache("1111"));
+    assertThat(snapshot.size(), Matchers.equalTo(1));
+
+    BuildRuleResolver resolver = createResolver(createTargetGraph("rule"));
+    RuleKeyCacheSeed<RuleKey> seed =
+        roundTrip(snapshot).get().toSeed(resolver, createHashCache("1111"), getFilesystems());
+    assertTrue(seed.get(dep, r -> null).isPresent());
+    assertFalse(seed.get(rule, r -> DEP_KEY).isPresent());
+  }
+
+  private RuleKeyCacheSnapshot createSnapshot() {
+    return RuleKeyCacheSnapshot.create(
+        FINGERPRINT,
+        createResolver(createTargetGraph("rule")),
+        ImmutableMap.of(
+            dep, new RuleKeyResult<>(DEP_KEY, ImmutableList.of(), ImmutableList.of(input)),
+            rule, new RuleKeyResult<>(RULE_KEY, ImmutableList.of(dep), ImmutableList.of())),
+        createHashCache("1111"));
+  }
+
+  private static Optional<RuleKeyCacheSnapshot> roundTrip(RuleKeyCacheSnapshot snapshot)
+      throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    snapshot.write(output);
+    return RuleKeyCacheSnapshot.read(new ByteArrayInputStream(output.toByteArray()), FINGERPRINT);
+  }
+
+  private TargetGraph createTargetGraph(String ruleDefinition) {
+    return TargetGraphFactory.newInstance(
+        FakeTargetNodeBuilder.build(dep),
+        FakeTargetNodeBuilder.newBuilder(
+            rule,
+            Hashing.sha1().hashString(ruleDefinition, StandardCharsets.UTF_8))
+            .build());
+  }
+
+  private BuildRuleResolver createResolver(TargetGraph targetGraph) {
+    BuildRuleResolver resolver =
+        new BuildRuleResolver(targetGraph, new DefaultTargetNodeToBuildRuleTransformer());
+    resolver.addToIndex(dep);
+    resolver.addToIndex(rule);
+    return resolver;
+  }
+
+  private FakeFileHashCache createHashCache(String inputHash) {
+    return new FakeFileHashCache(
+        new HashMap<>(
+            ImmutableMap.of(filesystem.resolve("input"), HashCode.fromString(inputHash))));
+  }
+
+  private ImmutableMap<Path, ProjectFilesystem> getFilesystems() {
+    return ImmutableMap.of(filesystem.getRootPath(), filesystem);
+  }
+
+}
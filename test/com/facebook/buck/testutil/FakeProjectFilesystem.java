@@ -47,6 +47,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.file.CopyOption;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystem;
@@ -563,6 +564,28 @@ public class FakeProjectFilesystem extends ProjectFilesystem {
     };
   }
 
+  @Override
+  public OutputStream newFileOutputStream(
+      Path pathRelativeToProjectRoot,
+      boolean append,
+      FileAttribute<?>... attrs) throws IOException {
+    OutputStream outputStream = newFileOutputStream(pathRelativeToProjectRoot, attrs);
+    byte[] contents = fileContents.get(normalizePathToProjectRoot(pathRelativeToProjectRoot));
+    if (append && contents != null) {
+      outputStream.write(contents);
+    }
+    return outputStream;
+  }
+
+  @Override
+  public ByteBuffer mapReadOnly(Path pathRelativeToProjectRoot) throws IOException {
+    byte[] contents = fileContents.get(normalizePathToProjectRoot(pathRelativeToProjectRoot));
+    if (contents == null) {
+      throw new NoSuchFileException(pathRelativeToProjectRoot.toString());
+    }
+    return ByteBuffer.wrap(contents).asReadOnlyBuffer();
+  }
+
   /**
    * Does not support symlinks.
    */
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.buck.bser.BserDeserializer;
+import com.facebook.buck.bser.BserSerializer;
+import com.facebook.buck.event.BuckEventBusFactory;
+import com.facebook.buck.io.Transport;
+import com.facebook.buck.io.Watchman;
+import com.facebook.buck.io.WatchmanCursor;
+import com.facebook.buck.io.WatchmanQuery;
+import com.facebook.buck.timing.FakeClock;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+public class WatchmanSubscriberTest {
+
+  private static final Path CELL_PATH = Paths.get("/fake/root").toAbsolutePath();
+  private static final String SUBSCRIPTION = "buckd:" + CELL_PATH;
+  private static final WatchmanQuery QUERY =
+      WatchmanQuery.of("/fake/root", ImmutableMap.of("fields", ImmutableList.of("name")));
+
+  private final Object lock = new Object();
+  private final AtomicBoolean idle = new AtomicBoolean(true);
+  private final BlockingQueue<WatchEvent<?>> events = new LinkedBlockingQueue<>();
+  private EventBus eventBus;
+  private Map<Path, WatchmanCursor> cursors;
+  private FakeWatchman watchman;
+  private WatchmanSubscriber subscriber;
+
+  @Before
+  public void setUp() throws IOException {
+    eventBus = new EventBus();
+    eventBus.register(
+        new Object() {
+          @Subscribe
+          public void onEvent(WatchEvent<?> event) {
+            events.add(event);
+          }
+        });
+    cursors = ImmutableMap.of(CELL_PATH, new WatchmanCursor("c:0:1"));
+    watchman = new FakeWatchman();
+  }
+
+  @After
+  public void tearDown() {
+    if (subscriber != null) {
+      subscriber.close();
+    }
+  }
+
+  @Test
+  public void subscribesFromCursor() throws Exception {
+    subscriber = subscribe(ImmutableSet.of());
+    List<Object> command = watchman.commands.take();
+    assertEquals(ImmutableList.of("subscribe", "/fake/root", SUBSCRIPTION), command.subList(0, 3));
+    Map<?, ?> params = (Map<?, ?>) command.get(3);
+    assertEquals("c:0:1", params.get("since"));
+    assertEquals(ImmutableList.of("name"), params.get("fields"));
+    assertTrue(((List<?>) params.get("defer")).contains("hg.update"));
+  }
+
+  @Test
+  public void changesAreAppliedInTheBackgroundWhenIdle() throws Exception {
+    subscriber = subscribe(ImmutableSet.of());
+    watchman.send(notification("c:0:2", file("foo/BUCK", true, true)));
+
+    WatchEvent<?> event = events.poll(10, TimeUnit.SECONDS);
+    assertEquals(StandardWatchEventKinds.ENTRY_CREATE, event.kind());
+    assertEquals(Paths.get("foo/BUCK"), event.context());
+    synchronized (lock) {
+      assertEquals("c:0:2", cursors.get(CELL_PATH).get());
+    }
+  }
+
+  @Test
+  public void commandAppliesChangesDeliveredByFlush() throws Exception {
+    idle.set(false);
+    watchman.handler = command -> command.get(0).equals("flush-subscriptions") ?
+        ImmutableList.of(
+            notification("c:0:3", file("bar/Foo.java", false, false)),
+            ImmutableMap.of("synced", ImmutableList.of(SUBSCRIPTION))) :
+        ImmutableList.of(ImmutableMap.of("subscribe", SUBSCRIPTION));
+    subscriber = subscribe(ImmutableSet.of(Watchman.Capability.FLUSH_SUBSCRIPTIONS));
+    watchman.send(notification("c:0:2", file("foo/Foo.java", true, false)));
+
+    synchronized (lock) {
+      assertTrue(subscriber.postEvents(BuckEventBusFactory.newInstance(new FakeClock(0))));
+      assertEquals("c:0:3", cursors.get(CELL_PATH).get());
+    }
+    WatchEvent<?> first = events.poll();
+    assertEquals(StandardWatchEventKinds.ENTRY_MODIFY, first.kind());
+    assertEquals(Paths.get("foo/Foo.java"), first.context());
+    WatchEvent<?> second = events.poll();
+    assertEquals(StandardWatchEventKinds.ENTRY_DELETE, second.kind());
+    assertEquals(Paths.get("bar/Foo.java"), second.context());
+    assertNull(events.poll());
+  }
+
+  @Test
+  public void commandFallsBackToQueryWhileStateIsAsserted() throws Exception {
+    subscriber = subscribe(ImmutableSet.of(Watchman.Capability.FLUSH_SUBSCRIPTIONS));
+    watchman.send(
+        ImmutableMap.of(
+            "subscription", SUBSCRIPTION,
+            "unilateral", true,
+            "state-enter", "hg.update"));
+    // Notifications are handled in order, so once this one is applied the state is asserted.
+    watchman.send(notification("c:0:2", file("foo/BUCK", true, false)));
+    assertEquals(Paths.get("foo/BUCK"), events.poll(10, TimeUnit.SECONDS).context());
+
+    synchronized (lock) {
+      assertFalse(subscriber.postEvents(BuckEventBusFactory.newInstance(new FakeClock(0))));
+    }
+    assertEquals(1, watchman.commands.size());
+  }
+
+  @Test
+  public void commandFallsBackToQueryWithoutFlushSupport() throws Exception {
+    idle.set(false);
+    subscriber = subscribe(ImmutableSet.of());
+    synchronized (lock) {
+      assertFalse(subscriber.postEvents(BuckEventBusFactory.newInstance(new FakeClock(0))));
+    }
+  }
+
+  @Test
+  public void freshInstancePostsOverflow() throws Exception {
+    subscriber = subscribe(ImmutableSet.of());
+    watchman.send(
+        ImmutableMap.of(
+            "subscription", SUBSCRIPTION,
+            "unilateral", true,
+            "clock", "c:5:1",
+            "is_fresh_instance", true,
+            "files", ImmutableList.of()));
+    assertEquals(StandardWatchEventKinds.OVERFLOW, events.poll(10, TimeUnit.SECONDS).kind());
+  }
+
+  @Test
+  public void subscriptionErrorDisablesSubscriber() throws Exception {
+    watchman.handler = command -> ImmutableList.of(ImmutableMap.of("error", "unknown root"));
+    assertFalse(subscribeOptional(ImmutableSet.of()).isPresent());
+  }
+
+  @Test
+  public void namedCursorsAreNotSubscribed() throws Exception {
+    cursors = ImmutableMap.of(CELL_PATH, new WatchmanCursor("n:buckd"));
+    assertFalse(subscribeOptional(ImmutableSet.of()).isPresent());
+    assertTrue(watchman.commands.isEmpty());
+  }
+
+  private WatchmanSubscriber subscribe(ImmutableSet<Watchman.Capability> capabilities)
+      throws InterruptedException {
+    return subscribeOptional(capabilities).get();
+  }
+
+  private Optional<WatchmanSubscriber> subscribeOptional(
+      ImmutableSet<Watchman.Capability> capabilities) throws InterruptedException {
+    return WatchmanSubscriber.subscribe(
+        watchman,
+        ImmutableMap.of(CELL_PATH, QUERY),
+        cursors,
+        capabilities,
+        eventBus,
+        lock,
+        idle::get,
+        0,
+        TimeUnit.SECONDS.toMillis(10));
+  }
+
+  private static Map<String, Object> notification(String clock, Map<String, Object> file) {
+    return ImmutableMap.of(
+        "subscription", SUBSCRIPTION,
+        "unilateral", true,
+        "clock", clock,
+        "files", ImmutableList.of(file));
+  }
+
+  private static Map<String, Object> file(String name, boolean exists, boolean isNew) {
+    return ImmutableMap.of("name", name, "exists", exists, "new", isNew);
+  }
+
+  /**
+   * Answers each command sent over the transport with the PDUs from {@link #handler}.
+   */
+  private static class FakeWatchman implements Transport {
+    private final PipedInputStream clientInput;
+    private final PipedOutputStream serverOutput;
+    private final PipedInputStream serverInput;
+    private final PipedOutputStream clientOutput;
+    private final BlockingQueue<List<Object>> commands = new LinkedBlockingQueue<>();
+    private final Thread serverThread;
+
+    private volatile Function<List<Object>, List<Map<String, Object>>> handler =
+        command -> ImmutableList.of(ImmutableMap.of("subscribe", SUBSCRIPTION));
+
+    FakeWatchman() throws IOException {
+      serverOutput = new PipedOutputStream();
+      clientInput = new PipedInputStream(serverOutput, 1 << 16);
+      clientOutput = new PipedOutputStream();
+      serverInput = new PipedInputStream(clientOutput, 1 << 16);
+      serverThread = new Thread(this::serve, "Fake Watchman");
+      serverThread.setDaemon(true);
+      serverThread.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void serve() {
+      BserDeserializer deserializer = new BserDeserializer(BserDeserializer.KeyOrdering.UNSORTED);
+      try {
+        while (true) {
+          List<Object> command = (List<Object>) deserializer.deserializeBserValue(serverInput);
+          commands.add(command);
+          for (Map<String, Object> pdu : handler.apply(command)) {
+            send(pdu);
+          }
+        }
+      } catch (IOException e) {
+        // The transport was closed.
+      }
+    }
+
+    synchronized void send(Map<String, Object> pdu) throws IOException {
+      new BserSerializer().serializeToStream(pdu, serverOutput);
+      serverOutput.flush();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return clientInput;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return clientOutput;
+    }
+
+    @Override
+    public void close() throws IOException {
+      clientOutput.close();
+      serverOutput.close();
+      clientInput.close();
+      serverInput.close();
+      serverThread.interrupt();
+    }
+  }
+}
@@ -764,6 +764,49 @@ public class WatchmanWatcherTest {
     assertFalse(zeroFilesChangedSeen);
   }
 
+  @Test
+  public void queryChangedPathsSinceReturnsChangesWithoutMovingCursor()
+      throws IOException, InterruptedException {
+    String clock = "c:1386170113:26390:5:50273";
+    WatchmanCursor cursor = new WatchmanCursor("n:buckduuid");
+    WatchmanWatcher watcher =
+        new WatchmanWatcher(
+            new EventBus("watchman test event bus"),
+            new FakeWatchmanClient(
+                0 /* queryElapsedTimeNanos */,
+                ImmutableMap.of(
+                    FAKE_QUERY.toList(clock),
+                    ImmutableMap.of(
+                        "clock", "c:1386170113:26390:5:50274",
+                        "files", ImmutableList.of(
+                            ImmutableMap.<String, Object>of("name", "foo/bar/baz"))))),
+            10000 /* timeout */,
+            ImmutableMap.of(FAKE_ROOT, FAKE_QUERY),
+            ImmutableMap.of(FAKE_ROOT, cursor));
+    assertEquals(
+        Optional.of(ImmutableSet.of(Paths.get("foo/bar/baz"))),
+        watcher.queryChangedPathsSince(FAKE_ROOT, clock));
+    assertEquals("n:buckduuid", cursor.get());
+  }
+
+  @Test
+  public void queryChangedPathsSinceIsEmptyOnFreshInstance()
+      throws IOException, InterruptedException {
+    String clock = "c:1386170113:26390:5:50273";
+    WatchmanWatcher watcher =
+        createWatcher(
+            new EventBus("watchman test event bus"),
+            new FakeWatchmanClient(
+                0 /* queryElapsedTimeNanos */,
+                ImmutableMap.of(
+                    FAKE_QUERY.toList(clock),
+                    ImmutableMap.of(
+                        "is_fresh_instance", true,
+                        "files", ImmutableList.of()))),
+            10000 /* timeout */);
+    assertFalse(watcher.queryChangedPathsSince(FAKE_ROOT, clock).isPresent());
+  }
+
   private WatchmanWatcher createWatcher(
       EventBus eventBus,
       ImmutableMap<String, ? extends Object> response) {
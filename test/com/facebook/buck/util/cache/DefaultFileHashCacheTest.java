@@ -44,6 +44,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -285,6 +287,55 @@ public class DefaultFileHashCacheTest {
     assertNull(cache.sizeCache.getIfPresent(input));
   }
 
+  @Test
+  public void prefetchHashesFilesAheadOfLookups() throws IOException {
+    ProjectFilesystem filesystem = new FakeProjectFilesystem();
+    DefaultFileHashCache cache = new DefaultFileHashCache(filesystem, Optional.empty());
+
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      Path path = Paths.get("file" + i);
+      filesystem.writeContentsToPath("contents" + i, path);
+      paths.add(path);
+    }
+    Path missing = Paths.get("missing");
+    paths.add(missing);
+
+    FileHashCachePrefetchResult result = cache.prefetch(paths);
+    assertThat(result.getFilesHashed(), Matchers.equalTo(20));
+    assertThat(result.getBytesHashed(), Matchers.equalTo(10L * 9 + 10L * 9 + 10L));
+    for (Path path : paths.subList(0, 20)) {
+      assertEquals(
+          filesystem.computeSha1(path).asHashCode(),
+          cache.loadingCache.getIfPresent(path).getHashCode());
+    }
+    assertNull(cache.loadingCache.getIfPresent(missing));
+
+    // Everything which could be hashed is already cached.
+    assertThat(cache.prefetch(paths).getFilesHashed(), Matchers.equalTo(0));
+  }
+
+  @Test
+  public void directoryHashDoesNotDependOnWhichChildrenAreCached() throws IOException {
+    ProjectFilesystem filesystem = new FakeProjectFilesystem();
+    Path dir = filesystem.getPath("dir");
+    filesystem.mkdirs(dir);
+    for (int i = 0; i < 50; i++) {
+      filesystem.writeContentsToPath("contents" + i, dir.resolve("child" + i));
+    }
+
+    DefaultFileHashCache cold = new DefaultFileHashCache(filesystem, Optional.empty());
+    HashCode coldHash = cold.get(dir);
+    for (int i = 0; i < 50; i++) {
+      assertTrue(cold.willGet(dir.resolve("child" + i)));
+    }
+
+    DefaultFileHashCache warm = new DefaultFileHashCache(filesystem, Optional.empty());
+    warm.get(dir.resolve("child7"));
+    warm.get(dir.resolve("child42"));
+    assertEquals(coldHash, warm.get(dir));
+  }
+
   @Test
   public void thatBuckoutCacheWillGetIsCorrect() throws IOException {
     ProjectFilesystem filesystem = new FakeProjectFilesystem();
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class FileHashCacheSnapshotTest {
+
+  private static final Path ROOT = Paths.get("/project");
+  private static final Path OTHER_ROOT = Paths.get("/other");
+
+  @Test
+  public void roundTrip() throws IOException {
+    FileHashCacheSnapshot.Entry file =
+        new FileHashCacheSnapshot.Entry(
+            Paths.get("foo/bar.h"), false, HashCode.fromInt(1), 10L, 1234L, "(dev=1,ino=2)");
+    FileHashCacheSnapshot.Entry archive =
+        new FileHashCacheSnapshot.Entry(
+            Paths.get("lib.jar"), true, HashCode.fromInt(2), 20L, 5678L, "");
+    FileHashCacheSnapshot snapshot =
+        FileHashCacheSnapshot.builder("fingerprint")
+            .addSection(ROOT, "c:123:4", ImmutableList.of(file, archive))
+            .build();
+
+    Optional<FileHashCacheSnapshot> read =
+        FileHashCacheSnapshot.read(serialize(snapshot), "fingerprint");
+    assertThat(read.get().size(), Matchers.equalTo(2));
+    assertFalse(read.get().getSection(OTHER_ROOT).isPresent());
+
+    FileHashCacheSnapshot.Section section = read.get().getSection(ROOT).get();
+    assertThat(section.getClock(), Matchers.equalTo("c:123:4"));
+    FileHashCacheSnapshot.Entry readFile = section.getEntries().get(0);
+    assertThat(readFile.getPath(), Matchers.equalTo(file.getPath()));
+    assertFalse(readFile.isArchive());
+    assertThat(readFile.getHashCode(), Matchers.equalTo(file.getHashCode()));
+    assertThat(readFile.getSize(), Matchers.equalTo(10L));
+    assertThat(readFile.getLastModifiedMillis(), Matchers.equalTo(1234L));
+    assertThat(readFile.getFileKey(), Matchers.equalTo("(dev=1,ino=2)"));
+    assertThat(section.getEntries().get(1).isArchive(), Matchers.equalTo(true));
+  }
+
+  @Test
+  public void snapshotFromDifferentFingerprintIsIgnored() throws IOException {
+    FileHashCacheSnapshot snapshot =
+        FileHashCacheSnapshot.builder("fingerprint")
+            .addSection(ROOT, "c:123:4", ImmutableList.of())
+            .build();
+    assertFalse(FileHashCacheSnapshot.read(serialize(snapshot), "other").isPresent());
+  }
+
+  private static ByteArrayInputStream serialize(FileHashCacheSnapshot snapshot)
+      throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    snapshot.write(output);
+    return new ByteArrayInputStream(output.toByteArray());
+  }
+
+}
@@ -16,6 +16,8 @@
 
 package com.facebook.buck.util.cache;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import com.facebook.buck.config.Config;
@@ -65,6 +67,30 @@ public class StackedFileHashCacheTest {
     assertTrue(innerCache.willGet(path));
   }
 
+  @Test
+  public void prefetchIsRoutedToTheCacheHandlingEachPath() throws IOException {
+    ProjectFilesystem filesystem1 = new ProjectFilesystem(tmp.getRoot());
+    ProjectFilesystem filesystem2 = new ProjectFilesystem(tmp2.getRoot());
+    Path path = Paths.get("world.txt");
+    filesystem1.writeContentsToPath("hello", path);
+    filesystem2.writeContentsToPath("hello world", path);
+
+    DefaultFileHashCache innerCache1 = DefaultFileHashCache.createDefaultFileHashCache(filesystem1);
+    DefaultFileHashCache innerCache2 = DefaultFileHashCache.createDefaultFileHashCache(filesystem2);
+    StackedFileHashCache cache =
+        new StackedFileHashCache(ImmutableList.of(innerCache1, innerCache2));
+    FileHashCachePrefetchResult result =
+        cache.prefetch(
+            ImmutableList.of(
+                filesystem1.resolve(path),
+                filesystem2.resolve(path),
+                filesystem2.resolve("missing.txt")));
+    assertEquals(2, result.getFilesHashed());
+    assertEquals(16L, result.getBytesHashed());
+    assertNotNull(innerCache1.loadingCache.getIfPresent(path));
+    assertNotNull(innerCache2.loadingCache.getIfPresent(path));
+  }
+
   @Test
   public void usesFirstCache() throws IOException {
     ProjectFilesystem filesystem = FakeProjectFilesystem.createJavaOnlyFilesystem();
@@ -29,9 +29,11 @@ import com.facebook.buck.io.ProjectFilesystem;
 import com.facebook.buck.testutil.FakeProjectFilesystem;
 import com.facebook.buck.testutil.integration.TemporaryPaths;
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.hash.HashCode;
 
+import org.hamcrest.Matchers;
 import org.hamcrest.junit.ExpectedException;
 import org.junit.Rule;
 import org.junit.Test;
@@ -179,4 +181,41 @@ public class WatchedFileHashCacheTest {
       assertThat("Cache should not contain path", cache.sizeCache.getIfPresent(path), nullValue());
     }
 
+  @Test
+  public void snapshotEntriesCanBeRestoredIntoANewCache() throws IOException {
+    ProjectFilesystem filesystem = new ProjectFilesystem(tmp.getRoot());
+    tmp.newFolder("dir");
+    Files.write(tmp.newFile("dir/unchanged"), "unchanged".getBytes(Charsets.UTF_8));
+    Files.write(tmp.newFile("dir/changed"), "changed".getBytes(Charsets.UTF_8));
+    Files.write(tmp.newFile("resized"), "resized".getBytes(Charsets.UTF_8));
+    Path dir = Paths.get("dir");
+    Path unchanged = dir.resolve("unchanged");
+    Path changed = dir.resolve("changed");
+    Path resized = Paths.get("resized");
+
+    WatchedFileHashCache cache = new WatchedFileHashCache(filesystem);
+    HashCode unchangedHash = cache.get(unchanged);
+    cache.get(changed);
+    cache.get(resized);
+    cache.get(dir);
+    ImmutableList<FileHashCacheSnapshot.Entry> entries = cache.getSnapshotEntries();
+    assertThat(entries.size(), Matchers.equalTo(3));
+
+    Files.write(tmp.getRoot().resolve(resized), "resized again".getBytes(Charsets.UTF_8));
+    WatchedFileHashCache restoredCache = new WatchedFileHashCache(filesystem);
+    assertThat(
+        restoredCache.restore(entries, ImmutableSet.of(changed)),
+        Matchers.equalTo(1));
+    assertThat(restoredCache.loadingCache.getIfPresent(unchanged).getHashCode(),
+        Matchers.equalTo(unchangedHash));
+    assertNull(restoredCache.loadingCache.getIfPresent(changed));
+    assertNull(restoredCache.loadingCache.getIfPresent(resized));
+
+    // A change to a parent, e.g. a directory being replaced by a symlink, rules out its children.
+    WatchedFileHashCache parentChangedCache = new WatchedFileHashCache(filesystem);
+    assertThat(
+        parentChangedCache.restore(entries, ImmutableSet.of(dir)),
+        Matchers.equalTo(0));
+  }
+
 }
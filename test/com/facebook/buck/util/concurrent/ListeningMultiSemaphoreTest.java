@@ -17,13 +17,21 @@ package com.facebook.buck.util.concurrent;
 
 import static org.hamcrest.junit.MatcherAssert.assertThat;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ListeningMultiSemaphoreTest {
   @Test
@@ -219,6 +227,62 @@ public class ListeningMultiSemaphoreTest {
     assertThat(second.isDone(), Matchers.equalTo(true));
   }
 
+  @Test
+  public void pendingItemsAreGrantedInPriorityOrder() {
+    ListeningMultiSemaphore semaphore = getFairListeningMultiSemaphore(amountsOfCpu(1));
+    semaphore.acquire(amountsOfCpu(1));
+
+    List<String> order = new ArrayList<>();
+    semaphore.acquire(amountsOfCpu(1), 1).addListener(
+        () -> order.add("low"), MoreExecutors.directExecutor());
+    semaphore.acquire(amountsOfCpu(1), 5).addListener(
+        () -> order.add("high"), MoreExecutors.directExecutor());
+    semaphore.acquire(amountsOfCpu(1), 5).addListener(
+        () -> order.add("high, queued later"), MoreExecutors.directExecutor());
+    assertThat(semaphore.getQueueLength(), Matchers.equalTo(3));
+
+    for (int i = 0; i < 3; i++) {
+      semaphore.release(amountsOfCpu(1));
+    }
+    assertThat(order, Matchers.contains("high", "high, queued later", "low"));
+    assertThat(semaphore.getQueueLength(), Matchers.equalTo(0));
+  }
+
+  @Test
+  public void concurrentAcquiresAndReleasesNeverExceedMaximum() throws Exception {
+    ListeningMultiSemaphore semaphore = new ListeningMultiSemaphore(
+        amountsOfCpu(3),
+        ResourceAllocationFairness.FAST);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    AtomicInteger inUse = new AtomicInteger();
+    AtomicInteger maxInUse = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int thread = 0; thread < 8; thread++) {
+        int priority = thread;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 500; i++) {
+            ResourceAmounts amounts = amountsOfCpu(1 + i % 2);
+            Futures.getUnchecked(semaphore.acquire(amounts, priority));
+            maxInUse.accumulateAndGet(
+                inUse.addAndGet(amounts.getCpu()),
+                Math::max);
+            inUse.addAndGet(-amounts.getCpu());
+            semaphore.release(amounts);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(maxInUse.get(), Matchers.lessThanOrEqualTo(3));
+    assertThat(semaphore.getAvailableResources(), Matchers.equalTo(amountsOfCpu(3)));
+    assertThat(semaphore.getQueueLength(), Matchers.equalTo(0));
+  }
+
   private ListeningMultiSemaphore getFairListeningMultiSemaphore(ResourceAmounts values) {
     return new ListeningMultiSemaphore(
         values,
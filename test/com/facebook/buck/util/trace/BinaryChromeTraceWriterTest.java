@@ -0,0 +1,224 @@
+/*
+ * Copyright 2017-present Facebook, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License. You may obtain
+ * a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.facebook.buck.util.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.buck.io.ProjectFilesystem;
+import com.facebook.buck.testutil.integration.TemporaryPaths;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+public class BinaryChromeTraceWriterTest {
+  @Rule
+  public TemporaryPaths tmp = new TemporaryPaths();
+
+  @Test
+  public void eventsRoundTripInOrder() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    List<JsonObject> expected = new ArrayList<>();
+    try (BinaryChromeTraceWriter writer = new BinaryChromeTraceWriter(bytes)) {
+      // A run of events from one thread long enough to span several blocks, then events from
+      // interleaved threads, with time going backwards now and then.
+      for (int i = 0; i < 1000; i++) {
+        long threadId = i < 600 ? 0 : i % 3;
+        long microTime = 1_000_000_000L + i * 10 - (i % 7 == 0 ? 25 : 0);
+        ImmutableMap<String, String> args = i % 5 == 0
+            ? ImmutableMap.of("rule", "//fake:rule" + (i % 11), "cache_result", "miss")
+            : ImmutableMap.of();
+        String phase = i % 2 == 0 ? "B" : "E";
+        writer.writeEvent("buck", "event" + (i % 13), phase, 0, threadId, microTime, i, args);
+        expected.add(toJson("buck", "event" + (i % 13), phase, 0, threadId, microTime, i, args));
+      }
+    }
+
+    List<JsonObject> actual = readAll(
+        new BinaryChromeTraceReader(new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventsAreFlushedOnceASecondOfTraceTime() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (BinaryChromeTraceWriter writer = new BinaryChromeTraceWriter(bytes)) {
+      writer.writeEvent("buck", "build", "B", 0, 1, 1_000_000, 0, ImmutableMap.of());
+      writer.writeEvent("buck", "step", "B", 0, 2, 1_500_000, 0, ImmutableMap.of());
+      writer.writeEvent("buck", "step", "E", 0, 2, 2_500_000, 10, ImmutableMap.of());
+
+      // Nothing has been closed, as when Buck gets killed.
+      List<JsonObject> actual = readAll(
+          new BinaryChromeTraceReader(new ByteArrayInputStream(bytes.toByteArray())));
+      assertEquals(
+          ImmutableList.of(
+              toJson("buck", "build", "B", 0, 1, 1_000_000, 0, ImmutableMap.of()),
+              toJson("buck", "step", "B", 0, 2, 1_500_000, 0, ImmutableMap.of()),
+              toJson("buck", "step", "E", 0, 2, 2_500_000, 10, ImmutableMap.of())),
+          actual);
+    }
+  }
+
+  @Test
+  public void truncatedTraceEndsAfterLastCompleteEvent() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryChromeTraceWriter writer = new BinaryChromeTraceWriter(bytes);
+    writer.writeEvent("buck", "build", "B", 0, 1, 100, 0, ImmutableMap.of("a", "b"));
+    writer.writeEvent("buck", "build", "E", 0, 1, 200, 0, ImmutableMap.of());
+    writer.close();
+
+    byte[] complete = bytes.toByteArray();
+    // Drop the end record and the last byte of the second event.
+    byte[] truncated = Arrays.copyOf(complete, complete.length - 2);
+    try (BinaryChromeTraceReader reader =
+             new BinaryChromeTraceReader(new ByteArrayInputStream(truncated))) {
+      JsonObject first = reader.readEvent();
+      assertEquals(toJson("buck", "build", "B", 0, 1, 100, 0, ImmutableMap.of("a", "b")), first);
+      assertNull(reader.readEvent());
+      assertNull(reader.readEvent());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void jsonTraceIsRejected() throws IOException {
+    new BinaryChromeTraceReader(
+        new ByteArrayInputStream("[{\"name\":\"build\"}]".getBytes(StandardCharsets.UTF_8)))
+        .close();
+  }
+
+  @Test
+  public void convertsToJsonArray() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (BinaryChromeTraceWriter writer = new BinaryChromeTraceWriter(bytes)) {
+      writer.writeEvent("buck", "process_name", "M", 0, 0, 0, 0, ImmutableMap.of("name", "buck"));
+      writer.writeEvent("buck", "build", "B", 0, 7, 5000, 300, ImmutableMap.of());
+    }
+
+    JsonArray events;
+    try (InputStream json = BinaryChromeTraceConverter.toJson(
+             new BinaryChromeTraceReader(new ByteArrayInputStream(bytes.toByteArray())))) {
+      events = new JsonParser()
+          .parse(new InputStreamReader(json, StandardCharsets.UTF_8))
+          .getAsJsonArray();
+    }
+    assertEquals(2, events.size());
+    assertEquals(
+        toJson("buck", "process_name", "M", 0, 0, 0, 0, ImmutableMap.of("name", "buck")),
+        events.get(0));
+    assertEquals(toJson("buck", "build", "B", 0, 7, 5000, 300, ImmutableMap.of()), events.get(1));
+  }
+
+  @Test
+  public void convertsEmptyTraceToEmptyJsonArray() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new BinaryChromeTraceWriter(bytes).close();
+    try (InputStream json = BinaryChromeTraceConverter.toJson(
+             new BinaryChromeTraceReader(new ByteArrayInputStream(bytes.toByteArray())))) {
+      assertEquals(
+          0,
+          new JsonParser()
+              .parse(new InputStreamReader(json, StandardCharsets.UTF_8))
+              .getAsJsonArray()
+              .size());
+    }
+  }
+
+  @Test
+  public void parserReadsCompressedBinaryTraces() throws IOException {
+    ProjectFilesystem projectFilesystem = new ProjectFilesystem(tmp.getRoot());
+    Path tracePath = Paths.get("build.a.btrace.gz");
+    assertTrue(BinaryChromeTraceReader.isBinaryTrace(tracePath));
+    try (OutputStream output =
+             new GZIPOutputStream(projectFilesystem.newFileOutputStream(tracePath));
+         BinaryChromeTraceWriter writer = new BinaryChromeTraceWriter(output)) {
+      writer.writeEvent("buck", "process_name", "M", 0, 0, 0, 0, ImmutableMap.of("name", "buck"));
+      writer.writeEvent(
+          "buck",
+          "query",
+          "B",
+          0,
+          1,
+          100,
+          0,
+          ImmutableMap.of("command_args", "deps(fb4a, 1)"));
+    }
+
+    Map<ChromeTraceParser.ChromeTraceEventMatcher<?>, Object> results =
+        new ChromeTraceParser(projectFilesystem).parse(
+            tracePath,
+            ImmutableSet.of(ChromeTraceParser.COMMAND));
+    assertEquals(ImmutableMap.of(ChromeTraceParser.COMMAND, "buck query deps(fb4a, 1)"), results);
+  }
+
+  private static List<JsonObject> readAll(BinaryChromeTraceReader reader) throws IOException {
+    List<JsonObject> events = new ArrayList<>();
+    try {
+      JsonObject event;
+      while ((event = reader.readEvent()) != null) {
+        events.add(event);
+      }
+    } finally {
+      reader.close();
+    }
+    return events;
+  }
+
+  private static JsonObject toJson(
+      String category,
+      String name,
+      String phase,
+      long processId,
+      long threadId,
+      long microTime,
+      long microThreadUserTime,
+      Map<String, String> args) {
+    JsonObject event = new JsonObject();
+    event.addProperty("ph", phase);
+    event.addProperty("cat", category);
+    event.addProperty("name", name);
+    event.addProperty("pid", processId);
+    event.addProperty("tid", threadId);
+    event.addProperty("ts", microTime);
+    event.addProperty("tts", microThreadUserTime);
+    JsonObject argsJson = new JsonObject();
+    args.forEach(argsJson::addProperty);
+    event.add("args", argsJson);
+    return event;
+  }
+}